@@ -4,14 +4,19 @@
 
 package com.dialtone;
 
+import com.dialtone.ratelimit.RateLimiters;
 import com.dialtone.server.DialtoneServer;
+import com.dialtone.server.StartupOrchestrator;
+import com.dialtone.state.ReadinessState;
 import com.dialtone.web.DialtoneWebServer;
 import com.dialtone.utils.LoggerUtil;
 import com.dialtone.db.DatabaseManager;
+import com.dialtone.db.SchemaInitializer;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 
 /**
@@ -23,8 +28,8 @@ import java.util.concurrent.CountDownLatch;
  */
 public class DialtoneApplication {
     
-    private static DialtoneServer aolServer;
-    private static DialtoneWebServer webServer;
+    private static volatile DialtoneServer aolServer;
+    private static volatile DialtoneWebServer webServer;
     private static final CountDownLatch shutdownLatch = new CountDownLatch(1);
     
     public static void main(String[] args) {
@@ -37,20 +42,19 @@ public class DialtoneApplication {
             
             // Initialize database (singleton, shared by both servers)
             String dbPath = config.getProperty("db.path", "db/dialtone.db");
-            DatabaseManager.getInstance(dbPath);
+            DatabaseManager databaseManager = DatabaseManager.getInstance(dbPath);
             LoggerUtil.info("Database initialized: " + dbPath);
-            
-            // Start Dialtone Protocol Server in its own thread
-            startAolServer(config);
-            
-            // Start Web Interface Server in its own thread
-            startWebServer(config);
-            
-            // Add shutdown hook for graceful shutdown
+
+            // Rate limiters are shared by both servers (P3 login and web API)
+            RateLimiters.getInstance().configure(config);
+
+            // Registered before startup so a failed start still stops whatever did come up
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 LoggerUtil.info("Shutting down Dialtone Application...");
                 shutdown();
             }));
+
+            startServers(config, databaseManager);
             
             LoggerUtil.info("");
             LoggerUtil.info("========================================");
@@ -62,62 +66,70 @@ public class DialtoneApplication {
             shutdownLatch.await();
             
         } catch (Exception e) {
+            ReadinessState.getInstance().setPhase(ReadinessState.Phase.FAILED, e.getMessage());
             LoggerUtil.error("Failed to start Dialtone Application: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
         }
     }
 
-    private static void startAolServer(Properties config) throws Exception {
+    /**
+     * Start both servers in parallel, then warm up, then report ready.
+     *
+     * <p>The schema migration, the protocol server's shared services and the web services
+     * initialize at the same time; each server binds its port as soon as it and the schema
+     * are ready. Warm-up compiles the cached forms once the protocol services are
+     * registered. Readiness flips only after every step has finished.</p>
+     */
+    private static void startServers(Properties config, DatabaseManager databaseManager) throws Exception {
         int port = Integer.parseInt(config.getProperty("server.port", "5190"));
         String bindAddr = config.getProperty("bind.address", "0.0.0.0");
         boolean verbose = Boolean.parseBoolean(config.getProperty("verbose", "false"));
         long delay = Long.parseLong(config.getProperty("packet.delay.ms", "0"));
-        
-        LoggerUtil.info("Starting Dialtone Protocol Server on " + bindAddr + ":" + port);
-        
-        Thread aolThread = new Thread(() -> {
-            try {
+        int webPort = Integer.parseInt(config.getProperty("web.port", "5200"));
+        boolean warmUpEnabled = Boolean.parseBoolean(config.getProperty("startup.warmup.enabled", "true"));
+        long timeoutMs = Long.parseLong(config.getProperty("startup.timeout.ms", "120000"));
+
+        ReadinessState readiness = ReadinessState.getInstance();
+        long start = System.nanoTime();
+
+        try (StartupOrchestrator startup = new StartupOrchestrator()) {
+            // Both servers read the schema; neither accepts traffic before it is migrated
+            CompletableFuture<Void> schema = startup.step("database-schema", () ->
+                    SchemaInitializer.initializeSchema(databaseManager));
+
+            CompletableFuture<Void> aolServices = startup.step("protocol-services", () -> {
                 aolServer = new DialtoneServer(port, bindAddr, verbose, delay, config);
-                aolServer.start();
-            } catch (Exception e) {
-                LoggerUtil.error("Dialtone Server failed: " + e.getMessage());
-                e.printStackTrace();
-                shutdown();
-            }
-        }, "Dialtone-Server-Thread");
-        
-        aolThread.setDaemon(false);
-        aolThread.start();
-        
-        // Give it a moment to start
-        Thread.sleep(1000);
-        LoggerUtil.info("✓ Dialtone Protocol Server started on port " + port);
-    }
+                aolServer.initialize();
+            });
 
-    private static void startWebServer(Properties config) throws Exception {
-        int webPort = Integer.parseInt(config.getProperty("web.port", "5200"));
-        
-        LoggerUtil.info("Starting Web Management Interface on port " + webPort);
-        
-        Thread webThread = new Thread(() -> {
-            try {
+            startup.step("protocol-bind", () -> {
+                LoggerUtil.info("Starting Dialtone Protocol Server on " + bindAddr + ":" + port);
+                aolServer.bind();
+                LoggerUtil.info("✓ Dialtone Protocol Server started on port " + port);
+            }, aolServices, schema);
+
+            startup.step("web-server", () -> {
+                LoggerUtil.info("Starting Web Management Interface on port " + webPort);
                 webServer = new DialtoneWebServer(config);
                 webServer.start(webPort);
-            } catch (Exception e) {
-                LoggerUtil.error("Web Server failed: " + e.getMessage());
-                e.printStackTrace();
-                shutdown();
+                LoggerUtil.info("✓ Web Management Interface started on port " + webPort);
+                LoggerUtil.info("Access the web interface at: http://localhost:" + webPort);
+            }, schema);
+
+            if (warmUpEnabled) {
+                startup.step("warm-up", () -> {
+                    readiness.setPhase(ReadinessState.Phase.WARMING_UP, "compiling forms");
+                    aolServer.warmUp();
+                }, aolServices);
             }
-        }, "Web-Server-Thread");
-        
-        webThread.setDaemon(false);
-        webThread.start();
-        
-        // Give it a moment to start
-        Thread.sleep(1000);
-        LoggerUtil.info("✓ Web Management Interface started on port " + webPort);
-        LoggerUtil.info("Access the web interface at: http://localhost:" + webPort);
+
+            startup.awaitAll(timeoutMs);
+            LoggerUtil.info("Startup steps: " + startup.getDurationsMs());
+        }
+
+        readiness.setPhase(ReadinessState.Phase.READY,
+                String.format("started in %dms", (System.nanoTime() - start) / 1_000_000));
     }
     
     /**
@@ -184,6 +196,7 @@ public class DialtoneApplication {
 
 
     private static void shutdown() {
+        ReadinessState.getInstance().setPhase(ReadinessState.Phase.STOPPING, "shutting down");
         try {
             if (webServer != null) {
                 LoggerUtil.info("Stopping Web Server...");
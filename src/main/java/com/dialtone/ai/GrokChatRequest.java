@@ -35,6 +35,9 @@ public class GrokChatRequest {
     @JsonProperty("tools")
     private List<Tool> tools;
 
+    @JsonProperty("stream")
+    private Boolean stream;
+
     public GrokChatRequest() {
         this.input = new ArrayList<>();
     }
@@ -92,6 +95,30 @@ public class GrokChatRequest {
         this.tools = tools;
     }
 
+    public Boolean getStream() {
+        return stream;
+    }
+
+    public void setStream(Boolean stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Copy of this request with {@code stream} set; the messages and tools are shared.
+     *
+     * @param stream value for the copy
+     * @return the copy
+     */
+    public GrokChatRequest withStream(Boolean stream) {
+        GrokChatRequest copy = new GrokChatRequest(model, input);
+        copy.instructions = instructions;
+        copy.temperature = temperature;
+        copy.maxOutputTokens = maxOutputTokens;
+        copy.tools = tools;
+        copy.stream = stream;
+        return copy;
+    }
+
     public void addMessage(String role, String content) {
         this.input.add(new Message(role, content));
     }
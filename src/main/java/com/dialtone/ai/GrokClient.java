@@ -6,29 +6,55 @@ package com.dialtone.ai;
 
 import com.dialtone.utils.JacksonConfig;
 import com.dialtone.utils.LoggerUtil;
+import com.dialtone.utils.SseEventParser;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.AbstractCharResponseConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.util.Timeout;
 
 import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
  * Client for xAI Grok Responses API (/v1/responses).
  * Migrated from the deprecated Chat Completions API with Live Search
  * to the new Agent Tools API with web_search and x_search tools.
+ *
+ * Blocking requests go through a pooled classic client. Streaming requests
+ * ({@link #streamChatCompletion}) use a pooled async client that is started on first
+ * use and deliver text deltas from the server-sent event stream as they arrive.
  */
 public class GrokClient implements AutoCloseable {
 
     private static final String DEFAULT_BASE_URL = "https://api.x.ai/v1";
     private static final String DEFAULT_MODEL = "grok-4-fast";
     private static final int DEFAULT_TIMEOUT_MS = 10000;
+    private static final int DEFAULT_MAX_CONNECTIONS = 20;
+    private static final int MAX_ERROR_BODY_CHARS = 4096;
 
     // Pattern to strip inline citation markdown like [[1]](url)
     private static final Pattern CITATION_PATTERN = Pattern.compile("\\[\\[\\d+\\]\\]\\([^)]+\\)");
@@ -37,7 +63,9 @@ public class GrokClient implements AutoCloseable {
     private final String apiKey;
     private final String model;
     private final int timeoutMs;
+    private final int maxConnections;
     private final CloseableHttpClient httpClient;
+    private volatile CloseableHttpAsyncClient asyncClient;
 
     // Global kill switch
     private final boolean enabled;
@@ -46,12 +74,18 @@ public class GrokClient implements AutoCloseable {
     private final boolean searchEnabled;
     private final String[] searchSources;
 
+    // Streaming mode (opt-in): callers use streamChatCompletion instead of chatCompletion
+    private final boolean streamingEnabled;
+
     public GrokClient(Properties properties) {
         this.baseUrl = properties.getProperty("grok.base.url", DEFAULT_BASE_URL);
         this.apiKey = properties.getProperty("grok.api.key");
         this.model = properties.getProperty("grok.model", DEFAULT_MODEL);
         this.timeoutMs = Integer.parseInt(properties.getProperty("grok.timeout.ms", String.valueOf(DEFAULT_TIMEOUT_MS)));
-        this.httpClient = HttpClients.createDefault();
+        this.maxConnections = Integer.parseInt(properties.getProperty("grok.http.max.connections",
+                String.valueOf(DEFAULT_MAX_CONNECTIONS)));
+        this.httpClient = createPooledClient(maxConnections);
+        this.streamingEnabled = Boolean.parseBoolean(properties.getProperty("grok.streaming.enabled", "false"));
 
         // Global kill switch (default: true/enabled for backwards compatibility)
         this.enabled = Boolean.parseBoolean(properties.getProperty("grok.enabled", "true"));
@@ -67,7 +101,8 @@ public class GrokClient implements AutoCloseable {
 
         LoggerUtil.info("GrokClient initialized: enabled=" + enabled + ", model=" + model +
                         ", searchEnabled=" + searchEnabled +
-                        ", tools=" + String.join(",", searchSources));
+                        ", tools=" + String.join(",", searchSources) +
+                        ", streaming=" + streamingEnabled + ", maxConnections=" + maxConnections);
     }
 
     public GrokClient(String baseUrl, String apiKey, String model, int timeoutMs) {
@@ -75,10 +110,12 @@ public class GrokClient implements AutoCloseable {
         this.apiKey = apiKey;
         this.model = model;
         this.timeoutMs = timeoutMs;
-        this.httpClient = HttpClients.createDefault();
+        this.maxConnections = DEFAULT_MAX_CONNECTIONS;
+        this.httpClient = createPooledClient(maxConnections);
 
         // Default: enabled (for test constructor)
         this.enabled = true;
+        this.streamingEnabled = false;
 
         // Default search tools configuration for this constructor
         this.searchEnabled = true;
@@ -154,6 +191,219 @@ public class GrokClient implements AutoCloseable {
         }
     }
 
+    /**
+     * Send a streaming request to the xAI Responses API.
+     * The request is sent with {@code stream: true}; each output text delta is passed
+     * to {@code onDelta} on the async client's I/O thread as soon as it arrives, so the
+     * listener must not block. The calling thread is not parked while Grok generates.
+     *
+     * Cancelling the returned future aborts the HTTP exchange.
+     *
+     * @param request The request with input messages and tools
+     * @param onDelta Receives raw text deltas in order
+     * @return Future completing with the full generated text (citations stripped)
+     */
+    public CompletableFuture<String> streamChatCompletion(GrokChatRequest request, Consumer<String> onDelta) {
+        if (!enabled) {
+            LoggerUtil.info("Grok API disabled (grok.enabled=false), skipping API call");
+            return CompletableFuture.failedFuture(
+                    new IOException("Grok API is disabled via configuration (grok.enabled=false)"));
+        }
+
+        String requestJson;
+        try {
+            // Copied, so the caller's request is left as it was
+            requestJson = JacksonConfig.mapper().writeValueAsString(request.withStream(true));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        LoggerUtil.debug(() -> "Grok API streaming request: " + requestJson);
+
+        AsyncRequestProducer producer = AsyncRequestBuilder.post(baseUrl + "/responses")
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .addHeader("Accept", "text/event-stream")
+                .setEntity(AsyncEntityProducers.create(requestJson, ContentType.APPLICATION_JSON))
+                .build();
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<String> exchange = getAsyncClient().execute(producer, new StreamingResponseConsumer(onDelta),
+                new FutureCallback<>() {
+                    @Override
+                    public void completed(String text) {
+                        LoggerUtil.info(String.format("Grok API stream completed in %.1fs",
+                                (System.currentTimeMillis() - startTime) / 1000.0));
+                        result.complete(CITATION_PATTERN.matcher(text).replaceAll("").trim());
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        LoggerUtil.error(String.format("Grok API stream failed after %.1fs: %s",
+                                (System.currentTimeMillis() - startTime) / 1000.0, ex.getMessage()));
+                        result.completeExceptionally(ex);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                    }
+                });
+
+        result.whenComplete((text, ex) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Consumes a text/event-stream response, forwarding output text deltas.
+     * Non-200 responses are collected (bounded) and reported as an IOException.
+     */
+    private static final class StreamingResponseConsumer extends AbstractCharResponseConsumer<String> {
+        private final Consumer<String> onDelta;
+        private final StringBuilder fullText = new StringBuilder();
+        private final StringBuilder errorBody = new StringBuilder();
+        private final SseEventParser parser;
+        private IOException streamError;
+        private int statusCode;
+
+        StreamingResponseConsumer(Consumer<String> onDelta) {
+            super(8192, CharCodingConfig.custom().setCharset(StandardCharsets.UTF_8).build());
+            this.onDelta = onDelta;
+            this.parser = new SseEventParser(this::onEvent);
+        }
+
+        @Override
+        protected void start(HttpResponse response, ContentType contentType) {
+            this.statusCode = response.getCode();
+        }
+
+        @Override
+        protected int capacityIncrement() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        protected void data(CharBuffer data, boolean endOfStream) throws IOException {
+            if (statusCode != 200) {
+                if (errorBody.length() < MAX_ERROR_BODY_CHARS) {
+                    errorBody.append(data, 0, Math.min(data.remaining(), MAX_ERROR_BODY_CHARS - errorBody.length()));
+                }
+                return;
+            }
+            parser.feed(data);
+            if (endOfStream) {
+                parser.finish();
+            }
+            if (streamError != null) {
+                throw streamError;
+            }
+        }
+
+        @Override
+        protected String buildResult() throws IOException {
+            if (statusCode != 200) {
+                LoggerUtil.error("Grok API error: HTTP " + statusCode + " - " + errorBody);
+                throw new IOException("HTTP " + statusCode + ": " + errorBody);
+            }
+            return fullText.toString();
+        }
+
+        @Override
+        public void failed(Exception cause) {
+            // Reported through the FutureCallback
+        }
+
+        @Override
+        public void releaseResources() {
+        }
+
+        private void onEvent(String event, String data) {
+            if (streamError != null || "[DONE]".equals(data)) {
+                return;
+            }
+            String delta;
+            try {
+                delta = extractStreamDelta(JacksonConfig.mapper().readTree(data));
+            } catch (IOException e) {
+                streamError = e;
+                return;
+            }
+            if (delta != null && !delta.isEmpty()) {
+                fullText.append(delta);
+                onDelta.accept(delta);
+            }
+        }
+    }
+
+    /**
+     * Extract the text delta from one streamed event payload.
+     * Handles Responses API events ({@code response.output_text.delta}) and
+     * Chat Completions style chunks ({@code choices[0].delta.content}).
+     *
+     * @return The delta text, or null for events that carry no output text
+     * @throws IOException if the event reports a stream error
+     */
+    static String extractStreamDelta(JsonNode node) throws IOException {
+        String type = node.path("type").asText("");
+        switch (type) {
+            case "response.output_text.delta":
+                return node.path("delta").asText(null);
+            case "error":
+            case "response.failed":
+                String message = node.path("error").path("message").asText(
+                        node.path("message").asText("stream failed"));
+                throw new IOException("Grok stream error: " + message);
+            default:
+                break;
+        }
+        JsonNode choices = node.path("choices");
+        if (choices.isArray() && !choices.isEmpty()) {
+            JsonNode content = choices.get(0).path("delta").path("content");
+            return content.isTextual() ? content.asText() : null;
+        }
+        return null;
+    }
+
+    /**
+     * Get the shared async client, starting it on first use.
+     * Its connection pool is reused by every streaming request from this client.
+     */
+    private CloseableHttpAsyncClient getAsyncClient() {
+        CloseableHttpAsyncClient client = asyncClient;
+        if (client == null) {
+            synchronized (this) {
+                client = asyncClient;
+                if (client == null) {
+                    client = HttpAsyncClients.custom()
+                            .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                                    .setMaxConnTotal(maxConnections)
+                                    .setMaxConnPerRoute(maxConnections)
+                                    .build())
+                            .setIOReactorConfig(IOReactorConfig.custom()
+                                    .setSoTimeout(Timeout.ofMilliseconds(timeoutMs))
+                                    .build())
+                            .build();
+                    client.start();
+                    asyncClient = client;
+                    LoggerUtil.info("Grok async streaming client started (maxConnections=" + maxConnections + ")");
+                }
+            }
+        }
+        return client;
+    }
+
+    private static CloseableHttpClient createPooledClient(int maxConnections) {
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnections)
+                        .build())
+                .build();
+    }
+
     /**
      * Create a simple request with a user message.
      *
@@ -276,6 +526,15 @@ public class GrokClient implements AutoCloseable {
         return searchEnabled;
     }
 
+    /**
+     * Check if streaming mode is enabled (grok.streaming.enabled).
+     *
+     * @return true if callers should prefer streamChatCompletion
+     */
+    public boolean isStreamingEnabled() {
+        return streamingEnabled;
+    }
+
     /**
      * Get the configured model name.
      *
@@ -289,5 +548,9 @@ public class GrokClient implements AutoCloseable {
     public void close() throws IOException {
         LoggerUtil.info("Closing GrokClient");
         httpClient.close();
+        CloseableHttpAsyncClient client = asyncClient;
+        if (client != null) {
+            client.close(CloseMode.GRACEFUL);
+        }
     }
 }
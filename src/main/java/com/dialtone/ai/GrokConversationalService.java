@@ -13,6 +13,8 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Service for generating conversational responses using Grok AI.
@@ -177,6 +179,51 @@ public class GrokConversationalService implements AutoCloseable {
         }
     }
 
+    /**
+     * Stream a conversational response with context-aware prompts.
+     * Text deltas are passed to {@code onDelta} as Grok generates them; the returned
+     * future completes with the full response. Does not block the caller.
+     *
+     * @param userMessage The message from the user
+     * @param history Previous conversation history (can be null)
+     * @param contextHint Optional context about the conversation (can be null)
+     * @param responseContext The response context (CHAT_ROOM or INSTANT_MESSAGE)
+     * @param onDelta Receives text deltas on the HTTP I/O thread; must not block
+     * @return Future completing with the full response text
+     */
+    public CompletableFuture<String> streamResponseWithContext(String userMessage,
+                                                               java.util.List<ConversationMemoryManager.Message> history,
+                                                               String contextHint,
+                                                               ResponseContext responseContext,
+                                                               Consumer<String> onDelta) {
+        if (userMessage == null || userMessage.trim().isEmpty()) {
+            throw new IllegalArgumentException("User message cannot be null or empty");
+        }
+
+        int historySize = (history != null) ? history.size() : 0;
+        LoggerUtil.info(String.format("Streaming Grok response for: %s (history: %d messages, context: %s)",
+                truncate(userMessage, 50), historySize, responseContext));
+
+        GrokChatRequest request = buildChatRequestWithContext(userMessage, history, contextHint, responseContext);
+        return grokClient.streamChatCompletion(request, onDelta)
+                .thenApply(content -> {
+                    if (content == null || content.isEmpty()) {
+                        throw new java.util.concurrent.CompletionException(
+                                new IOException("Grok returned empty content"));
+                    }
+                    return content;
+                });
+    }
+
+    /**
+     * Check if streaming responses are enabled (grok.streaming.enabled).
+     *
+     * @return true if callers should use streamResponseWithContext
+     */
+    public boolean isStreamingEnabled() {
+        return grokClient.isStreamingEnabled();
+    }
+
     /**
      * Generate a response with project knowledge context.
      * This version includes information about the Dialtone project to help answer technical questions.
@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * Formats Grok responses to fit within AOL protocol character limits.
@@ -19,6 +20,8 @@ import java.util.Properties;
  * 1. Check if response already fits
  * 2. AI-powered natural splitting (calls Grok to split naturally)
  * 3. Deterministic fallback (word-boundary truncation with "...")
+ *
+ * Streamed responses are split locally as they arrive via {@link #newStreamingSplitter}.
  */
 public class ResponseFormatter {
 
@@ -133,6 +136,19 @@ public class ResponseFormatter {
         return new FormattedResponse(capped, splitDelayMs, false, wasTruncated);
     }
 
+    /**
+     * Create a splitter for a streamed response in the given context.
+     * Messages are emitted to {@code sink} sentence by sentence as text arrives,
+     * using the same character limit and message cap as {@link #format}.
+     *
+     * @param context The context (CHAT_ROOM or INSTANT_MESSAGE)
+     * @param sink Receives each completed message
+     * @return A new splitter for one response
+     */
+    public StreamingResponseSplitter newStreamingSplitter(ResponseContext context, Consumer<String> sink) {
+        return new StreamingResponseSplitter(getLimit(context), maxMessages, sink);
+    }
+
     /**
      * Get the character limit for the given context.
      *
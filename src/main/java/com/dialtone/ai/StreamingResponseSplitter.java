@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.ai;
+
+import com.dialtone.utils.MessageSplitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a streamed response into protocol-sized messages as the text arrives.
+ *
+ * Deltas are appended as they are received; every completed sentence is emitted
+ * immediately so the first line can reach the chat room or IM window before
+ * generation has finished. Sentences longer than the limit are split at word
+ * boundaries. This replaces the second AI round trip {@link ResponseFormatter}
+ * uses for non-streaming responses.
+ *
+ * Not thread-safe; deltas from one stream arrive sequentially.
+ */
+public class StreamingResponseSplitter {
+
+    // Inline citation markdown like [[1]](url), stripped before emitting
+    private static final Pattern CITATION_PATTERN = Pattern.compile("\\[\\[\\d+\\]\\]\\([^)]+\\)");
+
+    private final int limit;
+    private final int maxMessages;
+    private final Consumer<String> sink;
+    private final StringBuilder pending = new StringBuilder();
+    private final StringBuilder fullText = new StringBuilder();
+    private final List<String> emitted = new ArrayList<>();
+    private boolean truncated;
+    private boolean finished;
+
+    /**
+     * @param limit       Maximum characters per emitted message
+     * @param maxMessages Maximum messages to emit; later text is dropped
+     * @param sink        Receives each message as soon as it is complete
+     */
+    public StreamingResponseSplitter(int limit, int maxMessages, Consumer<String> sink) {
+        if (limit < 4) {
+            throw new IllegalArgumentException("limit must be at least 4");
+        }
+        this.limit = limit;
+        this.maxMessages = Math.max(1, maxMessages);
+        this.sink = sink;
+    }
+
+    /**
+     * Append the next streamed text fragment, emitting any messages it completes.
+     */
+    public void append(String delta) {
+        if (finished || delta == null || delta.isEmpty()) {
+            return;
+        }
+        fullText.append(delta);
+        pending.append(delta);
+        drain(false);
+    }
+
+    /**
+     * Flush remaining text at end of stream.
+     *
+     * @return Messages emitted over the life of the stream
+     */
+    public List<String> finish() {
+        if (!finished) {
+            drain(true);
+            finished = true;
+        }
+        return Collections.unmodifiableList(emitted);
+    }
+
+    /**
+     * Stop emitting without flushing buffered text (e.g. the response deadline passed).
+     * Later deltas are ignored.
+     */
+    public void cancel() {
+        finished = true;
+        pending.setLength(0);
+    }
+
+    /**
+     * @return Everything appended so far, unsplit (for conversation memory)
+     */
+    public String getFullText() {
+        return fullText.toString();
+    }
+
+    public List<String> getEmitted() {
+        return Collections.unmodifiableList(emitted);
+    }
+
+    public boolean wasTruncated() {
+        return truncated;
+    }
+
+    private void drain(boolean endOfStream) {
+        while (pending.length() > 0 && !truncated) {
+            int boundary = findSentenceEnd();
+            if (boundary >= 0) {
+                String sentence = pending.substring(0, boundary);
+                pending.delete(0, boundary);
+                emitText(sentence);
+            } else if (pending.length() > limit * 2) {
+                // Long run without punctuation: emit whole words that are safely complete
+                int cut = pending.lastIndexOf(" ", limit);
+                if (cut <= limit / 3) {
+                    cut = limit;
+                }
+                String head = pending.substring(0, cut);
+                pending.delete(0, cut);
+                emitText(head);
+            } else if (endOfStream) {
+                String rest = pending.toString();
+                pending.setLength(0);
+                emitText(rest);
+            } else {
+                return;
+            }
+        }
+        if (truncated) {
+            pending.setLength(0);
+        }
+    }
+
+    /**
+     * Find the end (exclusive) of the first complete sentence in the pending buffer.
+     * A sentence ends at '.', '!' or '?' followed by whitespace, or at a newline.
+     */
+    private int findSentenceEnd() {
+        for (int i = 0; i < pending.length(); i++) {
+            char c = pending.charAt(i);
+            if (c == '\n') {
+                return i + 1;
+            }
+            if ((c == '.' || c == '!' || c == '?') && i + 1 < pending.length()) {
+                char next = pending.charAt(i + 1);
+                if (Character.isWhitespace(next)) {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void emitText(String text) {
+        String clean = CITATION_PATTERN.matcher(text).replaceAll("").trim();
+        if (clean.isEmpty()) {
+            return;
+        }
+        List<String> parts = clean.length() <= limit
+                ? List.of(clean)
+                : MessageSplitter.splitMessage(clean, limit);
+        for (String part : parts) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (emitted.size() >= maxMessages) {
+                truncated = true;
+                return;
+            }
+            emitted.add(trimmed);
+            sink.accept(trimmed);
+        }
+    }
+}
@@ -14,10 +14,12 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,6 +34,8 @@ import java.util.regex.Pattern;
  * - Single scheduler and HTTP client for efficiency
  * - Daily quota tracking per category
  * - Background fetching with smart initial delays
+ * - Publish step: new content swaps in pre-rendered teasers and notifies listeners
+ *   (e.g. the news story renderer) once, instead of being re-read per request
  */
 public class UnifiedNewsService implements AutoCloseable {
 
@@ -44,6 +48,8 @@ public class UnifiedNewsService implements AutoCloseable {
     private final Map<NewsCategory, NewsConfig> categoryConfigs;
     private final Map<NewsCategory, AtomicReference<UnifiedNewsContent>> cachedContent;
     private final Map<NewsCategory, FetchMetadata> fetchMetadata;
+    private final List<BiConsumer<NewsCategory, UnifiedNewsContent>> publishListeners = new CopyOnWriteArrayList<>();
+    private volatile Map<NewsCategory, String> teaserHeadlines = Collections.emptyMap();
     private final boolean retryEnabled;
     private final int retryDelaySeconds;
 
@@ -272,7 +278,7 @@ public class UnifiedNewsService implements AutoCloseable {
         // Load existing content
         UnifiedNewsContent existingContent = persistence.loadLatestContent(key);
         if (existingContent != null) {
-            cachedContent.get(category).set(existingContent);
+            publish(category, existingContent);
             LoggerUtil.info("Loaded existing " + key + " news: " + existingContent.getTeaserHeadline());
         } else {
             LoggerUtil.warn("No existing " + key + " news found - will show default message until first fetch succeeds");
@@ -481,9 +487,8 @@ public class UnifiedNewsService implements AutoCloseable {
         LoggerUtil.debug(() -> "Grok " + category.getKey() + " response: " + content);
 
         UnifiedNewsContent parsedContent = parseResponse(category, content);
-        cachedContent.get(category).set(parsedContent);
-
         persistence.saveContent(category.getKey(), parsedContent, config.getKeepFileCount());
+        publish(category, parsedContent);
 
         LoggerUtil.info(capitalize(category.getKey()) + " updated: " + parsedContent.getTeaserHeadline());
     }
@@ -542,24 +547,53 @@ public class UnifiedNewsService implements AutoCloseable {
     }
 
     /**
-     * Get teaser headline for a category.
-     * Returns instantly with cached value or fallback.
+     * Make new content current: swap it into the cache, rebuild the teaser snapshot and
+     * notify publish listeners. Runs once per fetch, on the fetcher thread.
      */
-    public String getTeaserHeadline(NewsCategory category) {
-        UnifiedNewsContent content = cachedContent.get(category).get();
+    private synchronized void publish(NewsCategory category, UnifiedNewsContent content) {
+        cachedContent.get(category).set(content);
 
-        if (content == null) {
-            // Try loading historical content
-            UnifiedNewsContent historical = persistence.loadLatestContent(category.getKey());
-            if (historical != null) {
-                LoggerUtil.info("Using historical " + category.getKey() + " content (waiting for quota/refresh)");
-                cachedContent.get(category).set(historical);
-                return historical.getTeaserHeadline();
-            }
-            return DEFAULT_LOADING_MESSAGE;
+        Map<NewsCategory, String> teasers = new EnumMap<>(NewsCategory.class);
+        teasers.putAll(teaserHeadlines);
+        teasers.put(category, content.getTeaserHeadline());
+        teaserHeadlines = Collections.unmodifiableMap(teasers);
+
+        for (BiConsumer<NewsCategory, UnifiedNewsContent> listener : publishListeners) {
+            notifyListener(listener, category, content);
         }
+    }
 
-        return content.getTeaserHeadline();
+    private void notifyListener(BiConsumer<NewsCategory, UnifiedNewsContent> listener,
+                                NewsCategory category, UnifiedNewsContent content) {
+        try {
+            listener.accept(category, content);
+        } catch (Exception e) {
+            LoggerUtil.error("News publish listener failed for " + category.getKey() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Register a listener for newly published content.
+     *
+     * <p>The listener is called at once for every category with its current content
+     * (null if none has been fetched yet), then again each time a category is refreshed.</p>
+     *
+     * @param listener receives the category and its new content
+     */
+    public synchronized void addPublishListener(BiConsumer<NewsCategory, UnifiedNewsContent> listener) {
+        publishListeners.add(listener);
+        for (NewsCategory category : NewsCategory.values()) {
+            notifyListener(listener, category, getLatestContent(category));
+        }
+    }
+
+    /**
+     * Get teaser headline for a category.
+     * Returns instantly from the snapshot taken when the content was published.
+     */
+    public String getTeaserHeadline(NewsCategory category) {
+        Map<NewsCategory, String> teasers = teaserHeadlines;
+        return teasers.containsKey(category) ? teasers.get(category) : DEFAULT_LOADING_MESSAGE;
     }
 
     /**
@@ -584,11 +618,8 @@ public class UnifiedNewsService implements AutoCloseable {
      * Get headline for a category (CryptoNewsService compatibility).
      */
     public String getHeadline(NewsCategory category) {
-        UnifiedNewsContent content = getLatestContent(category);
-        if (content == null) {
-            return DEFAULT_LOADING_MESSAGE;
-        }
-        return content.getHeadline();
+        // The headline is the teaser headline
+        return getTeaserHeadline(category);
     }
 
     @Override
@@ -5,12 +5,12 @@
 package com.dialtone.art;
 
 import com.dialtone.protocol.ClientPlatform;
+import com.dialtone.resources.ResourceRepository;
 import com.dialtone.utils.JacksonConfig;
 import com.dialtone.utils.LoggerUtil;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
@@ -65,6 +65,11 @@ public class ArtService {
                 }
             });
 
+    private final ResourceRepository resources = ResourceRepository.getInstance();
+
+    /** Snapshot generation the art cache was filled from. */
+    private long cacheGeneration;
+
     public ArtService() {
     }
 
@@ -115,13 +120,49 @@ public class ArtService {
     private String findResourceInPaths(String matArtId, String extension) {
         for (String searchPath : ART_SEARCH_PATHS) {
             String resourcePath = searchPath + matArtId + extension;
-            if (getClass().getResource(resourcePath) != null) {
+            if (resources.exists(resourcePath)) {
                 return resourcePath;
             }
         }
         return null;
     }
 
+    /**
+     * Open an art resource from the resource snapshot.
+     *
+     * @return stream over the resource, or null if it does not exist
+     */
+    private InputStream openResource(String resourcePath) {
+        return resources.snapshot().open(resourcePath).orElse(null);
+    }
+
+    /**
+     * Read an art resource from the resource snapshot.
+     *
+     * @return resource contents (shared, do not modify)
+     * @throws IOException if the resource does not exist
+     */
+    private byte[] readResource(String resourcePath) throws IOException {
+        return resources.snapshot().bytes(resourcePath)
+            .orElseThrow(() -> new IOException("Art file not found: " + resourcePath));
+    }
+
+    /**
+     * Clear processed art if the resource snapshot changed since it was cached.
+     *
+     * @return the current snapshot generation
+     */
+    private long syncCacheWithSnapshot() {
+        long generation = resources.snapshot().getGeneration();
+        synchronized (artCache) {
+            if (cacheGeneration != generation) {
+                artCache.clear();
+                cacheGeneration = generation;
+            }
+        }
+        return generation;
+    }
+
     /**
      * Create default metadata for images without JSON files.
      * Provides sensible defaults that keep GIF files under size limits:
@@ -169,8 +210,9 @@ public class ArtService {
      * @throws IOException if asset loading or conversion fails
      */
     public byte[] getArtAsBytes(String matArtId, ClientPlatform platform) throws IOException {
-        // Check LRU cache first
+        // Check LRU cache first (dropped when resources were reloaded)
         String cacheKey = matArtId + ":" + platform;
+        long generation = syncCacheWithSnapshot();
         byte[] cached = artCache.get(cacheKey);
         if (cached != null) {
             LoggerUtil.debug(String.format("Art cache hit: %s (%d bytes)", cacheKey, cached.length));
@@ -278,8 +320,12 @@ public class ArtService {
                     actualMatArtId, result.length));
         }
 
-        // Store in LRU cache
-        artCache.put(cacheKey, result);
+        // Store in LRU cache, unless a reload replaced the snapshot this was processed from
+        synchronized (artCache) {
+            if (cacheGeneration == generation) {
+                artCache.put(cacheKey, result);
+            }
+        }
         return result;
     }
 
@@ -319,7 +365,7 @@ public class ArtService {
                 // For GIF on Windows, check _opaque variant first
                 if (platform == ClientPlatform.WINDOWS && ".gif".equals(ext)) {
                     resourcePath = searchPath + matArtId + "_opaque" + ext;
-                    if (getClass().getResource(resourcePath) != null) {
+                    if (resources.exists(resourcePath)) {
                         LoggerUtil.debug(String.format(
                             "Found opaque GIF variant for Windows: %s", resourcePath));
                         return resourcePath;
@@ -328,7 +374,7 @@ public class ArtService {
 
                 // Check standard file
                 resourcePath = searchPath + matArtId + ext;
-                if (getClass().getResource(resourcePath) != null) {
+                if (resources.exists(resourcePath)) {
                     return resourcePath;
                 }
             }
@@ -353,7 +399,7 @@ public class ArtService {
     private BufferedImage loadImage(String matArtId) throws IOException {
         String imagePath = findImagePath(matArtId);
 
-        try (InputStream inputStream = getClass().getResourceAsStream(imagePath)) {
+        try (InputStream inputStream = openResource(imagePath)) {
             if (inputStream == null) {
                 throw new IOException("Image file not found: " + imagePath);
             }
@@ -383,20 +429,17 @@ public class ArtService {
                 " (searched all art paths)");
         }
 
-        try (InputStream inputStream = getClass().getResourceAsStream(jsonPath)) {
-            if (inputStream == null) {
-                throw new IOException("JSON metadata file not found: " + jsonPath);
-            }
-
-            ArtMetadata metadata = JacksonConfig.mapper().readValue(inputStream, ArtMetadata.class);
-
-            // Validate metadata
-            if (metadata.getWidth() <= 0 || metadata.getHeight() <= 0) {
-                throw new IOException("Invalid dimensions in metadata: " + metadata);
-            }
+        // Parsed once per resource snapshot; callers treat the metadata as read-only
+        ArtMetadata metadata = resources.snapshot()
+            .<ArtMetadata>decode(jsonPath, data -> JacksonConfig.mapper().readValue(data, ArtMetadata.class))
+            .orElseThrow(() -> new IOException("JSON metadata file not found: " + jsonPath));
 
-            return metadata;
+        // Validate metadata
+        if (metadata.getWidth() <= 0 || metadata.getHeight() <= 0) {
+            throw new IOException("Invalid dimensions in metadata: " + metadata);
         }
+
+        return metadata;
     }
 
     /**
@@ -518,21 +561,7 @@ public class ArtService {
         if (gifPath == null) {
             throw new IOException("GIF file not found: " + matArtId + ".gif");
         }
-        byte[] rawGifBytes;
-
-        try (InputStream inputStream = getClass().getResourceAsStream(gifPath)) {
-            if (inputStream == null) {
-                throw new IOException("GIF file not found: " + gifPath);
-            }
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                baos.write(buffer, 0, bytesRead);
-            }
-            rawGifBytes = baos.toByteArray();
-        }
+        byte[] rawGifBytes = readResource(gifPath);
 
         LoggerUtil.debug(String.format(
                 "Loaded raw GIF: %s, %d bytes", matArtId, rawGifBytes.length));
@@ -581,21 +610,7 @@ public class ArtService {
         if (bmpPath == null) {
             throw new IOException("BMP file not found: " + matArtId + ".bmp");
         }
-        byte[] rawBmpBytes;
-
-        try (InputStream inputStream = getClass().getResourceAsStream(bmpPath)) {
-            if (inputStream == null) {
-                throw new IOException("BMP file not found: " + bmpPath);
-            }
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                baos.write(buffer, 0, bytesRead);
-            }
-            rawBmpBytes = baos.toByteArray();
-        }
+        byte[] rawBmpBytes = readResource(bmpPath);
 
         LoggerUtil.debug(String.format(
                 "Loaded raw BMP: %s, %d bytes", matArtId, rawBmpBytes.length));
@@ -644,21 +659,7 @@ public class ArtService {
         if (artPath == null) {
             throw new IOException("ART file not found: " + matArtId + ".art");
         }
-        byte[] rawArtBytes;
-
-        try (InputStream inputStream = getClass().getResourceAsStream(artPath)) {
-            if (inputStream == null) {
-                throw new IOException("ART file not found: " + artPath);
-            }
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                baos.write(buffer, 0, bytesRead);
-            }
-            rawArtBytes = baos.toByteArray();
-        }
+        byte[] rawArtBytes = readResource(artPath);
 
         LoggerUtil.debug(String.format(
                 "Loaded raw ART: %s, %d bytes", matArtId, rawArtBytes.length));
@@ -809,7 +810,7 @@ public class ArtService {
             // No JSON metadata: handle pass-through formats or PNG/JPG with default processing
             if (".gif".equals(extension)) {
                 // GIF pass-through: extract dimensions from GIF header
-                try (InputStream inputStream = getClass().getResourceAsStream(imagePath)) {
+                try (InputStream inputStream = openResource(imagePath)) {
                     if (inputStream == null) {
                         throw new IOException("GIF file not found: " + imagePath);
                     }
@@ -830,7 +831,7 @@ public class ArtService {
                 }
             } else if (".bmp".equals(extension)) {
                 // BMP pass-through: extract dimensions from BMP header
-                try (InputStream inputStream = getClass().getResourceAsStream(imagePath)) {
+                try (InputStream inputStream = openResource(imagePath)) {
                     if (inputStream == null) {
                         throw new IOException("BMP file not found: " + imagePath);
                     }
@@ -851,7 +852,7 @@ public class ArtService {
                 }
             } else if (".art".equals(extension)) {
                 // ART pass-through: extract dimensions from ART header
-                try (InputStream inputStream = getClass().getResourceAsStream(imagePath)) {
+                try (InputStream inputStream = openResource(imagePath)) {
                     if (inputStream == null) {
                         throw new IOException("ART file not found: " + imagePath);
                     }
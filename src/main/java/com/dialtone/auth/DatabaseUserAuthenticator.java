@@ -9,7 +9,6 @@ import com.dialtone.protocol.auth.UserAuthenticator;
 import com.dialtone.utils.LoggerUtil;
 import org.mindrot.jbcrypt.BCrypt;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -105,18 +104,13 @@ public class DatabaseUserAuthenticator implements UserAuthenticator {
             AND u.is_active = 1
             """;
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+        return databaseManager.read(session -> {
+            PreparedStatement stmt = session.prepare(sql);
             stmt.setString(1, screenname);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getString("password_hash");
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("password_hash") : null; // null: screenname not found
             }
-
-            return null; // Screenname not found
-        }
+        });
     }
 
     /**
@@ -153,12 +147,14 @@ public class DatabaseUserAuthenticator implements UserAuthenticator {
             WHERE u.is_active = 1
             """;
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
+        try {
+            Integer count = databaseManager.read(session -> {
+                try (ResultSet rs = session.prepare(sql).executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : null;
+                }
+            });
+            if (count != null) {
+                return count;
             }
 
         } catch (SQLException e) {
@@ -188,31 +184,34 @@ public class DatabaseUserAuthenticator implements UserAuthenticator {
             AND u.is_active = 1
             """;
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, screenname);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                String createdAtRaw = rs.getString("created_at");
-                LocalDateTime createdAt;
-                if (createdAtRaw != null && !createdAtRaw.isEmpty()) {
-                    createdAt = LocalDateTime.parse(createdAtRaw.replace(" ", "T"));
-                } else {
-                    createdAt = LocalDateTime.now();
+        try {
+            return databaseManager.read(session -> {
+                PreparedStatement stmt = session.prepare(sql);
+                stmt.setString(1, screenname);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+
+                    String createdAtRaw = rs.getString("created_at");
+                    LocalDateTime createdAt;
+                    if (createdAtRaw != null && !createdAtRaw.isEmpty()) {
+                        createdAt = LocalDateTime.parse(createdAtRaw.replace(" ", "T"));
+                    } else {
+                        createdAt = LocalDateTime.now();
+                    }
+
+                    return new ScreennameInfo(
+                        rs.getInt("id"),
+                        rs.getString("screenname"),
+                        rs.getBoolean("is_primary"),
+                        createdAt,
+                        rs.getInt("user_id"),
+                        rs.getString("x_username"),
+                        rs.getString("x_display_name")
+                    );
                 }
-
-                return new ScreennameInfo(
-                    rs.getInt("id"),
-                    rs.getString("screenname"),
-                    rs.getBoolean("is_primary"),
-                    createdAt,
-                    rs.getInt("user_id"),
-                    rs.getString("x_username"),
-                    rs.getString("x_display_name")
-                );
-            }
+            });
 
         } catch (SQLException e) {
             LoggerUtil.error("Error getting screenname info: " + e.getMessage());
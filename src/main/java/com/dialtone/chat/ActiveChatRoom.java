@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.chat;
+
+import com.dialtone.auth.UserRegistry.UserConnection;
+import com.dialtone.protocol.TrafficClass;
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live membership of one named chat room.
+ *
+ * <p>Members are held in a copy-on-write array ordered by join time. Joins and leaves
+ * build a new roster and publish it with a CAS; broadcasts and chat-room FDO builds read
+ * the current snapshot without locking, so a line of chat costs O(room members) regardless
+ * of how many users are online elsewhere.</p>
+ *
+ * <p>Tags ({@code mat_relative_tag}) are scoped to the room and come from a lock-free
+ * {@link ChatTagAllocator}. Each user keeps the same tag while they are in the room and
+ * gets it back when they return, if it is still free. Bots are registered as virtual
+ * users: they hold a tag but receive no broadcasts.</p>
+ */
+public final class ActiveChatRoom {
+
+    /** Lowest assignable tag (tag 1 is reserved). */
+    public static final int MIN_TAG = 2;
+
+    /** Highest assignable tag (single-byte protocol limit). */
+    public static final int MAX_TAG = 255;
+
+    /** Returned by {@link #assignTag} when no tag is free. */
+    public static final int NO_TAG = ChatTagAllocator.NO_TAG;
+
+    /** Returned by {@link #assignTag} when the room was closed and must be recreated. */
+    static final int ROOM_CLOSED = -2;
+
+    // Sticky-reuse memory is dropped once it grows past this many departed users
+    private static final int MAX_REMEMBERED_TAGS = 1024;
+
+    /**
+     * A user present in the room.
+     *
+     * @param username screenname (original casing)
+     * @param tag room-scoped mat_relative_tag
+     * @param connection the user's connection
+     * @param joinedAt System.nanoTime() at join, for ordering
+     */
+    public record Member(String username, int tag, UserConnection connection, long joinedAt) {}
+
+    /**
+     * Outcome of one broadcast.
+     *
+     * @param sent frames enqueued and drained
+     * @param deferred frames deferred for members with DOD exclusivity
+     * @param skipped inactive members skipped
+     * @param excluded members excluded (typically the sender)
+     */
+    public record BroadcastResult(int sent, int deferred, int skipped, int excluded) {}
+
+    // Immutable view published to readers; replaced wholesale on every change
+    private record Roster(Member[] members, Map<String, Integer> tags, Set<String> virtualUsers,
+                          boolean closed, long epoch) {
+
+        Roster withTag(String key, int tag, boolean virtual) {
+            Map<String, Integer> nextTags = new HashMap<>(tags);
+            nextTags.put(key, tag);
+            Set<String> nextVirtual = virtualUsers;
+            if (virtual) {
+                Set<String> copy = new HashSet<>(virtualUsers);
+                copy.add(key);
+                nextVirtual = Set.copyOf(copy);
+            }
+            return new Roster(members, Map.copyOf(nextTags), nextVirtual, closed, epoch + 1);
+        }
+    }
+
+    private static final Member[] NO_MEMBERS = new Member[0];
+
+    private final String name;
+    private final ChatTagAllocator tagAllocator = new ChatTagAllocator(MIN_TAG, MAX_TAG);
+    private final AtomicReference<Roster> roster =
+            new AtomicReference<>(new Roster(NO_MEMBERS, Map.of(), Set.of(), false, 0));
+
+    // Last tag each user held here, for sticky reuse
+    private final ConcurrentHashMap<String, Integer> lastTags = new ConcurrentHashMap<>();
+
+    ActiveChatRoom(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Assign (or return the existing) room tag for a user about to join.
+     * Prefers the tag the user held last time, then the next free tag.
+     *
+     * @param username screenname
+     * @return the tag, {@link #NO_TAG} if all tags are in use
+     */
+    public int assignTag(String username) {
+        return assignTag(username, false);
+    }
+
+    /**
+     * Assign a tag to a virtual user (bot). Virtual users never appear as members.
+     *
+     * @param username bot screenname
+     * @return the tag, or {@link #NO_TAG} if none is free
+     */
+    public int assignVirtualTag(String username) {
+        return assignTag(username, true);
+    }
+
+    private int assignTag(String username, boolean virtual) {
+        String key = username.toLowerCase();
+        Roster current = roster.get();
+        if (current.closed()) {
+            return ROOM_CLOSED;
+        }
+        Integer existing = current.tags().get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        int tag = tagAllocator.allocate(lastTags.getOrDefault(key, NO_TAG));
+        if (tag == NO_TAG) {
+            LoggerUtil.error("[" + name + "] All chat tags in use - cannot assign tag to '" + username + "'");
+            return NO_TAG;
+        }
+
+        while (true) {
+            current = roster.get();
+            if (current.closed()) {
+                tagAllocator.release(tag);
+                return ROOM_CLOSED;
+            }
+            existing = current.tags().get(key);
+            if (existing != null) {
+                // Concurrent assignment for the same user won
+                tagAllocator.release(tag);
+                return existing;
+            }
+            if (roster.compareAndSet(current, current.withTag(key, tag, virtual))) {
+                break;
+            }
+        }
+
+        if (lastTags.size() >= MAX_REMEMBERED_TAGS) {
+            lastTags.clear();
+        }
+        lastTags.put(key, tag);
+        LoggerUtil.debug("[" + name + "] Assigned tag " + tag + " to '" + username + "'");
+        return tag;
+    }
+
+    /**
+     * Get a user's room tag.
+     *
+     * @param username screenname
+     * @return the tag, or {@link #NO_TAG} if the user holds none in this room
+     */
+    public int getTag(String username) {
+        if (username == null) {
+            return NO_TAG;
+        }
+        return roster.get().tags().getOrDefault(username.toLowerCase(), NO_TAG);
+    }
+
+    /**
+     * Add a connection to the member list (end of join order).
+     * The user must already hold a tag from {@link #assignTag}.
+     *
+     * @param connection joining user's connection
+     * @return the member entry, or null if the user holds no tag here
+     */
+    public Member join(UserConnection connection) {
+        String key = connection.getUsername().toLowerCase();
+        while (true) {
+            Roster current = roster.get();
+            Integer tag = current.tags().get(key);
+            if (tag == null) {
+                return null;
+            }
+            for (Member member : current.members()) {
+                if (member.username().toLowerCase().equals(key)) {
+                    return member;
+                }
+            }
+
+            Member[] members = Arrays.copyOf(current.members(), current.members().length + 1);
+            Member joined = new Member(connection.getUsername(), tag, connection, System.nanoTime());
+            members[members.length - 1] = joined;
+            Roster next = new Roster(members, current.tags(), current.virtualUsers(), current.closed(), current.epoch() + 1);
+            if (roster.compareAndSet(current, next)) {
+                return joined;
+            }
+        }
+    }
+
+    /**
+     * Remove a user from the member list and release their tag.
+     * Also releases the tag of a user who never completed joining.
+     *
+     * @param username screenname
+     * @return the released tag, or {@link #NO_TAG} if the user held none
+     */
+    public int leave(String username) {
+        String key = username.toLowerCase();
+        while (true) {
+            Roster current = roster.get();
+            Integer tag = current.tags().get(key);
+            if (tag == null) {
+                return NO_TAG;
+            }
+
+            Member[] members = current.members();
+            for (int i = 0; i < members.length; i++) {
+                if (members[i].username().toLowerCase().equals(key)) {
+                    Member[] remaining = new Member[members.length - 1];
+                    System.arraycopy(members, 0, remaining, 0, i);
+                    System.arraycopy(members, i + 1, remaining, i, members.length - i - 1);
+                    members = remaining;
+                    break;
+                }
+            }
+
+            Map<String, Integer> tags = new HashMap<>(current.tags());
+            tags.remove(key);
+            Set<String> virtualUsers = current.virtualUsers();
+            if (virtualUsers.contains(key)) {
+                Set<String> copy = new HashSet<>(virtualUsers);
+                copy.remove(key);
+                virtualUsers = Set.copyOf(copy);
+            }
+            Roster next = new Roster(members, Map.copyOf(tags), virtualUsers, current.closed(), current.epoch() + 1);
+            if (roster.compareAndSet(current, next)) {
+                tagAllocator.release(tag);
+                return tag;
+            }
+        }
+    }
+
+    /**
+     * Close the room if no human holds a tag in it. A closed room accepts no more users.
+     *
+     * @return true if the room is (now) closed
+     */
+    boolean closeIfIdle() {
+        while (true) {
+            Roster current = roster.get();
+            if (current.closed()) {
+                return true;
+            }
+            if (current.members().length > 0 || current.tags().size() > current.virtualUsers().size()) {
+                return false;
+            }
+            Roster next = new Roster(current.members(), current.tags(), current.virtualUsers(), true, current.epoch() + 1);
+            if (roster.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Current members in join order (oldest first). The list is a read-only view of an
+     * immutable snapshot and does not change after it is returned.
+     *
+     * @return members snapshot
+     */
+    public List<Member> getMembers() {
+        return Collections.unmodifiableList(Arrays.asList(roster.get().members()));
+    }
+
+    public int getMemberCount() {
+        return roster.get().members().length;
+    }
+
+    /**
+     * @return change counter, incremented on every tag assignment, join and leave
+     */
+    public long getEpoch() {
+        return roster.get().epoch();
+    }
+
+    /**
+     * @return the room's tag allocator (for metrics)
+     */
+    public ChatTagAllocator getTagAllocator() {
+        return tagAllocator;
+    }
+
+    public boolean isMember(String username) {
+        if (username == null) {
+            return false;
+        }
+        for (Member member : roster.get().members()) {
+            if (member.username().equalsIgnoreCase(username)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Enqueue a frame to every member except {@code excludeUsername} and drain each pacer.
+     * Members with DOD exclusivity get the frame deferred instead.
+     *
+     * @param frame frame bytes
+     * @param label pacer label
+     * @param excludeUsername member to skip (case-insensitive), or null
+     * @param drainFrames frames to drain per recipient
+     * @return per-outcome counts
+     */
+    public BroadcastResult broadcast(byte[] frame, String label, String excludeUsername, int drainFrames) {
+        int sent = 0;
+        int deferred = 0;
+        int skipped = 0;
+        int excluded = 0;
+
+        for (Member member : roster.get().members()) {
+            if (excludeUsername != null && member.username().equalsIgnoreCase(excludeUsername)) {
+                excluded++;
+                continue;
+            }
+
+            UserConnection connection = member.connection();
+            if (!connection.isActive()) {
+                LoggerUtil.warn("[" + name + "] Skipping inactive user during broadcast: " + member.username());
+                skipped++;
+                continue;
+            }
+
+            // Check if user has active DOD transfer - if so, defer the broadcast
+            if (connection.isDodExclusivityActive()) {
+                connection.queueDeferredBroadcast(frame, label);
+                deferred++;
+                continue;
+            }
+
+            connection.getPacer().enqueueSafe(connection.getContext(), frame, label, TrafficClass.INTERACTIVE);
+
+            // Drain immediately since the recipient isn't in their own splitAndDispatch() cycle
+            connection.getPacer().drainLimited(connection.getContext(), drainFrames);
+            sent++;
+        }
+
+        return new BroadcastResult(sent, deferred, skipped, excluded);
+    }
+
+    @Override
+    public String toString() {
+        return "ActiveChatRoom{name='" + name + "', members=" + getMemberCount() + ", epoch=" + getEpoch() + '}';
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.chat;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton directory of live chat rooms.
+ *
+ * <p>Rooms are created on first entry and removed when the last user leaves (the
+ * default room is kept). Each user is in at most one room at a time; the manager
+ * remembers which, so departures and chat lines go straight to that room's members.</p>
+ */
+public final class ChatRoomManager {
+
+    public static final String DEFAULT_ROOM_NAME = "Dialtone Lobby";
+    public static final int DEFAULT_MAX_ROOMS = 64;
+
+    // Room names are shown in the chat window title
+    private static final int MAX_ROOM_NAME_LENGTH = 64;
+
+    private static final ChatRoomManager INSTANCE = new ChatRoomManager();
+
+    private final ConcurrentHashMap<String, ActiveChatRoom> rooms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ActiveChatRoom> roomByUser = new ConcurrentHashMap<>();
+
+    private volatile String defaultRoomName = DEFAULT_ROOM_NAME;
+    private volatile int maxRooms = DEFAULT_MAX_ROOMS;
+
+    private ChatRoomManager() {
+    }
+
+    public static ChatRoomManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Apply {@code chat.default.room} and {@code chat.max.rooms}.
+     *
+     * @param properties application properties
+     */
+    public void configure(Properties properties) {
+        String room = properties.getProperty("chat.default.room");
+        if (room != null && !room.isBlank()) {
+            defaultRoomName = normalizeName(room);
+        }
+        String max = properties.getProperty("chat.max.rooms");
+        if (max != null) {
+            try {
+                maxRooms = Math.max(1, Integer.parseInt(max.trim()));
+            } catch (NumberFormatException e) {
+                LoggerUtil.warn("Invalid chat.max.rooms value: " + max + ", using default: " + DEFAULT_MAX_ROOMS);
+            }
+        }
+    }
+
+    public String getDefaultRoomName() {
+        return defaultRoomName;
+    }
+
+    /**
+     * @param roomName requested room, or null/blank for the default room
+     * @return the name of the room {@link #enter} targets for that request
+     */
+    public String resolveRoomName(String roomName) {
+        return roomName == null || roomName.isBlank() ? defaultRoomName : normalizeName(roomName);
+    }
+
+    /**
+     * Enter a room (creating it if needed) and assign the user a tag there.
+     * The user becomes a member once {@link ActiveChatRoom#join} is called.
+     * If the room cannot be created because the room limit is reached, the default room is used.
+     *
+     * <p>A user still in another room is taken out of it first. Callers that need the old
+     * room's members to see the departure must {@link #leave} before entering.</p>
+     *
+     * @param username screenname
+     * @param roomName requested room, or null/blank for the default room
+     * @return the room entered, with the user's tag available from {@link ActiveChatRoom#getTag};
+     *         null if the room has no free tag, in which case the user is in no room
+     */
+    public ActiveChatRoom enter(String username, String roomName) {
+        String name = resolveRoomName(roomName);
+
+        while (true) {
+            ActiveChatRoom room = resolve(name);
+            ActiveChatRoom previous = roomByUser.get(username.toLowerCase());
+            if (previous != null && previous != room) {
+                leave(username);
+            }
+            int tag = room.assignTag(username);
+            if (tag == ActiveChatRoom.ROOM_CLOSED) {
+                // Closed by a concurrent last-leave; drop it and create a fresh one
+                rooms.remove(room.getName().toLowerCase(), room);
+                continue;
+            }
+            if (tag == ActiveChatRoom.NO_TAG) {
+                if (!room.getName().equalsIgnoreCase(defaultRoomName) && room.closeIfIdle()) {
+                    rooms.remove(room.getName().toLowerCase(), room);
+                }
+                return null;
+            }
+            roomByUser.put(username.toLowerCase(), room);
+            return room;
+        }
+    }
+
+    /**
+     * Assign a bot a tag in a room so it can appear in the member list and speak there.
+     *
+     * @param botUsername bot screenname
+     * @param room room the bot appears in
+     * @return the bot's tag, or {@link ActiveChatRoom#NO_TAG}
+     */
+    public int assignBotTag(String botUsername, ActiveChatRoom room) {
+        return room.assignVirtualTag(botUsername);
+    }
+
+    /**
+     * Leave the user's current room, releasing their tag. Empty rooms other than the
+     * default room are removed.
+     *
+     * @param username screenname
+     * @return the room left and the released tag, or null if the user was in no room
+     */
+    public Departure leave(String username) {
+        ActiveChatRoom room = roomByUser.remove(username.toLowerCase());
+        if (room == null) {
+            return null;
+        }
+        int tag = room.leave(username);
+        if (!room.getName().equalsIgnoreCase(defaultRoomName) && room.closeIfIdle()) {
+            rooms.remove(room.getName().toLowerCase(), room);
+            LoggerUtil.debug("Chat room '" + room.getName() + "' closed (empty)");
+        }
+        return new Departure(room, tag);
+    }
+
+    /**
+     * A user leaving a room.
+     *
+     * @param room the room left
+     * @param tag tag the user held there, or {@link ActiveChatRoom#NO_TAG}
+     */
+    public record Departure(ActiveChatRoom room, int tag) {}
+
+    /**
+     * @param username screenname
+     * @return the room the user is in (or joining), or null
+     */
+    public ActiveChatRoom roomOf(String username) {
+        return username != null ? roomByUser.get(username.toLowerCase()) : null;
+    }
+
+    /**
+     * @param roomName room name (case-insensitive)
+     * @return the room, or null if it does not exist
+     */
+    public ActiveChatRoom getRoom(String roomName) {
+        return roomName != null ? rooms.get(roomName.trim().toLowerCase()) : null;
+    }
+
+    /**
+     * @return snapshot of all live rooms
+     */
+    public List<ActiveChatRoom> getRooms() {
+        return new ArrayList<>(rooms.values());
+    }
+
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    /**
+     * Room and tag allocator metrics for the admin dashboard.
+     *
+     * @return rooms, members, tag utilization and exhaustion events
+     */
+    public Map<String, Object> getMetrics() {
+        int members = 0;
+        int tagsInUse = 0;
+        int tagCapacity = 0;
+        double busiestUtilization = 0.0;
+        long stickyReuses = 0;
+        List<Map<String, Object>> roomMetrics = new ArrayList<>();
+
+        for (ActiveChatRoom room : rooms.values()) {
+            ChatTagAllocator tags = room.getTagAllocator();
+            members += room.getMemberCount();
+            tagsInUse += tags.getAllocatedCount();
+            tagCapacity += tags.getCapacity();
+            busiestUtilization = Math.max(busiestUtilization, tags.getUtilization());
+            stickyReuses += tags.getStickyReuseCount();
+
+            Map<String, Object> roomMetric = new LinkedHashMap<>();
+            roomMetric.put("name", room.getName());
+            roomMetric.put("members", room.getMemberCount());
+            roomMetric.put("tagsInUse", tags.getAllocatedCount());
+            roomMetric.put("peakTagsInUse", tags.getPeakAllocatedCount());
+            roomMetric.put("tagUtilization", tags.getUtilization());
+            roomMetric.put("tagExhaustions", tags.getExhaustionCount());
+            roomMetrics.add(roomMetric);
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("rooms", rooms.size());
+        metrics.put("members", members);
+        metrics.put("tagsInUse", tagsInUse);
+        metrics.put("tagCapacity", tagCapacity);
+        metrics.put("busiestRoomTagUtilization", busiestUtilization);
+        metrics.put("tagStickyReuses", stickyReuses);
+        metrics.put("tagExhaustionEvents", ChatTagAllocator.getTotalExhaustionCount());
+        metrics.put("roomDetails", roomMetrics);
+        return metrics;
+    }
+
+    /**
+     * Remove all rooms and memberships.
+     * Primarily for testing purposes.
+     */
+    public void clear() {
+        rooms.clear();
+        roomByUser.clear();
+    }
+
+    private ActiveChatRoom resolve(String name) {
+        String key = name.toLowerCase();
+        ActiveChatRoom room = rooms.get(key);
+        if (room != null) {
+            return room;
+        }
+        if (rooms.size() >= maxRooms && !name.equalsIgnoreCase(defaultRoomName)) {
+            LoggerUtil.warn("Chat room limit (" + maxRooms + ") reached - sending user to '" + defaultRoomName
+                    + "' instead of '" + name + "'");
+            return rooms.computeIfAbsent(defaultRoomName.toLowerCase(), k -> new ActiveChatRoom(defaultRoomName));
+        }
+        return rooms.computeIfAbsent(key, k -> {
+            LoggerUtil.info("Chat room '" + name + "' created");
+            return new ActiveChatRoom(name);
+        });
+    }
+
+    private static String normalizeName(String name) {
+        String trimmed = name.trim();
+        return trimmed.length() > MAX_ROOM_NAME_LENGTH ? trimmed.substring(0, MAX_ROOM_NAME_LENGTH) : trimmed;
+    }
+}
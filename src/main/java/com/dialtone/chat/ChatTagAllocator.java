@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.chat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free allocator for chat tags ({@code mat_relative_tag}) in a fixed range.
+ *
+ * <p>Tags are bits in an {@link AtomicLongArray}; claiming and releasing a tag is a single
+ * CAS on one word, so concurrent joins and leaves never serialize on a shared lock.
+ * A caller can name a preferred tag (the one the user held last time) which is taken if
+ * still free. Otherwise allocation is next-fit from a rotating cursor, so a freed tag
+ * stays free as long as possible for its previous owner to reclaim.</p>
+ */
+public final class ChatTagAllocator {
+
+    /** Returned by {@link #allocate} when every tag is in use. */
+    public static final int NO_TAG = -1;
+
+    private static final AtomicLong TOTAL_EXHAUSTIONS = new AtomicLong();
+
+    private final int minTag;
+    private final int maxTag;
+    private final AtomicLongArray words;
+    private final AtomicInteger cursor;
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final AtomicInteger peakAllocated = new AtomicInteger();
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong stickyReuses = new AtomicLong();
+    private final AtomicLong exhaustions = new AtomicLong();
+
+    /**
+     * @param minTag lowest tag handed out (inclusive)
+     * @param maxTag highest tag handed out (inclusive)
+     */
+    public ChatTagAllocator(int minTag, int maxTag) {
+        if (minTag < 0 || maxTag < minTag) {
+            throw new IllegalArgumentException("Invalid tag range: " + minTag + ".." + maxTag);
+        }
+        this.minTag = minTag;
+        this.maxTag = maxTag;
+        this.words = new AtomicLongArray((maxTag >>> 6) + 1);
+        this.cursor = new AtomicInteger(minTag);
+    }
+
+    /**
+     * Claim a free tag.
+     *
+     * @param preferred tag to reuse if it is free (e.g. the caller's previous tag), or {@link #NO_TAG}
+     * @return the claimed tag, or {@link #NO_TAG} if all tags are in use
+     */
+    public int allocate(int preferred) {
+        if (preferred >= minTag && preferred <= maxTag && tryClaim(preferred)) {
+            stickyReuses.incrementAndGet();
+            return claimed(preferred);
+        }
+
+        int start = cursor.get();
+        int tag = claimInRange(start, maxTag);
+        if (tag == NO_TAG && start > minTag) {
+            tag = claimInRange(minTag, start - 1);
+        }
+        if (tag == NO_TAG) {
+            exhaustions.incrementAndGet();
+            TOTAL_EXHAUSTIONS.incrementAndGet();
+            return NO_TAG;
+        }
+        cursor.set(tag == maxTag ? minTag : tag + 1);
+        return claimed(tag);
+    }
+
+    /**
+     * Return a tag to the free set.
+     *
+     * @param tag tag to release
+     * @return true if the tag was allocated and is now free
+     */
+    public boolean release(int tag) {
+        if (tag < minTag || tag > maxTag) {
+            return false;
+        }
+        int index = tag >>> 6;
+        long bit = 1L << (tag & 63);
+        while (true) {
+            long word = words.get(index);
+            if ((word & bit) == 0) {
+                return false;
+            }
+            if (words.compareAndSet(index, word, word & ~bit)) {
+                allocated.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    public boolean isAllocated(int tag) {
+        return tag >= minTag && tag <= maxTag && (words.get(tag >>> 6) & (1L << (tag & 63))) != 0;
+    }
+
+    private boolean tryClaim(int tag) {
+        int index = tag >>> 6;
+        long bit = 1L << (tag & 63);
+        while (true) {
+            long word = words.get(index);
+            if ((word & bit) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(index, word, word | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Claim the lowest free tag in [from, to], scanning a word (64 tags) at a time.
+     */
+    private int claimInRange(int from, int to) {
+        for (int index = from >>> 6; index <= to >>> 6; index++) {
+            int lo = Math.max(from, index << 6) & 63;
+            int hi = Math.min(to, (index << 6) + 63) & 63;
+            long mask = (-1L >>> (63 - hi)) & (-1L << lo);
+            while (true) {
+                long word = words.get(index);
+                long free = ~word & mask;
+                if (free == 0) {
+                    break;
+                }
+                long bit = Long.lowestOneBit(free);
+                if (words.compareAndSet(index, word, word | bit)) {
+                    return (index << 6) + Long.numberOfTrailingZeros(bit);
+                }
+            }
+        }
+        return NO_TAG;
+    }
+
+    private int claimed(int tag) {
+        allocations.incrementAndGet();
+        int inUse = allocated.incrementAndGet();
+        peakAllocated.accumulateAndGet(inUse, Math::max);
+        return tag;
+    }
+
+    /**
+     * @return number of tags in the range
+     */
+    public int getCapacity() {
+        return maxTag - minTag + 1;
+    }
+
+    /**
+     * @return tags currently in use
+     */
+    public int getAllocatedCount() {
+        return allocated.get();
+    }
+
+    /**
+     * @return highest number of tags in use at once
+     */
+    public int getPeakAllocatedCount() {
+        return peakAllocated.get();
+    }
+
+    /**
+     * @return fraction of the range in use (0.0 - 1.0)
+     */
+    public double getUtilization() {
+        return (double) allocated.get() / getCapacity();
+    }
+
+    /**
+     * @return successful allocations since creation
+     */
+    public long getAllocationCount() {
+        return allocations.get();
+    }
+
+    /**
+     * @return allocations satisfied with the caller's preferred tag
+     */
+    public long getStickyReuseCount() {
+        return stickyReuses.get();
+    }
+
+    /**
+     * @return allocations refused because every tag was in use
+     */
+    public long getExhaustionCount() {
+        return exhaustions.get();
+    }
+
+    /**
+     * @return exhaustion events across all allocators since startup
+     */
+    public static long getTotalExhaustionCount() {
+        return TOTAL_EXHAUSTIONS.get();
+    }
+}
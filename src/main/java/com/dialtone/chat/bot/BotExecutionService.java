@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.chat.bot;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Dedicated executor for bot response generation.
+ *
+ * Bot responses block on remote AI calls, so they run on virtual threads instead of
+ * the JVM-wide common ForkJoinPool. Each bot gets its own lane with:
+ * - A cap on concurrent in-flight requests
+ * - A bounded queue of waiting prompts (oldest dropped when full)
+ * - Coalescing: a newer prompt with the same key replaces one still waiting in the queue
+ * - A deadline per prompt; prompts that expire in the queue never run, and answers that
+ *   arrive after the deadline are discarded
+ *
+ * Returned futures always complete normally. Dropped, coalesced, expired or failed
+ * prompts complete with the caller-supplied fallback value.
+ */
+public class BotExecutionService implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_CONCURRENT_PER_BOT = 4;
+    public static final int DEFAULT_MAX_QUEUED_PER_BOT = 16;
+
+    private final int maxConcurrentPerBot;
+    private final int maxQueuedPerBot;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService deadlineScheduler;
+    private final ConcurrentHashMap<String, BotLane> lanes = new ConcurrentHashMap<>();
+
+    public BotExecutionService(int maxConcurrentPerBot, int maxQueuedPerBot) {
+        if (maxConcurrentPerBot < 1) {
+            throw new IllegalArgumentException("maxConcurrentPerBot must be at least 1");
+        }
+        if (maxQueuedPerBot < 0) {
+            throw new IllegalArgumentException("maxQueuedPerBot cannot be negative");
+        }
+
+        this.maxConcurrentPerBot = maxConcurrentPerBot;
+        this.maxQueuedPerBot = maxQueuedPerBot;
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("bot-worker-", 0).factory());
+        this.deadlineScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "BotDeadlineTimer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        LoggerUtil.info(String.format("BotExecutionService initialized: maxConcurrentPerBot=%d, maxQueuedPerBot=%d",
+                maxConcurrentPerBot, maxQueuedPerBot));
+    }
+
+    /**
+     * Submit a prompt for a bot.
+     *
+     * @param botUsername Bot the work belongs to (lane key, case-insensitive)
+     * @param coalesceKey Prompts with the same key replace each other while waiting; null disables coalescing
+     * @param task        The blocking response generation work
+     * @param fallback    Value delivered when the prompt is dropped, expires or fails
+     * @param deadlineMs  Deadline measured from submission
+     * @return Future completing with the task result or the fallback
+     */
+    public <T> CompletableFuture<T> submit(String botUsername, String coalesceKey,
+                                           Callable<T> task, T fallback, long deadlineMs) {
+        Objects.requireNonNull(botUsername, "botUsername");
+        Objects.requireNonNull(task, "task");
+
+        BotLane lane = lanes.computeIfAbsent(botUsername.toLowerCase(), k -> new BotLane(botUsername));
+        PendingPrompt<T> prompt = new PendingPrompt<>(coalesceKey, task, fallback,
+                System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(deadlineMs));
+        lane.submitted.incrementAndGet();
+
+        try {
+            prompt.deadlineTask = deadlineScheduler.schedule(
+                    () -> expire(lane, prompt), deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            lane.dropped.incrementAndGet();
+            prompt.result.complete(fallback);
+            return prompt.result;
+        }
+
+        PendingPrompt<?> evicted = null;
+        boolean startNow = false;
+        synchronized (lane) {
+            if (lane.inFlight < maxConcurrentPerBot) {
+                lane.inFlight++;
+                startNow = true;
+            } else {
+                if (coalesceKey != null) {
+                    Iterator<PendingPrompt<?>> it = lane.queue.iterator();
+                    while (it.hasNext()) {
+                        PendingPrompt<?> queued = it.next();
+                        if (coalesceKey.equals(queued.coalesceKey)) {
+                            it.remove();
+                            evicted = queued;
+                            lane.coalesced.incrementAndGet();
+                            break;
+                        }
+                    }
+                }
+                if (evicted == null && lane.queue.size() >= maxQueuedPerBot) {
+                    evicted = lane.queue.pollFirst();
+                    if (evicted != null) {
+                        lane.dropped.incrementAndGet();
+                    }
+                }
+                if (maxQueuedPerBot == 0) {
+                    // No queueing allowed: the new prompt itself is dropped
+                    lane.dropped.incrementAndGet();
+                    prompt.completeWithFallback();
+                } else {
+                    lane.queue.addLast(prompt);
+                }
+            }
+        }
+
+        if (evicted != null) {
+            evicted.completeWithFallback();
+            LoggerUtil.debug(() -> "Bot '" + botUsername + "' is behind, superseded a queued prompt");
+        }
+        if (startNow) {
+            launch(lane, prompt);
+        }
+        return prompt.result;
+    }
+
+    /**
+     * Start a prompt on a virtual thread, skipping prompts that expired or were resolved while queued.
+     * Called with an in-flight slot already reserved for the lane.
+     */
+    private void launch(BotLane lane, PendingPrompt<?> prompt) {
+        PendingPrompt<?> next = prompt;
+        while (next != null) {
+            if (next.result.isDone() || next.isExpired()) {
+                next.completeWithFallback();
+                next = pollNext(lane);
+                continue;
+            }
+            PendingPrompt<?> toRun = next;
+            try {
+                toRun.running = executor.submit(() -> run(lane, toRun));
+                return;
+            } catch (RejectedExecutionException e) {
+                lane.dropped.incrementAndGet();
+                toRun.completeWithFallback();
+                next = pollNext(lane);
+            }
+        }
+    }
+
+    private <T> void run(BotLane lane, PendingPrompt<T> prompt) {
+        // Published before the result is checked, so expire() either sees it and interrupts
+        // the call, or has already completed the prompt and it is skipped here
+        prompt.started = true;
+        if (prompt.result.isDone()) {
+            launch(lane, pollNext(lane));
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        lane.recordQueueWait(startNanos - prompt.enqueuedNanos);
+        try {
+            T value = prompt.task.call();
+            long elapsedNanos = System.nanoTime() - startNanos;
+            lane.recordLatency(elapsedNanos);
+            // Count before completing so stats are consistent for whoever observes the result
+            lane.completed.incrementAndGet();
+            if (!prompt.result.complete(value)) {
+                lane.completed.decrementAndGet();
+                lane.lateDiscarded.incrementAndGet();
+                LoggerUtil.warn(String.format("Bot '%s' answered after its deadline (%dms), discarding response",
+                        lane.botUsername, TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+            }
+        } catch (Exception e) {
+            // Interruption after a deadline already counted as a timeout
+            if (!prompt.result.isDone()) {
+                lane.failed.incrementAndGet();
+                LoggerUtil.error("Bot '" + lane.botUsername + "' failed to generate response: " + e.getMessage());
+            }
+            prompt.completeWithFallback();
+        } finally {
+            prompt.cancelDeadline();
+            launch(lane, pollNext(lane));
+        }
+    }
+
+    /**
+     * Hand the lane's in-flight slot to the next queued prompt, or release it.
+     */
+    private PendingPrompt<?> pollNext(BotLane lane) {
+        synchronized (lane) {
+            PendingPrompt<?> next = lane.queue.pollFirst();
+            if (next == null) {
+                lane.inFlight--;
+            }
+            return next;
+        }
+    }
+
+    private void expire(BotLane lane, PendingPrompt<?> prompt) {
+        lane.timedOut.incrementAndGet();
+        if (!prompt.completeWithFallback()) {
+            lane.timedOut.decrementAndGet();
+            return;
+        }
+        LoggerUtil.warn("Bot '" + lane.botUsername + "' response timed out after " +
+                TimeUnit.NANOSECONDS.toMillis(prompt.deadlineNanos) + "ms");
+
+        if (prompt.started) {
+            Future<?> running = prompt.running;
+            if (running != null) {
+                running.cancel(true);
+            }
+        } else {
+            // Never cancel a task that has not started: it would not run at all, and neither
+            // would the finally block that hands its lane slot on. Once started it sees the
+            // completed result and steps aside.
+            synchronized (lane) {
+                lane.queue.remove(prompt);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of per-bot queue and latency statistics, for the admin API.
+     */
+    public List<BotLaneStats> getStats() {
+        return lanes.values().stream()
+                .map(BotLane::snapshot)
+                .sorted((a, b) -> a.botUsername().compareToIgnoreCase(b.botUsername()))
+                .collect(Collectors.toList());
+    }
+
+    public int getMaxConcurrentPerBot() {
+        return maxConcurrentPerBot;
+    }
+
+    public int getMaxQueuedPerBot() {
+        return maxQueuedPerBot;
+    }
+
+    @Override
+    public void close() {
+        LoggerUtil.info("Shutting down BotExecutionService");
+        deadlineScheduler.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        for (BotLane lane : lanes.values()) {
+            synchronized (lane) {
+                lane.queue.forEach(PendingPrompt::completeWithFallback);
+                lane.queue.clear();
+            }
+        }
+    }
+
+    /**
+     * A prompt waiting for or holding a slot in its bot's lane.
+     */
+    private static final class PendingPrompt<T> {
+        final String coalesceKey;
+        final Callable<T> task;
+        final T fallback;
+        final long enqueuedNanos;
+        final long deadlineNanos;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        volatile Future<?> running;
+        volatile Future<?> deadlineTask;
+        volatile boolean started;
+
+        PendingPrompt(String coalesceKey, Callable<T> task, T fallback, long enqueuedNanos, long deadlineNanos) {
+            this.coalesceKey = coalesceKey;
+            this.task = task;
+            this.fallback = fallback;
+            this.enqueuedNanos = enqueuedNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - enqueuedNanos >= deadlineNanos;
+        }
+
+        boolean completeWithFallback() {
+            boolean completed = result.complete(fallback);
+            if (completed) {
+                cancelDeadline();
+            }
+            return completed;
+        }
+
+        void cancelDeadline() {
+            Future<?> deadline = deadlineTask;
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Per-bot concurrency lane. Queue and inFlight are guarded by the lane monitor.
+     */
+    private static final class BotLane {
+        final String botUsername;
+        final ArrayDeque<PendingPrompt<?>> queue = new ArrayDeque<>();
+        int inFlight;
+
+        final AtomicLong submitted = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong timedOut = new AtomicLong();
+        final AtomicLong lateDiscarded = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong latencyCount = new AtomicLong();
+        final AtomicLong latencyTotalNanos = new AtomicLong();
+        final AtomicLong latencyMaxNanos = new AtomicLong();
+        final AtomicLong queueWaitTotalNanos = new AtomicLong();
+        final AtomicLong queueWaitCount = new AtomicLong();
+
+        BotLane(String botUsername) {
+            this.botUsername = botUsername;
+        }
+
+        void recordLatency(long nanos) {
+            latencyCount.incrementAndGet();
+            latencyTotalNanos.addAndGet(nanos);
+            latencyMaxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void recordQueueWait(long nanos) {
+            queueWaitCount.incrementAndGet();
+            queueWaitTotalNanos.addAndGet(nanos);
+        }
+
+        BotLaneStats snapshot() {
+            int queued;
+            int active;
+            synchronized (this) {
+                queued = queue.size();
+                active = inFlight;
+            }
+            long count = latencyCount.get();
+            long waits = queueWaitCount.get();
+            return new BotLaneStats(
+                    botUsername, active, queued,
+                    submitted.get(), completed.get(), failed.get(), timedOut.get(),
+                    lateDiscarded.get(), coalesced.get(), dropped.get(),
+                    count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(latencyTotalNanos.get() / count),
+                    TimeUnit.NANOSECONDS.toMillis(latencyMaxNanos.get()),
+                    waits == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(queueWaitTotalNanos.get() / waits));
+        }
+    }
+
+    /**
+     * Point-in-time statistics for one bot lane.
+     */
+    public record BotLaneStats(String botUsername, int inFlight, int queued,
+                               long submitted, long completed, long failed, long timedOut,
+                               long lateDiscarded, long coalesced, long dropped,
+                               long avgLatencyMs, long maxLatencyMs, long avgQueueWaitMs) {}
+}
@@ -10,7 +10,6 @@ import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -25,10 +24,12 @@ public class ChatBotRegistry {
 
     private final ConcurrentHashMap<String, VirtualUser> bots;
     private final long responseTimeoutMs;
+    private final BotExecutionService executionService;
 
-    private ChatBotRegistry(long responseTimeoutMs) {
+    private ChatBotRegistry(long responseTimeoutMs, int maxConcurrentPerBot, int maxQueuedPerBot) {
         this.bots = new ConcurrentHashMap<>();
         this.responseTimeoutMs = responseTimeoutMs;
+        this.executionService = new BotExecutionService(maxConcurrentPerBot, maxQueuedPerBot);
         LoggerUtil.info("ChatBotRegistry initialized with timeout: " + responseTimeoutMs + "ms");
     }
 
@@ -36,7 +37,8 @@ public class ChatBotRegistry {
      * Initialize the singleton instance with configuration.
      * Must be called before getInstance() on server startup.
      *
-     * @param properties Application properties containing bot.response.timeout.ms
+     * @param properties Application properties containing bot.response.timeout.ms,
+     *                   bot.executor.max.concurrent and bot.executor.max.queued
      */
     public static synchronized void initialize(Properties properties) {
         if (INSTANCE != null) {
@@ -45,6 +47,8 @@ public class ChatBotRegistry {
         }
 
         long timeoutMs = DEFAULT_RESPONSE_TIMEOUT_MS;
+        int maxConcurrent = BotExecutionService.DEFAULT_MAX_CONCURRENT_PER_BOT;
+        int maxQueued = BotExecutionService.DEFAULT_MAX_QUEUED_PER_BOT;
         if (properties != null) {
             String timeoutProperty = properties.getProperty("bot.response.timeout.ms");
             if (timeoutProperty != null) {
@@ -55,9 +59,24 @@ public class ChatBotRegistry {
                     LoggerUtil.warn("Invalid bot.response.timeout.ms value: " + timeoutProperty + ", using default: " + DEFAULT_RESPONSE_TIMEOUT_MS + "ms");
                 }
             }
+            maxConcurrent = parseIntProperty(properties, "bot.executor.max.concurrent", maxConcurrent);
+            maxQueued = parseIntProperty(properties, "bot.executor.max.queued", maxQueued);
         }
 
-        INSTANCE = new ChatBotRegistry(timeoutMs);
+        INSTANCE = new ChatBotRegistry(timeoutMs, maxConcurrent, maxQueued);
+    }
+
+    private static int parseIntProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LoggerUtil.warn("Invalid " + key + " value: " + value + ", using default: " + defaultValue);
+            return defaultValue;
+        }
     }
 
     /**
@@ -69,7 +88,9 @@ public class ChatBotRegistry {
     public static synchronized ChatBotRegistry getInstance() {
         if (INSTANCE == null) {
             LoggerUtil.warn("ChatBotRegistry not initialized, using default timeout: " + DEFAULT_RESPONSE_TIMEOUT_MS + "ms");
-            INSTANCE = new ChatBotRegistry(DEFAULT_RESPONSE_TIMEOUT_MS);
+            INSTANCE = new ChatBotRegistry(DEFAULT_RESPONSE_TIMEOUT_MS,
+                    BotExecutionService.DEFAULT_MAX_CONCURRENT_PER_BOT,
+                    BotExecutionService.DEFAULT_MAX_QUEUED_PER_BOT);
         }
         return INSTANCE;
     }
@@ -205,30 +226,21 @@ public class ChatBotRegistry {
     }
 
     /**
-     * Generate a single bot response asynchronously with timeout.
+     * Generate a single bot response on the bot execution service with timeout.
      */
     private CompletableFuture<BotResponse> generateResponseAsync(VirtualUser bot, String message,
                                                                    String sender, ChatContext context) {
         long startTime = System.currentTimeMillis();
+        BotResponse empty = new BotResponse(bot.getUsername(), null);
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String response = bot.generateResponse(message, sender, context);
-                long elapsedMs = System.currentTimeMillis() - startTime;
-
-                LoggerUtil.info(String.format("Bot '%s' generated response in %dms", bot.getUsername(), elapsedMs));
+        return executionService.submit(bot.getUsername(), chatCoalesceKey(context, sender), () -> {
+            String response = bot.generateResponse(message, sender, context);
+            long elapsedMs = System.currentTimeMillis() - startTime;
 
-                return new BotResponse(bot.getUsername(), response);
+            LoggerUtil.info(String.format("Bot '%s' generated response in %dms", bot.getUsername(), elapsedMs));
 
-            } catch (Exception e) {
-                LoggerUtil.error("Bot '" + bot.getUsername() + "' failed to generate response: " + e.getMessage());
-                return new BotResponse(bot.getUsername(), null);
-            }
-        }).orTimeout(responseTimeoutMs, TimeUnit.MILLISECONDS)
-                .exceptionally(ex -> {
-                    LoggerUtil.warn("Bot '" + bot.getUsername() + "' response timed out after " + responseTimeoutMs + "ms");
-                    return new BotResponse(bot.getUsername(), null);
-                });
+            return new BotResponse(bot.getUsername(), response);
+        }, empty, responseTimeoutMs);
     }
 
     /**
@@ -242,6 +254,23 @@ public class ChatBotRegistry {
      */
     public CompletableFuture<List<FormattedBotResponse>> processMessageFormatted(
             String message, String sender, ChatContext context) {
+        return processMessageStreaming(message, sender, context, null);
+    }
+
+    /**
+     * Process a chat message, delivering message parts incrementally from bots that stream.
+     * Streaming bots pass each part to {@code partListener} as soon as it is complete and
+     * return a response marked {@link FormattedBotResponse#delivered()}; other bots return
+     * their parts in the completed future as with {@link #processMessageFormatted}.
+     *
+     * @param message The chat message content
+     * @param sender The username of the sender
+     * @param context Context about the conversation
+     * @param partListener Receives streamed parts (null disables streaming)
+     * @return CompletableFuture that completes with list of formatted bot responses
+     */
+    public CompletableFuture<List<FormattedBotResponse>> processMessageStreaming(
+            String message, String sender, ChatContext context, BotPartListener partListener) {
         // Don't respond to messages from bots to prevent loops
         if (isBot(sender)) {
             return CompletableFuture.completedFuture(List.of());
@@ -260,7 +289,7 @@ public class ChatBotRegistry {
 
         // Generate formatted responses asynchronously with timeout
         List<CompletableFuture<FormattedBotResponse>> responseFutures = respondingBots.stream()
-                .map(bot -> generateFormattedResponseAsync(bot, message, sender, context))
+                .map(bot -> generateFormattedResponseAsync(bot, message, sender, context, partListener))
                 .collect(Collectors.toList());
 
         // Wait for all responses
@@ -272,46 +301,83 @@ public class ChatBotRegistry {
     }
 
     /**
-     * Generate a formatted bot response asynchronously with timeout.
+     * Generate a formatted bot response on the bot execution service with timeout.
      * If the bot is a GrokBot, uses its formatted response method for message splitting.
      */
     private CompletableFuture<FormattedBotResponse> generateFormattedResponseAsync(
-            VirtualUser bot, String message, String sender, ChatContext context) {
+            VirtualUser bot, String message, String sender, ChatContext context, BotPartListener partListener) {
         long startTime = System.currentTimeMillis();
+        FormattedBotResponse empty = new FormattedBotResponse(bot.getUsername(), List.of(), 0);
+
+        return executionService.submit(bot.getUsername(), chatCoalesceKey(context, sender), () -> {
+            List<String> messageParts;
+            long delayBetweenMs = 0;
+
+            // Streaming GrokBot: parts go to the listener as they complete
+            if (partListener != null && bot instanceof GrokBot grokBot && grokBot.isStreamingEnabled()) {
+                messageParts = grokBot.streamFormattedChatResponse(message, sender, context,
+                        part -> partListener.onPart(bot.getUsername(), part));
+                LoggerUtil.info(String.format("Bot '%s' streamed %d message part(s) in %dms",
+                        bot.getUsername(), messageParts.size(), System.currentTimeMillis() - startTime));
+                return new FormattedBotResponse(bot.getUsername(), messageParts,
+                        grokBot.getResponseFormatter().getSplitDelayMs(), true);
+            }
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<String> messageParts;
-                long delayBetweenMs = 0;
-
-                // Use formatted response methods if available (GrokBot)
-                if (bot instanceof GrokBot grokBot) {
-                    messageParts = grokBot.generateFormattedChatResponse(message, sender, context);
-                    // Get delay from formatter if available
-                    if (grokBot.getResponseFormatter() != null) {
-                        delayBetweenMs = grokBot.getResponseFormatter().getSplitDelayMs();
-                    }
-                } else {
-                    // Fallback for non-GrokBot: wrap single response
-                    String response = bot.generateResponse(message, sender, context);
-                    messageParts = (response != null) ? List.of(response) : List.of();
+            // Use formatted response methods if available (GrokBot)
+            if (bot instanceof GrokBot grokBot) {
+                messageParts = grokBot.generateFormattedChatResponse(message, sender, context);
+                // Get delay from formatter if available
+                if (grokBot.getResponseFormatter() != null) {
+                    delayBetweenMs = grokBot.getResponseFormatter().getSplitDelayMs();
                 }
+            } else {
+                // Fallback for non-GrokBot: wrap single response
+                String response = bot.generateResponse(message, sender, context);
+                messageParts = (response != null) ? List.of(response) : List.of();
+            }
 
-                long elapsedMs = System.currentTimeMillis() - startTime;
-                LoggerUtil.info(String.format("Bot '%s' generated %d message part(s) in %dms",
-                        bot.getUsername(), messageParts.size(), elapsedMs));
+            long elapsedMs = System.currentTimeMillis() - startTime;
+            LoggerUtil.info(String.format("Bot '%s' generated %d message part(s) in %dms",
+                    bot.getUsername(), messageParts.size(), elapsedMs));
 
-                return new FormattedBotResponse(bot.getUsername(), messageParts, delayBetweenMs);
+            return new FormattedBotResponse(bot.getUsername(), messageParts, delayBetweenMs);
+        }, empty, responseTimeoutMs);
+    }
 
-            } catch (Exception e) {
-                LoggerUtil.error("Bot '" + bot.getUsername() + "' failed to generate formatted response: " + e.getMessage());
-                return new FormattedBotResponse(bot.getUsername(), List.of(), 0);
-            }
-        }).orTimeout(responseTimeoutMs, TimeUnit.MILLISECONDS)
-                .exceptionally(ex -> {
-                    LoggerUtil.warn("Bot '" + bot.getUsername() + "' formatted response timed out after " + responseTimeoutMs + "ms");
-                    return new FormattedBotResponse(bot.getUsername(), List.of(), 0);
-                });
+    /**
+     * Coalescing key for room prompts: a sender's newer prompt supersedes one still
+     * waiting for the same bot in the same room.
+     */
+    private static String chatCoalesceKey(ChatContext context, String sender) {
+        String room = (context != null && context.getRoomName() != null) ? context.getRoomName() : "";
+        return "chat:" + room.toLowerCase() + ":" + (sender != null ? sender.toLowerCase() : "");
+    }
+
+    /**
+     * Get the executor that runs bot response generation.
+     * Used by IM delivery and the admin API.
+     *
+     * @return The bot execution service
+     */
+    public BotExecutionService getExecutionService() {
+        return executionService;
+    }
+
+    /**
+     * Get the configured bot response timeout.
+     *
+     * @return Timeout in milliseconds
+     */
+    public long getResponseTimeoutMs() {
+        return responseTimeoutMs;
+    }
+
+    /**
+     * Stop the bot execution service. Pending prompts complete with empty responses.
+     * Called on server shutdown.
+     */
+    public void shutdown() {
+        executionService.close();
     }
 
     /**
@@ -333,6 +399,15 @@ public class ChatBotRegistry {
         return bots.size();
     }
 
+    /**
+     * Receives message parts from streaming bots as soon as each part is complete.
+     * Called from the HTTP I/O thread, so implementations must not block.
+     */
+    @FunctionalInterface
+    public interface BotPartListener {
+        void onPart(String botUsername, String part);
+    }
+
     /**
      * Represents a response from a bot.
      */
@@ -354,8 +429,15 @@ public class ChatBotRegistry {
      * @param botUsername The username of the bot that generated the response
      * @param messageParts List of message parts (may be single element if no split)
      * @param delayBetweenMs Recommended delay between sending parts (in milliseconds)
+     * @param delivered True if the parts were already streamed to a {@link BotPartListener}
      */
-    public record FormattedBotResponse(String botUsername, List<String> messageParts, long delayBetweenMs) {
+    public record FormattedBotResponse(String botUsername, List<String> messageParts, long delayBetweenMs,
+                                       boolean delivered) {
+
+        public FormattedBotResponse(String botUsername, List<String> messageParts, long delayBetweenMs) {
+            this(botUsername, messageParts, delayBetweenMs, false);
+        }
+
         /**
          * Check if this response contains actual content.
          *
@@ -7,10 +7,14 @@ package com.dialtone.chat.bot;
 import com.dialtone.ai.ConversationMemoryManager;
 import com.dialtone.ai.GrokConversationalService;
 import com.dialtone.ai.ResponseFormatter;
+import com.dialtone.ai.StreamingResponseSplitter;
 import com.dialtone.utils.LoggerUtil;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -319,6 +323,115 @@ public class GrokBot implements VirtualUser {
         }
     }
 
+    /**
+     * Check if this bot streams formatted responses part by part.
+     * Requires AI, a response formatter and grok.streaming.enabled.
+     *
+     * @return true if the stream* methods should be used instead of generateFormatted*
+     */
+    public boolean isStreamingEnabled() {
+        return aiEnabled && responseFormatter != null && grokService.isStreamingEnabled();
+    }
+
+    /**
+     * Stream a formatted response for chat room context.
+     * Each message part is passed to {@code onPart} as soon as its sentence completes,
+     * before Grok has finished generating. Blocks until the stream ends, so call it
+     * from the bot executor.
+     *
+     * @param message The message from the user (including @mention)
+     * @param sender The username of the sender
+     * @param context The chat context
+     * @param onPart Receives each message part in order (called from the HTTP I/O thread)
+     * @return All message parts that were delivered to {@code onPart}
+     */
+    public List<String> streamFormattedChatResponse(String message, String sender, ChatContext context,
+                                                    Consumer<String> onPart) {
+        if (!active) {
+            return List.of();
+        }
+        String effectiveSender = (sender == null || sender.trim().isEmpty()) ? "Unknown" : sender;
+        return streamFormattedResponse(extractQuery(message), effectiveSender, ResponseContext.CHAT_ROOM, onPart);
+    }
+
+    /**
+     * Stream a formatted response for IM context.
+     *
+     * @param message The message from the user
+     * @param sender The username of the sender
+     * @param onPart Receives each message part in order (called from the HTTP I/O thread)
+     * @return All message parts that were delivered to {@code onPart}
+     * @see #streamFormattedChatResponse
+     */
+    public List<String> streamFormattedIMResponse(String message, String sender, Consumer<String> onPart) {
+        if (!active) {
+            return List.of();
+        }
+        String effectiveSender = (sender == null || sender.trim().isEmpty()) ? "Unknown" : sender;
+        return streamFormattedResponse(message, effectiveSender, ResponseContext.INSTANT_MESSAGE, onPart);
+    }
+
+    private List<String> streamFormattedResponse(String query, String effectiveSender,
+                                                 ResponseContext responseContext, Consumer<String> onPart) {
+        String memoryKey = buildMemoryKey(effectiveSender, responseContext);
+        LoggerUtil.info(String.format("Grok streaming %s query from %s: '%s' [memKey: %s]",
+                responseContext, effectiveSender, query, memoryKey));
+
+        conversationMemory.addUserMessage(memoryKey, query);
+        List<ConversationMemoryManager.Message> history = conversationMemory.getHistory(memoryKey);
+        List<ConversationMemoryManager.Message> previousHistory = history.isEmpty() ?
+                Collections.emptyList() :
+                history.subList(0, Math.max(0, history.size() - 1));
+
+        StreamingResponseSplitter splitter = responseFormatter.newStreamingSplitter(responseContext, onPart);
+        CompletableFuture<String> stream;
+        try {
+            stream = grokService.streamResponseWithContext(query, previousHistory, null, responseContext, delta -> {
+                synchronized (splitter) {
+                    splitter.append(delta);
+                }
+            });
+        } catch (Exception e) {
+            stream = CompletableFuture.failedFuture(e);
+        }
+
+        try {
+            String fullText = stream.get();
+            List<String> parts;
+            synchronized (splitter) {
+                parts = List.copyOf(splitter.finish());
+            }
+            conversationMemory.addBotMessage(memoryKey, fullText);
+            LoggerUtil.info(String.format("Grok streamed %d message part(s) (truncated=%b)",
+                    parts.size(), splitter.wasTruncated()));
+            return parts;
+
+        } catch (InterruptedException e) {
+            // Deadline passed in the bot executor: abort the HTTP stream, stop emitting parts
+            stream.cancel(true);
+            Thread.currentThread().interrupt();
+            synchronized (splitter) {
+                splitter.cancel();
+                return List.copyOf(splitter.getEmitted());
+            }
+
+        } catch (ExecutionException e) {
+            LoggerUtil.error("Grok streaming failed: " + e.getCause().getMessage());
+            synchronized (splitter) {
+                splitter.cancel();
+                if (!splitter.getEmitted().isEmpty()) {
+                    // Keep what the room already saw in memory
+                    conversationMemory.addBotMessage(memoryKey, String.join(" ", splitter.getEmitted()));
+                    return List.copyOf(splitter.getEmitted());
+                }
+            }
+            String errorResponse = "[SYSTEM ERROR] My neural circuits are temporarily offline.";
+            conversationMemory.addBotMessage(memoryKey, errorResponse);
+            onPart.accept(errorResponse);
+            return List.of(errorResponse);
+        }
+    }
+
     /**
      * Generate an AI-powered response with context-aware character limits.
      *
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.chat.bot;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Delivers streamed bot message parts in order with a minimum spacing between them.
+ *
+ * A part that arrives after the spacing has elapsed is sent right away; parts that
+ * arrive in a burst are scheduled {@code minIntervalMs} apart, matching the split
+ * delay used for non-streamed responses. Sends run on the supplied executor
+ * (normally a connection's event loop).
+ */
+public class PacedPartDispatcher {
+
+    private final ScheduledExecutorService executor;
+    private final long minIntervalMs;
+    private final Consumer<String> sender;
+    private long nextSendAtMs;
+
+    public PacedPartDispatcher(ScheduledExecutorService executor, long minIntervalMs, Consumer<String> sender) {
+        this.executor = executor;
+        this.minIntervalMs = Math.max(0, minIntervalMs);
+        this.sender = sender;
+    }
+
+    /**
+     * Queue a part for delivery.
+     */
+    public void dispatch(String part) {
+        if (part == null || part.trim().isEmpty()) {
+            return;
+        }
+
+        long delayMs;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            long sendAt = Math.max(now, nextSendAtMs);
+            nextSendAtMs = sendAt + minIntervalMs;
+            delayMs = sendAt - now;
+        }
+
+        try {
+            executor.schedule(() -> sender.accept(part), delayMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            LoggerUtil.warn("Could not schedule bot message part: " + e.getMessage());
+        }
+    }
+}
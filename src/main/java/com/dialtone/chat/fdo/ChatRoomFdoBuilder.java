@@ -11,26 +11,75 @@ import com.atomforge.fdo.dsl.values.Criterion;
 import com.atomforge.fdo.model.FdoGid;
 import com.dialtone.chat.ChatRoom;
 import com.dialtone.chat.User;
+import com.dialtone.fdo.FdoTemplateSource;
+import com.dialtone.fdo.dsl.RenderingContext;
 
+import java.util.List;
 import java.util.Map;
 
-public final class ChatRoomFdoBuilder {
+/**
+ * Builds the chat room window stream sent on "Chat Now".
+ *
+ * <p>Implements {@link FdoTemplateSource}: room title, screen name and member names are
+ * string slots and member tags are integer slots, so rooms with the same member count
+ * share one precompiled template. The member list is captured at construction.</p>
+ */
+public final class ChatRoomFdoBuilder implements FdoTemplateSource {
 
+    private static final String TEMPLATE_NAME = "chat_room";
     private static final FdoGid CHAT_WINDOW_GID = FdoGid.of(19, 0, 0);
     private static final FdoGid CHAT_FORM_GID = FdoGid.of(32, 256);
 
     private final ChatRoom chatRoom;
     private final String screenname;
+    private final List<String> usernames;
     private final Map<String, Integer> userTagMap;
 
     public ChatRoomFdoBuilder(ChatRoom chatRoom, String screenname, Map<String, Integer> userTagMap) {
         this.chatRoom = chatRoom;
         this.screenname = screenname != null ? screenname : "Guest";
+        this.usernames = chatRoom.getUsers().stream().map(User::getUsername).toList();
         this.userTagMap = userTagMap;
     }
 
     public String toSource() {
-        String windowTitle = chatRoom.getTitle() + " - [" + screenname + "]";
+        return toSource(RenderingContext.DEFAULT, stringSlots(), intSlots());
+    }
+
+    @Override
+    public Object templateKey() {
+        return List.of(TEMPLATE_NAME, usernames.size());
+    }
+
+    /**
+     * Slots: room title, screen name, then one per member.
+     */
+    @Override
+    public String[] stringSlots() {
+        String[] strings = new String[2 + usernames.size()];
+        strings[0] = chatRoom.getTitle();
+        strings[1] = screenname;
+        for (int i = 0; i < usernames.size(); i++) {
+            strings[2 + i] = usernames.get(i);
+        }
+        return strings;
+    }
+
+    /**
+     * Slots: one relative tag per member.
+     */
+    @Override
+    public int[] intSlots() {
+        int[] ints = new int[usernames.size()];
+        for (int i = 0; i < usernames.size(); i++) {
+            ints[i] = userTagMap.get(usernames.get(i));
+        }
+        return ints;
+    }
+
+    @Override
+    public String toSource(RenderingContext ctx, String[] strings, int[] ints) {
+        String windowTitle = strings[0] + " - [" + strings[1] + "]";
 
         StreamBuilder stream = FdoScript.stream()
                 .uniStartStream()
@@ -52,7 +101,7 @@ public final class ChatRoomFdoBuilder {
                 .uniEndStream("01x")
                 .atom(ChatAtom.ROOM_OPEN); // CHAT protocol methods not yet implemented
 
-        addUsers(stream);
+        addUsers(stream, strings, ints);
 
         return stream
                 .uniStartStream()
@@ -77,10 +126,10 @@ public final class ChatRoomFdoBuilder {
                 .toSource();
     }
 
-    private void addUsers(StreamBuilder stream) {
-        for (User user : chatRoom.getUsers()) {
-            String username = user.getUsername();
-            Integer userTag = userTagMap.get(username);
+    private void addUsers(StreamBuilder stream, String[] strings, int[] ints) {
+        for (int i = 0; i < ints.length; i++) {
+            String username = strings[2 + i];
+            int userTag = ints[i];
             stream.atom(ChatAtom.ADD_USER, username) // CHAT protocol methods not yet implemented
                     .matRelativeTag(userTag)
                     .actSetInheritance(0x02) // Note: original had "02x" string, converted to int
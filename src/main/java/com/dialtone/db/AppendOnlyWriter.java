@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.db;
+
+import com.dialtone.utils.LoggerUtil;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group-commit writer for append-only tables.
+ *
+ * <p>Callers hand records to {@link #append} and return at once; one writer thread drains
+ * the bounded queue and inserts everything that arrived within {@code flushIntervalMs}
+ * (up to {@code batchSize} rows) in a single transaction, so SQLite syncs once per batch
+ * instead of once per row and request threads never wait for the disk.</p>
+ *
+ * <p>An optional {@link Maintenance} task (e.g. retention cleanup) runs on the same thread
+ * between batches, so it never contends with the inserts for the write lock. It is
+ * expected to do a bounded slice of work per call and pick up where it left off.</p>
+ *
+ * <p>{@link #close()} stops accepting records and writes out everything still queued.</p>
+ *
+ * @param <T> record type
+ */
+public final class AppendOnlyWriter<T> implements AutoCloseable {
+
+    /**
+     * Binds one record to the insert statement's parameters.
+     */
+    @FunctionalInterface
+    public interface Binder<T> {
+        void bind(PreparedStatement stmt, T record) throws SQLException;
+    }
+
+    /**
+     * Periodic work run on the writer thread, e.g. deleting expired rows in small steps.
+     */
+    @FunctionalInterface
+    public interface Maintenance {
+        /**
+         * @param conn connection in auto-commit mode
+         * @param deadlineNanos {@link System#nanoTime()} by which to return
+         */
+        void run(Connection conn, long deadlineNanos) throws SQLException;
+    }
+
+    /** How long {@link #append} waits for room before dropping a record */
+    private static final long OFFER_TIMEOUT_MS = 1000;
+
+    /** Attempts per batch before its records are dropped */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final long CLOSE_TIMEOUT_MS = 10_000;
+
+    private final String name;
+    private final DataSource dataSource;
+    private final String insertSql;
+    private final Binder<T> binder;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Maintenance maintenance;
+    private final long maintenanceIntervalMs;
+    private final long maintenanceSliceMs;
+    private final Thread writerThread;
+
+    private volatile boolean closed;
+    private long nextMaintenanceNanos;
+
+    // Records accepted / written; flush() waits for written + lost to catch up
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final Object progress = new Object();
+
+    /**
+     * @param name writer name, used for the thread, logs and metrics
+     * @param dataSource connection source
+     * @param insertSql INSERT statement with one parameter per bound field
+     * @param binder sets the statement parameters for a record
+     * @param capacity records that may wait in the queue
+     * @param batchSize most records per transaction
+     * @param flushIntervalMs how long the first record of a batch may wait for company
+     * @param maintenance periodic work, or null for none
+     * @param maintenanceIntervalMs time between maintenance runs
+     * @param maintenanceSliceMs time budget of one maintenance run
+     */
+    public AppendOnlyWriter(String name, DataSource dataSource, String insertSql, Binder<T> binder,
+                            int capacity, int batchSize, long flushIntervalMs,
+                            Maintenance maintenance, long maintenanceIntervalMs, long maintenanceSliceMs) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.insertSql = insertSql;
+        this.binder = binder;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(0, flushIntervalMs);
+        this.maintenance = maintenance;
+        this.maintenanceIntervalMs = Math.max(1, maintenanceIntervalMs);
+        this.maintenanceSliceMs = Math.max(1, maintenanceSliceMs);
+        this.nextMaintenanceNanos = System.nanoTime();
+
+        this.writerThread = new Thread(this::runWriter, name + "-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queue a record for writing.
+     *
+     * <p>Returns immediately unless the queue is full, in which case it waits up to one
+     * second for the writer to make room.</p>
+     *
+     * @param record record to insert
+     * @return false if the writer is closed or the record was dropped because the queue stayed full
+     */
+    public boolean append(T record) {
+        if (closed) {
+            dropped.incrementAndGet();
+            LoggerUtil.error(String.format("[%s] Record dropped, writer is closed", name));
+            return false;
+        }
+        try {
+            if (queue.offer(record) || queue.offer(record, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                appended.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.incrementAndGet();
+        LoggerUtil.error(String.format("[%s] Record dropped, queue full (%d waiting)", name, queue.size()));
+        return false;
+    }
+
+    /**
+     * Wait until every record appended before this call has been written (or dropped).
+     *
+     * @param timeoutMs longest time to wait
+     * @return true if caught up within the timeout
+     */
+    public boolean flush(long timeoutMs) {
+        long target = appended.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (progress) {
+            while (written.get() + lost.get() < target) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0 || !writerThread.isAlive()) {
+                    return false;
+                }
+                try {
+                    progress.wait(remainingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop accepting records, write out everything still queued and stop the writer thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writerThread.interrupt();
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            LoggerUtil.error(String.format("[%s] Writer did not finish within %dms, %d records not written",
+                    name, CLOSE_TIMEOUT_MS, queue.size()));
+        } else {
+            LoggerUtil.info(String.format("[%s] Writer closed, %d records written", name, written.get()));
+        }
+    }
+
+    private void runWriter() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (!closed) {
+            try {
+                T first = queue.poll(nextWaitMs(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    // Group commit: let the batch fill for up to one flush interval
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= batchSize || remaining <= 0) {
+                            break;
+                        }
+                        T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                runMaintenanceIfDue();
+            } catch (InterruptedException e) {
+                // close() interrupts to end the wait; the loop condition decides
+            } catch (Throwable t) {
+                LoggerUtil.error(String.format("[%s] Writer loop error: %s", name, t.getMessage()));
+            }
+        }
+
+        // Durable shutdown: drain whatever is left
+        Thread.interrupted();
+        queue.drainTo(batch);
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            writeBatch(batch.subList(from, Math.min(batch.size(), from + batchSize)));
+        }
+    }
+
+    private long nextWaitMs() {
+        if (maintenance == null) {
+            return maintenanceIntervalMs;
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextMaintenanceNanos - System.nanoTime()));
+    }
+
+    private void writeBatch(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try (Connection conn = dataSource.getConnection()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+                    for (T record : batch) {
+                        binder.bind(stmt, record);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+                batches.incrementAndGet();
+                written.addAndGet(batch.size());
+                signalProgress();
+                return;
+            } catch (SQLException e) {
+                LoggerUtil.warn(String.format("[%s] Batch of %d failed (attempt %d/%d): %s",
+                        name, batch.size(), attempt, MAX_ATTEMPTS, e.getMessage()));
+                if (attempt < MAX_ATTEMPTS) {
+                    sleepQuietly(100L * attempt);
+                }
+            }
+        }
+        failedBatches.incrementAndGet();
+        lost.addAndGet(batch.size());
+        dropped.addAndGet(batch.size());
+        signalProgress();
+        LoggerUtil.error(String.format("[%s] Dropped %d records after %d failed attempts", name, batch.size(), MAX_ATTEMPTS));
+    }
+
+    private void runMaintenanceIfDue() {
+        if (maintenance == null || System.nanoTime() < nextMaintenanceNanos) {
+            return;
+        }
+        nextMaintenanceNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maintenanceIntervalMs);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maintenanceSliceMs);
+        try (Connection conn = dataSource.getConnection()) {
+            maintenance.run(conn, deadline);
+        } catch (SQLException e) {
+            LoggerUtil.error(String.format("[%s] Maintenance failed: %s", name, e.getMessage()));
+        }
+    }
+
+    private void signalProgress() {
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    private static void sleepQuietly(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return records waiting to be written
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return writer counters for the admin dashboard
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queued", queue.size());
+        metrics.put("appended", appended.get());
+        metrics.put("written", written.get());
+        metrics.put("batches", batches.get());
+        metrics.put("failedBatches", failedBatches.get());
+        metrics.put("dropped", dropped.get());
+        return metrics;
+    }
+}
@@ -11,18 +11,32 @@ import com.zaxxer.hikari.HikariDataSource;
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
 
 /**
  * Manages SQLite database connection pooling and initialization.
  *
  * Provides a singleton HikariCP connection pool for SQLite database access.
  * Handles database file creation and path setup.
+ *
+ * Services go through {@link #read} and {@link #write}: reads use a read-only pool
+ * ({@code query_only}, memory-mapped, large page cache), and all writes are funneled to
+ * one {@link DatabaseWriter} thread that group-commits them, since SQLite has one writer
+ * anyway. {@link #getDataSource()} remains for schema setup and tools.
  */
 public class DatabaseManager {
     private static DatabaseManager instance;
     private final HikariDataSource dataSource;
+    private final HikariDataSource readDataSource;
+    private final HikariDataSource writeDataSource;
+    private final DatabaseWriter writer;
+    private final StatementCache readStatements;
     private final String dbPath;
 
+    private static final int READ_POOL_SIZE = 8;
+    private static final int WRITE_QUEUE_CAPACITY = 10_000;
+
     private DatabaseManager(String dbPath) {
         this.dbPath = dbPath;
 
@@ -45,9 +59,39 @@ public class DatabaseManager {
 
         this.dataSource = new HikariDataSource(config);
 
+        // Read-only pool: query_only guards against stray writes, mmap and a larger
+        // page cache keep hot tables out of read() syscalls
+        HikariConfig readConfig = baseConfig(dbPath, "dialtone-read", READ_POOL_SIZE);
+        readConfig.addDataSourceProperty("cache_size", "-16384"); // 16MB per connection
+        readConfig.addDataSourceProperty("mmap_size", "268435456"); // 256MB
+        readConfig.setConnectionInitSql("PRAGMA query_only = ON");
+        this.readDataSource = new HikariDataSource(readConfig);
+        this.readStatements = new StatementCache(READ_POOL_SIZE);
+
+        // The writer's single connection
+        HikariConfig writeConfig = baseConfig(dbPath, "dialtone-write", 1);
+        writeConfig.addDataSourceProperty("cache_size", "-8192"); // 8MB
+        this.writeDataSource = new HikariDataSource(writeConfig);
+        this.writer = new DatabaseWriter(writeDataSource, WRITE_QUEUE_CAPACITY);
+
         LoggerUtil.info("Database connection pool initialized: " + dbPath);
     }
 
+    private static HikariConfig baseConfig(String dbPath, String poolName, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:" + dbPath);
+        config.setPoolName(poolName);
+        config.setMaximumPoolSize(poolSize);
+        config.setConnectionTimeout(30000); // 30 seconds
+        config.setIdleTimeout(600000); // 10 minutes
+        config.setMaxLifetime(1800000); // 30 minutes
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("synchronous", "NORMAL"); // Durable across app crashes under WAL
+        config.addDataSourceProperty("temp_store", "memory");
+        config.addDataSourceProperty("busy_timeout", "5000");
+        return config;
+    }
+
     /**
      * Gets the singleton DatabaseManager instance.
      * Creates a new instance if one doesn't exist.
@@ -74,6 +118,51 @@ public class DatabaseManager {
         return dataSource;
     }
 
+    /**
+     * Runs read-only work on a pooled connection with cached prepared statements.
+     *
+     * @param work queries to run; must close its ResultSets
+     * @return the work's result
+     */
+    public <T> T read(DbSession.Work<T> work) throws SQLException {
+        try (Connection conn = readDataSource.getConnection()) {
+            StatementCache.Session session = readStatements.open(conn);
+            try {
+                return work.run(session);
+            } finally {
+                session.release();
+            }
+        }
+    }
+
+    /**
+     * Runs mutations on the single writer thread and waits for them to commit.
+     *
+     * @param work mutations to run; must not manage the transaction
+     * @return the work's result
+     */
+    public <T> T write(DbSession.Work<T> work) throws SQLException {
+        return writer.execute(work);
+    }
+
+    /**
+     * Gets the single database writer.
+     *
+     * @return DatabaseWriter
+     */
+    public DatabaseWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * Gets the read-only pool.
+     *
+     * @return HikariDataSource opened with query_only
+     */
+    public HikariDataSource getReadDataSource() {
+        return readDataSource;
+    }
+
     /**
      * Gets the database file path.
      *
@@ -120,6 +209,14 @@ public class DatabaseManager {
      * Should be called during application shutdown.
      */
     public void close() {
+        // Commit queued writes before the pools go away
+        writer.close();
+        if (!writeDataSource.isClosed()) {
+            writeDataSource.close();
+        }
+        if (!readDataSource.isClosed()) {
+            readDataSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             LoggerUtil.info("Database connection pool closed");
@@ -136,11 +233,16 @@ public class DatabaseManager {
             return "DatabaseManager not initialized";
         }
 
-        return String.format("DB Pool - Active: %d, Idle: %d, Total: %d, Pending: %d",
+        return String.format("DB Pool - Active: %d, Idle: %d, Total: %d, Pending: %d; " +
+                "Read Pool - Active: %d, Idle: %d, Pending: %d; Writer - Queued: %d",
             dataSource.getHikariPoolMXBean().getActiveConnections(),
             dataSource.getHikariPoolMXBean().getIdleConnections(),
             dataSource.getHikariPoolMXBean().getTotalConnections(),
-            dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection()
+            dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection(),
+            readDataSource.getHikariPoolMXBean().getActiveConnections(),
+            readDataSource.getHikariPoolMXBean().getIdleConnections(),
+            readDataSource.getHikariPoolMXBean().getThreadsAwaitingConnection(),
+            writer.getQueueSize()
         );
     }
 }
\ No newline at end of file
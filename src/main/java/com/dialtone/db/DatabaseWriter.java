@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.db;
+
+import com.dialtone.utils.LoggerUtil;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The one thread that writes to the database.
+ *
+ * <p>SQLite allows a single writer at a time; when request threads write through a shared
+ * pool they take turns by failing with SQLITE_BUSY and retrying. Here every mutation is
+ * queued to one thread instead, which runs everything waiting in one transaction (group
+ * commit): N concurrent signups cost one commit and no lock contention.</p>
+ *
+ * <p>Each unit of work runs under its own savepoint, so one that throws is rolled back
+ * alone and its caller gets the exception; the others still commit. Callers are only
+ * released once the shared transaction has committed.</p>
+ */
+public final class DatabaseWriter implements AutoCloseable {
+
+    /** Most units of work per transaction */
+    private static final int MAX_BATCH = 128;
+
+    /** How long a caller waits for room in a full queue before failing */
+    private static final long OFFER_TIMEOUT_MS = 5000;
+
+    private static final long CLOSE_TIMEOUT_MS = 10_000;
+
+    private record PendingWrite<T>(DbSession.Work<T> work, CompletableFuture<T> result) {}
+
+    private final DataSource dataSource;
+    private final StatementCache statementCache = new StatementCache(1);
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    // Session of the batch in progress, so work that writes again from the writer thread runs inline
+    private StatementCache.Session currentSession;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong failedCommits = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+
+    /**
+     * @param dataSource source of the writer's connection (a pool of one)
+     * @param capacity writes that may wait in the queue
+     */
+    public DatabaseWriter(DataSource dataSource, int capacity) {
+        this.dataSource = dataSource;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.writerThread = new Thread(this::runWriter, "db-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Run work on the writer thread and wait until it has committed.
+     *
+     * @param work mutation to run
+     * @return the work's result
+     * @throws SQLException if the work failed, the commit failed, or the writer is unavailable
+     */
+    public <T> T execute(DbSession.Work<T> work) throws SQLException {
+        if (Thread.currentThread() == writerThread) {
+            // Called from inside other write work: join its transaction
+            return work.run(currentSession);
+        }
+        try {
+            return submit(work).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for database write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Database write failed", cause);
+        }
+    }
+
+    /**
+     * Queue work for the writer thread without waiting.
+     *
+     * @param work mutation to run
+     * @return completes with the work's result once committed
+     */
+    public <T> CompletableFuture<T> submit(DbSession.Work<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (closed) {
+            result.completeExceptionally(new SQLException("Database writer is closed"));
+            return result;
+        }
+        try {
+            PendingWrite<T> pending = new PendingWrite<>(work, result);
+            if (!queue.offer(pending, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                result.completeExceptionally(new SQLException("Database write queue is full"));
+            } else if (closed && !writerThread.isAlive() && queue.remove(pending)) {
+                // Raced with close() after the final drain
+                result.completeExceptionally(new SQLException("Database writer is closed"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(new SQLException("Interrupted queueing database write", e));
+        }
+        return result;
+    }
+
+    /**
+     * Stop accepting work, commit everything still queued and stop the writer thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // Wake the writer with a no-op rather than an interrupt, which could abort a commit in progress
+        queue.offer(new PendingWrite<>(session -> null, new CompletableFuture<>()));
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            LoggerUtil.error(String.format("Database writer did not finish within %dms, %d writes pending",
+                    CLOSE_TIMEOUT_MS, queue.size()));
+        } else {
+            LoggerUtil.info(String.format("Database writer closed after %d writes in %d commits",
+                    writes.get(), commits.get()));
+        }
+    }
+
+    private void runWriter() {
+        List<PendingWrite<?>> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed) {
+            try {
+                PendingWrite<?> first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Everything that queued up during the previous commit shares this one
+                queue.drainTo(batch, MAX_BATCH - 1);
+                commitBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                LoggerUtil.error("Database writer loop error: " + t.getMessage());
+                failAll(batch, t);
+                batch.clear();
+            }
+        }
+
+        // Drain on shutdown so queued callers are not left waiting
+        queue.drainTo(batch);
+        for (int from = 0; from < batch.size(); from += MAX_BATCH) {
+            commitBatch(batch.subList(from, Math.min(batch.size(), from + MAX_BATCH)));
+        }
+    }
+
+    private void commitBatch(List<PendingWrite<?>> batch) {
+        Object[] results = new Object[batch.size()];
+        Throwable[] failures = new Throwable[batch.size()];
+
+        try (Connection conn = dataSource.getConnection()) {
+            StatementCache.Session session = statementCache.open(conn);
+            conn.setAutoCommit(false);
+            currentSession = session;
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        results[i] = batch.get(i).work().run(session);
+                        conn.releaseSavepoint(savepoint);
+                    } catch (Throwable t) {
+                        conn.rollback(savepoint);
+                        conn.releaseSavepoint(savepoint);
+                        failures[i] = t;
+                    } finally {
+                        session.release();
+                    }
+                }
+                conn.commit();
+                commits.incrementAndGet();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                currentSession = null;
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            failedCommits.incrementAndGet();
+            LoggerUtil.error(String.format("Database write batch of %d failed: %s", batch.size(), e.getMessage()));
+            failAll(batch, e);
+            return;
+        }
+
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), results[i], failures[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void complete(PendingWrite<T> write, Object result, Throwable failure) {
+        if (failure != null) {
+            failedWrites.incrementAndGet();
+            write.result().completeExceptionally(failure);
+        } else {
+            writes.incrementAndGet();
+            write.result().complete((T) result);
+        }
+    }
+
+    private void failAll(List<PendingWrite<?>> batch, Throwable failure) {
+        for (PendingWrite<?> write : batch) {
+            failedWrites.incrementAndGet();
+            write.result().completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * @return writes waiting for the writer thread
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return writer counters for monitoring
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queued", queue.size());
+        metrics.put("writes", writes.get());
+        metrics.put("failedWrites", failedWrites.get());
+        metrics.put("commits", commits.get());
+        metrics.put("failedCommits", failedCommits.get());
+        metrics.put("largestBatch", largestBatch.get());
+        return metrics;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A connection lent to one unit of database work, with cached prepared statements.
+ *
+ * <p>Obtained through {@link DatabaseManager#read} or {@link DatabaseManager#write}.
+ * Statements returned by {@link #prepare} belong to the connection and are reused by later
+ * work: do not close them, but always close the ResultSets they produce (an open ResultSet
+ * keeps the connection's read snapshot alive).</p>
+ *
+ * <p>Write work runs inside the writer's shared transaction and must not commit, roll back
+ * or change auto-commit; throwing an exception undoes only that work.</p>
+ */
+public interface DbSession {
+
+    /**
+     * Database work run with a session.
+     *
+     * @param <T> result type
+     */
+    @FunctionalInterface
+    interface Work<T> {
+        T run(DbSession session) throws SQLException;
+    }
+
+    /**
+     * Get a cached prepared statement for this SQL, with parameters cleared.
+     *
+     * @param sql statement text
+     * @return statement owned by the session; do not close
+     */
+    PreparedStatement prepare(String sql) throws SQLException;
+
+    /**
+     * Get a cached prepared statement that returns generated keys.
+     *
+     * @param sql INSERT statement text
+     * @return statement owned by the session; do not close
+     */
+    PreparedStatement prepareReturningKeys(String sql) throws SQLException;
+
+    /**
+     * @return the underlying connection, for statements that should not be cached
+     */
+    Connection connection();
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.db;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prepared statements cached per physical connection of a pool.
+ *
+ * <p>The pool closes statements created through its connection proxy when the connection
+ * is returned, so statements are prepared on the unwrapped physical connection instead and
+ * survive across borrows. Connections the pool has retired fall off the end of a small LRU.
+ * A physical connection is only ever used by the thread that borrowed it, so its own
+ * statement map needs no locking.</p>
+ */
+final class StatementCache {
+
+    /** Distinct statements kept per connection; the least recently used is closed beyond this */
+    private static final int MAX_STATEMENTS_PER_CONNECTION = 64;
+
+    private final Map<Connection, Map<String, PreparedStatement>> byConnection;
+
+    /**
+     * @param maxConnections pool size; a few more are tracked so rotation never evicts a live connection
+     */
+    StatementCache(int maxConnections) {
+        int limit = maxConnections * 2 + 2;
+        this.byConnection = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Connection, Map<String, PreparedStatement>> eldest) {
+                if (size() > limit) {
+                    eldest.getValue().values().forEach(StatementCache::closeQuietly);
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Open a session on a borrowed connection. Call {@link Session#release()} before returning it.
+     */
+    Session open(Connection pooled) throws SQLException {
+        Connection physical = pooled.isWrapperFor(Connection.class) ? pooled.unwrap(Connection.class) : pooled;
+        Map<String, PreparedStatement> statements = byConnection.computeIfAbsent(physical, c -> newStatementMap());
+        return new Session(pooled, physical, statements);
+    }
+
+    private static Map<String, PreparedStatement> newStatementMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > MAX_STATEMENTS_PER_CONNECTION) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            LoggerUtil.debug("Failed to close cached statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Session handed to one unit of work.
+     */
+    static final class Session implements DbSession {
+        private final Connection pooled;
+        private final Connection physical;
+        private final Map<String, PreparedStatement> statements;
+        private final List<PreparedStatement> used = new ArrayList<>();
+
+        private Session(Connection pooled, Connection physical, Map<String, PreparedStatement> statements) {
+            this.pooled = pooled;
+            this.physical = physical;
+            this.statements = statements;
+        }
+
+        @Override
+        public PreparedStatement prepare(String sql) throws SQLException {
+            return cached(sql, false);
+        }
+
+        @Override
+        public PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+            return cached(sql, true);
+        }
+
+        @Override
+        public Connection connection() {
+            return pooled;
+        }
+
+        private PreparedStatement cached(String sql, boolean returnKeys) throws SQLException {
+            String key = returnKeys ? "K:" + sql : sql;
+            PreparedStatement stmt = statements.get(key);
+            if (stmt == null || stmt.isClosed()) {
+                stmt = returnKeys
+                        ? physical.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                        : physical.prepareStatement(sql);
+                statements.put(key, stmt);
+            } else {
+                stmt.clearParameters();
+            }
+            used.add(stmt);
+            return stmt;
+        }
+
+        /**
+         * Clear the parameters and batches of every statement this work used.
+         */
+        void release() {
+            for (PreparedStatement stmt : used) {
+                try {
+                    stmt.clearBatch();
+                    stmt.clearParameters();
+                } catch (SQLException e) {
+                    // A broken statement is dropped and re-prepared next time
+                    statements.values().remove(stmt);
+                    closeQuietly(stmt);
+                }
+            }
+            used.clear();
+        }
+    }
+}
@@ -0,0 +1,507 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import com.dialtone.fdo.dsl.RenderingContext;
+import com.dialtone.fdo.spi.FdoCompilationException;
+import com.dialtone.fdo.spi.FdoCompilationService;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One {@link FdoTemplateSource} layout, compiled once and rendered by patching bytes.
+ *
+ * <p>The layout is learned from two probe compilations that use marker values: each
+ * string slot gets a unique marker that is one character longer in the second probe,
+ * and each integer slot gets two values of the same byte width. Comparing the two
+ * outputs locates every marker occurrence, every integer field and every length byte
+ * that grows with the markers. Rendering copies the probe bytes with the real values
+ * spliced in and those length bytes adjusted, then packs the probe's frames (which
+ * always end on atom boundaries) into as few chunks as fit.</p>
+ *
+ * <p>Layouts the comparison cannot fully explain are rejected, and callers compile
+ * normally. {@link #render} returns null for values a layout cannot represent:
+ * non-ASCII or empty text, text with characters FDO source escapes, atoms that would
+ * need a wider length field, or a frame that no longer fits in a chunk.</p>
+ */
+final class CompiledFdoTemplate {
+
+    /** Largest value a patched length byte may take (one-byte length form). */
+    static final int MAX_FIELD_LENGTH = 127;
+
+    /** Marker lengths tried in turn; shorter markers leave room for more fixed text. */
+    private static final int[] MARKER_LENGTHS = {48, 16};
+
+    /** Distinct non-zero digits per integer marker byte. */
+    private static final int INT_MARKER_RADIX = 63;
+
+    private static final int PROBE_STREAM_ID = 0x0101;
+
+    private enum Kind { STRING, INT, LENGTH }
+
+    /**
+     * A byte range of the probe output that changes per render.
+     *
+     * @param covered for LENGTH patches, the string slot of each marker occurrence inside the atom
+     */
+    private record Patch(Kind kind, int position, int slot, int[] covered) {}
+
+    private final byte[] data;
+    private final int[] segmentEnds;
+    private final Patch[] patches;
+    private final int markerLength;
+    private final int[] intWidths;
+    private final int maxFrameData;
+
+    private CompiledFdoTemplate(byte[] data, int[] segmentEnds, Patch[] patches,
+                                int markerLength, int[] intWidths, int maxFrameData) {
+        this.data = data;
+        this.segmentEnds = segmentEnds;
+        this.patches = patches;
+        this.markerLength = markerLength;
+        this.intWidths = intWidths;
+        this.maxFrameData = maxFrameData;
+    }
+
+    /**
+     * Compile probes for a layout and learn where its slots live.
+     *
+     * @param service compilation backend
+     * @param source builder providing the layout
+     * @param ctx rendering context
+     * @param stringCount number of string slots
+     * @param intWidths byte width of each integer slot (0 for a slot fixed at zero)
+     * @param token P3 token the chunks are built for
+     * @return the template, or null if the layout cannot be patched
+     * @throws FdoCompilationException if a probe fails to compile
+     */
+    static CompiledFdoTemplate learn(FdoCompilationService service, FdoTemplateSource source,
+                                     RenderingContext ctx, int stringCount, int[] intWidths,
+                                     String token) throws FdoCompilationException {
+        int headerSize = service.getChunkHeaderSize(token);
+        int maxFrameData = service.getMaxChunkPayload() - headerSize;
+        for (int markerLength : MARKER_LENGTHS) {
+            CompiledFdoTemplate template = tryLearn(service, source, ctx, stringCount, intWidths,
+                    token, headerSize, maxFrameData, markerLength);
+            if (template != null) {
+                return template;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Render the layout with new values.
+     *
+     * @param strings string slot values
+     * @param ints integer slot values (same byte widths as learned)
+     * @return FDO data for each chunk (no token or Stream ID), or null if the values do not fit
+     */
+    List<byte[]> render(String[] strings, int[] ints) {
+        byte[][] values = new byte[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            values[i] = encodeString(strings[i]);
+            if (values[i] == null) {
+                return null;
+            }
+        }
+        for (int j = 0; j < ints.length; j++) {
+            if (byteWidth(ints[j]) != intWidths[j]) {
+                return null;
+            }
+        }
+
+        int size = data.length;
+        for (Patch patch : patches) {
+            if (patch.kind == Kind.STRING) {
+                size += values[patch.slot].length - markerLength;
+            }
+        }
+
+        byte[] out = new byte[size];
+        int[] newEnds = new int[segmentEnds.length];
+        int src = 0;
+        int dst = 0;
+        int segment = 0;
+        for (Patch patch : patches) {
+            while (segment < segmentEnds.length && segmentEnds[segment] <= patch.position) {
+                newEnds[segment] = segmentEnds[segment] + (dst - src);
+                segment++;
+            }
+            int unchanged = patch.position - src;
+            System.arraycopy(data, src, out, dst, unchanged);
+            dst += unchanged;
+            src = patch.position;
+
+            switch (patch.kind) {
+                case STRING -> {
+                    byte[] value = values[patch.slot];
+                    System.arraycopy(value, 0, out, dst, value.length);
+                    dst += value.length;
+                    src += markerLength;
+                }
+                case INT -> {
+                    int width = intWidths[patch.slot];
+                    int value = ints[patch.slot];
+                    for (int k = width - 1; k >= 0; k--) {
+                        out[dst++] = (byte) (value >>> (k * 8));
+                    }
+                    src += width;
+                }
+                case LENGTH -> {
+                    int length = data[src] & 0xFF;
+                    for (int slot : patch.covered) {
+                        length += values[slot].length - markerLength;
+                    }
+                    if (length < 0 || length > MAX_FIELD_LENGTH) {
+                        return null;
+                    }
+                    out[dst++] = (byte) length;
+                    src++;
+                }
+            }
+        }
+        while (segment < segmentEnds.length) {
+            newEnds[segment] = segmentEnds[segment] + (dst - src);
+            segment++;
+        }
+        System.arraycopy(data, src, out, dst, data.length - src);
+
+        return pack(out, newEnds);
+    }
+
+    /**
+     * Number of patched byte ranges (for diagnostics).
+     */
+    int getPatchCount() {
+        return patches.length;
+    }
+
+    /**
+     * Greedily merge consecutive probe frames into chunks of at most maxFrameData bytes.
+     */
+    private List<byte[]> pack(byte[] out, int[] ends) {
+        List<byte[]> frames = new ArrayList<>();
+        int frameStart = 0;
+        int lastEnd = 0;
+        for (int end : ends) {
+            if (end - frameStart > maxFrameData) {
+                if (lastEnd == frameStart) {
+                    return null;
+                }
+                frames.add(Arrays.copyOfRange(out, frameStart, lastEnd));
+                frameStart = lastEnd;
+                if (end - frameStart > maxFrameData) {
+                    return null;
+                }
+            }
+            lastEnd = end;
+        }
+        if (lastEnd > frameStart || frames.isEmpty()) {
+            frames.add(Arrays.copyOfRange(out, frameStart, lastEnd));
+        }
+        return frames;
+    }
+
+    // ==================== Learning ====================
+
+    private record Probe(byte[] data, int[] segmentEnds) {}
+
+    private static CompiledFdoTemplate tryLearn(FdoCompilationService service, FdoTemplateSource source,
+                                                RenderingContext ctx, int stringCount, int[] intWidths,
+                                                String token, int headerSize, int maxFrameData,
+                                                int markerLength) throws FdoCompilationException {
+        String[] markersA = new String[stringCount];
+        String[] markersB = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            markersA[i] = marker(i, markerLength);
+            markersB[i] = marker(i, markerLength + 1);
+            if (markersA[i] == null) {
+                return null;
+            }
+        }
+        int[] intsA = new int[intWidths.length];
+        int[] intsB = new int[intWidths.length];
+        for (int j = 0; j < intWidths.length; j++) {
+            intsA[j] = intMarker(j, intWidths[j], false);
+            intsB[j] = intMarker(j, intWidths[j], true);
+            if (intsA[j] < 0) {
+                return null;
+            }
+        }
+
+        Probe a = compileProbe(service, source, ctx, markersA, intsA, token, headerSize);
+        Probe b = compileProbe(service, source, ctx, markersB, intsB, token, headerSize);
+
+        List<int[]> occurrencesA = findMarkers(a.data, markersA);
+        List<int[]> occurrencesB = findMarkers(b.data, markersB);
+        if (occurrencesA == null || occurrencesB == null || occurrencesA.size() != occurrencesB.size()) {
+            return null;
+        }
+        boolean[] stringUsed = new boolean[stringCount];
+        for (int k = 0; k < occurrencesA.size(); k++) {
+            if (occurrencesA.get(k)[1] != occurrencesB.get(k)[1]) {
+                return null;
+            }
+            stringUsed[occurrencesA.get(k)[1]] = true;
+        }
+        for (boolean used : stringUsed) {
+            if (!used) {
+                // Marker did not survive compilation verbatim
+                return null;
+            }
+        }
+
+        // Second probe in first-probe coordinates: longer markers swapped for the short ones
+        byte[] aligned = new byte[b.data.length - occurrencesB.size()];
+        int src = 0;
+        int dst = 0;
+        for (int[] occurrence : occurrencesB) {
+            int unchanged = occurrence[0] - src;
+            System.arraycopy(b.data, src, aligned, dst, unchanged);
+            dst += unchanged;
+            byte[] shorter = markersA[occurrence[1]].getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(shorter, 0, aligned, dst, shorter.length);
+            dst += shorter.length;
+            src = occurrence[0] + markerLength + 1;
+        }
+        if (aligned.length != a.data.length) {
+            return null;
+        }
+        System.arraycopy(b.data, src, aligned, dst, b.data.length - src);
+
+        List<Patch> patches = new ArrayList<>();
+        for (int[] occurrence : occurrencesA) {
+            patches.add(new Patch(Kind.STRING, occurrence[0], occurrence[1], null));
+        }
+        boolean[] intFound = new boolean[intWidths.length];
+        for (int x = 0; x < aligned.length; x++) {
+            if (a.data[x] == aligned[x]) {
+                continue;
+            }
+            int slot = matchInt(a.data, aligned, x, intsA, intsB, intWidths);
+            if (slot >= 0) {
+                patches.add(new Patch(Kind.INT, x, slot, null));
+                intFound[slot] = true;
+                x += intWidths[slot] - 1;
+                continue;
+            }
+            // Anything else must be a length byte grown by one per marker inside its atom
+            int before = a.data[x] & 0xFF;
+            int after = aligned[x] & 0xFF;
+            int count = after - before;
+            int first = firstOccurrenceAfter(occurrencesA, x);
+            if (count < 1 || after > MAX_FIELD_LENGTH || first + count > occurrencesA.size()) {
+                return null;
+            }
+            int[] covered = new int[count];
+            for (int k = 0; k < count; k++) {
+                covered[k] = occurrencesA.get(first + k)[1];
+            }
+            patches.add(new Patch(Kind.LENGTH, x, -1, covered));
+        }
+        for (int j = 0; j < intWidths.length; j++) {
+            if (intWidths[j] > 0 && !intFound[j]) {
+                return null;
+            }
+        }
+
+        patches.sort(Comparator.comparingInt(Patch::position));
+        for (Patch patch : patches) {
+            int size = switch (patch.kind) {
+                case STRING -> markerLength;
+                case INT -> intWidths[patch.slot];
+                case LENGTH -> 1;
+            };
+            if (!withinOneSegment(a.segmentEnds, patch.position, size)) {
+                return null;
+            }
+        }
+
+        return new CompiledFdoTemplate(a.data, a.segmentEnds, patches.toArray(new Patch[0]),
+                markerLength, intWidths.clone(), maxFrameData);
+    }
+
+    private static Probe compileProbe(FdoCompilationService service, FdoTemplateSource source,
+                                      RenderingContext ctx, String[] strings, int[] ints,
+                                      String token, int headerSize) throws FdoCompilationException {
+        List<FdoChunk> chunks = service.compileToChunks(source.toSource(ctx, strings, ints), token, PROBE_STREAM_ID);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int[] ends = new int[chunks.size()];
+        for (int i = 0; i < chunks.size(); i++) {
+            byte[] payload = chunks.get(i).getBinaryData();
+            out.write(payload, headerSize, payload.length - headerSize);
+            ends[i] = out.size();
+        }
+        return new Probe(out.toByteArray(), ends);
+    }
+
+    /**
+     * Marker text for a string slot: unique per slot, ASCII letters and digits only.
+     */
+    private static String marker(int slot, int length) {
+        String prefix = "Zq" + slot + "x";
+        if (prefix.length() + 1 > length) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(length).append(prefix);
+        while (sb.length() < length - 1) {
+            sb.append('q');
+        }
+        return sb.append('Z').toString();
+    }
+
+    /**
+     * Marker value for an integer slot: exactly {@code width} bytes, every byte non-zero
+     * and different between the two probes, unique per slot.
+     *
+     * @return the value, or -1 if the slot number does not fit the width
+     */
+    private static int intMarker(int slot, int width, boolean second) {
+        if (width == 0) {
+            return 0;
+        }
+        int remaining = slot;
+        int value = 0;
+        for (int k = 0; k < width; k++) {
+            int digit = remaining % INT_MARKER_RADIX + 1;
+            remaining /= INT_MARKER_RADIX;
+            value |= (second ? digit + 64 : digit) << (k * 8);
+        }
+        return remaining == 0 ? value : -1;
+    }
+
+    /**
+     * Find the integer slot whose probe values start at {@code x}. Wider slots are tried
+     * first: a narrow marker can equal the leading byte of a wider one.
+     */
+    private static int matchInt(byte[] first, byte[] second, int x, int[] intsA, int[] intsB, int[] widths) {
+        for (int width = 4; width > 0; width--) {
+            int slot = matchInt(first, second, x, intsA, intsB, widths, width);
+            if (slot >= 0) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static int matchInt(byte[] first, byte[] second, int x, int[] intsA, int[] intsB,
+                                int[] widths, int width) {
+        for (int j = 0; j < widths.length; j++) {
+            if (widths[j] != width || x + width > first.length) {
+                continue;
+            }
+            boolean match = true;
+            for (int k = 0; k < width && match; k++) {
+                int shift = (width - 1 - k) * 8;
+                match = first[x + k] == (byte) (intsA[j] >>> shift)
+                        && second[x + k] == (byte) (intsB[j] >>> shift);
+            }
+            if (match) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find all marker occurrences, sorted by position.
+     *
+     * @return list of {position, slot}, or null if markers overlap
+     */
+    private static List<int[]> findMarkers(byte[] data, String[] markers) {
+        List<int[]> occurrences = new ArrayList<>();
+        for (int slot = 0; slot < markers.length; slot++) {
+            byte[] marker = markers[slot].getBytes(StandardCharsets.US_ASCII);
+            for (int pos = indexOf(data, marker, 0); pos >= 0; pos = indexOf(data, marker, pos + marker.length)) {
+                occurrences.add(new int[]{pos, slot});
+            }
+        }
+        occurrences.sort(Comparator.comparingInt(o -> o[0]));
+        for (int k = 1; k < occurrences.size(); k++) {
+            int[] previous = occurrences.get(k - 1);
+            if (previous[0] + markers[previous[1]].length() > occurrences.get(k)[0]) {
+                return null;
+            }
+        }
+        return occurrences;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= data.length - pattern.length; i++) {
+            for (int k = 0; k < pattern.length; k++) {
+                if (data[i + k] != pattern[k]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int firstOccurrenceAfter(List<int[]> occurrences, int position) {
+        int low = 0;
+        int high = occurrences.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (occurrences.get(mid)[0] <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean withinOneSegment(int[] ends, int position, int size) {
+        for (int end : ends) {
+            if (position < end) {
+                return position + size <= end;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Byte width of a slot value: 0 for zero, 1-4 for positive values, -1 for negatives.
+     */
+    static int byteWidth(int value) {
+        if (value < 0) {
+            return -1;
+        }
+        return value == 0 ? 0 : (39 - Integer.numberOfLeadingZeros(value)) / 8;
+    }
+
+    /**
+     * Encode a string slot value as it appears in compiled atoms.
+     *
+     * <p>Only values that reach the compiler unchanged are patched. Quotes and backslashes
+     * are escaped in FDO source, so a layout learned from plain markers says nothing about
+     * how they compile; those values take the full compile instead.</p>
+     *
+     * @return bytes, or null if the value is empty, has characters outside printable ASCII
+     *         and DEL, or contains a quote or backslash
+     */
+    static byte[] encodeString(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_FIELD_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[value.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7F || c == '"' || c == '\\') {
+                return null;
+            }
+            bytes[i] = (byte) c;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import com.dialtone.fdo.spi.FdoCompilationException;
+import com.dialtone.fdo.spi.FdoCompilationService;
+import com.dialtone.resources.ResourceRepository;
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of compiled frame data for forms whose output never changes for a
+ * given key: static DSL builders per rendering context, and DOD atom streams per GID.
+ *
+ * <p>The first request for a key generates the FDO source and compiles it; later
+ * requests skip both DSL source generation and compilation and only wrap the cached
+ * frames with the caller's token and Stream ID.</p>
+ *
+ * <p>Only forms that are the same on every request belong here. Dynamic builders are not
+ * cached: those implementing {@link FdoTemplateSource} are patched by
+ * {@link FdoTemplateCache}, and all others still generate their source and compile it on
+ * every request.</p>
+ *
+ * <p>Shared by all {@link FdoCompiler} instances (one is created per connection).</p>
+ */
+public final class CompiledFormCache {
+
+    private static final CompiledFormCache INSTANCE = new CompiledFormCache();
+
+    /** Forms kept before the cache is reset. */
+    static final int MAX_FORMS = 1024;
+
+    /**
+     * Produces the FDO source for a form on a cache miss.
+     */
+    @FunctionalInterface
+    public interface FormSource {
+        /**
+         * @return FDO source text ready for compilation
+         * @throws FdoCompilationException if an inner compile step fails
+         */
+        String toSource() throws FdoCompilationException;
+    }
+
+    private record Key(Object formKey, int headerSize, int maxChunkPayload) {}
+
+    private final Map<Key, List<byte[]>> forms = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private CompiledFormCache() {
+    }
+
+    public static CompiledFormCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Produce P3 chunks for a form, compiling it only the first time its key is seen.
+     *
+     * @param service compilation backend
+     * @param formKey identity of the form output (value-based equals/hashCode)
+     * @param token P3 token
+     * @param streamId resolved Stream ID
+     * @param source generates the FDO source on a miss
+     * @return chunks ready for P3ChunkEnqueuer
+     * @throws FdoCompilationException if compilation fails (nothing is cached)
+     */
+    public List<FdoChunk> compileToChunks(FdoCompilationService service, Object formKey, String token,
+                                          int streamId, FormSource source) throws FdoCompilationException {
+        int headerSize = service.getChunkHeaderSize(token);
+        Key key = new Key(formKey, headerSize, service.getMaxChunkPayload());
+
+        List<byte[]> frames = forms.get(key);
+        if (frames != null) {
+            hits.incrementAndGet();
+            return FdoFrames.toChunks(frames, token, streamId, headerSize);
+        }
+
+        misses.incrementAndGet();
+        ResourceRepository resources = ResourceRepository.getInstance();
+        long generation = resources.getGeneration();
+        List<FdoChunk> chunks = service.compileToChunks(source.toSource(), token, streamId);
+        if (forms.size() >= MAX_FORMS) {
+            LoggerUtil.info("[CompiledFormCache] Cache full, clearing " + forms.size() + " forms");
+            forms.clear();
+        }
+        List<byte[]> compiled = FdoFrames.dataOf(chunks, headerSize);
+        forms.put(key, compiled);
+        // The source may have come from a snapshot a reload has since replaced (and cleared us for)
+        if (resources.getGeneration() != generation) {
+            forms.remove(key, compiled);
+        }
+        return chunks;
+    }
+
+    /**
+     * @return requests served from cached frames
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return requests that generated and compiled source
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of cached forms
+     */
+    public int size() {
+        return forms.size();
+    }
+
+    /**
+     * Drop all cached forms (e.g. after FDO resources change).
+     */
+    public void clear() {
+        forms.clear();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import java.util.List;
+
+/**
+ * Immutable compiled frame data of one form, ready to be wrapped for any Stream ID.
+ *
+ * <p>Produced by {@link FdoCompiler#precompileBuilder} for content that is rendered once
+ * and served many times (e.g. published news stories). Sending it only copies the cached
+ * frames behind a fresh token and Stream ID header.</p>
+ */
+public final class CompiledFrames {
+
+    private final String token;
+    private final int headerSize;
+    private final List<byte[]> frames;
+    private final int byteSize;
+
+    CompiledFrames(String token, int headerSize, List<byte[]> frames) {
+        this.token = token;
+        this.headerSize = headerSize;
+        this.frames = List.copyOf(frames);
+        int size = 0;
+        for (byte[] frame : this.frames) {
+            size += frame.length;
+        }
+        this.byteSize = size;
+    }
+
+    /**
+     * Wrap the frames as P3 chunks.
+     *
+     * @param streamId Stream ID (or {@link FdoCompiler#AUTO_GENERATE_STREAM_ID})
+     * @return chunks ready for P3ChunkEnqueuer
+     */
+    public List<FdoChunk> toChunks(int streamId) {
+        return FdoFrames.toChunks(frames, token, FdoCompiler.resolveStreamId(streamId), headerSize);
+    }
+
+    /**
+     * @return P3 token the frames were compiled for
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @return number of frames
+     */
+    public int getFrameCount() {
+        return frames.size();
+    }
+
+    /**
+     * @return FDO bytes across all frames, excluding headers
+     */
+    public int getByteSize() {
+        return byteSize;
+    }
+}
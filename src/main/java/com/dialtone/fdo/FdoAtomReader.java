@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import com.atomforge.fdo.model.FdoAtom;
+import com.atomforge.fdo.model.FdoStream;
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cursor over the atoms of a binary FDO stream, without decoding them.
+ *
+ * <p>The reader walks a {@code byte[]} range atom by atom, reading only each atom's header
+ * and skipping its data by length. Nothing is copied or allocated per atom. {@link #scan}
+ * uses it to find the atoms a caller asks for in one pass, then decodes them one at a time
+ * for a visitor that can stop as soon as it has what it needs; every other atom is skipped
+ * unread.</p>
+ *
+ * <p>Atoms in full form ({@code [protocol][atom][length][data]}) are read directly. The
+ * reader reports {@link #isUnsupported()} on anything else: compact atom styles, UNI large
+ * atoms (whose data must be reassembled), or a length running past the end of the range.
+ * {@link #scan} then falls back to {@link FdoStream#decode} over the whole range, so results
+ * never depend on the reader understanding every encoding.</p>
+ *
+ * <p>Atom numbers are not hard-coded: on first use each atom name the extractors need is
+ * compiled with the atomforge compiler and read back with this reader and with
+ * {@link FdoStream}. Only atoms whose encoding both agree on take the fast path.</p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * String[] first = new String[1];
+ * FdoAtomReader.scan(fdo, 0, fdo.length, (name, atom) -&gt; {
+ *     if (atom.isString()) {
+ *         first[0] = atom.getString();
+ *         return false;  // stop
+ *     }
+ *     return true;       // keep going
+ * }, "de_data");
+ * </pre>
+ */
+public final class FdoAtomReader {
+
+    /**
+     * Receives matching atoms in stream order.
+     */
+    @FunctionalInterface
+    public interface AtomVisitor {
+        /**
+         * @param name atom name (one of the names passed to {@link #scan})
+         * @param atom the decoded atom
+         * @return true to continue, false to stop scanning
+         */
+        boolean visit(String name, FdoAtom atom);
+    }
+
+    // Top three bits of the first header byte select the atom style; zero is full form
+    private static final int STYLE_MASK = 0xE0;
+    private static final int PROTOCOL_MASK = 0x1F;
+    private static final int LONG_LENGTH_FLAG = 0x80;
+
+    // UNI large atom protocol (start, segment, end): data spans atoms
+    private static final int UNI_PROTOCOL = 0x00;
+    private static final int UNI_START_LARGE_ATOM = 0x04;
+    private static final int UNI_END_LARGE_ATOM = 0x06;
+
+    private final byte[] data;
+    private final int end;
+    private final boolean longLengths;
+    private int position;
+    private int atomStart;
+    private int protocol;
+    private int atom;
+    private int dataStart;
+    private int dataLength;
+    private boolean unsupported;
+
+    /**
+     * @param data   buffer holding the FDO binary
+     * @param offset first byte of the stream
+     * @param length stream length in bytes
+     */
+    public FdoAtomReader(byte[] data, int offset, int length) {
+        this(data, offset, length, Calibration.LONG_LENGTHS);
+    }
+
+    private FdoAtomReader(byte[] data, int offset, int length, boolean longLengths) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " outside " + data.length + " bytes");
+        }
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+        this.longLengths = longLengths;
+    }
+
+    /**
+     * Move to the next atom.
+     *
+     * @return true if positioned on an atom; false at the end of the stream or if the
+     *         next atom cannot be read (see {@link #isUnsupported()})
+     */
+    public boolean next() {
+        if (unsupported || position >= end) {
+            return false;
+        }
+        if (end - position < 3) {
+            return fail();
+        }
+
+        int header = data[position] & 0xFF;
+        if ((header & STYLE_MASK) != 0) {
+            return fail();
+        }
+
+        int p = position;
+        int atomProtocol = header & PROTOCOL_MASK;
+        int atomNumber = data[p + 1] & 0xFF;
+        if (atomProtocol == UNI_PROTOCOL && atomNumber >= UNI_START_LARGE_ATOM && atomNumber <= UNI_END_LARGE_ATOM) {
+            return fail();
+        }
+
+        int length = data[p + 2] & 0xFF;
+        p += 3;
+        if ((length & LONG_LENGTH_FLAG) != 0) {
+            if (!longLengths || p >= end) {
+                return fail();
+            }
+            length = ((length & ~LONG_LENGTH_FLAG) << 8) | (data[p] & 0xFF);
+            p++;
+        }
+        if (length > end - p) {
+            return fail();
+        }
+
+        atomStart = position;
+        protocol = atomProtocol;
+        atom = atomNumber;
+        dataStart = p;
+        dataLength = length;
+        position = p + length;
+        return true;
+    }
+
+    private boolean fail() {
+        unsupported = true;
+        return false;
+    }
+
+    /**
+     * @return true if the walk stopped at an atom this reader cannot read
+     */
+    public boolean isUnsupported() {
+        return unsupported;
+    }
+
+    public int getProtocol() {
+        return protocol;
+    }
+
+    public int getAtom() {
+        return atom;
+    }
+
+    /**
+     * @return offset of the current atom's data in the buffer
+     */
+    public int getDataOffset() {
+        return dataStart;
+    }
+
+    public int getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * @return {@code (protocol << 8) | atom} of the current atom
+     */
+    public int getKey() {
+        return (protocol << 8) | atom;
+    }
+
+    /**
+     * Decode just the current atom.
+     *
+     * @param name atom name
+     * @return the decoded atom, or null if the decoder does not see it as {@code name}
+     */
+    public FdoAtom decode(String name) {
+        byte[] atomBytes = Arrays.copyOfRange(data, atomStart, dataStart + dataLength);
+        return FdoStream.decode(atomBytes).findFirst(name).orElse(null);
+    }
+
+    /**
+     * Visit the named atoms of an FDO stream in order, decoding only those atoms.
+     *
+     * <p>Falls back to a full {@link FdoStream#decode} of the range if the stream holds an
+     * atom the reader cannot read or a name has no calibrated encoding. In that case atoms
+     * are visited grouped by name, in the order the names are given.</p>
+     *
+     * @param data    buffer holding the FDO binary
+     * @param offset  first byte of the stream
+     * @param length  stream length in bytes
+     * @param visitor receives each matching atom; returns false to stop
+     * @param names   atom names to visit
+     */
+    public static void scan(byte[] data, int offset, int length, AtomVisitor visitor, String... names) {
+        int[] keys = Calibration.keysFor(names);
+        if (keys != null) {
+            // One header-only pass; matches are decoded afterwards so a visitor never sees
+            // atoms from a stream that turns out to need the fallback
+            FdoAtomReader reader = new FdoAtomReader(data, offset, length);
+            int[] matches = new int[8];
+            int matchCount = 0;
+            while (reader.next()) {
+                int key = reader.getKey();
+                for (int i = 0; i < keys.length; i++) {
+                    if (keys[i] == key) {
+                        if (matchCount + 2 > matches.length) {
+                            matches = Arrays.copyOf(matches, matches.length * 2);
+                        }
+                        matches[matchCount++] = reader.atomStart;
+                        matches[matchCount++] = i;
+                        break;
+                    }
+                }
+            }
+
+            if (!reader.isUnsupported()) {
+                for (int m = 0; m < matchCount; m += 2) {
+                    FdoAtomReader atomReader = new FdoAtomReader(data, matches[m], offset + length - matches[m]);
+                    atomReader.next();
+                    String name = names[matches[m + 1]];
+                    FdoAtom decoded = atomReader.decode(name);
+                    if (decoded != null && !visitor.visit(name, decoded)) {
+                        return;
+                    }
+                }
+                return;
+            }
+        }
+
+        FdoStream stream = FdoStream.decode(Arrays.copyOfRange(data, offset, offset + length));
+        for (String name : names) {
+            for (FdoAtom decoded : stream.findAll(name)) {
+                if (!visitor.visit(name, decoded)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodings learned from the atomforge compiler on first use.
+     */
+    private static final class Calibration {
+
+        // Probe source for each atom the extractors read
+        private static final Map<String, String> PROBES = Map.of(
+                "de_data", "de_data <\"dialtone\">",
+                "man_set_response_id", "man_set_response_id <2097320>",
+                "uni_transaction_id", "uni_transaction_id <16779480>",
+                "uni_end_stream", "uni_end_stream",
+                "dod_form_id", "dod_form_id <1-0-1307>",
+                "dod_gid", "dod_gid <1-0-1307>");
+
+        private static final Map<String, Integer> KEYS;
+        static final boolean LONG_LENGTHS;
+
+        static {
+            Map<String, Integer> keys = new HashMap<>();
+            com.atomforge.fdo.FdoCompiler compiler = null;
+            try {
+                compiler = com.atomforge.fdo.FdoCompiler.create();
+            } catch (Exception | LinkageError e) {
+                LoggerUtil.warn("[FdoAtomReader] FDO compiler unavailable, atom fast path disabled: " + e.getMessage());
+            }
+
+            if (compiler != null) {
+                for (Map.Entry<String, String> probe : PROBES.entrySet()) {
+                    Integer key = probe(compiler, probe.getKey(), probe.getValue(), false);
+                    if (key != null) {
+                        keys.put(probe.getKey(), key);
+                    }
+                }
+            }
+            KEYS = Map.copyOf(keys);
+            LONG_LENGTHS = compiler != null
+                    && probe(compiler, "de_data", "de_data <\"" + "d".repeat(160) + "\">", true) != null;
+
+            LoggerUtil.info(String.format("[FdoAtomReader] Atom fast path enabled for %d/%d atoms (long lengths: %s)",
+                    KEYS.size(), PROBES.size(), LONG_LENGTHS));
+        }
+
+        /**
+         * Compile a single-atom probe and check the reader and decoder agree on it.
+         *
+         * @return the atom's key, or null if the encoding is not one the reader handles
+         */
+        private static Integer probe(com.atomforge.fdo.FdoCompiler compiler, String name, String source,
+                                     boolean longLengths) {
+            try {
+                byte[] bytes = compiler.compile(source);
+                FdoAtomReader reader = new FdoAtomReader(bytes, 0, bytes.length, longLengths);
+                if (!reader.next()) {
+                    return null;
+                }
+                int key = reader.getKey();
+                if (reader.next() || reader.isUnsupported()) {
+                    return null;
+                }
+                return FdoStream.decode(bytes).findFirst(name).isPresent() ? key : null;
+            } catch (Exception e) {
+                LoggerUtil.debug(() -> "[FdoAtomReader] No fast path for " + name + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * @return keys in the order of {@code names}, or null if any name is not calibrated
+         */
+        static int[] keysFor(String... names) {
+            int[] keys = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Integer key = KEYS.get(names[i]);
+                if (key == null) {
+                    return null;
+                }
+                keys[i] = key;
+            }
+            return keys;
+        }
+    }
+}
@@ -5,15 +5,16 @@
 package com.dialtone.fdo;
 
 import com.dialtone.db.models.ScreennamePreferences;
+import com.dialtone.fdo.dsl.FdoBuilder;
+import com.dialtone.fdo.dsl.RenderingContext;
 import com.dialtone.fdo.spi.FdoCompilationException;
 import com.dialtone.fdo.spi.FdoCompilationService;
 import com.dialtone.fdo.spi.FdoServiceFactory;
+import com.dialtone.resources.ResourceRepository;
 import com.dialtone.utils.LoggerUtil;
 import com.dialtone.web.services.ScreennamePreferencesService;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -97,11 +98,17 @@ public class FdoCompiler {
     private final FdoCompilationService compilationService;
     private final String defaultToken;
     private final int defaultStreamId;
+    private final boolean templateCacheEnabled;
+    private final boolean formCacheEnabled;
 
     public FdoCompiler(Properties properties) {
         this.compilationService = FdoServiceFactory.createCompilationService(properties);
         this.defaultToken = properties.getProperty("p3.default.token", "AT");
         this.defaultStreamId = Integer.parseInt(properties.getProperty("p3.default.stream.id", "0"));
+        this.templateCacheEnabled = Boolean.parseBoolean(
+            properties.getProperty("fdo.template.cache.enabled", "true"));
+        this.formCacheEnabled = Boolean.parseBoolean(
+            properties.getProperty("fdo.form.cache.enabled", "true"));
 
         LoggerUtil.info(String.format("[FdoCompiler] Initialized with %s compilation backend",
             compilationService.getBackendName()));
@@ -151,12 +158,8 @@ public class FdoCompiler {
         if (resourcePath == null) {
             throw new IOException("FDO resource path cannot be null");
         }
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
-            if (inputStream == null) {
-                throw new IOException("FDO resource not found: " + resourcePath);
-            }
-            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-        }
+        return ResourceRepository.getInstance().findText(resourcePath)
+            .orElseThrow(() -> new IOException("FDO resource not found: " + resourcePath));
     }
 
     /**
@@ -190,8 +193,7 @@ public class FdoCompiler {
         LoggerUtil.debug(String.format("[%s] compile start | source:%s | token:%s | streamId:0x%04X",
             backendName, displayName, token, actualStreamId));
 
-        LoggerUtil.debug(String.format("source: %s",
-                fdoSource));
+        LoggerUtil.debug(() -> "source: " + fdoSource);
 
         long startTime = System.currentTimeMillis();
 
@@ -214,6 +216,113 @@ public class FdoCompiler {
         }
     }
 
+    /**
+     * Compile a parametric builder to P3 chunks.
+     *
+     * <p>Uses the shared {@link FdoTemplateCache}: after the first call for a layout,
+     * new slot values are patched into the precompiled bytes instead of recompiling.</p>
+     *
+     * @param source builder with slot values
+     * @param ctx rendering context
+     * @param token P3 token
+     * @param streamId Stream ID (or {@link #AUTO_GENERATE_STREAM_ID})
+     * @return chunks ready for P3ChunkEnqueuer
+     * @throws FdoCompilationException if compilation fails
+     */
+    public List<FdoChunk> compileTemplateToP3Chunks(FdoTemplateSource source, RenderingContext ctx,
+                                                    String token, int streamId) throws FdoCompilationException {
+        if (!templateCacheEnabled) {
+            String fdoSource = source.toSource(ctx, source.stringSlots(), source.intSlots());
+            return compileFdoScriptToP3Chunks(fdoSource, token, streamId);
+        }
+
+        int actualStreamId = resolveStreamId(streamId);
+        long startTime = System.nanoTime();
+        List<FdoChunk> chunks = FdoTemplateCache.getInstance().compileToChunks(
+            compilationService, source, ctx, token, actualStreamId);
+
+        LoggerUtil.debug(() -> String.format("[FdoCompiler] template render | template:%s | chunks:%d | duration:%dus",
+            source.templateKey(), chunks.size(), (System.nanoTime() - startTime) / 1000));
+        return chunks;
+    }
+
+    /**
+     * Compile a DSL builder to P3 chunks, using the cheapest path its type allows.
+     *
+     * <ul>
+     *   <li>{@link FdoTemplateSource} - patched from a cached template</li>
+     *   <li>{@link FdoBuilder.Static} - cached frames per rendering context; the DSL
+     *       source is generated and compiled only once</li>
+     *   <li>anything else - generated and compiled per call</li>
+     * </ul>
+     *
+     * @param builder FDO builder
+     * @param ctx rendering context
+     * @param token P3 token
+     * @param streamId Stream ID (or {@link #AUTO_GENERATE_STREAM_ID})
+     * @return chunks ready for P3ChunkEnqueuer
+     * @throws FdoCompilationException if compilation fails
+     */
+    public List<FdoChunk> compileBuilderToP3Chunks(FdoBuilder builder, RenderingContext ctx,
+                                                   String token, int streamId) throws FdoCompilationException {
+        if (builder instanceof FdoTemplateSource templateSource) {
+            return compileTemplateToP3Chunks(templateSource, ctx, token, streamId);
+        }
+        if (builder instanceof FdoBuilder.Static) {
+            return compileFormToP3Chunks(List.of(builder, ctx), () -> builder.toSource(ctx), token, streamId);
+        }
+        return compileFdoScriptToP3Chunks(builder.toSource(ctx), token, streamId);
+    }
+
+    /**
+     * Compile a DSL builder once into frames that can be sent on any Stream ID.
+     *
+     * <p>Always generates and compiles the source; the caller keeps the result for as
+     * long as the content is current.</p>
+     *
+     * @param builder FDO builder
+     * @param ctx rendering context
+     * @param token P3 token
+     * @return compiled frames
+     * @throws FdoCompilationException if compilation fails
+     */
+    public CompiledFrames precompileBuilder(FdoBuilder builder, RenderingContext ctx,
+                                            String token) throws FdoCompilationException {
+        int headerSize = compilationService.getChunkHeaderSize(token);
+        List<FdoChunk> chunks = compileFdoScriptToP3Chunks(builder.toSource(ctx), token, 0);
+        return new CompiledFrames(token, headerSize, FdoFrames.dataOf(chunks, headerSize));
+    }
+
+    /**
+     * Compile a form whose output is fully determined by {@code formKey}.
+     *
+     * <p>Uses the shared {@link CompiledFormCache}: the source is generated and compiled
+     * on the first call for a key; later calls only re-wrap the cached frames for the
+     * requested token and Stream ID.</p>
+     *
+     * @param formKey identity of the form output (value-based equals/hashCode)
+     * @param source generates the FDO source on a cache miss
+     * @param token P3 token
+     * @param streamId Stream ID (or {@link #AUTO_GENERATE_STREAM_ID})
+     * @return chunks ready for P3ChunkEnqueuer
+     * @throws FdoCompilationException if compilation fails
+     */
+    public List<FdoChunk> compileFormToP3Chunks(Object formKey, CompiledFormCache.FormSource source,
+                                                String token, int streamId) throws FdoCompilationException {
+        if (!formCacheEnabled) {
+            return compileFdoScriptToP3Chunks(source.toSource(), token, streamId);
+        }
+
+        int actualStreamId = resolveStreamId(streamId);
+        long startTime = System.nanoTime();
+        List<FdoChunk> chunks = CompiledFormCache.getInstance().compileToChunks(
+            compilationService, formKey, token, actualStreamId, source);
+
+        LoggerUtil.debug(() -> String.format("[FdoCompiler] form render | form:%s | chunks:%d | duration:%dus",
+            formKey, chunks.size(), (System.nanoTime() - startTime) / 1000));
+        return chunks;
+    }
+
     /**
      * Extract readable display name from FDO source.
      * If source is short (likely a file path), return it.
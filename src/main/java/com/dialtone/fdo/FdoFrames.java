@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Conversion between compiled FDO frame data and P3 chunks.
+ *
+ * <p>A chunk payload is the token, the Stream ID (little-endian, width depending on the
+ * token case) and one frame of FDO data. The frame data does not depend on the token
+ * or Stream ID, so cached frames can be re-wrapped for any stream.</p>
+ */
+final class FdoFrames {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private FdoFrames() {
+    }
+
+    /**
+     * Strip token and Stream ID from compiled chunks.
+     *
+     * @param chunks chunks from the compilation service
+     * @param headerSize token + Stream ID bytes at the start of every chunk
+     * @return FDO data of each chunk
+     */
+    static List<byte[]> dataOf(List<FdoChunk> chunks, int headerSize) {
+        List<byte[]> frames = new ArrayList<>(chunks.size());
+        for (FdoChunk chunk : chunks) {
+            byte[] payload = chunk.getBinaryData();
+            frames.add(Arrays.copyOfRange(payload, headerSize, payload.length));
+        }
+        return frames;
+    }
+
+    /**
+     * Wrap frames the same way the compilation service does: token, little-endian Stream ID, data.
+     *
+     * @param frames FDO data per chunk
+     * @param token P3 token
+     * @param streamId Stream ID (0 leaves chunks untagged)
+     * @param headerSize token + Stream ID bytes for this token
+     * @return chunks ready for P3ChunkEnqueuer
+     */
+    static List<FdoChunk> toChunks(List<byte[]> frames, String token, int streamId, int headerSize) {
+        byte[] tokenBytes = token.getBytes(StandardCharsets.US_ASCII);
+        int streamIdSize = headerSize - tokenBytes.length;
+        List<FdoChunk> chunks = new ArrayList<>(frames.size());
+        for (int index = 0; index < frames.size(); index++) {
+            byte[] frame = frames.get(index);
+            byte[] payload = new byte[headerSize + frame.length];
+            System.arraycopy(tokenBytes, 0, payload, 0, tokenBytes.length);
+            for (int i = 0; i < streamIdSize; i++) {
+                payload[tokenBytes.length + i] = (byte) ((streamId >> (i * 8)) & 0xFF);
+            }
+            System.arraycopy(frame, 0, payload, headerSize, frame.length);
+
+            FdoChunk chunk = new FdoChunk(index, payload.length, toHex(payload));
+            if (streamId != 0) {
+                chunk.setStreamId(streamId);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(hex);
+    }
+}
@@ -106,11 +106,8 @@ public class FdoProcessor {
                     "[%s] Auto-generated stream ID: 0x%04X", label, actualStreamId));
         }
 
-        // Generate FDO source from builder
-        String fdoSource = builder.toSource(renderingCtx);
-
-        // Compile to P3 chunks
-        List<FdoChunk> chunks = compiler.compileFdoScriptToP3Chunks(fdoSource, token, actualStreamId);
+        // Compile to P3 chunks (static and parametric builders are served from caches)
+        List<FdoChunk> chunks = compiler.compileBuilderToP3Chunks(builder, renderingCtx, token, actualStreamId);
 
         String builderName = builder.getClass().getSimpleName();
         LoggerUtil.info(String.format(
@@ -120,4 +117,19 @@ public class FdoProcessor {
         // Enqueue chunks
         P3ChunkEnqueuer.enqueue(ctx, pacer, chunks, label, maxBurstFrames, username);
     }
+
+    /**
+     * Send precompiled frames without compiling anything.
+     *
+     * @param ctx Netty channel context
+     * @param frames frames compiled ahead of time
+     * @param streamId P3 stream ID (or {@link FdoCompiler#AUTO_GENERATE_STREAM_ID})
+     * @param label Debug label for logging
+     * @param username Username for logging context
+     */
+    public void send(ChannelHandlerContext ctx, CompiledFrames frames, int streamId, String label, String username) {
+        List<FdoChunk> chunks = frames.toChunks(streamId);
+        LoggerUtil.debug(() -> String.format("[%s] Sending %d precompiled chunks", label, chunks.size()));
+        P3ChunkEnqueuer.enqueue(ctx, pacer, chunks, label, maxBurstFrames, username);
+    }
 }
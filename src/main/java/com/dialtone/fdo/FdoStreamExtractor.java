@@ -65,21 +65,30 @@ public final class FdoStreamExtractor {
      * @return FDO payload bytes (header and optional terminator removed)
      */
     public static byte[] stripP3Header(byte[] frame) {
-        if (frame == null || frame.length <= P3_HEADER_SIZE) {
+        if (frame == null) {
             return new byte[0];
         }
+        return Arrays.copyOfRange(frame, P3_HEADER_SIZE, P3_HEADER_SIZE + payloadLength(frame));
+    }
+
+    /**
+     * Length of a frame's FDO payload, which starts at {@link #P3_HEADER_SIZE}.
+     *
+     * @param frame complete P3 frame bytes
+     * @return payload length (header and optional terminator excluded), 0 if none
+     */
+    private static int payloadLength(byte[] frame) {
+        if (frame.length <= P3_HEADER_SIZE) {
+            return 0;
+        }
 
         int end = frame.length;
         // Remove trailing 0x0D terminator if present
-        if (end > 0 && frame[end - 1] == FRAME_TERMINATOR) {
+        if (frame[end - 1] == FRAME_TERMINATOR) {
             end--;
         }
 
-        if (end <= P3_HEADER_SIZE) {
-            return new byte[0];
-        }
-
-        return Arrays.copyOfRange(frame, P3_HEADER_SIZE, end);
+        return Math.max(0, end - P3_HEADER_SIZE);
     }
 
     /**
@@ -118,11 +127,14 @@ public final class FdoStreamExtractor {
         }
 
         try {
-            FdoStream stream = FdoStream.decode(fdoBinary);
-            return stream.findAll("de_data").stream()
-                    .filter(FdoAtom::isString)
-                    .map(FdoAtom::getString)
-                    .toList();
+            List<String> values = new ArrayList<>();
+            FdoAtomReader.scan(fdoBinary, 0, fdoBinary.length, (name, atom) -> {
+                if (atom.isString()) {
+                    values.add(atom.getString());
+                }
+                return true;
+            }, "de_data");
+            return values;
         } catch (Exception e) {
             LoggerUtil.warn("[FdoStreamExtractor] Failed to decode FDO binary: " + e.getMessage());
             return List.of();
@@ -151,25 +163,28 @@ public final class FdoStreamExtractor {
      * @throws IllegalArgumentException if credentials cannot be extracted
      */
     public static LoginCredentials extractLoginCredentials(byte[] ddFrame) {
-        byte[] fdo = stripP3Header(ddFrame);
-        if (fdo.length == 0) {
+        int payloadLength = payloadLength(ddFrame);
+        if (payloadLength == 0) {
             throw new IllegalArgumentException("Dd frame has no FDO payload");
         }
 
         try {
-            FdoStream stream = FdoStream.decode(fdo);
-            List<FdoAtom> deDataAtoms = stream.findAll("de_data");
-
-            // Filter to only string values (some may be EmptyValue)
-            List<String> stringValues = deDataAtoms.stream()
-                    .filter(FdoAtom::isString)
-                    .map(FdoAtom::getString)
-                    .toList();
+            // Read the payload in place; stop once username and password are found
+            List<String> stringValues = new ArrayList<>(2);
+            int[] deDataCount = new int[1];
+            FdoAtomReader.scan(ddFrame, P3_HEADER_SIZE, payloadLength, (name, atom) -> {
+                deDataCount[0]++;
+                // Only string values count (some may be EmptyValue)
+                if (atom.isString()) {
+                    stringValues.add(atom.getString());
+                }
+                return stringValues.size() < 2;
+            }, "de_data");
 
             if (stringValues.size() < 2) {
                 throw new IllegalArgumentException(
                         String.format("Expected at least 2 string de_data atoms in Dd frame, found %d atoms (%d strings)",
-                                deDataAtoms.size(), stringValues.size()));
+                                deDataCount[0], stringValues.size()));
             }
 
             // First de_data is username, second is password
@@ -217,32 +232,50 @@ public final class FdoStreamExtractor {
             throw new IllegalArgumentException("No frames provided for IM extraction");
         }
 
-        byte[] fdo = concatenateFrames(frames);
-        if (fdo.length == 0) {
+        return extractInstantMessageFromPayload(concatenateFrames(frames));
+    }
+
+    /**
+     * Extract instant message from a complete iS FDO payload (P3 headers already removed),
+     * such as a reassembled multi-frame stream.
+     *
+     * @param fdo pure FDO binary of the whole iS stream
+     * @return InstantMessage with recipient, message, and optional responseId
+     * @throws IllegalArgumentException if message cannot be extracted
+     */
+    public static InstantMessage extractInstantMessageFromPayload(byte[] fdo) {
+        if (fdo == null || fdo.length == 0) {
             throw new IllegalArgumentException("iS frames have no FDO payload");
         }
 
         try {
-            FdoStream stream = FdoStream.decode(fdo);
-
-            // Extract response_id if present (for replies to existing conversations)
-            Integer responseId = stream.findFirst("man_set_response_id")
-                    .filter(FdoAtom::isNumber)
-                    .map(atom -> (int) atom.getNumber())
-                    .orElse(null);
-
-            // Extract de_data atoms - filter to only string values
-            // Some de_data atoms may be EmptyValue (e.g., in reply frames or fragmented messages)
-            List<FdoAtom> deDataAtoms = stream.findAll("de_data");
-            List<String> stringValues = deDataAtoms.stream()
-                    .filter(FdoAtom::isString)
-                    .map(FdoAtom::getString)
-                    .filter(s -> s != null && !s.isEmpty())
-                    .toList();
+            Integer[] responseIdHolder = new Integer[1];
+            boolean[] responseIdSeen = new boolean[1];
+            int[] deDataCount = new int[1];
+            List<String> stringValues = new ArrayList<>(2);
+
+            FdoAtomReader.scan(fdo, 0, fdo.length, (name, atom) -> {
+                if (name.equals("man_set_response_id")) {
+                    // Extract response_id if present (for replies to existing conversations)
+                    if (!responseIdSeen[0]) {
+                        responseIdSeen[0] = true;
+                        responseIdHolder[0] = atom.isNumber() ? (int) atom.getNumber() : null;
+                    }
+                } else {
+                    // Only non-empty string values count
+                    // Some de_data atoms may be EmptyValue (e.g., in reply frames or fragmented messages)
+                    deDataCount[0]++;
+                    if (atom.isString() && atom.getString() != null && !atom.getString().isEmpty()) {
+                        stringValues.add(atom.getString());
+                    }
+                }
+                return true;
+            }, "man_set_response_id", "de_data");
+            Integer responseId = responseIdHolder[0];
 
             LoggerUtil.debug(() -> String.format(
                     "[FdoStreamExtractor] Found %d de_data atoms, %d with string values",
-                    deDataAtoms.size(), stringValues.size()));
+                    deDataCount[0], stringValues.size()));
 
             String recipient = null;
             String message = null;
@@ -259,7 +292,7 @@ public final class FdoStreamExtractor {
             if (message == null || message.isEmpty()) {
                 throw new IllegalArgumentException(
                         String.format("No message found in iS frame(s): %d de_data atoms, %d string values",
-                                deDataAtoms.size(), stringValues.size()));
+                                deDataCount[0], stringValues.size()));
             }
 
             // Strip HTML wrapper tags if present
@@ -372,33 +405,34 @@ public final class FdoStreamExtractor {
 
         try {
             LoggerUtil.info("[FdoStreamExtractor] Decoding FDO binary: " + fdoBinary.length + " bytes");
-            FdoStream stream = FdoStream.decode(fdoBinary);
-            LoggerUtil.info("[FdoStreamExtractor] FdoStream decoded successfully");
-
-            // Extract form ID (it's a GID, not a String)
-            params.formId = stream.findFirst("dod_form_id")
-                    .filter(FdoAtom::isGid)
-                    .map(atom -> atom.getGid().toString())
-                    .orElse(null);
-            LoggerUtil.info("[FdoStreamExtractor] dod_form_id: " + params.formId);
 
-            // Extract all transaction IDs (they are numbers)
-            List<String> transactionIds = stream.findAll("uni_transaction_id").stream()
-                    .map(atom -> {
+            // form ID and GIDs are GIDs, not Strings; transaction IDs are numbers
+            List<String> transactionIds = new ArrayList<>();
+            List<String> gids = new ArrayList<>();
+            boolean[] formIdSeen = new boolean[1];
+            FdoAtomReader.scan(fdoBinary, 0, fdoBinary.length, (name, atom) -> {
+                switch (name) {
+                    case "dod_form_id" -> {
+                        if (!formIdSeen[0]) {
+                            formIdSeen[0] = true;
+                            params.formId = atom.isGid() ? atom.getGid().toString() : null;
+                        }
+                    }
+                    case "uni_transaction_id" -> {
                         if (atom.isNumber()) {
-                            return String.valueOf((long) atom.getNumber());
+                            transactionIds.add(String.valueOf((long) atom.getNumber()));
+                        }
+                    }
+                    default -> {
+                        if (atom.isGid()) {
+                            gids.add(atom.getGid().toString());
                         }
-                        return null;
-                    })
-                    .filter(s -> s != null)
-                    .toList();
+                    }
+                }
+                return true;
+            }, "dod_form_id", "uni_transaction_id", "dod_gid");
+            LoggerUtil.info("[FdoStreamExtractor] dod_form_id: " + params.formId);
             LoggerUtil.info("[FdoStreamExtractor] uni_transaction_id count: " + transactionIds.size());
-
-            // Extract all GIDs (they are GIDs, not Strings)
-            List<String> gids = stream.findAll("dod_gid").stream()
-                    .filter(FdoAtom::isGid)
-                    .map(atom -> atom.getGid().toString())
-                    .toList();
             LoggerUtil.info("[FdoStreamExtractor] dod_gid count: " + gids.size());
 
             // Pair them up - GIDs and transaction IDs are typically paired in order
@@ -435,8 +469,12 @@ public final class FdoStreamExtractor {
         }
 
         try {
-            FdoStream stream = FdoStream.decode(fdoBinary);
-            return stream.findFirst("uni_end_stream").isPresent();
+            boolean[] found = new boolean[1];
+            FdoAtomReader.scan(fdoBinary, 0, fdoBinary.length, (name, atom) -> {
+                found[0] = true;
+                return false;
+            }, "uni_end_stream");
+            return found[0];
         } catch (Exception e) {
             LoggerUtil.debug(() -> "[FdoStreamExtractor] Failed to check for uni_end_stream: " + e.getMessage());
             return false;
@@ -451,8 +489,24 @@ public final class FdoStreamExtractor {
      * @return first de_data string value, or null if not found
      */
     public static String extractFirstDeData(byte[] fdoBinary) {
-        List<String> values = extractDeData(fdoBinary);
-        return values.isEmpty() ? null : values.get(0);
+        if (fdoBinary == null || fdoBinary.length == 0) {
+            return null;
+        }
+
+        try {
+            String[] first = new String[1];
+            FdoAtomReader.scan(fdoBinary, 0, fdoBinary.length, (name, atom) -> {
+                if (atom.isString()) {
+                    first[0] = atom.getString();
+                    return false;
+                }
+                return true;
+            }, "de_data");
+            return first[0];
+        } catch (Exception e) {
+            LoggerUtil.warn("[FdoStreamExtractor] Failed to decode FDO binary: " + e.getMessage());
+            return null;
+        }
     }
 
     // ========== K1 Token Extraction Methods ==========
@@ -472,28 +526,32 @@ public final class FdoStreamExtractor {
      * @return K1Parameters with GID and response ID
      */
     public static K1Parameters extractK1Parameters(byte[] k1Frame) {
-        byte[] fdo = stripP3Header(k1Frame);
-        if (fdo.length == 0) {
+        int payloadLength = payloadLength(k1Frame);
+        if (payloadLength == 0) {
             LoggerUtil.warn("[FdoStreamExtractor] K1 frame has no FDO payload");
             return new K1Parameters(0, 0);
         }
 
         try {
-            FdoStream stream = FdoStream.decode(fdo);
+            // Read the payload in place; stop once the response ID and first de_data are found
+            FdoAtom[] found = new FdoAtom[2];
+            FdoAtomReader.scan(k1Frame, P3_HEADER_SIZE, payloadLength, (name, atom) -> {
+                int slot = name.equals("man_set_response_id") ? 0 : 1;
+                if (found[slot] == null) {
+                    found[slot] = atom;
+                }
+                return found[0] == null || found[1] == null;
+            }, "man_set_response_id", "de_data");
 
             // Extract response ID
-            int responseId = stream.findFirst("man_set_response_id")
-                    .filter(FdoAtom::isNumber)
-                    .map(atom -> (int) atom.getNumber())
-                    .orElse(0);
+            int responseId = found[0] != null && found[0].isNumber() ? (int) found[0].getNumber() : 0;
 
             // Extract GID from de_data - it's raw bytes, not a string
             // The de_data contains 4 bytes representing the GID in big-endian format
             int gid = 0;
-            var deDataAtom = stream.findFirst("de_data");
-            if (deDataAtom.isPresent()) {
-                FdoAtom atom = deDataAtom.get();
-    if (atom.isString()) {
+            if (found[1] != null) {
+                FdoAtom atom = found[1];
+                if (atom.isString()) {
                     // String contains raw bytes - treat each char as a byte
                     String str = atom.getString();
                     byte[] gidBytes = new byte[str.length()];
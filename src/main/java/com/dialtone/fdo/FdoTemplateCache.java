@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import com.dialtone.fdo.dsl.RenderingContext;
+import com.dialtone.fdo.spi.FdoCompilationException;
+import com.dialtone.fdo.spi.FdoCompilationService;
+import com.dialtone.resources.ResourceRepository;
+import com.dialtone.utils.LoggerUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of {@link CompiledFdoTemplate}s for {@link FdoTemplateSource} builders.
+ *
+ * <p>The first call for a layout (template key, rendering context, token, frame size and
+ * integer slot widths) compiles two probes and learns where the slots live. Later calls
+ * render by copying bytes instead of running the FDO compiler.</p>
+ *
+ * <p>Calls fall back to a normal compile when a layout cannot be patched or the values do
+ * not fit it. The first few renders of every template are also compiled normally and
+ * compared byte for byte; a template that ever disagrees is disabled.</p>
+ *
+ * <p>Shared by all {@link FdoCompiler} instances (one is created per connection).</p>
+ */
+public final class FdoTemplateCache {
+
+    private static final FdoTemplateCache INSTANCE = new FdoTemplateCache();
+
+    /** Layouts kept before the cache is reset (chat rooms add one per member count). */
+    static final int MAX_TEMPLATES = 512;
+
+    /** Renders per template checked against a full compile. */
+    static final int VERIFIED_RENDERS = 3;
+
+    private record Key(Object templateKey, RenderingContext ctx, String token, int maxChunkPayload,
+                       int stringCount, List<Integer> intWidths) {}
+
+    private static final class Entry {
+        final CompiledFdoTemplate template;
+        final AtomicInteger verificationsLeft = new AtomicInteger(VERIFIED_RENDERS);
+        volatile boolean disabled;
+
+        Entry(CompiledFdoTemplate template) {
+            this.template = template;
+            this.disabled = template == null;
+        }
+    }
+
+    private final Map<Key, Entry> templates = new ConcurrentHashMap<>();
+    private final AtomicLong patchedRenders = new AtomicLong();
+    private final AtomicLong compiledRenders = new AtomicLong();
+
+    private FdoTemplateCache() {
+    }
+
+    public static FdoTemplateCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Produce P3 chunks for a template source, patching a cached template when possible.
+     *
+     * @param service compilation backend (used for probes and fallbacks)
+     * @param source builder with slot values
+     * @param ctx rendering context
+     * @param token P3 token
+     * @param streamId resolved Stream ID
+     * @return chunks equivalent to {@code service.compileToChunks(source.toSource(ctx, ...), token, streamId)}
+     * @throws FdoCompilationException if compilation fails
+     */
+    public List<FdoChunk> compileToChunks(FdoCompilationService service, FdoTemplateSource source,
+                                          RenderingContext ctx, String token, int streamId)
+            throws FdoCompilationException {
+        String[] strings = source.stringSlots();
+        int[] ints = source.intSlots();
+
+        Entry entry = lookup(service, source, ctx, token, strings.length, ints);
+        if (entry == null || entry.disabled) {
+            return compile(service, source, ctx, strings, ints, token, streamId);
+        }
+
+        List<byte[]> frames = entry.template.render(strings, ints);
+        if (frames == null) {
+            return compile(service, source, ctx, strings, ints, token, streamId);
+        }
+
+        if (entry.verificationsLeft.get() > 0 && entry.verificationsLeft.getAndDecrement() > 0) {
+            List<FdoChunk> compiled = compile(service, source, ctx, strings, ints, token, streamId);
+            if (!sameData(frames, compiled, service.getChunkHeaderSize(token))) {
+                entry.disabled = true;
+                LoggerUtil.warn(String.format(
+                        "[FdoTemplateCache] Template %s disagrees with compiler output, disabled",
+                        source.templateKey()));
+            }
+            return compiled;
+        }
+
+        patchedRenders.incrementAndGet();
+        return FdoFrames.toChunks(frames, token, streamId, service.getChunkHeaderSize(token));
+    }
+
+    /**
+     * @return renders served by patching a template
+     */
+    public long getPatchedRenders() {
+        return patchedRenders.get();
+    }
+
+    /**
+     * @return renders that ran the FDO compiler (fallbacks and verification)
+     */
+    public long getCompiledRenders() {
+        return compiledRenders.get();
+    }
+
+    /**
+     * @return number of cached layouts (including ones marked unpatchable)
+     */
+    public int size() {
+        return templates.size();
+    }
+
+    /**
+     * Drop all cached templates.
+     */
+    public void clear() {
+        templates.clear();
+    }
+
+    private Entry lookup(FdoCompilationService service, FdoTemplateSource source, RenderingContext ctx,
+                         String token, int stringCount, int[] ints) {
+        List<Integer> widths = new ArrayList<>(ints.length);
+        for (int value : ints) {
+            int width = CompiledFdoTemplate.byteWidth(value);
+            if (width < 0) {
+                return null;
+            }
+            widths.add(width);
+        }
+
+        Key key = new Key(source.templateKey(), ctx, token, service.getMaxChunkPayload(), stringCount,
+                List.copyOf(widths));
+        Entry entry = templates.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (templates.size() >= MAX_TEMPLATES) {
+            templates.clear();
+        }
+        ResourceRepository resources = ResourceRepository.getInstance();
+        long generation = resources.getGeneration();
+        entry = templates.computeIfAbsent(key, k -> learn(service, source, ctx, stringCount, widths, token));
+        // Learned from a snapshot a reload has since replaced: use it this once, but don't keep it
+        if (resources.getGeneration() != generation) {
+            templates.remove(key, entry);
+        }
+        return entry;
+    }
+
+    private Entry learn(FdoCompilationService service, FdoTemplateSource source, RenderingContext ctx,
+                        int stringCount, List<Integer> widths, String token) {
+        long startTime = System.currentTimeMillis();
+        int[] intWidths = widths.stream().mapToInt(Integer::intValue).toArray();
+        try {
+            CompiledFdoTemplate template = CompiledFdoTemplate.learn(service, source, ctx, stringCount,
+                    intWidths, token);
+            long duration = System.currentTimeMillis() - startTime;
+            if (template == null) {
+                LoggerUtil.info(String.format(
+                        "[FdoTemplateCache] Template %s (%s) cannot be patched, compiling per call",
+                        source.templateKey(), ctx));
+            } else {
+                LoggerUtil.info(String.format(
+                        "[FdoTemplateCache] Compiled template %s (%s) | patches:%d | duration:%dms",
+                        source.templateKey(), ctx, template.getPatchCount(), duration));
+            }
+            return new Entry(template);
+        } catch (FdoCompilationException e) {
+            LoggerUtil.warn(String.format("[FdoTemplateCache] Probe compile failed for %s: %s",
+                    source.templateKey(), e.getMessage()));
+            return new Entry(null);
+        }
+    }
+
+    private List<FdoChunk> compile(FdoCompilationService service, FdoTemplateSource source, RenderingContext ctx,
+                                   String[] strings, int[] ints, String token, int streamId)
+            throws FdoCompilationException {
+        compiledRenders.incrementAndGet();
+        return service.compileToChunks(source.toSource(ctx, strings, ints), token, streamId);
+    }
+
+    /**
+     * Compare patched frames with compiled chunks by their concatenated FDO data;
+     * frame boundaries may legitimately differ.
+     */
+    private static boolean sameData(List<byte[]> frames, List<FdoChunk> chunks, int headerSize) {
+        ByteArrayOutputStream patched = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            patched.write(frame, 0, frame.length);
+        }
+        ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+        for (FdoChunk chunk : chunks) {
+            byte[] payload = chunk.getBinaryData();
+            compiled.write(payload, headerSize, payload.length - headerSize);
+        }
+        return Arrays.equals(patched.toByteArray(), compiled.toByteArray());
+    }
+}
@@ -4,11 +4,15 @@
 
 package com.dialtone.fdo;
 
+import com.dialtone.resources.ResourceRepository;
+import com.dialtone.resources.ResourceSnapshot;
+
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Unified templating engine for FDO scripts.
@@ -19,9 +23,23 @@ import java.util.Map;
  *   <li>String - substituted directly (with optional hex conversion for _DATA suffix)</li>
  *   <li>byte[] - auto-converted to FDO hex format (00x,01x,...) for _DATA suffix variables</li>
  * </ul>
+ *
+ * <p>Resource templates are read and parsed into {@link FdoTextTemplate} segment lists once,
+ * cached per resolved path (so the low-color variant has its own entry), and rendered in a
+ * single pass. Template text comes from the {@link ResourceRepository} snapshot; call
+ * {@link #clearCaches()} when the snapshot is reloaded.</p>
  */
 public class FdoTemplateEngine {
 
+    /** Parsed resource templates, keyed by resolved resource path. */
+    private static final Map<String, FdoTextTemplate> RESOURCE_TEMPLATES = new ConcurrentHashMap<>();
+
+    /** Resource templates keyed by their source text, for {@link #substituteVariables} callers. */
+    private static final Map<String, FdoTextTemplate> TEMPLATES_BY_SOURCE = new ConcurrentHashMap<>();
+
+    /** Low-color variant resolution results, keyed by original resource path. */
+    private static final Map<String, String> VARIANT_PATHS = new ConcurrentHashMap<>();
+
     /**
      * Load and process an FDO template file from resources with variable substitution.
      *
@@ -31,8 +49,7 @@ public class FdoTemplateEngine {
      * @throws IOException if template file cannot be loaded
      */
     public static String processTemplate(String resourcePath, Map<String, Object> variables) throws IOException {
-        String template = loadTemplate(resourcePath);
-        return substituteVariables(template, variables);
+        return loadTemplate(resourcePath).render(variables);
     }
 
     /**
@@ -47,8 +64,7 @@ public class FdoTemplateEngine {
      */
     public static String processTemplate(String resourcePath, Map<String, Object> variables, boolean lowColorMode) throws IOException {
         String resolvedPath = resolveVariantPath(resourcePath, lowColorMode);
-        String template = loadTemplate(resolvedPath);
-        return substituteVariables(template, variables);
+        return loadTemplate(resolvedPath).render(variables);
     }
 
     /**
@@ -67,20 +83,32 @@ public class FdoTemplateEngine {
             return resourcePath;
         }
 
+        String cached = VARIANT_PATHS.get(resourcePath);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = ResourceRepository.getInstance().getGeneration();
         // Convert something.fdo.txt -> something.bw.fdo.txt
+        String resolved = resourcePath; // Fallback to original
         if (resourcePath.endsWith(".fdo.txt")) {
             String variantPath = resourcePath.replace(".fdo.txt", ".bw.fdo.txt");
             // Check if variant exists in classpath
             if (resourceExists(variantPath)) {
-                return variantPath;
+                resolved = variantPath;
             }
         }
 
-        return resourcePath; // Fallback to original
+        // Only remember paths that exist, so unknown names from clients cannot grow the map
+        if (!resolved.equals(resourcePath) || resourceExists(resourcePath)) {
+            VARIANT_PATHS.put(resourcePath, resolved);
+            dropIfReloaded(VARIANT_PATHS, resourcePath, resolved, generation);
+        }
+        return resolved;
     }
 
     /**
-     * Check if a resource exists in the classpath.
+     * Check if a resource exists.
      *
      * @param resourcePath Path to check
      * @return true if resource exists, false otherwise
@@ -89,26 +117,92 @@ public class FdoTemplateEngine {
         if (resourcePath == null) {
             return false;
         }
-        try (InputStream inputStream = FdoTemplateEngine.class.getClassLoader().getResourceAsStream(resourcePath)) {
-            return inputStream != null;
-        } catch (IOException e) {
-            return false;
+        if (RESOURCE_TEMPLATES.containsKey(resourcePath)) {
+            return true;
         }
+        return ResourceRepository.getInstance().exists(resourcePath);
     }
 
     /**
-     * Load an FDO template file from resources.
+     * Drop parsed templates and variant resolutions, e.g. after resources are reloaded.
      */
-    private static String loadTemplate(String resourcePath) throws IOException {
+    public static void clearCaches() {
+        RESOURCE_TEMPLATES.clear();
+        TEMPLATES_BY_SOURCE.clear();
+        VARIANT_PATHS.clear();
+    }
+
+    /**
+     * Load an FDO template file from resources as unprocessed source text.
+     * The text is taken from the resource snapshot and parsed once.
+     *
+     * <p>Passing the returned text to {@link #substituteVariables} reuses the cached
+     * parse instead of scanning the template again.</p>
+     *
+     * @param resourcePath Path to the template file in resources (e.g., "replace_client_fdo/32-117.fdo.txt")
+     * @return Template source, or empty if the resource does not exist
+     * @throws IOException if the resource exists but cannot be read
+     */
+    public static Optional<String> findTemplateSource(String resourcePath) throws IOException {
+        if (resourcePath == null) {
+            return Optional.empty();
+        }
+        FdoTextTemplate template = RESOURCE_TEMPLATES.get(resourcePath);
+        if (template == null) {
+            template = readTemplate(resourcePath);
+            if (template == null) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(template.getSource());
+    }
+
+    /**
+     * Load a parsed FDO template from resources, reading it on first use.
+     */
+    private static FdoTextTemplate loadTemplate(String resourcePath) throws IOException {
         if (resourcePath == null) {
             throw new IOException("Template resource path cannot be null");
         }
 
-        try (InputStream inputStream = FdoTemplateEngine.class.getClassLoader().getResourceAsStream(resourcePath)) {
-            if (inputStream == null) {
+        FdoTextTemplate template = RESOURCE_TEMPLATES.get(resourcePath);
+        if (template == null) {
+            template = readTemplate(resourcePath);
+            if (template == null) {
                 throw new IOException("Template resource not found: " + resourcePath);
             }
-            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        return template;
+    }
+
+    /**
+     * Read and parse a template, caching it. Returns null if the resource does not exist.
+     */
+    private static FdoTextTemplate readTemplate(String resourcePath) throws IOException {
+        long generation = ResourceRepository.getInstance().getGeneration();
+        Optional<String> source = ResourceRepository.getInstance().findText(resourcePath);
+        if (source.isEmpty()) {
+            return null;
+        }
+        FdoTextTemplate parsed = FdoTextTemplate.parse(source.get());
+        FdoTextTemplate existing = RESOURCE_TEMPLATES.putIfAbsent(resourcePath, parsed);
+        if (existing != null) {
+            return existing;
+        }
+        TEMPLATES_BY_SOURCE.putIfAbsent(parsed.getSource(), parsed);
+        dropIfReloaded(RESOURCE_TEMPLATES, resourcePath, parsed, generation);
+        dropIfReloaded(TEMPLATES_BY_SOURCE, parsed.getSource(), parsed, generation);
+        return parsed;
+    }
+
+    /**
+     * Undo a cache store made from an older snapshot. A reload swaps the snapshot before its
+     * listeners call {@link #clearCaches()}, so a store that still sees the old generation
+     * afterwards is cleared by them, and one that sees a new generation removes itself.
+     */
+    private static <K, V> void dropIfReloaded(Map<K, V> cache, K key, V value, long generation) {
+        if (ResourceRepository.getInstance().getGeneration() != generation) {
+            cache.remove(key, value);
         }
     }
 
@@ -126,20 +220,13 @@ public class FdoTemplateEngine {
         }
 
         String resourcePath = "static/" + filename;
-        try (InputStream inputStream = FdoTemplateEngine.class.getClassLoader().getResourceAsStream(resourcePath)) {
-            if (inputStream == null) {
-                throw new IOException("Static file not found: " + resourcePath);
-            }
-            String content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-
-            // Convert Unix line endings to AOL protocol format
-            // AOL client expects \r (0x0D) characters for line breaks, not \n (0x0A)
-            // For blank lines, AOL client requires triple \r (\r\r\r) not double \r (\r\r)
-            content = content.replace("\n", "\r");
-            content = content.replace("\r\r", "\r\r\r");
-
-            return content;
+        // Text files are converted when the snapshot is loaded; anything else is converted here
+        Optional<String> content = ResourceRepository.getInstance().snapshot().aolText(resourcePath);
+        if (content.isPresent()) {
+            return content.get();
         }
+        return ResourceSnapshot.toAolLineEndings(ResourceRepository.getInstance().findText(resourcePath)
+            .orElseThrow(() -> new IOException("Static file not found: " + resourcePath)));
     }
 
     /**
@@ -150,9 +237,13 @@ public class FdoTemplateEngine {
      * <ul>
      *   <li>byte[] - Always converted to FDO hex format (00x,01x,...)</li>
      *   <li>String with _DATA suffix - Converted to hex pair format</li>
-     *   <li>String otherwise - Standard escaping and line break handling</li>
+     *   <li>String containing _FDO - Embedded FDO source, copied unchanged</li>
+     *   <li>String containing _CONTENT, or BODY - Quotes escaped as \x22, newlines kept</li>
+     *   <li>String otherwise - Quotes escaped as \x22, raw CR/LF converted to spaces</li>
      * </ul>
      *
+     * <p>Placeholders without a map entry are left in place; null values become empty text.</p>
+     *
      * @param template Template string with {{VARNAME}} placeholders
      * @param variables Map of variable names to values (String or byte[]) for substitution
      * @return Processed string with variables substituted
@@ -161,111 +252,16 @@ public class FdoTemplateEngine {
         if (template == null) {
             return "";
         }
-
-        String result = template;
-        if (variables != null) {
-            for (Map.Entry<String, Object> entry : variables.entrySet()) {
-                String placeholder = "{{" + entry.getKey() + "}}";
-                Object rawValue = entry.getValue();
-                String value = null;
-
-                if (rawValue != null) {
-                    // Handle byte[] values - always convert to FDO hex format
-                    if (rawValue instanceof byte[]) {
-                        value = bytesToFdoHex((byte[]) rawValue);
-                    } else {
-                        // Handle String values
-                        value = rawValue.toString();
-
-                        // Check if this variable should be converted to hex pair format
-                        if (shouldConvertToHex(entry.getKey())) {
-                            // Convert to hex pair format - no escaping needed
-                            value = convertStringToHexPairs(value);
-                        } else {
-                            // Check if this is raw FDO content that shouldn't have quotes escaped
-                            // _FDO variables contain valid FDO source code where quotes are syntax, not content
-                            boolean isRawFdo = entry.getKey().contains("_FDO");
-
-                            if (!isRawFdo) {
-                                // STEP 1: Escape quotes for Atomforge compatibility (but not for raw FDO content)
-                                value = escapeQuotes(value);
-                            }
-
-                            // STEP 2: Normalize line breaks for non-_DATA/_LINES variables only
-                            boolean preserveNewlines = shouldPreserveNewlines(entry.getKey());
-                            if (!preserveNewlines) {
-                                value = normalizeLineBreaks(value);
-                            }
-                        }
-                    }
-                }
-                result = result.replace(placeholder, value != null ? value : "");
-            }
+        if (variables == null || variables.isEmpty()) {
+            return template;
         }
 
-        return result;
-    }
-
-    /**
-     * Convert byte array to FDO hex format (00x,01x,02x,...).
-     * This format is used for binary data in FDO atoms like dod_data, idb_append_data, etc.
-     * The native FDO compiler handles chunking via UNI continuation protocol.
-     *
-     * @param bytes Binary data to convert
-     * @return FDO hex format string without angle brackets
-     */
-    private static String bytesToFdoHex(byte[] bytes) {
-        if (bytes == null || bytes.length == 0) {
-            return "00x";
+        // Templates loaded through this engine are already parsed; anything else is parsed here
+        FdoTextTemplate parsed = TEMPLATES_BY_SOURCE.get(template);
+        if (parsed == null) {
+            parsed = FdoTextTemplate.parse(template);
         }
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < bytes.length; i++) {
-            if (i > 0) sb.append(",");
-            sb.append(String.format("%02xx", bytes[i] & 0xFF));
-        }
-        return sb.toString();
-    }
-
-    /**
-     * Check if a variable name should preserve newlines (no escaping).
-     * Text content variables like TOS_CONTENT, BODY need newlines preserved for AOL display.
-     *
-     * Matches variables with:
-     * - "_DATA" anywhere in the name (for binary/hex data)
-     * - "_CONTENT" anywhere in the name (for content like TOS_CONTENT)
-     * - "_FDO" anywhere in the name (for embedded FDO scripts like INNER_FDO)
-     * - Specific text content variables like "BODY" (for MOTD)
-     *
-     * Note: The "_LINES" pattern is no longer used - all binary data now uses
-     * single large atoms with the native FDO compiler handling chunking automatically.
-     */
-    private static boolean shouldPreserveNewlines(String variableName) {
-        return variableName.contains("_DATA") ||
-               variableName.contains("_CONTENT") ||
-               variableName.contains("_FDO") ||
-               variableName.equals("BODY");
-    }
-
-    /**
-     * Check if a variable name should be converted to hex pair format.
-     *
-     * <p>Variables ending with "_DATA" use hex encoding to avoid escaping issues.
-     * The _LINES pattern is no longer used - all binary data now uses single large atoms
-     * with the native FDO compiler handling chunking automatically.
-     *
-     * <p>Examples:
-     * <ul>
-     *   <li>LOG_CONTENT_DATA - converted to hex (ends with _DATA)</li>
-     *   <li>DOD_DATA - converted to hex (ends with _DATA)</li>
-     *   <li>IDB_APPEND_DATA - converted to hex (ends with _DATA)</li>
-     * </ul>
-     *
-     * @param variableName The variable name to check
-     * @return true if the variable should be converted to hex pairs
-     */
-    private static boolean shouldConvertToHex(String variableName) {
-        // Variables ending with "_DATA" should be converted to hex
-        return variableName.endsWith("_DATA");
+        return parsed.render(variables);
     }
 
     /**
@@ -310,18 +306,13 @@ public class FdoTemplateEngine {
     private static void appendField(StringBuilder sb, String s) {
         byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
         for (byte b : bytes) {
-            sb.append(toHexByte(b)).append('x').append(',').append(' ');
+            FdoTextTemplate.appendHexByte(sb, b);
+            sb.append('x').append(',').append(' ');
         }
     }
 
     private static void appendNull(StringBuilder sb) { sb.append("00x, "); }
 
-    private static String toHexByte(byte b) {
-        int v = b & 0xFF;
-        String hex = Integer.toHexString(v).toUpperCase();
-        return (hex.length() == 1 ? "0" + hex : hex);
-    }
-
     /**
      * Convert standard newlines to AOL protocol format using DEL character (0x7F).
      *
@@ -342,19 +333,28 @@ public class FdoTemplateEngine {
             return s;
         }
 
-        // Handle Windows-style line endings first (\r\n)
-        // Convert \r\n\r\n -> 0x7F 0x7F (blank line between paragraphs)
-        // Convert \r\n     -> 0x7F (next line/paragraph)
-        String converted = s.replace("\r\n\r\n", "\u007F\u007F")
-                           .replace("\r\n", "\u007F");
-
-        // Handle remaining Unix-style line endings (\n)
-        // Convert \n\n -> 0x7F 0x7F (blank line between paragraphs)
-        // Convert \n   -> 0x7F (next line/paragraph)
-        converted = converted.replace("\n\n", "\u007F\u007F")
-                            .replace("\n", "\u007F");
-
-        return converted;
+        // \r\n and \n each become one 0x7F, so blank lines (\n\n, \r\n\r\n) become two
+        int start = s.indexOf('\n');
+        if (start < 0) {
+            return s;
+        }
+        if (start > 0 && s.charAt(start - 1) == '\r') {
+            start--;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        sb.append(s, 0, start);
+        for (int i = start, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '\n') {
+                sb.append('\u007F');
+            } else if (c == '\r' && i + 1 < n && s.charAt(i + 1) == '\n') {
+                sb.append('\u007F');
+                i++;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
     }
 
     /**
@@ -373,66 +373,23 @@ public class FdoTemplateEngine {
             return "<>";
         }
 
-        // STEP 1: Convert standard newlines to AOL protocol format (0x7F)
-        String aolFormatted = convertNewlinesToAolFormat(s);
-
-        // STEP 2: Convert to UTF-8 bytes for hex encoding
-        byte[] bytes = aolFormatted.getBytes(StandardCharsets.UTF_8);
-        StringBuilder sb = new StringBuilder();
-        sb.append('<');
-
-        for (int i = 0; i < bytes.length; i++) {
-            sb.append(toHexByte(bytes[i])).append('x');
-            if (i < bytes.length - 1) {
-                sb.append(", ");
-            }
-        }
-
-        sb.append('>');
+        StringBuilder sb = new StringBuilder(s.length() * 5 + 2);
+        FdoTextTemplate.appendHexPairs(sb, s);
         return sb.toString();
     }
 
     private static String sanitizeToWidth(String s, int width) {
-        if (s == null) s = "";
-        s = s.replaceAll("[^\\x20-\\x7E]", "");
-        if (s.length() > width) s = s.substring(0, width);
-        StringBuilder sb = new StringBuilder(s);
+        StringBuilder sb = new StringBuilder(width);
+        if (s != null) {
+            for (int i = 0; i < s.length() && sb.length() < width; i++) {
+                char c = s.charAt(i);
+                if (c >= 0x20 && c <= 0x7E) sb.append(c);
+            }
+        }
         while (sb.length() < width) sb.append(' ');
         return sb.toString();
     }
 
     private static String pad10(String s) { return sanitizeToWidth(s, 10); }
     private static String spaces10() { return "          "; }
-
-    /**
-     * Escape quotes for Atomforge compatibility.
-     * This is ALWAYS applied to all variables, including _DATA and _LINES variables.
-     *
-     * @param s Input string
-     * @return String with quotes escaped as \x22
-     */
-    private static String escapeQuotes(String s) {
-        if (s == null) {
-            return "";
-        }
-        // Use Atomforge hex escape sequence for quotes
-        return s.replace("\"", "\\x22");
-    }
-
-    /**
-     * Normalize line breaks by converting raw \r and \n bytes to spaces.
-     * This is only applied to non-_DATA and non-_LINES variables.
-     * _DATA and _LINES variables preserve their content (including \r escape sequences).
-     *
-     * @param s Input string
-     * @return String with raw line break characters converted to spaces
-     */
-    private static String normalizeLineBreaks(String s) {
-        if (s == null) {
-            return "";
-        }
-        // Convert raw CR/LF bytes to spaces
-        // Note: This does NOT affect escape sequences like "\\r" (backslash+r string)
-        return s.replace('\r', ' ').replace('\n', ' ');
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import com.dialtone.fdo.dsl.RenderingContext;
+
+/**
+ * FDO builder whose output differs between calls only in a fixed set of atom values.
+ *
+ * <p>Per-message forms (IMs, chat room joins) produce the same atom stream every time
+ * except for a few strings and integers: the sender, the message text, window and
+ * response IDs. Builders implementing this interface expose those values as
+ * <em>slots</em> so {@link FdoTemplateCache} can compile the stream once per
+ * {@link RenderingContext} and splice new values into the compiled bytes.</p>
+ *
+ * <p>Implementations must build the stream solely from the slot arrays passed to
+ * {@link #toSource(RenderingContext, String[], int[])}; any other input that changes
+ * the stream (button theme, number of repeated elements) belongs in
+ * {@link #templateKey()}.</p>
+ *
+ * <pre>
+ * public String toSource(RenderingContext ctx) {
+ *     return toSource(ctx, stringSlots(), intSlots());
+ * }
+ * </pre>
+ */
+public interface FdoTemplateSource {
+
+    /**
+     * Identity of the stream layout. Calls with equal keys and rendering contexts
+     * share one compiled template.
+     *
+     * @return key with value-based {@code equals}/{@code hashCode} (never null)
+     */
+    Object templateKey();
+
+    /**
+     * Per-call string values, in slot order. A slot may be used in several atoms
+     * and combined with fixed text (e.g. {@code "Instant Message: " + sender}).
+     *
+     * @return string slot values (never null)
+     */
+    String[] stringSlots();
+
+    /**
+     * Per-call integer atom values, in slot order.
+     *
+     * @return integer slot values (never null)
+     */
+    int[] intSlots();
+
+    /**
+     * Generate FDO source for the given slot values.
+     *
+     * @param ctx Rendering context with platform and display mode
+     * @param strings String slot values
+     * @param ints Integer slot values
+     * @return FDO source text ready for compilation (never null)
+     */
+    String toSource(RenderingContext ctx, String[] strings, int[] ints);
+}
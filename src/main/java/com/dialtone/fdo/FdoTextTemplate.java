@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An FDO template parsed once into literal text and {@code {{VARNAME}}} placeholders.
+ *
+ * <p>Rendering walks the segment list and writes every literal and encoded value into a
+ * single pre-sized {@link StringBuilder}, so the cost is linear in the output size no
+ * matter how many variables the template uses. Each placeholder's encoding is decided
+ * from its name at parse time (see {@link FdoTemplateEngine#substituteVariables}).</p>
+ *
+ * <p>Placeholders whose variable is absent from the map are rendered back verbatim;
+ * variables mapped to null render as empty text.</p>
+ *
+ * <p>Instances are immutable and safe to share between threads.</p>
+ */
+final class FdoTextTemplate {
+
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+
+    /** Extra capacity per placeholder when the value size is unknown up front. */
+    private static final int VALUE_SIZE_ESTIMATE = 32;
+
+    /**
+     * How a placeholder's string value is written.
+     */
+    private enum Encoding {
+        /** {@code _DATA}: AOL newlines, then {@code <48x, 65x>} hex pairs. */
+        HEX_PAIRS,
+        /** {@code _FDO}: embedded FDO source, copied as is. */
+        RAW_FDO,
+        /** {@code _CONTENT} and {@code BODY}: quotes escaped, newlines kept. */
+        TEXT_KEEP_NEWLINES,
+        /** Everything else: quotes escaped, CR/LF turned into spaces. */
+        TEXT
+    }
+
+    /**
+     * One piece of the template: literal text (name is null) or a placeholder.
+     */
+    private record Segment(String literal, String name, Encoding encoding) {}
+
+    private final String source;
+    private final Segment[] segments;
+    private final int literalLength;
+
+    private FdoTextTemplate(String source, Segment[] segments, int literalLength) {
+        this.source = source;
+        this.segments = segments;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Split a template into literals and placeholders.
+     *
+     * @param source Template text (null is treated as empty)
+     * @return parsed template
+     */
+    static FdoTextTemplate parse(String source) {
+        if (source == null) {
+            source = "";
+        }
+        List<Segment> segments = new ArrayList<>();
+        int literalLength = 0;
+        int literalStart = 0;
+        int open = -1;
+        for (int i = 0; i + 1 < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '{' && source.charAt(i + 1) == '{') {
+                // The placeholder starts at the nearest "{{" before the closing braces, so
+                // "{{{NAME}}" and "{{ {{NAME}}" keep the extra text, as a plain replace would
+                open = i;
+            } else if (c == '}' && source.charAt(i + 1) == '}' && open >= 0) {
+                if (open > literalStart) {
+                    segments.add(new Segment(source.substring(literalStart, open), null, null));
+                    literalLength += open - literalStart;
+                }
+                String name = source.substring(open + 2, i);
+                segments.add(new Segment(null, name, encodingFor(name)));
+                literalStart = i + 2;
+                open = -1;
+                i++;
+            }
+        }
+        if (literalStart < source.length()) {
+            segments.add(new Segment(source.substring(literalStart), null, null));
+            literalLength += source.length() - literalStart;
+        }
+        return new FdoTextTemplate(source, segments.toArray(new Segment[0]), literalLength);
+    }
+
+    /**
+     * @return the unparsed template text
+     */
+    String getSource() {
+        return source;
+    }
+
+    /**
+     * Render the template with the given variables.
+     *
+     * @param variables Variable values (String or byte[]); may be null
+     * @return rendered FDO source
+     */
+    String render(Map<String, Object> variables) {
+        if (variables == null || variables.isEmpty()) {
+            return source;
+        }
+
+        StringBuilder sb = new StringBuilder(estimateSize(variables));
+        for (Segment segment : segments) {
+            if (segment.name == null) {
+                sb.append(segment.literal);
+            } else if (!variables.containsKey(segment.name)) {
+                sb.append("{{").append(segment.name).append("}}");
+            } else {
+                appendValue(sb, segment.encoding, variables.get(segment.name));
+            }
+        }
+        return sb.toString();
+    }
+
+    private int estimateSize(Map<String, Object> variables) {
+        long size = literalLength;
+        for (Segment segment : segments) {
+            if (segment.name == null) {
+                continue;
+            }
+            Object value = variables.get(segment.name);
+            if (value instanceof byte[] bytes) {
+                size += bytes.length * 4L;
+            } else if (value instanceof String s) {
+                size += segment.encoding == Encoding.HEX_PAIRS ? s.length() * 5L + 2 : s.length() + 8;
+            } else {
+                size += VALUE_SIZE_ESTIMATE;
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE - 8);
+    }
+
+    private static Encoding encodingFor(String name) {
+        if (name.endsWith("_DATA")) {
+            return Encoding.HEX_PAIRS;
+        }
+        if (name.contains("_FDO")) {
+            return Encoding.RAW_FDO;
+        }
+        if (name.contains("_DATA") || name.contains("_CONTENT") || name.equals("BODY")) {
+            return Encoding.TEXT_KEEP_NEWLINES;
+        }
+        return Encoding.TEXT;
+    }
+
+    private static void appendValue(StringBuilder sb, Encoding encoding, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof byte[] bytes) {
+            appendFdoHex(sb, bytes);
+            return;
+        }
+        String s = value.toString();
+        switch (encoding) {
+            case HEX_PAIRS -> appendHexPairs(sb, s);
+            case RAW_FDO -> sb.append(s);
+            case TEXT_KEEP_NEWLINES -> appendEscaped(sb, s, false);
+            case TEXT -> appendEscaped(sb, s, true);
+        }
+    }
+
+    /**
+     * Write text with quotes as {@code \x22} and, optionally, CR/LF as spaces.
+     */
+    static void appendEscaped(StringBuilder sb, String s, boolean newlinesToSpaces) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '"') {
+                sb.append("\\x22");
+            } else if (newlinesToSpaces && (c == '\r' || c == '\n')) {
+                sb.append(' ');
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * Write binary data as {@code 01x,02x,ffx} (empty data as {@code 00x}).
+     */
+    static void appendFdoHex(StringBuilder sb, byte[] bytes) {
+        if (bytes.length == 0) {
+            sb.append("00x");
+            return;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            int v = bytes[i] & 0xFF;
+            sb.append(HEX_LOWER[v >>> 4]).append(HEX_LOWER[v & 0x0F]).append('x');
+        }
+    }
+
+    /**
+     * Write text as {@code <48x, 65x>} hex pairs after converting newlines to AOL format.
+     */
+    static void appendHexPairs(StringBuilder sb, String s) {
+        if (s.isEmpty()) {
+            sb.append("<>");
+            return;
+        }
+        byte[] bytes = FdoTemplateEngine.convertNewlinesToAolFormat(s).getBytes(StandardCharsets.UTF_8);
+        sb.append('<');
+        for (int i = 0; i < bytes.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            appendHexByte(sb, bytes[i]);
+            sb.append('x');
+        }
+        sb.append('>');
+    }
+
+    /**
+     * Write one byte as two upper-case hex digits.
+     */
+    static void appendHexByte(StringBuilder sb, byte b) {
+        int v = b & 0xFF;
+        sb.append(HEX_UPPER[v >>> 4]).append(HEX_UPPER[v & 0x0F]);
+    }
+}
@@ -5,6 +5,7 @@
 package com.dialtone.fdo;
 
 import com.dialtone.protocol.SessionContext;
+import com.dialtone.resources.ResourceRepository;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -90,12 +91,8 @@ public class FdoVariableBuilder {
      */
     private String loadRawStaticFile(String filename) throws java.io.IOException {
         String resourcePath = "static/" + filename;
-        try (java.io.InputStream inputStream = FdoVariableBuilder.class.getClassLoader().getResourceAsStream(resourcePath)) {
-            if (inputStream == null) {
-                throw new java.io.IOException("Static file not found: " + resourcePath);
-            }
-            return new String(inputStream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-        }
+        return ResourceRepository.getInstance().findText(resourcePath)
+            .orElseThrow(() -> new java.io.IOException("Static file not found: " + resourcePath));
     }
 
 
@@ -4,6 +4,7 @@
 
 package com.dialtone.fdo.dsl;
 
+import java.util.Arrays;
 import java.util.Properties;
 
 /**
@@ -65,6 +66,35 @@ public record ButtonTheme(
         );
     }
 
+    /**
+     * Compare by color values (the record default compares array identity), so equal
+     * themes can key cached FDO templates.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ButtonTheme that)) return false;
+        return Arrays.equals(colorFace, that.colorFace)
+            && Arrays.equals(colorText, that.colorText)
+            && Arrays.equals(colorTopEdge, that.colorTopEdge)
+            && Arrays.equals(colorBottomEdge, that.colorBottomEdge);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(colorFace);
+        result = 31 * result + Arrays.hashCode(colorText);
+        result = 31 * result + Arrays.hashCode(colorTopEdge);
+        return 31 * result + Arrays.hashCode(colorBottomEdge);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ButtonTheme{face=%s, text=%s, top=%s, bottom=%s}",
+            Arrays.toString(colorFace), Arrays.toString(colorText),
+            Arrays.toString(colorTopEdge), Arrays.toString(colorBottomEdge));
+    }
+
     /**
      * Parse RGB string "r, g, b" to int array.
      *
@@ -13,6 +13,7 @@ import com.atomforge.fdo.dsl.values.Orientation;
 import com.atomforge.fdo.dsl.values.Position;
 import com.atomforge.fdo.dsl.values.TitlePosition;
 import com.atomforge.fdo.model.FdoGid;
+import com.dialtone.fdo.FdoTemplateSource;
 import com.dialtone.fdo.dsl.FdoBuilder;
 import com.dialtone.fdo.dsl.FdoDslBuilder;
 import com.dialtone.fdo.dsl.RenderingContext;
@@ -34,10 +35,13 @@ import com.dialtone.fdo.dsl.RenderingContext;
  * uni_end_stream
  * </pre>
  *
+ * <p>Implements {@link FdoTemplateSource}. Stories longer than a single atom cannot be
+ * patched and are compiled per call.</p>
+ *
  * <p>Replaces: {@code fdo/news_story.fdo.txt}</p>
  */
 public final class NewsStoryFdoBuilder
-        implements FdoDslBuilder, FdoBuilder.Dynamic<NewsStoryFdoBuilder.Config> {
+        implements FdoDslBuilder, FdoBuilder.Dynamic<NewsStoryFdoBuilder.Config>, FdoTemplateSource {
 
     private static final String GID = "news_story";
     private static final FdoGid BACKGROUND_ART = FdoGid.of(1, 69, 27256);
@@ -127,8 +131,35 @@ public final class NewsStoryFdoBuilder
         return "News story display window with scrollable content";
     }
 
+    @Override
+    public Object templateKey() {
+        return GID;
+    }
+
+    @Override
+    public String[] stringSlots() {
+        return new String[]{
+                config.windowTitle,
+                config.todaysDate,
+                convertNewlinesToAolFormat(config.contentHtml)
+        };
+    }
+
+    @Override
+    public int[] intSlots() {
+        return new int[0];
+    }
+
     @Override
     public String toSource(RenderingContext ctx) {
+        return toSource(ctx, stringSlots(), intSlots());
+    }
+
+    @Override
+    public String toSource(RenderingContext ctx, String[] strings, int[] ints) {
+        String windowTitle = strings[0];
+        String todaysDate = strings[1];
+        String content = strings[2];
         return FdoScript.stream()
                 .stream("00x", s -> {
                     s.object(ObjectType.IND_GROUP, "", root -> {
@@ -140,7 +171,7 @@ public final class NewsStoryFdoBuilder
                         root.matPreciseHeight(WINDOW_HEIGHT);
                         root.backgroundTile();
                         root.artId(BACKGROUND_ART);
-                        root.matTitle(config.windowTitle);
+                        root.matTitle(windowTitle);
 
                         // Title ornament
                         root.object(ObjectType.ORNAMENT, "", title -> {
@@ -152,7 +183,7 @@ public final class NewsStoryFdoBuilder
                             title.matFontSize(14);
                             title.matFontSis(FontId.TIMES_ROMAN, 16, FontStyle.BOLD);
                             title.matTitlePos(TitlePosition.ABOVE_CENTER);
-                            title.manAppendData(config.windowTitle + " - " + config.todaysDate);
+                            title.manAppendData(windowTitle + " - " + todaysDate);
                             title.manEndData();
                         });
 
@@ -167,7 +198,7 @@ public final class NewsStoryFdoBuilder
                             view.matBoolVerticalScroll(true);
                             view.matFontId(FontId.TIMES_ROMAN);
                             view.matFontSize(12);
-                            view.manAppendData(convertNewlinesToAolFormat(config.contentHtml));
+                            view.manAppendData(content);
                             view.manEndData();
                         });
 
@@ -14,10 +14,13 @@ import com.atomforge.fdo.dsl.values.ObjectType;
 import com.atomforge.fdo.dsl.values.Orientation;
 import com.atomforge.fdo.dsl.values.TriggerStyle;
 import com.atomforge.fdo.model.FdoGid;
+import com.dialtone.fdo.FdoTemplateSource;
 import com.dialtone.fdo.dsl.ButtonTheme;
 import com.dialtone.fdo.dsl.FdoDslBuilder;
 import com.dialtone.fdo.dsl.RenderingContext;
 
+import java.util.Arrays;
+
 /**
  * DSL builder for instant message receive window.
  *
@@ -34,9 +37,12 @@ import com.dialtone.fdo.dsl.RenderingContext;
  *   <li>BW mode: no button colors or trigger style</li>
  * </ul>
  *
+ * <p>Implements {@link FdoTemplateSource}: sender and message are string slots, window
+ * and response IDs are integer slots, so delivery patches a precompiled template.</p>
+ *
  * <p>Replaces: {@code fdo/receive_im.fdo.txt} and {@code fdo/receive_im.bw.fdo.txt}</p>
  */
-public final class ReceiveImFdoBuilder implements FdoDslBuilder {
+public final class ReceiveImFdoBuilder implements FdoDslBuilder, FdoTemplateSource {
 
     private static final String GID = "receive_im";
     private static final FdoGid STYLE_GID = FdoGid.of(32, 223);
@@ -107,9 +113,32 @@ public final class ReceiveImFdoBuilder implements FdoDslBuilder {
         return "Instant message receive window with reply capability";
     }
 
+    @Override
+    public Object templateKey() {
+        return Arrays.asList(GID, config.buttonTheme);
+    }
+
+    @Override
+    public String[] stringSlots() {
+        return new String[]{config.fromUser, config.message};
+    }
+
+    @Override
+    public int[] intSlots() {
+        return new int[]{config.windowId, config.responseId};
+    }
+
     @Override
     public String toSource(RenderingContext ctx) {
-        FdoGid windowGid = FdoGid.of(0, config.windowId);
+        return toSource(ctx, stringSlots(), intSlots());
+    }
+
+    @Override
+    public String toSource(RenderingContext ctx, String[] strings, int[] ints) {
+        String fromUser = strings[0];
+        String message = strings[1];
+        int responseId = ints[1];
+        FdoGid windowGid = FdoGid.of(0, ints[0]);
         return FdoScript.stream()
                 .uniStartStream()
                     .manPresetGid(windowGid)
@@ -119,12 +148,12 @@ public final class ReceiveImFdoBuilder implements FdoDslBuilder {
                     .object(ObjectType.IND_GROUP, "", root -> {
                         root.matOrientation(Orientation.VCF);
                         root.matObjectId(windowGid);
-                        root.matTitle("Instant Message: " + config.fromUser);
+                        root.matTitle("Instant Message: " + fromUser);
                         root.matStyleId(STYLE_GID);
                         root.backgroundTile();
                         root.artId(BACKGROUND_ART);
-                        root.manSetResponseId(config.responseId);
-                        root.atom(ManAtom.DO_MAGIC_RESPONSE_ID, config.responseId);
+                        root.manSetResponseId(responseId);
+                        root.atom(ManAtom.DO_MAGIC_RESPONSE_ID, responseId);
 
                         // Hidden ornaments for sender info
                         root.object(ObjectType.ORG_GROUP, "", senderGroup -> {
@@ -135,7 +164,7 @@ public final class ReceiveImFdoBuilder implements FdoDslBuilder {
                                 orn1.matWidth(15);
                                 orn1.matRelativeTag(1);
                                 orn1.mat(MatAtom.BOOL_DEFAULT_SEND, "yes");
-                                orn1.manReplaceData(config.fromUser);
+                                orn1.manReplaceData(fromUser);
                             });
                             senderGroup.object(ObjectType.ORNAMENT, "", orn2 -> {
                                 orn2.matHeight(1);
@@ -179,7 +208,7 @@ public final class ReceiveImFdoBuilder implements FdoDslBuilder {
                     .manSetContextGlobalId(windowGid)
                     .uniStartStream()
                         .manSetContextRelative(3)
-                        .manAppendData(config.fromUser + ": " + config.message + "\u007F")
+                        .manAppendData(fromUser + ": " + message + "\u007F")
                         .manEndContext()
                     .uniEndStream()
                     .manMakeFocus()
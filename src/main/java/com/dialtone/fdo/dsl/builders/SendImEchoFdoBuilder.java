@@ -6,6 +6,7 @@ package com.dialtone.fdo.dsl.builders;
 
 import com.atomforge.fdo.dsl.FdoScript;
 import com.atomforge.fdo.model.FdoGid;
+import com.dialtone.fdo.FdoTemplateSource;
 import com.dialtone.fdo.dsl.FdoBuilder;
 import com.dialtone.fdo.dsl.FdoDslBuilder;
 import com.dialtone.fdo.dsl.RenderingContext;
@@ -39,9 +40,12 @@ import com.dialtone.fdo.dsl.RenderingContext;
  * uni_end_stream
  * </pre>
  *
+ * <p>Implements {@link FdoTemplateSource} so echoes patch a precompiled template.</p>
+ *
  * <p>Replaces: {@code fdo/send_im_echo_minimal.fdo.txt}</p>
  */
-public final class SendImEchoFdoBuilder implements FdoDslBuilder, FdoBuilder.Dynamic<SendImEchoFdoBuilder.Config> {
+public final class SendImEchoFdoBuilder
+        implements FdoDslBuilder, FdoBuilder.Dynamic<SendImEchoFdoBuilder.Config>, FdoTemplateSource {
 
     private static final String GID = "send_im_echo_minimal";
 
@@ -127,9 +131,29 @@ public final class SendImEchoFdoBuilder implements FdoDslBuilder, FdoBuilder.Dyn
         return "IM echo for sent message confirmation";
     }
 
+    @Override
+    public Object templateKey() {
+        return GID;
+    }
+
+    @Override
+    public String[] stringSlots() {
+        return new String[]{config.fromUser, config.message};
+    }
+
+    @Override
+    public int[] intSlots() {
+        return new int[]{config.windowId};
+    }
+
     @Override
     public String toSource(RenderingContext ctx) {
-        FdoGid windowGid = FdoGid.of(0, config.windowId);
+        return toSource(ctx, stringSlots(), intSlots());
+    }
+
+    @Override
+    public String toSource(RenderingContext ctx, String[] strings, int[] ints) {
+        FdoGid windowGid = FdoGid.of(0, ints[0]);
 
         return FdoScript.stream()
                 .uniStartStream()
@@ -138,7 +162,7 @@ public final class SendImEchoFdoBuilder implements FdoDslBuilder, FdoBuilder.Dyn
                     .manSetContextGlobalId(windowGid)
                     .manSetContextRelative(3)
                     .matParagraph(1)
-                    .manAppendData(config.fromUser + ": " + config.message + "\u007F")
+                    .manAppendData(strings[0] + ": " + strings[1] + "\u007F")
                     .manEndContext()
                     .manMakeFocus()
                     .manUpdateDisplay()
@@ -13,10 +13,9 @@ import com.atomforge.fdo.model.FdoGid;
 import com.dialtone.fdo.dsl.ButtonTheme;
 import com.dialtone.fdo.dsl.FdoDslBuilder;
 import com.dialtone.fdo.dsl.RenderingContext;
+import com.dialtone.resources.ResourceRepository;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 
 /**
  * DSL-based FDO builder for Terms of Service modal dialog.
@@ -263,11 +262,8 @@ public final class TosFdoBuilder implements FdoDslBuilder {
      * @return TOS content or default message if not found
      */
     private static String loadDefaultTosContent() {
-        try (InputStream is = TosFdoBuilder.class.getClassLoader()
-                .getResourceAsStream("public/TOS.txt")) {
-            if (is != null) {
-                return new String(is.readAllBytes(), StandardCharsets.UTF_8);
-            }
+        try {
+            return ResourceRepository.getInstance().findText("public/TOS.txt").orElse(DEFAULT_TOS);
         } catch (IOException ignored) {
             // Fall through to default
         }
@@ -44,6 +44,23 @@ public interface FdoCompilationService extends Closeable {
     List<FdoChunk> compileToChunks(String fdoSource, String token, int streamId)
             throws FdoCompilationException;
 
+    /**
+     * Maximum chunk payload produced by {@link #compileToChunks}, in bytes
+     * (token + Stream ID + FDO data).
+     *
+     * @return maximum payload size per chunk
+     */
+    int getMaxChunkPayload();
+
+    /**
+     * Number of bytes (token + Stream ID) that precede the FDO data in every chunk
+     * produced by {@link #compileToChunks} for the given token.
+     *
+     * @param token P3 token (e.g., "AT", "at")
+     * @return header size in bytes
+     */
+    int getChunkHeaderSize(String token);
+
     /**
      * Get the backend name for logging and diagnostics.
      *
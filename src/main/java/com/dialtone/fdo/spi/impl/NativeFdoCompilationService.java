@@ -161,6 +161,16 @@ public class NativeFdoCompilationService implements FdoCompilationService {
         }
     }
 
+    @Override
+    public int getMaxChunkPayload() {
+        return p3MaxChunkPayload;
+    }
+
+    @Override
+    public int getChunkHeaderSize(String token) {
+        return token.getBytes(StandardCharsets.US_ASCII).length + getStreamIdSizeForToken(token);
+    }
+
     @Override
     public String getBackendName() {
         return BACKEND_NAME;
@@ -346,8 +346,9 @@ public class FileBrowserService {
         try (Stream<Path> paths = Files.list(directory)) {
             paths.forEach(path -> {
                 try {
-                    // Skip metadata sidecar files
-                    if (path.getFileName().toString().endsWith(".meta.json")) {
+                    // Skip metadata sidecars and hidden files (metadata index, usage ledger)
+                    String name = path.getFileName().toString();
+                    if (name.endsWith(".meta.json") || name.startsWith(".")) {
                         return;
                     }
 
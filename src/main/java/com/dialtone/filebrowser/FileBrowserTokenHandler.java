@@ -10,6 +10,7 @@ import com.dialtone.fdo.dsl.RenderingContext;
 import com.dialtone.fdo.dsl.builders.DownloadErrorFdoBuilder;
 import com.dialtone.fdo.dsl.builders.FileBrowserFdoBuilder;
 import com.dialtone.filebrowser.FileBrowserService.BrowseResult;
+import com.dialtone.protocol.MultiFrameStreamAccumulator;
 import com.dialtone.protocol.MultiFrameStreamProcessor;
 import com.dialtone.protocol.P3ChunkEnqueuer;
 import com.dialtone.protocol.Pacer;
@@ -23,8 +24,6 @@ import com.dialtone.utils.LoggerUtil;
 import io.netty.channel.ChannelHandlerContext;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -66,7 +65,7 @@ public class FileBrowserTokenHandler implements TokenHandler {
     private static final Map<String, String> sessionCurrentPaths = new ConcurrentHashMap<>();
 
     // Multi-frame stream accumulation
-    private final Map<Integer, List<byte[]>> pendingFbStreams = new ConcurrentHashMap<>();
+    private final MultiFrameStreamAccumulator pendingFbStreams = new MultiFrameStreamAccumulator(TOKEN);
 
     /**
      * Creates a new FileBrowserTokenHandler.
@@ -115,27 +114,16 @@ public class FileBrowserTokenHandler implements TokenHandler {
     public void handle(ChannelHandlerContext ctx, byte[] frame, SessionContext session) throws Exception {
         int streamId = MultiFrameStreamProcessor.extractStreamId(frame);
 
-        // Check if this is end of stream
-        if (MultiFrameStreamProcessor.isUniEndStream(frame, fdoCompiler)) {
-            List<byte[]> accumulatedFrames = pendingFbStreams.get(streamId);
-
-            String payload;
-            if (accumulatedFrames != null && !accumulatedFrames.isEmpty()) {
-                List<byte[]> allFrames = new ArrayList<>(accumulatedFrames);
-                allFrames.add(frame);
-                payload = MultiFrameStreamProcessor.extractDeDataFromMultiFrame(allFrames, fdoCompiler, TOKEN);
-                pendingFbStreams.remove(streamId);
-            } else {
-                payload = MultiFrameStreamProcessor.extractDeDataFromSingleFrame(frame, fdoCompiler, TOKEN);
+        String payload;
+        try (MultiFrameStreamAccumulator.CompletedStream stream = pendingFbStreams.append(streamId, frame)) {
+            if (stream == null) {
+                // Accumulate multi-frame stream
+                return;
             }
-
-            processPayload(ctx, payload);
-        } else {
-            // Accumulate multi-frame stream
-            pendingFbStreams.computeIfAbsent(streamId, k -> new ArrayList<>()).add(
-                Arrays.copyOf(frame, frame.length)
-            );
+            payload = MultiFrameStreamProcessor.extractDeDataFromPayload(stream.toByteArray(), TOKEN);
         }
+
+        processPayload(ctx, payload);
     }
 
     /**
@@ -4,148 +4,292 @@
 
 package com.dialtone.protocol;
 
+import com.dialtone.fdo.FdoStreamExtractor;
 import com.dialtone.utils.LoggerUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Thread-safe accumulator for multi-frame protocol streams identified by Stream ID.
+ * Reassembles multi-frame protocol streams identified by Stream ID.
  *
- * <p>Some protocol tokens (e.g., Aa chat, Kk keyword) can arrive in multiple frames
- * across the network. Each frame carries a Stream ID, and the final frame contains
- * a {@code uni_end_stream} marker. This class provides a reusable mechanism to
- * accumulate frames until the stream is complete.
+ * <p>Some protocol tokens (e.g., Aa chat, iS instant message, St Skalholt, Kk keyword) can
+ * arrive in multiple frames. Each frame carries a Stream ID, and the final frame contains
+ * a {@code uni_end_stream} marker. Each frame's FDO payload (P3 header and trailing 0x0D
+ * removed) is added to a {@link CompositeByteBuf} as a slice of the frame array, so the
+ * stream is copied exactly once, when the completed payload is read.
+ *
+ * <p>End of stream is detected incrementally: only the bytes of the new frame are scanned
+ * for the binary {@code uni_end_stream} patterns, plus the last bytes of the previous frame
+ * so a marker split across frames is still found. The native decoder fallback sees only
+ * the new frame's payload, never the accumulated stream.
+ *
+ * <p>Each stream is bounded by a byte limit and an age limit, and the number of open streams
+ * is capped. A stream that breaks a limit is dropped, so a malformed client cannot grow
+ * memory without bound; its remaining frames are swallowed until its final frame, so the
+ * tail of a dropped stream is never handled as a message of its own. Dropped streams keep
+ * only their Stream ID and a few trailing bytes, and still expire with the age limit.
  *
  * <p><b>Usage Pattern:</b>
  * <pre>
- * MultiFrameStreamAccumulator accumulator = new MultiFrameStreamAccumulator();
+ * MultiFrameStreamAccumulator accumulator = new MultiFrameStreamAccumulator("Aa");
  *
  * // On each frame arrival:
- * if (isEndOfStream(frame)) {
- *     List&lt;byte[]&gt; allFrames = accumulator.getAndClear(streamId);
- *     if (allFrames != null) {
- *         // Process multi-frame stream
- *         processStream(allFrames);
- *     } else {
- *         // Single-frame stream
- *         processSingleFrame(frame);
+ * try (MultiFrameStreamAccumulator.CompletedStream stream = accumulator.append(streamId, frame)) {
+ *     if (stream != null) {
+ *         // Single- or multi-frame stream is complete
+ *         processStream(stream.toByteArray());
  *     }
- * } else {
- *     // Accumulate intermediate frame
- *     accumulator.accumulate(streamId, frame);
  * }
  * </pre>
  *
+ * <p>Frames are referenced, not copied, so callers must not modify a frame array after
+ * appending it (frames from the decoder are freshly allocated per frame).
+ *
  * @see com.dialtone.protocol.StatefulClientHandler
  */
 public class MultiFrameStreamAccumulator {
 
-    private static final int MAX_PENDING_STREAMS = 16;
-    private static final int MAX_STREAM_BYTES = 65536;
+    public static final int DEFAULT_MAX_STREAMS = 16;
+    public static final int DEFAULT_MAX_STREAM_BYTES = 65536;
+    public static final long DEFAULT_MAX_AGE_MS = 30000L;
+
+    private static final int P3_HEADER_SIZE = 12;
+    private static final byte FRAME_TERMINATOR = 0x0D;
+
+    // Longest uni_end_stream pattern is 4 bytes, so 3 trailing bytes can start a split marker
+    private static final int MARKER_CARRY = 3;
+
+    private static volatile int configuredMaxStreams = DEFAULT_MAX_STREAMS;
+    private static volatile int configuredMaxStreamBytes = DEFAULT_MAX_STREAM_BYTES;
+    private static volatile long configuredMaxAgeMs = DEFAULT_MAX_AGE_MS;
+
+    private final String tokenName;
+    private final int maxStreams;
+    private final int maxStreamBytes;
+    private final long maxAgeNanos;
+
+    private final Map<Integer, PendingStream> pendingStreams = new ConcurrentHashMap<>();
+
+    private long droppedStreams;
+    private long expiredStreams;
 
     /**
-     * Storage for frames grouped by Stream ID.
-     * Each Stream ID maps to a list of frames in arrival order.
+     * Create an accumulator with the limits from {@link #configure(Properties)}.
+     *
+     * @param tokenName token name (e.g., "Aa") for logging
      */
-    private final Map<Integer, List<byte[]>> pendingStreams = new ConcurrentHashMap<>();
+    public MultiFrameStreamAccumulator(String tokenName) {
+        this(tokenName, configuredMaxStreams, configuredMaxStreamBytes, configuredMaxAgeMs);
+    }
 
     /**
-     * Tracks accumulated byte count per stream for enforcing MAX_STREAM_BYTES.
+     * @param tokenName      token name (e.g., "Aa") for logging
+     * @param maxStreams     maximum streams accumulating at once
+     * @param maxStreamBytes maximum FDO payload bytes per stream
+     * @param maxAgeMs       maximum time from first to final frame
      */
-    private final Map<Integer, Integer> streamByteCounts = new ConcurrentHashMap<>();
+    public MultiFrameStreamAccumulator(String tokenName, int maxStreams, int maxStreamBytes, long maxAgeMs) {
+        this.tokenName = tokenName;
+        this.maxStreams = maxStreams;
+        this.maxStreamBytes = maxStreamBytes;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+    }
+
+    /**
+     * Apply {@code stream.reassembly.max.streams}, {@code stream.reassembly.max.bytes} and
+     * {@code stream.reassembly.max.age.ms} to accumulators created afterwards.
+     *
+     * @param properties application properties
+     */
+    public static void configure(Properties properties) {
+        configuredMaxStreams = intProperty(properties, "stream.reassembly.max.streams", DEFAULT_MAX_STREAMS);
+        configuredMaxStreamBytes = intProperty(properties, "stream.reassembly.max.bytes", DEFAULT_MAX_STREAM_BYTES);
+        configuredMaxAgeMs = intProperty(properties, "stream.reassembly.max.age.ms", (int) DEFAULT_MAX_AGE_MS);
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            LoggerUtil.warn("Invalid " + key + " value: " + value + ", using default: " + defaultValue);
+            return defaultValue;
+        }
+    }
 
     /**
-     * Accumulates a frame for the given Stream ID.
+     * Append a frame to its stream.
      *
-     * <p>The frame is copied to prevent external modifications from affecting stored data.
-     * Rejects frames that would exceed per-stream byte limits or pending stream limits.
+     * <p>A frame that carries {@code uni_end_stream} completes its stream (or forms a
+     * single-frame stream by itself). Otherwise the frame is held until the final frame
+     * arrives, unless a limit is exceeded, in which case the stream is dropped.
      *
      * @param streamId the Stream ID from the P3 frame header (bytes 10-11)
      * @param frame    the complete frame data
+     * @return the completed stream, which the caller must close, or null while the stream is pending
      */
-    public void accumulate(int streamId, byte[] frame) {
+    public synchronized CompletedStream append(int streamId, byte[] frame) {
         if (frame == null || frame.length == 0) {
             throw new IllegalArgumentException("Cannot accumulate null or empty frame");
         }
 
-        // Reject new streams beyond limit
-        if (!pendingStreams.containsKey(streamId) && pendingStreams.size() >= MAX_PENDING_STREAMS) {
-            LoggerUtil.warn("MultiFrameStreamAccumulator: rejecting new stream " + streamId +
-                    " (at capacity " + MAX_PENDING_STREAMS + ")");
-            return;
+        long now = System.nanoTime();
+        expireStale(now);
+
+        int start = Math.min(P3_HEADER_SIZE, frame.length);
+        int end = frame[frame.length - 1] == FRAME_TERMINATOR ? frame.length - 1 : frame.length;
+        int length = Math.max(0, end - start);
+
+        PendingStream stream = pendingStreams.get(streamId);
+        boolean complete = endsStream(stream, frame, start, end);
+
+        if (stream != null && stream.discarding) {
+            // Swallow the rest of a dropped stream so its tail is not mistaken for a new message
+            stream.carry(frame, start, end);
+            if (complete) {
+                pendingStreams.remove(streamId);
+            }
+            return null;
+        }
+
+        if (stream == null) {
+            if (complete) {
+                // Single-frame stream: nothing to accumulate
+                return new CompletedStream(Unpooled.wrappedBuffer(frame, start, length), 1);
+            }
+            if (accumulatingCount() >= maxStreams) {
+                droppedStreams++;
+                LoggerUtil.warn(String.format("[%s] Dropping stream 0x%04X: %d streams already pending",
+                        tokenName, streamId, maxStreams));
+                // Remember the Stream ID, without a buffer, so the rest of the stream is swallowed
+                stream = new PendingStream(now, true);
+                stream.carry(frame, start, end);
+                pendingStreams.put(streamId, stream);
+                return null;
+            }
+            stream = new PendingStream(now, false);
+            pendingStreams.put(streamId, stream);
         }
 
-        // Reject frames that would exceed per-stream byte limit
-        int currentBytes = streamByteCounts.getOrDefault(streamId, 0);
-        if (currentBytes + frame.length > MAX_STREAM_BYTES) {
-            LoggerUtil.warn("MultiFrameStreamAccumulator: rejecting frame for stream " + streamId +
-                    " (would exceed " + MAX_STREAM_BYTES + " bytes)");
-            return;
+        if (stream.payload.readableBytes() + length > maxStreamBytes) {
+            droppedStreams++;
+            LoggerUtil.warn(String.format("[%s] Dropping stream 0x%04X: exceeds %d bytes after %d frame(s)",
+                    tokenName, streamId, maxStreamBytes, stream.frames + 1));
+            stream.discard();
+            if (complete) {
+                pendingStreams.remove(streamId);
+            } else {
+                stream.carry(frame, start, end);
+            }
+            return null;
         }
 
-        // Copy frame to prevent external modifications
-        byte[] frameCopy = Arrays.copyOf(frame, frame.length);
+        if (length > 0) {
+            stream.payload.addComponent(true, Unpooled.wrappedBuffer(frame, start, length));
+        }
+        stream.frames++;
+        stream.carry(frame, start, end);
+
+        if (!complete) {
+            final PendingStream pending = stream;
+            LoggerUtil.debug(() -> String.format("[%s] Stream 0x%04X: %d frame(s), %d bytes pending",
+                    tokenName, streamId, pending.frames, pending.payload.readableBytes()));
+            return null;
+        }
 
-        pendingStreams.computeIfAbsent(streamId, k -> new ArrayList<>()).add(frameCopy);
-        streamByteCounts.merge(streamId, frame.length, Integer::sum);
+        pendingStreams.remove(streamId);
+        return new CompletedStream(stream.payload, stream.frames);
     }
 
-    /**
-     * Retrieves accumulated frames for a Stream ID without removing them.
-     *
-     * @param streamId the Stream ID to query
-     * @return list of accumulated frames, or null if no frames exist for this Stream ID
-     */
-    public List<byte[]> get(int streamId) {
-        return pendingStreams.get(streamId);
+    private int accumulatingCount() {
+        int count = 0;
+        for (PendingStream stream : pendingStreams.values()) {
+            if (!stream.discarding) {
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
-     * Checks if any frames are accumulated for the given Stream ID.
-     *
-     * @param streamId the Stream ID to check
-     * @return true if frames exist for this Stream ID, false otherwise
+     * Check whether the new frame ends its stream, scanning only bytes not scanned before.
      */
-    public boolean hasFrames(int streamId) {
-        List<byte[]> frames = pendingStreams.get(streamId);
-        return frames != null && !frames.isEmpty();
+    private boolean endsStream(PendingStream stream, byte[] frame, int start, int end) {
+        if (MultiFrameStreamProcessor.containsUniEndStreamMarker(frame, start, end)) {
+            return true;
+        }
+
+        // Marker split across the previous frame and this one
+        if (stream != null && stream.carryLength > 0 && end > start) {
+            int head = Math.min(MARKER_CARRY, end - start);
+            byte[] seam = Arrays.copyOf(stream.carry, stream.carryLength + head);
+            System.arraycopy(frame, start, seam, stream.carryLength, head);
+            if (MultiFrameStreamProcessor.containsUniEndStreamMarker(seam, 0, seam.length)) {
+                return true;
+            }
+        }
+
+        // Large atom continuations are raw message data and never hold uni_end_stream
+        if (end <= start || MultiFrameStreamProcessor.isLargeAtomContinuation(frame, start, end)) {
+            return false;
+        }
+
+        // Fallback: decode this frame's payload only
+        return FdoStreamExtractor.hasUniEndStream(Arrays.copyOfRange(frame, start, end));
     }
 
-    /**
-     * Retrieves accumulated frames for a Stream ID and removes them from storage.
-     *
-     * <p>This is typically called when the final frame (with uni_end_stream) arrives.
-     *
-     * @param streamId the Stream ID to retrieve and clear
-     * @return list of accumulated frames, or null if no frames exist for this Stream ID
-     */
-    public List<byte[]> getAndClear(int streamId) {
-        streamByteCounts.remove(streamId);
-        return pendingStreams.remove(streamId);
+    private void expireStale(long now) {
+        Iterator<Map.Entry<Integer, PendingStream>> it = pendingStreams.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, PendingStream> entry = it.next();
+            PendingStream stream = entry.getValue();
+            if (now - stream.startedAt > maxAgeNanos) {
+                it.remove();
+                if (stream.discarding) {
+                    continue;
+                }
+                stream.discard();
+                expiredStreams++;
+                LoggerUtil.warn(String.format("[%s] Expiring stream 0x%04X: no uni_end_stream after %d frame(s)",
+                        tokenName, entry.getKey(), stream.frames));
+            }
+        }
     }
 
     /**
-     * Clears all accumulated frames for a Stream ID.
+     * Discards a pending stream.
      *
      * @param streamId the Stream ID to clear
      */
-    public void clear(int streamId) {
-        pendingStreams.remove(streamId);
-        streamByteCounts.remove(streamId);
+    public synchronized void clear(int streamId) {
+        PendingStream stream = pendingStreams.remove(streamId);
+        if (stream != null) {
+            stream.discard();
+        }
     }
 
     /**
-     * Clears all pending streams.
+     * Discards all pending streams.
      *
-     * <p>This should be called when the connection closes to prevent memory leaks.
+     * <p>This should be called when the connection or window closes.
      */
-    public void clearAll() {
+    public synchronized void clearAll() {
+        for (PendingStream stream : pendingStreams.values()) {
+            stream.discard();
+        }
         pendingStreams.clear();
-        streamByteCounts.clear();
     }
 
     /**
@@ -153,8 +297,8 @@ public class MultiFrameStreamAccumulator {
      *
      * @return number of unique Stream IDs with accumulated frames
      */
-    public int size() {
-        return pendingStreams.size();
+    public synchronized int size() {
+        return accumulatingCount();
     }
 
     /**
@@ -163,6 +307,103 @@ public class MultiFrameStreamAccumulator {
      * @return true if no streams are pending, false otherwise
      */
     public boolean isEmpty() {
-        return pendingStreams.isEmpty();
+        return size() == 0;
+    }
+
+    /**
+     * @return streams dropped for exceeding the stream count or byte limit
+     */
+    public synchronized long getDroppedStreamCount() {
+        return droppedStreams;
+    }
+
+    /**
+     * @return streams discarded for exceeding the age limit
+     */
+    public synchronized long getExpiredStreamCount() {
+        return expiredStreams;
+    }
+
+    /**
+     * A stream being accumulated.
+     */
+    private static final class PendingStream {
+        // The byte limit bounds the component count, so never consolidate; null if dropped on arrival
+        final CompositeByteBuf payload;
+        final long startedAt;
+        final byte[] carry = new byte[MARKER_CARRY];
+        int carryLength;
+        int frames;
+
+        // Dropped: remaining frames are swallowed until the stream ends or expires
+        boolean discarding;
+
+        PendingStream(long startedAt, boolean discarding) {
+            this.startedAt = startedAt;
+            this.discarding = discarding;
+            this.payload = discarding ? null : Unpooled.compositeBuffer(Integer.MAX_VALUE);
+        }
+
+        void discard() {
+            if (!discarding) {
+                discarding = true;
+                payload.release();
+            }
+        }
+
+        /**
+         * Keep the last bytes seen so a marker starting in them can be matched against the next frame.
+         */
+        void carry(byte[] frame, int start, int end) {
+            int added = end - start;
+            if (added >= MARKER_CARRY) {
+                System.arraycopy(frame, end - MARKER_CARRY, carry, 0, MARKER_CARRY);
+                carryLength = MARKER_CARRY;
+                return;
+            }
+            int keep = Math.min(carryLength, MARKER_CARRY - added);
+            System.arraycopy(carry, carryLength - keep, carry, 0, keep);
+            System.arraycopy(frame, start, carry, keep, added);
+            carryLength = keep + added;
+        }
+    }
+
+    /**
+     * A complete stream: the FDO payloads of all its frames in arrival order.
+     */
+    public static final class CompletedStream implements AutoCloseable {
+        private final ByteBuf payload;
+        private final int frameCount;
+
+        CompletedStream(ByteBuf payload, int frameCount) {
+            this.payload = payload;
+            this.frameCount = frameCount;
+        }
+
+        /**
+         * @return number of frames in the stream
+         */
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        /**
+         * @return contiguous view of the combined FDO payload (not copied)
+         */
+        public ByteBuf getPayload() {
+            return payload;
+        }
+
+        /**
+         * @return the combined FDO payload copied into one array, ready for decoding
+         */
+        public byte[] toByteArray() {
+            return ByteBufUtil.getBytes(payload);
+        }
+
+        @Override
+        public void close() {
+            payload.release();
+        }
     }
 }
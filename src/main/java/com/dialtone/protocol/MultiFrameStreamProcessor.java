@@ -98,54 +98,40 @@ public final class MultiFrameStreamProcessor {
         }
 
         // Skip P3 frame header (12 bytes) and scan FDO payload
-        int payloadStart = 12;
-        int payloadLength = frame.length - payloadStart;
-
-        // Look for UNI end stream patterns in the payload
-        for (int offset = 0; offset <= payloadLength - 3; offset++) {
-            int pos = payloadStart + offset;
+        return containsUniEndStreamMarker(frame, 12, frame.length);
+    }
 
+    /**
+     * Scans {@code data[from, to)} for the binary {@code uni_end_stream} patterns
+     * listed on {@link #hasUniEndStreamMarker(byte[])}.
+     *
+     * @param data bytes to scan
+     * @param from first index to scan (inclusive)
+     * @param to   end of the scanned range (exclusive)
+     * @return true if a pattern lies entirely within the range
+     */
+    static boolean containsUniEndStreamMarker(byte[] data, int from, int to) {
+        for (int pos = from; pos <= to - 3; pos++) {
             // All uni_end_stream patterns start with UNI protocol (0x00)
-            if (frame[pos] == 0x00) {
-
-                // Pattern 1: [0x00][0x03][0x01][0x00] - uni_end_stream <00x>
-                if (pos + 3 < frame.length &&
-                    frame[pos + 1] == 0x03 &&
-                    frame[pos + 2] == 0x01 &&
-                    frame[pos + 3] == 0x00) {
-                    final int finalOffset = offset;
-                    LoggerUtil.debug(() -> "Binary detection: Found uni_end_stream <00x> pattern at offset " + finalOffset);
-                    return true;
-                }
-
-                // Pattern 2: [0x00][0x03][0x00] - uni_end_stream (no parameters)
-                if (pos + 2 < frame.length &&
-                    frame[pos + 1] == 0x03 &&
-                    frame[pos + 2] == 0x00) {
-                    final int finalOffset = offset;
-                    LoggerUtil.debug(() -> "Binary detection: Found uni_end_stream (no params) pattern at offset " + finalOffset);
-                    return true;
-                }
-
-                // Pattern 3: [0x00][0x02][0x01][0x00] - alternate atom ID
-                if (pos + 3 < frame.length &&
-                    frame[pos + 1] == 0x02 &&
-                    frame[pos + 2] == 0x01 &&
-                    frame[pos + 3] == 0x00) {
-                    final int finalOffset = offset;
-                    LoggerUtil.debug(() -> "Binary detection: Found uni_end_stream (atom 0x02) pattern at offset " + finalOffset);
-                    return true;
-                }
-
-                // Pattern 4: [0x00][0x01][0x01][0x00] - alternate atom ID
-                if (pos + 3 < frame.length &&
-                    frame[pos + 1] == 0x01 &&
-                    frame[pos + 2] == 0x01 &&
-                    frame[pos + 3] == 0x00) {
-                    final int finalOffset = offset;
-                    LoggerUtil.debug(() -> "Binary detection: Found uni_end_stream (atom 0x01) pattern at offset " + finalOffset);
-                    return true;
-                }
+            if (data[pos] != 0x00) {
+                continue;
+            }
+            byte atom = data[pos + 1];
+            byte next = data[pos + 2];
+
+            // Pattern 2: [0x00][0x03][0x00] - uni_end_stream (no parameters)
+            boolean found = atom == 0x03 && next == 0x00;
+
+            // Patterns 1, 3, 4: [0x00][0x03|0x02|0x01][0x01][0x00] - uni_end_stream <00x> and alternate atom IDs
+            if (!found && (atom == 0x03 || atom == 0x02 || atom == 0x01) && next == 0x01) {
+                found = pos + 3 < to && data[pos + 3] == 0x00;
+            }
+
+            if (found) {
+                final int finalOffset = pos - from;
+                LoggerUtil.debug(() -> String.format("Binary detection: Found uni_end_stream (atom 0x%02X) pattern at offset %d",
+                        atom, finalOffset));
+                return true;
             }
         }
 
@@ -172,14 +158,28 @@ public final class MultiFrameStreamProcessor {
      * @return true if frame contains large atom markers that should skip decompilation
      */
     private static boolean isLargeAtomContinuation(byte[] frame) {
-        if (frame == null || frame.length < 14) { // Need at least header + 2 bytes for proto/atom
+        if (frame == null) {
             return false;
         }
-
         // Skip P3 frame header (12 bytes) to get to FDO payload
-        int payloadStart = 12;
-        byte proto = frame[payloadStart];
-        byte atom = frame[payloadStart + 1];
+        return isLargeAtomContinuation(frame, 12, frame.length);
+    }
+
+    /**
+     * Payload-level form of {@link #isLargeAtomContinuation(byte[])}.
+     *
+     * @param data  buffer holding the FDO payload
+     * @param start index of the first payload byte
+     * @param end   end of the payload (exclusive)
+     * @return true if the payload starts with a large atom start or segment marker
+     */
+    static boolean isLargeAtomContinuation(byte[] data, int start, int end) {
+        if (end - start < 2) { // Need at least 2 bytes for proto/atom
+            return false;
+        }
+
+        byte proto = data[start];
+        byte atom = data[start + 1];
 
         // UNI_LARGE_ATOM_SEGMENT (0x00 0x05) - raw data continuation
         if (proto == 0x00 && atom == 0x05) {
@@ -270,32 +270,7 @@ public final class MultiFrameStreamProcessor {
      */
     public static String extractDeDataFromSingleFrame(byte[] frame, FdoCompiler fdoCompiler, String tokenName) throws Exception {
         // Strip P3 header to get pure FDO binary
-        byte[] fdoBinary = FdoStreamExtractor.stripP3Header(frame);
-
-        if (fdoBinary.length == 0) {
-            throw new IllegalArgumentException("No FDO payload in " + tokenName + " frame");
-        }
-
-        // Use native FdoStream extraction
-        String data = FdoStreamExtractor.extractFirstDeData(fdoBinary);
-
-        if (data == null || data.isEmpty()) {
-            // Enhanced diagnostic logging when extraction fails
-            LoggerUtil.error("Failed to extract de_data from " + tokenName + " frame using native FdoStream");
-            LoggerUtil.error("FDO binary length: " + fdoBinary.length + " bytes");
-
-            // Try to get all de_data values for diagnosis
-            List<String> allValues = FdoStreamExtractor.extractDeData(fdoBinary);
-            LoggerUtil.error("All de_data values found: " + allValues.size());
-            for (int i = 0; i < allValues.size(); i++) {
-                LoggerUtil.error("  de_data[" + i + "]: " + (allValues.get(i) == null ? "null" : "'" + allValues.get(i) + "'"));
-            }
-
-            throw new IllegalArgumentException("Failed to extract de_data from " + tokenName + " frame");
-        }
-
-        LoggerUtil.info("Extracted " + tokenName + " de_data: '" + data + "'");
-        return data;
+        return extractDeDataFromPayload(FdoStreamExtractor.stripP3Header(frame), tokenName);
     }
 
     /**
@@ -315,34 +290,42 @@ public final class MultiFrameStreamProcessor {
         LoggerUtil.info(String.format("Extracting de_data from %d multi-frame %s sequence", allFrames.size(), tokenName));
 
         // Concatenate FDO payloads from all frames (native, no HTTP calls)
-        byte[] combinedFdoBinary = FdoStreamExtractor.concatenateFrames(allFrames);
+        return extractDeDataFromPayload(FdoStreamExtractor.concatenateFrames(allFrames), tokenName);
+    }
 
-        if (combinedFdoBinary.length == 0) {
-            throw new IllegalArgumentException("No FDO payload in multi-frame " + tokenName + " sequence");
+    /**
+     * Extracts {@code de_data} content from a complete FDO payload, such as a stream
+     * reassembled by {@link MultiFrameStreamAccumulator}.
+     *
+     * @param fdoBinary pure FDO binary (no P3 headers)
+     * @param tokenName the token name (e.g., "Aa", "Kk") for logging
+     * @return the extracted {@code de_data} content
+     * @throws Exception if extraction fails or {@code de_data} is not found
+     */
+    public static String extractDeDataFromPayload(byte[] fdoBinary, String tokenName) throws Exception {
+        if (fdoBinary.length == 0) {
+            throw new IllegalArgumentException("No FDO payload in " + tokenName + " stream");
         }
 
-        LoggerUtil.debug(() -> "Combined FDO binary: " + combinedFdoBinary.length + " bytes from " + allFrames.size() + " frames");
-
         // Use native FdoStream extraction
-        String data = FdoStreamExtractor.extractFirstDeData(combinedFdoBinary);
+        String data = FdoStreamExtractor.extractFirstDeData(fdoBinary);
 
         if (data == null || data.isEmpty()) {
             // Enhanced diagnostic logging when extraction fails
-            LoggerUtil.error("Failed to extract de_data from multi-frame " + tokenName + " using native FdoStream");
-            LoggerUtil.error("Combined FDO binary length: " + combinedFdoBinary.length + " bytes");
-            LoggerUtil.error("Number of frames: " + allFrames.size());
+            LoggerUtil.error("Failed to extract de_data from " + tokenName + " stream using native FdoStream");
+            LoggerUtil.error("FDO binary length: " + fdoBinary.length + " bytes");
 
             // Try to get all de_data values for diagnosis
-            List<String> allValues = FdoStreamExtractor.extractDeData(combinedFdoBinary);
+            List<String> allValues = FdoStreamExtractor.extractDeData(fdoBinary);
             LoggerUtil.error("All de_data values found: " + allValues.size());
             for (int i = 0; i < allValues.size(); i++) {
                 LoggerUtil.error("  de_data[" + i + "]: " + (allValues.get(i) == null ? "null" : "'" + allValues.get(i) + "'"));
             }
 
-            throw new IllegalArgumentException("Failed to extract de_data from multi-frame " + tokenName);
+            throw new IllegalArgumentException("Failed to extract de_data from " + tokenName + " stream");
         }
 
-        LoggerUtil.info("Extracted multi-frame " + tokenName + " de_data: '" + data + "'");
+        LoggerUtil.info("Extracted " + tokenName + " de_data: '" + data + "'");
         return data;
     }
 }
@@ -178,6 +178,22 @@ public final class P3ChunkEnqueuer {
                                String labelPrefix,
                                int maxBurstFrames,
                                String username) {
+        enqueue(ctx, pacer, chunks, labelPrefix, maxBurstFrames, username, TrafficClass.INTERACTIVE);
+    }
+
+    /**
+     * Enqueue a list of P3 chunks into a pacer traffic class.
+     *
+     * <p>The chunks form one FDO stream in basic frames, which the client reassembles in
+     * arrival order, so the pacer sends them contiguously.</p>
+     */
+    public static void enqueue(ChannelHandlerContext ctx,
+                               Pacer pacer,
+                               List<FdoChunk> chunks,
+                               String labelPrefix,
+                               int maxBurstFrames,
+                               String username,
+                               TrafficClass trafficClass) {
         // Warn if large batch - may require multiple drain cycles
         if (chunks.size() > maxBurstFrames) {
             LoggerUtil.info(logPrefix(username) + String.format(
@@ -187,26 +203,31 @@ public final class P3ChunkEnqueuer {
 
         int index = 0;
         int enqueuedThisBatch = 0;
-        for (FdoChunk chunk : chunks) {
-            byte[] payload = chunk.getBinaryData();
-            byte[] framed = wrapP3Payload(payload);
-            ByteBuf buf = ctx.alloc().buffer(framed.length);
-            try {
-                buf.writeBytes(framed);
-                String label = String.format("%s_%02d", labelPrefix, index++);
-                pacer.enqueue(buf, label);
-                enqueuedThisBatch++;
-
-                // Trigger drain after each batch to prevent window overflow (Mac client fix)
-                if (enqueuedThisBatch >= maxBurstFrames && index < chunks.size()) {
-                    LoggerUtil.debug(logPrefix(username) + String.format(
-                        "Reached maxBurstFrames (%d), draining before next batch", maxBurstFrames));
-                    pacer.drainLimited(ctx, maxBurstFrames);
-                    enqueuedThisBatch = 0;
+        try {
+            for (FdoChunk chunk : chunks) {
+                byte[] payload = chunk.getBinaryData();
+                byte[] framed = wrapP3Payload(payload);
+                ByteBuf buf = ctx.alloc().buffer(framed.length);
+                try {
+                    buf.writeBytes(framed);
+                    String label = String.format("%s_%02d", labelPrefix, index++);
+                    pacer.enqueue(buf, label, trafficClass, true);
+                    enqueuedThisBatch++;
+
+                    // Trigger drain after each batch to prevent window overflow (Mac client fix)
+                    if (enqueuedThisBatch >= maxBurstFrames && index < chunks.size()) {
+                        LoggerUtil.debug(logPrefix(username) + String.format(
+                            "Reached maxBurstFrames (%d), draining before next batch", maxBurstFrames));
+                        pacer.drainLimited(ctx, maxBurstFrames);
+                        enqueuedThisBatch = 0;
+                    }
+                } finally {
+                    buf.release();
                 }
-            } finally {
-                buf.release();
             }
+        } finally {
+            // Also on failure, so a half-enqueued stream never holds the queue
+            pacer.endStream(trafficClass);
         }
     }
 
@@ -233,6 +254,23 @@ public final class P3ChunkEnqueuer {
                                                        String labelPrefix,
                                                        int maxBurstFrames,
                                                        String username) {
+        enqueueChunksWithMixedStreamIds(ctx, pacer, chunks, labelPrefix, maxBurstFrames, username,
+                TrafficClass.INTERACTIVE);
+    }
+
+    /**
+     * Mixed Stream ID enqueue into a pacer traffic class.
+     *
+     * <p>Extended frames carry their Stream ID in the header, so other traffic may be
+     * interleaved between them; basic frames are sent contiguously.</p>
+     */
+    public static void enqueueChunksWithMixedStreamIds(ChannelHandlerContext ctx,
+                                                       Pacer pacer,
+                                                       List<FdoChunk> chunks,
+                                                       String labelPrefix,
+                                                       int maxBurstFrames,
+                                                       String username,
+                                                       TrafficClass trafficClass) {
         // Warn about large chunk lists that will require multiple drain cycles
         if (chunks.size() > maxBurstFrames) {
             LoggerUtil.info(logPrefix(username) + String.format(
@@ -243,50 +281,52 @@ public final class P3ChunkEnqueuer {
 
         int index = 0;
         int enqueuedThisBatch = 0;
-        for (FdoChunk chunk : chunks) {
-            byte[] payload = chunk.getBinaryData();
-            byte[] framed;
-            String label;
-
-            if (chunk.hasStreamId()) {
-                // Chunk has Stream ID - use extended frame format
-                int streamId = chunk.getStreamId();
-                int finalIndex = index;
-                String finalUsername = username;
-                LoggerUtil.debug(() -> String.format(
-                    logPrefix(finalUsername) + "Chunk %d has streamId 0x%04X, size=%d bytes",
-                    finalIndex, streamId, payload.length));
-                framed = wrapP3PayloadWithStreamId(payload, streamId);
-                label = String.format("%s_%02d_SID%04X", labelPrefix, index++, streamId);
-            } else {
-                // No Stream ID - use basic frame format
-                int finalIndex = index;
-                String finalUsername = username;
-                LoggerUtil.debug(() -> String.format(
-                    logPrefix(finalUsername) + "Chunk %d has no streamId, size=%d bytes",
-                    finalIndex, payload.length));
-                framed = wrapP3Payload(payload);
-                label = String.format("%s_%02d", labelPrefix, index++);
-            }
+        try {
+            for (FdoChunk chunk : chunks) {
+                byte[] payload = chunk.getBinaryData();
+                byte[] framed;
+                String label;
+
+                if (chunk.hasStreamId()) {
+                    // Chunk has Stream ID - use extended frame format
+                    int streamId = chunk.getStreamId();
+                    int finalIndex = index;
+                    String finalUsername = username;
+                    LoggerUtil.debug(() -> String.format(
+                        logPrefix(finalUsername) + "Chunk %d has streamId 0x%04X, size=%d bytes",
+                        finalIndex, streamId, payload.length));
+                    framed = wrapP3PayloadWithStreamId(payload, streamId);
+                    label = String.format("%s_%02d_SID%04X", labelPrefix, index++, streamId);
+                } else {
+                    // No Stream ID - use basic frame format
+                    int finalIndex = index;
+                    String finalUsername = username;
+                    LoggerUtil.debug(() -> String.format(
+                        logPrefix(finalUsername) + "Chunk %d has no streamId, size=%d bytes",
+                        finalIndex, payload.length));
+                    framed = wrapP3Payload(payload);
+                    label = String.format("%s_%02d", labelPrefix, index++);
+                }
 
-            ByteBuf buf = ctx.alloc().buffer(framed.length);
-            try {
-                buf.writeBytes(framed);
-                pacer.enqueue(buf, label);
-                enqueuedThisBatch++;
-
-                // Trigger drain after each batch to prevent window overflow (Mac client fix)
-                if (enqueuedThisBatch >= maxBurstFrames && index < chunks.size()) {
-                    LoggerUtil.debug(logPrefix(username) + String.format(
-                        "Reached maxBurstFrames (%d), draining before next batch", maxBurstFrames));
-                    pacer.drainLimited(ctx, maxBurstFrames);
-                    enqueuedThisBatch = 0;
+                ByteBuf buf = ctx.alloc().buffer(framed.length);
+                try {
+                    buf.writeBytes(framed);
+                    pacer.enqueue(buf, label, trafficClass, !chunk.hasStreamId());
+                    enqueuedThisBatch++;
+
+                    // Trigger drain after each batch to prevent window overflow (Mac client fix)
+                    if (enqueuedThisBatch >= maxBurstFrames && index < chunks.size()) {
+                        LoggerUtil.debug(logPrefix(username) + String.format(
+                            "Reached maxBurstFrames (%d), draining before next batch", maxBurstFrames));
+                        pacer.drainLimited(ctx, maxBurstFrames);
+                        enqueuedThisBatch = 0;
+                    }
+                } finally {
+                    buf.release();
                 }
-            } finally {
-                buf.release();
             }
+        } finally {
+            pacer.endStream(trafficClass);
         }
     }
 }
-
-
@@ -11,7 +11,7 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 
 import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -24,22 +24,44 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *  - drainLimited() supports post-ACK micro-bursts.
  *  - onA4WindowOpenNoDrain() cancels heartbeat and avoids immediate drain.
  *  - Single instance reused for the whole connection; queues can be cleared via clearPending().
+ *  - One queue per {@link TrafficClass}: CONTROL goes first, INTERACTIVE and BULK share the
+ *    window by deficit round-robin (DRR) so a chat line is not stuck behind a DOD download.
+ *  - Frames marked as continuing a stream are sent back-to-back; no other INTERACTIVE/BULK
+ *    frame is interleaved until the stream's last frame is out.
  */
 public class Pacer {
 
 	private static final class FrameChunk {
 		final ByteBuf buffer;
 		final String label;
-		FrameChunk(ByteBuf buffer, String label) {
+		boolean continuesStream;
+		FrameChunk(ByteBuf buffer, String label, boolean continuesStream) {
 			this.buffer = buffer;
 			this.label = label;
+			this.continuesStream = continuesStream;
 		}
 	}
 
 	private static final int HEARTBEAT_TIMEOUT_SECONDS = 12;
 	private static final int HEARTBEAT_MAX_ATTEMPTS = 10;
 
-	private final Deque<FrameChunk> pending = new ArrayDeque<>();
+	// DRR quanta in bytes. Bulk gets about one max-size frame per round, interactive two,
+	// so an interactive frame waits for at most one bulk frame.
+	public static final int DEFAULT_INTERACTIVE_QUANTUM = 1024;
+	public static final int DEFAULT_BULK_QUANTUM = 512;
+
+	private static final TrafficClass[] CLASSES = TrafficClass.values();
+	private static final int CONTROL = TrafficClass.CONTROL.ordinal();
+
+	@SuppressWarnings("unchecked")
+	private final ArrayDeque<FrameChunk>[] queues = new ArrayDeque[CLASSES.length];
+	private final int[] quantum = new int[CLASSES.length];
+	private final int[] deficit = new int[CLASSES.length];
+	private int pendingCount = 0;
+	private int drrCurrent = TrafficClass.INTERACTIVE.ordinal();
+	private boolean drrTurnStarted = false;
+	// Class whose multi-frame stream is partly sent (-1 = none); only CONTROL may cut in
+	private int streamClass = -1;
 	private final AtomicBoolean needAck = new AtomicBoolean(false);
 	private final AtomicBoolean needResume = new AtomicBoolean(false);
 	private final SequenceManager sequenceManager;
@@ -73,6 +95,11 @@ public class Pacer {
 		this.verbose = verbose;
 		this.outboundHook = outboundHook;
 		this.username = username;
+		for (int i = 0; i < CLASSES.length; i++) {
+			queues[i] = new ArrayDeque<>();
+		}
+		quantum[TrafficClass.INTERACTIVE.ordinal()] = DEFAULT_INTERACTIVE_QUANTUM;
+		quantum[TrafficClass.BULK.ordinal()] = DEFAULT_BULK_QUANTUM;
 	}
 
 	private String logPrefix() {
@@ -81,7 +108,7 @@ public class Pacer {
 
 	// ======== 9B helpers used by handler ========
 	public void onA4WindowOpenNoDrain() {
-		LoggerUtil.debug(logPrefix() + "Short ACK (0xA4) received; NOT draining yet (deferred). Pending: " + pending.size());
+		LoggerUtil.debug(logPrefix() + "Short ACK (0xA4) received; NOT draining yet (deferred). Pending: " + pendingCount);
 		cancelHeartbeat();
 		heartbeatAttempts = 0;
 		needAck.set(false);
@@ -92,14 +119,46 @@ public class Pacer {
 	}
 
 	// ======== Queueing ========
-	/** FIFO enqueue. Caller must release their original buffer; pacer retains a copy. */
+	/** FIFO enqueue as INTERACTIVE. Caller must release their original buffer; pacer retains a copy. */
 	public void enqueue(ByteBuf frame, String label) {
-		pending.add(new FrameChunk(frame.retain(), label));
+		enqueue(frame, label, TrafficClass.INTERACTIVE, false);
+	}
+
+	/**
+	 * FIFO enqueue into a traffic class. Caller must release their original buffer; pacer retains a copy.
+	 *
+	 * @param frame frame to send
+	 * @param label debug label
+	 * @param trafficClass scheduling class
+	 * @param continuesStream true if the next frame of this class belongs to the same stream and
+	 *                        must follow this one with nothing else (except CONTROL) in between
+	 */
+	public void enqueue(ByteBuf frame, String label, TrafficClass trafficClass, boolean continuesStream) {
+		queues[trafficClass.ordinal()].add(new FrameChunk(frame.retain(), label,
+				continuesStream && trafficClass != TrafficClass.CONTROL));
+		pendingCount++;
 	}
 
-	/** Priority enqueue at head. */
+	/**
+	 * Mark the end of a stream enqueued with {@code continuesStream}: the last queued frame of
+	 * the class no longer holds other frames back. Safe to call when nothing is queued.
+	 *
+	 * @param trafficClass class the stream was enqueued into
+	 */
+	public void endStream(TrafficClass trafficClass) {
+		int cls = trafficClass.ordinal();
+		FrameChunk last = queues[cls].peekLast();
+		if (last != null) {
+			last.continuesStream = false;
+		} else if (streamClass == cls) {
+			streamClass = -1;
+		}
+	}
+
+	/** Priority enqueue at the head of the CONTROL class. */
 	public void enqueuePriority(ByteBuf frame, String label) {
-		pending.addFirst(new FrameChunk(frame.retain(), label));
+		queues[CONTROL].addFirst(new FrameChunk(frame.retain(), label, false));
+		pendingCount++;
 	}
 
 	/**
@@ -111,9 +170,21 @@ public class Pacer {
 	 * @param label debug label
 	 */
 	public void enqueueSafe(ChannelHandlerContext ctx, byte[] data, String label) {
+		enqueueSafe(ctx, data, label, TrafficClass.INTERACTIVE);
+	}
+
+	/**
+	 * Safely enqueue a single frame into a traffic class with automatic buffer management.
+	 *
+	 * @param ctx channel context for buffer allocation
+	 * @param data frame data to send
+	 * @param label debug label
+	 * @param trafficClass scheduling class
+	 */
+	public void enqueueSafe(ChannelHandlerContext ctx, byte[] data, String label, TrafficClass trafficClass) {
 		ByteBuf buf = ctx.alloc().buffer(data.length).writeBytes(data);
 		try {
-			enqueue(buf, label);
+			enqueue(buf, label, trafficClass, false);
 		} finally {
 			buf.release();
 		}
@@ -191,14 +262,20 @@ public class Pacer {
 
 	/** Drop all queued frames (used when switching sequences) without destroying the pacer. */
 	public void clearPending() {
-		while (!pending.isEmpty()) {
-			FrameChunk fc = pending.poll();
-			try {
-				if (fc != null && fc.buffer != null) fc.buffer.release();
-			} catch (Throwable t) {
-				LoggerUtil.warn(logPrefix() + "Failed to release buffer during clearPending: " + t.getMessage());
+		for (ArrayDeque<FrameChunk> queue : queues) {
+			while (!queue.isEmpty()) {
+				FrameChunk fc = queue.poll();
+				try {
+					if (fc != null && fc.buffer != null) fc.buffer.release();
+				} catch (Throwable t) {
+					LoggerUtil.warn(logPrefix() + "Failed to release buffer during clearPending: " + t.getMessage());
+				}
 			}
 		}
+		pendingCount = 0;
+		Arrays.fill(deficit, 0);
+		drrTurnStarted = false;
+		streamClass = -1;
 		needAck.set(false);
 		needResume.set(false);
 		cancelHeartbeat();
@@ -236,6 +313,79 @@ public class Pacer {
 		return interFrameDelayMs;
 	}
 
+	/**
+	 * Set the DRR quantum for INTERACTIVE or BULK: bytes the class may send per round.
+	 * The ratio between the two is their share of the window while both have frames queued.
+	 *
+	 * @param trafficClass INTERACTIVE or BULK (CONTROL is strict priority and has no quantum)
+	 * @param bytes quantum in bytes (minimum 1)
+	 */
+	public void setQuantum(TrafficClass trafficClass, int bytes) {
+		if (trafficClass == TrafficClass.CONTROL) {
+			throw new IllegalArgumentException("CONTROL frames are not scheduled by quantum");
+		}
+		quantum[trafficClass.ordinal()] = Math.max(1, bytes);
+	}
+
+	public int getQuantum(TrafficClass trafficClass) {
+		return quantum[trafficClass.ordinal()];
+	}
+
+	// ======== Scheduling ========
+	/**
+	 * Pick the class whose head frame goes next, without dequeuing it.
+	 * Repeated calls without {@link #pollNext(int)} return the same class.
+	 *
+	 * @return class ordinal, or -1 if nothing may be sent now
+	 */
+	private int selectNext() {
+		if (!queues[CONTROL].isEmpty()) {
+			return CONTROL;
+		}
+		if (streamClass >= 0) {
+			// Rest of a contiguous stream; hold everything else until it is out
+			return queues[streamClass].isEmpty() ? -1 : streamClass;
+		}
+		if (pendingCount == 0) {
+			return -1;
+		}
+		while (true) {
+			ArrayDeque<FrameChunk> queue = queues[drrCurrent];
+			if (queue.isEmpty()) {
+				deficit[drrCurrent] = 0;
+				advanceDrr();
+				continue;
+			}
+			if (!drrTurnStarted) {
+				deficit[drrCurrent] += quantum[drrCurrent];
+				drrTurnStarted = true;
+			}
+			if (deficit[drrCurrent] >= queue.peek().buffer.readableBytes()) {
+				return drrCurrent;
+			}
+			advanceDrr();
+		}
+	}
+
+	private void advanceDrr() {
+		drrTurnStarted = false;
+		drrCurrent = drrCurrent + 1 < CLASSES.length ? drrCurrent + 1 : CONTROL + 1;
+	}
+
+	/** Dequeue the head frame selected by {@link #selectNext()} and charge its class. */
+	private FrameChunk pollNext(int cls) {
+		FrameChunk chunk = queues[cls].poll();
+		pendingCount--;
+		if (cls != CONTROL) {
+			deficit[cls] -= chunk.buffer.readableBytes();
+			streamClass = chunk.continuesStream ? cls : -1;
+			if (queues[cls].isEmpty() && streamClass < 0) {
+				deficit[cls] = 0;
+			}
+		}
+		return chunk;
+	}
+
 	// ======== Draining ========
 	/** Full drain (until window/backpressure stops us). */
 	public void drain(ChannelHandlerContext ctx) {
@@ -249,10 +399,10 @@ public class Pacer {
 
 	private void drainInternal(ChannelHandlerContext ctx, int maxDataFrames) {
 		if (isDrainsDeferred()) {
-			LoggerUtil.debug(logPrefix() + "Drain DEFERRED - frames NOT sent | pending=" + pending.size() + " | reason=drainsDeferred");
+			LoggerUtil.debug(logPrefix() + "Drain DEFERRED - frames NOT sent | pending=" + pendingCount + " | reason=drainsDeferred");
 			return;
 		}
-		if (pending.isEmpty()) return;
+		if (pendingCount == 0) return;
 
 		// CRITICAL FIX: Check window BEFORE starting drain, not just per-frame.
 		// Without this, multiple drainLimited() calls could each send 8+ frames,
@@ -262,7 +412,7 @@ public class Pacer {
 			// Already at or beyond throttle threshold - don't send anything
 			LoggerUtil.debug(logPrefix() + String.format(
 				"Drain BLOCKED - already at throttle threshold | outstanding=%d/16 | pending=%d",
-				preCheckOutstanding, pending.size()));
+				preCheckOutstanding, pendingCount));
 			if (!needAck.get()) {
 				needAck.set(true);
 				scheduleHeartbeatIfNeeded(ctx);
@@ -286,20 +436,20 @@ public class Pacer {
 		boolean channelWritable = ctx.channel().isWritable();
 
 		if (!channelActive) {
-			LoggerUtil.error(logPrefix() + "Channel INACTIVE - cannot send | pending=" + pending.size());
+			LoggerUtil.error(logPrefix() + "Channel INACTIVE - cannot send | pending=" + pendingCount);
 			return;
 		}
 
 		if (!channelWritable) {
 			long bytesBeforeWritable = ctx.channel().bytesBeforeWritable();
-			LoggerUtil.warn(logPrefix() + "Channel NOT writable - backpressure detected | pending=" + pending.size() + " | needToFlush=" + bytesBeforeWritable + " bytes");
+			LoggerUtil.warn(logPrefix() + "Channel NOT writable - backpressure detected | pending=" + pendingCount + " | needToFlush=" + bytesBeforeWritable + " bytes");
 			return;
 		}
 
 		if (verbose) {
-			int pendingCount = pending.size();
+			int queued = pendingCount;
 			int finalEffectiveMax = effectiveMaxFrames;
-			LoggerUtil.debug(() -> logPrefix() + "Starting drain | pending=" + pendingCount +
+			LoggerUtil.debug(() -> logPrefix() + "Starting drain | pending=" + queued +
 				" | maxDataFrames=" + maxDataFrames + " | effectiveMax=" + finalEffectiveMax);
 		}
 
@@ -307,17 +457,22 @@ public class Pacer {
 		int burstBytes = 0;
 		boolean hitWindowLimit = false;
 
-		while (!pending.isEmpty() && ctx.channel().isWritable()) {
+		while (pendingCount > 0 && ctx.channel().isWritable()) {
 			// Enforce batch limit using effectiveMaxFrames (already capped by throttle threshold)
 			if (framesSent >= effectiveMaxFrames) {
 				LoggerUtil.debug(String.format(
 					logPrefix() + "Batch limit reached: %d/%d DATA frames sent (capped by throttle), pausing drain. Remaining pending: %d",
-					framesSent, effectiveMaxFrames, pending.size()));
+					framesSent, effectiveMaxFrames, pendingCount));
 				hitWindowLimit = true;  // Trigger ACK wait so remaining frames get sent after ACK
 				break;
 			}
 
-			FrameChunk chunk = pending.peek();
+			int cls = selectNext();
+			if (cls < 0) {
+				// Only the rest of a partly sent stream may go next, and it is not queued yet
+				break;
+			}
+			FrameChunk chunk = queues[cls].peek();
 			int sz = chunk.buffer.readableBytes();
 
 			// Peek type
@@ -354,7 +509,7 @@ public class Pacer {
 			if (isData && outstanding >= 8 && availableSlots <= 8) {
 				LoggerUtil.debug(String.format(
 					logPrefix() + "Throttling at %d/16 (50%% capacity) to allow client ACK time | pending=%d",
-					outstanding, pending.size()));
+					outstanding, pendingCount));
 				hitWindowLimit = true;
 				break;
 			}
@@ -453,12 +608,12 @@ public class Pacer {
 				}
 			}
 
-			pending.poll();
+			pollNext(cls);
 			burstBytes += sz;
 			chunk.buffer.release();
 
 			// Apply inter-frame delay if configured (helps slow clients keep up)
-			if (interFrameDelayMs > 0 && isData && !pending.isEmpty()) {
+			if (interFrameDelayMs > 0 && isData && pendingCount > 0) {
 				try {
 					Thread.sleep(interFrameDelayMs);
 				} catch (InterruptedException e) {
@@ -473,7 +628,7 @@ public class Pacer {
 
 		LoggerUtil.debug(String.format(
 			logPrefix() + "Drain complete | dataFrames=%d | totalBytes=%d | remaining=%d | outstanding=%d/16 | channelWritable=%s",
-			framesSent, burstBytes, pending.size(), outstandingNow, ctx.channel().isWritable()));
+			framesSent, burstBytes, pendingCount, outstandingNow, ctx.channel().isWritable()));
 
 		// Check for window violation after drain
 		if (outstandingNow > 0x10) {
@@ -483,18 +638,18 @@ public class Pacer {
 				outstandingNow, framesSent));
 		}
 
-		if ((hitWindowLimit || (outstandingNow >= 0x10 && !pending.isEmpty()))) {
+		if ((hitWindowLimit || (outstandingNow >= 0x10 && pendingCount > 0))) {
 			needAck.set(true);
 			LoggerUtil.debug(logPrefix() + "Window limit reached (" + outstandingNow + "/16 DATA outstanding). Waiting for ACK");
 			scheduleHeartbeatIfNeeded(ctx);
-		} else if (!pending.isEmpty() && !ctx.channel().isWritable()) {
+		} else if (pendingCount > 0 && !ctx.channel().isWritable()) {
 			needResume.set(true);
 			LoggerUtil.debug(logPrefix() + "Backpressure detected, will resume when writable");
 		}
 	}
 
 	public boolean isComplete() {
-		return pending.isEmpty() && !needAck.get();
+		return pendingCount == 0 && !needAck.get();
 	}
 
 	/** Are we throttled waiting for client ACK? */
@@ -502,12 +657,17 @@ public class Pacer {
 
 	/** True if there are unsent frames in the queue. */
 	public boolean hasPending() {
-		return !pending.isEmpty();
+		return pendingCount > 0;
 	}
 
 	/** Get pending queue size for logging/diagnostics. */
 	public int getPendingCount() {
-		return pending.size();
+		return pendingCount;
+	}
+
+	/** Get pending queue size of one traffic class. */
+	public int getPendingCount(TrafficClass trafficClass) {
+		return queues[trafficClass.ordinal()].size();
 	}
 
 	/** Piggyback ACK inside a full frame freed slots. */
@@ -540,6 +700,18 @@ public class Pacer {
 		}, HEARTBEAT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
 	}
 
+	/**
+	 * Send a heartbeat now, ahead of queued frames, to prompt the client for an ACK.
+	 * Used for stall recovery when the window has been full for too long.
+	 */
+	public void sendHeartbeat(ChannelHandlerContext ctx) {
+		byte[] hb = buildHeartbeat();
+		if (hb != null) {
+			enqueuePrioritySafe(ctx, hb, "STALL_HEARTBEAT");
+			drain(ctx);
+		}
+	}
+
 	private void cancelHeartbeat() {
 		if (heartbeatFuture != null) {
 			heartbeatFuture.cancel(false);
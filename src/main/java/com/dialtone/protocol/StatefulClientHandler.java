@@ -40,6 +40,7 @@ import com.dialtone.protocol.xfer.XferTransferRegistry;
 import com.dialtone.protocol.xfer.XferUploadRegistry;
 import com.dialtone.protocol.xfer.XferUploadService;
 import com.dialtone.state.SequenceManager;
+import com.dialtone.state.StallMonitor;
 import com.dialtone.storage.FileStorage;
 import com.dialtone.storage.StorageFactory;
 import com.dialtone.utils.LoggerUtil;
@@ -249,6 +250,32 @@ public class StatefulClientHandler extends ChannelInboundHandlerAdapter {
         ctx.channel().attr(XFER_REGISTRY_KEY).set(xferRegistry);
         ctx.channel().attr(XFER_UPLOAD_REGISTRY_KEY).set(xferUploadRegistry);
         ctx.channel().attr(HANDLER_KEY).set(this);
+
+        // Stall checks run on the shared stall wheel; recovery happens on this channel's event loop
+        sequenceManager.setStallHandler((stalledMs, checks) ->
+                ctx.executor().execute(() -> recoverFromStall(ctx, stalledMs)));
+    }
+
+    /**
+     * Apply the configured stall recovery: a heartbeat to prompt the client for an ACK,
+     * and closing the connection once it has been stalled for too long.
+     */
+    private void recoverFromStall(ChannelHandlerContext ctx, long stalledMs) {
+        if (!ctx.channel().isActive()) {
+            return;
+        }
+        StallMonitor monitor = StallMonitor.getInstance();
+        long disconnectAfterMs = monitor.getDisconnectAfterMs();
+        if (disconnectAfterMs > 0 && stalledMs >= disconnectAfterMs) {
+            LoggerUtil.warn(prefix() + "Closing connection: send window stalled for " + stalledMs + "ms");
+            monitor.onStallDisconnect();
+            ctx.close();
+            return;
+        }
+        if (monitor.isHeartbeatRecovery()) {
+            pacer.sendHeartbeat(ctx);
+            monitor.onRecoveryHeartbeat();
+        }
     }
 
     @Override
@@ -294,6 +321,7 @@ public class StatefulClientHandler extends ChannelInboundHandlerAdapter {
         pacer.close();
 
         // Sequence cleanup
+        sequenceManager.setStallHandler(null);
         sequenceManager.cleanupStallDetection();
 
         // Compiler cleanup
@@ -929,6 +957,23 @@ public class StatefulClientHandler extends ChannelInboundHandlerAdapter {
     private static void configurePacerFromProperties(Pacer pacer, Properties props) {
         int interFrameDelay = Integer.parseInt(props.getProperty("pacer.inter.frame.delay.ms", "0"));
         pacer.setInterFrameDelayMs(interFrameDelay);
+        pacer.setQuantum(TrafficClass.INTERACTIVE,
+                quantumProperty(props, "pacer.quantum.interactive.bytes", Pacer.DEFAULT_INTERACTIVE_QUANTUM));
+        pacer.setQuantum(TrafficClass.BULK,
+                quantumProperty(props, "pacer.quantum.bulk.bytes", Pacer.DEFAULT_BULK_QUANTUM));
+    }
+
+    private static int quantumProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LoggerUtil.warn("Invalid " + key + " value: " + value + ", using default: " + defaultValue);
+            return defaultValue;
+        }
     }
 
     private static String getDbPath(Properties props) {
@@ -55,7 +55,7 @@ import java.io.ByteArrayOutputStream;
  * after method return (standard Netty pattern). No defensive copying is performed.
  *
  * @author Claude Code
- * @see com.dialtone.protocol.stream.MultiFrameStreamAccumulator
+ * @see MultiFrameStreamAccumulator
  */
 public class TcpFrameAccumulator {
 
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.protocol;
+
+/**
+ * Outbound scheduling class of a queued frame (see {@link Pacer}).
+ *
+ * <p>CONTROL is always sent first. INTERACTIVE and BULK share the remaining window
+ * slots by deficit round-robin, so a chat line or IM waits at most for one bulk
+ * frame rather than for a whole DOD or XFER transfer.</p>
+ */
+public enum TrafficClass {
+
+    /** ACKs, heartbeats, 9B echoes and other short protocol control frames. */
+    CONTROL,
+
+    /** Chat, IMs, keyword responses and anything else a user is waiting to see. */
+    INTERACTIVE,
+
+    /** DOD art/form downloads and XFER file data. */
+    BULK
+}
@@ -22,13 +22,17 @@ import com.dialtone.protocol.Pacer;
 import com.dialtone.protocol.SessionContext;
 import com.dialtone.protocol.core.TokenHandler;
 import com.dialtone.protocol.dod.DodRequestHandler;
+import com.dialtone.ratelimit.RateLimiters;
+import com.dialtone.server.AdmissionController;
 import com.dialtone.ai.UnifiedNewsService;
 import com.dialtone.auth.UserRegistry;
 import com.dialtone.utils.LoggerUtil;
 import io.netty.channel.ChannelHandlerContext;
 
+import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handles login-related tokens: Dd (login), Dg (guest login), ]K (preload).
@@ -116,6 +120,9 @@ public class LoginTokenHandler implements TokenHandler {
             LoginCredentials credentials = extractLoginCredentials(ddFrame);
             byte[] uiInit = com.dialtone.aol.core.Hex.hexToBytes("5A4AAA000B121020615420010112000D");
             pacer.enqueueSafe(ctx, uiInit, "LOGIN_INIT");
+            if (isServerBusy(ctx)) {
+                return;
+            }
             // Check for Windows guest login flow
             if (credentials.username().equalsIgnoreCase("Guest")) {
 
@@ -124,6 +131,11 @@ public class LoginTokenHandler implements TokenHandler {
                 return;
             }
 
+            if (isLoginThrottled(ctx, credentials.username())) {
+                handleAuthenticationFailure(ctx);
+                return;
+            }
+
             // Use FallbackAuthenticator with full result info
             AuthResult authResult = authenticator.authenticateWithResult(
                     credentials.username(), credentials.password());
@@ -212,6 +224,14 @@ public class LoginTokenHandler implements TokenHandler {
             LoginCredentials credentials = extractLoginCredentials(dgFrame);
             // Credentials are already trimmed in extractLoginCredentials()
 
+            if (isServerBusy(ctx)) {
+                return;
+            }
+            if (isLoginThrottled(ctx, credentials.username())) {
+                handleAuthenticationFailure(ctx);
+                return;
+            }
+
             // Use FallbackAuthenticator with full result info
             AuthResult authResult = authenticator.authenticateWithResult(
                     credentials.username(), credentials.password());
@@ -289,6 +309,47 @@ public class LoginTokenHandler implements TokenHandler {
         }
     }
 
+    /**
+     * Refuse the login while the server is overloaded: the client is told the system is busy
+     * and disconnected, so the work of signing it on is spared for sessions already online.
+     *
+     * @return true if this login was refused
+     */
+    private boolean isServerBusy(ChannelHandlerContext ctx) {
+        if (AdmissionController.getInstance().tryAdmitLogin()) {
+            return false;
+        }
+        LoggerUtil.warn(logPrefix + "Server busy - refusing login from " + ctx.channel().remoteAddress());
+        disconnectHandler.handleDisconnect(ctx, AdmissionController.BUSY_MESSAGE);
+        // Give the logout FDO time to reach the client before closing
+        ctx.channel().eventLoop().schedule(() -> {
+            ctx.close();
+        }, 2, TimeUnit.SECONDS);
+        return true;
+    }
+
+    /**
+     * Apply the per-IP and per-screenname login limits before any password is checked.
+     *
+     * @return true if this attempt must be refused
+     */
+    private boolean isLoginThrottled(ChannelHandlerContext ctx, String username) {
+        RateLimiters limiters = RateLimiters.getInstance();
+        String ip = ctx.channel().remoteAddress() instanceof InetSocketAddress address && address.getAddress() != null
+                ? address.getAddress().getHostAddress()
+                : null;
+
+        if (!limiters.tryAcquire(RateLimiters.LOGIN_IP, ip)) {
+            LoggerUtil.warn(logPrefix + "Login rate limit exceeded for IP " + ip);
+            return true;
+        }
+        if (!limiters.tryAcquire(RateLimiters.LOGIN_SCREENNAME, username.toLowerCase())) {
+            LoggerUtil.warn(logPrefix + "Login rate limit exceeded for screenname: " + username);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Handle ]K (preload) token - welcome screen initialization.
      */
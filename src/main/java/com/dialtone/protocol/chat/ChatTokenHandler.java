@@ -4,18 +4,25 @@
 
 package com.dialtone.protocol.chat;
 
+import com.dialtone.chat.ActiveChatRoom;
 import com.dialtone.chat.ChatRoom;
+import com.dialtone.chat.ChatRoomManager;
 import com.dialtone.chat.bot.ChatBotRegistry;
 import com.dialtone.chat.bot.ChatContext;
+import com.dialtone.chat.bot.PacedPartDispatcher;
 import com.dialtone.chat.fdo.ChatRoomFdoBuilder;
 import com.dialtone.fdo.FdoChunk;
 import com.dialtone.fdo.FdoCompiler;
 import com.dialtone.fdo.FdoProcessor;
+import com.dialtone.fdo.FdoStreamExtractor;
+import com.dialtone.fdo.dsl.RenderingContext;
 import com.dialtone.fdo.dsl.builders.NoopFdoBuilder;
+import com.dialtone.protocol.MultiFrameStreamAccumulator;
 import com.dialtone.protocol.MultiFrameStreamProcessor;
 import com.dialtone.protocol.P3ChunkEnqueuer;
 import com.dialtone.protocol.Pacer;
 import com.dialtone.protocol.SessionContext;
+import com.dialtone.protocol.TrafficClass;
 import com.dialtone.protocol.core.TokenHandler;
 import com.dialtone.protocol.chat.ChatFrameBuilder;
 import com.dialtone.auth.UserRegistry;
@@ -42,12 +49,13 @@ public class ChatTokenHandler implements TokenHandler {
     private final FdoProcessor fdoProcessor;
     private final UserRegistry userRegistry;
     private final ChatBotRegistry botRegistry;
+    private final ChatRoomManager chatRooms;
     private final Properties properties;
     private final String logPrefix;
     private final ChatFrameBuilder chatFrameBuilder;
 
-    // Multi-frame Aa accumulation: Keyed by Stream ID to track incomplete chat message streams.
-    private final Map<Integer, List<byte[]>> pendingAaStreams = new ConcurrentHashMap<>();
+    // Multi-frame Aa reassembly: Keyed by Stream ID to track incomplete chat message streams.
+    private final MultiFrameStreamAccumulator aaStreams = new MultiFrameStreamAccumulator("Aa");
 
     // Chat Open (CO) timeout tracking: Maps username to scheduled timeout task.
     private final Map<String, ScheduledFuture<?>> pendingChatOpenTimeouts = new ConcurrentHashMap<>();
@@ -78,6 +86,7 @@ public class ChatTokenHandler implements TokenHandler {
         this.fdoProcessor = fdoProcessor;
         this.userRegistry = userRegistry;
         this.botRegistry = botRegistry;
+        this.chatRooms = ChatRoomManager.getInstance();
         this.properties = properties;
         this.logPrefix = "[" + (session.getDisplayName() != null ? session.getDisplayName() : "unknown") + "] ";
         this.chatFrameBuilder = new ChatFrameBuilder(logPrefix);
@@ -123,6 +132,17 @@ public class ChatTokenHandler implements TokenHandler {
         return new String(new byte[]{frame[8], frame[9]}, StandardCharsets.US_ASCII);
     }
 
+    /**
+     * Room named by a CJ (Chat Join) frame's de_data, or null for the default room.
+     */
+    private String extractRequestedRoom(byte[] in) {
+        if (!"CJ".equals(extractToken(in))) {
+            return null;
+        }
+        String name = FdoStreamExtractor.extractFirstDeData(FdoStreamExtractor.stripP3Header(in));
+        return name != null && !name.isBlank() ? name : null;
+    }
+
     /**
      * Handle Aa (chat message) token with multi-frame support.
      */
@@ -132,84 +152,51 @@ public class ChatTokenHandler implements TokenHandler {
             int streamId = MultiFrameStreamProcessor.extractStreamId(in);
             LoggerUtil.debug(() -> logPrefix + String.format("Aa frame with Stream ID: 0x%04X", streamId));
 
-            // Check if this frame has uni_end_stream (signals completion)
-            if (MultiFrameStreamProcessor.isUniEndStream(in, fdoCompiler)) {
-                LoggerUtil.debug(() -> logPrefix + String.format("Aa with uni_end_stream for Stream ID 0x%04X", streamId));
-
-                // Check if we have accumulated data for this stream
-                List<byte[]> accumulatedFrames = pendingAaStreams.get(streamId);
-
-                // Log multi-frame status at DEBUG
-                if (accumulatedFrames != null && !accumulatedFrames.isEmpty()) {
-                    LoggerUtil.debug(() -> logPrefix + String.format("Multi-frame Aa: %d accumulated + 1 final = %d total for Stream 0x%04X",
-                            accumulatedFrames.size(), accumulatedFrames.size() + 1, streamId));
+            // Append to this stream; completes on uni_end_stream
+            String chatMessage;
+            try (MultiFrameStreamAccumulator.CompletedStream stream = aaStreams.append(streamId, in)) {
+                if (stream == null) {
+                    // No uni_end_stream: this is part of multi-frame sequence
+                    LoggerUtil.debug(() -> logPrefix + String.format("Aa fragment for Stream ID 0x%04X (waiting for uni_end_stream)", streamId));
+                    return;
                 }
 
-                String chatMessage;
-                if (accumulatedFrames != null && !accumulatedFrames.isEmpty()) {
-                    // Multi-frame: combine ALL frames (accumulated + final) and extract message
-                    List<byte[]> allFrames = new ArrayList<>(accumulatedFrames);
-                    allFrames.add(in);  // Add final frame with uni_end_stream
-
-                    // Extract message from ALL frames combined using shared utility
-                    chatMessage = MultiFrameStreamProcessor.extractDeDataFromMultiFrame(allFrames, fdoCompiler, "Aa");
-
-                    // Clear accumulation for this stream
-                    pendingAaStreams.remove(streamId);
-                } else {
-                    // Single-frame: extract de_data using shared utility
-                    LoggerUtil.debug(() -> logPrefix + "Single-frame Aa (has uni_end_stream)");
-                    chatMessage = MultiFrameStreamProcessor.extractDeDataFromSingleFrame(in, fdoCompiler, "Aa");
-                }
+                // Log multi-frame status at DEBUG
+                LoggerUtil.debug(() -> logPrefix + String.format("Aa with uni_end_stream: %d frame(s), %d bytes for Stream 0x%04X",
+                        stream.getFrameCount(), stream.getPayload().readableBytes(), streamId));
 
-                // Broadcast the message
-                String senderUsername = session.getUsername();
+                // Extract message from the reassembled stream using shared utility
+                chatMessage = MultiFrameStreamProcessor.extractDeDataFromPayload(stream.toByteArray(), "Aa");
+            }
 
-                // Get sender's global chat tag for AA echo frame
-                int senderTag = userRegistry != null ? userRegistry.getGlobalChatTag(senderUsername) : -1;
-                if (senderTag == -1) {
-                    LoggerUtil.warn(logPrefix + "Could not get sender's global tag for AA echo - user may not be in chat");
-                    return; // Skip echo if tag not available
-                }
+            // Broadcast the message
+            String senderUsername = session.getUsername();
 
-                // Build AA frame with sender's mat_relative_tag
-                // SAME frame goes to both sender (echo) and all recipients (broadcast)
-                byte[] chatFrame = buildChatMessageMatRelativeId(chatMessage, senderTag);
+            // Get sender's room and room tag for AA echo frame
+            ActiveChatRoom room = chatRooms.roomOf(senderUsername);
+            int senderTag = room != null ? room.getTag(senderUsername) : ActiveChatRoom.NO_TAG;
+            if (senderTag == ActiveChatRoom.NO_TAG) {
+                LoggerUtil.warn(logPrefix + "Could not get sender's room tag for AA echo - user may not be in chat");
+                return; // Skip echo if tag not available
+            }
 
-                // Broadcast to all users in chat room
-                if (userRegistry != null) {
-                    List<UserRegistry.UserConnection> connections = userRegistry.getAllConnections();
+            // Build AA frame with sender's mat_relative_tag
+            // SAME frame goes to both sender (echo) and all recipients (broadcast)
+            byte[] chatFrame = buildChatMessageMatRelativeId(chatMessage, senderTag);
 
-                    // Queue AA frame to sender's Pacer (echo)
-                    pacer.enqueuePrioritySafe(ctx, chatFrame, "AA_ECHO");
+            // Queue AA frame to sender's Pacer (echo)
+            pacer.enqueueSafe(ctx, chatFrame, "AA_ECHO", TrafficClass.INTERACTIVE);
 
-                    // Broadcast SAME AA frame to OTHER users
-                    broadcastChatMessageAndDrain(chatFrame, "AA_CHAT", connections, senderUsername);
+            // Broadcast SAME AA frame to the OTHER members of the sender's room
+            ActiveChatRoom.BroadcastResult result =
+                    broadcastChatMessageAndDrain(chatFrame, "AA_CHAT", room, senderUsername);
 
-                    // Process message through bot registry for potential bot responses
-                    processBotResponses(chatMessage, senderUsername, connections);
+            // Process message through bot registry for potential bot responses
+            processBotResponses(chatMessage, senderUsername, room);
 
-                    // Log chat message at INFO level (functional analytics)
-                    LoggerUtil.info(String.format("[CHAT] message sent | user:%s | length:%d | recipients:%d",
-                            senderUsername, chatMessage.length(), connections.size() - 1));
-                } else {
-                    // Fallback to echo if UserRegistry not available
-                    pacer.enqueuePrioritySafe(ctx, chatFrame, "AA_ECHO");
-                    LoggerUtil.debug(() -> logPrefix + "Echo frame queued (no UserRegistry)");
-                }
-            } else {
-                // No uni_end_stream: this is part of multi-frame sequence
-                LoggerUtil.debug(() -> logPrefix + String.format("Aa fragment for Stream ID 0x%04X (waiting for uni_end_stream)", streamId));
-
-                // Accumulate this frame for this Stream ID
-                pendingAaStreams.computeIfAbsent(streamId, k -> new ArrayList<>()).add(
-                        Arrays.copyOf(in, in.length)
-                );
-
-                // Log accumulation state at DEBUG
-                LoggerUtil.debug(() -> logPrefix + String.format("Accumulated Aa frames: Stream 0x%04X now has %d frame(s)",
-                        streamId, pendingAaStreams.get(streamId).size()));
-            }
+            // Log chat message at INFO level (functional analytics)
+            LoggerUtil.info(String.format("[CHAT] message sent | user:%s | room:%s | length:%d | recipients:%d",
+                    senderUsername, room.getName(), chatMessage.length(), result.sent() + result.deferred()));
         } catch (Exception e) {
             // Enhanced exception logging with full stack trace and context
             LoggerUtil.error(logPrefix + String.format(
@@ -230,52 +217,68 @@ public class ChatTokenHandler implements TokenHandler {
 
     /**
      * Handle ME/CJ (Chat Now) token - user wants to join chat room.
+     * CJ may name a room in its de_data; ME and CJ without a name open the default room.
      */
     public void handleMeChatNow(ChannelHandlerContext ctx, byte[] in) {
         try {
-            // Step 1: Build chat room with ALL members INCLUDING joining user
-            // NOTE: User is NOT marked as inChat yet - waiting for CO (Chat Open) confirmation
+            String joiningUsername = session.getUsername();
+            String requestedRoom = extractRequestedRoom(in);
+
+            // Switching rooms (ME and unnamed CJ target the default room): leave the current
+            // one first so its members see the departure
+            ActiveChatRoom current = chatRooms.roomOf(joiningUsername);
+            if (current != null && !current.getName().equalsIgnoreCase(chatRooms.resolveRoomName(requestedRoom))) {
+                processChatDeparture();
+            }
+
+            // Step 1: Reserve the joining user's tag in the room
+            // NOTE: User is NOT a member yet - waiting for CO (Chat Open) confirmation
             // The joining user will see themselves in the FDO, other users will get CA later
-            ChatRoom chatRoom = new ChatRoom("Dialtone Lobby");
+            ActiveChatRoom room = chatRooms.enter(joiningUsername, requestedRoom);
+            if (room == null) {
+                LoggerUtil.error(logPrefix + "Chat room '" + chatRooms.resolveRoomName(requestedRoom)
+                        + "' is full - cannot join");
+                return;
+            }
+            int joiningUserTag = room.getTag(joiningUsername);
+
+            // Step 2: Build chat room with ALL members INCLUDING joining user
+            ChatRoom chatRoom = new ChatRoom(room.getName());
             Map<String, Integer> userTagMap = new HashMap<>();
 
             // Step 2a: Add all bots to the room
             List<com.dialtone.chat.bot.VirtualUser> bots = botRegistry.getActiveBots();
             for (com.dialtone.chat.bot.VirtualUser bot : bots) {
+                int botTag = chatRooms.assignBotTag(bot.getUsername(), room);
+                if (botTag == ActiveChatRoom.NO_TAG) {
+                    LoggerUtil.warn(logPrefix + "No free tag for bot '" + bot.getUsername() + "' - skipping");
+                    continue;
+                }
                 chatRoom.addUser(bot.getUsername());
-                int botTag = userRegistry.assignGlobalChatTag(bot.getUsername());
                 userTagMap.put(bot.getUsername(), botTag);
                 LoggerUtil.debug(logPrefix + "Added bot '" + bot.getUsername() + "' to chat room FDO with tag " + botTag);
             }
 
-            // Step 2b: Add all existing human users to the room
-            List<UserRegistry.UserConnection> existingMembers = userRegistry.getOrderedChatMembers();
+            // Step 2b: Add existing members from the room's snapshot (already in join order)
             int existingUserCount = 0;
-            for (UserRegistry.UserConnection member : existingMembers) {
-                // Get the user's global tag
-                int memberTag = userRegistry.getGlobalChatTag(member.getUsername());
-                if (memberTag == -1) {
-                    LoggerUtil.warn(logPrefix + "Could not get global tag for user '" + member.getUsername() + "' - skipping");
+            for (ActiveChatRoom.Member member : room.getMembers()) {
+                if (member.username().equalsIgnoreCase(joiningUsername)) {
                     continue;
                 }
-                // Add to room and tag map
-                chatRoom.addUser(member.getUsername());
-                userTagMap.put(member.getUsername(), memberTag);
-                LoggerUtil.debug(logPrefix + "Added user '" + member.getUsername() + "' to chat room FDO with tag " + memberTag);
+                chatRoom.addUser(member.username());
+                userTagMap.put(member.username(), member.tag());
+                LoggerUtil.debug(logPrefix + "Added user '" + member.username() + "' to chat room FDO with tag " + member.tag());
                 existingUserCount++;
             }
 
             // Step 2c: Add joining user to the room (they will see themselves in the FDO)
-            String joiningUsername = session.getUsername();
-            int joiningUserTag = userRegistry.assignGlobalChatTag(joiningUsername);
             chatRoom.addUser(joiningUsername);
             userTagMap.put(joiningUsername, joiningUserTag);
             LoggerUtil.debug(logPrefix + "Added joining user '" + joiningUsername + "' to chat room FDO with tag " + joiningUserTag);
 
             // Step 3: Compile chat room FDO with ALL members including joining user (uses tag map for correct tags)
             ChatRoomFdoBuilder builder = new ChatRoomFdoBuilder(chatRoom, session.getDisplayName(), userTagMap);
-            String fdoSource = builder.toSource();
-            List<FdoChunk> chunks = fdoCompiler.compileFdoScriptToP3Chunks(fdoSource, "at", 0x2A);
+            List<FdoChunk> chunks = fdoCompiler.compileTemplateToP3Chunks(builder, RenderingContext.DEFAULT, "at", 0x2A);
 
             // Log P3 compilation stats
             int totalBytes = chunks.stream().mapToInt(c -> c.getBinaryData().length).sum();
@@ -303,8 +306,7 @@ public class ChatTokenHandler implements TokenHandler {
             // Store timeout task so CO handler can cancel it
             pendingChatOpenTimeouts.put(username.toLowerCase(), timeoutTask);
 
-            LoggerUtil.info("fdo source: " + fdoSource);
-            LoggerUtil.info(logPrefix + "Sent chat room FDO with " + bots.size() + " bot(s) + " +
+            LoggerUtil.info(logPrefix + "Sent chat room '" + room.getName() + "' FDO with " + bots.size() + " bot(s) + " +
                     existingUserCount + " existing user(s) + self - waiting for CO confirmation");
 
         } catch (com.dialtone.fdo.spi.FdoCompilationException ex) {
@@ -333,31 +335,36 @@ public class ChatTokenHandler implements TokenHandler {
                 LoggerUtil.warn(logPrefix + "No pending CO timeout found for user - may have already timed out");
             }
 
-            // Step 2: Mark user as in chat (captures join timestamp and assigns global tag)
+            // Step 2: Mark user as in chat and add them to the room's member list
             UserRegistry.UserConnection connection = userRegistry.getConnection(username);
             if (connection == null) {
                 LoggerUtil.error(logPrefix + "CO received but user not found in registry - cannot complete chat join");
                 return;
             }
-            connection.setInChat(true);
-            LoggerUtil.debug(logPrefix + "User marked as inChat - join timestamp captured");
-
-            // Step 3: Get user's global tag and build CA frame
-            int selfGlobalTag = userRegistry.getGlobalChatTag(username);
-            if (selfGlobalTag == -1) {
-                LoggerUtil.error(logPrefix + "Failed to get global tag for user after setInChat - CA broadcast skipped");
+            ActiveChatRoom room = chatRooms.roomOf(username);
+            if (room == null) {
+                LoggerUtil.error(logPrefix + "CO received without a pending chat join - cannot complete chat join");
                 return;
             }
-            byte[] selfCaFrame = buildChatArrivalFrame(username, selfGlobalTag);
+            ActiveChatRoom.Member member = room.join(connection);
+            if (member == null) {
+                LoggerUtil.error(logPrefix + "Failed to get room tag for user - CA broadcast skipped");
+                return;
+            }
+            connection.setInChat(true);
+            LoggerUtil.debug(logPrefix + "User joined room '" + room.getName() + "' - join timestamp captured");
+
+            // Step 3: Build CA frame with the user's room tag
+            byte[] selfCaFrame = buildChatArrivalFrame(username, member.tag());
 
-            // Step 4: Broadcast CA to all other users in chat (excluding self - they saw themselves in FDO)
-            userRegistry.broadcastToUsersInChatExcept(selfCaFrame, "CA_BROADCAST", username);
-            LoggerUtil.info(logPrefix + "Broadcast CA (tag=" + selfGlobalTag + ") to other users in chat (excluded self)");
+            // Step 4: Broadcast CA to the other room members (excluding self - they saw themselves in FDO)
+            broadcastChatMessageAndDrain(selfCaFrame, "CA_BROADCAST", room, username);
+            LoggerUtil.info(logPrefix + "Broadcast CA (tag=" + member.tag() + ") to other members of '" + room.getName() + "'");
 
             // Step 5: Notify bots that user joined
             List<com.dialtone.chat.bot.VirtualUser> bots = botRegistry.getActiveBots();
             for (com.dialtone.chat.bot.VirtualUser bot : bots) {
-                bot.onJoinChatRoom("Dialtone Lobby");
+                bot.onJoinChatRoom(room.getName());
             }
             LoggerUtil.debug(logPrefix + "Notified " + bots.size() + " bot(s) of user join");
 
@@ -402,27 +409,25 @@ public class ChatTokenHandler implements TokenHandler {
             return false;
         }
 
-        // Get user's global tag BEFORE marking them as out of chat (tag gets removed when leaving)
-        int userTag = userRegistry.getGlobalChatTag(username);
-        if (userTag == -1) {
-            LoggerUtil.debug(logPrefix + "Chat departure skipped - user not in chat (no global tag)");
+        // Leave the room first: releases the tag and removes the user from the member list
+        ChatRoomManager.Departure departure = chatRooms.leave(username);
+        if (departure == null || departure.tag() == ActiveChatRoom.NO_TAG) {
+            LoggerUtil.debug(logPrefix + "Chat departure skipped - user not in chat (no room tag)");
             return false;
         }
 
-        // Update user's inChat status (this will remove their global tag)
+        // Update user's inChat status
         UserRegistry.UserConnection connection = userRegistry.getConnection(username);
         if (connection != null) {
             connection.setInChat(false);
-
-            // Build and broadcast User Exit (CB) notification to other users still in chat
-            byte[] cbFrame = buildChatDepartureFrame(username, userTag);
-            userRegistry.broadcastToUsersInChat(cbFrame, "USER_EXIT");
-            LoggerUtil.info(logPrefix + "User Exit (CB) broadcast sent with tag " + userTag + " to users in chat");
-            return true;
-        } else {
-            LoggerUtil.warn(logPrefix + "Could not update inChat flag - user '" + username + "' not found in registry");
-            return false;
         }
+
+        // Build and broadcast User Exit (CB) notification to the members still in the room
+        byte[] cbFrame = buildChatDepartureFrame(username, departure.tag());
+        broadcastChatMessageAndDrain(cbFrame, "USER_EXIT", departure.room(), null);
+        LoggerUtil.info(logPrefix + "User Exit (CB) broadcast sent with tag " + departure.tag() +
+                " to members of '" + departure.room().getName() + "'");
+        return true;
     }
 
     /**
@@ -454,66 +459,37 @@ public class ChatTokenHandler implements TokenHandler {
     }
 
     /**
-     * Broadcast a chat message frame to all users and immediately drain each Pacer.
+     * Broadcast a chat frame to the members of a room and immediately drain each Pacer.
+     * Only the room's current member snapshot is visited.
      */
-    public void broadcastChatMessageAndDrain(byte[] frame, String label, List<UserRegistry.UserConnection> connections, String excludeUsername) {
-        int successCount = 0;
-        int skippedCount = 0;
-        int excludedCount = 0;
-        int deferredCount = 0;
-
-        String excludeKey = excludeUsername != null ? excludeUsername.toLowerCase() : null;
-
-        for (UserRegistry.UserConnection connection : connections) {
-            // Skip the excluded user (typically the sender)
-            if (excludeKey != null && connection.getUsername().toLowerCase().equals(excludeKey)) {
-                excludedCount++;
-                continue;
-            }
-
-            // Skip inactive connections
-            if (!connection.isActive()) {
-                LoggerUtil.warn(logPrefix + "Skipping inactive user during broadcast: " + connection.getUsername());
-                skippedCount++;
-                continue;
-            }
-
-            // Check if user has active DOD transfer - if so, defer the broadcast
-            if (connection.isDodExclusivityActive()) {
-                connection.queueDeferredBroadcast(frame, label);
-                deferredCount++;
-                continue;
-            }
-
-            // Queue the frame to recipient's Pacer
-            connection.getPacer().enqueuePrioritySafe(connection.getContext(), frame, label);
-
-            // CRITICAL: Drain immediately since recipient isn't in their own splitAndDispatch() cycle
-            // Without this drain, async messages (bot responses) never get sent
-            connection.getPacer().drainLimited(connection.getContext(), MAX_BURST_FRAMES);
-            successCount++;
-        }
-
-        LoggerUtil.info(logPrefix + "Broadcast '" + label + "' sent to " + successCount + " users" +
-                (deferredCount > 0 ? " (deferred for " + deferredCount + " users with active DOD)" : "") +
-                (skippedCount > 0 ? " (skipped " + skippedCount + " inactive)" : "") +
-                (excludedCount > 0 ? " (excluded " + excludedCount + " sender)" : ""));
+    public ActiveChatRoom.BroadcastResult broadcastChatMessageAndDrain(byte[] frame, String label, ActiveChatRoom room,
+                                                                     String excludeUsername) {
+        ActiveChatRoom.BroadcastResult result = room.broadcast(frame, label, excludeUsername, MAX_BURST_FRAMES);
+
+        LoggerUtil.info(logPrefix + "Broadcast '" + label + "' sent to " + result.sent() + " users in '" + room.getName() + "'" +
+                (result.deferred() > 0 ? " (deferred for " + result.deferred() + " users with active DOD)" : "") +
+                (result.skipped() > 0 ? " (skipped " + result.skipped() + " inactive)" : "") +
+                (result.excluded() > 0 ? " (excluded " + result.excluded() + " sender)" : ""));
+        return result;
     }
 
     /**
      * Process bot responses for a chat message.
      * Uses formatted responses to handle message splitting with delays between parts.
      */
-    public void processBotResponses(String message, String sender, List<UserRegistry.UserConnection> connections) {
-        LoggerUtil.info(logPrefix + "processBotResponses CALLED | message='" + message + "' | sender='" + sender + "' | connections=" + connections.size());
+    public void processBotResponses(String message, String sender, ActiveChatRoom room) {
+        LoggerUtil.info(logPrefix + "processBotResponses CALLED | message='" + message + "' | sender='" + sender + "' | room='" + room.getName() + "'");
 
         // Create context for bots
-        ChatContext context = new ChatContext("Dialtone Lobby", List.of(), connections.size());
+        ChatContext context = new ChatContext(room.getName(), List.of(), room.getMemberCount());
 
-        LoggerUtil.info(logPrefix + "Calling ChatBotRegistry.processMessageFormatted() for split-aware responses...");
+        LoggerUtil.info(logPrefix + "Calling ChatBotRegistry.processMessageStreaming() for split-aware responses...");
+
+        // Streaming bots deliver each part as soon as it is complete, paced on a connection's event loop
+        ChatBotRegistry.BotPartListener partListener = createStreamingPartListener(room);
 
         // Process message asynchronously with formatted response support
-        botRegistry.processMessageFormatted(message, sender, context)
+        botRegistry.processMessageStreaming(message, sender, context, partListener)
                 .whenComplete((responses, error) -> {
                     if (error != null) {
                         LoggerUtil.error(logPrefix + "CompletableFuture completed EXCEPTIONALLY: " + error.getClass().getName() + ": " + error.getMessage());
@@ -543,14 +519,14 @@ public class ChatTokenHandler implements TokenHandler {
                                 " | parts=" + botResponse.messageParts().size() +
                                 " | delayMs=" + botResponse.delayBetweenMs());
 
-                        if (!botResponse.hasContent()) {
+                        if (!botResponse.hasContent() || botResponse.delivered()) {
                             continue;
                         }
 
                         try {
-                            // Get bot's mat_relative_tag from UserRegistry
-                            int botTag = userRegistry.getGlobalChatTag(botResponse.botUsername());
-                            if (botTag == -1) {
+                            // Get bot's mat_relative_tag in this room
+                            int botTag = room.getTag(botResponse.botUsername());
+                            if (botTag == ActiveChatRoom.NO_TAG) {
                                 LoggerUtil.warn(logPrefix + "Could not get bot's global tag - bot may not be in chat");
                                 continue; // Skip this bot, try others
                             }
@@ -568,24 +544,21 @@ public class ChatTokenHandler implements TokenHandler {
 
                                 if (i == 0) {
                                     // Send first message immediately
-                                    sendBotChatMessage(botTag, part, botLabel, connections);
+                                    sendBotChatMessage(botTag, part, botLabel, room);
                                 } else {
                                     // Schedule subsequent messages with delay
                                     final String messagePart = part;
                                     final int partIndex = i;
                                     long cumulativeDelay = delayMs * i;
 
-                                    // Use any active connection's executor for scheduling
-                                    UserRegistry.UserConnection anyConn = connections.stream()
-                                            .filter(UserRegistry.UserConnection::isActive)
-                                            .findFirst()
-                                            .orElse(null);
+                                    // Use any active member's executor for scheduling
+                                    UserRegistry.UserConnection anyConn = anyActiveMember(room);
 
                                     if (anyConn != null) {
                                         anyConn.getContext().executor().schedule(() -> {
                                             LoggerUtil.debug(() -> logPrefix + "Sending delayed bot message part " +
                                                     (partIndex + 1) + "/" + parts.size());
-                                            sendBotChatMessage(botTag, messagePart, botLabel + "_P" + (partIndex + 1), connections);
+                                            sendBotChatMessage(botTag, messagePart, botLabel + "_P" + (partIndex + 1), room);
                                         }, cumulativeDelay, TimeUnit.MILLISECONDS);
                                     }
                                 }
@@ -613,24 +586,66 @@ public class ChatTokenHandler implements TokenHandler {
     }
 
     /**
-     * Send a single bot chat message to all connections.
+     * Build a listener that broadcasts streamed bot parts to the room as they arrive.
+     * Parts from each bot are spaced by the configured split delay.
+     *
+     * @return The listener, or null if no active connection can host the pacing timer
+     */
+    private ChatBotRegistry.BotPartListener createStreamingPartListener(ActiveChatRoom room) {
+        UserRegistry.UserConnection anyConn = anyActiveMember(room);
+        if (anyConn == null) {
+            return null;
+        }
+
+        long splitDelayMs = properties != null
+                ? Long.parseLong(properties.getProperty("formatter.split.delay.ms", "500"))
+                : 500;
+        Map<String, PacedPartDispatcher> dispatchers = new ConcurrentHashMap<>();
+
+        return (botUsername, part) -> dispatchers.computeIfAbsent(botUsername, name -> {
+            String botLabel = "BOT_" + name.toUpperCase();
+            return new PacedPartDispatcher(anyConn.getContext().executor(), splitDelayMs, text -> {
+                int botTag = room.getTag(name);
+                if (botTag == ActiveChatRoom.NO_TAG) {
+                    LoggerUtil.warn(logPrefix + "Could not get bot's room tag - bot may not be in chat");
+                    return;
+                }
+                sendBotChatMessage(botTag, text, botLabel, room);
+            });
+        }).dispatch(part);
+    }
+
+    /**
+     * Find an active room member whose event loop can host bot pacing timers.
+     */
+    private static UserRegistry.UserConnection anyActiveMember(ActiveChatRoom room) {
+        for (ActiveChatRoom.Member member : room.getMembers()) {
+            if (member.connection().isActive()) {
+                return member.connection();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Send a single bot chat message to the room's current members.
      * Helper method for processBotResponses to handle both immediate and delayed sends.
      */
-    private void sendBotChatMessage(int botTag, String message, String label, List<UserRegistry.UserConnection> connections) {
+    private void sendBotChatMessage(int botTag, String message, String label, ActiveChatRoom room) {
         try {
             byte[] botFrame = buildChatMessageMatRelativeId(message, botTag);
             LoggerUtil.debug(() -> logPrefix + "Bot AA frame built | tag=" + botTag + " | size=" + botFrame.length + " | msg='" + message + "'");
-            broadcastChatMessageAndDrain(botFrame, label, connections, null);
+            broadcastChatMessageAndDrain(botFrame, label, room, null);
         } catch (Exception ex) {
             LoggerUtil.error(logPrefix + "Failed to send bot chat message: " + ex.getMessage());
         }
     }
 
     /**
-     * Get pending Aa streams map (for integration with StatefulClientHandler during migration).
+     * Get the Aa stream accumulator (for integration with StatefulClientHandler during migration).
      */
-    public Map<Integer, List<byte[]>> getPendingAaStreams() {
-        return pendingAaStreams;
+    public MultiFrameStreamAccumulator getPendingAaStreams() {
+        return aaStreams;
     }
 
     /**
@@ -9,6 +9,7 @@ import com.dialtone.aol.core.ProtocolConstants;
 import com.dialtone.fdo.FdoCompiler;
 import com.dialtone.fdo.FdoProcessor;
 import com.dialtone.fdo.dsl.builders.NoopFdoBuilder;
+import com.dialtone.protocol.MultiFrameStreamAccumulator;
 import com.dialtone.protocol.MultiFrameStreamProcessor;
 import com.dialtone.protocol.P3ChunkEnqueuer;
 import com.dialtone.protocol.Pacer;
@@ -39,11 +40,6 @@ import com.dialtone.utils.LoggerUtil;
 import io.netty.channel.ChannelHandlerContext;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Coordinates token routing and delegates to appropriate token handlers.
@@ -79,7 +75,7 @@ public class ProtocolFrameDispatcher {
     private final FileBrowserTokenHandler fileBrowserHandler;
 
     // Multi-frame stream accumulation maps (for tokens not yet extracted)
-    private final Map<Integer, List<byte[]>> pendingKkStreams = new ConcurrentHashMap<>();
+    private final MultiFrameStreamAccumulator pendingKkStreams = new MultiFrameStreamAccumulator("Kk");
 
     public ProtocolFrameDispatcher(SessionContext session, Pacer pacer, FdoCompiler fdoCompiler,
                                    FdoProcessor fdoProcessor, DodRequestHandler dodRequestHandler,
@@ -229,29 +225,19 @@ public class ProtocolFrameDispatcher {
                 try {
                     int streamId = MultiFrameStreamProcessor.extractStreamId(in);
 
-                    if (MultiFrameStreamProcessor.isUniEndStream(in, fdoCompiler)) {
-                        List<byte[]> accumulatedFrames = pendingKkStreams.get(streamId);
-
-                        String keyword;
-                        if (accumulatedFrames != null && !accumulatedFrames.isEmpty()) {
-                            List<byte[]> allFrames = new ArrayList<>(accumulatedFrames);
-                            allFrames.add(in);
-                            keyword = MultiFrameStreamProcessor.extractDeDataFromMultiFrame(allFrames, fdoCompiler, "Kk");
-                            pendingKkStreams.remove(streamId);
-                        } else {
-                            keyword = MultiFrameStreamProcessor.extractDeDataFromSingleFrame(in, fdoCompiler, "Kk");
+                    String keyword;
+                    try (MultiFrameStreamAccumulator.CompletedStream stream = pendingKkStreams.append(streamId, in)) {
+                        if (stream == null) {
+                            break;
                         }
+                        keyword = MultiFrameStreamProcessor.extractDeDataFromPayload(stream.toByteArray(), "Kk");
+                    }
 
-                        boolean handled = KeywordProcessor.processKeyword(keyword, session, ctx, pacer);
+                    boolean handled = KeywordProcessor.processKeyword(keyword, session, ctx, pacer);
 
-                        if (!handled) {
-                            LoggerUtil.info(logPrefix + "Unknown keyword - sending control ACK to prevent client hang");
-                            fdoProcessor.compileAndSend(ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "KK_UNKNOWN_ACK");
-                        }
-                    } else {
-                        pendingKkStreams.computeIfAbsent(streamId, k -> new ArrayList<>()).add(
-                                Arrays.copyOf(in, in.length)
-                        );
+                    if (!handled) {
+                        LoggerUtil.info(logPrefix + "Unknown keyword - sending control ACK to prevent client hang");
+                        fdoProcessor.compileAndSend(ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "KK_UNKNOWN_ACK");
                     }
                 } catch (Exception e) {
                     LoggerUtil.error(logPrefix + "Failed to process Kk: " + e.getMessage());
@@ -382,9 +368,9 @@ public class ProtocolFrameDispatcher {
     }
 
     /**
-     * Get pending Kk streams map (for integration with StatefulClientHandler during migration).
+     * Get the Kk stream accumulator (for integration with StatefulClientHandler during migration).
      */
-    public Map<Integer, List<byte[]>> getPendingKkStreams() {
+    public MultiFrameStreamAccumulator getPendingKkStreams() {
         return pendingKkStreams;
     }
     
@@ -26,8 +26,6 @@ import io.netty.channel.ChannelHandlerContext;
 import com.dialtone.fdo.spi.FdoCompilationException;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -228,31 +226,22 @@ public class DodRequestHandler {
         // Step 1: Check for atom stream FDO (DSL registry first, then replace_client_fdo/)
         // Use variant resolution for low color mode (checks for .bw.fdo.txt or DSL BW variant)
         boolean lowColorMode = isLowColorModeEnabled(username);
-        Optional<String> atomFdoSource = resolveFdoSource(gidDisplay, lowColorMode, platform, username);
 
-        if (atomFdoSource.isPresent()) {
-            // ATOM STREAM: compile FDO and set type "a"
+        if (hasFdoSource(gidDisplay, lowColorMode)) {
+            // ATOM STREAM: compile FDO and send as type "a"; the response is the same for
+            // every request of this GID and rendering context, so it is compiled once
             LoggerUtil.info(logPrefix(username) + "f2 atom stream request for GID: " + gidDisplay +
                 (lowColorMode ? " (using BW variant if available)" : ""));
 
             try {
-                // Apply button theme variable substitution before compilation
-                Map<String, Object> buttonVars = new FdoVariableBuilder()
-                    .withButtonTheme(properties)
-                    .buildAsObjects();
-                String processedFdo = FdoTemplateEngine.substituteVariables(atomFdoSource.get(), buttonVars);
-                byte[] compiledFdo = fdoCompiler.compileFdoScript(processedFdo);
+                List<FdoChunk> responseChunks = compileF2AtomStreamResponse(
+                    gidDisplay, lowColorMode, platform, username, normalizedStreamId);
 
                 LoggerUtil.info(String.format(
-                    logPrefix(username) + "Compiled f2 atom stream FDO: %d bytes for GID %s",
-                    compiledFdo.length, gidDisplay));
+                    logPrefix(username) + "f2 DOD response generated: totalChunks=%d for GID %s, streamId=0x%04X",
+                    responseChunks.size(), gidDisplay, normalizedStreamId));
 
-                LoggerUtil.info(String.format("fdo to compile for idb: " + processedFdo));
-
-                variables.put("IDB_OBJ_TYPE", "a");
-                // Use byte[] with auto-hex conversion via IDB_APPEND_DATA
-                variables.put("IDB_APPEND_DATA", compiledFdo);
-                variables.put("DATA_LENGTH", String.valueOf(compiledFdo.length));
+                return new DodResponse(normalizedStreamId, params, responseChunks);
 
             } catch (Exception e) {
                 LoggerUtil.error(String.format(
@@ -329,9 +318,8 @@ public class DodRequestHandler {
         // Look for FDO (DSL registry first, then replace_client_fdo/)
         // Use variant resolution for low color mode (checks for .bw.fdo.txt or DSL BW variant)
         boolean lowColorMode = isLowColorModeEnabled(username);
-        Optional<String> fdoSource = resolveFdoSource(gidDisplay, lowColorMode, platform, username);
 
-        if (fdoSource.isEmpty()) {
+        if (!hasFdoSource(gidDisplay, lowColorMode)) {
             LoggerUtil.info(String.format(
                 logPrefix(username) + "No atom stream FDO found for GID %s",
                 gidDisplay));
@@ -343,24 +331,9 @@ public class DodRequestHandler {
             gidDisplay, platform, lowColorMode));
 
         try {
-            // Apply button theme variable substitution before compilation
-            Map<String, Object> buttonVars = new FdoVariableBuilder()
-                .withButtonTheme(properties)
-                .buildAsObjects();
-            String processedFdo = FdoTemplateEngine.substituteVariables(fdoSource.get(), buttonVars);
-            byte[] compiledFdo = fdoCompiler.compileFdoScript(processedFdo);
-
-            LoggerUtil.debug(String.format(
-                logPrefix(username) + "Compiled atom stream FDO: %d bytes for GID %s",
-                compiledFdo.length, gidDisplay));
-
-            // Build f1 atom stream response using DSL builder
-            FdoGid atomGid = parseGidToFdoGid(gidDisplay);
-            F1AtomStreamResponseFdoBuilder f1Builder = new F1AtomStreamResponseFdoBuilder(
-                atomGid, compiledFdo.length, compiledFdo);
-            String f1FdoSource = f1Builder.toSource(RenderingContext.DEFAULT);
-            List<FdoChunk> responseChunks = fdoCompiler.compileFdoScriptToP3Chunks(
-                f1FdoSource, TOKEN_F1, normalizedStreamId);
+            // Build f1 atom stream response using DSL builder; compiled once per GID and rendering context
+            List<FdoChunk> responseChunks = compileF1AtomStreamResponse(
+                gidDisplay, lowColorMode, platform, username, normalizedStreamId);
 
             LoggerUtil.info(String.format(
                 logPrefix(username) + "f1 Atom stream response generated: chunks=%d for GID %s, streamId=0x%04X",
@@ -450,17 +423,14 @@ public class DodRequestHandler {
 
     /**
      * Load FDO source from a resource path.
+     * Uses the template engine's cache, so button theme substitution reuses its parsed form.
      *
      * @param resourcePath Path to the FDO resource file
      * @return Optional containing the FDO source, or empty if not found
      */
     private Optional<String> loadFdoResource(String resourcePath) {
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
-            if (inputStream == null) {
-                return Optional.empty();
-            }
-            String content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-            return Optional.of(content);
+        try {
+            return FdoTemplateEngine.findTemplateSource(resourcePath);
         } catch (IOException e) {
             LoggerUtil.error("Failed to load FDO resource: " + resourcePath + " - " + e.getMessage());
             return Optional.empty();
@@ -523,6 +493,91 @@ public class DodRequestHandler {
         return loadFdoResourceWithVariant(fdoResourcePath, lowColorMode);
     }
 
+    /**
+     * Check whether {@link #resolveFdoSource} would find FDO for a GID, without generating it.
+     */
+    private boolean hasFdoSource(String gid, boolean lowColorMode) {
+        if (FdoDslRegistry.getInstance().getBuilder(gid).isPresent()) {
+            return true;
+        }
+        String fdoResourcePath = "replace_client_fdo/" + gid + ".fdo.txt";
+        return loadFdoResourceWithVariant(fdoResourcePath, lowColorMode).isPresent();
+    }
+
+    /**
+     * Compile the f1 and f2 atom stream responses for a GID into the shared form cache,
+     * so the first client to request it after startup is served from cached frames.
+     *
+     * @param gidDisplay GID in display format
+     * @param renderCtx platform and color mode to compile for
+     * @throws FdoCompilationException if no FDO exists for the GID or compilation fails
+     */
+    public void warmUpAtomStream(String gidDisplay, RenderingContext renderCtx) throws FdoCompilationException {
+        boolean lowColorMode = renderCtx.isLowColorMode();
+        ClientPlatform platform = renderCtx.getPlatform();
+        compileF2AtomStreamResponse(gidDisplay, lowColorMode, platform, null, FdoCompiler.AUTO_GENERATE_STREAM_ID);
+        compileF1AtomStreamResponse(gidDisplay, lowColorMode, platform, null, FdoCompiler.AUTO_GENERATE_STREAM_ID);
+    }
+
+    /**
+     * f2 atom stream response; the same for every request of this GID and rendering context,
+     * so it is compiled once.
+     */
+    private List<FdoChunk> compileF2AtomStreamResponse(String gidDisplay, boolean lowColorMode,
+                                                       ClientPlatform platform, String username,
+                                                       int streamId) throws FdoCompilationException {
+        return fdoCompiler.compileFormToP3Chunks(
+            List.of("f2", gidDisplay, lowColorMode, platform),
+            () -> {
+                byte[] compiledFdo = compileAtomStream(gidDisplay, lowColorMode, platform, username);
+                return new F2IdbResponseFdoBuilder("a", parseGidToFdoGid(gidDisplay),
+                    compiledFdo.length, compiledFdo).toSource(RenderingContext.DEFAULT);
+            },
+            TOKEN_F2, streamId);
+    }
+
+    /**
+     * f1 atom stream response, compiled once per GID and rendering context.
+     */
+    private List<FdoChunk> compileF1AtomStreamResponse(String gidDisplay, boolean lowColorMode,
+                                                       ClientPlatform platform, String username,
+                                                       int streamId) throws FdoCompilationException {
+        return fdoCompiler.compileFormToP3Chunks(
+            List.of("f1", gidDisplay, lowColorMode, platform),
+            () -> {
+                byte[] compiledFdo = compileAtomStream(gidDisplay, lowColorMode, platform, username);
+                return new F1AtomStreamResponseFdoBuilder(parseGidToFdoGid(gidDisplay),
+                    compiledFdo.length, compiledFdo).toSource(RenderingContext.DEFAULT);
+            },
+            TOKEN_F1, streamId);
+    }
+
+    /**
+     * Resolve, theme and compile the atom stream FDO for a GID.
+     *
+     * @throws FdoCompilationException if no FDO exists for the GID or compilation fails
+     */
+    private byte[] compileAtomStream(String gidDisplay, boolean lowColorMode, ClientPlatform platform,
+                                     String username) throws FdoCompilationException {
+        Optional<String> fdoSource = resolveFdoSource(gidDisplay, lowColorMode, platform, username);
+        if (fdoSource.isEmpty()) {
+            throw new FdoCompilationException("No atom stream FDO for GID " + gidDisplay,
+                fdoCompiler.getBackendName());
+        }
+
+        // Apply button theme variable substitution before compilation
+        Map<String, Object> buttonVars = new FdoVariableBuilder()
+            .withButtonTheme(properties)
+            .buildAsObjects();
+        String processedFdo = FdoTemplateEngine.substituteVariables(fdoSource.get(), buttonVars);
+        byte[] compiledFdo = fdoCompiler.compileFdoScript(processedFdo);
+
+        LoggerUtil.info(String.format(
+            logPrefix(username) + "Compiled atom stream FDO: %d bytes for GID %s",
+            compiledFdo.length, gidDisplay));
+        return compiledFdo;
+    }
+
     /**
      * Extract Stream ID from FDO using native FdoStream API.
      * The Stream ID is the value in uni_start_stream atom.
@@ -847,8 +902,8 @@ public class DodRequestHandler {
         }
 
         // Use static DOD not available builder
-        String fdoSource = DodNotAvailableFdoBuilder.INSTANCE.toSource(RenderingContext.DEFAULT);
-        return fdoCompiler.compileFdoScriptToP3Chunks(fdoSource, TOKEN_STANDARD, streamId);
+        return fdoCompiler.compileBuilderToP3Chunks(
+            DodNotAvailableFdoBuilder.INSTANCE, RenderingContext.DEFAULT, TOKEN_STANDARD, streamId);
     }
 
     /**
@@ -14,6 +14,7 @@ import com.dialtone.protocol.P3FrameExtractor;
 import com.dialtone.protocol.P3FrameMetadata;
 import com.dialtone.protocol.Pacer;
 import com.dialtone.protocol.SessionContext;
+import com.dialtone.protocol.TrafficClass;
 import com.dialtone.protocol.core.ControlFrameBuilder;
 import com.dialtone.protocol.core.TokenHandler;
 import com.dialtone.utils.LoggerUtil;
@@ -112,7 +113,7 @@ public class DodTokenHandler implements TokenHandler {
 
                     // Enqueue DOD response chunks
                     P3ChunkEnqueuer.enqueueChunksWithMixedStreamIds(ctx, pacer, dodResponse.responseChunks,
-                            "DOD_RESPONSE", MAX_BURST_FRAMES, session.getDisplayName());
+                            "DOD_RESPONSE", MAX_BURST_FRAMES, session.getDisplayName(), TrafficClass.BULK);
                 }
             }
         } catch (Exception e) {
@@ -242,7 +243,7 @@ public class DodTokenHandler implements TokenHandler {
                 behavior.tokenName(), gidDisplay, chunks.size()));
 
         P3ChunkEnqueuer.enqueueChunksWithMixedStreamIds(ctx, pacer, chunks,
-                behavior.successLogLabel(), MAX_BURST_FRAMES, session.getDisplayName());
+                behavior.successLogLabel(), MAX_BURST_FRAMES, session.getDisplayName(), TrafficClass.BULK);
     }
 
     /**
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.protocol.im;
+
+import com.dialtone.fdo.FdoChunk;
+import com.dialtone.protocol.P3ChunkEnqueuer;
+import com.dialtone.protocol.Pacer;
+import com.dialtone.utils.LoggerUtil;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Per-connection inbox for instant messages addressed to one user.
+ *
+ * <p>Senders on any thread (other connections' event loops, the bot executor) only
+ * append compiled IM chunks to a bounded lock-free queue. The recipient's own event loop
+ * drains it, so the recipient's {@link Pacer} is never touched from another thread.
+ * All IMs pending when a drain runs are enqueued together and flushed with a single
+ * {@code drainLimited} call.</p>
+ *
+ * <p>While the recipient has DOD exclusivity the mailbox holds messages instead of
+ * dropping them; {@link #schedule()} is called again when exclusivity ends. When the
+ * mailbox is full the overflow policy decides whether the new or the oldest message
+ * is dropped.</p>
+ */
+public final class ImMailbox {
+
+    /** Frames flushed per drain, matching the IM handler's burst size. */
+    static final int MAX_BURST_FRAMES = 10;
+
+    /** Default number of IMs a mailbox holds before applying the overflow policy. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * What to do with an IM that arrives when the mailbox is full.
+     */
+    public enum OverflowPolicy {
+        /** Refuse the new IM and keep the queued ones. */
+        REJECT_NEWEST,
+        /** Drop the oldest queued IM to make room for the new one. */
+        DROP_OLDEST
+    }
+
+    /**
+     * One compiled IM waiting for delivery.
+     *
+     * @param chunks compiled FDO chunks
+     * @param label pacer label prefix (e.g. RECEIVE_IM)
+     */
+    public record Delivery(List<FdoChunk> chunks, String label) {}
+
+    private static volatile int configuredCapacity = DEFAULT_CAPACITY;
+    private static volatile OverflowPolicy configuredPolicy = OverflowPolicy.REJECT_NEWEST;
+
+    private static final AtomicLong TOTAL_OFFERED = new AtomicLong();
+    private static final AtomicLong TOTAL_DELIVERED = new AtomicLong();
+    private static final AtomicLong TOTAL_BATCHES = new AtomicLong();
+    private static final AtomicLong TOTAL_OVERFLOWED = new AtomicLong();
+    private static final AtomicLong TOTAL_HELD = new AtomicLong();
+
+    private final String username;
+    private final Executor executor;
+    private final BooleanSupplier held;
+    private final BooleanSupplier open;
+    private final Consumer<List<Delivery>> sink;
+    private final int capacity;
+    private final OverflowPolicy policy;
+
+    private final ConcurrentLinkedQueue<Delivery> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    ImMailbox(String username, Executor executor, BooleanSupplier held, BooleanSupplier open,
+              Consumer<List<Delivery>> sink, int capacity, OverflowPolicy policy) {
+        this.username = username;
+        this.executor = executor;
+        this.held = held;
+        this.open = open;
+        this.sink = sink;
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+    }
+
+    /**
+     * Create the mailbox for a connection, draining into its pacer on its event loop.
+     *
+     * @param ctx recipient's channel context
+     * @param pacer recipient's pacer
+     * @param username recipient's screenname (for logging)
+     * @param held true while deliveries must wait (DOD exclusivity)
+     * @return mailbox using the configured capacity and overflow policy
+     */
+    public static ImMailbox forConnection(ChannelHandlerContext ctx, Pacer pacer, String username,
+                                          BooleanSupplier held) {
+        Consumer<List<Delivery>> sink = batch -> {
+            for (Delivery delivery : batch) {
+                P3ChunkEnqueuer.enqueue(ctx, pacer, delivery.chunks(), delivery.label(), MAX_BURST_FRAMES, username);
+            }
+            pacer.drainLimited(ctx, MAX_BURST_FRAMES);
+        };
+        return new ImMailbox(username, ctx.executor(), held, () -> ctx.channel().isActive(), sink,
+                configuredCapacity, configuredPolicy);
+    }
+
+    /**
+     * Apply {@code im.mailbox.capacity} and {@code im.mailbox.overflow.policy} to mailboxes created afterwards.
+     *
+     * @param properties application properties
+     */
+    public static void configure(Properties properties) {
+        String capacity = properties.getProperty("im.mailbox.capacity");
+        if (capacity != null) {
+            try {
+                configuredCapacity = Math.max(1, Integer.parseInt(capacity.trim()));
+            } catch (NumberFormatException e) {
+                LoggerUtil.warn("Invalid im.mailbox.capacity value: " + capacity + ", using default: " + DEFAULT_CAPACITY);
+            }
+        }
+        String policy = properties.getProperty("im.mailbox.overflow.policy");
+        if (policy != null) {
+            try {
+                configuredPolicy = OverflowPolicy.valueOf(policy.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                LoggerUtil.warn("Invalid im.mailbox.overflow.policy value: " + policy + ", using REJECT_NEWEST");
+            }
+        }
+    }
+
+    /**
+     * Queue a compiled IM and schedule a drain on the recipient's event loop.
+     * Safe to call from any thread.
+     *
+     * @param chunks compiled FDO chunks
+     * @param label pacer label prefix
+     * @return true if queued, false if refused because the mailbox is full
+     */
+    public boolean offer(List<FdoChunk> chunks, String label) {
+        TOTAL_OFFERED.incrementAndGet();
+        if (size.incrementAndGet() > capacity) {
+            if (policy == OverflowPolicy.REJECT_NEWEST || queue.poll() == null) {
+                size.decrementAndGet();
+                recordOverflow(label);
+                return false;
+            }
+            // The oldest IM was dropped; its slot goes to the new one
+            size.decrementAndGet();
+            recordOverflow(label);
+        }
+        queue.offer(new Delivery(chunks, label));
+        schedule();
+        return true;
+    }
+
+    /**
+     * Request a drain on the recipient's event loop (no-op if one is already pending).
+     * Called after offers and when DOD exclusivity ends.
+     */
+    public void schedule() {
+        if (queue.isEmpty() || !drainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RuntimeException e) {
+            // Event loop shut down: the connection is gone
+            drainScheduled.set(false);
+            discard("event loop rejected drain: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deliver every queued IM in one pass. Runs on the recipient's event loop.
+     */
+    void drain() {
+        // Clear the flag first so an offer racing with this drain schedules another pass
+        drainScheduled.set(false);
+
+        if (!open.getAsBoolean()) {
+            discard("connection closed");
+            return;
+        }
+        if (held.getAsBoolean()) {
+            TOTAL_HELD.incrementAndGet();
+            LoggerUtil.debug(() -> "[" + username + "][ImMailbox] Holding " + size.get() + " IM(s) (DOD exclusive)");
+            return;
+        }
+
+        List<Delivery> batch = new ArrayList<>();
+        Delivery delivery;
+        while ((delivery = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(delivery);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        sink.accept(batch);
+        delivered.addAndGet(batch.size());
+        TOTAL_DELIVERED.addAndGet(batch.size());
+        batches.incrementAndGet();
+        TOTAL_BATCHES.incrementAndGet();
+        if (batch.size() > 1) {
+            LoggerUtil.debug(() -> "[" + username + "][ImMailbox] Delivered " + batch.size() + " IMs in one drain");
+        }
+    }
+
+    private void discard(String reason) {
+        int dropped = 0;
+        while (queue.poll() != null) {
+            size.decrementAndGet();
+            dropped++;
+        }
+        if (dropped > 0) {
+            LoggerUtil.debug("[" + username + "][ImMailbox] Discarded " + dropped + " IM(s): " + reason);
+        }
+    }
+
+    private void recordOverflow(String label) {
+        long count = overflowed.incrementAndGet();
+        TOTAL_OVERFLOWED.incrementAndGet();
+        // Log the first overflow and then every 100th to avoid flooding during a burst
+        if (count == 1 || count % 100 == 0) {
+            LoggerUtil.warn(String.format("[%s][ImMailbox] Mailbox full (%d), %s %s (overflows: %d)",
+                    username, capacity,
+                    policy == OverflowPolicy.REJECT_NEWEST ? "rejected new" : "dropped oldest for",
+                    label, count));
+        }
+    }
+
+    /**
+     * @return IMs waiting for delivery
+     */
+    public int getPendingCount() {
+        return size.get();
+    }
+
+    /**
+     * @return IMs handed to the pacer by this mailbox
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * @return IMs dropped or refused because this mailbox was full
+     */
+    public long getOverflowCount() {
+        return overflowed.get();
+    }
+
+    /**
+     * @return drain passes that delivered at least one IM
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * @return IMs offered to any mailbox since startup
+     */
+    public static long getTotalOffered() {
+        return TOTAL_OFFERED.get();
+    }
+
+    /**
+     * @return IMs delivered by any mailbox since startup
+     */
+    public static long getTotalDelivered() {
+        return TOTAL_DELIVERED.get();
+    }
+
+    /**
+     * @return drain passes that delivered at least one IM, in any mailbox since startup
+     */
+    public static long getTotalBatches() {
+        return TOTAL_BATCHES.get();
+    }
+
+    /**
+     * @return IMs dropped or refused by any full mailbox since startup
+     */
+    public static long getTotalOverflowed() {
+        return TOTAL_OVERFLOWED.get();
+    }
+
+    /**
+     * @return drain passes postponed by DOD exclusivity since startup
+     */
+    public static long getTotalHeld() {
+        return TOTAL_HELD.get();
+    }
+
+    /**
+     * @return counters across all mailboxes for the admin dashboard
+     */
+    public static Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("capacity", configuredCapacity);
+        metrics.put("overflowPolicy", configuredPolicy.name());
+        metrics.put("offered", getTotalOffered());
+        metrics.put("delivered", getTotalDelivered());
+        metrics.put("batches", getTotalBatches());
+        metrics.put("overflowed", getTotalOverflowed());
+        metrics.put("held", getTotalHeld());
+        return metrics;
+    }
+}
@@ -15,6 +15,7 @@ import com.dialtone.fdo.dsl.builders.NoopFdoBuilder;
 import com.dialtone.fdo.dsl.builders.ReceiveImFdoBuilder;
 import com.dialtone.fdo.dsl.builders.SendImEchoFdoBuilder;
 import com.dialtone.protocol.ClientPlatform;
+import com.dialtone.protocol.MultiFrameStreamAccumulator;
 import com.dialtone.protocol.MultiFrameStreamProcessor;
 import com.dialtone.protocol.P3ChunkEnqueuer;
 import com.dialtone.protocol.Pacer;
@@ -25,6 +26,7 @@ import com.dialtone.auth.UserRegistry;
 import com.dialtone.chat.bot.ChatBotRegistry;
 import com.dialtone.chat.bot.ChatContext;
 import com.dialtone.chat.bot.GrokBot;
+import com.dialtone.chat.bot.PacedPartDispatcher;
 import com.dialtone.chat.bot.VirtualUser;
 import com.dialtone.web.services.ScreennamePreferencesService;
 import com.dialtone.utils.LoggerUtil;
@@ -32,9 +34,8 @@ import io.netty.channel.ChannelHandlerContext;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Handles instant message tokens: iS (with ACK), iT (no ACK, with echo).
@@ -52,8 +53,8 @@ public class InstantMessageTokenHandler implements TokenHandler {
     private final UnifiedStreamReassembler unifiedStreamReassembler;
     private final String logPrefix;
 
-    // Multi-frame iS accumulation: Keyed by Stream ID to track incomplete instant message streams.
-    private final Map<Integer, List<byte[]>> pendingIsStreams = new ConcurrentHashMap<>();
+    // Multi-frame iS/iT reassembly: Keyed by Stream ID to track incomplete instant message streams.
+    private final MultiFrameStreamAccumulator isStreams = new MultiFrameStreamAccumulator("iS");
 
     public InstantMessageTokenHandler(SessionContext session, Pacer pacer, FdoCompiler fdoCompiler,
                                       UserRegistry userRegistry, ScreennamePreferencesService preferencesService,
@@ -109,60 +110,27 @@ public class InstantMessageTokenHandler implements TokenHandler {
                     bytesToHex(Arrays.copyOfRange(in, 0, Math.min(in.length, 50)))
             ));
 
-            // Check if this frame has uni_end_stream (signals completion)
-            if (MultiFrameStreamProcessor.isUniEndStream(in, fdoCompiler)) {
-                LoggerUtil.debug(() -> logPrefix + String.format(
-                        "%s with uni_end_stream for Stream ID 0x%04X", behavior.tokenName(), streamId));
-
-                // Check if we have accumulated data for this stream
-                List<byte[]> accumulatedFrames = pendingIsStreams.get(streamId);
-
-                if (accumulatedFrames != null && !accumulatedFrames.isEmpty()) {
-                    // Multi-frame: combine ALL frames (accumulated + final)
-                    List<byte[]> allFrames = new ArrayList<>(accumulatedFrames);
-                    allFrames.add(in);
-
+            // Append to this stream; completes on uni_end_stream
+            try (MultiFrameStreamAccumulator.CompletedStream stream = isStreams.append(streamId, in)) {
+                if (stream == null) {
                     LoggerUtil.info(logPrefix + String.format(
-                            "Processing MULTI-FRAME %s: %d accumulated + 1 final = %d TOTAL frames | streamId=0x%04X",
-                            behavior.tokenName(), accumulatedFrames.size(), allFrames.size(), streamId
+                            "%s fragment ACCUMULATED: streamId=0x%04X | frameSize=%d (waiting for uni_end_stream)",
+                            behavior.tokenName(), streamId, in.length
                     ));
+                    return;
+                }
 
-                    // Process multi-frame instant message
-                    if (behavior == IMTokenBehavior.IS) {
-                        handleMultiFrameInstantMessage(ctx, allFrames, streamId);
-                    } else {
-                        handleMultiFrameInstantMessageNoAck(ctx, allFrames, streamId);
-                    }
-
-                    // Clear accumulation for this stream
-                    pendingIsStreams.remove(streamId);
+                if (stream.getFrameCount() > 1) {
+                    LoggerUtil.info(logPrefix + String.format(
+                            "Processing MULTI-FRAME %s: %d TOTAL frames | %d bytes | streamId=0x%04X",
+                            behavior.tokenName(), stream.getFrameCount(), stream.getPayload().readableBytes(), streamId
+                    ));
                 } else {
-                    // Single-frame: use as-is
                     LoggerUtil.debug(() -> logPrefix + String.format(
                             "Single-frame %s (has uni_end_stream)", behavior.tokenName()));
-
-                    if (behavior == IMTokenBehavior.IS) {
-                        handleInstantMessage(ctx, in, streamId);
-                    } else {
-                        handleInstantMessageNoAck(ctx, in, streamId);
-                    }
                 }
-            } else {
-                // No uni_end_stream: accumulate for multi-frame sequence
-                LoggerUtil.info(logPrefix + String.format(
-                        "%s fragment ACCUMULATING: streamId=0x%04X | frameSize=%d | hex=[%s]",
-                        behavior.tokenName(), streamId, in.length,
-                        bytesToHex(Arrays.copyOfRange(in, 0, Math.min(in.length, 50)))
-                ));
-
-                pendingIsStreams.computeIfAbsent(streamId, k -> new ArrayList<>())
-                        .add(Arrays.copyOf(in, in.length));
-
-                int frameCount = pendingIsStreams.get(streamId).size();
-                LoggerUtil.info(logPrefix + String.format(
-                        "%s frames ACCUMULATED: streamId=0x%04X now has %d frame(s)",
-                        behavior.tokenName(), streamId, frameCount
-                ));
+
+                handleInstantMessage(ctx, stream, streamId, behavior);
             }
         } catch (Exception e) {
             // Enhanced exception logging with full stack trace
@@ -180,39 +148,14 @@ public class InstantMessageTokenHandler implements TokenHandler {
         }
     }
 
-    private void handleInstantMessage(ChannelHandlerContext ctx, byte[] isFrame, int streamId) {
-        try {
-            InstantMessage im = extractInstantMessage(isFrame);
-            processInstantMessage(ctx, im, streamId, IMTokenBehavior.IS);
-        } catch (Exception ex) {
-            LoggerUtil.error(logPrefix + "Failed iS IM processing: " + ex.getMessage());
-        }
-    }
-
-    private void handleMultiFrameInstantMessage(ChannelHandlerContext ctx, List<byte[]> allFrames, int streamId) {
-        try {
-            InstantMessage im = extractMultiFrameInstantMessage(allFrames);
-            processInstantMessage(ctx, im, streamId, IMTokenBehavior.IS);
-        } catch (Exception ex) {
-            LoggerUtil.error(logPrefix + "Failed multi-frame iS IM processing: " + ex.getMessage());
-        }
-    }
-
-    private void handleInstantMessageNoAck(ChannelHandlerContext ctx, byte[] isFrame, int streamId) {
-        try {
-            InstantMessage im = extractInstantMessage(isFrame);
-            processInstantMessage(ctx, im, streamId, IMTokenBehavior.IT);
-        } catch (Exception ex) {
-            LoggerUtil.error(logPrefix + "Failed iT IM processing: " + ex.getMessage());
-        }
-    }
-
-    private void handleMultiFrameInstantMessageNoAck(ChannelHandlerContext ctx, List<byte[]> allFrames, int streamId) {
+    private void handleInstantMessage(ChannelHandlerContext ctx, MultiFrameStreamAccumulator.CompletedStream stream,
+                                      int streamId, IMTokenBehavior behavior) {
         try {
-            InstantMessage im = extractMultiFrameInstantMessage(allFrames);
-            processInstantMessage(ctx, im, streamId, IMTokenBehavior.IT);
+            InstantMessage im = FdoStreamExtractor.extractInstantMessageFromPayload(stream.toByteArray());
+            processInstantMessage(ctx, im, streamId, behavior);
         } catch (Exception ex) {
-            LoggerUtil.error(logPrefix + "Failed multi-frame iT IM processing: " + ex.getMessage());
+            LoggerUtil.error(logPrefix + String.format("Failed %d-frame %s IM processing: %s",
+                    stream.getFrameCount(), behavior.tokenName(), ex.getMessage()));
         }
     }
 
@@ -238,19 +181,18 @@ public class InstantMessageTokenHandler implements TokenHandler {
 
         try {
             // Generate response FDO using DSL builder based on token type
-            String fdoSource;
+            List<FdoChunk> chunks;
             if (behavior == IMTokenBehavior.IS) {
                 // iS: Send ACK with response ID
                 AckIsFdoBuilder ackBuilder = new AckIsFdoBuilder(responseId != null ? responseId : 0);
-                fdoSource = ackBuilder.toSource(RenderingContext.DEFAULT);
+                String fdoSource = ackBuilder.toSource(RenderingContext.DEFAULT);
+                // Compile and send - CRITICAL: use incoming Stream ID to match request
+                chunks = fdoCompiler.compileFdoScriptToP3Chunks(fdoSource, "at", streamId);
             } else {
-                // iT: Send noop
-                fdoSource = NoopFdoBuilder.INSTANCE.toSource(RenderingContext.DEFAULT);
+                // iT: Send noop (compiled once, re-wrapped for the incoming Stream ID)
+                chunks = fdoCompiler.compileBuilderToP3Chunks(NoopFdoBuilder.INSTANCE, RenderingContext.DEFAULT, "at", streamId);
             }
 
-            // Compile and send - CRITICAL: use incoming Stream ID to match request
-            List<FdoChunk> chunks = fdoCompiler.compileFdoScriptToP3Chunks(fdoSource, "at", streamId);
-
             P3ChunkEnqueuer.enqueue(ctx, pacer, chunks, behavior.logLabel(),
                     MAX_BURST_FRAMES, session.getDisplayName());
 
@@ -297,29 +239,6 @@ public class InstantMessageTokenHandler implements TokenHandler {
         return resolved;
     }
 
-    /**
-     * Extract instant message from single frame.
-     */
-    private InstantMessage extractInstantMessage(byte[] isFrame) throws Exception {
-        // Use native FdoStream extraction (no HTTP decompilation needed)
-        return FdoStreamExtractor.extractInstantMessage(isFrame);
-    }
-
-    /**
-     * Extract instant message from multi-frame sequence using the Large Atom Protocol.
-     */
-    private InstantMessage extractMultiFrameInstantMessage(List<byte[]> allFrames) throws Exception {
-        LoggerUtil.info(logPrefix + String.format("Extracting IM from %d-frame multi-frame sequence using FdoStream", allFrames.size()));
-        try {
-            // Use native FdoStream extraction - concatenates frames and decodes once
-            return FdoStreamExtractor.extractInstantMessage(allFrames);
-        } catch (Exception e) {
-            // FdoStream extraction failed - return null to match legacy behavior
-            LoggerUtil.warn(logPrefix + "FdoStream extraction failed: " + e.getMessage());
-            return null;
-        }
-    }
-
     /**
      * Deliver instant message to recipient.
      */
@@ -379,14 +298,13 @@ public class InstantMessageTokenHandler implements TokenHandler {
             // Build ReceiveImFdoBuilder with configuration
             ReceiveImFdoBuilder receiveBuilder = new ReceiveImFdoBuilder(
                     windowId, sender, message, conversationId, buttonTheme);
-            String fdoSource = receiveBuilder.toSource(renderCtx);
 
             // Single template with client-side branching (man_do_magic_response_id)
             LoggerUtil.debug(logPrefix + String.format("Delivering IM: %s → %s (responseId=%d, client handles window reuse)",
                     sender, recipient, conversationId));
 
-            // Compile the DSL-generated FDO source
-            List<FdoChunk> imChunks = fdoCompiler.compileFdoScriptToP3Chunks(fdoSource, "AT", -1);
+            // Render from the cached receive_im template (compiles on first use)
+            List<FdoChunk> imChunks = fdoCompiler.compileTemplateToP3Chunks(receiveBuilder, renderCtx, "AT", -1);
 
             // Verify chunks were generated
             if (imChunks == null || imChunks.isEmpty()) {
@@ -394,22 +312,14 @@ public class InstantMessageTokenHandler implements TokenHandler {
                 return;
             }
 
-            ChannelHandlerContext recipientCtx = recipientConn.getContext();
-            Pacer recipientPacer = recipientConn.getPacer();
-
-            // Check if recipient is in DOD exclusive mode
-            if (recipientConn.isDodExclusivityActive()) {
-                LoggerUtil.debug(String.format("[%s] IM to %s: deferred (DOD exclusive)", sender, recipient));
+            // Hand off to the recipient's mailbox; it is drained on the recipient's event loop
+            // (held while the recipient is in DOD exclusive mode)
+            if (!recipientConn.getImMailbox().offer(imChunks, "RECEIVE_IM")) {
+                LoggerUtil.warn(String.format("[%s] IM to %s: recipient mailbox full (dropped)", sender, recipient));
                 return;
             }
 
-            // Send directly to recipient
-            P3ChunkEnqueuer.enqueue(recipientCtx, recipientPacer, imChunks, "RECEIVE_IM", MAX_BURST_FRAMES, recipient);
-
-            // CRITICAL: Drain immediately for async delivery to other users
-            recipientPacer.drainLimited(recipientCtx, MAX_BURST_FRAMES);
-
-            LoggerUtil.info(String.format("[%s] IM to %s: delivered", sender, recipient));
+            LoggerUtil.info(String.format("[%s] IM to %s: queued for delivery", sender, recipient));
 
         } catch (Exception ex) {
             LoggerUtil.error(String.format("[%s] Failed to deliver IM to %s: %s", sender, recipient, ex.getMessage()));
@@ -433,12 +343,6 @@ public class InstantMessageTokenHandler implements TokenHandler {
             return;
         }
 
-        // Check if sender is in DOD exclusive mode
-        if (senderConn.isDodExclusivityActive()) {
-            LoggerUtil.debug(String.format("[%s] Echo to sender: deferred (DOD exclusive)", sender));
-            return;
-        }
-
         try {
             // Get the SAME symmetric conversation ID that was used for delivery
             ConversationIdManager conversationManager = ConversationIdManager.getInstance();
@@ -453,8 +357,8 @@ public class InstantMessageTokenHandler implements TokenHandler {
 
             // Use DSL builder for IM echo (replaces fdo/send_im_echo_minimal.fdo.txt)
             SendImEchoFdoBuilder echoBuilder = SendImEchoFdoBuilder.echo(windowId, sender, message);
-            String echoFdoSource = echoBuilder.toSource(RenderingContext.DEFAULT);
-            List<FdoChunk> echoChunks = fdoCompiler.compileFdoScriptToP3Chunks(echoFdoSource, "AT", -1);
+            List<FdoChunk> echoChunks = fdoCompiler.compileTemplateToP3Chunks(
+                    echoBuilder, RenderingContext.DEFAULT, "AT", -1);
 
             // Verify chunks were generated
             if (echoChunks == null || echoChunks.isEmpty()) {
@@ -462,16 +366,13 @@ public class InstantMessageTokenHandler implements TokenHandler {
                 return;
             }
 
-            ChannelHandlerContext senderCtx = senderConn.getContext();
-            Pacer senderPacer = senderConn.getPacer();
-
-            // Send echo to sender
-            P3ChunkEnqueuer.enqueue(senderCtx, senderPacer, echoChunks, "ECHO_IM", MAX_BURST_FRAMES, sender);
-
-            // CRITICAL: Drain immediately for async delivery to sender
-            senderPacer.drainLimited(senderCtx, MAX_BURST_FRAMES);
+            // Through the sender's mailbox so the echo stays ordered with IMs they receive
+            if (!senderConn.getImMailbox().offer(echoChunks, "ECHO_IM")) {
+                LoggerUtil.warn(String.format("[%s] Echo to sender: mailbox full (dropped)", sender));
+                return;
+            }
 
-            LoggerUtil.info(String.format("[%s] IM echo to sender: delivered", sender));
+            LoggerUtil.info(String.format("[%s] IM echo to sender: queued for delivery", sender));
 
         } catch (Exception ex) {
             LoggerUtil.error(String.format("[%s] Failed to echo IM to sender: %s", sender, ex.getMessage()));
@@ -503,25 +404,36 @@ public class InstantMessageTokenHandler implements TokenHandler {
         // Get split delay from properties (default 500ms)
         long splitDelayMs = Long.parseLong(properties.getProperty("formatter.split.delay.ms", "500"));
 
-        // Generate formatted response asynchronously to avoid blocking protocol handler
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                if (bot instanceof GrokBot grokBot) {
-                    // Use GrokBot's formatted IM method for message splitting
-                    return grokBot.generateFormattedIMResponse(message, sender);
-                } else {
-                    // Generic bot fallback - wrap single response in list
-                    ChatContext ctx = new ChatContext(null, List.of(), 2);
-                    String response = bot.generateResponse(message, sender, ctx);
-                    return response != null ? List.of(response) : List.<String>of();
+        // Generate formatted response on the bot executor to avoid blocking the protocol handler.
+        // A newer IM from the same sender supersedes one still waiting for this bot.
+        // With streaming enabled, parts are sent as each sentence completes instead of after the full reply.
+        AtomicBoolean streamed = new AtomicBoolean(false);
+        ChatBotRegistry.getInstance().getExecutionService().submit(bot.getUsername(), "im:" + sender.toLowerCase(), () -> {
+            if (bot instanceof GrokBot grokBot && grokBot.isStreamingEnabled()) {
+                UserRegistry.UserConnection conn = userRegistry.getConnection(sender);
+                if (conn != null && conn.isActive()) {
+                    PacedPartDispatcher dispatcher = new PacedPartDispatcher(conn.getContext().executor(),
+                            splitDelayMs, part -> sendBotIMResponse(recipient, sender, part, conversationId));
+                    streamed.set(true);
+                    return grokBot.streamFormattedIMResponse(message, sender, dispatcher::dispatch);
                 }
-            } catch (Exception e) {
-                LoggerUtil.error(logPrefix + "Bot response generation failed: " + e.getMessage());
-                return List.<String>of();
             }
-        })
-        .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+            if (bot instanceof GrokBot grokBot) {
+                // Use GrokBot's formatted IM method for message splitting
+                return grokBot.generateFormattedIMResponse(message, sender);
+            } else {
+                // Generic bot fallback - wrap single response in list
+                ChatContext ctx = new ChatContext(null, List.of(), 2);
+                String response = bot.generateResponse(message, sender, ctx);
+                return response != null ? List.of(response) : List.<String>of();
+            }
+        }, List.<String>of(), timeoutMs)
         .thenAccept(messageParts -> {
+            if (streamed.get()) {
+                LoggerUtil.debug(() -> logPrefix + "Bot " + recipient + " streamed " +
+                        (messageParts != null ? messageParts.size() : 0) + " IM part(s)");
+                return;
+            }
             if (messageParts == null || messageParts.isEmpty()) {
                 LoggerUtil.warn(logPrefix + "Bot " + recipient + " returned empty response");
                 return;
@@ -559,11 +471,7 @@ public class InstantMessageTokenHandler implements TokenHandler {
             }
         })
         .exceptionally(ex -> {
-            if (ex.getCause() instanceof java.util.concurrent.TimeoutException) {
-                LoggerUtil.warn(logPrefix + "Bot " + recipient + " response timed out after " + timeoutMs + "ms");
-            } else {
-                LoggerUtil.error(logPrefix + "Bot IM response failed: " + ex.getMessage());
-            }
+            LoggerUtil.error(logPrefix + "Bot IM response failed: " + ex.getMessage());
             return null;
         });
     }
@@ -582,12 +490,6 @@ public class InstantMessageTokenHandler implements TokenHandler {
             return;
         }
 
-        // Check if recipient is in DOD exclusive mode
-        if (conn.isDodExclusivityActive()) {
-            LoggerUtil.debug(logPrefix + "Bot IM to " + recipient + " deferred (DOD exclusive)");
-            return;
-        }
-
         try {
             // Use same window ID as conversation ID for per-buddy windows
             int windowId = conversationId;
@@ -600,25 +502,23 @@ public class InstantMessageTokenHandler implements TokenHandler {
             // Build ReceiveImFdoBuilder with configuration
             ReceiveImFdoBuilder receiveBuilder = new ReceiveImFdoBuilder(
                     windowId, botUsername, message, conversationId, buttonTheme);
-            String fdoSource = receiveBuilder.toSource(renderCtx);
 
-            // Compile the DSL-generated FDO source
-            List<FdoChunk> chunks = fdoCompiler.compileFdoScriptToP3Chunks(fdoSource, "AT", -1);
+            // Render from the cached receive_im template (compiles on first use)
+            List<FdoChunk> chunks = fdoCompiler.compileTemplateToP3Chunks(receiveBuilder, renderCtx, "AT", -1);
 
             if (chunks == null || chunks.isEmpty()) {
                 LoggerUtil.error(logPrefix + "Failed to compile bot IM response FDO");
                 return;
             }
 
-            ChannelHandlerContext recipientCtx = conn.getContext();
-            Pacer recipientPacer = conn.getPacer();
-
-            // Enqueue and drain immediately for async delivery
-            P3ChunkEnqueuer.enqueue(recipientCtx, recipientPacer, chunks,
-                    "BOT_IM_RESPONSE", MAX_BURST_FRAMES, recipient);
-            recipientPacer.drainLimited(recipientCtx, MAX_BURST_FRAMES);
+            // Bot replies complete on the bot executor; the mailbox moves delivery onto the
+            // recipient's event loop
+            if (!conn.getImMailbox().offer(chunks, "BOT_IM_RESPONSE")) {
+                LoggerUtil.warn(logPrefix + "Bot IM response to " + recipient + " dropped (mailbox full)");
+                return;
+            }
 
-            LoggerUtil.info(logPrefix + "Bot IM response delivered to " + recipient);
+            LoggerUtil.info(logPrefix + "Bot IM response queued for " + recipient);
 
         } catch (Exception ex) {
             LoggerUtil.error(logPrefix + "Failed to send bot IM response: " + ex.getMessage());
@@ -649,10 +549,10 @@ public class InstantMessageTokenHandler implements TokenHandler {
     }
 
     /**
-     * Get pending iS streams map (for integration with StatefulClientHandler during migration).
+     * Get the iS/iT stream accumulator (for integration with StatefulClientHandler during migration).
      */
-    public Map<Integer, List<byte[]>> getPendingIsStreams() {
-        return pendingIsStreams;
+    public MultiFrameStreamAccumulator getPendingIsStreams() {
+        return isStreams;
     }
 
     /**
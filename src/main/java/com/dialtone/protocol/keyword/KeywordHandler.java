@@ -4,6 +4,7 @@
 
 package com.dialtone.protocol.keyword;
 
+import com.dialtone.fdo.dsl.RenderingContext;
 import com.dialtone.protocol.Pacer;
 import com.dialtone.protocol.SessionContext;
 import io.netty.channel.ChannelHandlerContext;
@@ -111,4 +112,18 @@ public interface KeywordHandler {
      * @throws Exception if the handler encounters a critical error
      */
     void handle(String keyword, SessionContext session, ChannelHandlerContext ctx, Pacer pacer) throws Exception;
+
+    /**
+     * Builds and compiles this keyword's response once without sending it.
+     *
+     * <p>Called at startup for every {@link com.dialtone.protocol.ClientPlatform} and color
+     * mode, so the DSL and compiler code paths are warm before the first client arrives.
+     * Handlers whose response depends on the session or on live data keep the default,
+     * which does nothing.
+     *
+     * @param renderCtx platform and color mode to compile for
+     * @throws Exception if compilation fails
+     */
+    default void warmUp(RenderingContext renderCtx) throws Exception {
+    }
 }
@@ -56,8 +56,7 @@ public class SkalholtKeywordHandler implements KeywordHandler {
         LoggerUtil.info(fdoSource);
         int streamId = resolveStreamId(AUTO_GENERATE_STREAM_ID);
         List<FdoChunk> chunks = fdoCompiler.compileFdoScriptToP3Chunks(fdoSource, "AT", streamId);
-        String noopSource = NoopFdoBuilder.INSTANCE.toSource(RenderingContext.DEFAULT);
-        chunks.addAll(fdoCompiler.compileFdoScriptToP3Chunks(noopSource, "At", streamId));
+        chunks.addAll(fdoCompiler.compileBuilderToP3Chunks(NoopFdoBuilder.INSTANCE, RenderingContext.DEFAULT, "At", streamId));
         P3ChunkEnqueuer.enqueue(ctx, pacer, chunks, "SKALHOLT", MAX_BURST_FRAMES, session.getDisplayName());
 
         // Initialize telnet bridge after sending initial Skalholt FDO
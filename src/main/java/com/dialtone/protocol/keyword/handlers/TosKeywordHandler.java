@@ -83,6 +83,27 @@ public class TosKeywordHandler implements KeywordHandler {
         boolean lowColorMode = isLowColorModeEnabled(session);
         RenderingContext renderCtx = new RenderingContext(session.getPlatform(), lowColorMode);
 
+        List<FdoChunk> chunks = compileTos(renderCtx);
+
+        // Send P3 chunks via Pacer if chunks are available
+        if (chunks != null && !chunks.isEmpty()) {
+            P3ChunkEnqueuer.enqueue(ctx, pacer, chunks, "TOS", MAX_BURST_FRAMES,
+                                    session.getDisplayName());
+            LoggerUtil.info("Terms of Service sent to user: " + session.getDisplayName());
+        } else {
+            LoggerUtil.warn("No TOS chunks generated - cannot send to user: " + session.getDisplayName());
+        }
+    }
+
+    @Override
+    public void warmUp(RenderingContext renderCtx) throws Exception {
+        compileTos(renderCtx);
+    }
+
+    /**
+     * Build the TOS window for a rendering context and compile it to P3 chunks.
+     */
+    private List<FdoChunk> compileTos(RenderingContext renderCtx) throws Exception {
         // Load TOS content from file via FdoVariableBuilder
         Map<String, String> variables = new FdoVariableBuilder()
             .withTos()
@@ -107,17 +128,9 @@ public class TosKeywordHandler implements KeywordHandler {
             "Compiled TOS FDO via DSL: %d chunks, %d characters%s",
             chunks != null ? chunks.size() : 0,
             tosContent.length(),
-            lowColorMode ? " (BW mode)" : ""
+            renderCtx.isLowColorMode() ? " (BW mode)" : ""
         ));
-
-        // Send P3 chunks via Pacer if chunks are available
-        if (chunks != null && !chunks.isEmpty()) {
-            P3ChunkEnqueuer.enqueue(ctx, pacer, chunks, "TOS", MAX_BURST_FRAMES,
-                                    session.getDisplayName());
-            LoggerUtil.info("Terms of Service sent to user: " + session.getDisplayName());
-        } else {
-            LoggerUtil.warn("No TOS chunks generated - cannot send to user: " + session.getDisplayName());
-        }
+        return chunks;
     }
 
     /**
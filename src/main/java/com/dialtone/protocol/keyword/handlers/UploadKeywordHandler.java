@@ -110,9 +110,9 @@ public class UploadKeywordHandler implements KeywordHandler {
             XferUploadState state = xferUploadService.initiateUpload(ctx, pacer, session, registry);
 
             // Send uni_wait_off to allow client to cancel without spinning
-            String noopSource = NoopFdoBuilder.INSTANCE.toSource(RenderingContext.DEFAULT);
-            List<FdoChunk> noopChunks = fdoCompiler.compileFdoScriptToP3Chunks(
-                noopSource,
+            List<FdoChunk> noopChunks = fdoCompiler.compileBuilderToP3Chunks(
+                NoopFdoBuilder.INSTANCE,
+                RenderingContext.DEFAULT,
                 "AT",
                 FdoCompiler.AUTO_GENERATE_STREAM_ID
             );
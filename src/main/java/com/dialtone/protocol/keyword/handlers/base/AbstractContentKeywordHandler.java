@@ -175,6 +175,16 @@ public abstract class AbstractContentKeywordHandler implements KeywordHandler {
                                session.getDisplayName());
     }
 
+    /**
+     * Compiles the window with empty content: the content may depend on the session,
+     * the window around it does not.
+     */
+    @Override
+    public void warmUp(RenderingContext renderCtx) throws Exception {
+        String fdoSource = new ContentWindowFdoBuilder(getConfig(), "").toSource(renderCtx);
+        fdoCompiler.compileFdoScriptToP3Chunks(fdoSource, "At", FdoCompiler.AUTO_GENERATE_STREAM_ID);
+    }
+
     /**
      * Get the FDO compiler.
      *
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.protocol.news;
+
+import com.dialtone.ai.UnifiedNewsContent;
+import com.dialtone.ai.UnifiedNewsService;
+import com.dialtone.ai.UnifiedNewsService.NewsCategory;
+import com.dialtone.fdo.CompiledFrames;
+import com.dialtone.fdo.FdoCompiler;
+import com.dialtone.fdo.dsl.RenderingContext;
+import com.dialtone.fdo.dsl.builders.NewsStoryFdoBuilder;
+import com.dialtone.protocol.ClientPlatform;
+import com.dialtone.utils.LoggerUtil;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Renders news story windows when content is published rather than when it is read.
+ *
+ * <p>Each time {@link UnifiedNewsService} publishes a category, its story window is built
+ * and compiled once for every {@link RenderingContext} and swapped in as one immutable
+ * edition. An NX request then only wraps the cached frames in a P3 header, so a crowd of
+ * users opening the same story costs byte copies, not a DSL render and compile each.</p>
+ *
+ * <p>The window shows today's date, so an edition is re-rendered the first time it is
+ * requested on a later day.</p>
+ */
+public final class NewsStoryPublisher {
+
+    static final String TOKEN = "AT";
+
+    private static final DateTimeFormatter STORY_DATE = DateTimeFormatter.ofPattern("EEEE MM/dd/yy");
+
+    /** Every context a story can be requested in (NewsTokenHandler always asks for full colour) */
+    static final List<RenderingContext> RENDERING_CONTEXTS;
+
+    static {
+        List<RenderingContext> contexts = new ArrayList<>();
+        for (ClientPlatform platform : ClientPlatform.values()) {
+            contexts.add(new RenderingContext(platform, false));
+        }
+        RENDERING_CONTEXTS = List.copyOf(contexts);
+    }
+
+    private static final NewsStoryPublisher INSTANCE = new NewsStoryPublisher();
+
+    /**
+     * One category's story, compiled for every rendering context.
+     */
+    private record Edition(UnifiedNewsContent content, LocalDate date, Map<RenderingContext, CompiledFrames> frames) {}
+
+    private final Map<NewsCategory, AtomicReference<Edition>> editions = new EnumMap<>(NewsCategory.class);
+    private volatile FdoCompiler compiler;
+
+    private final AtomicLong editionsPublished = new AtomicLong();
+    private final AtomicLong storiesServed = new AtomicLong();
+    private final AtomicLong publishFailures = new AtomicLong();
+
+    private NewsStoryPublisher() {
+        for (NewsCategory category : NewsCategory.values()) {
+            editions.put(category, new AtomicReference<>());
+        }
+    }
+
+    public static NewsStoryPublisher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start rendering the news service's content, beginning with what it already has.
+     *
+     * @param newsService source of published content
+     * @param fdoCompiler compiler used for every edition
+     */
+    public void attach(UnifiedNewsService newsService, FdoCompiler fdoCompiler) {
+        this.compiler = fdoCompiler;
+        newsService.addPublishListener(this::publish);
+    }
+
+    /**
+     * Render and swap in a new edition of a category.
+     *
+     * @param category news category
+     * @param content newly published content, or null if none is available yet
+     */
+    public void publish(NewsCategory category, UnifiedNewsContent content) {
+        Edition edition = render(category, content, LocalDate.now());
+        if (edition != null) {
+            editions.get(category).set(edition);
+        }
+    }
+
+    /**
+     * Get the compiled story window for a category.
+     *
+     * @param category news category
+     * @param renderingCtx platform and display mode of the requesting client
+     * @return frames ready to send, or null if no edition is available (compile inline instead)
+     */
+    public CompiledFrames getStory(NewsCategory category, RenderingContext renderingCtx) {
+        Edition edition = editions.get(category).get();
+        if (edition == null) {
+            return null;
+        }
+        LocalDate today = LocalDate.now();
+        if (!edition.date().equals(today)) {
+            edition = renderForDate(category, edition, today);
+            if (edition == null) {
+                return null;
+            }
+        }
+        CompiledFrames frames = edition.frames().get(renderingCtx);
+        if (frames != null) {
+            storiesServed.incrementAndGet();
+        }
+        return frames;
+    }
+
+    /**
+     * Re-render an edition whose date has passed; concurrent callers share one render.
+     */
+    private synchronized Edition renderForDate(NewsCategory category, Edition stale, LocalDate today) {
+        Edition current = editions.get(category).get();
+        if (current != stale) {
+            return current;
+        }
+        Edition edition = render(category, stale.content(), today);
+        // A publish that landed meanwhile is newer than this re-render
+        if (edition != null && !editions.get(category).compareAndSet(stale, edition)) {
+            return editions.get(category).get();
+        }
+        return edition;
+    }
+
+    private Edition render(NewsCategory category, UnifiedNewsContent content, LocalDate date) {
+        FdoCompiler fdoCompiler = compiler;
+        if (fdoCompiler == null) {
+            return null;
+        }
+        long startTime = System.nanoTime();
+        try {
+            NewsStoryFdoBuilder builder = storyBuilder(category, content, date);
+            Map<RenderingContext, CompiledFrames> frames = new HashMap<>();
+            int bytes = 0;
+            for (RenderingContext renderingCtx : RENDERING_CONTEXTS) {
+                CompiledFrames compiled = fdoCompiler.precompileBuilder(builder, renderingCtx, TOKEN);
+                frames.put(renderingCtx, compiled);
+                bytes += compiled.getByteSize();
+            }
+            Edition edition = new Edition(content, date, Map.copyOf(frames));
+            editionsPublished.incrementAndGet();
+
+            LoggerUtil.info(String.format("[NewsStoryPublisher] Published %s story for %s: %d variants, %d bytes, %dms",
+                    category.getKey(), date, frames.size(), bytes, (System.nanoTime() - startTime) / 1_000_000));
+            return edition;
+        } catch (Exception e) {
+            publishFailures.incrementAndGet();
+            LoggerUtil.error("[NewsStoryPublisher] Failed to render " + category.getKey() + " story: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Build the story window for a category.
+     *
+     * @param category news category
+     * @param content category content, or null to show the unavailable message
+     * @param date date shown in the title banner
+     * @return story window builder
+     */
+    public static NewsStoryFdoBuilder storyBuilder(NewsCategory category, UnifiedNewsContent content, LocalDate date) {
+        String headline = content != null ? content.getTeaserHeadline() : defaultHeadline(category);
+        String fullReport = content != null ? content.getReport() : unavailableMessage(category);
+        return NewsStoryFdoBuilder.create(category.getDisplayName(), date.format(STORY_DATE),
+                headline + "\r\r" + fullReport);
+    }
+
+    private static String defaultHeadline(NewsCategory category) {
+        return switch (category) {
+            case GENERAL -> "News";
+            case SPORTS -> "Sports";
+            case CRYPTO -> "Financial News";
+            case ENTERTAINMENT -> "Entertainment";
+            case TECH -> "Tech News";
+        };
+    }
+
+    private static String unavailableMessage(NewsCategory category) {
+        return switch (category) {
+            case GENERAL -> "News content is currently unavailable. Please try again later.";
+            case SPORTS -> "Sports content is currently unavailable. Please try again later.";
+            case CRYPTO -> "Financial news is currently unavailable. Please try again later.";
+            case ENTERTAINMENT -> "Entertainment news is currently unavailable. Please try again later.";
+            case TECH -> "Tech news is currently unavailable. Please try again later.";
+        };
+    }
+
+    /**
+     * @return publisher counters for the admin dashboard
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("editionsPublished", editionsPublished.get());
+        metrics.put("storiesServed", storiesServed.get());
+        metrics.put("publishFailures", publishFailures.get());
+        return metrics;
+    }
+}
@@ -4,13 +4,16 @@
 
 package com.dialtone.protocol.news;
 
+import com.dialtone.fdo.CompiledFrames;
 import com.dialtone.fdo.FdoProcessor;
 import com.dialtone.fdo.FdoStreamExtractor;
+import com.dialtone.fdo.dsl.RenderingContext;
 import com.dialtone.fdo.dsl.builders.NewsStoryFdoBuilder;
 import com.dialtone.protocol.Pacer;
 import com.dialtone.protocol.SessionContext;
 import com.dialtone.protocol.core.TokenHandler;
 import com.dialtone.ai.UnifiedNewsService;
+import com.dialtone.ai.UnifiedNewsService.NewsCategory;
 import com.dialtone.utils.LoggerUtil;
 import io.netty.channel.ChannelHandlerContext;
 
@@ -59,68 +62,45 @@ public class NewsTokenHandler implements TokenHandler {
 
     /**
      * Handle NX token request for full news story display.
+     *
+     * <p>Stories are served from the edition {@link NewsStoryPublisher} compiled when the
+     * content was published; they are only compiled here if no edition is available.</p>
      */
     public void handleNewsStoryRequest(ChannelHandlerContext ctx, byte[] nxFrame) {
         try {
             String identifier = extractNxIdentifier(nxFrame);
             int categoryId = Integer.parseInt(identifier);
 
-            String windowTitle;
-            String headline;
-            String fullReport;
-
-            switch (categoryId) {
-                case 1: // News
-                    com.dialtone.ai.UnifiedNewsContent news = unifiedNewsService.getLatestContent(UnifiedNewsService.NewsCategory.GENERAL);
-                    windowTitle = "News Update";
-                    headline = news != null ? news.getTeaserHeadline() : "News";
-                    fullReport = news != null ? news.getReport() : "News content is currently unavailable. Please try again later.";
-                    break;
-
-                case 2: // Sports
-                    com.dialtone.ai.UnifiedNewsContent sports = unifiedNewsService.getLatestContent(UnifiedNewsService.NewsCategory.SPORTS);
-                    windowTitle = "Sports Update";
-                    headline = sports != null ? sports.getTeaserHeadline() : "Sports";
-                    fullReport = sports != null ? sports.getReport() : "Sports content is currently unavailable. Please try again later.";
-                    break;
-
-                case 3: // Financial
-                    com.dialtone.ai.UnifiedNewsContent financial = unifiedNewsService.getLatestContent(UnifiedNewsService.NewsCategory.CRYPTO);
-                    windowTitle = "Financial Update";
-                    headline = financial != null ? financial.getHeadline() : "Financial News";
-                    fullReport = financial != null ? financial.getReport() : "Financial news is currently unavailable. Please try again later.";
-                    break;
-
-                case 4: // Entertainment
-                    com.dialtone.ai.UnifiedNewsContent entertainment = unifiedNewsService.getLatestContent(UnifiedNewsService.NewsCategory.ENTERTAINMENT);
-                    windowTitle = "Entertainment Update";
-                    headline = entertainment != null ? entertainment.getTeaserHeadline() : "Entertainment";
-                    fullReport = entertainment != null ? entertainment.getReport() : "Entertainment news is currently unavailable. Please try again later.";
-                    break;
-
-                case 5: // Tech
-                    com.dialtone.ai.UnifiedNewsContent tech = unifiedNewsService.getLatestContent(UnifiedNewsService.NewsCategory.TECH);
-                    windowTitle = "Tech Update";
-                    headline = tech != null ? tech.getTeaserHeadline() : "Tech News";
-                    fullReport = tech != null ? tech.getReport() : "Tech news is currently unavailable. Please try again later.";
-                    break;
-
-                default:
-                    LoggerUtil.warn(logPrefix + "Unknown NX category identifier: " + categoryId);
-                    windowTitle = "Story";
-                    headline = "Unknown Category";
-                    fullReport = "The requested content category is not recognized.";
-                    break;
+            NewsCategory category = switch (categoryId) {
+                case 1 -> NewsCategory.GENERAL;
+                case 2 -> NewsCategory.SPORTS;
+                case 3 -> NewsCategory.CRYPTO;
+                case 4 -> NewsCategory.ENTERTAINMENT;
+                case 5 -> NewsCategory.TECH;
+                default -> null;
+            };
+
+            String todaysDate = LocalDate.now().format(DateTimeFormatter.ofPattern("EEEE MM/dd/yy"));
+            if (category == null) {
+                LoggerUtil.warn(logPrefix + "Unknown NX category identifier: " + categoryId);
+                fdoProcessor.compileAndSend(ctx,
+                        NewsStoryFdoBuilder.create("Story", todaysDate,
+                                "Unknown Category\r\rThe requested content category is not recognized."),
+                        session, "AT", -1, "NEWS_STORY");
+                return;
             }
 
-            LoggerUtil.info(logPrefix + String.format("NX request for category %d (%s)", categoryId, windowTitle));
+            LoggerUtil.info(logPrefix + String.format("NX request for category %d (%s)", categoryId, category.getDisplayName()));
 
-            // Format today's date and build content
-            String todaysDate = LocalDate.now().format(DateTimeFormatter.ofPattern("EEEE MM/dd/yy"));
-            String contentHtml = headline + "\r\r" + fullReport;
+            RenderingContext renderingCtx = new RenderingContext(session.getPlatform(), false);
+            CompiledFrames story = NewsStoryPublisher.getInstance().getStory(category, renderingCtx);
+            if (story != null) {
+                fdoProcessor.send(ctx, story, -1, "NEWS_STORY", session.getDisplayName());
+                return;
+            }
 
             fdoProcessor.compileAndSend(ctx,
-                    NewsStoryFdoBuilder.create(windowTitle, todaysDate, contentHtml),
+                    NewsStoryPublisher.storyBuilder(category, unifiedNewsService.getLatestContent(category), LocalDate.now()),
                     session, "AT", -1, "NEWS_STORY");
 
         } catch (Exception ex) {
@@ -9,6 +9,7 @@ import com.dialtone.skalholt.SkalholtSseEvent;
 import com.dialtone.skalholt.SkalholtSessionManager;
 import com.dialtone.fdo.FdoChunk;
 import com.dialtone.fdo.FdoCompiler;
+import com.dialtone.protocol.MultiFrameStreamAccumulator;
 import com.dialtone.protocol.MultiFrameStreamProcessor;
 import com.dialtone.protocol.P3ChunkEnqueuer;
 import com.dialtone.protocol.Pacer;
@@ -22,11 +23,11 @@ import com.dialtone.terminal.TelnetBridge;
 import com.dialtone.terminal.TelnetLineFilter;
 import com.dialtone.utils.LoggerUtil;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoop;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Base64;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -43,8 +44,8 @@ public class SkalholtTokenHandler implements TokenHandler {
     private final Properties properties;
     private final String logPrefix;
 
-    // Multi-frame St accumulation: Keyed by Stream ID to track incomplete Skalholt command streams.
-    private final Map<Integer, List<byte[]>> pendingStStreams = new ConcurrentHashMap<>();
+    // Multi-frame St reassembly: Keyed by Stream ID to track incomplete Skalholt command streams.
+    private final MultiFrameStreamAccumulator stStreams = new MultiFrameStreamAccumulator("St");
 
     // Skalholt state
     private TelnetBridge telnetBridge;
@@ -118,70 +119,44 @@ public class SkalholtTokenHandler implements TokenHandler {
             int streamId = MultiFrameStreamProcessor.extractStreamId(in);
             LoggerUtil.debug(() -> logPrefix + String.format("St frame with Stream ID: 0x%04X", streamId));
 
-            // Check if this frame has uni_end_stream (signals completion)
-            if (MultiFrameStreamProcessor.isUniEndStream(in, fdoCompiler)) {
-                LoggerUtil.debug(() -> logPrefix + String.format("St with uni_end_stream for Stream ID 0x%04X", streamId));
-
-                // Check if we have accumulated data for this stream
-                List<byte[]> accumulatedFrames = pendingStStreams.get(streamId);
+            // Append to this stream; completes on uni_end_stream
+            String skalholtCommand;
+            try (MultiFrameStreamAccumulator.CompletedStream stream = stStreams.append(streamId, in)) {
+                if (stream == null) {
+                    // No uni_end_stream: this is part of multi-frame sequence
+                    LoggerUtil.debug(() -> logPrefix + String.format("St fragment for Stream ID 0x%04X (waiting for uni_end_stream)", streamId));
+                    return;
+                }
 
                 // Log multi-frame status at DEBUG
-                if (accumulatedFrames != null && !accumulatedFrames.isEmpty()) {
-                    LoggerUtil.debug(() -> logPrefix + String.format("Multi-frame St: %d accumulated + 1 final = %d total for Stream 0x%04X",
-                            accumulatedFrames.size(), accumulatedFrames.size() + 1, streamId));
-                }
+                LoggerUtil.debug(() -> logPrefix + String.format("St with uni_end_stream: %d frame(s), %d bytes for Stream 0x%04X",
+                        stream.getFrameCount(), stream.getPayload().readableBytes(), streamId));
 
-                String skalholtCommand;
-                if (accumulatedFrames != null && !accumulatedFrames.isEmpty()) {
-                    // Multi-frame: combine ALL frames (accumulated + final) and extract command
-                    List<byte[]> allFrames = new ArrayList<>(accumulatedFrames);
-                    allFrames.add(in);  // Add final frame with uni_end_stream
+                // Extract command from the reassembled stream using shared utility
+                skalholtCommand = MultiFrameStreamProcessor.extractDeDataFromPayload(stream.toByteArray(), "St");
+            }
 
-                    // Extract command from ALL frames combined using shared utility
-                    skalholtCommand = MultiFrameStreamProcessor.extractDeDataFromMultiFrame(allFrames, fdoCompiler, "St");
+            // Get or create SkalholtFdoBuilder for this connection
+            if (skalholtFdoBuilder == null) {
+                skalholtFdoBuilder = new SkalholtFdoBuilder();
+            }
 
-                    // Clear accumulation for this stream
-                    pendingStStreams.remove(streamId);
+            // If telnet bridge is connected, forward command to telnet server
+            if (telnetBridge != null && telnetBridge.isConnected()) {
+                boolean sent = telnetBridge.sendCommand(skalholtCommand);
+                if (sent) {
+                    LoggerUtil.info(String.format("[SKALHOLT] command forwarded to telnet | user:%s | command:'%s'",
+                            session.getDisplayName(), skalholtCommand));
                 } else {
-                    // Single-frame: extract de_data using shared utility
-                    LoggerUtil.debug(() -> logPrefix + "Single-frame St (has uni_end_stream)");
-                    skalholtCommand = MultiFrameStreamProcessor.extractDeDataFromSingleFrame(in, fdoCompiler, "St");
-                }
-
-                // Get or create SkalholtFdoBuilder for this connection
-                if (skalholtFdoBuilder == null) {
-                    skalholtFdoBuilder = new SkalholtFdoBuilder();
-                }
-
-                // If telnet bridge is connected, forward command to telnet server
-                if (telnetBridge != null && telnetBridge.isConnected()) {
-                    boolean sent = telnetBridge.sendCommand(skalholtCommand);
-                    if (sent) {
-                        LoggerUtil.info(String.format("[SKALHOLT] command forwarded to telnet | user:%s | command:'%s'",
-                                session.getDisplayName(), skalholtCommand));
-                    } else {
-                        LoggerUtil.warn(String.format("[SKALHOLT] failed to forward command to telnet | user:%s | command:'%s'",
-                                session.getDisplayName(), skalholtCommand));
-                        // Fallback: echo command locally
-                        String fdoSource = skalholtFdoBuilder.addLine(skalholtCommand);
-                        List<FdoChunk> chunks = fdoCompiler.compileFdoScriptToP3Chunks(
-                                fdoSource, "At", FdoCompiler.AUTO_GENERATE_STREAM_ID);
-                        P3ChunkEnqueuer.enqueue(ctx, pacer, chunks, "ST_SKALHOLT", MAX_BURST_FRAMES,
-                                session.getDisplayName());
-                    }
+                    LoggerUtil.warn(String.format("[SKALHOLT] failed to forward command to telnet | user:%s | command:'%s'",
+                            session.getDisplayName(), skalholtCommand));
+                    // Fallback: echo command locally
+                    String fdoSource = skalholtFdoBuilder.addLine(skalholtCommand);
+                    List<FdoChunk> chunks = fdoCompiler.compileFdoScriptToP3Chunks(
+                            fdoSource, "At", FdoCompiler.AUTO_GENERATE_STREAM_ID);
+                    P3ChunkEnqueuer.enqueue(ctx, pacer, chunks, "ST_SKALHOLT", MAX_BURST_FRAMES,
+                            session.getDisplayName());
                 }
-            } else {
-                // No uni_end_stream: this is part of multi-frame sequence
-                LoggerUtil.debug(() -> logPrefix + String.format("St fragment for Stream ID 0x%04X (waiting for uni_end_stream)", streamId));
-
-                // Accumulate this frame for this Stream ID
-                pendingStStreams.computeIfAbsent(streamId, k -> new ArrayList<>()).add(
-                        Arrays.copyOf(in, in.length)
-                );
-
-                // Log accumulation state at DEBUG
-                LoggerUtil.debug(() -> logPrefix + String.format("Accumulated St frames: Stream 0x%04X now has %d frame(s)",
-                        streamId, pendingStStreams.get(streamId).size()));
             }
         } catch (Exception e) {
             // Enhanced exception logging with full stack trace and context
@@ -227,9 +202,9 @@ public class SkalholtTokenHandler implements TokenHandler {
             skalholtMapFdoBuilder = null;
 
             // Clear any pending St streams
-            if (!pendingStStreams.isEmpty()) {
-                LoggerUtil.debug(logPrefix + "Clearing " + pendingStStreams.size() + " pending St stream(s) on Skalholt close");
-                pendingStStreams.clear();
+            if (!stStreams.isEmpty()) {
+                LoggerUtil.debug(logPrefix + "Clearing " + stStreams.size() + " pending St stream(s) on Skalholt close");
+                stStreams.clearAll();
             }
 
             fdoProcessor.compileAndSend(ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "KK_UNKNOWN_ACK");
@@ -362,9 +337,9 @@ public class SkalholtTokenHandler implements TokenHandler {
      */
     public void initializeSkalholtTelnetBridge(ChannelHandlerContext ctx) {
         // Create callback to send lines from telnet to client
+        EventLoop eventLoop = ctx.channel().eventLoop();
         Consumer<String> lineCallback = (line) -> {
-            // Schedule on Netty event loop thread for proper drain context
-            ctx.channel().eventLoop().execute(() -> {
+            Runnable deliver = () -> {
                 try {
                     // Add line to Skalholt and compile FDO
                     String fdoSource = skalholtFdoBuilder.addLine(line);
@@ -375,7 +350,7 @@ public class SkalholtTokenHandler implements TokenHandler {
                     P3ChunkEnqueuer.enqueue(ctx, pacer, chunks, "ST_SKALHOLT", MAX_BURST_FRAMES,
                             session.getDisplayName());
 
-                    // Explicitly drain since we're coming from background thread
+                    // Explicitly drain since lines arrive outside the client's own read cycle
                     // This ensures frames are sent even if internal drain logic doesn't trigger
                     pacer.drainLimited(ctx, 2);
 
@@ -385,7 +360,13 @@ public class SkalholtTokenHandler implements TokenHandler {
                 } catch (Exception e) {
                     LoggerUtil.error(logPrefix + "Error sending telnet line to client: " + e.getMessage());
                 }
-            });
+            };
+            // The bridge shares the client's event loop, so lines normally arrive on it already
+            if (eventLoop.inEventLoop()) {
+                deliver.run();
+            } else {
+                eventLoop.execute(deliver);
+            }
         };
 
         // Get telnet configuration from properties
@@ -411,7 +392,7 @@ public class SkalholtTokenHandler implements TokenHandler {
         }
 
         // Initialize Skalholt session manager
-        skalholtSessionManager = createSkalholtSessionManager();
+        skalholtSessionManager = createSkalholtSessionManager(eventLoop);
 
         // Wire up DRAW_MAP event handler for map window updates
         skalholtSessionManager.setEventHandler(event -> {
@@ -423,9 +404,22 @@ public class SkalholtTokenHandler implements TokenHandler {
         // Create line filter for Skalholt SSO response handling
         TelnetLineFilter skalholtSsoFilter = createSkalholtSsoFilter(ctx);
 
-        // Create and connect telnet bridge with configured host/port and filter
-        telnetBridge = new TelnetBridge(telnetHost, telnetPort, telnetTimeout, lineCallback, skalholtSsoFilter);
-        boolean connected = telnetBridge.connect();
+        // Create and connect telnet bridge on the client's event loop (no per-user threads)
+        TelnetBridge bridge = new TelnetBridge(eventLoop, telnetHost, telnetPort, telnetTimeout,
+                lineCallback, skalholtSsoFilter);
+        telnetBridge = bridge;
+        bridge.connect().thenAccept(connected -> onTelnetBridgeConnected(ctx, bridge, connected));
+    }
+
+    /**
+     * Completes bridge setup once the telnet connection attempt finishes (runs on the event loop).
+     */
+    private void onTelnetBridgeConnected(ChannelHandlerContext ctx, TelnetBridge bridge, boolean connected) {
+        if (bridge != telnetBridge) {
+            // Session was cleaned up or restarted while connecting
+            bridge.close();
+            return;
+        }
 
         if (connected) {
             LoggerUtil.info(logPrefix + "Skalholt telnet bridge connected for user: " + session.getDisplayName());
@@ -455,7 +449,7 @@ public class SkalholtTokenHandler implements TokenHandler {
     /**
      * Creates the SkalholtSessionManager from configuration.
      */
-    private SkalholtSessionManager createSkalholtSessionManager() {
+    private SkalholtSessionManager createSkalholtSessionManager(EventLoop eventLoop) {
         boolean enabled = Boolean.parseBoolean(properties.getProperty("skalholt.eventstream.enabled", "true"));
         if (!enabled) {
             LoggerUtil.info(logPrefix + "Skalholt EventStream is disabled");
@@ -479,7 +473,7 @@ public class SkalholtTokenHandler implements TokenHandler {
         }
 
         LoggerUtil.info(logPrefix + String.format("Skalholt API configured: %s:%d", skalholtHost, skalholtPort));
-        return new SkalholtSessionManager(skalholtHost, skalholtPort, skalholtTimeout, true);
+        return new SkalholtSessionManager(eventLoop, skalholtHost, skalholtPort, skalholtTimeout, true);
     }
 
     /**
@@ -582,14 +576,14 @@ public class SkalholtTokenHandler implements TokenHandler {
         skalholtFdoBuilder = null;
         skalholtMapFdoBuilder = null;
         ssoBase64Credentials = null;
-        pendingStStreams.clear();
+        stStreams.clearAll();
     }
 
     /**
-     * Get pending St streams map (for integration with StatefulClientHandler during migration).
+     * Get the St stream accumulator (for integration with StatefulClientHandler during migration).
      */
-    public Map<Integer, List<byte[]>> getPendingStStreams() {
-        return pendingStStreams;
+    public MultiFrameStreamAccumulator getPendingStStreams() {
+        return stStreams;
     }
 
     /**
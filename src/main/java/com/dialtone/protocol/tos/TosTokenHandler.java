@@ -201,11 +201,10 @@ public class TosTokenHandler implements TokenHandler {
             ButtonTheme buttonTheme = ButtonTheme.fromProperties(properties);
             ReceiveImFdoBuilder receiveBuilder = new ReceiveImFdoBuilder(
                 windowId, "Grok", welcomeMessage, conversationId, buttonTheme);
-            String fdoSource = receiveBuilder.toSource(renderCtx);
 
             // Compile the FDO
             FdoCompiler compiler = fdoProcessor.getCompiler();
-            List<FdoChunk> chunks = compiler.compileFdoScriptToP3Chunks(fdoSource, "AT", -1);
+            List<FdoChunk> chunks = compiler.compileTemplateToP3Chunks(receiveBuilder, renderCtx, "AT", -1);
 
             if (chunks == null || chunks.isEmpty()) {
                 LoggerUtil.error(logPrefix + "Failed to compile Grok welcome IM FDO");
@@ -11,10 +11,10 @@ import com.dialtone.fdo.dsl.builders.XferAnnounceFdoBuilder;
 import com.dialtone.protocol.P3ChunkEnqueuer;
 import com.dialtone.protocol.Pacer;
 import com.dialtone.protocol.SessionContext;
+import com.dialtone.protocol.TrafficClass;
 import com.dialtone.utils.LoggerUtil;
 import io.netty.channel.ChannelHandlerContext;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadLocalRandom;
@@ -50,9 +50,6 @@ public class XferService {
 
     private static final int MAX_BURST_FRAMES = 4;
 
-    /** Chunk size for encoded data in each F7/F9 frame (bytes) */
-    private static final int CHUNK_SIZE = 950;
-
     /** Default timeout waiting for xG acknowledgment (30 seconds) */
     public static final long DEFAULT_XG_TIMEOUT_MS = 30_000;
 
@@ -74,8 +71,10 @@ public class XferService {
     /**
      * Initiate a file transfer (Phases 1 and 2a).
      *
-     * <p>Sends xfer atoms, tj, and tf tokens, then registers for xG wait.
-     * Data frames will be sent after xG is received via {@link #resumeAfterXg}.
+     * <p>If no other transfer is active on this connection, sends xfer atoms, tj, and tf
+     * tokens, then registers for xG wait. Otherwise the transfer is queued and announced
+     * once the transfers ahead of it finish. Data frames are sent after xG is received
+     * via {@link #resumeAfterXg}.
      *
      * @param ctx channel context
      * @param pacer frame pacer
@@ -83,8 +82,8 @@ public class XferService {
      * @param fileData raw file data
      * @param session session context for logging
      * @param registry transfer registry for this connection
-     * @return transfer state in AWAITING_XG phase
-     * @throws IllegalStateException if a transfer is already pending
+     * @return transfer state in AWAITING_XG or QUEUED phase
+     * @throws IllegalStateException if the transfer would have to wait and the queue is full
      */
     public XferTransferState initiateTransfer(
             ChannelHandlerContext ctx,
@@ -104,7 +103,6 @@ public class XferService {
         // Generate file metadata
         byte[] fileId = generateFileId();
         int timestamp = (int) (System.currentTimeMillis() / 1000);
-        int requestId = ThreadLocalRandom.current().nextInt(100000, 999999);
         String transferId = String.format("xfer_%s_%d", filename, timestamp);
 
         // Pre-encode data for efficiency (won't change)
@@ -116,32 +114,19 @@ public class XferService {
         XferTransferState state = new XferTransferState(
             transferId, filename, fileSize, fileId, encodedData, timestamp, username);
 
-        try {
-            // Phase 1: Send xfer atoms via FDO
-            sendPhase1Atoms(ctx, pacer, username, filename, fileSize, requestId, timestamp);
-
-            // Phase 2a: Send tj and tf tokens (but NOT data)
-            sendTjTfTokens(ctx, pacer, username, filename, fileId, fileSize, timestamp);
-
-            // Schedule timeout for xG wait
-            ScheduledFuture<?> timeoutFuture = ctx.executor().schedule(
-                () -> registry.handleTimeout(),
-                xgTimeoutMs,
-                TimeUnit.MILLISECONDS
-            );
-            state.setTimeoutFuture(timeoutFuture);
-
-            // Register as awaiting xG
-            registry.registerPendingTransfer(state);
-
+        if (!registry.registerOrQueue(state)) {
             LoggerUtil.info(String.format(
-                "[%s][XferService] Transfer %s waiting for xG (timeout: %dms)",
-                username, transferId, xgTimeoutMs));
-
+                "[%s][XferService] Transfer %s queued behind active transfer (%d waiting)",
+                username, transferId, registry.getQueuedCount()));
             return state;
+        }
 
+        try {
+            announce(ctx, pacer, state, registry);
+            return state;
         } catch (Exception e) {
-            state.setPhase(XferTransferState.Phase.FAILED);
+            registry.markFailed("Announce failed: " + e.getMessage());
+            registry.clearActiveTransfer();
             LoggerUtil.error(String.format(
                 "[%s][XferService] Transfer initiation failed: %s - %s",
                 username, filename, e.getMessage()));
@@ -149,11 +134,61 @@ public class XferService {
         }
     }
 
+    /**
+     * Send atoms, tj and tf for a transfer that is now active, and arm the xG timeout.
+     */
+    private void announce(ChannelHandlerContext ctx, Pacer pacer, XferTransferState state,
+                          XferTransferRegistry registry) {
+        String username = state.getUsername();
+        int requestId = ThreadLocalRandom.current().nextInt(100000, 999999);
+
+        // Phase 1: Send xfer atoms via FDO
+        sendPhase1Atoms(ctx, pacer, username, state.getFilename(), state.getFileSize(),
+            requestId, state.getTimestamp());
+
+        // Phase 2a: Send tj and tf tokens (but NOT data)
+        sendTjTfTokens(ctx, pacer, username, state.getFilename(), state.getFileId(),
+            state.getFileSize(), state.getTimestamp());
+
+        // Schedule timeout for xG wait; a timed-out transfer lets the next queued one go
+        ScheduledFuture<?> timeoutFuture = ctx.executor().schedule(
+            () -> {
+                registry.handleTimeout();
+                startNextQueued(ctx, pacer, registry);
+            },
+            xgTimeoutMs,
+            TimeUnit.MILLISECONDS
+        );
+        state.setTimeoutFuture(timeoutFuture);
+
+        LoggerUtil.info(String.format(
+            "[%s][XferService] Transfer %s waiting for xG (timeout: %dms)",
+            username, state.getTransferId(), xgTimeoutMs));
+    }
+
+    /**
+     * Announce the next queued transfer on this connection, if any and if nothing is active.
+     */
+    private void startNextQueued(ChannelHandlerContext ctx, Pacer pacer, XferTransferRegistry registry) {
+        XferTransferState next;
+        while (ctx.channel().isActive() && (next = registry.activateNextQueued()) != null) {
+            try {
+                announce(ctx, pacer, next, registry);
+                return;
+            } catch (Exception e) {
+                registry.markFailed("Announce failed: " + e.getMessage());
+                registry.clearActiveTransfer();
+            }
+        }
+    }
+
     /**
      * Resume transfer after xG acknowledgment received.
      *
-     * <p>Called by StatefulClientHandler when xG token arrives.
-     * Sends the F7/F8/F9 data frames to complete the transfer.
+     * <p>Called by StatefulClientHandler when xG token arrives. Hands the transfer to
+     * {@link XferTransferEngine}, which feeds the F7/F8/F9 data frames to the pacer a few
+     * at a time within the server-wide bandwidth budget. When the last frame is queued the
+     * transfer is marked complete and the next queued transfer is announced.
      *
      * @param ctx channel context
      * @param pacer frame pacer
@@ -176,23 +211,21 @@ public class XferService {
         state.cancelTimeout();
         state.setPhase(XferTransferState.Phase.SENDING_DATA);
 
-        try {
-            // Phase 2b: Send data frames
-            sendDataFrames(ctx, pacer, state);
-
-            // Mark complete
-            registry.markCompleted();
-
-            LoggerUtil.info(String.format(
-                "[%s][XferService] Transfer %s complete (total time: %dms)",
-                username, state.getTransferId(), state.getElapsedMs()));
-
-        } catch (Exception e) {
-            registry.markFailed("Data send failed: " + e.getMessage());
-            LoggerUtil.error(String.format(
-                "[%s][XferService] Transfer %s failed during data send: %s",
-                username, state.getTransferId(), e.getMessage()));
-        }
+        LoggerUtil.debug(String.format(
+            "[%s][XferService] Phase 2b: Sending data frames for %s (%d bytes encoded)",
+            username, state.getFilename(), state.getEncodedData().length));
+
+        XferTransferEngine.getInstance().start(ctx, pacer, state, success -> {
+            if (success) {
+                registry.markCompleted();
+                LoggerUtil.info(String.format(
+                    "[%s][XferService] Transfer %s complete (total time: %dms)",
+                    username, state.getTransferId(), state.getElapsedMs()));
+            } else if (state.getPhase() == XferTransferState.Phase.SENDING_DATA) {
+                registry.markFailed("Data send failed");
+            }
+            startNextQueued(ctx, pacer, registry);
+        });
     }
 
     /**
@@ -322,95 +355,6 @@ public class XferService {
             username, tfFrame.length));
     }
 
-    /**
-     * Phase 2b: Send data frames (F7/F8/F9) after xG received.
-     *
-     * <p>For small files (&lt;= CHUNK_SIZE), sends a single F9 frame.
-     * For large files, splits into F7 (intermediate) chunks + F9 (final).
-     */
-    private void sendDataFrames(ChannelHandlerContext ctx, Pacer pacer, XferTransferState state) {
-        String username = state.getUsername();
-        byte[] encodedData = state.getEncodedData();
-
-        LoggerUtil.debug(String.format(
-            "[%s][XferService] Phase 2b: Sending data frames for %s",
-            username, state.getFilename()));
-
-        if (encodedData == null || encodedData.length == 0) {
-            // Empty file - still send F9 to complete transfer
-            byte[] f9Frame = XferFrameBuilder.buildDataFrame(new byte[0], true);
-            pacer.enqueueSafe(ctx, f9Frame, "XFER_F9_EMPTY");
-            LoggerUtil.debug(String.format("[%s][XferService] Sent empty F9 frame", username));
-            return;
-        }
-
-        int totalChunks = (encodedData.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
-
-        if (totalChunks == 1) {
-            // Small file - single F9 (existing behavior)
-            byte[] f9Frame = XferFrameBuilder.buildDataFrame(encodedData, true);
-            pacer.enqueueSafe(ctx, f9Frame, "XFER_F9");
-            LoggerUtil.debug(String.format(
-                "[%s][XferService] Sent F9 frame: %d bytes (encoded from %d)",
-                username, f9Frame.length, state.getFileSize()));
-        } else {
-            // Large file - chunked F7/F9 frames
-            sendChunkedDataFrames(ctx, pacer, state, encodedData, totalChunks);
-        }
-    }
-
-    /**
-     * Send chunked data frames for large files.
-     *
-     * <p>Splits encoded data into CHUNK_SIZE chunks:
-     * <ul>
-     *   <li>F7 for all intermediate chunks</li>
-     *   <li>F9 for the final chunk</li>
-     * </ul>
-     *
-     * @param ctx channel context
-     * @param pacer frame pacer
-     * @param state transfer state
-     * @param encodedData pre-encoded file data
-     * @param totalChunks total number of chunks to send
-     */
-    private void sendChunkedDataFrames(ChannelHandlerContext ctx, Pacer pacer,
-                                       XferTransferState state, byte[] encodedData, int totalChunks) {
-        String username = state.getUsername();
-        int offset = 0;
-
-        LoggerUtil.info(String.format(
-            "[%s][XferService] Sending large file in %d chunks: %s (%d bytes encoded)",
-            username, totalChunks, state.getFilename(), encodedData.length));
-
-        for (int chunkNum = 0; chunkNum < totalChunks; chunkNum++) {
-            boolean isLast = (chunkNum == totalChunks - 1);
-            int chunkLen = Math.min(CHUNK_SIZE, encodedData.length - offset);
-
-            byte[] chunkData = Arrays.copyOfRange(encodedData, offset, offset + chunkLen);
-            byte[] frame = XferFrameBuilder.buildDataFrame(chunkData, isLast);
-
-            String label = isLast
-                ? String.format("XFER_F9[%d/%d]", chunkNum + 1, totalChunks)
-                : String.format("XFER_F7[%d/%d]", chunkNum + 1, totalChunks);
-
-            pacer.enqueueSafe(ctx, frame, label);
-            offset += chunkLen;
-
-            // Log progress every 100 chunks for visibility on large files
-            if ((chunkNum + 1) % 100 == 0 || isLast) {
-                LoggerUtil.debug(String.format(
-                    "[%s][XferService] Progress: %d/%d chunks queued (%.1f%%)",
-                    username, chunkNum + 1, totalChunks,
-                    (chunkNum + 1) * 100.0 / totalChunks));
-            }
-        }
-
-        LoggerUtil.info(String.format(
-            "[%s][XferService] Queued %d data frames (%d bytes encoded, %d bytes raw)",
-            username, totalChunks, encodedData.length, state.getFileSize()));
-    }
-
     /**
      * Legacy data frame sending (for deprecated transferFile method).
      */
@@ -418,13 +362,13 @@ public class XferService {
                                        String filename, byte[] fileData, byte[] encodedData) {
         if (encodedData != null && encodedData.length > 0) {
             byte[] f9Frame = XferFrameBuilder.buildDataFrame(encodedData, true);
-            pacer.enqueueSafe(ctx, f9Frame, "XFER_F9");
+            pacer.enqueueSafe(ctx, f9Frame, "XFER_F9", TrafficClass.BULK);
             LoggerUtil.debug(String.format(
                 "[%s][XferService] Sent F9 frame: %d bytes (encoded from %d)",
                 username, f9Frame.length, fileData.length));
         } else {
             byte[] f9Frame = XferFrameBuilder.buildDataFrame(new byte[0], true);
-            pacer.enqueueSafe(ctx, f9Frame, "XFER_F9_EMPTY");
+            pacer.enqueueSafe(ctx, f9Frame, "XFER_F9_EMPTY", TrafficClass.BULK);
             LoggerUtil.debug(String.format(
                 "[%s][XferService] Sent empty F9 frame",
                 username));
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.protocol.xfer;
+
+import com.dialtone.protocol.Pacer;
+import com.dialtone.protocol.TrafficClass;
+import com.dialtone.utils.LoggerUtil;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Server-wide pump for XFER data frames.
+ *
+ * <p>Instead of building and queueing every F7/F9 frame of a file the moment xG arrives,
+ * each sending transfer is fed a few frames at a time. A single pump thread ticks every
+ * {@value #TICK_MS}ms, refills a token bucket of {@code xfer.bandwidth.bytes.per.sec}, and
+ * hands the budget out round robin in equal shares to the transfers that can take more
+ * (fewer than {@value #LOW_WATER_FRAMES} of their frames still queued in the pacer). The
+ * frames themselves are built and queued on each connection's event loop, so a large
+ * download never holds a worker thread for more than a handful of frames and never fills
+ * the pacer with the whole file.</p>
+ *
+ * <p>One transfer is active per connection (see {@link XferTransferRegistry}), so the
+ * per-transfer share is also the per-session share.</p>
+ */
+public final class XferTransferEngine {
+
+    public static final int DEFAULT_MAX_QUEUED_PER_SESSION = 4;
+
+    /** Chunk size for encoded data in each F7/F9 frame (bytes) */
+    static final int CHUNK_SIZE = 950;
+
+    static final long TICK_MS = 20;
+
+    /** BULK frames a transfer may have waiting in its pacer before it gets more */
+    static final int LOW_WATER_FRAMES = 8;
+
+    private static final XferTransferEngine INSTANCE = new XferTransferEngine(true);
+
+    private final boolean ownPump;
+    private final CopyOnWriteArrayList<Sender> senders = new CopyOnWriteArrayList<>();
+    private final AtomicLong refunded = new AtomicLong();
+    private ScheduledExecutorService pump;
+
+    private volatile long bytesPerSecond = 0;      // 0 = unlimited
+    private volatile int maxQueuedPerSession = DEFAULT_MAX_QUEUED_PER_SESSION;
+
+    // Pump thread only
+    private long budget;
+    private long lastRefillNanos = System.nanoTime();
+    private int cursor;
+
+    private final AtomicLong transfersStarted = new AtomicLong();
+    private final AtomicLong transfersCompleted = new AtomicLong();
+    private final AtomicLong transfersFailed = new AtomicLong();
+    private final AtomicLong bytesQueued = new AtomicLong();
+
+    private XferTransferEngine(boolean ownPump) {
+        this.ownPump = ownPump;
+    }
+
+    public static XferTransferEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Create an engine without a pump thread, which only moves when {@link #tick(long)} is
+     * called. Primarily for testing.
+     *
+     * @return a new engine, separate from the shared instance
+     */
+    public static XferTransferEngine createManuallyTicked() {
+        return new XferTransferEngine(false);
+    }
+
+    /**
+     * Apply {@code xfer.bandwidth.bytes.per.sec} and {@code xfer.max.queued.per.session}.
+     *
+     * @param properties application properties
+     */
+    public void configure(Properties properties) {
+        String rate = properties.getProperty("xfer.bandwidth.bytes.per.sec");
+        if (rate != null) {
+            try {
+                bytesPerSecond = Math.max(0L, Long.parseLong(rate.trim()));
+            } catch (NumberFormatException e) {
+                LoggerUtil.warn("Invalid xfer.bandwidth.bytes.per.sec value: " + rate + ", transfers are not rate limited");
+            }
+        }
+        String queued = properties.getProperty("xfer.max.queued.per.session");
+        if (queued != null) {
+            try {
+                maxQueuedPerSession = Math.max(0, Integer.parseInt(queued.trim()));
+            } catch (NumberFormatException e) {
+                LoggerUtil.warn("Invalid xfer.max.queued.per.session value: " + queued +
+                        ", using default: " + DEFAULT_MAX_QUEUED_PER_SESSION);
+            }
+        }
+        LoggerUtil.info(String.format("XFER engine: bandwidth=%s, max queued per session=%d",
+                bytesPerSecond > 0 ? bytesPerSecond + " B/s" : "unlimited", maxQueuedPerSession));
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public int getMaxQueuedPerSession() {
+        return maxQueuedPerSession;
+    }
+
+    /**
+     * Start sending the data frames of a transfer whose xG has arrived.
+     *
+     * @param ctx channel context of the receiving connection
+     * @param pacer pacer of the receiving connection
+     * @param state transfer in SENDING_DATA phase
+     * @param onDone called on the connection's event loop with true once every frame is
+     *               queued, or false if the transfer failed or was cancelled
+     */
+    public void start(ChannelHandlerContext ctx, Pacer pacer, XferTransferState state, Consumer<Boolean> onDone) {
+        state.markDataStarted();
+        senders.add(new Sender(ctx, pacer, state, onDone));
+        transfersStarted.incrementAndGet();
+        ensurePumpRunning();
+    }
+
+    private synchronized void ensurePumpRunning() {
+        if (!ownPump || pump != null) {
+            return;
+        }
+        pump = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "xfer-pump");
+            t.setDaemon(true);
+            return t;
+        });
+        // The bucket fills from now, not from when the engine was created; the pump reads
+        // these only after scheduling hands them over
+        budget = 0;
+        lastRefillNanos = System.nanoTime();
+        pump.scheduleAtFixedRate(() -> tick(System.nanoTime()), TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * One pump round: refill the bucket and share it among transfers that can take frames.
+     * Called from a single thread only (the pump, or the test driving a manual engine).
+     *
+     * @param now current {@link System#nanoTime()}
+     */
+    public void tick(long now) {
+        try {
+            long rate = bytesPerSecond;
+            if (rate > 0) {
+                // The bucket holds at most a second, so longer gaps add nothing, and clamping
+                // keeps rate * elapsed from overflowing after a long idle stretch
+                long elapsed = Math.min(now - lastRefillNanos, 1_000_000_000L);
+                // At most one second of burst, so an idle server does not save up a flood, but
+                // never less than one chunk or a rate below CHUNK_SIZE could never send a frame
+                long burst = Math.max(rate, CHUNK_SIZE);
+                budget = Math.min(burst, Math.min(budget, burst) + rate * elapsed / 1_000_000_000L + refunded.getAndSet(0));
+                // Carry time not yet worth a whole byte, so slow rates still accrue at 20ms ticks
+                lastRefillNanos = now - (rate * elapsed % 1_000_000_000L) / rate;
+            } else {
+                budget = Long.MAX_VALUE;
+                lastRefillNanos = now;
+            }
+
+            List<Sender> ready = new ArrayList<>();
+            for (Sender sender : senders) {
+                if (!sender.grantPending) {
+                    ready.add(sender);
+                }
+            }
+            if (ready.isEmpty()) {
+                return;
+            }
+
+            long share = rate > 0 ? Math.max(CHUNK_SIZE, budget / ready.size()) : Long.MAX_VALUE;
+            int start = Math.floorMod(cursor, ready.size());
+            int granted = 0;
+            for (int i = 0; i < ready.size(); i++) {
+                if (rate > 0 && budget < CHUNK_SIZE) {
+                    break;
+                }
+                Sender sender = ready.get((start + i) % ready.size());
+                long grant = Math.min(share, budget);
+                if (rate > 0) {
+                    budget -= grant;
+                }
+                sender.grantPending = true;
+                granted++;
+                try {
+                    sender.ctx.executor().execute(() -> feed(sender, grant));
+                } catch (Exception e) {
+                    // Event loop shut down with the connection
+                    sender.grantPending = false;
+                    finish(sender, false, "event loop rejected feed: " + e.getMessage());
+                }
+            }
+            // Next round starts after the last transfer served, so a budget that covers only
+            // some transfers per tick still reaches each of them in turn
+            cursor = start + granted;
+        } catch (Throwable t) {
+            LoggerUtil.error("XFER pump tick failed: " + t.getMessage());
+        }
+    }
+
+    /**
+     * Queue up to {@code grant} bytes of data frames. Runs on the connection's event loop.
+     */
+    private void feed(Sender sender, long grant) {
+        long used = 0;
+        try {
+            XferTransferState state = sender.state;
+            if (state.getPhase() != XferTransferState.Phase.SENDING_DATA) {
+                finish(sender, false, "transfer " + state.getPhase());
+                return;
+            }
+            if (!sender.ctx.channel().isActive()) {
+                finish(sender, false, "connection closed");
+                return;
+            }
+
+            byte[] encoded = state.getEncodedData();
+            int room = LOW_WATER_FRAMES - sender.pacer.getPendingCount(TrafficClass.BULK);
+            int frames = 0;
+            if (encoded.length == 0) {
+                // Empty file - still send F9 to complete transfer
+                sender.pacer.enqueueSafe(sender.ctx, XferFrameBuilder.buildDataFrame(new byte[0], true),
+                        "XFER_F9_EMPTY", TrafficClass.BULK);
+                frames++;
+            }
+            while (frames < room && used < grant && !state.isDataComplete()) {
+                int offset = state.getEncodedBytesSent();
+                int chunkLen = Math.min(CHUNK_SIZE, encoded.length - offset);
+                boolean isLast = offset + chunkLen >= encoded.length;
+                byte[] frame = XferFrameBuilder.buildDataFrame(
+                        Arrays.copyOfRange(encoded, offset, offset + chunkLen), isLast);
+
+                int chunkNum = offset / CHUNK_SIZE + 1;
+                int totalChunks = (encoded.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+                String label = String.format(isLast ? "XFER_F9[%d/%d]" : "XFER_F7[%d/%d]", chunkNum, totalChunks);
+                sender.pacer.enqueueSafe(sender.ctx, frame, label, TrafficClass.BULK);
+
+                state.addEncodedBytesSent(chunkLen);
+                used += chunkLen;
+                frames++;
+            }
+
+            if (frames > 0) {
+                bytesQueued.addAndGet(used);
+                sender.pacer.drain(sender.ctx);
+            }
+            if (encoded.length == 0 || state.isDataComplete()) {
+                finish(sender, true, null);
+            }
+        } catch (Exception e) {
+            finish(sender, false, "data send failed: " + e.getMessage());
+        } finally {
+            // Return what was not used, and charge the part of a last chunk that ran past the grant
+            if (bytesPerSecond > 0 && grant != used) {
+                refunded.addAndGet(grant - used);
+            }
+            sender.grantPending = false;
+        }
+    }
+
+    private void finish(Sender sender, boolean success, String reason) {
+        if (!senders.remove(sender)) {
+            return;
+        }
+        if (success) {
+            transfersCompleted.incrementAndGet();
+        } else {
+            transfersFailed.incrementAndGet();
+            LoggerUtil.warn(String.format("[%s][XferEngine] Transfer %s stopped: %s",
+                    sender.state.getUsername(), sender.state.getTransferId(), reason));
+        }
+        try {
+            sender.onDone.accept(success);
+        } catch (Exception e) {
+            LoggerUtil.error(String.format("[%s][XferEngine] Completion handler failed for %s: %s",
+                    sender.state.getUsername(), sender.state.getTransferId(), e.getMessage()));
+        }
+    }
+
+    /**
+     * @return transfers currently sending data, across all connections
+     */
+    public List<XferTransferState.Progress> getActiveTransfers() {
+        List<XferTransferState.Progress> active = new ArrayList<>();
+        for (Sender sender : senders) {
+            active.add(sender.state.getProgress());
+        }
+        return active;
+    }
+
+    /**
+     * @return engine counters for the admin dashboard
+     */
+    public Map<String, Object> getMetrics() {
+        long aggregateRate = 0;
+        for (Sender sender : senders) {
+            aggregateRate += sender.state.getProgress().bytesPerSecond();
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("bandwidthLimitBytesPerSec", bytesPerSecond);
+        metrics.put("activeTransfers", senders.size());
+        metrics.put("aggregateBytesPerSec", aggregateRate);
+        metrics.put("transfersStarted", transfersStarted.get());
+        metrics.put("transfersCompleted", transfersCompleted.get());
+        metrics.put("transfersFailed", transfersFailed.get());
+        metrics.put("bytesQueued", bytesQueued.get());
+        metrics.put("maxQueuedPerSession", maxQueuedPerSession);
+        return metrics;
+    }
+
+    /**
+     * A transfer being fed, with the connection it belongs to.
+     */
+    private static final class Sender {
+        final ChannelHandlerContext ctx;
+        final Pacer pacer;
+        final XferTransferState state;
+        final Consumer<Boolean> onDone;
+        volatile boolean grantPending;
+
+        Sender(ChannelHandlerContext ctx, Pacer pacer, XferTransferState state, Consumer<Boolean> onDone) {
+            this.ctx = ctx;
+            this.pacer = pacer;
+            this.state = state;
+            this.onDone = onDone;
+        }
+    }
+}
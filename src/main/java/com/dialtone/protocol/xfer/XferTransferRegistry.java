@@ -6,6 +6,10 @@ package com.dialtone.protocol.xfer;
 
 import com.dialtone.utils.LoggerUtil;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Per-connection registry for active XFER file transfers.
  *
@@ -15,14 +19,16 @@ import com.dialtone.utils.LoggerUtil;
  * <p><b>Thread Safety:</b> All public methods are synchronized for safe access
  * from Netty event loop and timeout scheduler threads.
  *
- * <p><b>Design Decision:</b> For MVP, only one transfer per connection is allowed.
- * Additional transfer attempts while one is pending will be rejected.
- * Future enhancement: Map&lt;String, XferTransferState&gt; for concurrent transfers.
+ * <p><b>Design Decision:</b> The client runs one tj/tf/xG handshake at a time, so only one
+ * transfer per connection is announced and sending. Further downloads wait in a FIFO queue
+ * (up to {@link XferTransferEngine#getMaxQueuedPerSession()}) and are announced by
+ * {@link XferService} when the active one finishes.
  */
 public class XferTransferRegistry {
 
     private final String username;
     private volatile XferTransferState activeTransfer;
+    private final ArrayDeque<XferTransferState> queuedTransfers = new ArrayDeque<>();
 
     /**
      * Creates a new registry for the specified user.
@@ -40,8 +46,7 @@ public class XferTransferRegistry {
      * @throws IllegalStateException if a transfer is already pending
      */
     public synchronized void registerPendingTransfer(XferTransferState state) {
-        if (activeTransfer != null &&
-            activeTransfer.getPhase() == XferTransferState.Phase.AWAITING_XG) {
+        if (isBusy()) {
             throw new IllegalStateException(String.format(
                 "Transfer already pending for %s (existing: %s, new: %s)",
                 username, activeTransfer.getTransferId(), state.getTransferId()));
@@ -52,6 +57,100 @@ public class XferTransferRegistry {
             username, state.getTransferId(), state.getFilename(), state.getFileSize()));
     }
 
+    /**
+     * Make a new transfer active, or queue it behind the active one.
+     *
+     * @param state the transfer state to admit
+     * @return true if the transfer is now active and should be announced, false if queued
+     * @throws IllegalStateException if it would have to be queued and the queue is full
+     */
+    public synchronized boolean registerOrQueue(XferTransferState state) {
+        if (!isBusy() && queuedTransfers.isEmpty()) {
+            registerPendingTransfer(state);
+            return true;
+        }
+        queueTransfer(state);
+        return false;
+    }
+
+    /**
+     * Queue a transfer behind the active one.
+     *
+     * @param state the transfer state to queue; its phase becomes QUEUED
+     * @return position in the queue, starting at 1
+     * @throws IllegalStateException if the queue is full
+     */
+    public synchronized int queueTransfer(XferTransferState state) {
+        int maxQueued = XferTransferEngine.getInstance().getMaxQueuedPerSession();
+        if (queuedTransfers.size() >= maxQueued) {
+            throw new IllegalStateException(String.format(
+                "Transfer queue full for %s (%d queued)", username, queuedTransfers.size()));
+        }
+        state.setPhase(XferTransferState.Phase.QUEUED);
+        queuedTransfers.add(state);
+        LoggerUtil.info(String.format(
+            "[%s][XferRegistry] Queued transfer %s at position %d (file: %s, size: %d bytes)",
+            username, state.getTransferId(), queuedTransfers.size(), state.getFilename(), state.getFileSize()));
+        return queuedTransfers.size();
+    }
+
+    /**
+     * Promote the next queued transfer to active if no transfer is active.
+     *
+     * @return the transfer to announce (now AWAITING_XG), or null if busy or nothing is queued
+     */
+    public synchronized XferTransferState activateNextQueued() {
+        if (isBusy()) {
+            return null;
+        }
+        XferTransferState next = queuedTransfers.poll();
+        if (next != null) {
+            next.setPhase(XferTransferState.Phase.AWAITING_XG);
+            registerPendingTransfer(next);
+        }
+        return next;
+    }
+
+    /**
+     * Check if a transfer is announced and not yet finished.
+     *
+     * @return true if a transfer is awaiting xG or sending data
+     */
+    public synchronized boolean isBusy() {
+        if (activeTransfer == null) {
+            return false;
+        }
+        XferTransferState.Phase phase = activeTransfer.getPhase();
+        return phase == XferTransferState.Phase.AWAITING_XG || phase == XferTransferState.Phase.SENDING_DATA;
+    }
+
+    /**
+     * Check if another transfer can be queued.
+     *
+     * @return true if the queue is at its limit
+     */
+    public synchronized boolean isQueueFull() {
+        return queuedTransfers.size() >= XferTransferEngine.getInstance().getMaxQueuedPerSession();
+    }
+
+    public synchronized int getQueuedCount() {
+        return queuedTransfers.size();
+    }
+
+    /**
+     * Snapshot the active transfer (if unfinished) followed by the queued ones.
+     *
+     * @return transfers in the order they will be sent
+     */
+    public synchronized List<XferTransferState> listTransfers() {
+        List<XferTransferState> transfers = new ArrayList<>(queuedTransfers.size() + 1);
+        if (isBusy()) {
+            transfers.add(activeTransfer);
+        }
+        transfers.addAll(queuedTransfers);
+        return transfers;
+    }
+
     /**
      * Called when xG token is received from client.
      *
@@ -155,6 +254,14 @@ public class XferTransferRegistry {
      * Cancels any pending timeout and abandons in-progress transfers.
      */
     public synchronized void close() {
+        for (XferTransferState queued : queuedTransfers) {
+            queued.setPhase(XferTransferState.Phase.CANCELLED);
+        }
+        if (!queuedTransfers.isEmpty()) {
+            LoggerUtil.warn(String.format(
+                "[%s][XferRegistry] Dropping %d queued transfer(s) on disconnect", username, queuedTransfers.size()));
+            queuedTransfers.clear();
+        }
         if (activeTransfer != null) {
             activeTransfer.cancelTimeout();
             if (activeTransfer.getPhase() == XferTransferState.Phase.AWAITING_XG ||
@@ -163,6 +270,8 @@ public class XferTransferRegistry {
                     "[%s][XferRegistry] Abandoning transfer %s on disconnect (phase: %s, elapsed: %dms)",
                     username, activeTransfer.getTransferId(), activeTransfer.getPhase(),
                     activeTransfer.getElapsedMs()));
+                // Stops the engine from feeding any more data frames
+                activeTransfer.setPhase(XferTransferState.Phase.CANCELLED);
             }
             activeTransfer = null;
         }
@@ -173,9 +282,10 @@ public class XferTransferRegistry {
      *
      * @return a new registry with the updated username
      */
-    public XferTransferRegistry withUsername(String newUsername) {
+    public synchronized XferTransferRegistry withUsername(String newUsername) {
         XferTransferRegistry newRegistry = new XferTransferRegistry(newUsername);
         newRegistry.activeTransfer = this.activeTransfer;
+        newRegistry.queuedTransfers.addAll(this.queuedTransfers);
         return newRegistry;
     }
 }
@@ -14,10 +14,13 @@ import java.util.concurrent.ScheduledFuture;
  *
  * <p><b>State Machine:</b>
  * <pre>
- * AWAITING_XG  --[xG received]-->  SENDING_DATA  --[F9 sent]-->  COMPLETED
- *      |                                 |
- *      +--[timeout/error]-->  FAILED  <--+
+ * QUEUED --[previous transfer done]--> AWAITING_XG  --[xG received]-->  SENDING_DATA  --[F9 sent]-->  COMPLETED
+ *                                           |                                 |
+ *                                           +--[timeout/error]-->  FAILED  <--+
  * </pre>
+ *
+ * <p>While SENDING_DATA, {@link XferTransferEngine} advances the data offset and the
+ * progress, rate and ETA reported by {@link #getProgress()}.
  */
 public class XferTransferState {
 
@@ -25,6 +28,8 @@ public class XferTransferState {
      * Transfer lifecycle phases.
      */
     public enum Phase {
+        /** Waiting behind another transfer on the same connection; nothing sent yet */
+        QUEUED,
         /** tf sent, waiting for client's xG acknowledgment */
         AWAITING_XG,
         /** xG received, sending F7/F8/F9 data frames */
@@ -48,6 +53,10 @@ public class XferTransferState {
     private volatile Phase phase;
     private volatile ScheduledFuture<?> timeoutFuture;
 
+    // Data phase progress; written on the connection's event loop, read by the web API
+    private volatile long dataStartNanos;
+    private volatile int encodedBytesSent;
+
     /**
      * Creates a new transfer state in AWAITING_XG phase.
      *
@@ -144,6 +153,63 @@ public class XferTransferState {
         return (System.nanoTime() - startTimeNanos) / 1_000_000;
     }
 
+    /**
+     * Record the start of the data phase, for rate and ETA.
+     */
+    public void markDataStarted() {
+        this.dataStartNanos = System.nanoTime();
+    }
+
+    /**
+     * @return bytes of encoded data already handed to the pacer
+     */
+    public int getEncodedBytesSent() {
+        return encodedBytesSent;
+    }
+
+    /**
+     * Advance the data offset after frames were queued.
+     *
+     * @param bytes encoded bytes just queued
+     */
+    public void addEncodedBytesSent(int bytes) {
+        this.encodedBytesSent += bytes;
+    }
+
+    /**
+     * @return true once every encoded byte has been queued
+     */
+    public boolean isDataComplete() {
+        return encodedBytesSent >= encodedData.length;
+    }
+
+    /**
+     * Snapshot progress, data rate and ETA for the web and admin APIs.
+     *
+     * @return current progress
+     */
+    public Progress getProgress() {
+        Phase current = phase;
+        int total = encodedData.length;
+        int sent = Math.min(encodedBytesSent, total);
+        double percent = current == Phase.COMPLETED ? 100.0 : total > 0 ? sent * 100.0 / total : 0.0;
+
+        long bytesPerSecond = 0;
+        long etaSeconds = -1;
+        long started = dataStartNanos;
+        if (started != 0 && current == Phase.SENDING_DATA) {
+            long elapsedNanos = System.nanoTime() - started;
+            if (elapsedNanos > 0 && sent > 0) {
+                bytesPerSecond = sent * 1_000_000_000L / elapsedNanos;
+            }
+            if (bytesPerSecond > 0) {
+                etaSeconds = (total - sent + bytesPerSecond - 1) / bytesPerSecond;
+            }
+        }
+        return new Progress(transferId, username, filename, fileSize, current.name(),
+                Math.round(percent * 10) / 10.0, bytesPerSecond, etaSeconds, getElapsedMs());
+    }
+
     /**
      * Get raw file size in bytes.
      *
@@ -153,6 +219,16 @@ public class XferTransferState {
         return fileSize;
     }
 
+    /**
+     * Point-in-time view of a transfer.
+     *
+     * @param bytesPerSecond encoded bytes per second since the data phase began (0 before)
+     * @param etaSeconds seconds until all data is queued, or -1 if unknown
+     */
+    public record Progress(String transferId, String screenname, String filename, int fileSize,
+                           String phase, double percent, long bytesPerSecond, long etaSeconds,
+                           long elapsedMs) {}
+
     @Override
     public String toString() {
         return String.format("XferTransferState{id=%s, file=%s, size=%d, phase=%s, elapsed=%dms}",
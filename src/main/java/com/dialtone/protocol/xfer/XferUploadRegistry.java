@@ -4,10 +4,12 @@
 
 package com.dialtone.protocol.xfer;
 
+import com.dialtone.storage.impl.StorageUsageLedger;
 import com.dialtone.utils.LoggerUtil;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 
 /**
@@ -260,8 +262,12 @@ public class XferUploadRegistry {
         // Delete partial file
         if (activeUpload.getTargetPath() != null) {
             try {
-                boolean deleted = Files.deleteIfExists(activeUpload.getTargetPath());
+                Path targetPath = activeUpload.getTargetPath();
+                long partialSize = Files.isRegularFile(targetPath) ? Files.size(targetPath) : 0;
+                boolean deleted = Files.deleteIfExists(targetPath);
                 if (deleted) {
+                    // Bytes were charged to the owner's quota as they arrived
+                    StorageUsageLedger.recordExternalDelete(targetPath, partialSize);
                     LoggerUtil.debug(String.format(
                         "[%s][XferUploadRegistry] Deleted partial file: %s",
                         username, activeUpload.getTargetPath()));
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.ratelimit;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.Properties;
+
+/**
+ * Token bucket shape: up to {@code capacity} requests in a burst, refilled evenly so the
+ * bucket is full again {@code periodMs} after it was emptied.
+ *
+ * <p>Written in properties as {@code <capacity>/<period>}, where the period is a number
+ * with an optional {@code s}, {@code m}, {@code h} or {@code d} suffix (seconds if none),
+ * e.g. {@code 30/1m} or {@code 3/1h}.</p>
+ *
+ * @param capacity requests allowed in a burst
+ * @param periodMs time to refill an empty bucket
+ */
+public record RateLimitPolicy(int capacity, long periodMs) {
+
+    /** Longest refill period, which keeps refill arithmetic inside a {@code long}. */
+    public static final long MAX_PERIOD_MS = 7L * 24 * 60 * 60 * 1000;
+
+    public RateLimitPolicy {
+        if (capacity < 1 || capacity > TokenBucket.MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be 1.." + TokenBucket.MAX_CAPACITY + ": " + capacity);
+        }
+        if (periodMs < 1 || periodMs > MAX_PERIOD_MS) {
+            throw new IllegalArgumentException("Period must be 1.." + MAX_PERIOD_MS + " ms: " + periodMs);
+        }
+    }
+
+    /**
+     * @param capacity requests allowed per minute
+     * @return policy refilling {@code capacity} tokens each minute
+     */
+    public static RateLimitPolicy perMinute(int capacity) {
+        return new RateLimitPolicy(capacity, 60_000L);
+    }
+
+    /**
+     * @param capacity requests allowed per hour
+     * @return policy refilling {@code capacity} tokens each hour
+     */
+    public static RateLimitPolicy perHour(int capacity) {
+        return new RateLimitPolicy(capacity, 3_600_000L);
+    }
+
+    /**
+     * Parse a {@code <capacity>/<period>} spec.
+     *
+     * @param spec e.g. {@code 30/1m}
+     * @return the policy
+     * @throws IllegalArgumentException if the spec is malformed or out of range
+     */
+    public static RateLimitPolicy parse(String spec) {
+        String[] parts = spec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected <capacity>/<period>: " + spec);
+        }
+        try {
+            int capacity = Integer.parseInt(parts[0].trim());
+            String period = parts[1].trim().toLowerCase();
+            long unitMs = switch (period.isEmpty() ? ' ' : period.charAt(period.length() - 1)) {
+                case 's' -> 1_000L;
+                case 'm' -> 60_000L;
+                case 'h' -> 3_600_000L;
+                case 'd' -> 86_400_000L;
+                default -> 0L;
+            };
+            long amount = unitMs == 0
+                    ? Long.parseLong(period)
+                    : Long.parseLong(period.substring(0, period.length() - 1));
+            return new RateLimitPolicy(capacity, amount * (unitMs == 0 ? 1_000L : unitMs));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate limit: " + spec, e);
+        }
+    }
+
+    /**
+     * Read a policy from properties, keeping the default if the key is missing or invalid.
+     *
+     * @param properties application properties
+     * @param key property name
+     * @param defaultPolicy policy used when the property is absent or malformed
+     * @return configured or default policy
+     */
+    public static RateLimitPolicy fromProperties(Properties properties, String key, RateLimitPolicy defaultPolicy) {
+        String spec = properties.getProperty(key);
+        if (spec == null || spec.isBlank()) {
+            return defaultPolicy;
+        }
+        try {
+            return parse(spec);
+        } catch (IllegalArgumentException e) {
+            LoggerUtil.warn("Invalid " + key + " value: " + spec + ", using default: " + defaultPolicy);
+            return defaultPolicy;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return periodMs % 1000 == 0 ? capacity + "/" + (periodMs / 1000) + "s" : capacity + "/" + periodMs + "ms";
+    }
+}
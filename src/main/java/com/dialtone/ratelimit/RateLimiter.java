@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.ratelimit;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets (one per IP, screenname, e-mail address, ...) sharing one policy.
+ *
+ * <p>A check on a known key is a map lookup plus one CAS on that key's {@link TokenBucket}.
+ * Keys are spread over shards, each with a timing wheel: a key is filed under the time its
+ * bucket will be full again, and when that slot comes round a still-full bucket is dropped
+ * (a busy one is filed again). Each check turns the wheel of its own shard and of one other
+ * shard, round robin, when due and under a try-lock, so there is no sweeper thread and no
+ * full-map scan.</p>
+ *
+ * <p>Memory is bounded: once a shard holds its share of {@code maxKeys}, new keys in that
+ * shard share one overflow bucket until idle keys expire. A flood of unique keys
+ * (credential stuffing from many addresses) therefore cannot grow the maps, and is itself
+ * throttled by the overflow bucket.</p>
+ */
+public final class RateLimiter {
+
+    private static final int SHARD_COUNT = 16;
+    private static final int WHEEL_SLOTS = 64;
+
+    private final String name;
+    private final RateLimitPolicy policy;
+    private final int maxKeysPerShard;
+    private final LongSupplier clock;
+    private final long tickMs;
+    private final Shard[] shards = new Shard[SHARD_COUNT];
+    private int sweepCursor;      // racy round-robin hint; lost updates are harmless
+
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    /**
+     * @param name limiter name, used in logs and metrics
+     * @param policy bucket shape for every key
+     * @param maxKeys most keys tracked at once
+     */
+    public RateLimiter(String name, RateLimitPolicy policy, int maxKeys) {
+        this(name, policy, maxKeys, monotonicClock());
+    }
+
+    /**
+     * @param name limiter name, used in logs and metrics
+     * @param policy bucket shape for every key
+     * @param maxKeys most keys tracked at once
+     * @param clock current time in milliseconds; must not go backwards and starts near zero
+     */
+    public RateLimiter(String name, RateLimitPolicy policy, int maxKeys, LongSupplier clock) {
+        this.name = name;
+        this.policy = policy;
+        this.maxKeysPerShard = Math.max(1, maxKeys / SHARD_COUNT);
+        this.clock = clock;
+        // A bucket is full at most one period after its last use, so one turn of the wheel covers it
+        this.tickMs = Math.max(1, (policy.periodMs() + WHEEL_SLOTS - 2) / (WHEEL_SLOTS - 1));
+        long now = clock.getAsLong();
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = new Shard(new TokenBucket(policy, now), now / tickMs);
+        }
+    }
+
+    private static LongSupplier monotonicClock() {
+        long base = System.nanoTime();
+        return () -> (System.nanoTime() - base) / 1_000_000;
+    }
+
+    /**
+     * Take a token for a key.
+     *
+     * @param key what is being limited (IP address, screenname, ...)
+     * @return true if the request may proceed
+     */
+    public boolean tryAcquire(String key) {
+        long now = clock.getAsLong();
+        Shard shard = shardFor(key);
+        if (now >= shard.nextTurnMs) {
+            shard.turn(now);
+        }
+        // Also look at one other shard in turn, so shards whose keys went quiet still expire them
+        Shard next = shards[sweepCursor++ & (SHARD_COUNT - 1)];
+        if (next != shard && now >= next.nextTurnMs) {
+            next.turn(now);
+        }
+
+        TokenBucket bucket = shard.buckets.get(key);
+        if (bucket == null) {
+            bucket = shard.admit(key, now);
+        }
+
+        if (bucket.tryAcquire(now)) {
+            allowed.incrementAndGet();
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Give back the token a key took with {@link #tryAcquire}, for a request that was admitted
+     * but then failed on our side. Does nothing if the key is no longer tracked (it expired,
+     * or was charged to its shard's shared overflow bucket).
+     *
+     * @param key what is being limited
+     */
+    public void refund(String key) {
+        TokenBucket bucket = shardFor(key).buckets.get(key);
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    private Shard shardFor(String key) {
+        return shards[(key.hashCode() ^ (key.hashCode() >>> 16)) & (SHARD_COUNT - 1)];
+    }
+
+    /**
+     * @return seconds a rejected caller should wait before one token is back
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, (policy.periodMs() / policy.capacity() + 999) / 1000);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimitPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return keys currently tracked
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.buckets.size();
+        }
+        return size;
+    }
+
+    public long getAllowedCount() {
+        return allowed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return checks that fell into an overflow bucket because their shard was full
+     */
+    public long getOverflowCount() {
+        return overflowed.get();
+    }
+
+    /**
+     * @return idle keys removed by the timing wheel
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    /**
+     * @return counters for the admin dashboard
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("policy", policy.toString());
+        metrics.put("keys", size());
+        metrics.put("allowed", allowed.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("overflowed", overflowed.get());
+        metrics.put("expired", expired.get());
+        return metrics;
+    }
+
+    /**
+     * One slice of the key space with its own map, overflow bucket and timing wheel.
+     */
+    private final class Shard {
+        final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        final TokenBucket overflow;
+        final ReentrantLock wheelLock = new ReentrantLock();
+        @SuppressWarnings("unchecked")
+        final ArrayDeque<String>[] wheel = new ArrayDeque[WHEEL_SLOTS];
+        long wheelTick;               // next tick to process, guarded by wheelLock
+        volatile long nextTurnMs;
+
+        Shard(TokenBucket overflow, long startTick) {
+            this.overflow = overflow;
+            this.wheelTick = startTick;
+            this.nextTurnMs = (startTick + 1) * tickMs;
+            for (int i = 0; i < WHEEL_SLOTS; i++) {
+                wheel[i] = new ArrayDeque<>();
+            }
+        }
+
+        TokenBucket admit(String key, long now) {
+            if (buckets.size() >= maxKeysPerShard) {
+                overflowed.incrementAndGet();
+                return overflow;
+            }
+            TokenBucket created = new TokenBucket(policy, now);
+            TokenBucket existing = buckets.putIfAbsent(key, created);
+            if (existing != null) {
+                return existing;
+            }
+            wheelLock.lock();
+            try {
+                schedule(key, now + policy.periodMs());
+            } finally {
+                wheelLock.unlock();
+            }
+            return created;
+        }
+
+        /**
+         * Process wheel slots that are due. Skipped if another thread is already at it.
+         */
+        void turn(long now) {
+            if (!wheelLock.tryLock()) {
+                return;
+            }
+            try {
+                long nowTick = now / tickMs;
+                // After a long quiet spell one full turn visits every key
+                long first = Math.max(wheelTick, nowTick - WHEEL_SLOTS + 1);
+                for (long tick = first; tick <= nowTick; tick++) {
+                    ArrayDeque<String> slot = wheel[(int) (tick % WHEEL_SLOTS)];
+                    int due = slot.size();
+                    for (int i = 0; i < due; i++) {
+                        String key = slot.poll();
+                        TokenBucket bucket = buckets.get(key);
+                        if (bucket == null) {
+                            continue;
+                        }
+                        // A racing check on a bucket that is full anyway would have been allowed
+                        // regardless, so removing it here never admits more than one extra request
+                        if (bucket.isFull(now) && buckets.remove(key, bucket)) {
+                            expired.incrementAndGet();
+                        } else {
+                            schedule(key, now + Math.max(1, bucket.millisUntilFull(now)));
+                        }
+                    }
+                }
+                wheelTick = nowTick + 1;
+                nextTurnMs = wheelTick * tickMs;
+            } finally {
+                wheelLock.unlock();
+            }
+        }
+
+        private void schedule(String key, long dueMs) {
+            long tick = (dueMs + tickMs - 1) / tickMs;
+            wheel[(int) (tick % WHEEL_SLOTS)].add(key);
+        }
+    }
+}
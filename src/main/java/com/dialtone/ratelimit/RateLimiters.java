@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.ratelimit;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Singleton set of the named rate limiters shared by the P3 login path and the web API.
+ *
+ * <p>Each limiter's policy comes from {@code ratelimit.<name>} (see {@link RateLimitPolicy}
+ * for the format), so the same key space (e.g. one client IP) can be limited differently
+ * per endpoint. Services with their own long-standing settings (magic-link e-mail, admin
+ * actions) build a {@link RateLimiter} directly from those.</p>
+ */
+public final class RateLimiters {
+
+    /** P3 login attempts (Dd/Dg) per client IP. */
+    public static final String LOGIN_IP = "login.ip";
+    /** P3 login attempts per screenname, across all IPs. */
+    public static final String LOGIN_SCREENNAME = "login.screenname";
+    /** P3 login attempts server-wide, under {@link #GLOBAL_KEY}. */
+    public static final String LOGIN_GLOBAL = "login.global";
+    /** New P3 connections per client IP. */
+    public static final String CONNECT_IP = "connect.ip";
+    /** Web sign-in requests ({@code /api/auth/*}) per client IP. */
+    public static final String WEB_AUTH_IP = "web.auth.ip";
+    /** All web API requests per client IP. */
+    public static final String WEB_API_IP = "web.api.ip";
+
+    /** Key of limiters that count across all clients. */
+    public static final String GLOBAL_KEY = "*";
+
+    public static final int DEFAULT_MAX_KEYS = 50_000;
+
+    private static final List<String> NAMES = List.of(LOGIN_IP, LOGIN_SCREENNAME, LOGIN_GLOBAL, CONNECT_IP,
+            WEB_AUTH_IP, WEB_API_IP);
+
+    private static final Map<String, RateLimitPolicy> DEFAULT_POLICIES = Map.of(
+            LOGIN_IP, RateLimitPolicy.perMinute(30),
+            LOGIN_SCREENNAME, RateLimitPolicy.perMinute(10),
+            LOGIN_GLOBAL, RateLimitPolicy.perMinute(600),
+            CONNECT_IP, RateLimitPolicy.perMinute(20),
+            WEB_AUTH_IP, RateLimitPolicy.perMinute(20),
+            WEB_API_IP, RateLimitPolicy.perMinute(600));
+
+    private static final RateLimiters INSTANCE = new RateLimiters();
+
+    private volatile boolean enabled = true;
+    private volatile int maxKeys = DEFAULT_MAX_KEYS;
+    private volatile Map<String, RateLimiter> limiters;
+
+    private RateLimiters() {
+        this.limiters = build(new Properties());
+    }
+
+    public static RateLimiters getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Apply {@code ratelimit.enabled}, {@code ratelimit.max.keys} and the
+     * {@code ratelimit.<name>} policies. Replaces the limiters, so buckets start full.
+     *
+     * @param properties application properties
+     */
+    public void configure(Properties properties) {
+        enabled = Boolean.parseBoolean(properties.getProperty("ratelimit.enabled", "true"));
+        String max = properties.getProperty("ratelimit.max.keys");
+        if (max != null) {
+            try {
+                maxKeys = Math.max(1, Integer.parseInt(max.trim()));
+            } catch (NumberFormatException e) {
+                LoggerUtil.warn("Invalid ratelimit.max.keys value: " + max + ", using default: " + DEFAULT_MAX_KEYS);
+            }
+        }
+        limiters = build(properties);
+
+        StringBuilder summary = new StringBuilder();
+        for (String name : NAMES) {
+            summary.append(' ').append(name).append('=').append(limiters.get(name).getPolicy());
+        }
+        LoggerUtil.info("Rate limiting " + (enabled ? "enabled:" + summary : "disabled"));
+    }
+
+    private Map<String, RateLimiter> build(Properties properties) {
+        Map<String, RateLimiter> built = new LinkedHashMap<>();
+        for (String name : NAMES) {
+            RateLimitPolicy policy = RateLimitPolicy.fromProperties(properties, "ratelimit." + name,
+                    DEFAULT_POLICIES.get(name));
+            built.put(name, new RateLimiter(name, policy, maxKeys));
+        }
+        return built;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take a token from a named limiter.
+     *
+     * @param name limiter name, e.g. {@link #LOGIN_IP}
+     * @param key what is being limited; null keys are not limited
+     * @return true if the request may proceed
+     */
+    public boolean tryAcquire(String name, String key) {
+        if (!enabled || key == null) {
+            return true;
+        }
+        return get(name).tryAcquire(key);
+    }
+
+    /**
+     * @param name limiter name
+     * @return the limiter
+     * @throws IllegalArgumentException if no limiter has that name
+     */
+    public RateLimiter get(String name) {
+        RateLimiter limiter = limiters.get(name);
+        if (limiter == null) {
+            throw new IllegalArgumentException("Unknown rate limiter: " + name);
+        }
+        return limiter;
+    }
+
+    /**
+     * @return per-limiter counters for the admin dashboard
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        for (String name : NAMES) {
+            metrics.put(name, limiters.get(name).getMetrics());
+        }
+        return metrics;
+    }
+}
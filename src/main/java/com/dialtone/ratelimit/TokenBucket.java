@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free token bucket whose whole state is one {@code long}.
+ *
+ * <p>The upper 40 bits hold the time of the last refill in milliseconds, the lower 24 bits
+ * the tokens left in thousandths of a token. A check refills from the elapsed time and takes
+ * a token with a single CAS; nothing is allocated and no lock is taken, so concurrent
+ * checks on the same key only ever retry the CAS.</p>
+ *
+ * <p>Times are milliseconds on a monotonic clock starting near zero (see
+ * {@link RateLimiter}); a clock going backwards simply refills nothing.</p>
+ */
+public final class TokenBucket {
+
+    /** Largest capacity that fits the packed token field. */
+    public static final int MAX_CAPACITY = 16_000;
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI_TOKENS = 1000;
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(TokenBucket.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long capacityMilli;
+    private final long periodMs;
+
+    // Read and written through STATE
+    private volatile long state;
+
+    /**
+     * Create a full bucket.
+     *
+     * @param policy bucket capacity and refill period
+     * @param nowMs current time in milliseconds
+     */
+    public TokenBucket(RateLimitPolicy policy, long nowMs) {
+        this.capacityMilli = policy.capacity() * MILLI_TOKENS;
+        this.periodMs = policy.periodMs();
+        this.state = pack(nowMs, capacityMilli);
+    }
+
+    /**
+     * Take one token if available.
+     *
+     * @param nowMs current time in milliseconds
+     * @return true if a token was taken
+     */
+    public boolean tryAcquire(long nowMs) {
+        while (true) {
+            long current = (long) STATE.getVolatile(this);
+            long last = current >>> TOKEN_BITS;
+            long tokens = current & TOKEN_MASK;
+
+            // Only move the refill time forward when something was added, so fractions
+            // of a token keep accumulating between frequent checks
+            long gained = refill(last, nowMs);
+            if (gained > 0) {
+                tokens = Math.min(capacityMilli, tokens + gained);
+                last = nowMs;
+            }
+            if (tokens < MILLI_TOKENS) {
+                return false;
+            }
+            if (STATE.compareAndSet(this, current, pack(last, tokens - MILLI_TOKENS))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back one token taken by {@link #tryAcquire}, never beyond capacity.
+     * For a request that was admitted but then failed on our side.
+     */
+    public void refund() {
+        while (true) {
+            long current = (long) STATE.getVolatile(this);
+            long tokens = current & TOKEN_MASK;
+            if (tokens >= capacityMilli) {
+                return;
+            }
+            long refunded = Math.min(capacityMilli, tokens + MILLI_TOKENS);
+            if (STATE.compareAndSet(this, current, (current & ~TOKEN_MASK) | refunded)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param nowMs current time in milliseconds
+     * @return whole tokens available now
+     */
+    public int availableTokens(long nowMs) {
+        return (int) (tokensAt(nowMs) / MILLI_TOKENS);
+    }
+
+    /**
+     * @param nowMs current time in milliseconds
+     * @return true if the bucket has refilled completely (the key has been idle)
+     */
+    public boolean isFull(long nowMs) {
+        return tokensAt(nowMs) >= capacityMilli;
+    }
+
+    /**
+     * @param nowMs current time in milliseconds
+     * @return milliseconds until the bucket is full, 0 if it already is
+     */
+    public long millisUntilFull(long nowMs) {
+        long missing = capacityMilli - tokensAt(nowMs);
+        return missing <= 0 ? 0 : (missing * periodMs + capacityMilli - 1) / capacityMilli;
+    }
+
+    private long tokensAt(long nowMs) {
+        long current = (long) STATE.getVolatile(this);
+        return Math.min(capacityMilli, (current & TOKEN_MASK) + refill(current >>> TOKEN_BITS, nowMs));
+    }
+
+    private long refill(long lastMs, long nowMs) {
+        long elapsed = nowMs - lastMs;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        if (elapsed >= periodMs) {
+            return capacityMilli;
+        }
+        return elapsed * capacityMilli / periodMs;
+    }
+
+    private static long pack(long timeMs, long tokens) {
+        return (timeMs << TOKEN_BITS) | tokens;
+    }
+}
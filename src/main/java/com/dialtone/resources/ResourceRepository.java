@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.resources;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Serves FDO templates, art, news and static text from an in-memory {@link ResourceSnapshot}
+ * so request handling never touches the classpath or filesystem.
+ *
+ * <p>The snapshot is loaded on first use from every classpath entry (jar or directory)
+ * and, if {@code resources.overlay.dir} is set, from that directory, whose files take
+ * precedence. With {@code resources.hot.reload.enabled=true} the overlay directory is
+ * watched and a fresh snapshot is swapped in after changes settle; reload listeners
+ * then drop caches derived from the previous snapshot.</p>
+ *
+ * <p>Paths outside the managed roots are read from the classpath directly.</p>
+ */
+public final class ResourceRepository {
+
+    /** Roots loaded in full. */
+    static final List<String> ROOTS = List.of("fdo/", "replace_client_fdo/", "art/", "news/");
+
+    /** Roots from which only {@code .txt} files are loaded (the rest is the web frontend). */
+    static final List<String> TEXT_ROOTS = List.of("static/", "public/");
+
+    /** Quiet period after the last overlay change before reloading. */
+    private static final long RELOAD_SETTLE_MS = 250;
+
+    private static final ResourceRepository INSTANCE = new ResourceRepository();
+
+    private final ClassLoader classLoader = ResourceRepository.class.getClassLoader();
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
+    private volatile ResourceSnapshot snapshot;
+    private volatile Path overlayDir;
+    private long generation;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    private ResourceRepository() {
+    }
+
+    public static ResourceRepository getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Apply overlay and hot reload settings and load the snapshot.
+     * Reads {@code resources.overlay.dir} and {@code resources.hot.reload.enabled}.
+     *
+     * @param props application properties
+     * @throws UncheckedIOException if no snapshot could be loaded
+     */
+    public synchronized void configure(Properties props) {
+        String dir = props.getProperty("resources.overlay.dir", "").trim();
+        overlayDir = dir.isEmpty() ? null : Paths.get(dir).toAbsolutePath().normalize();
+        reload();
+
+        boolean hotReload = Boolean.parseBoolean(props.getProperty("resources.hot.reload.enabled", "false"));
+        if (hotReload && overlayDir == null) {
+            LoggerUtil.warn("[ResourceRepository] Hot reload requires resources.overlay.dir; not watching");
+        } else if (hotReload) {
+            startWatching();
+        }
+    }
+
+    /**
+     * @return the current snapshot, loading it on first use
+     * @throws UncheckedIOException if the first load fails (the next call tries again)
+     */
+    public ResourceSnapshot snapshot() {
+        ResourceSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = reload();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Generation of the current snapshot. Caches filled from the snapshot can compare it
+     * before and after storing an entry to detect a reload in between, whose listeners may
+     * already have run.
+     *
+     * @return generation of the current snapshot, loading it on first use
+     */
+    public long getGeneration() {
+        return snapshot().getGeneration();
+    }
+
+    /**
+     * @param path resource path (a leading '/' is ignored)
+     * @return true if the path is served from the snapshot
+     */
+    public static boolean isManaged(String path) {
+        String normalized = ResourceSnapshot.normalize(path);
+        for (String root : ROOTS) {
+            if (normalized.startsWith(root)) {
+                return true;
+            }
+        }
+        return isStaticTextPath(normalized);
+    }
+
+    static boolean isStaticTextPath(String normalizedPath) {
+        if (!normalizedPath.endsWith(".txt")) {
+            return false;
+        }
+        for (String root : TEXT_ROOTS) {
+            if (normalizedPath.startsWith(root)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param path resource path (a leading '/' is ignored)
+     * @return true if the resource exists
+     */
+    public boolean exists(String path) {
+        if (path == null) {
+            return false;
+        }
+        if (isManaged(path)) {
+            return snapshot().contains(path);
+        }
+        return classLoader.getResource(ResourceSnapshot.normalize(path)) != null;
+    }
+
+    /**
+     * @param path resource path (a leading '/' is ignored)
+     * @return file contents (shared, do not modify), or empty if absent
+     * @throws IOException if an unmanaged resource cannot be read
+     */
+    public Optional<byte[]> findBytes(String path) throws IOException {
+        if (path == null) {
+            return Optional.empty();
+        }
+        if (isManaged(path)) {
+            return snapshot().bytes(path);
+        }
+        try (InputStream in = classLoader.getResourceAsStream(ResourceSnapshot.normalize(path))) {
+            return in == null ? Optional.empty() : Optional.of(in.readAllBytes());
+        }
+    }
+
+    /**
+     * @param path resource path (a leading '/' is ignored)
+     * @return file contents decoded as UTF-8, or empty if absent
+     * @throws IOException if an unmanaged resource cannot be read
+     */
+    public Optional<String> findText(String path) throws IOException {
+        if (path != null && isManaged(path)) {
+            ResourceSnapshot current = snapshot();
+            Optional<String> text = current.text(path);
+            if (text.isPresent() || !current.contains(path)) {
+                return text;
+            }
+        }
+        return findBytes(path).map(data -> new String(data, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Register a callback run after every reload that replaced the snapshot.
+     *
+     * @param listener callback (runs on the reloading thread)
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * @param listener callback previously passed to {@link #addReloadListener}
+     */
+    public void removeReloadListener(Runnable listener) {
+        reloadListeners.remove(listener);
+    }
+
+    /**
+     * Build a new snapshot from the classpath and overlay directory and swap it in.
+     * If loading fails, the previous snapshot is kept.
+     *
+     * @return the new snapshot, or the previous one if loading failed
+     * @throws UncheckedIOException if loading fails and there is no previous snapshot
+     */
+    public synchronized ResourceSnapshot reload() {
+        long start = System.nanoTime();
+        Map<String, byte[]> files = new HashMap<>();
+        try {
+            for (String root : ROOTS) {
+                loadClasspathRoot(root, files);
+            }
+            for (String root : TEXT_ROOTS) {
+                loadClasspathRoot(root, files);
+            }
+            if (overlayDir != null) {
+                loadOverlay(overlayDir, files);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            if (snapshot != null) {
+                LoggerUtil.error("[ResourceRepository] Reload failed, keeping previous snapshot: " + e.getMessage());
+                return snapshot;
+            }
+            // A partial first snapshot would hide missing forms until a reload, so fail loudly
+            LoggerUtil.error("[ResourceRepository] Loading resources failed: " + e.getMessage());
+            throw e instanceof UncheckedIOException unchecked ? unchecked : new UncheckedIOException((IOException) e);
+        }
+
+        boolean replaced = snapshot != null;
+        ResourceSnapshot loaded = new ResourceSnapshot(++generation, files);
+        snapshot = loaded;
+        LoggerUtil.info(String.format(
+            "[ResourceRepository] Loaded snapshot #%d: %d files, %d bytes in %d ms%s",
+            loaded.getGeneration(), loaded.size(), loaded.getTotalBytes(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            overlayDir != null ? " (overlay: " + overlayDir + ")" : ""));
+
+        if (replaced) {
+            for (Runnable listener : reloadListeners) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    LoggerUtil.error("[ResourceRepository] Reload listener failed: " + e.getMessage());
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Stop watching the overlay directory.
+     */
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+            watchService = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+    }
+
+    // ==================== Loading ====================
+
+    /**
+     * Load one root from every classpath entry; earlier entries win, as with getResource.
+     */
+    private void loadClasspathRoot(String root, Map<String, byte[]> files) throws IOException {
+        Enumeration<URL> urls = classLoader.getResources(root.substring(0, root.length() - 1));
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if ("jar".equals(url.getProtocol())) {
+                loadJarRoot(url, root, files);
+            } else if ("file".equals(url.getProtocol())) {
+                try {
+                    loadDirectory(Paths.get(url.toURI()), root, files, false);
+                } catch (URISyntaxException e) {
+                    throw new IOException("Bad resource URL: " + url, e);
+                }
+            } else {
+                LoggerUtil.warn("[ResourceRepository] Skipping unsupported resource URL: " + url);
+            }
+        }
+    }
+
+    private void loadJarRoot(URL url, String root, Map<String, byte[]> files) throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        try (JarFile jar = ((JarURLConnection) connection).getJarFile()) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (entry.isDirectory() || !name.startsWith(root) || files.containsKey(name)) {
+                    continue;
+                }
+                if (isManaged(name)) {
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        files.put(name, in.readAllBytes());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Load files below {@code dir} as {@code prefix + relative path}.
+     *
+     * @param override true to replace files already loaded (overlay), false to keep them
+     */
+    private static void loadDirectory(Path dir, String prefix, Map<String, byte[]> files, boolean override)
+            throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                String name = prefix + dir.relativize(file).toString().replace('\\', '/');
+                if (!isManaged(name) || (!override && files.containsKey(name))) {
+                    continue;
+                }
+                files.put(name, Files.readAllBytes(file));
+            }
+        }
+    }
+
+    /**
+     * Load the overlay directory, laid out like the resources directory (fdo/, art/, ...).
+     */
+    private static void loadOverlay(Path dir, Map<String, byte[]> files) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            LoggerUtil.warn("[ResourceRepository] Overlay directory not found: " + dir);
+            return;
+        }
+        loadDirectory(dir, "", files, true);
+    }
+
+    // ==================== Hot reload ====================
+
+    private void startWatching() {
+        if (watchThread != null) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerTree(watchService, overlayDir);
+        } catch (IOException e) {
+            LoggerUtil.error("[ResourceRepository] Cannot watch " + overlayDir + ": " + e.getMessage());
+            return;
+        }
+
+        WatchService watcher = watchService;
+        watchThread = new Thread(() -> watchLoop(watcher), "resource-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        LoggerUtil.info("[ResourceRepository] Watching " + overlayDir + " for changes");
+    }
+
+    private void watchLoop(WatchService watcher) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watcher.take();
+                // Keep draining until the directory has been quiet for the settle period,
+                // so a copy of many files results in a single reload
+                while (key != null) {
+                    handleEvents(watcher, key);
+                    key = watcher.poll(RELOAD_SETTLE_MS, TimeUnit.MILLISECONDS);
+                }
+                reload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed by close()
+        }
+    }
+
+    private static void handleEvents(WatchService watcher, WatchKey key) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                Path created = dir.resolve((Path) event.context());
+                if (Files.isDirectory(created)) {
+                    try {
+                        registerTree(watcher, created);
+                    } catch (IOException e) {
+                        LoggerUtil.warn("[ResourceRepository] Cannot watch " + created + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private static void registerTree(WatchService watcher, Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> dirs = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                dir.register(watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.resources;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, indexed copy of the bundled resources served to clients.
+ *
+ * <p>Holds every file under the managed roots keyed by its classpath-style path
+ * (e.g. {@code replace_client_fdo/32-117.fdo.txt}), text files already decoded as UTF-8,
+ * and static text with AOL line endings applied. Values decoded from a file (parsed
+ * templates, art metadata) are memoized per snapshot through {@link #decode}, so they
+ * are dropped together with the snapshot on reload.</p>
+ *
+ * <p>Byte arrays returned by this class are shared and must not be modified.</p>
+ */
+public final class ResourceSnapshot {
+
+    /**
+     * Decodes the bytes of one resource into a value.
+     */
+    @FunctionalInterface
+    public interface Decoder<T> {
+        T decode(byte[] data) throws IOException;
+    }
+
+    private final long generation;
+    private final Map<String, byte[]> files;
+    private final Map<String, String> texts;
+    private final Map<String, String> aolTexts;
+    private final long totalBytes;
+    private final Map<String, Object> decoded = new ConcurrentHashMap<>();
+
+    /**
+     * @param generation reload counter, starting at 1
+     * @param files file contents keyed by normalized path
+     */
+    ResourceSnapshot(long generation, Map<String, byte[]> files) {
+        this.generation = generation;
+        this.files = Collections.unmodifiableMap(new HashMap<>(files));
+
+        Map<String, String> texts = new HashMap<>();
+        Map<String, String> aolTexts = new HashMap<>();
+        long totalBytes = 0;
+        for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+            totalBytes += entry.getValue().length;
+            if (entry.getKey().endsWith(".txt")) {
+                String text = new String(entry.getValue(), StandardCharsets.UTF_8);
+                texts.put(entry.getKey(), text);
+                if (ResourceRepository.isStaticTextPath(entry.getKey())) {
+                    aolTexts.put(entry.getKey(), toAolLineEndings(text));
+                }
+            }
+        }
+        this.texts = Collections.unmodifiableMap(texts);
+        this.aolTexts = Collections.unmodifiableMap(aolTexts);
+        this.totalBytes = totalBytes;
+    }
+
+    /**
+     * @return reload counter; changes whenever a new snapshot replaces this one
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @param path resource path (a leading '/' is ignored)
+     * @return true if the snapshot holds the file
+     */
+    public boolean contains(String path) {
+        return path != null && files.containsKey(normalize(path));
+    }
+
+    /**
+     * @param path resource path (a leading '/' is ignored)
+     * @return file contents (shared, do not modify), or empty if absent
+     */
+    public Optional<byte[]> bytes(String path) {
+        return path == null ? Optional.empty() : Optional.ofNullable(files.get(normalize(path)));
+    }
+
+    /**
+     * @param path resource path (a leading '/' is ignored)
+     * @return stream over the file contents, or empty if absent
+     */
+    public Optional<InputStream> open(String path) {
+        return bytes(path).map(ByteArrayInputStream::new);
+    }
+
+    /**
+     * @param path path of a {@code .txt} resource (a leading '/' is ignored)
+     * @return file contents decoded as UTF-8, or empty if absent
+     */
+    public Optional<String> text(String path) {
+        return path == null ? Optional.empty() : Optional.ofNullable(texts.get(normalize(path)));
+    }
+
+    /**
+     * @param path path of a static text resource (e.g. {@code static/public/TOS.txt})
+     * @return file contents with AOL line endings, or empty if absent
+     */
+    public Optional<String> aolText(String path) {
+        return path == null ? Optional.empty() : Optional.ofNullable(aolTexts.get(normalize(path)));
+    }
+
+    /**
+     * Decode a resource once per snapshot. Each path must always be decoded to the same type.
+     *
+     * @param path resource path (a leading '/' is ignored)
+     * @param decoder turns the file contents into a value
+     * @return decoded value, or empty if the file is absent
+     * @throws IOException if decoding fails (the failure is not memoized)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> decode(String path, Decoder<T> decoder) throws IOException {
+        Optional<byte[]> data = bytes(path);
+        if (data.isEmpty()) {
+            return Optional.empty();
+        }
+        String key = normalize(path);
+        Object value = decoded.get(key);
+        if (value == null) {
+            value = decoder.decode(data.get());
+            Object existing = decoded.putIfAbsent(key, value);
+            if (existing != null) {
+                value = existing;
+            }
+        }
+        return Optional.of((T) value);
+    }
+
+    /**
+     * @return number of files
+     */
+    public int size() {
+        return files.size();
+    }
+
+    /**
+     * @return combined size of all files in bytes
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Strip the leading '/' used by {@code Class.getResource} style paths.
+     */
+    static String normalize(String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    /**
+     * Convert Unix line endings to AOL protocol format.
+     * AOL client expects \r (0x0D) characters for line breaks, not \n (0x0A).
+     * For blank lines, AOL client requires triple \r (\r\r\r) not double \r (\r\r).
+     *
+     * @param text text with Unix line endings
+     * @return text with AOL line endings
+     */
+    public static String toAolLineEndings(String text) {
+        return text.replace("\n", "\r").replace("\r\r", "\r\r\r");
+    }
+}
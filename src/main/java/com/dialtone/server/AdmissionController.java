@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.server;
+
+import com.dialtone.ratelimit.RateLimiters;
+import com.dialtone.utils.LoggerUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for the P3 listener.
+ *
+ * <p>Connections are checked before their session handler is built: beyond
+ * {@code admission.max.sessions} in total, {@code admission.max.per.ip} from one address, or
+ * the {@link RateLimiters#CONNECT_IP} rate, the socket is closed straight away. Nothing
+ * polite can be sent at that point, since the client has not completed the P3 handshake.</p>
+ *
+ * <p>Load is measured on every worker event loop by a probe task that reports how late it
+ * ran and how many tasks were queued behind it. Past {@code admission.lag.threshold.ms} or
+ * {@code admission.pending.tasks.threshold}, the server is overloaded until both fall under
+ * half their threshold, and meanwhile:</p>
+ * <ul>
+ *   <li>the listening sockets stop reading, so new connections wait in the accept backlog;</li>
+ *   <li>connections accepted just before are paused (autoRead off) and resumed a few per
+ *       probe interval once the load has cleared, oldest first;</li>
+ *   <li>logins are answered with a "system busy" logout instead of the welcome screen.</li>
+ * </ul>
+ * <p>Sessions already signed in are untouched, so they keep their latency while a
+ * reconnect storm waits its turn.</p>
+ */
+@ChannelHandler.Sharable
+public final class AdmissionController extends ChannelInboundHandlerAdapter {
+
+    /**
+     * Why a connection was refused.
+     */
+    public enum Rejection {
+        MAX_SESSIONS,
+        IP_CONNECTIONS,
+        CONNECT_RATE
+    }
+
+    public static final String BUSY_MESSAGE =
+            "The system is very busy right now. Please try signing on again in a few minutes.";
+
+    public static final int DEFAULT_MAX_SESSIONS = 1000;
+    public static final int DEFAULT_MAX_PER_IP = 10;
+    public static final long DEFAULT_LAG_THRESHOLD_MS = 100L;
+    public static final int DEFAULT_PENDING_TASKS_THRESHOLD = 5000;
+    public static final long DEFAULT_PROBE_INTERVAL_MS = 100L;
+    public static final int DEFAULT_RESUME_PER_PROBE = 20;
+    public static final long DEFAULT_QUEUE_TIMEOUT_MS = 30_000L;
+
+    private static final AdmissionController INSTANCE = new AdmissionController();
+
+    private volatile boolean enabled = true;
+    private volatile int maxSessions = DEFAULT_MAX_SESSIONS;
+    private volatile int maxPerIp = DEFAULT_MAX_PER_IP;
+    private volatile long lagThresholdMs = DEFAULT_LAG_THRESHOLD_MS;
+    private volatile int pendingTasksThreshold = DEFAULT_PENDING_TASKS_THRESHOLD;
+    private volatile long probeIntervalMs = DEFAULT_PROBE_INTERVAL_MS;
+    private volatile int resumePerProbe = DEFAULT_RESUME_PER_PROBE;
+    private volatile long queueTimeoutMs = DEFAULT_QUEUE_TIMEOUT_MS;
+
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final Map<String, Integer> sessionsPerIp = new ConcurrentHashMap<>();
+    private final Queue<Channel> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean overloaded = new AtomicBoolean();
+    /** Orders overload transitions with the listener autoRead changes they make */
+    private final Object transitionLock = new Object();
+
+    private final List<Probe> probes = new ArrayList<>();
+    private volatile List<Channel> serverChannels = List.of();
+    private volatile long lastLagMs;
+    private volatile long lastPendingTasks;
+
+    private final Map<Rejection, AtomicLong> rejected = new ConcurrentHashMap<>();
+    private final AtomicLong busyLogins = new AtomicLong();
+    private final AtomicLong overloadEpisodes = new AtomicLong();
+    private final AtomicLong queuedConnections = new AtomicLong();
+    private final AtomicLong queueTimeouts = new AtomicLong();
+    private final AtomicLong peakLagMs = new AtomicLong();
+
+    /**
+     * Stand-alone controller; the P3 listener uses {@link #getInstance()}.
+     */
+    public AdmissionController() {
+        for (Rejection reason : Rejection.values()) {
+            rejected.put(reason, new AtomicLong());
+        }
+    }
+
+    public static AdmissionController getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Apply the {@code admission.*} settings.
+     *
+     * @param properties application properties
+     */
+    public void configure(Properties properties) {
+        enabled = Boolean.parseBoolean(properties.getProperty("admission.enabled", "true"));
+        maxSessions = (int) readLong(properties, "admission.max.sessions", DEFAULT_MAX_SESSIONS, 1);
+        maxPerIp = (int) readLong(properties, "admission.max.per.ip", DEFAULT_MAX_PER_IP, 1);
+        lagThresholdMs = readLong(properties, "admission.lag.threshold.ms", DEFAULT_LAG_THRESHOLD_MS, 1);
+        pendingTasksThreshold = (int) readLong(properties, "admission.pending.tasks.threshold",
+                DEFAULT_PENDING_TASKS_THRESHOLD, 1);
+        probeIntervalMs = readLong(properties, "admission.probe.interval.ms", DEFAULT_PROBE_INTERVAL_MS, 10);
+        resumePerProbe = (int) readLong(properties, "admission.resume.per.probe", DEFAULT_RESUME_PER_PROBE, 1);
+        queueTimeoutMs = readLong(properties, "admission.queue.timeout.ms", DEFAULT_QUEUE_TIMEOUT_MS, 1000);
+
+        LoggerUtil.info(enabled
+                ? String.format("Admission control enabled: maxSessions=%d maxPerIp=%d lagThreshold=%dms pendingTasksThreshold=%d",
+                        maxSessions, maxPerIp, lagThresholdMs, pendingTasksThreshold)
+                : "Admission control disabled");
+    }
+
+    private static long readLong(Properties properties, String key, long defaultValue, long min) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(min, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            LoggerUtil.warn("Invalid " + key + " value: " + value + ", using default: " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Start measuring load on the worker loops and pausing accepts while overloaded.
+     *
+     * @param workers event loops serving P3 connections
+     * @param listeners the listening channels whose autoRead is toggled
+     */
+    public void start(EventLoopGroup workers, List<Channel> listeners) {
+        this.serverChannels = List.copyOf(listeners);
+        synchronized (probes) {
+            for (EventExecutor loop : workers) {
+                Probe probe = new Probe(loop);
+                probes.add(probe);
+                probe.schedule();
+            }
+        }
+    }
+
+    /**
+     * Stop the load probes and drop the listener references.
+     */
+    public void stop() {
+        synchronized (probes) {
+            probes.forEach(Probe::cancel);
+            probes.clear();
+        }
+        synchronized (transitionLock) {
+            serverChannels = List.of();
+            overloaded.set(false);
+        }
+    }
+
+    /**
+     * Admit a newly accepted connection or close it. Admitted connections are counted
+     * until they close.
+     *
+     * @param ch accepted child channel
+     * @return true if the connection may proceed
+     */
+    public boolean admit(Channel ch) {
+        String ip = ch.remoteAddress() instanceof InetSocketAddress address && address.getAddress() != null
+                ? address.getAddress().getHostAddress()
+                : null;
+        Rejection rejection = tryAdmit(ip);
+        if (rejection != null) {
+            LoggerUtil.warn("[Admission] Refusing connection from " + ip + ": " + rejection);
+            ch.close();
+            return false;
+        }
+        ch.closeFuture().addListener(f -> release(ip));
+        return true;
+    }
+
+    /**
+     * Count a connection from {@code ip} against the session caps.
+     *
+     * @param ip client address, or null if unknown (not limited per IP)
+     * @return null if admitted, otherwise why not
+     */
+    public Rejection tryAdmit(String ip) {
+        if (!enabled) {
+            sessions.incrementAndGet();
+            return null;
+        }
+        if (sessions.incrementAndGet() > maxSessions) {
+            sessions.decrementAndGet();
+            return reject(Rejection.MAX_SESSIONS);
+        }
+        if (ip == null) {
+            return null;
+        }
+        if (sessionsPerIp.merge(ip, 1, Integer::sum) > maxPerIp) {
+            release(ip);
+            return reject(Rejection.IP_CONNECTIONS);
+        }
+        if (!RateLimiters.getInstance().tryAcquire(RateLimiters.CONNECT_IP, ip)) {
+            release(ip);
+            return reject(Rejection.CONNECT_RATE);
+        }
+        return null;
+    }
+
+    private Rejection reject(Rejection reason) {
+        rejected.get(reason).incrementAndGet();
+        return reason;
+    }
+
+    /**
+     * Give back a connection admitted by {@link #tryAdmit}.
+     *
+     * @param ip the address it was admitted with
+     */
+    public void release(String ip) {
+        sessions.decrementAndGet();
+        if (ip != null) {
+            // Drop the entry with its last connection
+            sessionsPerIp.computeIfPresent(ip, (k, count) -> count <= 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * Check whether a login may go ahead: refused while overloaded or beyond the
+     * server-wide {@link RateLimiters#LOGIN_GLOBAL} rate.
+     *
+     * @return true if the login may proceed; false if the client should be told the system is busy
+     */
+    public boolean tryAdmitLogin() {
+        if (enabled && (overloaded.get()
+                || !RateLimiters.getInstance().tryAcquire(RateLimiters.LOGIN_GLOBAL, RateLimiters.GLOBAL_KEY))) {
+            busyLogins.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Pause connections that arrive while overloaded; they are resumed oldest first.
+     */
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        if (enabled && overloaded.get()) {
+            Channel ch = ctx.channel();
+            ch.config().setAutoRead(false);
+            waiting.add(ch);
+            queuedConnections.incrementAndGet();
+            ch.eventLoop().schedule(() -> {
+                if (waiting.remove(ch)) {
+                    LoggerUtil.warn("[Admission] Closing " + ch.remoteAddress() + ": still queued after " + queueTimeoutMs + "ms");
+                    queueTimeouts.incrementAndGet();
+                    ch.close();
+                }
+            }, queueTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        ctx.fireChannelActive();
+    }
+
+    /**
+     * Feed one load sample: the worst event-loop lag and pending-task depth just measured.
+     * Enters overload past either threshold and leaves it once both are under half.
+     *
+     * @param lagMs how late the probe ran
+     * @param pendingTasks tasks queued on the busiest loop
+     */
+    public void updateLoad(long lagMs, long pendingTasks) {
+        lastLagMs = lagMs;
+        lastPendingTasks = pendingTasks;
+        peakLagMs.accumulateAndGet(lagMs, Math::max);
+
+        // Probes on different loops report concurrently; flipping the state and the listeners
+        // together keeps a late "pause" from landing after the "resume" that cleared it
+        synchronized (transitionLock) {
+            if (!overloaded.get()) {
+                if (enabled && (lagMs > lagThresholdMs || pendingTasks > pendingTasksThreshold)) {
+                    overloaded.set(true);
+                    overloadEpisodes.incrementAndGet();
+                    setAccepting(false);
+                    LoggerUtil.warn(String.format("[Admission] Overloaded (lag=%dms pendingTasks=%d): pausing accepts",
+                            lagMs, pendingTasks));
+                }
+            } else if (!enabled || (lagMs * 2 < lagThresholdMs && pendingTasks * 2 < pendingTasksThreshold)) {
+                overloaded.set(false);
+                setAccepting(true);
+                LoggerUtil.info(String.format("[Admission] Load cleared (lag=%dms pendingTasks=%d): accepting, %d queued",
+                        lagMs, pendingTasks, waiting.size()));
+            }
+        }
+
+        if (!overloaded.get()) {
+            resumeWaiting();
+        }
+    }
+
+    private void setAccepting(boolean accepting) {
+        for (Channel listener : serverChannels) {
+            listener.config().setAutoRead(accepting);
+        }
+    }
+
+    private void resumeWaiting() {
+        for (int i = 0; i < resumePerProbe; i++) {
+            Channel ch = waiting.poll();
+            if (ch == null) {
+                return;
+            }
+            if (ch.isActive()) {
+                ch.config().setAutoRead(true);
+            }
+        }
+    }
+
+    /**
+     * @return true while accepts are paused and logins are refused
+     */
+    public boolean isOverloaded() {
+        return overloaded.get();
+    }
+
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    /**
+     * @return connections paused until the load clears
+     */
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+
+    /**
+     * @return counters for the admin dashboard
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("sessions", sessions.get());
+        metrics.put("maxSessions", maxSessions);
+        metrics.put("maxPerIp", maxPerIp);
+        metrics.put("overloaded", overloaded.get());
+        metrics.put("overloadEpisodes", overloadEpisodes.get());
+        metrics.put("eventLoopLagMs", lastLagMs);
+        metrics.put("peakEventLoopLagMs", peakLagMs.get());
+        metrics.put("pendingTasks", lastPendingTasks);
+        metrics.put("waiting", waiting.size());
+        metrics.put("queuedConnections", queuedConnections.get());
+        metrics.put("queueTimeouts", queueTimeouts.get());
+        metrics.put("busyLogins", busyLogins.get());
+        Map<String, Long> rejections = new LinkedHashMap<>();
+        for (Rejection reason : Rejection.values()) {
+            rejections.put(reason.name(), rejected.get(reason).get());
+        }
+        metrics.put("rejected", rejections);
+        return metrics;
+    }
+
+    /**
+     * Measures one event loop: how late a task scheduled on it runs and how many
+     * tasks are queued there at that moment.
+     */
+    private final class Probe implements Runnable {
+        private final EventExecutor loop;
+        private volatile long dueNanos;
+        private volatile long lagMs;
+        private volatile long pendingTasks;
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean cancelled;
+
+        Probe(EventExecutor loop) {
+            this.loop = loop;
+        }
+
+        void schedule() {
+            if (cancelled || loop.isShuttingDown()) {
+                return;
+            }
+            long interval = probeIntervalMs;
+            dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(interval);
+            future = loop.schedule(this, interval, TimeUnit.MILLISECONDS);
+        }
+
+        void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            lagMs = Math.max(0L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - dueNanos));
+            pendingTasks = loop instanceof SingleThreadEventExecutor executor ? executor.pendingTasks() : 0;
+
+            // The loops sample independently; the worst of their latest samples decides
+            long worstLag = 0;
+            long worstPending = 0;
+            synchronized (probes) {
+                for (Probe probe : probes) {
+                    worstLag = Math.max(worstLag, probe.lagMs);
+                    worstPending = Math.max(worstPending, probe.pendingTasks);
+                }
+            }
+            updateLoad(worstLag, worstPending);
+            schedule();
+        }
+    }
+}
@@ -13,10 +13,16 @@ import com.dialtone.db.DatabaseManager;
 import com.dialtone.protocol.keyword.handlers.*;
 import com.dialtone.filebrowser.FileBrowserService;
 import com.dialtone.web.services.ScreennamePreferencesService;
+import com.dialtone.chat.ChatRoomManager;
 import com.dialtone.chat.bot.ChatBotRegistry;
 import com.dialtone.chat.bot.GrokBot;
+import com.dialtone.fdo.CompiledFormCache;
 import com.dialtone.fdo.FdoCompiler;
+import com.dialtone.fdo.FdoTemplateCache;
+import com.dialtone.fdo.FdoTemplateEngine;
+import com.dialtone.fdo.dsl.FdoDslBuilder;
 import com.dialtone.fdo.dsl.FdoDslRegistry;
+import com.dialtone.fdo.dsl.RenderingContext;
 import com.dialtone.fdo.dsl.builders.DodNotAvailableFdoBuilder;
 import com.dialtone.fdo.dsl.builders.EphemeralWelcomeFdoBuilder;
 import com.dialtone.fdo.dsl.builders.F1DodFailedFdoBuilder;
@@ -30,23 +36,35 @@ import com.dialtone.fdo.dsl.builders.MotdFdoBuilder;
 import com.dialtone.fdo.dsl.builders.NoopFdoBuilder;
 import com.dialtone.fdo.dsl.builders.ResetWelcomeWindowArtFdoBuilder;
 import com.dialtone.fdo.dsl.builders.TosFdoBuilder;
+import com.dialtone.protocol.ClientPlatform;
+import com.dialtone.protocol.MultiFrameStreamAccumulator;
 import com.dialtone.protocol.StatefulClientHandler;
+import com.dialtone.protocol.im.ImMailbox;
+import com.dialtone.protocol.dod.DodRequestHandler;
+import com.dialtone.protocol.keyword.KeywordHandler;
 import com.dialtone.protocol.keyword.KeywordRegistry;
+import com.dialtone.protocol.news.NewsStoryPublisher;
 import com.dialtone.protocol.xfer.XferService;
+import com.dialtone.protocol.xfer.XferTransferEngine;
 import com.dialtone.protocol.xfer.XferUploadService;
+import com.dialtone.resources.ResourceRepository;
+import com.dialtone.state.StallMonitor;
 import com.dialtone.storage.FileStorage;
 import com.dialtone.storage.StorageFactory;
 import com.dialtone.utils.LoggerUtil;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.WriteBufferWaterMark;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class DialtoneServer {
 
@@ -58,15 +76,16 @@ public class DialtoneServer {
     private final long delayMs;
 
     private final Properties configuration;
+    private Properties props;
 
     private UnifiedNewsService unifiedNewsService;
     private GrokConversationalService grokConversationalService;
     private UserRegistry userRegistry;
     private FileStorage fileStorage;
 
-    private NioEventLoopGroup bossGroup;
-    private NioEventLoopGroup workerGroup;
-    private Channel serverChannel;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private List<Channel> serverChannels = List.of();
 
     public DialtoneServer(int port, String bindAddr, boolean verbose, long delayMs) {
         this(port, bindAddr, verbose, delayMs, null);
@@ -81,32 +100,63 @@ public class DialtoneServer {
     }
 
     public void start() throws InterruptedException {
-        Properties props = (configuration != null) ? configuration : loadApplicationProperties();
+        initialize();
+        bind();
+    }
+
+    /**
+     * Load configuration and initialize the services shared by all connections.
+     * Independent services are initialized in parallel.
+     */
+    public void initialize() {
+        props = (configuration != null) ? configuration : loadApplicationProperties();
         initializeSharedServices(props);
+    }
 
-        bossGroup = new NioEventLoopGroup(1);
-        workerGroup = new NioEventLoopGroup();
+    /**
+     * Open the listening sockets: one, or with epoll and {@code p3.acceptors} above one,
+     * several sharing the port. {@link #initialize()} must have completed.
+     */
+    public void bind() throws InterruptedException {
+        NettyTransport transport = NettyTransport.select(props.getProperty("p3.transport", "auto"));
+        int acceptors = transport.acceptorCount(Integer.parseInt(props.getProperty("p3.acceptors", "0")));
+        bossGroup = transport.newEventLoopGroup(acceptors, "p3-accept");
+        workerGroup = transport.newEventLoopGroup(0, "p3-io");
+
+        AdmissionController admission = AdmissionController.getInstance();
+        int acceptBacklog = Integer.parseInt(props.getProperty("p3.accept.backlog", "1024"));
+        int writeBufferLow = Integer.parseInt(props.getProperty("p3.write.buffer.low.bytes", "32768"));
+        int writeBufferHigh = Math.max(writeBufferLow,
+                Integer.parseInt(props.getProperty("p3.write.buffer.high.bytes", "65536")));
 
         try {
             ServerBootstrap sb = new ServerBootstrap()
                     .group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
+                    .channel(transport.serverChannelType())
                     .childHandler(new ChannelInitializer<Channel>() {
                         @Override
                         protected void initChannel(Channel ch) {
+                            // Refused connections are closed before their session handler is built
+                            if (!admission.admit(ch)) {
+                                return;
+                            }
+                            ch.pipeline().addLast("admission", admission);
                             ch.pipeline().addLast("logger-in", new LoggingHandler("INBOUND", LogLevel.DEBUG));
                             ch.pipeline().addLast(new StatefulClientHandler(verbose, unifiedNewsService, userRegistry, props, fileStorage));
                             ch.pipeline().addLast("logger-out", new LoggingHandler("OUTBOUND", LogLevel.DEBUG));
                         }
                     })
+                    .option(ChannelOption.SO_BACKLOG, acceptBacklog)
                     .childOption(ChannelOption.TCP_NODELAY, true)
                     .childOption(ChannelOption.SO_KEEPALIVE, true)
                     .childOption(ChannelOption.SO_LINGER, -1)
-                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(32 * 1024, 64 * 1024));
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(writeBufferLow, writeBufferHigh));
+            transport.applyTuning(sb, props);
 
-            LoggerUtil.info("Binding " + bindAddr + ":" + port + " ...");
-            ChannelFuture bindFuture = sb.bind(bindAddr, port).sync();
-            serverChannel = bindFuture.channel();
+            LoggerUtil.info("Binding " + bindAddr + ":" + port + " (" + transport + ", " + acceptors + " acceptor"
+                    + (acceptors == 1 ? "" : "s") + ") ...");
+            serverChannels = transport.bind(sb, bindAddr, port, acceptors);
+            admission.start(workerGroup, serverChannels);
             LoggerUtil.info("Server ready on " + bindAddr + ":" + port);
 
         } catch (Exception e) {
@@ -120,32 +170,72 @@ public class DialtoneServer {
     private void initializeSharedServices(Properties props) {
         try {
             userRegistry = UserRegistry.getInstance();
-            unifiedNewsService = new UnifiedNewsService(props);
-
-            try {
-                grokConversationalService = new GrokConversationalService(props);
-            } catch (Exception e) {
-                LoggerUtil.warn("GrokConversationalService failed: " + e.getMessage());
-                grokConversationalService = null;
-            }
 
-            // Initialize storage abstraction (used by keyword handlers and StatefulClientHandler)
-            try {
-                fileStorage = StorageFactory.createWithFallback(props);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to initialize file storage", e);
+            // Disk and resource loading dominate startup; the services below do not depend on
+            // each other, except that news and DSL builders compile against loaded resources
+            try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("server-init-", 0).factory())) {
+                CompletableFuture<Void> resources = CompletableFuture.runAsync(
+                        () -> initializeResources(props), executor);
+
+                CompletableFuture<Void> news = resources.thenRunAsync(() -> {
+                    unifiedNewsService = new UnifiedNewsService(props);
+                    // Compile each category's story window whenever its content is published
+                    NewsStoryPublisher.getInstance().attach(unifiedNewsService, new FdoCompiler(props));
+                }, executor);
+
+                CompletableFuture<Void> grok = CompletableFuture.runAsync(() -> {
+                    try {
+                        grokConversationalService = new GrokConversationalService(props);
+                    } catch (Exception e) {
+                        LoggerUtil.warn("GrokConversationalService failed: " + e.getMessage());
+                        grokConversationalService = null;
+                    }
+                }, executor);
+
+                // Initialize storage abstraction (used by keyword handlers and StatefulClientHandler)
+                CompletableFuture<Void> storage = CompletableFuture.runAsync(() -> {
+                    try {
+                        fileStorage = StorageFactory.createWithFallback(props);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to initialize file storage", e);
+                    }
+                }, executor);
+
+                CompletableFuture<Void> dslBuilders = resources.thenRunAsync(this::initializeFdoDslBuilders, executor);
+
+                ChatBotRegistry.initialize(props);
+                ImMailbox.configure(props);
+                MultiFrameStreamAccumulator.configure(props);
+                StallMonitor.getInstance().configure(props);
+                AdmissionController.getInstance().configure(props);
+                XferTransferEngine.getInstance().configure(props);
+                ChatRoomManager.getInstance().configure(props);
+
+                CompletableFuture.allOf(resources, news, grok, storage, dslBuilders).join();
             }
 
-            ChatBotRegistry.initialize(props);
             initializeChatBots(props);
             initializeKeywordHandlers(props);
-            initializeFdoDslBuilders();
 
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to initialize shared services", e.getCause());
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize shared services", e);
         }
     }
 
+    private void initializeResources(Properties props) {
+        ResourceRepository resources = ResourceRepository.getInstance();
+        // Caches derived from resource contents must not outlive a hot reload
+        resources.addReloadListener(() -> {
+            FdoTemplateEngine.clearCaches();
+            FdoTemplateCache.getInstance().clear();
+            CompiledFormCache.getInstance().clear();
+        });
+        resources.configure(props);
+    }
+
     private void initializeChatBots(Properties props) {
         ChatBotRegistry registry = ChatBotRegistry.getInstance();
         ResponseFormatter responseFormatter = new ResponseFormatter(grokConversationalService, props);
@@ -223,9 +313,61 @@ public class DialtoneServer {
         LoggerUtil.info("FDO DSL Registry: " + registry.getBuilderCount() + " builder(s) registered");
     }
 
+    /**
+     * Compile every registered DSL form and keyword response for each client platform and
+     * color mode, so the first sessions after a restart are served from warm caches and
+     * JIT-compiled code. Failures are logged and skipped. {@link #initialize()} must have completed.
+     *
+     * @return number of forms and keyword responses compiled
+     */
+    public int warmUp() {
+        long start = System.nanoTime();
+        FdoCompiler fdoCompiler = new FdoCompiler(props);
+        DodRequestHandler dodHandler = new DodRequestHandler(fdoCompiler, new ArtService(), props);
+        FdoDslRegistry dslRegistry = FdoDslRegistry.getInstance();
+
+        int compiled = 0;
+        int failed = 0;
+        for (ClientPlatform platform : ClientPlatform.values()) {
+            for (boolean lowColorMode : new boolean[]{false, true}) {
+                RenderingContext renderCtx = new RenderingContext(platform, lowColorMode);
+
+                for (FdoDslBuilder builder : dslRegistry.getAllBuilders()) {
+                    if (!dslRegistry.isBuilderEnabled(builder.getGid())) {
+                        continue;
+                    }
+                    try {
+                        dodHandler.warmUpAtomStream(builder.getGid(), renderCtx);
+                        compiled++;
+                    } catch (Exception e) {
+                        failed++;
+                        LoggerUtil.warn("Warm-up failed for GID " + builder.getGid() + " (" + renderCtx + "): " + e.getMessage());
+                    }
+                }
+
+                for (KeywordHandler handler : KeywordRegistry.getInstance().getAllHandlers()) {
+                    try {
+                        handler.warmUp(renderCtx);
+                        compiled++;
+                    } catch (Exception e) {
+                        failed++;
+                        LoggerUtil.warn("Warm-up failed for keyword '" + handler.getKeyword() + "' (" + renderCtx + "): " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        LoggerUtil.info(String.format("Warm-up compiled %d forms in %dms (%d failed)",
+                compiled, (System.nanoTime() - start) / 1_000_000, failed));
+        return compiled;
+    }
+
     public void stop() {
         try {
-            if (serverChannel != null && serverChannel.isOpen()) serverChannel.close().sync();
+            AdmissionController.getInstance().stop();
+            for (Channel serverChannel : serverChannels) {
+                if (serverChannel.isOpen()) serverChannel.close().sync();
+            }
             if (bossGroup != null) bossGroup.shutdownGracefully().sync();
             if (workerGroup != null) workerGroup.shutdownGracefully().sync();
             shutdownSharedServices();
@@ -235,6 +377,9 @@ public class DialtoneServer {
     }
 
     private void shutdownSharedServices() {
+        ChatBotRegistry.getInstance().shutdown();
+        ResourceRepository.getInstance().close();
+
         if (unifiedNewsService != null) {
             try {
                 unifiedNewsService.close();
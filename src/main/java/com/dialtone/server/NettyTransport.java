@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.server;
+
+import com.dialtone.utils.LoggerUtil;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoop;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Netty transport for the P3 listener: the native epoll transport on Linux, NIO elsewhere.
+ *
+ * <p>Epoll makes fewer system calls per read and write than NIO and lets several listening
+ * sockets share the port with {@code SO_REUSEPORT}, so the kernel spreads accepts across
+ * acceptor threads instead of funnelling them through one. Set with {@code p3.transport}
+ * ({@code auto}, {@code epoll} or {@code nio}); epoll falls back to NIO, with a warning, if
+ * the native library cannot be loaded.</p>
+ *
+ * <p>Outbound connections made from a session's event loop (telnet bridge, Skalholt events)
+ * must use the socket type of that loop; see {@link #socketChannelTypeFor}.</p>
+ */
+public enum NettyTransport {
+
+    EPOLL,
+    NIO;
+
+    /**
+     * Pick the transport for a {@code p3.transport} setting.
+     *
+     * @param setting {@code auto}, {@code epoll} or {@code nio} (null means auto)
+     * @return epoll when requested or automatic and available, otherwise NIO
+     */
+    public static NettyTransport select(String setting) {
+        String value = setting == null ? "auto" : setting.trim().toLowerCase();
+        switch (value) {
+            case "nio":
+                return NIO;
+            case "epoll":
+                if (!Epoll.isAvailable()) {
+                    LoggerUtil.warn("Epoll transport requested but unavailable (" + Epoll.unavailabilityCause()
+                            + "), using NIO");
+                    return NIO;
+                }
+                return EPOLL;
+            case "auto":
+                return Epoll.isAvailable() ? EPOLL : NIO;
+            default:
+                LoggerUtil.warn("Unknown p3.transport value: " + setting + ", using auto");
+                return Epoll.isAvailable() ? EPOLL : NIO;
+        }
+    }
+
+    /**
+     * @param threads number of loops (0 for Netty's default of twice the cores)
+     * @param name thread name prefix
+     * @return an event loop group of this transport
+     */
+    public EventLoopGroup newEventLoopGroup(int threads, String name) {
+        DefaultThreadFactory threadFactory = new DefaultThreadFactory(name);
+        return this == EPOLL
+                ? new EpollEventLoopGroup(threads, threadFactory)
+                : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    public Class<? extends ServerChannel> serverChannelType() {
+        return this == EPOLL ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    public Class<? extends SocketChannel> socketChannelType() {
+        return this == EPOLL ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    /**
+     * Socket type for a client connection registered on an existing group or loop.
+     *
+     * @param group the group or single loop the connection will run on
+     * @return NIO sockets for NIO loops, epoll sockets otherwise
+     */
+    public static Class<? extends SocketChannel> socketChannelTypeFor(EventLoopGroup group) {
+        if (group instanceof NioEventLoopGroup || group.next() instanceof NioEventLoop || !Epoll.isAvailable()) {
+            return NioSocketChannel.class;
+        }
+        return EpollSocketChannel.class;
+    }
+
+    /**
+     * How many listening sockets to bind. More than one needs {@code SO_REUSEPORT}, which
+     * only the epoll transport offers.
+     *
+     * @param requested {@code p3.acceptors}; 0 for one per core
+     * @return number of listeners to bind
+     */
+    public int acceptorCount(int requested) {
+        int count = requested > 0 ? requested : Runtime.getRuntime().availableProcessors();
+        if (this != EPOLL) {
+            if (requested > 1) {
+                LoggerUtil.warn("p3.acceptors=" + requested + " needs the epoll transport, using one acceptor");
+            }
+            return 1;
+        }
+        return count;
+    }
+
+    /**
+     * Apply the buffer and socket tuning from {@code p3.*} properties. Epoll-only options
+     * are skipped under NIO.
+     *
+     * @param bootstrap bootstrap of the listener
+     * @param props application properties
+     */
+    public void applyTuning(ServerBootstrap bootstrap, Properties props) {
+        if (Boolean.parseBoolean(props.getProperty("p3.buffer.pooled.direct", "true"))) {
+            bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                    .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        }
+        if (this != EPOLL) {
+            return;
+        }
+
+        EpollMode mode = Boolean.parseBoolean(props.getProperty("p3.epoll.edge.triggered", "true"))
+                ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED;
+        bootstrap.option(EpollChannelOption.EPOLL_MODE, mode)
+                .childOption(EpollChannelOption.EPOLL_MODE, mode)
+                .childOption(EpollChannelOption.TCP_QUICKACK,
+                        Boolean.parseBoolean(props.getProperty("p3.tcp.quickack", "true")));
+
+        // Caps unsent data held in the kernel, so backpressure reaches the Pacer sooner
+        long notSentLowat = Long.parseLong(props.getProperty("p3.tcp.notsent.lowat.bytes", "0"));
+        if (notSentLowat > 0) {
+            bootstrap.childOption(EpollChannelOption.TCP_NOTSENT_LOWAT, notSentLowat);
+        }
+    }
+
+    /**
+     * Bind {@code listeners} sockets to the same address, sharing the port with
+     * {@code SO_REUSEPORT} when there is more than one. Each lands on its own boss loop,
+     * so the boss group needs at least as many threads.
+     *
+     * @param bootstrap configured bootstrap
+     * @param host bind address
+     * @param port bind port
+     * @param listeners from {@link #acceptorCount}
+     * @return the listening channels
+     * @throws InterruptedException if interrupted while binding
+     */
+    public List<Channel> bind(ServerBootstrap bootstrap, String host, int port, int listeners)
+            throws InterruptedException {
+        if (listeners > 1) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+        List<Channel> bound = new ArrayList<>(listeners);
+        try {
+            for (int i = 0; i < listeners; i++) {
+                bound.add(bootstrap.bind(host, port).sync().channel());
+            }
+        } catch (Exception e) {
+            bound.forEach(Channel::close);
+            throw e;
+        }
+        return bound;
+    }
+}
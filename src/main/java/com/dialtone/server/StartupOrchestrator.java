@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.server;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs startup steps in parallel, each as soon as the steps it depends on have finished.
+ *
+ * <p>A step is declared with the futures of its dependencies; independent steps run at the
+ * same time. When a step fails, every step that depends on it fails with
+ * the same cause and {@link #awaitAll} rethrows it.</p>
+ *
+ * <pre>
+ * CompletableFuture&lt;Void&gt; db = startup.step("database", this::openDatabase);
+ * CompletableFuture&lt;Void&gt; web = startup.step("web-server", this::startWeb, db);
+ * startup.awaitAll(60_000);
+ * </pre>
+ */
+public final class StartupOrchestrator implements AutoCloseable {
+
+    /**
+     * Body of a startup step.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void run() throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final List<CompletableFuture<Void>> steps = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Long> durationsMs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public StartupOrchestrator() {
+        // Steps mostly wait on I/O and on each other; a virtual thread each means a step
+        // that blocks can never starve another of a thread
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("startup-", 0).factory());
+    }
+
+    /**
+     * Declare a step.
+     *
+     * @param name name used in logs and timings
+     * @param body work to run
+     * @param dependencies steps that must finish first
+     * @return completes when the step has finished
+     */
+    public CompletableFuture<Void> step(String name, Step body, CompletableFuture<?>... dependencies) {
+        CompletableFuture<Void> step = CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                body.run();
+            } catch (Exception e) {
+                LoggerUtil.error("Startup step '" + name + "' failed: " + e.getMessage());
+                throw new CompletionException(e);
+            }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            durationsMs.put(name, elapsedMs);
+            LoggerUtil.info(String.format("Startup step '%s' finished in %dms", name, elapsedMs));
+        }, executor);
+        steps.add(step);
+        return step;
+    }
+
+    /**
+     * Wait for every declared step.
+     *
+     * @param timeoutMs how long to wait
+     * @throws Exception the first step failure, or a TimeoutException
+     */
+    public void awaitAll(long timeoutMs) throws Exception {
+        CompletableFuture<Void> all;
+        synchronized (steps) {
+            all = CompletableFuture.allOf(steps.toArray(new CompletableFuture[0]));
+        }
+        try {
+            all.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw new IllegalStateException("Startup failed", cause);
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Startup did not finish within " + timeoutMs + "ms");
+        }
+    }
+
+    /**
+     * @return how long each finished step took, in order of completion
+     */
+    public Map<String, Long> getDurationsMs() {
+        synchronized (durationsMs) {
+            return new LinkedHashMap<>(durationsMs);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
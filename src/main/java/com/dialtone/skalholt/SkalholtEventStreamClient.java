@@ -4,19 +4,38 @@
 
 package com.dialtone.skalholt;
 
+import com.dialtone.server.NettyTransport;
 import com.dialtone.utils.LoggerUtil;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.config.RequestConfig;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ClassicHttpResponse;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.util.Timeout;
-
-import java.io.BufferedReader;
+import com.dialtone.utils.ReconnectBackoff;
+import com.dialtone.utils.SseEventParser;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.concurrent.ScheduledFuture;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
@@ -25,43 +44,59 @@ import java.util.function.Consumer;
  *
  * <p>Connects to the /api/events endpoint and streams events to registered callbacks.
  * Uses HTTP Basic Authentication with the token captured from telnet.
+ *
+ * <p>The stream runs as a Netty client on a shared event loop rather than a dedicated
+ * reader thread. Dropped or refused connections are retried with jittered exponential
+ * backoff scheduled on the same event loop.
  */
 public class SkalholtEventStreamClient implements AutoCloseable {
 
     private static final String EVENTS_PATH = "/api/events";
-    private static final String SSE_DATA_PREFIX = "data:";
     private static final int DEFAULT_TIMEOUT_MS = 30000;
+    private static final long RECONNECT_INITIAL_DELAY_MS = 1000;
+    private static final long RECONNECT_MAX_DELAY_MS = 60000;
+    private static final double RECONNECT_JITTER = 0.5;
+    private static final int MAX_ERROR_BODY_BYTES = 2048;
+    private static final int MAX_LINE_BYTES = 1024 * 1024;
 
+    private final EventLoop eventLoop;
     private final String host;
     private final int port;
     private final SkalholtAuthToken authToken;
     private final Consumer<SkalholtSseEvent> eventCallback;
     private final Consumer<Throwable> errorCallback;
     private final int timeoutMs;
+    private final ReconnectBackoff backoff =
+            new ReconnectBackoff(RECONNECT_INITIAL_DELAY_MS, RECONNECT_MAX_DELAY_MS, RECONNECT_JITTER);
+
+    // Touched only on the event loop
+    private Channel channel;
+    private ScheduledFuture<?> reconnectTask;
 
-    private final CloseableHttpClient httpClient;
-    private Thread readerThread;
     private final AtomicBoolean connected = new AtomicBoolean(false);
     private final AtomicBoolean shouldReconnect = new AtomicBoolean(true);
 
     /**
      * Creates a new SkalholtEventStreamClient.
      *
+     * @param eventLoopGroup event loop(s) to run the stream on
      * @param host Skalholt API host
      * @param port Skalholt API port
      * @param authToken authentication token
      * @param eventCallback callback for received events
      * @param errorCallback callback for errors (may be null)
      */
-    public SkalholtEventStreamClient(String host, int port, SkalholtAuthToken authToken,
+    public SkalholtEventStreamClient(EventLoopGroup eventLoopGroup, String host, int port,
+                                     SkalholtAuthToken authToken,
                                      Consumer<SkalholtSseEvent> eventCallback,
                                      Consumer<Throwable> errorCallback) {
-        this(host, port, authToken, eventCallback, errorCallback, DEFAULT_TIMEOUT_MS);
+        this(eventLoopGroup, host, port, authToken, eventCallback, errorCallback, DEFAULT_TIMEOUT_MS);
     }
 
     /**
      * Creates a new SkalholtEventStreamClient with custom timeout.
      *
+     * @param eventLoopGroup event loop(s) to run the stream on
      * @param host Skalholt API host
      * @param port Skalholt API port
      * @param authToken authentication token
@@ -69,10 +104,14 @@ public class SkalholtEventStreamClient implements AutoCloseable {
      * @param errorCallback callback for errors (may be null)
      * @param timeoutMs connection timeout in milliseconds
      */
-    public SkalholtEventStreamClient(String host, int port, SkalholtAuthToken authToken,
+    public SkalholtEventStreamClient(EventLoopGroup eventLoopGroup, String host, int port,
+                                     SkalholtAuthToken authToken,
                                      Consumer<SkalholtSseEvent> eventCallback,
                                      Consumer<Throwable> errorCallback,
                                      int timeoutMs) {
+        if (eventLoopGroup == null) {
+            throw new IllegalArgumentException("Event loop group cannot be null");
+        }
         if (host == null || host.isBlank()) {
             throw new IllegalArgumentException("Host cannot be null or blank");
         }
@@ -82,26 +121,20 @@ public class SkalholtEventStreamClient implements AutoCloseable {
         if (eventCallback == null) {
             throw new IllegalArgumentException("Event callback cannot be null");
         }
+        // Pin to one loop so connects, reads and reconnect timers never race
+        this.eventLoop = eventLoopGroup.next();
         this.host = host;
         this.port = port;
         this.authToken = authToken;
         this.eventCallback = eventCallback;
         this.errorCallback = errorCallback;
         this.timeoutMs = timeoutMs;
-
-        // Create httpClient once with configured timeout (reused across reconnects)
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectionRequestTimeout(Timeout.ofMilliseconds(timeoutMs))
-                .setResponseTimeout(Timeout.DISABLED) // SSE streams indefinitely
-                .build();
-        this.httpClient = HttpClients.custom()
-                .setDefaultRequestConfig(requestConfig)
-                .build();
     }
 
     /**
      * Connects to the EventStream and starts receiving events.
-     * This method returns immediately; events are delivered asynchronously.
+     * This method returns immediately; events are delivered asynchronously
+     * on the client's event loop.
      */
     public void connect() {
         if (connected.get()) {
@@ -110,107 +143,176 @@ public class SkalholtEventStreamClient implements AutoCloseable {
         }
 
         shouldReconnect.set(true);
-        startReaderThread();
+        eventLoop.execute(this::doConnect);
     }
 
     /**
-     * Starts the background reader thread.
+     * Opens the HTTP connection and sends the stream request. Runs on the event loop.
      */
-    private void startReaderThread() {
-        LoggerUtil.info("[SkalholtEventStream] Starting reader thread for " + authToken.getUsername());
-        readerThread = new Thread(() -> {
-            LoggerUtil.info("[SkalholtEventStream] Reader thread running");
-            while (shouldReconnect.get() && !Thread.currentThread().isInterrupted()) {
-                try {
-                    connectAndRead();
-                } catch (Exception e) {
-                    connected.set(false);
-                    if (shouldReconnect.get()) {
-                        LoggerUtil.warn("[SkalholtEventStream] Connection error: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-                        notifyError(e);
-                        try {
-                            Thread.sleep(5000);
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            break;
-                        }
+    private void doConnect() {
+        reconnectTask = null;
+        if (!shouldReconnect.get()) {
+            return;
+        }
+
+        LoggerUtil.info("[SkalholtEventStream] Connecting to http://" + host + ":" + port + EVENTS_PATH +
+                " for " + authToken.getUsername());
+
+        Bootstrap bootstrap = new Bootstrap()
+                .group(eventLoop)
+                .channel(NettyTransport.socketChannelTypeFor(eventLoop))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast("httpCodec", new HttpClientCodec())
+                                .addLast("eventStream", new EventStreamHandler());
                     }
-                }
+                });
+
+        ChannelFuture connectFuture = bootstrap.connect(host, port);
+        channel = connectFuture.channel();
+        connectFuture.addListener((ChannelFuture f) -> {
+            if (!f.isSuccess()) {
+                Throwable cause = f.cause() != null ? f.cause() : new IOException("Connect cancelled");
+                scheduleReconnect(cause);
+                return;
+            }
+            if (!shouldReconnect.get()) {
+                f.channel().close();
+                return;
             }
-            connected.set(false);
-            LoggerUtil.info("[SkalholtEventStream] Reader thread stopped");
-        }, "SkalholtEventStream-" + authToken.getUsername());
 
-        readerThread.setDaemon(true);
-        readerThread.start();
+            FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, EVENTS_PATH);
+            request.headers()
+                    .set(HttpHeaderNames.HOST, host + ":" + port)
+                    .set(HttpHeaderNames.AUTHORIZATION, authToken.getBasicAuthHeader())
+                    .set(HttpHeaderNames.ACCEPT, "text/event-stream")
+                    .set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.NO_CACHE)
+                    .set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+            f.channel().writeAndFlush(request);
+        });
     }
 
     /**
-     * Establishes connection and reads events until disconnected.
+     * Schedules the next connection attempt on the event loop, if still wanted.
      */
-    private void connectAndRead() throws IOException {
-        String url = "http://" + host + ":" + port + EVENTS_PATH;
-        LoggerUtil.info("[SkalholtEventStream] Connecting to " + url);
-        LoggerUtil.info("[SkalholtEventStream] Using auth header: " + authToken.getBasicAuthHeader().substring(0, 15) + "...");
-
-        HttpGet request = new HttpGet(url);
-        request.setHeader("Authorization", authToken.getBasicAuthHeader());
-        request.setHeader("Accept", "text/event-stream");
-        request.setHeader("Cache-Control", "no-cache");
-
-        LoggerUtil.info("[SkalholtEventStream] Executing HTTP request...");
-
-        httpClient.execute(request, (ClassicHttpResponse response) -> {
-            int status = response.getCode();
-            LoggerUtil.info("[SkalholtEventStream] Got HTTP response: " + status);
-
-            if (status != 200) {
-                String body = EntityUtils.toString(response.getEntity());
-                LoggerUtil.error("[SkalholtEventStream] Error response body: " + body);
-                throw new IOException("EventStream returned status " + status + ": " + body);
-            }
+    private void scheduleReconnect(Throwable cause) {
+        connected.set(false);
+        if (!shouldReconnect.get() || reconnectTask != null) {
+            return;
+        }
+        long delayMs = backoff.nextDelayMs();
+        LoggerUtil.warn("[SkalholtEventStream] Connection error: " + cause.getClass().getSimpleName() + " - " +
+                cause.getMessage() + " (retry " + backoff.getAttempts() + " in " + delayMs + "ms)");
+        notifyError(cause);
+        reconnectTask = eventLoop.schedule(this::doConnect, delayMs, TimeUnit.MILLISECONDS);
+    }
 
-            connected.set(true);
-            LoggerUtil.info("[SkalholtEventStream] SSE connection established for player: " + authToken.getUsername());
+    /**
+     * Reads the streamed response, splitting it into lines for the SSE parser.
+     */
+    private final class EventStreamHandler extends SimpleChannelInboundHandler<HttpObject> {
+        private final SseEventParser parser = new SseEventParser((event, data) -> processEventData(data));
+        private ByteBuf lineBuffer;
+        private ByteBuf errorBody;
+        private int status;
+        private Throwable failure;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            lineBuffer = ctx.alloc().buffer(256);
+        }
 
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8))) {
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) {
+            lineBuffer.release();
+            if (errorBody != null) {
+                errorBody.release();
+                errorBody = null;
+            }
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+            if (msg instanceof HttpResponse response) {
+                status = response.status().code();
+                LoggerUtil.info("[SkalholtEventStream] Got HTTP response: " + status);
+                if (status == 200) {
+                    connected.set(true);
+                    backoff.reset();
+                    LoggerUtil.info("[SkalholtEventStream] SSE connection established for player: " +
+                            authToken.getUsername());
+                } else {
+                    errorBody = ctx.alloc().buffer(256);
+                }
+            }
 
-                String line;
-                StringBuilder eventData = new StringBuilder();
-                int lineCount = 0;
+            if (msg instanceof HttpContent content) {
+                ByteBuf data = content.content();
+                if (status == 200) {
+                    feedLines(data);
+                } else if (errorBody != null) {
+                    int room = MAX_ERROR_BODY_BYTES - errorBody.readableBytes();
+                    if (room > 0) {
+                        errorBody.writeBytes(data, data.readerIndex(), Math.min(room, data.readableBytes()));
+                    }
+                }
 
-                while ((line = reader.readLine()) != null && shouldReconnect.get()) {
-                    lineCount++;
-                    // Log first few lines to see what we're receiving
-                    if (lineCount <= 10) {
-                        LoggerUtil.info("[SkalholtEventStream] Received line " + lineCount + ": " +
-                            (line.length() > 80 ? line.substring(0, 80) + "..." : line));
+                if (msg instanceof LastHttpContent) {
+                    if (status == 200) {
+                        parser.finish();
+                        failure = new IOException("EventStream ended by server");
+                    } else {
+                        String body = errorBody != null ? errorBody.toString(StandardCharsets.UTF_8) : "";
+                        LoggerUtil.error("[SkalholtEventStream] Error response body: " + body);
+                        failure = new IOException("EventStream returned status " + status + ": " + body);
                     }
+                    ctx.close();
+                }
+            }
+        }
 
-                    if (line.isEmpty()) {
-                        // Empty line marks end of event
-                        if (eventData.length() > 0) {
-                            LoggerUtil.info("[SkalholtEventStream] Processing complete event, size=" + eventData.length());
-                            processEventData(eventData.toString());
-                            eventData.setLength(0);
-                        }
-                    } else if (line.startsWith(SSE_DATA_PREFIX)) {
-                        // SSE data line
-                        String data = line.substring(SSE_DATA_PREFIX.length()).trim();
-                        if (eventData.length() > 0) {
-                            eventData.append("\n");
-                        }
-                        eventData.append(data);
+        /**
+         * Hands complete lines to the parser. Splitting on the '\n' byte keeps
+         * multi-byte UTF-8 characters intact across network chunks.
+         */
+        private void feedLines(ByteBuf data) {
+            while (data.isReadable()) {
+                int newline = data.indexOf(data.readerIndex(), data.writerIndex(), (byte) '\n');
+                if (newline < 0) {
+                    if (lineBuffer.readableBytes() + data.readableBytes() > MAX_LINE_BYTES) {
+                        LoggerUtil.warn("[SkalholtEventStream] Dropping oversized event line");
+                        lineBuffer.clear();
+                        data.skipBytes(data.readableBytes());
+                        return;
                     }
-                    // Ignore other SSE fields (event:, id:, retry:) for now
+                    lineBuffer.writeBytes(data);
+                    return;
                 }
+                lineBuffer.writeBytes(data, newline + 1 - data.readerIndex());
+                parser.feed(lineBuffer.toString(StandardCharsets.UTF_8));
+                lineBuffer.clear();
+            }
+        }
 
-                LoggerUtil.info("[SkalholtEventStream] Read loop ended after " + lineCount + " lines");
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            boolean wasConnected = connected.getAndSet(false);
+            if (wasConnected) {
+                LoggerUtil.info("[SkalholtEventStream] Stream closed for " + authToken.getUsername());
             }
+            scheduleReconnect(failure != null ? failure : new IOException("EventStream connection closed"));
+            super.channelInactive(ctx);
+        }
 
-            return null;
-        });
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            failure = cause;
+            ctx.close();
+        }
     }
 
     /**
@@ -223,12 +325,13 @@ public class SkalholtEventStreamClient implements AutoCloseable {
         }
 
         try {
-            SkalholtSseEvent event = SkalholtSseEvent.fromJson(data);
-            LoggerUtil.debug("[SkalholtEventStream] Received event: " + event.getSkalholtEventType() + " for " + event.getPlayerId());
+            SkalholtSseEvent event = SkalholtSseEvent.fromJson(data.trim());
+            LoggerUtil.debug(() -> "[SkalholtEventStream] Received event: " + event.getSkalholtEventType() +
+                    " for " + event.getPlayerId());
             eventCallback.accept(event);
         } catch (Exception e) {
             LoggerUtil.warn("[SkalholtEventStream] Failed to parse event: " + e.getMessage());
-            LoggerUtil.debug("[SkalholtEventStream] Raw data: " + data);
+            LoggerUtil.debug(() -> "[SkalholtEventStream] Raw data: " + data);
             notifyError(e);
         }
     }
@@ -256,34 +359,27 @@ public class SkalholtEventStreamClient implements AutoCloseable {
     }
 
     /**
-     * Disconnects from the EventStream.
+     * Disconnects from the EventStream and cancels any pending reconnect. Does not block.
      */
     public void disconnect() {
         shouldReconnect.set(false);
         connected.set(false);
 
-        if (readerThread != null && readerThread.isAlive()) {
-            readerThread.interrupt();
-            try {
-                readerThread.join(2000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-
-        closeHttpClient();
-        LoggerUtil.info("[SkalholtEventStream] Disconnected");
-    }
-
-    /**
-     * Closes the HTTP client.
-     */
-    private void closeHttpClient() {
         try {
-            httpClient.close();
-        } catch (IOException e) {
-            LoggerUtil.warn("[SkalholtEventStream] Error closing HTTP client: " + e.getMessage());
+            eventLoop.execute(() -> {
+                if (reconnectTask != null) {
+                    reconnectTask.cancel(false);
+                    reconnectTask = null;
+                }
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Event loop already shut down with the server; its channels are closed
         }
+        LoggerUtil.info("[SkalholtEventStream] Disconnected");
     }
 
     @Override
@@ -6,6 +6,7 @@ package com.dialtone.skalholt;
 
 import com.skalholt.events.SkalholtEventType;
 import com.dialtone.utils.LoggerUtil;
+import io.netty.channel.EventLoopGroup;
 
 import java.util.function.Consumer;
 
@@ -21,6 +22,7 @@ import java.util.function.Consumer;
  */
 public class SkalholtSessionManager {
 
+    private final EventLoopGroup eventLoopGroup;
     private final String host;
     private final int port;
     private final int timeoutMs;
@@ -33,12 +35,15 @@ public class SkalholtSessionManager {
     /**
      * Creates a new SkalholtSessionManager with configuration.
      *
+     * @param eventLoopGroup event loop(s) the EventStream runs on (normally the client channel's event loop)
      * @param host Skalholt API host
      * @param port Skalholt API port
      * @param timeoutMs connection timeout
      * @param enabled whether Skalholt integration is enabled
      */
-    public SkalholtSessionManager(String host, int port, int timeoutMs, boolean enabled) {
+    public SkalholtSessionManager(EventLoopGroup eventLoopGroup, String host, int port, int timeoutMs,
+                                  boolean enabled) {
+        this.eventLoopGroup = eventLoopGroup;
         this.host = host;
         this.port = port;
         this.timeoutMs = timeoutMs;
@@ -51,7 +56,7 @@ public class SkalholtSessionManager {
      * @return a manager that ignores all operations
      */
     public static SkalholtSessionManager disabled() {
-        return new SkalholtSessionManager("", 0, 0, false);
+        return new SkalholtSessionManager(null, "", 0, 0, false);
     }
 
     /**
@@ -131,6 +136,7 @@ public class SkalholtSessionManager {
         LoggerUtil.info("[SkalholtSession] Starting EventStream for " + authToken.getUsername());
 
         eventStreamClient = new SkalholtEventStreamClient(
+                eventLoopGroup,
                 host,
                 port,
                 authToken,
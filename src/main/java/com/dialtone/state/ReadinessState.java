@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.state;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide startup phase, served by the web readiness endpoint.
+ *
+ * <p>The application reports {@link Phase#READY} only once both servers are listening
+ * and warm-up has compiled the cached forms, so a rolling restart can hold traffic back
+ * until the new instance is as fast as the old one. Shutdown moves it to
+ * {@link Phase#STOPPING} so load balancers drain the instance first.</p>
+ */
+public final class ReadinessState {
+
+    public enum Phase {
+        STARTING,
+        WARMING_UP,
+        READY,
+        STOPPING,
+        FAILED
+    }
+
+    private static final ReadinessState INSTANCE = new ReadinessState();
+
+    private final long startedAtMillis = System.currentTimeMillis();
+    private volatile Phase phase = Phase.STARTING;
+    private volatile String detail = "";
+    private volatile long readyAtMillis;
+
+    private ReadinessState() {
+    }
+
+    public static ReadinessState getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Move to a new phase.
+     *
+     * @param newPhase phase to enter
+     * @param newDetail short explanation shown by the endpoint (may be empty)
+     */
+    public synchronized void setPhase(Phase newPhase, String newDetail) {
+        if (phase == newPhase && detail.equals(newDetail)) {
+            return;
+        }
+        if (newPhase == Phase.READY) {
+            readyAtMillis = System.currentTimeMillis();
+        }
+        phase = newPhase;
+        detail = newDetail != null ? newDetail : "";
+        LoggerUtil.info("[Readiness] " + newPhase + (detail.isEmpty() ? "" : ": " + detail));
+    }
+
+    /**
+     * @return true once the instance should receive traffic
+     */
+    public boolean isReady() {
+        return phase == Phase.READY;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return phase, detail and startup timing for the readiness endpoint
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        Phase current = phase;
+        status.put("status", current.name());
+        status.put("ready", current == Phase.READY);
+        status.put("detail", detail);
+        status.put("startedAt", startedAtMillis);
+        if (readyAtMillis > 0) {
+            status.put("readyAfterMs", readyAtMillis - startedAtMillis);
+        }
+        return status;
+    }
+}
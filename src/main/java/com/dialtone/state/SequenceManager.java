@@ -7,10 +7,9 @@ package com.dialtone.state;
 import com.dialtone.aol.core.FrameCodec;
 import com.dialtone.aol.core.ProtocolConstants;
 import com.dialtone.utils.LoggerUtil;
+import io.netty.util.Timeout;
 
 import java.util.Arrays;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Manages sequence numbers and packet restamping for AOL3 protocol.
@@ -53,10 +52,26 @@ public class SequenceManager {
 	private int lastAckedByClientRx = -1;
 
 	// ======== Stall detection (window full for too long) ========
-	private static final long STALL_TIMEOUT_MS = 5000L; // 5 seconds
-	private long stallStartTime = 0L;
-	private ScheduledFuture<?> stallCheckTask;
-	private java.util.concurrent.ScheduledExecutorService stallExecutor;
+	// Deadlines live on the shared StallMonitor wheel; state below is guarded by this
+	private volatile long stallStartTime = 0L;
+	private boolean stallReported = false;
+	private int stallChecks = 0;
+	private Timeout stallTimeout;
+	private volatile StallHandler stallHandler;
+
+	/**
+	 * Notified each time a stall check finds the window still full.
+	 */
+	@FunctionalInterface
+	public interface StallHandler {
+		/**
+		 * Runs on the stall wheel thread; implementations should hand off to the channel's event loop.
+		 *
+		 * @param stalledMs how long the window has been full
+		 * @param checks number of stall checks so far in this stall (1 on the first report)
+		 */
+		void onStall(long stalledMs, int checks);
+	}
 
 	// ======== Public API ========
 
@@ -179,13 +194,10 @@ public class SequenceManager {
 		int ackd = lastAckedServerTx & 0xFF;
 
 		// PRIMARY: Use traditional wrapped calculation (test-compatible)
-		int ring = 0x70;
 		if (seqAhead(ackd, sent)) {
 			return 0;  // ACK ahead of sent (startup edge case)
 		}
-		int dist = (sent - ackd);
-		if (dist < 0) dist += ring;
-		int outstanding = dist;
+		int outstanding = outstandingDistance(sent, ackd);
 
 		// TELEMETRY: Track with linearized counters for monitoring
 		int linearizedOutstanding = txLinearized.get() - rxLinearized.get();
@@ -226,16 +238,12 @@ public class SequenceManager {
 
 		if (windowFull) {
 			// Start stall timer if not already running
-			if (stallStartTime == 0L) {
-				stallStartTime = System.currentTimeMillis();
-				startStallCheck();
+			if (stallStartTime == 0L && startStallCheck()) {
 				LoggerUtil.debug(String.format("[STALL] Window full at %d/%d, starting stall timer", outstanding, maxWindow));
 			}
 		} else {
 			// Reset stall timer when window opens
-			if (stallStartTime != 0L) {
-				stallStartTime = 0L;
-				cancelStallCheck();
+			if (stallStartTime != 0L && cancelStallCheck()) {
 				LoggerUtil.debug(String.format("[STALL] Window opened at %d/%d, stall timer reset", outstanding, maxWindow));
 			}
 		}
@@ -273,7 +281,15 @@ public class SequenceManager {
 	 */
 	public void cleanupStallDetection() {
 		cancelStallCheck();
-		stallStartTime = 0L;
+	}
+
+	/**
+	 * Sets the callback for stall recovery (heartbeat, disconnect, ...).
+	 *
+	 * @param handler stall callback, or null for logging only
+	 */
+	public void setStallHandler(StallHandler handler) {
+		this.stallHandler = handler;
 	}
 
 	// ======== Restamping ========
@@ -504,6 +520,18 @@ public class SequenceManager {
 		return diff > 0 && diff < (ring / 2);
 	}
 
+	/**
+	 * Wrapped distance from the last acknowledged TX to the last sent DATA TX.
+	 */
+	private static int outstandingDistance(int sent, int ackd) {
+		if (seqAhead(ackd, sent)) {
+			return 0;
+		}
+		int dist = sent - ackd;
+		if (dist < 0) dist += 0x70;
+		return dist;
+	}
+
 	// Accept short 9B too
 	private static boolean isFiveA(byte[] b) {
 		return b != null && b.length >= 1 && b[0] == (byte) 0x5A;
@@ -525,56 +553,78 @@ public class SequenceManager {
 
 	/**
 	 * Starts stall detection timer when window becomes full.
+	 *
+	 * @return true if a new stall timer was armed
 	 */
-	private void startStallCheck() {
-		if (stallCheckTask != null && !stallCheckTask.isDone()) {
-			return; // Already running
-		}
-		if (stallExecutor == null || stallExecutor.isShutdown()) {
-			stallExecutor = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(r -> {
-				Thread t = new Thread(r, "seq-stall-check");
-				t.setDaemon(true);
-				return t;
-			});
+	private synchronized boolean startStallCheck() {
+		if (stallStartTime != 0L) {
+			return false; // Already running
 		}
-		stallCheckTask = stallExecutor.scheduleAtFixedRate(
-				this::checkStallTimeout, STALL_TIMEOUT_MS, STALL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		long startedAt = System.currentTimeMillis();
+		stallStartTime = startedAt;
+		stallChecks = 0;
+		stallTimeout = StallMonitor.getInstance().schedule(timeout -> checkStallTimeout(startedAt));
+		return true;
 	}
 
 	/**
-	 * Cancels the stall detection timer and shuts down executor.
+	 * Cancels the stall detection timer and records the stall's duration if it was reported.
+	 *
+	 * @return true if a stall timer was running
 	 */
-	private void cancelStallCheck() {
-		if (stallCheckTask != null) {
-			stallCheckTask.cancel(false);
-			stallCheckTask = null;
+	private synchronized boolean cancelStallCheck() {
+		long startedAt = stallStartTime;
+		if (startedAt == 0L) {
+			return false;
+		}
+		if (stallTimeout != null) {
+			stallTimeout.cancel();
+			stallTimeout = null;
 		}
-		if (stallExecutor != null && !stallExecutor.isShutdown()) {
-			stallExecutor.shutdownNow();
-			stallExecutor = null;
+		if (stallReported) {
+			stallReported = false;
+			StallMonitor.getInstance().onStallCleared(System.currentTimeMillis() - startedAt);
 		}
+		stallStartTime = 0L;
+		return true;
 	}
 
 	/**
-	 * Checks if stall timeout has been exceeded and logs stall message.
+	 * Checks if stall timeout has been exceeded, logs the stall and re-arms the check.
+	 *
+	 * @param startedAt start of the stall this check was armed for
 	 */
-	private void checkStallTimeout() {
-		if (stallStartTime == 0L) {
-			cancelStallCheck();
-			return;
+	private void checkStallTimeout(long startedAt) {
+		StallMonitor monitor = StallMonitor.getInstance();
+		long stalledMs;
+		int checks;
+		synchronized (this) {
+			// The window reopened (and may have filled again) since this check was armed
+			if (stallStartTime != startedAt) {
+				return;
+			}
+			stalledMs = System.currentTimeMillis() - startedAt;
+			checks = ++stallChecks;
+			if (!stallReported) {
+				stallReported = true;
+				monitor.onStallDetected();
+			}
+			stallTimeout = monitor.schedule(timeout -> checkStallTimeout(startedAt));
 		}
 
-		long stalledMs = System.currentTimeMillis() - stallStartTime;
-		if (stalledMs >= STALL_TIMEOUT_MS) {
-			int outstanding = getOutstandingWindowFill();
-			int nextTx = serverTx & 0xFF;
-			int lastAcked = lastAckedServerTx & 0xFF;
-			int lastData = lastDataTx & 0xFF;
-			int lastClientRx = lastClientTxSeq & 0xFF;
+		int outstanding = outstandingDistance(lastDataTx & 0xFF, lastAckedServerTx & 0xFF);
+		int nextTx = serverTx & 0xFF;
+		int lastAcked = lastAckedServerTx & 0xFF;
+		int lastData = lastDataTx & 0xFF;
+		int lastClientRx = lastClientTxSeq & 0xFF;
+
+		LoggerUtil.warn(String.format(
+				"[STALL] TX stalled waiting for ACK: outstanding=%d/%d nextTx=0x%02X lastAcked=0x%02X lastDataTx=0x%02X lastClientRx=0x%02X stalled=%dms",
+				outstanding, 0x10, nextTx, lastAcked, lastData, lastClientRx, stalledMs));
 
-			LoggerUtil.warn(String.format(
-					"[STALL] TX stalled waiting for ACK: outstanding=%d/%d nextTx=0x%02X lastAcked=0x%02X lastDataTx=0x%02X lastClientRx=0x%02X stalled=%dms",
-					outstanding, 0x10, nextTx, lastAcked, lastData, lastClientRx, stalledMs));
+		StallHandler handler = stallHandler;
+		if (handler != null) {
+			handler.onStall(stalledMs, checks);
 		}
 	}
-}
\ No newline at end of file
+}
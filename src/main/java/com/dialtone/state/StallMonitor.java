@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.state;
+
+import com.dialtone.utils.LoggerUtil;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-wide stall watchdog for the P3 send window.
+ *
+ * <p>Every {@link SequenceManager} whose 16-frame window fills registers a deadline on one
+ * shared hashed timer wheel; reopening the window cancels it. Arming and cancelling are
+ * constant-time and no thread is created per session or per stall, so bulk DOD/XFER
+ * traffic that fills the window at ACK frequency costs only a wheel entry each time.</p>
+ *
+ * <p>Also keeps the stall counters shown on the admin dashboard and the recovery settings
+ * the connection handler applies when a stall is reported.</p>
+ */
+public final class StallMonitor {
+
+    public static final long DEFAULT_TIMEOUT_MS = 5000L;
+
+    // Stall timeouts are seconds long; 100ms ticks are plenty
+    private static final long TICK_MS = 100L;
+    private static final int WHEEL_SIZE = 512;
+
+    private static final StallMonitor INSTANCE = new StallMonitor();
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(
+            new DefaultThreadFactory("seq-stall-wheel", true), TICK_MS, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+
+    private volatile long timeoutMs = DEFAULT_TIMEOUT_MS;
+    private volatile boolean heartbeatRecovery = true;
+    private volatile long disconnectAfterMs = 0L;
+
+    private final AtomicLong stallsDetected = new AtomicLong();
+    private final AtomicLong stallsCleared = new AtomicLong();
+    private final AtomicInteger activeStalls = new AtomicInteger();
+    private final AtomicLong totalStallMs = new AtomicLong();
+    private final AtomicLong longestStallMs = new AtomicLong();
+    private final AtomicLong recoveryHeartbeats = new AtomicLong();
+    private final AtomicLong stallDisconnects = new AtomicLong();
+
+    private StallMonitor() {
+    }
+
+    public static StallMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Apply {@code stall.timeout.ms}, {@code stall.recovery.heartbeat} and
+     * {@code stall.disconnect.after.ms}.
+     *
+     * @param properties application properties
+     */
+    public void configure(Properties properties) {
+        String timeout = properties.getProperty("stall.timeout.ms");
+        if (timeout != null) {
+            try {
+                timeoutMs = Math.max(TICK_MS, Long.parseLong(timeout.trim()));
+            } catch (NumberFormatException e) {
+                LoggerUtil.warn("Invalid stall.timeout.ms value: " + timeout + ", using default: " + DEFAULT_TIMEOUT_MS);
+            }
+        }
+        heartbeatRecovery = Boolean.parseBoolean(properties.getProperty("stall.recovery.heartbeat", "true"));
+        String disconnect = properties.getProperty("stall.disconnect.after.ms");
+        if (disconnect != null) {
+            try {
+                disconnectAfterMs = Math.max(0L, Long.parseLong(disconnect.trim()));
+            } catch (NumberFormatException e) {
+                LoggerUtil.warn("Invalid stall.disconnect.after.ms value: " + disconnect + ", stalled connections are kept");
+            }
+        }
+    }
+
+    /**
+     * Arm a stall check one timeout from now.
+     *
+     * @param task runs on the wheel thread when the timeout expires
+     * @return handle to cancel the check
+     */
+    Timeout schedule(TimerTask task) {
+        return timer.newTimeout(task, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return how long the window must stay full before it counts as a stall
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * @return true if a heartbeat should be sent each time a stall is reported
+     */
+    public boolean isHeartbeatRecovery() {
+        return heartbeatRecovery;
+    }
+
+    /**
+     * @return stall duration after which the connection is closed, or 0 to never close
+     */
+    public long getDisconnectAfterMs() {
+        return disconnectAfterMs;
+    }
+
+    void onStallDetected() {
+        stallsDetected.incrementAndGet();
+        activeStalls.incrementAndGet();
+    }
+
+    void onStallCleared(long durationMs) {
+        stallsCleared.incrementAndGet();
+        activeStalls.decrementAndGet();
+        totalStallMs.addAndGet(durationMs);
+        longestStallMs.accumulateAndGet(durationMs, Math::max);
+    }
+
+    public void onRecoveryHeartbeat() {
+        recoveryHeartbeats.incrementAndGet();
+    }
+
+    public void onStallDisconnect() {
+        stallDisconnects.incrementAndGet();
+    }
+
+    /**
+     * @return stall counters for the admin dashboard
+     */
+    public Map<String, Object> getMetrics() {
+        long cleared = stallsCleared.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("timeoutMs", timeoutMs);
+        metrics.put("stallsDetected", stallsDetected.get());
+        metrics.put("activeStalls", activeStalls.get());
+        metrics.put("averageStallMs", cleared > 0 ? totalStallMs.get() / cleared : 0L);
+        metrics.put("longestStallMs", longestStallMs.get());
+        metrics.put("pendingChecks", timer.pendingTimeouts());
+        metrics.put("recoveryHeartbeats", recoveryHeartbeats.get());
+        metrics.put("stallDisconnects", stallDisconnects.get());
+        return metrics;
+    }
+}
@@ -21,7 +21,7 @@ import java.util.Optional;
  *
  * <p>Implementations:
  * <ul>
- *   <li>{@link com.dialtone.storage.impl.LocalFileSystemStorage} - filesystem with metadata sidecar files</li>
+ *   <li>{@link com.dialtone.storage.impl.LocalFileSystemStorage} - filesystem with a metadata index per directory</li>
  *   <li>{@link com.dialtone.storage.impl.ClasspathStorage} - read-only classpath resources</li>
  * </ul>
  */
@@ -20,6 +20,7 @@ import java.util.Properties;
  *   <li>storage.type - "local" (default) or "classpath"</li>
  *   <li>storage.local.base.dir - base directory for local storage (default: "storage")</li>
  *   <li>storage.local.max.file.size.mb - max file size in MB (default: 100)</li>
+ *   <li>storage.local.ledger.reconcile.minutes - usage ledger repair interval (default: 60, 0 disables)</li>
  * </ul>
  */
 public class StorageFactory {
@@ -59,12 +60,15 @@ public class StorageFactory {
     public static LocalFileSystemStorage createLocalStorage(Properties config) {
         String baseDir = config.getProperty("storage.local.base.dir", DEFAULT_BASE_DIR);
         long maxSizeMb = parseLong(config, "storage.local.max.file.size.mb", DEFAULT_MAX_FILE_SIZE_MB);
+        long reconcileMinutes = parseLong(config, "storage.local.ledger.reconcile.minutes",
+            LocalFileSystemStorage.DEFAULT_LEDGER_RECONCILE_MINUTES);
 
         LoggerUtil.info("[StorageFactory] Creating LocalFileSystemStorage at: " + baseDir);
 
         return new LocalFileSystemStorage(
             Paths.get(baseDir),
-            maxSizeMb * 1024 * 1024
+            maxSizeMb * 1024 * 1024,
+            reconcileMinutes
         );
     }
 
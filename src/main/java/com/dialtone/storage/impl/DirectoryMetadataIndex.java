@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.storage.impl;
+
+import com.dialtone.utils.LoggerUtil;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metadata for every file in one storage directory, kept in a single manifest
+ * ({@code .meta-index.json}) instead of one sidecar per file.
+ *
+ * <p>The parsed manifest is cached in memory and shared by all storage instances in the
+ * process. Each access stats the manifest and reloads it only when its modification
+ * time or size changed, so listing a directory costs one stat plus the directory read.
+ *
+ * <p>Changes update the in-memory entries first and are then written by one saver at a
+ * time. Changes that arrive while a save is running are written together by the next
+ * one, so a burst of uploads to one directory costs a couple of manifest writes rather
+ * than one per file. Each change still returns only once a manifest containing it is
+ * on disk.
+ *
+ * <p>Legacy {@code .meta.json} sidecars are migrated into the manifest by
+ * {@link LocalFileSystemStorage} the first time a file's metadata is looked up.
+ *
+ * <p>Thread Safety: instances are shared per directory; entries are guarded by the
+ * instance lock, manifest writes by a separate save lock.
+ */
+final class DirectoryMetadataIndex {
+
+    static final String INDEX_FILENAME = ".meta-index.json";
+    private static final int INDEX_VERSION = 1;
+
+    private static final Map<Path, DirectoryMetadataIndex> INDEXES = new ConcurrentHashMap<>();
+    private static final Gson GSON = new GsonBuilder().create();
+
+    private final Path indexFile;
+    private final Object saveLock = new Object();
+    private Map<String, Entry> entries = new HashMap<>();
+    private FileTime loadedModifiedTime;
+    private long loadedSize = -1;
+    // Changes made in memory, and how many of them the manifest on disk holds
+    private long changeSeq;
+    private long savedSeq;
+
+    private DirectoryMetadataIndex(Path dir) {
+        this.indexFile = dir.resolve(INDEX_FILENAME);
+    }
+
+    /**
+     * Get the shared index for a directory.
+     */
+    static DirectoryMetadataIndex forDirectory(Path dir) {
+        return INDEXES.computeIfAbsent(dir.toAbsolutePath().normalize(), DirectoryMetadataIndex::new);
+    }
+
+    /**
+     * @return the entry for a file, or null if the manifest has none
+     */
+    synchronized Entry get(String filename) {
+        refreshIfChanged();
+        return entries.get(filename);
+    }
+
+    /**
+     * @return a copy of all entries, keyed by filename
+     */
+    synchronized Map<String, Entry> snapshot() {
+        refreshIfChanged();
+        return new HashMap<>(entries);
+    }
+
+    /**
+     * Add or replace one entry and save the manifest.
+     */
+    void put(String filename, Entry entry) {
+        long seq;
+        synchronized (this) {
+            refreshIfChanged();
+            entries.put(filename, entry);
+            seq = ++changeSeq;
+        }
+        saveThrough(seq);
+    }
+
+    /**
+     * Drop one entry, saving the manifest if it existed.
+     */
+    void remove(String filename) {
+        long seq;
+        synchronized (this) {
+            refreshIfChanged();
+            if (entries.remove(filename) == null) {
+                return;
+            }
+            seq = ++changeSeq;
+        }
+        saveThrough(seq);
+    }
+
+    /**
+     * Prune every index loaded in this process for a directory under {@code baseDir}.
+     * Run by the background reconcile pass, never on the request path.
+     */
+    static void pruneAllUnder(Path baseDir) {
+        Path base = baseDir.toAbsolutePath().normalize();
+        INDEXES.forEach((dir, index) -> {
+            if (dir.startsWith(base)) {
+                index.prune();
+            }
+        });
+    }
+
+    /**
+     * Drop the entries of files that no longer exist, such as files removed outside the
+     * API, with a single manifest write.
+     *
+     * <p>Files are checked without holding the lock, so readers are not held up. Only the
+     * missing ones are checked again under the lock that {@link #put} takes, and entries are
+     * only put once their file is written, so an entry recorded concurrently is never dropped.
+     */
+    void prune() {
+        Path dir = indexFile.getParent();
+        List<String> names;
+        synchronized (this) {
+            refreshIfChanged();
+            names = new ArrayList<>(entries.keySet());
+        }
+        names.removeIf(name -> Files.exists(dir.resolve(name)));
+        if (names.isEmpty()) {
+            return;
+        }
+
+        long seq;
+        synchronized (this) {
+            refreshIfChanged();
+            boolean removed = false;
+            for (String name : names) {
+                if (entries.containsKey(name) && !Files.exists(dir.resolve(name))) {
+                    entries.remove(name);
+                    removed = true;
+                }
+            }
+            if (!removed) {
+                return;
+            }
+            seq = ++changeSeq;
+        }
+        saveThrough(seq);
+    }
+
+    private void refreshIfChanged() {
+        if (changeSeq != savedSeq) {
+            // Unsaved changes are newer than anything on disk; the next save writes them
+            return;
+        }
+
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(indexFile, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            if (loadedSize != -1) {
+                entries = new HashMap<>();
+                loadedModifiedTime = null;
+                loadedSize = -1;
+            }
+            return;
+        } catch (IOException e) {
+            LoggerUtil.debug("[DirectoryMetadataIndex] Cannot stat " + indexFile + ": " + e.getMessage());
+            return;
+        }
+
+        if (attrs.size() == loadedSize && attrs.lastModifiedTime().equals(loadedModifiedTime)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            IndexJson json = GSON.fromJson(reader, IndexJson.class);
+            entries = json != null && json.files != null ? new HashMap<>(json.files) : new HashMap<>();
+        } catch (Exception e) {
+            LoggerUtil.warn("[DirectoryMetadataIndex] Failed to read " + indexFile + ", starting empty: " +
+                    e.getMessage());
+            entries = new HashMap<>();
+        }
+        loadedModifiedTime = attrs.lastModifiedTime();
+        loadedSize = attrs.size();
+    }
+
+    /**
+     * Wait until the manifest on disk includes change {@code seq}, writing it if no other
+     * saver already has. One write covers every change made before it started.
+     */
+    private void saveThrough(long seq) {
+        synchronized (saveLock) {
+            IndexJson json = new IndexJson();
+            long saving;
+            synchronized (this) {
+                if (savedSeq >= seq) {
+                    return;
+                }
+                json.version = INDEX_VERSION;
+                json.files = new HashMap<>(entries);
+                saving = changeSeq;
+            }
+
+            Path tempFile = indexFile.resolveSibling(INDEX_FILENAME + ".tmp");
+            try {
+                try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                    GSON.toJson(json, writer);
+                }
+                // Write to temp file then rename (atomic operation)
+                Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                BasicFileAttributes attrs = Files.readAttributes(indexFile, BasicFileAttributes.class);
+                synchronized (this) {
+                    loadedModifiedTime = attrs.lastModifiedTime();
+                    loadedSize = attrs.size();
+                    savedSeq = saving;
+                }
+            } catch (IOException e) {
+                LoggerUtil.warn("[DirectoryMetadataIndex] Failed to save " + indexFile + ": " + e.getMessage());
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    // ==================== JSON Model ====================
+
+    /**
+     * Stored metadata for one file (same fields as the legacy sidecar).
+     */
+    static class Entry {
+        String filename;
+        Long sizeBytes;
+        String createdAt;
+        String modifiedAt;
+        String contentType;
+        Map<String, String> custom;
+    }
+
+    private static class IndexJson {
+        int version;
+        Map<String, Entry> files;
+    }
+}
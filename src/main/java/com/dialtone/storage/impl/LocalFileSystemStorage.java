@@ -16,8 +16,6 @@ import java.io.*;
 import java.nio.file.*;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -29,39 +27,52 @@ import java.util.stream.Stream;
  *   user/                          # USER scope
  *     {screenname1}/
  *       file1.txt
- *       file1.txt.meta.json        # Sidecar metadata
+ *       .meta-index.json           # Metadata for every file in the directory
  *     {screenname2}/
  *       ...
  *   global/                        # GLOBAL scope
  *     fetch-403.hqx
- *     fetch-403.hqx.meta.json
+ *     .meta-index.json
+ *   .usage-ledger                  # Per-directory byte totals ({@link StorageUsageLedger})
  * </pre>
  *
- * <p>Thread Safety: All public methods are thread-safe via path-level locking.
+ * <p>Older deployments stored one {@code {file}.meta.json} sidecar per file. Those are
+ * read when listing and moved into the directory's {@link DirectoryMetadataIndex} the
+ * first time the file's metadata is looked up.
+ *
+ * <p>Thread Safety: All public methods are thread-safe; metadata updates are serialized
+ * per directory by the shared index.
  */
 public class LocalFileSystemStorage implements FileStorage {
 
     private static final String USER_SUBDIR = "user";
     private static final String GLOBAL_SUBDIR = "global";
     private static final String META_SUFFIX = ".meta.json";
+    public static final long DEFAULT_LEDGER_RECONCILE_MINUTES = 60;
 
     private final Path baseDir;
     private final long maxFileSizeBytes;
     private final Gson gson;
-
-    // Path-level locks for thread safety
-    private final ConcurrentHashMap<String, Object> pathLocks = new ConcurrentHashMap<>();
+    private final StorageUsageLedger usageLedger;
 
     public LocalFileSystemStorage(Path baseDir) {
         this(baseDir, 100L * 1024 * 1024); // 100 MB default
     }
 
     public LocalFileSystemStorage(Path baseDir, long maxFileSizeBytes) {
+        this(baseDir, maxFileSizeBytes, DEFAULT_LEDGER_RECONCILE_MINUTES);
+    }
+
+    /**
+     * @param baseDir storage root
+     * @param maxFileSizeBytes maximum size of a single file
+     * @param ledgerReconcileMinutes how often the usage ledger re-measures directories (0 disables)
+     */
+    public LocalFileSystemStorage(Path baseDir, long maxFileSizeBytes, long ledgerReconcileMinutes) {
         this.baseDir = baseDir;
         this.maxFileSizeBytes = maxFileSizeBytes;
-        this.gson = new GsonBuilder()
-            .setPrettyPrinting()
-            .create();
+        this.gson = new GsonBuilder().create();
+        this.usageLedger = StorageUsageLedger.forBaseDir(baseDir, ledgerReconcileMinutes);
     }
 
     @Override
@@ -124,16 +135,37 @@ public class LocalFileSystemStorage implements FileStorage {
             return Collections.emptyList();
         }
 
+        // One directory read plus one (cached) manifest; no per-file JSON parsing
+        List<Path> files = new ArrayList<>();
+        Set<String> sidecars = new HashSet<>();
         try (Stream<Path> paths = Files.list(dir)) {
-            return paths
-                .filter(Files::isRegularFile)
-                .filter(p -> !p.getFileName().toString().endsWith(META_SUFFIX))
-                .map(this::loadMetadata)
-                .collect(Collectors.toList());
+            paths.forEach(p -> {
+                String name = p.getFileName().toString();
+                if (name.endsWith(META_SUFFIX)) {
+                    sidecars.add(name);
+                } else if (!name.startsWith(".") && Files.isRegularFile(p)) {
+                    files.add(p);
+                }
+            });
         } catch (IOException e) {
             LoggerUtil.warn("[LocalFileSystemStorage] Failed to list files: " + e.getMessage());
             return Collections.emptyList();
         }
+
+        // Read-only: a listing may already be stale by the time it is compared with the
+        // index, so pruning happens in the reconcile pass and sidecar migration on lookup
+        Map<String, DirectoryMetadataIndex.Entry> entries = DirectoryMetadataIndex.forDirectory(dir).snapshot();
+        List<FileMetadata> result = new ArrayList<>(files.size());
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            DirectoryMetadataIndex.Entry entry = entries.get(name);
+            if (entry == null && sidecars.contains(name + META_SUFFIX)) {
+                entry = readSidecar(getMetaPath(file));
+            }
+            result.add(entry != null ? toFileMetadata(file, entry) : filesystemMetadata(file));
+        }
+        return result;
     }
 
     // ==================== Write Operations ====================
@@ -152,14 +184,21 @@ public class LocalFileSystemStorage implements FileStorage {
             filePath = dir.resolve(sanitized);
         }
 
+        // Forget metadata left behind by a file of the same name removed outside the API;
+        // the rest are pruned by the usage ledger's background reconcile pass
+        DirectoryMetadataIndex.forDirectory(dir).remove(sanitized);
+
         LoggerUtil.info(String.format(
             "[LocalFileSystemStorage] Creating file: %s/%s/%s",
             scope.name().toLowerCase(), owner != null ? owner : "", sanitized));
 
+        // Bytes are charged to the usage ledger as they are written
         OutputStream outputStream = new BufferedOutputStream(
-            Files.newOutputStream(filePath,
-                StandardOpenOption.CREATE,
-                StandardOpenOption.TRUNCATE_EXISTING));
+            new LedgerCountingOutputStream(
+                Files.newOutputStream(filePath,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING),
+                dir));
 
         return new WriteHandle(outputStream, sanitized, filePath);
     }
@@ -171,7 +210,7 @@ public class LocalFileSystemStorage implements FileStorage {
             out.write(content);
         }
 
-        // Create metadata sidecar
+        // Record metadata in the directory index
         FileMetadata metadata = new FileMetadata(
             handle.actualFilename(),
             content.length,
@@ -191,10 +230,13 @@ public class LocalFileSystemStorage implements FileStorage {
         Path filePath = resolvePath(scope, owner, filename);
         Path metaPath = getMetaPath(filePath);
 
+        long sizeBytes = Files.isRegularFile(filePath) ? getFileSizeQuietly(filePath) : 0;
         boolean fileDeleted = Files.deleteIfExists(filePath);
-        Files.deleteIfExists(metaPath); // Also delete metadata sidecar
+        Files.deleteIfExists(metaPath); // Also delete legacy metadata sidecar
+        DirectoryMetadataIndex.forDirectory(filePath.getParent()).remove(filePath.getFileName().toString());
 
         if (fileDeleted) {
+            usageLedger.adjust(resolveDirectory(scope, owner), -sizeBytes);
             LoggerUtil.info(String.format(
                 "[LocalFileSystemStorage] Deleted file: %s/%s/%s",
                 scope.name().toLowerCase(), owner != null ? owner : "", filename));
@@ -236,23 +278,24 @@ public class LocalFileSystemStorage implements FileStorage {
 
     // ==================== Storage Management ====================
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Served from the shared {@link StorageUsageLedger}: constant time regardless of
+     * how many files the owner has. The directory is only walked the first time it is seen.
+     */
     @Override
     public long getStorageUsed(Scope scope, String owner) {
-        Path dir = resolveDirectory(scope, owner);
-        if (!Files.exists(dir)) {
-            return 0;
-        }
+        return usageLedger.getUsage(resolveDirectory(scope, owner));
+    }
 
-        try (Stream<Path> paths = Files.walk(dir)) {
-            return paths
-                .filter(Files::isRegularFile)
-                .filter(p -> !p.getFileName().toString().endsWith(META_SUFFIX))
-                .mapToLong(this::getFileSizeQuietly)
-                .sum();
-        } catch (IOException e) {
-            LoggerUtil.warn("[LocalFileSystemStorage] Failed to get storage used: " + e.getMessage());
-            return 0;
-        }
+    /**
+     * Get the usage ledger backing {@link #getStorageUsed}.
+     *
+     * @return the shared ledger for this base directory
+     */
+    public StorageUsageLedger getUsageLedger() {
+        return usageLedger;
     }
 
     /**
@@ -289,58 +332,84 @@ public class LocalFileSystemStorage implements FileStorage {
     // ==================== Metadata Persistence ====================
 
     private FileMetadata loadMetadata(Path filePath) {
-        Path metaPath = getMetaPath(filePath);
         String filename = filePath.getFileName().toString();
+        DirectoryMetadataIndex index = DirectoryMetadataIndex.forDirectory(filePath.getParent());
+
+        DirectoryMetadataIndex.Entry entry = index.get(filename);
+        if (entry != null) {
+            return toFileMetadata(filePath, entry);
+        }
 
-        // Try to load from sidecar file
+        // Migrate a legacy sidecar into the index on first sight
+        Path metaPath = getMetaPath(filePath);
         if (Files.exists(metaPath)) {
-            try {
-                String json = Files.readString(metaPath);
-                MetadataJson meta = gson.fromJson(json, MetadataJson.class);
-                return new FileMetadata(
-                    filename,
-                    meta.sizeBytes != null ? meta.sizeBytes : getFileSizeQuietly(filePath),
-                    meta.createdAt != null ? Instant.parse(meta.createdAt) : getModifiedTimeQuietly(filePath),
-                    meta.modifiedAt != null ? Instant.parse(meta.modifiedAt) : getModifiedTimeQuietly(filePath),
-                    meta.contentType,
-                    meta.custom != null ? meta.custom : Collections.emptyMap(),
-                    filePath
-                );
-            } catch (Exception e) {
-                LoggerUtil.debug("[LocalFileSystemStorage] Failed to load metadata sidecar: " + e.getMessage());
+            entry = readSidecar(metaPath);
+            if (entry != null) {
+                index.put(filename, entry);
+                deleteMigratedSidecars(List.of(metaPath));
+                return toFileMetadata(filePath, entry);
             }
         }
 
         // Fall back to filesystem metadata
+        return filesystemMetadata(filePath);
+    }
+
+    private void saveMetadata(Path filePath, FileMetadata metadata) {
+        DirectoryMetadataIndex.Entry entry = new DirectoryMetadataIndex.Entry();
+        entry.filename = metadata.filename();
+        entry.sizeBytes = metadata.sizeBytes();
+        entry.createdAt = metadata.createdAt() != null ? metadata.createdAt().toString() : null;
+        entry.modifiedAt = metadata.modifiedAt() != null ? metadata.modifiedAt().toString() : null;
+        entry.contentType = metadata.contentType();
+        entry.custom = metadata.customMetadata().isEmpty() ? null : new HashMap<>(metadata.customMetadata());
+
+        DirectoryMetadataIndex.forDirectory(filePath.getParent())
+            .put(filePath.getFileName().toString(), entry);
+    }
+
+    private FileMetadata toFileMetadata(Path filePath, DirectoryMetadataIndex.Entry entry) {
+        try {
+            return new FileMetadata(
+                filePath.getFileName().toString(),
+                entry.sizeBytes != null ? entry.sizeBytes : getFileSizeQuietly(filePath),
+                entry.createdAt != null ? Instant.parse(entry.createdAt) : getModifiedTimeQuietly(filePath),
+                entry.modifiedAt != null ? Instant.parse(entry.modifiedAt) : getModifiedTimeQuietly(filePath),
+                entry.contentType,
+                entry.custom != null ? entry.custom : Collections.emptyMap(),
+                filePath
+            );
+        } catch (Exception e) {
+            LoggerUtil.debug("[LocalFileSystemStorage] Bad metadata entry for " + filePath + ": " + e.getMessage());
+            return filesystemMetadata(filePath);
+        }
+    }
+
+    private FileMetadata filesystemMetadata(Path filePath) {
         return new FileMetadata(
-            filename,
+            filePath.getFileName().toString(),
             getFileSizeQuietly(filePath),
             getModifiedTimeQuietly(filePath),
             filePath
         );
     }
 
-    private void saveMetadata(Path filePath, FileMetadata metadata) {
-        Path metaPath = getMetaPath(filePath);
-        Path tempPath = metaPath.resolveSibling(metaPath.getFileName().toString() + ".tmp");
-
-        MetadataJson meta = new MetadataJson();
-        meta.filename = metadata.filename();
-        meta.sizeBytes = metadata.sizeBytes();
-        meta.createdAt = metadata.createdAt() != null ? metadata.createdAt().toString() : null;
-        meta.modifiedAt = metadata.modifiedAt() != null ? metadata.modifiedAt().toString() : null;
-        meta.contentType = metadata.contentType();
-        meta.custom = metadata.customMetadata().isEmpty() ? null : new HashMap<>(metadata.customMetadata());
-
+    private DirectoryMetadataIndex.Entry readSidecar(Path metaPath) {
         try {
-            // Write to temp file then rename (atomic operation)
-            Files.writeString(tempPath, gson.toJson(meta));
-            Files.move(tempPath, metaPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-        } catch (IOException e) {
-            LoggerUtil.warn("[LocalFileSystemStorage] Failed to save metadata: " + e.getMessage());
+            String json = Files.readString(metaPath);
+            return gson.fromJson(json, DirectoryMetadataIndex.Entry.class);
+        } catch (Exception e) {
+            LoggerUtil.debug("[LocalFileSystemStorage] Failed to load metadata sidecar: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void deleteMigratedSidecars(List<Path> metaPaths) {
+        for (Path metaPath : metaPaths) {
             try {
-                Files.deleteIfExists(tempPath);
-            } catch (IOException ignored) {
+                Files.deleteIfExists(metaPath);
+            } catch (IOException e) {
+                LoggerUtil.debug("[LocalFileSystemStorage] Could not remove migrated sidecar: " + e.getMessage());
             }
         }
     }
@@ -433,14 +502,27 @@ public class LocalFileSystemStorage implements FileStorage {
         }
     }
 
-    // ==================== JSON Model ====================
+    /**
+     * Charges written bytes to the usage ledger for the file's directory.
+     */
+    private final class LedgerCountingOutputStream extends FilterOutputStream {
+        private final Path dir;
+
+        LedgerCountingOutputStream(OutputStream out, Path dir) {
+            super(out);
+            this.dir = dir;
+        }
 
-    private static class MetadataJson {
-        String filename;
-        Long sizeBytes;
-        String createdAt;
-        String modifiedAt;
-        String contentType;
-        Map<String, String> custom;
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            usageLedger.adjust(dir, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            usageLedger.adjust(dir, len);
+        }
     }
 }
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.storage.impl;
+
+import com.dialtone.utils.LoggerUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Running byte totals per storage directory (one per user, one for global).
+ *
+ * <p>Quota lookups read a counter instead of walking the directory tree. Counters are
+ * adjusted as bytes are written and files are deleted, and persisted to a compact
+ * index file ({@code {baseDir}/.usage-ledger}, one {@code key<TAB>bytes} line per
+ * directory) shortly after each change.
+ *
+ * <p>A directory that has never been seen is measured once on first lookup. A background
+ * reconciler periodically re-measures every tracked directory and repairs drift from
+ * files added or removed outside the storage API (manual cleanup, crashes mid-write).
+ * The same pass drops {@link DirectoryMetadataIndex} entries left behind by such removals.
+ *
+ * <p>One ledger exists per base directory, shared by every {@link LocalFileSystemStorage}
+ * pointing at it, so per-connection storage instances see the same totals.
+ */
+public final class StorageUsageLedger {
+
+    static final String LEDGER_FILENAME = ".usage-ledger";
+    private static final long FLUSH_DELAY_MS = 1000;
+    private static final long INITIAL_RECONCILE_DELAY_MINUTES = 5;
+    private static final String META_SUFFIX = ".meta.json";
+
+    /** Returned by {@link #measure} when the directory could not be walked. */
+    private static final long MEASURE_FAILED = -1;
+
+    private static final Map<Path, StorageUsageLedger> LEDGERS = new ConcurrentHashMap<>();
+
+    private final Path baseDir;
+    private final Path ledgerFile;
+    private final Map<String, Usage> usage = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Counter for one directory. The version changes on every adjustment so the
+     * reconciler can tell whether a write raced with its measurement.
+     */
+    private static final class Usage {
+        final AtomicLong bytes;
+        final AtomicLong version = new AtomicLong();
+
+        Usage(long bytes) {
+            this.bytes = new AtomicLong(bytes);
+        }
+    }
+
+    private StorageUsageLedger(Path baseDir, long reconcileIntervalMinutes) {
+        this.baseDir = baseDir;
+        this.ledgerFile = baseDir.resolve(LEDGER_FILENAME);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "StorageLedger-" + baseDir.getFileName());
+            t.setDaemon(true);
+            return t;
+        });
+        load();
+        if (reconcileIntervalMinutes > 0) {
+            // First pass soon after startup catches changes made while the server was down
+            executor.scheduleWithFixedDelay(this::reconcile,
+                    Math.min(reconcileIntervalMinutes, INITIAL_RECONCILE_DELAY_MINUTES),
+                    reconcileIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Get the shared ledger for a storage base directory, creating it on first use.
+     *
+     * @param baseDir storage base directory
+     * @param reconcileIntervalMinutes how often to re-measure tracked directories (0 disables);
+     *                                 only the first caller for a directory decides
+     * @return the ledger
+     */
+    public static StorageUsageLedger forBaseDir(Path baseDir, long reconcileIntervalMinutes) {
+        Path key = baseDir.toAbsolutePath().normalize();
+        return LEDGERS.computeIfAbsent(key, k -> new StorageUsageLedger(k, reconcileIntervalMinutes));
+    }
+
+    /**
+     * Record that a file was deleted outside the storage API (e.g. a partial upload
+     * removed on abort). Finds the ledger owning the path, if any.
+     *
+     * @param file      the deleted file
+     * @param sizeBytes its size before deletion
+     */
+    public static void recordExternalDelete(Path file, long sizeBytes) {
+        if (file == null || sizeBytes <= 0) {
+            return;
+        }
+        Path absolute = file.toAbsolutePath().normalize();
+        for (StorageUsageLedger ledger : LEDGERS.values()) {
+            if (absolute.startsWith(ledger.baseDir)) {
+                String key = ledger.keyForFile(absolute);
+                if (key != null) {
+                    ledger.adjust(key, -sizeBytes);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Bytes used under a directory. Measures the directory once if it is not yet tracked;
+     * if that measurement fails, nothing is tracked and the next lookup measures again.
+     *
+     * @param dir storage directory (e.g. {baseDir}/user/{owner})
+     * @return total bytes of regular files, excluding metadata files (0 if measuring failed)
+     */
+    public long getUsage(Path dir) {
+        String key = keyForDirectory(dir);
+        Usage entry = usage.get(key);
+        if (entry == null) {
+            long measured = measure(dir);
+            if (measured == MEASURE_FAILED) {
+                return 0;
+            }
+            entry = usage.computeIfAbsent(key, k -> new Usage(measured));
+            scheduleFlush();
+        }
+        return Math.max(0, entry.bytes.get());
+    }
+
+    /**
+     * Adjust the total for the directory containing a file.
+     * No-op for directories not tracked yet: their first lookup measures the disk.
+     *
+     * @param dir   storage directory the file lives in
+     * @param delta bytes added (positive) or removed (negative)
+     */
+    public void adjust(Path dir, long delta) {
+        adjust(keyForDirectory(dir), delta);
+    }
+
+    private void adjust(String key, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        Usage entry = usage.get(key);
+        if (entry == null) {
+            return;
+        }
+        entry.bytes.addAndGet(delta);
+        entry.version.incrementAndGet();
+        scheduleFlush();
+    }
+
+    /**
+     * Re-measure every tracked directory and correct counters that drifted.
+     * Directories modified during their measurement, or that could not be measured,
+     * are left for the next pass. Also prunes metadata of files that no longer exist.
+     *
+     * @return number of directories corrected
+     */
+    public int reconcile() {
+        int repaired = 0;
+        for (Map.Entry<String, Usage> e : usage.entrySet()) {
+            Usage entry = e.getValue();
+            long versionBefore = entry.version.get();
+            long actual = measure(baseDir.resolve(e.getKey()));
+            if (actual == MEASURE_FAILED) {
+                continue;
+            }
+            long recorded = entry.bytes.get();
+            if (actual != recorded && entry.version.compareAndSet(versionBefore, versionBefore + 1)) {
+                // Applied as a delta: adjust() adds before bumping the version, so one can land
+                // between the check above and this line and must not be overwritten
+                entry.bytes.addAndGet(actual - recorded);
+                repaired++;
+                LoggerUtil.info(String.format("[StorageUsageLedger] Corrected %s: %d -> %d bytes",
+                        e.getKey(), recorded, actual));
+            }
+        }
+        if (repaired > 0) {
+            scheduleFlush();
+        }
+        DirectoryMetadataIndex.pruneAllUnder(baseDir);
+        return repaired;
+    }
+
+    /**
+     * Write pending changes to the index file now.
+     */
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        Path tempFile = ledgerFile.resolveSibling(LEDGER_FILENAME + ".tmp");
+        try {
+            Files.createDirectories(baseDir);
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Usage> e : usage.entrySet()) {
+                    writer.write(e.getKey());
+                    writer.write('\t');
+                    writer.write(Long.toString(Math.max(0, e.getValue().bytes.get())));
+                    writer.newLine();
+                }
+            }
+            Files.move(tempFile, ledgerFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LoggerUtil.warn("[StorageUsageLedger] Failed to save ledger: " + e.getMessage());
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(ledgerFile)) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(ledgerFile, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                int tab = line.lastIndexOf('\t');
+                if (tab <= 0) {
+                    continue;
+                }
+                try {
+                    usage.put(line.substring(0, tab), new Usage(Long.parseLong(line.substring(tab + 1).trim())));
+                } catch (NumberFormatException e) {
+                    LoggerUtil.debug("[StorageUsageLedger] Skipping bad ledger line: " + line);
+                }
+            }
+            LoggerUtil.info("[StorageUsageLedger] Loaded " + usage.size() + " entries from " + ledgerFile);
+        } catch (IOException e) {
+            LoggerUtil.warn("[StorageUsageLedger] Failed to read ledger, directories will be re-measured: " +
+                    e.getMessage());
+            usage.clear();
+        }
+    }
+
+    /**
+     * @return bytes of user files under the directory, or {@link #MEASURE_FAILED}
+     */
+    private long measure(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths
+                .filter(Files::isRegularFile)
+                .filter(p -> isUserFile(p.getFileName().toString()))
+                .mapToLong(StorageUsageLedger::sizeQuietly)
+                .sum();
+        } catch (IOException | UncheckedIOException e) {
+            LoggerUtil.warn("[StorageUsageLedger] Failed to measure " + dir + ": " + e.getMessage());
+            return MEASURE_FAILED;
+        }
+    }
+
+    /**
+     * Excludes metadata sidecars and hidden bookkeeping files (manifests, this ledger).
+     */
+    private static boolean isUserFile(String name) {
+        return !name.startsWith(".") && !name.endsWith(META_SUFFIX);
+    }
+
+    private static long sizeQuietly(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            // Deleted between listing and stat
+            return 0;
+        }
+    }
+
+    private String keyForDirectory(Path dir) {
+        Path relative = baseDir.relativize(dir.toAbsolutePath().normalize());
+        return relative.toString().replace('\\', '/');
+    }
+
+    /**
+     * Ledger key for a file: "user/{owner}" for user files, "global" for global files.
+     */
+    private String keyForFile(Path absoluteFile) {
+        Path relative = baseDir.relativize(absoluteFile);
+        if (relative.getNameCount() >= 3 && "user".equals(relative.getName(0).toString())) {
+            return "user/" + relative.getName(1);
+        }
+        if (relative.getNameCount() >= 2 && "global".equals(relative.getName(0).toString())) {
+            return "global";
+        }
+        return null;
+    }
+}
@@ -4,6 +4,8 @@
 
 package com.dialtone.terminal;
 
+import java.util.regex.Pattern;
+
 /**
  * Utility class for stripping ANSI escape sequences from text.
  * 
@@ -20,6 +22,10 @@ package com.dialtone.terminal;
  */
 public final class AnsiColorStripper {
 
+    // Compiled once; this runs for every line of telnet output
+    private static final Pattern CSI_PATTERN = Pattern.compile("\u001B\\[[0-9;]*[a-zA-Z]");
+    private static final Pattern OSC_PATTERN = Pattern.compile("\u001B\\][^\u0007\u001B\n\r]*?[\u0007\u001B\\\\]");
+
     private AnsiColorStripper() {
         // Utility class - prevent instantiation
     }
@@ -49,6 +55,10 @@ public final class AnsiColorStripper {
         if (text == null) {
             return null;
         }
+        if (text.indexOf('\u001B') < 0) {
+            // Fast path: most lines carry no escape sequences
+            return text;
+        }
         
         // Primary pattern: CSI sequences (most common): ESC[ followed by optional digits/semicolons, ending with a letter
         // This matches: \033[31m, \033[1;32;40m, \033[2J, \033[0m, etc.
@@ -59,12 +69,12 @@ public final class AnsiColorStripper {
         // - Neither pattern component can match \n (0x0A) or \r (0x0D)
         // 
         // Therefore, newlines in the input text are preserved in the output.
-        String result = text.replaceAll("\u001B\\[[0-9;]*[a-zA-Z]", "");
+        String result = CSI_PATTERN.matcher(text).replaceAll("");
         
         // Additional pattern: OSC sequences (less common): ESC] followed by parameters, ending with BEL or ESC\\
         // This matches: \033]0;title\007, \033]1;url\033\\
         // Explicitly exclude newlines from the parameter section to be extra safe
-        result = result.replaceAll("\u001B\\][^\u0007\u001B\n\r]*?[\u0007\u001B\\\\]", "");
+        result = OSC_PATTERN.matcher(result).replaceAll("");
         
         return result;
     }
@@ -4,58 +4,73 @@
 
 package com.dialtone.terminal;
 
+import com.dialtone.server.NettyTransport;
 import com.dialtone.utils.LoggerUtil;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.Socket;
-import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Manages a telnet connection to an external server and bridges communication
  * between the telnet server and the Dialtone client.
- * 
+ *
  * <p>Responsibilities:
  * <ul>
- *   <li>Establish and maintain socket connection to telnet server</li>
- *   <li>Read telnet output in background thread</li>
+ *   <li>Establish and maintain a Netty client connection to the telnet server</li>
+ *   <li>Decode telnet output into lines on the event loop ({@link TelnetLineDecoder})</li>
  *   <li>Strip ANSI color codes from telnet output</li>
- *   <li>Split output into lines and forward to client via callback</li>
+ *   <li>Forward each line to the client via callback</li>
  *   <li>Forward commands from client to telnet server</li>
  *   <li>Handle connection errors and cleanup</li>
  * </ul>
+ *
+ * <p>The connection shares the server's worker event loops instead of owning a
+ * reader thread. When given the client channel's own event loop, line callbacks run
+ * on the same thread that serves that client.
  */
 public class TelnetBridge {
 
+    private static final int MAX_LINE_LENGTH = 8192;
+    private static final long PROMPT_FLUSH_MS = 250;
+
+    private final EventLoopGroup eventLoopGroup;
     private final String host;
     private final int port;
     private final int timeoutMs;
-    private final java.util.function.Consumer<String> lineCallback;
+    private final Consumer<String> lineCallback;
     private final TelnetLineFilter lineFilter;
 
-    private Socket socket;
-    private OutputStream outputStream;
-    private Thread readingThread;
+    private volatile Channel channel;
     private final AtomicBoolean connected = new AtomicBoolean(false);
     private final AtomicBoolean closed = new AtomicBoolean(false);
 
     /**
      * Creates a new TelnetBridge with specified host, port, and line filter.
      *
+     * @param eventLoopGroup Event loop(s) to run the connection on (normally the client channel's event loop)
      * @param host Telnet server hostname
      * @param port Telnet server port
-     * @param timeoutMs Socket timeout in milliseconds
+     * @param timeoutMs Connect timeout in milliseconds
      * @param lineCallback Callback to invoke for each line received from telnet server
      * @param lineFilter Optional filter to apply to each line before callback (may be null)
      */
-    public TelnetBridge(String host, int port, int timeoutMs,
-                        java.util.function.Consumer<String> lineCallback,
+    public TelnetBridge(EventLoopGroup eventLoopGroup, String host, int port, int timeoutMs,
+                        Consumer<String> lineCallback,
                         TelnetLineFilter lineFilter) {
+        this.eventLoopGroup = eventLoopGroup;
         this.host = host;
         this.port = port;
         this.timeoutMs = timeoutMs;
@@ -64,189 +79,123 @@ public class TelnetBridge {
     }
 
     /**
-     * Establishes connection to telnet server and starts reading thread.
-     * 
-     * @return true if connection was successful, false otherwise
+     * Starts connecting to the telnet server. Returns immediately.
+     *
+     * @return future completing with true once connected, false if the connection failed;
+     *         completed on the bridge's event loop
      */
-    public boolean connect() {
+    public CompletableFuture<Boolean> connect() {
         if (closed.get()) {
             LoggerUtil.warn("[TelnetBridge] Cannot connect: bridge is closed");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         if (connected.get()) {
             LoggerUtil.warn("[TelnetBridge] Already connected to " + host + ":" + port);
-            return true;
+            return CompletableFuture.completedFuture(true);
         }
 
-        try {
-            LoggerUtil.info("[TelnetBridge] Connecting to " + host + ":" + port);
-            socket = new Socket(host, port);
-            socket.setSoTimeout(timeoutMs);
-            outputStream = socket.getOutputStream();
-            
+        LoggerUtil.info("[TelnetBridge] Connecting to " + host + ":" + port);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Bootstrap bootstrap = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(NettyTransport.socketChannelTypeFor(eventLoopGroup))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutMs)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast("telnetLineDecoder", new TelnetLineDecoder(MAX_LINE_LENGTH, PROMPT_FLUSH_MS))
+                                .addLast("telnetLineHandler", new LineHandler());
+                    }
+                });
+
+        ChannelFuture connectFuture = bootstrap.connect(host, port);
+        channel = connectFuture.channel();
+        connectFuture.addListener((ChannelFuture f) -> {
+            if (!f.isSuccess()) {
+                LoggerUtil.error("[TelnetBridge] Failed to connect to " + host + ":" + port + ": " +
+                        (f.cause() != null ? f.cause().getMessage() : "cancelled"));
+                close();
+                result.complete(false);
+                return;
+            }
+            if (closed.get()) {
+                // Closed while the connect was in flight
+                f.channel().close();
+                result.complete(false);
+                return;
+            }
             connected.set(true);
             LoggerUtil.info("[TelnetBridge] Connected to " + host + ":" + port);
-
-            // Read any immediately available data (initial prompt from server)
-            // This captures prompts that arrive right after connection, before the read thread starts
-            readInitialData();
-
-            // Start reading thread
-            startReading();
-            return true;
-
-        } catch (IOException e) {
-            LoggerUtil.error("[TelnetBridge] Failed to connect to " + host + ":" + port + ": " + e.getMessage());
-            close();
-            return false;
-        }
+            result.complete(true);
+        });
+        return result;
     }
 
     /**
-     * Reads any immediately available data from the telnet connection.
-     * This captures initial prompts that arrive right after connection.
+     * Receives decoded lines, strips ANSI codes, applies the filter and forwards them.
      */
-    private void readInitialData() {
-        try {
-            InputStream inputStream = socket.getInputStream();
-            if (inputStream.available() > 0) {
-                // Read available bytes (up to 4096 to avoid reading too much)
-                byte[] buffer = new byte[Math.min(inputStream.available(), 4096)];
-                int bytesRead = inputStream.read(buffer);
-                
-                if (bytesRead > 0) {
-                    String initialData = new String(buffer, 0, bytesRead, StandardCharsets.US_ASCII);
-                    LoggerUtil.debug("[TelnetBridge] Initial data available: " + bytesRead + " bytes");
-                    LoggerUtil.debug("[TelnetBridge] Initial data content: '" + initialData + "'");
-                    
-                    // Strip ANSI codes
-                    String cleanData = AnsiColorStripper.stripAnsiCodes(initialData);
-                    
-                    // Split by newlines and process each line
-                    if (cleanData != null && !cleanData.isEmpty() && lineCallback != null) {
-                        String[] lines = cleanData.split("\\r?\\n", -1);
-                        for (String line : lines) {
-                            // Apply filter if present
-                            String filteredLine = line;
-                            if (lineFilter != null) {
-                                filteredLine = lineFilter.filter(line);
-                                if (filteredLine == null) {
-                                    LoggerUtil.debug("[TelnetBridge] Initial line suppressed by filter: '" + line + "'");
-                                    continue;
-                                }
-                            }
-                            // Process all lines, including blank lines (empty strings represent blank lines)
-                            LoggerUtil.debug("[TelnetBridge] Processing initial line: '" + filteredLine + "' (blank=" + filteredLine.isEmpty() + ")");
-                            try {
-                                lineCallback.accept(filteredLine);
-                            } catch (Exception e) {
-                                LoggerUtil.error("[TelnetBridge] Error in initial line callback: " + e.getMessage());
-                            }
-                        }
-                    }
+    private final class LineHandler extends SimpleChannelInboundHandler<String> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, String line) {
+            LoggerUtil.debug(() -> "[TelnetBridge] Raw line from telnet: '" + line + "' (length: " + line.length() + ")");
+
+            // Strip ANSI color codes
+            String cleanLine = AnsiColorStripper.stripAnsiCodes(line);
+
+            // Apply filter if present
+            String filteredLine = cleanLine;
+            if (lineFilter != null) {
+                filteredLine = lineFilter.filter(cleanLine);
+                if (filteredLine == null) {
+                    LoggerUtil.debug(() -> "[TelnetBridge] Line suppressed by filter: '" + cleanLine + "'");
+                    return;
                 }
             }
-        } catch (IOException e) {
-            LoggerUtil.warn("[TelnetBridge] Error reading initial data: " + e.getMessage());
-            // Don't fail connection if initial read fails - continue with normal reading
-        }
-    }
 
-    /**
-     * Starts background thread to read from telnet socket.
-     */
-    private void startReading() {
-        if (readingThread != null && readingThread.isAlive()) {
-            LoggerUtil.warn("[TelnetBridge] Reading thread already running");
-            return;
-        }
-
-        readingThread = new Thread(() -> {
-            try (InputStream inputStream = socket.getInputStream();
-                 BufferedReader reader = new BufferedReader(
-                     new InputStreamReader(inputStream, StandardCharsets.US_ASCII))) {
-
-                String line;
-                while (connected.get() && !Thread.currentThread().isInterrupted()) {
-                    try {
-                        line = reader.readLine();
-                        if (line == null) {
-                            // End of stream - connection closed by server
-                            LoggerUtil.info("[TelnetBridge] Telnet server closed connection");
-                            break;
-                        }
-
-                        // Log raw line from telnet (before ANSI stripping) for debugging
-                        LoggerUtil.debug("[TelnetBridge] Raw line from telnet: '" + line + "' (length: " + line.length() + ")");
-
-                        // Strip ANSI color codes
-                        String cleanLine = AnsiColorStripper.stripAnsiCodes(line);
-
-                        // Log cleaned line for debugging
-                        if (!line.equals(cleanLine)) {
-                            LoggerUtil.debug("[TelnetBridge] After ANSI strip: '" + cleanLine + "' (length: " + cleanLine.length() + ")");
-                            // Check if newlines were affected
-                            int rawNewlines = countNewlines(line);
-                            int cleanNewlines = countNewlines(cleanLine);
-                            if (rawNewlines != cleanNewlines) {
-                                LoggerUtil.warn("[TelnetBridge] WARNING: Newline count changed! Raw: " + rawNewlines + ", Clean: " + cleanNewlines);
-                            }
-                        }
-
-                        // Apply filter if present
-                        String filteredLine = cleanLine;
-                        if (lineFilter != null && cleanLine != null) {
-                            filteredLine = lineFilter.filter(cleanLine);
-                            if (filteredLine == null) {
-                                LoggerUtil.debug("[TelnetBridge] Line suppressed by filter: '" + cleanLine + "'");
-                                continue;
-                            }
-                        }
-
-                        // Forward line to client via callback
-                        // Allow empty strings to pass through (they represent blank lines)
-                        // readLine() strips newlines, so blank lines become empty strings
-                        if (filteredLine != null && lineCallback != null) {
-                            if (filteredLine.isEmpty()) {
-                                LoggerUtil.debug("[TelnetBridge] Processing blank line (empty string)");
-                            }
-                            try {
-                                lineCallback.accept(filteredLine);
-                            } catch (Exception e) {
-                                LoggerUtil.error("[TelnetBridge] Error in line callback: " + e.getMessage());
-                            }
-                        }
-
-                    } catch (SocketTimeoutException e) {
-                        // Timeout is expected - continue reading
-                        continue;
-                    }
+            // Forward line to client via callback
+            // Empty strings pass through (they represent blank lines)
+            if (lineCallback != null) {
+                try {
+                    lineCallback.accept(filteredLine);
+                } catch (Exception e) {
+                    LoggerUtil.error("[TelnetBridge] Error in line callback: " + e.getMessage());
                 }
+            }
+        }
 
-            } catch (IOException e) {
-                if (connected.get()) {
-                    LoggerUtil.error("[TelnetBridge] Error reading from telnet: " + e.getMessage());
-                }
-            } finally {
-                connected.set(false);
-                LoggerUtil.info("[TelnetBridge] Reading thread stopped");
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (connected.getAndSet(false) && !closed.get()) {
+                LoggerUtil.info("[TelnetBridge] Telnet server closed connection");
             }
-        }, "TelnetBridge-Reader-" + host + "-" + port);
+            super.channelInactive(ctx);
+        }
 
-        readingThread.setDaemon(true);
-        readingThread.start();
-        LoggerUtil.debug("[TelnetBridge] Reading thread started");
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            if (connected.get()) {
+                LoggerUtil.error("[TelnetBridge] Error reading from telnet: " + cause.getMessage());
+            }
+            ctx.close();
+        }
     }
 
     /**
-     * Sends a command to the telnet server.
-     * 
+     * Sends a command to the telnet server. The write is queued on the
+     * connection's event loop and never blocks the caller.
+     *
      * @param command Command to send (newline will be appended automatically)
-     * @return true if command was sent successfully, false otherwise
+     * @return true if command was queued for sending, false otherwise
      */
-    public synchronized boolean sendCommand(String command) {
-        if (!connected.get() || closed.get() || outputStream == null) {
+    public boolean sendCommand(String command) {
+        Channel ch = channel;
+        if (!connected.get() || closed.get() || ch == null || !ch.isActive()) {
             LoggerUtil.warn("[TelnetBridge] Cannot send command: not connected");
             return false;
         }
@@ -256,24 +205,22 @@ public class TelnetBridge {
             return false;
         }
 
-        try {
-            byte[] commandBytes = (command + "\n").getBytes(StandardCharsets.US_ASCII);
-            outputStream.write(commandBytes);
-            outputStream.flush();
-            
-            LoggerUtil.debug("[TelnetBridge] Sent command: '" + command + "'");
-            return true;
+        byte[] commandBytes = (command + "\n").getBytes(StandardCharsets.US_ASCII);
+        ch.writeAndFlush(Unpooled.wrappedBuffer(commandBytes)).addListener((ChannelFuture f) -> {
+            if (!f.isSuccess()) {
+                LoggerUtil.error("[TelnetBridge] Failed to send command: " +
+                        (f.cause() != null ? f.cause().getMessage() : "cancelled"));
+                connected.set(false);
+            }
+        });
 
-        } catch (IOException e) {
-            LoggerUtil.error("[TelnetBridge] Failed to send command '" + command + "': " + e.getMessage());
-            connected.set(false);
-            return false;
-        }
+        LoggerUtil.debug(() -> "[TelnetBridge] Sent command: '" + command + "'");
+        return true;
     }
 
     /**
      * Checks if the telnet bridge is currently connected.
-     * 
+     *
      * @return true if connected, false otherwise
      */
     public boolean isConnected() {
@@ -281,7 +228,15 @@ public class TelnetBridge {
     }
 
     /**
-     * Closes the telnet connection and cleans up resources.
+     * Event loop the connection runs on, or null before {@link #connect()}.
+     */
+    public EventLoop getEventLoop() {
+        Channel ch = channel;
+        return ch != null ? ch.eventLoop() : null;
+    }
+
+    /**
+     * Closes the telnet connection and cleans up resources. Does not block.
      */
     public void close() {
         if (closed.getAndSet(true)) {
@@ -293,52 +248,11 @@ public class TelnetBridge {
 
         connected.set(false);
 
-        // Interrupt reading thread
-        if (readingThread != null && readingThread.isAlive()) {
-            readingThread.interrupt();
-            try {
-                readingThread.join(1000); // Wait up to 1 second for thread to finish
-            } catch (InterruptedException e) {
-                LoggerUtil.warn("[TelnetBridge] Interrupted while waiting for reading thread to finish");
-                Thread.currentThread().interrupt();
-            }
-        }
-
-        // Close socket (this will cause readLine() to throw IOException if it's blocking)
-        if (socket != null && !socket.isClosed()) {
-            try {
-                socket.close();
-            } catch (IOException e) {
-                LoggerUtil.warn("[TelnetBridge] Error closing socket: " + e.getMessage());
-            }
-        }
-
-        // Close output stream if still open
-        if (outputStream != null) {
-            try {
-                outputStream.close();
-            } catch (IOException e) {
-                LoggerUtil.warn("[TelnetBridge] Error closing output stream: " + e.getMessage());
-            }
+        Channel ch = channel;
+        if (ch != null && ch.isOpen()) {
+            ch.close();
         }
 
         LoggerUtil.info("[TelnetBridge] Connection closed");
     }
-
-    /**
-     * Count newline characters in a string for debugging.
-     */
-    private static int countNewlines(String text) {
-        if (text == null) {
-            return 0;
-        }
-        int count = 0;
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            if (c == '\n' || c == '\r') {
-                count++;
-            }
-        }
-        return count;
-    }
 }
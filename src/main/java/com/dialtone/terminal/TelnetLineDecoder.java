@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.terminal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking line decoder for telnet output.
+ *
+ * <p>Turns inbound bytes into {@code String} lines (US-ASCII, line terminator removed)
+ * for the next handler in the pipeline:
+ * <ul>
+ *   <li>Lines end at {@code \n}, {@code \r\n} or a lone {@code \r}</li>
+ *   <li>Telnet IAC negotiation sequences are dropped instead of shown as garbage</li>
+ *   <li>A partial line with no terminator (e.g. a {@code "Password: "} prompt) is
+ *       emitted once the server has been quiet for {@code promptFlushMs}</li>
+ *   <li>Lines longer than {@code maxLineLength} are emitted in pieces</li>
+ * </ul>
+ *
+ * <p>Runs entirely on the channel's event loop; no thread blocks waiting for a newline.
+ */
+public class TelnetLineDecoder extends ChannelInboundHandlerAdapter {
+
+    private static final int IAC = 0xFF;
+    private static final int SB = 0xFA;
+    private static final int SE = 0xF0;
+    private static final int WILL = 0xFB;
+    private static final int DONT = 0xFE;
+
+    private enum State { DATA, IAC, OPTION, SUBNEGOTIATION, SUBNEGOTIATION_IAC }
+
+    private final int maxLineLength;
+    private final long promptFlushMs;
+    private final StringBuilder line = new StringBuilder();
+    private State state = State.DATA;
+    private boolean lastWasCarriageReturn;
+    private boolean partialLineFlushed;
+    private ScheduledFuture<?> promptFlush;
+
+    /**
+     * @param maxLineLength Longest line buffered before it is emitted anyway
+     * @param promptFlushMs Quiet period after which an unterminated line is emitted (0 disables)
+     */
+    public TelnetLineDecoder(int maxLineLength, long promptFlushMs) {
+        this.maxLineLength = maxLineLength;
+        this.promptFlushMs = promptFlushMs;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof ByteBuf buf)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        try {
+            cancelPromptFlush();
+            while (buf.isReadable()) {
+                decodeByte(ctx, buf.readUnsignedByte());
+            }
+            if (line.length() > 0 && promptFlushMs > 0) {
+                promptFlush = ctx.executor().schedule(() -> {
+                    promptFlush = null;
+                    if (line.length() > 0) {
+                        emit(ctx);
+                        partialLineFlushed = true;
+                    }
+                }, promptFlushMs, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            ReferenceCountUtil.release(buf);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        cancelPromptFlush();
+        if (line.length() > 0) {
+            emit(ctx);
+        }
+        super.channelInactive(ctx);
+    }
+
+    private void decodeByte(ChannelHandlerContext ctx, int b) {
+        switch (state) {
+            case DATA -> {
+                if (b == IAC) {
+                    state = State.IAC;
+                } else {
+                    decodeData(ctx, b);
+                }
+            }
+            case IAC -> {
+                if (b == IAC) {
+                    // Escaped 0xFF data byte; not printable in US-ASCII
+                    state = State.DATA;
+                } else if (b == SB) {
+                    state = State.SUBNEGOTIATION;
+                } else if (b >= WILL && b <= DONT) {
+                    state = State.OPTION;
+                } else {
+                    state = State.DATA;
+                }
+            }
+            case OPTION -> state = State.DATA;
+            case SUBNEGOTIATION -> {
+                if (b == IAC) {
+                    state = State.SUBNEGOTIATION_IAC;
+                }
+            }
+            case SUBNEGOTIATION_IAC -> state = (b == SE) ? State.DATA : State.SUBNEGOTIATION;
+        }
+    }
+
+    private void decodeData(ChannelHandlerContext ctx, int b) {
+        if (b == '\n') {
+            if (lastWasCarriageReturn) {
+                // Second half of CRLF; the line was already emitted at '\r'
+                lastWasCarriageReturn = false;
+                return;
+            }
+            endLine(ctx);
+            return;
+        }
+        lastWasCarriageReturn = (b == '\r');
+        if (b == '\r') {
+            endLine(ctx);
+            return;
+        }
+        if (b == 0) {
+            // NUL padding after a bare CR
+            return;
+        }
+        line.append(b < 0x80 ? (char) b : '?');
+        if (line.length() >= maxLineLength) {
+            emit(ctx);
+        }
+    }
+
+    private void endLine(ChannelHandlerContext ctx) {
+        if (line.length() == 0 && partialLineFlushed) {
+            // Terminator for a prompt that was already flushed; not a blank line
+            partialLineFlushed = false;
+            return;
+        }
+        partialLineFlushed = false;
+        emit(ctx);
+    }
+
+    private void emit(ChannelHandlerContext ctx) {
+        String text = line.toString();
+        line.setLength(0);
+        ctx.fireChannelRead(text);
+    }
+
+    private void cancelPromptFlush() {
+        if (promptFlush != null) {
+            promptFlush.cancel(false);
+            promptFlush = null;
+        }
+    }
+}
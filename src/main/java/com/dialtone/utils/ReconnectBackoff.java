@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Jittered exponential backoff for reconnect loops.
+ *
+ * Each call to {@link #nextDelayMs()} doubles the base delay up to the cap and
+ * randomizes part of it, so many sessions dropped by the same upstream restart
+ * do not all reconnect in the same instant. Call {@link #reset()} once a
+ * connection succeeds.
+ *
+ * Not thread-safe; intended to be used from a single event loop.
+ */
+public class ReconnectBackoff {
+
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final double jitter;
+    private int attempts;
+
+    /**
+     * @param initialDelayMs Delay before the first retry
+     * @param maxDelayMs     Upper bound for any delay
+     * @param jitter         Fraction of each delay (0.0 - 1.0) that is randomized
+     */
+    public ReconnectBackoff(long initialDelayMs, long maxDelayMs, double jitter) {
+        if (initialDelayMs <= 0 || maxDelayMs < initialDelayMs) {
+            throw new IllegalArgumentException("Require 0 < initialDelayMs <= maxDelayMs");
+        }
+        if (jitter < 0.0 || jitter > 1.0) {
+            throw new IllegalArgumentException("jitter must be between 0.0 and 1.0");
+        }
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.jitter = jitter;
+    }
+
+    /**
+     * @return Delay before the next attempt, in milliseconds
+     */
+    public long nextDelayMs() {
+        int shift = Math.min(attempts, 30);
+        long base = Math.min(maxDelayMs, initialDelayMs << shift);
+        if (base < 0) {
+            base = maxDelayMs;
+        }
+        attempts++;
+
+        long randomPart = (long) (base * jitter);
+        if (randomPart <= 0) {
+            return base;
+        }
+        return base - randomPart + ThreadLocalRandom.current().nextLong(randomPart + 1);
+    }
+
+    /**
+     * Start over from the initial delay after a successful connection.
+     */
+    public void reset() {
+        attempts = 0;
+    }
+
+    /**
+     * @return Number of delays handed out since the last reset
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+}
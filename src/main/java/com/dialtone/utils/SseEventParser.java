@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.utils;
+
+/**
+ * Incremental parser for Server-Sent Events (text/event-stream).
+ *
+ * Characters can be fed in arbitrary fragments as they arrive from the network;
+ * each complete event (terminated by a blank line) is reported to the listener
+ * with its event name and joined data lines. Comment lines and unknown fields are ignored.
+ */
+public class SseEventParser {
+
+    /**
+     * Receives complete events.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param event Event name, or null when the event had no "event:" field
+         * @param data  Data lines joined with '\n'
+         */
+        void onEvent(String event, String data);
+    }
+
+    private final Listener listener;
+    private final StringBuilder line = new StringBuilder();
+    private final StringBuilder data = new StringBuilder();
+    private String eventName;
+    private boolean hasData;
+    private boolean lastWasCarriageReturn;
+
+    public SseEventParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Feed the next fragment of the stream.
+     */
+    public void feed(CharSequence chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c == '\n' && lastWasCarriageReturn) {
+                // Second half of a CRLF pair, the line was already ended by '\r'
+                lastWasCarriageReturn = false;
+                continue;
+            }
+            lastWasCarriageReturn = (c == '\r');
+            if (c == '\r' || c == '\n') {
+                processLine();
+            } else {
+                line.append(c);
+            }
+        }
+    }
+
+    /**
+     * Signal end of stream, dispatching a final event that was not followed by a blank line.
+     */
+    public void finish() {
+        if (line.length() > 0) {
+            processLine();
+        }
+        dispatch();
+    }
+
+    private void processLine() {
+        if (line.length() == 0) {
+            dispatch();
+            return;
+        }
+        if (line.charAt(0) == ':') {
+            line.setLength(0);
+            return;
+        }
+
+        int colon = indexOf(line, ':');
+        String field = colon < 0 ? line.toString() : line.substring(0, colon);
+        int valueStart = colon < 0 ? line.length() : colon + 1;
+        if (valueStart < line.length() && line.charAt(valueStart) == ' ') {
+            valueStart++;
+        }
+        String value = line.substring(valueStart);
+        line.setLength(0);
+
+        switch (field) {
+            case "event" -> eventName = value;
+            case "data" -> {
+                if (hasData) {
+                    data.append('\n');
+                }
+                data.append(value);
+                hasData = true;
+            }
+            default -> {
+                // id, retry and unknown fields are not needed for API streaming
+            }
+        }
+    }
+
+    private void dispatch() {
+        if (hasData) {
+            listener.onEvent(eventName, data.toString());
+        }
+        data.setLength(0);
+        hasData = false;
+        eventName = null;
+    }
+
+    private static int indexOf(StringBuilder sb, char c) {
+        for (int i = 0; i < sb.length(); i++) {
+            if (sb.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -5,7 +5,7 @@
 package com.dialtone.web;
 
 import com.dialtone.db.DatabaseManager;
-import com.dialtone.db.SchemaInitializer;
+import com.dialtone.state.ReadinessState;
 import com.dialtone.utils.LoggerUtil;
 import com.dialtone.web.auth.AuthController;
 import com.dialtone.web.api.ScreennameController;
@@ -25,6 +25,8 @@ import com.dialtone.web.services.ResendEmailService;
 import com.dialtone.web.services.EmailAuthService;
 import com.dialtone.web.security.SecurityService;
 import com.dialtone.web.security.AdminAuthenticationFilter;
+import com.dialtone.web.security.RateLimitFilter;
+import com.dialtone.ratelimit.RateLimiters;
 import com.dialtone.web.services.DiscordAuthService;
 import com.dialtone.web.services.JwtTokenService;
 import com.dialtone.web.services.XAuthService;
@@ -45,6 +47,7 @@ import io.javalin.http.staticfiles.Location;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Main web server for Dialtone's user management interface.
@@ -84,18 +87,10 @@ public class DialtoneWebServer {
     public DialtoneWebServer(Properties config) {
         this.config = config;
 
-        // Initialize database
+        // Initialize database (DialtoneApplication migrates the schema before constructing us)
         String dbPath = config.getProperty("db.path", "db/dialtone.db");
         this.databaseManager = DatabaseManager.getInstance(dbPath);
 
-        // Initialize database schema
-        try {
-            SchemaInitializer.initializeSchema(databaseManager);
-        } catch (Exception e) {
-            LoggerUtil.error("Failed to initialize database schema: " + e.getMessage());
-            throw new RuntimeException("Database initialization failed", e);
-        }
-
         // Initialize services
         this.xAuthService = new XAuthService(config);
         this.discordAuthService = new DiscordAuthService(config);
@@ -186,6 +181,9 @@ public class DialtoneWebServer {
             javalinConfig.bundledPlugins.enableDevLogging();
         });
 
+        // Rate limiting runs first so floods are turned away before authentication
+        configureRateLimiting();
+
         // Configure routes
         configureRoutes();
 
@@ -209,6 +207,11 @@ public class DialtoneWebServer {
             LoggerUtil.info("Dialtone Web Server stopped");
         }
 
+        // Write out queued audit entries while the database is still open
+        if (adminAuditService != null) {
+            adminAuditService.close();
+        }
+
         if (databaseManager != null) {
             databaseManager.close();
         }
@@ -223,6 +226,12 @@ public class DialtoneWebServer {
             ctx.json(new HealthResponse("OK", System.currentTimeMillis(), databaseManager.getStats()));
         });
 
+        // Readiness: 503 until both servers are up and warm-up has finished, and again while stopping
+        app.get("/api/ready", ctx -> {
+            ReadinessState readiness = ReadinessState.getInstance();
+            ctx.status(readiness.isReady() ? 200 : 503).json(readiness.getStatus());
+        });
+
         // Root path now served by static file handler (React app index.html)
 
         // Authentication routes - X OAuth
@@ -268,6 +277,7 @@ public class DialtoneWebServer {
         app.get("/api/transfer/config", fileTransferController::getConfig);
         app.get("/api/transfer/connected-screennames", fileTransferController::getConnectedScreennames);
         app.post("/api/transfer/upload", fileTransferController::uploadFile);
+        app.get("/api/transfer/progress", fileTransferController::getTransferProgress);
         // Upload routes (client to server file transfer)
         app.post("/api/transfer/request-upload", fileTransferController::requestUpload);
         app.get("/api/transfer/uploads/{screenname}", fileTransferController::listUploads);
@@ -305,6 +315,8 @@ public class DialtoneWebServer {
         // Admin system management routes
         app.get("/api/admin/system/stats", adminSystemController::getSystemStats);
         app.get("/api/admin/system/health", adminSystemController::getSystemHealth);
+        app.get("/api/admin/system/bots", adminSystemController::getBotStats);
+        app.get("/api/admin/system/transfers", adminSystemController::getTransferStats);
         app.get("/api/admin/aol/metrics", adminSystemController::getAolMetrics);
         app.post("/api/admin/roles/{userId}/grant", adminSystemController::grantAdminRole);
         app.delete("/api/admin/roles/{userId}", adminSystemController::revokeAdminRole);
@@ -314,6 +326,15 @@ public class DialtoneWebServer {
         app.post("/api/admin/fdo/send", adminFdoController::sendFdo);
     }
 
+    /**
+     * Configures per-IP rate limits for the API.
+     */
+    private void configureRateLimiting() {
+        Set<String> trustedProxies = RateLimitFilter.trustedProxies(config);
+        app.before("/api/auth/*", new RateLimitFilter(RateLimiters.WEB_AUTH_IP, trustedProxies));
+        app.before("/api/*", new RateLimitFilter(RateLimiters.WEB_API_IP, trustedProxies));
+    }
+
     /**
      * Configures security middleware and headers.
      */
@@ -4,7 +4,14 @@
 
 package com.dialtone.web.api;
 
+import com.dialtone.auth.UserRegistry;
+import com.dialtone.chat.bot.BotExecutionService;
+import com.dialtone.chat.bot.ChatBotRegistry;
 import com.dialtone.db.models.User;
+import com.dialtone.protocol.StatefulClientHandler;
+import com.dialtone.protocol.xfer.XferTransferEngine;
+import com.dialtone.protocol.xfer.XferTransferRegistry;
+import com.dialtone.protocol.xfer.XferTransferState;
 import com.dialtone.utils.LoggerUtil;
 import com.dialtone.web.security.CsrfProtectionService;
 import com.dialtone.web.services.AdminAuditService;
@@ -14,7 +21,9 @@ import com.dialtone.web.services.UserService;
 import io.javalin.http.Context;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -29,6 +38,8 @@ import static com.dialtone.web.api.AdminControllerUtils.*;
  * - Admin role management (granting/revoking admin privileges)
  * - System configuration viewing
  * - Server health monitoring
+ * - Bot executor queue and latency statistics
+ * - File transfer bandwidth and per-transfer progress
  *
  * All operations require admin authentication and are audit logged.
  */
@@ -150,6 +161,75 @@ public class AdminSystemController {
         }
     }
 
+    /**
+     * Gets bot executor queue and latency statistics.
+     * GET /api/admin/system/bots
+     */
+    public void getBotStats(Context ctx) {
+        try {
+            Optional<User> adminOpt = getAdminUser(ctx, adminSecurityService);
+            if (adminOpt.isEmpty()) return;
+            User admin = adminOpt.get();
+
+            if (!checkRateLimit(ctx, admin, adminSecurityService)) return;
+
+            ChatBotRegistry registry = ChatBotRegistry.getInstance();
+            BotExecutionService executionService = registry.getExecutionService();
+
+            BotStatsResponse response = new BotStatsResponse(
+                    registry.getBotCount(),
+                    registry.getResponseTimeoutMs(),
+                    executionService.getMaxConcurrentPerBot(),
+                    executionService.getMaxQueuedPerBot(),
+                    executionService.getStats(),
+                    System.currentTimeMillis());
+            ctx.json(response);
+
+            LoggerUtil.debug(String.format("Admin %s viewed bot statistics", admin.xUsername()));
+
+        } catch (Exception e) {
+            LoggerUtil.error("Failed to get bot statistics: " + e.getMessage());
+            ctx.status(500).json(SharedErrorResponse.serverError("Failed to retrieve bot statistics"));
+        }
+    }
+
+    /**
+     * Gets XFER engine counters and progress of every active or queued download.
+     * GET /api/admin/system/transfers
+     */
+    public void getTransferStats(Context ctx) {
+        try {
+            Optional<User> adminOpt = getAdminUser(ctx, adminSecurityService);
+            if (adminOpt.isEmpty()) return;
+            User admin = adminOpt.get();
+
+            if (!checkRateLimit(ctx, admin, adminSecurityService)) return;
+
+            List<XferTransferState.Progress> transfers = new ArrayList<>();
+            for (UserRegistry.UserConnection connection : UserRegistry.getInstance().getAllConnections()) {
+                XferTransferRegistry registry = connection.getContext().channel()
+                        .attr(StatefulClientHandler.XFER_REGISTRY_KEY).get();
+                if (registry != null) {
+                    for (XferTransferState state : registry.listTransfers()) {
+                        transfers.add(state.getProgress());
+                    }
+                }
+            }
+
+            TransferStatsResponse response = new TransferStatsResponse(
+                    XferTransferEngine.getInstance().getMetrics(),
+                    transfers,
+                    System.currentTimeMillis());
+            ctx.json(response);
+
+            LoggerUtil.debug(String.format("Admin %s viewed transfer statistics", admin.xUsername()));
+
+        } catch (Exception e) {
+            LoggerUtil.error("Failed to get transfer statistics: " + e.getMessage());
+            ctx.status(500).json(SharedErrorResponse.serverError("Failed to retrieve transfer statistics"));
+        }
+    }
+
     /**
      * Gets system health check information.
      * GET /api/admin/system/health
@@ -347,5 +427,12 @@ public class AdminSystemController {
 
     public record AolMetricsResponse(Map<String, Object> metrics) {}
 
+    public record BotStatsResponse(int registeredBots, long responseTimeoutMs, int maxConcurrentPerBot,
+                                   int maxQueuedPerBot, List<BotExecutionService.BotLaneStats> bots,
+                                   long timestamp) {}
+
+    public record TransferStatsResponse(Map<String, Object> engine, List<XferTransferState.Progress> transfers,
+                                        long timestamp) {}
+
     public record RoleResponse(String message, int userId, String username, String newRole) {}
 }
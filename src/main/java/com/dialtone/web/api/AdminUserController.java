@@ -385,8 +385,9 @@ public class AdminUserController {
 
             List<Screenname> screennames = userService.getScreennamesForUser(userId);
 
-            // Delete the user
+            // Delete the user (and their roles)
             userService.deleteUser(userId);
+            adminSecurityService.invalidateRole(userId);
 
             ctx.json(new DeleteResponse("User deleted successfully", userId, targetUser.xUsername()));
 
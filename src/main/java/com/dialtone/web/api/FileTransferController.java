@@ -45,7 +45,8 @@ import java.util.stream.Collectors;
  * <ul>
  *   <li>GET /api/transfer/connected-screennames - List user's connected screennames</li>
  *   <li>GET /api/transfer/config - Get transfer configuration</li>
- *   <li>POST /api/transfer/upload - Upload file and initiate download to client</li>
+ *   <li>POST /api/transfer/upload - Upload file and initiate (or queue) download to client</li>
+ *   <li>GET /api/transfer/progress - Progress of downloads to user's connected screennames</li>
  *   <li>POST /api/transfer/request-upload - Request file upload from client</li>
  *   <li>GET /api/transfer/uploads/{screenname} - List uploaded files for screenname</li>
  *   <li>GET /api/transfer/uploads/{screenname}/{filename} - Download an uploaded file</li>
@@ -229,10 +230,10 @@ public class FileTransferController {
                 return;
             }
 
-            // Check if there's already a pending transfer
-            if (registry.hasTransferAwaitingXg()) {
+            // Further transfers queue behind the active one, up to a limit
+            if (registry.isBusy() && registry.isQueueFull()) {
                 ctx.status(409).json(SharedErrorResponse.conflict(
-                    "A file transfer is already in progress for this screenname. Please wait."));
+                    "Too many file transfers are queued for this screenname. Please wait."));
                 return;
             }
 
@@ -265,10 +266,14 @@ public class FileTransferController {
             connection.getPacer().drainLimited(connection.getContext(), 16);
 
             // Build success response
+            String message = state.getPhase() == XferTransferState.Phase.QUEUED
+                ? String.format("File transfer queued (%d waiting). It will start when the current transfer finishes.",
+                    registry.getQueuedCount())
+                : "File transfer initiated. Awaiting client acknowledgment.";
             TransferResponse response = new TransferResponse(
                 true,
                 state.getTransferId(),
-                String.format("File transfer initiated. Awaiting client acknowledgment."),
+                message,
                 filename,
                 fileData.length,
                 targetScreenname
@@ -282,12 +287,52 @@ public class FileTransferController {
             LoggerUtil.warn("CSRF validation failed for file upload: " + e.getMessage());
             ctx.status(403).json(SharedErrorResponse.csrfFailed("Invalid or missing CSRF token"));
 
+        } catch (IllegalStateException e) {
+            // Queue filled up between the check and the initiate
+            ctx.status(409).json(SharedErrorResponse.conflict(
+                "Too many file transfers are queued for this screenname. Please wait."));
+
         } catch (Exception e) {
             LoggerUtil.error("Failed to upload file: " + e.getMessage());
             ctx.status(500).json(SharedErrorResponse.serverError("Failed to initiate file transfer: " + e.getMessage()));
         }
     }
 
+    /**
+     * Get progress, rate and ETA of active and queued downloads to the user's connected screennames.
+     * GET /api/transfer/progress
+     */
+    public void getTransferProgress(Context ctx) {
+        try {
+            User user = getAuthenticatedUser(ctx);
+            if (user == null) return;
+
+            List<XferTransferState.Progress> transfers = new ArrayList<>();
+            for (Screenname sn : screennameService.getScreennamesForUser(user.id())) {
+                UserRegistry.UserConnection connection = userRegistry.getConnection(sn.screenname());
+                if (connection == null || !connection.isActive()) {
+                    continue;
+                }
+                XferTransferRegistry registry = connection.getContext().channel()
+                    .attr(StatefulClientHandler.XFER_REGISTRY_KEY).get();
+                if (registry != null) {
+                    for (XferTransferState state : registry.listTransfers()) {
+                        transfers.add(state.getProgress());
+                    }
+                }
+            }
+
+            ctx.json(new TransferProgressResponse(transfers, transfers.size()));
+
+        } catch (ScreennameService.ScreennameServiceException e) {
+            LoggerUtil.error("Failed to get screennames: " + e.getMessage());
+            ctx.status(500).json(SharedErrorResponse.serverError("Failed to retrieve screennames"));
+        } catch (Exception e) {
+            LoggerUtil.error("Failed to get transfer progress: " + e.getMessage());
+            ctx.status(500).json(SharedErrorResponse.serverError("Failed to retrieve transfer progress"));
+        }
+    }
+
     /**
      * Get max file size in bytes.
      * Exposed for frontend to display limit.
@@ -683,6 +728,8 @@ public class FileTransferController {
 
     public record TransferConfig(long maxFileSizeMb) {}
 
+    public record TransferProgressResponse(List<XferTransferState.Progress> transfers, int count) {}
+
     // Upload DTOs
 
     public record RequestUploadRequest(String screenname) {}
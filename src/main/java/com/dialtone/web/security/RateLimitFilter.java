@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.web.security;
+
+import com.dialtone.ratelimit.RateLimiter;
+import com.dialtone.ratelimit.RateLimiters;
+import com.dialtone.utils.LoggerUtil;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Before-handler that limits requests per client IP with one of the shared
+ * {@link RateLimiters}.
+ *
+ * Over-limit requests get 429 with a Retry-After header and no further handlers run,
+ * so authentication and the endpoint itself are never reached.
+ *
+ * The key is the connection's peer address. X-Forwarded-For is client-controlled, so it is
+ * only read when the peer is one of the proxies listed in {@code web.trusted.proxies}, and
+ * then the right-most address not in that list is used.
+ */
+public class RateLimitFilter implements Handler {
+
+    private final String limiterName;
+    private final Set<String> trustedProxies;
+
+    /**
+     * @param limiterName limiter to draw from, e.g. {@link RateLimiters#WEB_AUTH_IP}
+     * @param trustedProxies addresses of reverse proxies whose X-Forwarded-For is believed
+     */
+    public RateLimitFilter(String limiterName, Set<String> trustedProxies) {
+        this.limiterName = limiterName;
+        this.trustedProxies = trustedProxies;
+    }
+
+    /**
+     * Read {@code web.trusted.proxies}, a comma-separated list of proxy IP addresses.
+     *
+     * @param properties application properties
+     * @return trusted proxy addresses (empty if unset)
+     */
+    public static Set<String> trustedProxies(Properties properties) {
+        return Arrays.stream(properties.getProperty("web.trusted.proxies", "").split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Work out which address a request is charged to.
+     *
+     * @param peerIp address of the connection
+     * @param forwardedFor X-Forwarded-For header, or null
+     * @param trustedProxies proxies whose X-Forwarded-For is believed
+     * @return the peer, or the right-most forwarded hop that is not a trusted proxy
+     */
+    public static String resolveClientIp(String peerIp, String forwardedFor, Set<String> trustedProxies) {
+        if (forwardedFor == null || forwardedFor.isBlank() || !trustedProxies.contains(peerIp)) {
+            return peerIp;
+        }
+        String[] hops = forwardedFor.split(",");
+        String client = peerIp;
+        // Walk back from the nearest hop; everything left of the first untrusted one is unverified
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                break;
+            }
+            client = hop;
+            if (!trustedProxies.contains(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    @Override
+    public void handle(Context ctx) throws Exception {
+        // Skip OPTIONS requests (CORS preflight)
+        if ("OPTIONS".equals(ctx.method().toString())) {
+            return;
+        }
+
+        String clientIp = resolveClientIp(ctx.ip(), ctx.header("X-Forwarded-For"), trustedProxies);
+        RateLimiters limiters = RateLimiters.getInstance();
+        if (limiters.tryAcquire(limiterName, clientIp)) {
+            return;
+        }
+
+        RateLimiter limiter = limiters.get(limiterName);
+        LoggerUtil.debug(String.format("Rate limit %s exceeded: %s %s from IP %s",
+                        limiterName, ctx.method(), ctx.path(), clientIp));
+        ctx.header("Retry-After", String.valueOf(limiter.retryAfterSeconds()));
+        ctx.status(429).json(new AdminAuthenticationFilter.ErrorResponse("Rate limit exceeded",
+                "Too many requests. Please wait before trying again."));
+        ctx.skipRemainingHandlers();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.web.security;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revoked token IDs, with a bloom filter in front for fast negative checks.
+ *
+ * <p>Almost every token checked is not revoked, so {@link #isRevoked} first asks the
+ * bloom filter and only consults the map on a possible hit. The version counter advances
+ * on every revocation; a caller that remembers the version it last checked a token
+ * against can skip the check entirely while nothing new has been revoked.</p>
+ *
+ * <p>Entries are kept until the token would have expired anyway; {@link #removeExpired}
+ * drops them and rebuilds the filter.</p>
+ */
+public final class TokenDenylist {
+
+    /** Filter size in bits (8 KB); keeps false positives rare for tens of thousands of revocations */
+    private static final int FILTER_BITS = 1 << 16;
+    private static final int HASH_PROBES = 4;
+
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long[] filter = new long[FILTER_BITS / 64];
+
+    /**
+     * Revoke a token ID until its expiry.
+     *
+     * @param tokenId JWT ID ({@code jti})
+     * @param expiry when the token expires and the entry may be dropped
+     */
+    public void revoke(String tokenId, Instant expiry) {
+        // Under the lock so a concurrent filter rebuild cannot miss the new entry
+        synchronized (this) {
+            addToFilter(filter, tokenId);
+            revoked.put(tokenId, expiry);
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * @param tokenId JWT ID, may be null
+     * @return true if the token ID has been revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Bloom filter check: false means definitely not revoked.
+     */
+    boolean mightContain(String tokenId) {
+        long[] bits = filter;
+        long h = hash(tokenId);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < HASH_PROBES; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % FILTER_BITS;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return counter that advances on every revocation
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Drop entries whose tokens have expired and rebuild the filter from the rest.
+     *
+     * @param now cutoff time
+     * @return number of entries removed
+     */
+    public int removeExpired(Instant now) {
+        int initialSize = revoked.size();
+        revoked.entrySet().removeIf(entry -> entry.getValue().isBefore(now));
+        int removedCount = initialSize - revoked.size();
+
+        if (removedCount > 0) {
+            synchronized (this) {
+                long[] rebuilt = new long[FILTER_BITS / 64];
+                revoked.keySet().forEach(tokenId -> addToFilter(rebuilt, tokenId));
+                filter = rebuilt;
+            }
+        }
+        return removedCount;
+    }
+
+    /**
+     * @return number of revoked token IDs still held
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    private static void addToFilter(long[] bits, String tokenId) {
+        long h = hash(tokenId);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < HASH_PROBES; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % FILTER_BITS;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a with a murmur finalizer; split into two 32-bit hashes for double hashing.
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
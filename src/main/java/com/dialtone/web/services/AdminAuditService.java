@@ -4,6 +4,7 @@
 
 package com.dialtone.web.services;
 
+import com.dialtone.db.AppendOnlyWriter;
 import com.dialtone.db.DatabaseManager;
 import com.dialtone.db.models.User;
 import com.dialtone.utils.JacksonConfig;
@@ -17,6 +18,7 @@ import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -25,13 +27,60 @@ import java.util.Properties;
  * Service for audit logging of admin actions.
  *
  * Records all administrative actions with context for compliance and security monitoring.
- * Supports automatic cleanup based on retention policy.
+ * Entries are written asynchronously in batched transactions by an {@link AppendOnlyWriter},
+ * so admin requests never wait for the disk. Retention is enforced by the same writer thread
+ * in short time slices.
  */
 public class AdminAuditService {
 
+    private static final String INSERT_SQL = """
+        INSERT INTO admin_audit_log
+        (admin_user_id, action, target_user_id, target_screenname_id, details, ip_address, user_agent)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final String DELETE_EXPIRED_SQL = """
+        DELETE FROM admin_audit_log
+        WHERE id IN (
+            SELECT id FROM admin_audit_log
+            WHERE created_at < datetime('now', '-' || ? || ' days')
+            LIMIT ?
+        )
+    """;
+
+    private static final String DELETE_UP_TO_ID_SQL = """
+        DELETE FROM admin_audit_log
+        WHERE id IN (
+            SELECT id FROM admin_audit_log
+            WHERE id <= ?
+            ORDER BY id
+            LIMIT ?
+        )
+    """;
+
+    /** Rows deleted per statement, keeping each write transaction short */
+    private static final int CLEANUP_CHUNK_ROWS = 500;
+
+    /** How long a manual cleanup waits for queued entries to be written first */
+    private static final long FLUSH_TIMEOUT_MS = 5000;
+
     private final DatabaseManager databaseManager;
     private final int retentionDays;
     private final int maxEntries;
+    private final AppendOnlyWriter<AuditRecord> writer;
+
+    /**
+     * Pending audit entry; details are serialized on the writer thread.
+     */
+    private record AuditRecord(
+        int adminUserId,
+        String action,
+        Integer targetUserId,
+        Integer targetScreennameId,
+        Map<String, Object> details,
+        String ipAddress,
+        String userAgent
+    ) {}
 
     /**
      * Admin audit log entry.
@@ -61,8 +110,18 @@ public class AdminAuditService {
         this.retentionDays = Integer.parseInt(config.getProperty("admin.audit.log.retention.days", "365"));
         this.maxEntries = Integer.parseInt(config.getProperty("admin.audit.log.max.entries", "100000"));
 
-        LoggerUtil.info(String.format("AdminAuditService initialized - retention=%d days, max_entries=%d",
-                       retentionDays, maxEntries));
+        int queueCapacity = Integer.parseInt(config.getProperty("admin.audit.writer.queue.capacity", "10000"));
+        int batchSize = Integer.parseInt(config.getProperty("admin.audit.writer.batch.size", "256"));
+        long flushIntervalMs = Long.parseLong(config.getProperty("admin.audit.writer.flush.interval.ms", "50"));
+        long cleanupIntervalMs = Long.parseLong(config.getProperty("admin.audit.cleanup.interval.ms", "60000"));
+        long cleanupSliceMs = Long.parseLong(config.getProperty("admin.audit.cleanup.slice.ms", "50"));
+
+        this.writer = new AppendOnlyWriter<>("admin-audit", databaseManager.getDataSource(), INSERT_SQL,
+                AdminAuditService::bindRecord, queueCapacity, batchSize, flushIntervalMs,
+                this::enforceRetention, cleanupIntervalMs, cleanupSliceMs);
+
+        LoggerUtil.info(String.format("AdminAuditService initialized - retention=%d days, max_entries=%d, " +
+                       "batch=%d, flush=%dms", retentionDays, maxEntries, batchSize, flushIntervalMs));
     }
 
     /**
@@ -78,26 +137,14 @@ public class AdminAuditService {
      */
     public void logAction(User admin, String action, Integer targetUserId, Integer targetScreennameId,
                          Map<String, Object> details, String ipAddress, String userAgent) {
-        try {
-            String detailsJson = null;
-            if (details != null && !details.isEmpty()) {
-                detailsJson = JacksonConfig.mapper().writeValueAsString(details);
-            }
-
-            insertAuditEntry(admin.id(), action, targetUserId, targetScreennameId,
-                           detailsJson, ipAddress, userAgent);
+        // Copy details so later changes by the caller do not leak into the queued entry
+        Map<String, Object> detailsCopy = details != null && !details.isEmpty() ? new LinkedHashMap<>(details) : null;
 
-            LoggerUtil.info(String.format("Admin action logged: %s by %s (id=%d) on target_user=%s target_screenname=%s",
-                          action, admin.xUsername(), admin.id(), targetUserId, targetScreennameId));
+        writer.append(new AuditRecord(admin.id(), action, targetUserId, targetScreennameId,
+                                      detailsCopy, ipAddress, userAgent));
 
-        } catch (JsonProcessingException e) {
-            LoggerUtil.error(String.format("Failed to serialize audit details for action %s by user %d: %s",
-                           action, admin.id(), e.getMessage()));
-
-            // Log without details if serialization fails
-            insertAuditEntry(admin.id(), action, targetUserId, targetScreennameId,
-                           "SERIALIZATION_ERROR", ipAddress, userAgent);
-        }
+        LoggerUtil.info(String.format("Admin action logged: %s by %s (id=%d) on target_user=%s target_screenname=%s",
+                      action, admin.xUsername(), admin.id(), targetUserId, targetScreennameId));
     }
 
     /**
@@ -247,20 +294,14 @@ public class AdminAuditService {
     /**
      * Cleans up old audit log entries based on retention policy.
      *
+     * <p>Deletes in chunks so the writer thread is never locked out for long.</p>
+     *
      * @return Number of entries deleted
      */
     public int cleanupOldEntries() {
-        String sql = """
-            DELETE FROM admin_audit_log
-            WHERE created_at < datetime('now', '-' || ? || ' days')
-        """;
-
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, retentionDays);
-
-            int deletedCount = stmt.executeUpdate();
+        writer.flush(FLUSH_TIMEOUT_MS);
+        try (Connection conn = databaseManager.getDataSource().getConnection()) {
+            int deletedCount = deleteExpired(conn, Long.MAX_VALUE);
 
             if (deletedCount > 0) {
                 LoggerUtil.info(String.format("Cleaned up %d old audit log entries (older than %d days)",
@@ -281,40 +322,77 @@ public class AdminAuditService {
      * @return Number of entries deleted
      */
     public int cleanupExcessEntries() {
-        // First, get current count
-        int currentCount = getAuditLogCount(null, null);
+        writer.flush(FLUSH_TIMEOUT_MS);
+        try (Connection conn = databaseManager.getDataSource().getConnection()) {
+            int deletedCount = deleteExcess(conn, Long.MAX_VALUE);
 
-        if (currentCount <= maxEntries) {
-            return 0; // No cleanup needed
-        }
+            if (deletedCount > 0) {
+                LoggerUtil.info(String.format("Cleaned up %d excess audit log entries (max=%d)",
+                              deletedCount, maxEntries));
+            }
 
-        int entriesToDelete = currentCount - maxEntries;
+            return deletedCount;
 
-        String sql = """
-            DELETE FROM admin_audit_log
-            WHERE id IN (
-                SELECT id FROM admin_audit_log
-                ORDER BY created_at ASC
-                LIMIT ?
-            )
-        """;
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to cleanup excess audit entries: " + e.getMessage());
+            return 0;
+        }
+    }
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Flushes queued entries and stops the writer. Call before closing the database.
+     */
+    public void close() {
+        writer.close();
+    }
 
-            stmt.setInt(1, entriesToDelete);
+    /**
+     * Periodic retention run on the writer thread; stops at the deadline and resumes next time.
+     */
+    private void enforceRetention(Connection conn, long deadlineNanos) throws SQLException {
+        int deletedOld = deleteExpired(conn, deadlineNanos);
+        int deletedExcess = System.nanoTime() < deadlineNanos ? deleteExcess(conn, deadlineNanos) : 0;
 
-            int deletedCount = stmt.executeUpdate();
+        if (deletedOld + deletedExcess > 0) {
+            LoggerUtil.debug(() -> String.format("Audit retention removed %d expired and %d excess entries",
+                           deletedOld, deletedExcess));
+        }
+    }
 
-            LoggerUtil.info(String.format("Cleaned up %d excess audit log entries (max=%d)",
-                          deletedCount, maxEntries));
+    private int deleteExpired(Connection conn, long deadlineNanos) throws SQLException {
+        return deleteInChunks(conn, DELETE_EXPIRED_SQL, retentionDays, deadlineNanos);
+    }
 
-            return deletedCount;
+    private int deleteExcess(Connection conn, long deadlineNanos) throws SQLException {
+        // Newest id that falls outside the max-entries window; everything up to it goes
+        long cutoffId;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id FROM admin_audit_log ORDER BY id DESC LIMIT 1 OFFSET ?")) {
+            stmt.setInt(1, maxEntries);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return 0; // No cleanup needed
+            }
+            cutoffId = rs.getLong(1);
+        }
+        return deleteInChunks(conn, DELETE_UP_TO_ID_SQL, cutoffId, deadlineNanos);
+    }
 
-        } catch (SQLException e) {
-            LoggerUtil.error("Failed to cleanup excess audit entries: " + e.getMessage());
-            return 0;
+    /**
+     * Runs a chunked DELETE (bound value, then chunk size) until nothing is left or the deadline passes.
+     */
+    private static int deleteInChunks(Connection conn, String sql, long value, long deadlineNanos) throws SQLException {
+        int total = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, value);
+            stmt.setInt(2, CLEANUP_CHUNK_ROWS);
+            int deleted;
+            do {
+                deleted = stmt.executeUpdate();
+                total += deleted;
+            } while (deleted == CLEANUP_CHUNK_ROWS && System.nanoTime() < deadlineNanos);
         }
+        return total;
     }
 
     /**
@@ -358,37 +436,34 @@ public class AdminAuditService {
             LoggerUtil.error("Failed to get audit statistics: " + e.getMessage());
         }
 
+        stats.put("writer", writer.getMetrics());
+
         return stats;
     }
 
     /**
-     * Internal method to insert audit entry into database.
+     * Binds a queued entry to {@link #INSERT_SQL}; runs on the writer thread.
      */
-    private void insertAuditEntry(int adminUserId, String action, Integer targetUserId,
-                                 Integer targetScreennameId, String details,
-                                 String ipAddress, String userAgent) {
-        String sql = """
-            INSERT INTO admin_audit_log
-            (admin_user_id, action, target_user_id, target_screenname_id, details, ip_address, user_agent)
-            VALUES (?, ?, ?, ?, ?, ?, ?)
-        """;
-
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, adminUserId);
-            stmt.setString(2, action);
-            stmt.setObject(3, targetUserId);
-            stmt.setObject(4, targetScreennameId);
-            stmt.setString(5, details);
-            stmt.setString(6, ipAddress);
-            stmt.setString(7, userAgent);
-
-            stmt.executeUpdate();
-
-        } catch (SQLException e) {
-            LoggerUtil.error(String.format("Failed to insert audit entry: action=%s, admin_user=%d - %s",
-                           action, adminUserId, e.getMessage()));
+    private static void bindRecord(PreparedStatement stmt, AuditRecord record) throws SQLException {
+        String detailsJson = null;
+        if (record.details() != null) {
+            try {
+                detailsJson = JacksonConfig.mapper().writeValueAsString(record.details());
+            } catch (JsonProcessingException e) {
+                LoggerUtil.error(String.format("Failed to serialize audit details for action %s by user %d: %s",
+                               record.action(), record.adminUserId(), e.getMessage()));
+
+                // Log without details if serialization fails
+                detailsJson = "SERIALIZATION_ERROR";
+            }
         }
+
+        stmt.setInt(1, record.adminUserId());
+        stmt.setString(2, record.action());
+        stmt.setObject(3, record.targetUserId());
+        stmt.setObject(4, record.targetScreennameId());
+        stmt.setString(5, detailsJson);
+        stmt.setString(6, record.ipAddress());
+        stmt.setString(7, record.userAgent());
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,8 @@ package com.dialtone.web.services;
 
 import com.dialtone.db.DatabaseManager;
 import com.dialtone.db.models.User;
+import com.dialtone.ratelimit.RateLimitPolicy;
+import com.dialtone.ratelimit.RateLimiter;
 import com.dialtone.utils.LoggerUtil;
 
 import java.sql.Connection;
@@ -14,11 +16,13 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Service for managing admin security, role verification, and access control.
@@ -39,9 +43,29 @@ public class AdminSecurityService {
     private final int rateLimitPerMinute;
     private final DatabaseManager databaseManager;
 
-    // Rate limiting: admin user ID -> last action times
-    private final ConcurrentHashMap<Integer, Long> lastActionTimes = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Integer, Integer> actionCounts = new ConcurrentHashMap<>();
+    // Admins are few, so a small key bound is plenty
+    private static final int MAX_RATE_LIMITED_ADMINS = 1_000;
+
+    // Rate limiting: one token bucket per admin user ID
+    private final RateLimiter actionLimiter;
+
+    // Role lookups are cached briefly; grant/revoke invalidate immediately
+    private static final int ROLE_CACHE_MAX_ENTRIES = 10_000;
+    private final long roleCacheTtlMs;
+
+    private record RoleSnapshot(boolean admin, long expiresAtMillis) {}
+
+    private final Map<Integer, RoleSnapshot> roleCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, RoleSnapshot> eldest) {
+                    return size() > ROLE_CACHE_MAX_ENTRIES;
+                }
+            });
+
+    // Bumped per user on every invalidation, under the roleCache lock; a lookup that saw an
+    // older generation must not cache what it read
+    private final Map<Integer, Long> roleGenerations = new HashMap<>();
 
     /**
      * Creates AdminSecurityService with configuration.
@@ -55,6 +79,9 @@ public class AdminSecurityService {
         this.maxScreennamesOverride = Integer.parseInt(config.getProperty("admin.max.screennames.override", "10"));
         this.sessionTimeoutMinutes = Integer.parseInt(config.getProperty("admin.session.timeout.minutes", "30"));
         this.rateLimitPerMinute = Integer.parseInt(config.getProperty("admin.rate.limit.requests.per.minute", "60"));
+        this.actionLimiter = new RateLimiter("admin.actions", RateLimitPolicy.perMinute(rateLimitPerMinute),
+                MAX_RATE_LIMITED_ADMINS);
+        this.roleCacheTtlMs = Long.parseLong(config.getProperty("admin.role.cache.ttl.seconds", "60")) * 1000;
 
         // Parse admin X usernames from configuration
         String adminUsernamesConfig = config.getProperty("admin.x.usernames", "");
@@ -115,8 +142,22 @@ public class AdminSecurityService {
 
     /**
      * Checks if user has admin role in database.
+     *
+     * Results are cached for {@code admin.role.cache.ttl.seconds}, so admin dashboard
+     * polling does not query user_roles on every request.
      */
     public boolean hasAdminRole(int userId) {
+        long now = System.currentTimeMillis();
+        RoleSnapshot cached;
+        long generation;
+        synchronized (roleCache) {
+            cached = roleCache.get(userId);
+            generation = roleGenerations.getOrDefault(userId, 0L);
+        }
+        if (cached != null && now < cached.expiresAtMillis()) {
+            return cached.admin();
+        }
+
         String sql = """
             SELECT COUNT(*) FROM user_roles
             WHERE user_id = ? AND role = 'admin'
@@ -129,7 +170,16 @@ public class AdminSecurityService {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
 
-            return rs.next() && rs.getInt(1) > 0;
+            boolean admin = rs.next() && rs.getInt(1) > 0;
+            if (roleCacheTtlMs > 0) {
+                synchronized (roleCache) {
+                    // Skip if a grant or revoke ran meanwhile: this row may predate it
+                    if (roleGenerations.getOrDefault(userId, 0L) == generation) {
+                        roleCache.put(userId, new RoleSnapshot(admin, now + roleCacheTtlMs));
+                    }
+                }
+            }
+            return admin;
 
         } catch (SQLException e) {
             LoggerUtil.error(String.format("Failed to check admin role for user %d - %s", userId, e.getMessage()));
@@ -156,6 +206,7 @@ public class AdminSecurityService {
             stmt.setInt(2, grantedBy);
 
             int rowsAffected = stmt.executeUpdate();
+            invalidateRole(userId);
 
             if (rowsAffected > 0) {
                 LoggerUtil.info(String.format("Granted admin role to user %d by user %d", userId, grantedBy));
@@ -175,6 +226,7 @@ public class AdminSecurityService {
             stmt.setInt(1, userId);
 
             int rowsAffected = stmt.executeUpdate();
+            invalidateRole(userId);
 
             if (rowsAffected > 0) {
                 LoggerUtil.info(String.format("Revoked admin role from user %d", userId));
@@ -182,6 +234,18 @@ public class AdminSecurityService {
         }
     }
 
+    /**
+     * Forgets a cached role lookup, e.g. after the user's roles were changed elsewhere.
+     *
+     * @param userId User whose role to re-read on next check
+     */
+    public void invalidateRole(int userId) {
+        synchronized (roleCache) {
+            roleGenerations.merge(userId, 1L, Long::sum);
+            roleCache.remove(userId);
+        }
+    }
+
     /**
      * Checks if admin can perform action based on rate limiting.
      *
@@ -193,34 +257,12 @@ public class AdminSecurityService {
             return false;
         }
 
-        long currentTime = System.currentTimeMillis();
-        long currentMinute = currentTime / (60 * 1000);
-
-        // Clean up old entries (older than 1 minute)
-        lastActionTimes.entrySet().removeIf(entry ->
-            (currentTime - entry.getValue()) > TimeUnit.MINUTES.toMillis(1));
-        actionCounts.entrySet().removeIf(entry ->
-            !lastActionTimes.containsKey(entry.getKey()));
-
-        // Check rate limit for this user
-        int currentCount = actionCounts.getOrDefault(adminUserId, 0);
-        Long lastActionTime = lastActionTimes.get(adminUserId);
-
-        // Reset count if it's a new minute
-        if (lastActionTime == null || (lastActionTime / (60 * 1000)) < currentMinute) {
-            currentCount = 0;
-        }
-
-        if (currentCount >= rateLimitPerMinute) {
-            LoggerUtil.warn(String.format("Rate limit exceeded for admin user %d: %d actions in current minute",
-                          adminUserId, currentCount));
+        if (!actionLimiter.tryAcquire(String.valueOf(adminUserId))) {
+            LoggerUtil.warn(String.format("Rate limit exceeded for admin user %d: more than %d actions per minute",
+                          adminUserId, rateLimitPerMinute));
             return false;
         }
 
-        // Update tracking
-        lastActionTimes.put(adminUserId, currentTime);
-        actionCounts.put(adminUserId, currentCount + 1);
-
         return true;
     }
 
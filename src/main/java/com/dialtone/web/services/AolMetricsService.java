@@ -4,7 +4,14 @@
 
 package com.dialtone.web.services;
 
+import com.dialtone.chat.ChatRoomManager;
 import com.dialtone.db.DatabaseManager;
+import com.dialtone.protocol.im.ImMailbox;
+import com.dialtone.protocol.news.NewsStoryPublisher;
+import com.dialtone.protocol.xfer.XferTransferEngine;
+import com.dialtone.ratelimit.RateLimiters;
+import com.dialtone.server.AdmissionController;
+import com.dialtone.state.StallMonitor;
 import com.dialtone.utils.LoggerUtil;
 
 import java.lang.management.ManagementFactory;
@@ -61,6 +68,7 @@ public class AolMetricsService {
             ai.put("grokEnabled", isGrokEnabled());
             ai.put("grokModel", getGrokModel());
             ai.put("newsServiceEnabled", isNewsServiceEnabled());
+            ai.put("newsStories", NewsStoryPublisher.getInstance().getMetrics());
             metrics.put("ai", ai);
 
             // Database Health
@@ -70,6 +78,24 @@ public class AolMetricsService {
             database.put("databasePath", getDatabasePath());
             metrics.put("database", database);
 
+            // Chat rooms and tag allocation
+            metrics.put("chat", ChatRoomManager.getInstance().getMetrics());
+
+            // Instant message delivery through per-connection mailboxes
+            metrics.put("instantMessages", ImMailbox.getMetrics());
+
+            // P3 send-window stalls and recovery
+            metrics.put("stalls", StallMonitor.getInstance().getMetrics());
+
+            // XFER download bandwidth sharing
+            metrics.put("transfers", XferTransferEngine.getInstance().getMetrics());
+
+            // Login and web API rate limiters
+            metrics.put("rateLimits", RateLimiters.getInstance().getMetrics());
+
+            // P3 connection admission and event-loop load
+            metrics.put("admission", AdmissionController.getInstance().getMetrics());
+
             metrics.put("timestamp", System.currentTimeMillis());
 
         } catch (Exception e) {
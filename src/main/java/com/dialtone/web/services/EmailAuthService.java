@@ -6,6 +6,9 @@ package com.dialtone.web.services;
 
 import com.dialtone.db.DatabaseManager;
 import com.dialtone.db.models.User;
+import com.dialtone.ratelimit.RateLimitPolicy;
+import com.dialtone.ratelimit.RateLimiter;
+import com.dialtone.ratelimit.TokenBucket;
 import com.dialtone.utils.LoggerUtil;
 
 import java.security.SecureRandom;
@@ -15,7 +18,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.Base64;
 import java.util.Optional;
 import java.util.Properties;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for email-based magic link authentication.
@@ -29,6 +31,8 @@ import java.util.concurrent.ConcurrentHashMap;
 public class EmailAuthService {
     
     private static final int TOKEN_BYTES = 32; // 256-bit token
+    private static final int MAX_RATE_LIMITED_EMAILS = 20_000;
+    private static final int DEFAULT_RATE_LIMIT_PER_HOUR = 3;
     private static final DateTimeFormatter DB_DATETIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     private final DatabaseManager databaseManager;
@@ -38,8 +42,8 @@ public class EmailAuthService {
     private final int rateLimitPerHour;
     private final boolean enabled;
     
-    // Rate limiting: email -> list of request timestamps
-    private final ConcurrentHashMap<String, java.util.List<Long>> rateLimitMap = new ConcurrentHashMap<>();
+    // Rate limiting: one token bucket per email address
+    private final RateLimiter rateLimiter;
     
     private final SecureRandom secureRandom = new SecureRandom();
     
@@ -49,7 +53,9 @@ public class EmailAuthService {
         this.enabled = Boolean.parseBoolean(config.getProperty("email.enabled", "false"));
         this.baseUrl = config.getProperty("email.base.url", "http://localhost:5200");
         this.expiryMinutes = Integer.parseInt(config.getProperty("email.magic.link.expiry.minutes", "15"));
-        this.rateLimitPerHour = Integer.parseInt(config.getProperty("email.rate.limit.per.hour", "3"));
+        this.rateLimitPerHour = readRateLimitPerHour(config);
+        this.rateLimiter = new RateLimiter("email.address", RateLimitPolicy.perHour(rateLimitPerHour),
+                MAX_RATE_LIMITED_EMAILS);
         
         if (enabled) {
             LoggerUtil.info("EmailAuthService initialized (expiry: " + expiryMinutes + " min, rate limit: " + rateLimitPerHour + "/hr)");
@@ -58,6 +64,28 @@ public class EmailAuthService {
         }
     }
     
+    /**
+     * Read {@code email.rate.limit.per.hour}, keeping the default if it is malformed or
+     * outside what a {@link TokenBucket} can hold.
+     */
+    private static int readRateLimitPerHour(Properties config) {
+        String value = config.getProperty("email.rate.limit.per.hour");
+        if (value == null || value.isBlank()) {
+            return DEFAULT_RATE_LIMIT_PER_HOUR;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed >= 1 && parsed <= TokenBucket.MAX_CAPACITY) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the default
+        }
+        LoggerUtil.warn("Invalid email.rate.limit.per.hour value: " + value + ", using default: "
+                + DEFAULT_RATE_LIMIT_PER_HOUR);
+        return DEFAULT_RATE_LIMIT_PER_HOUR;
+    }
+    
     /**
      * Check if email authentication is enabled.
      */
@@ -85,8 +113,8 @@ public class EmailAuthService {
             throw new AuthenticationException("Invalid email address format");
         }
         
-        // Check rate limit
-        if (isRateLimited(normalizedEmail)) {
+        // Check rate limit (takes a token for this request)
+        if (!rateLimiter.tryAcquire(normalizedEmail)) {
             LoggerUtil.warn("Rate limit exceeded for email: " + maskEmail(normalizedEmail) + " from IP: " + ipAddress);
             throw new AuthenticationException("Too many login attempts. Please try again later.");
         }
@@ -110,15 +138,15 @@ public class EmailAuthService {
             // Send email
             emailService.sendMagicLinkEmail(normalizedEmail, magicLinkUrl, expiryMinutes);
             
-            // Record rate limit
-            recordRateLimitRequest(normalizedEmail);
-            
             LoggerUtil.info("Magic link sent to: " + maskEmail(normalizedEmail) + " (userId: " + userId + ", IP: " + ipAddress + ")");
             
         } catch (ResendEmailService.EmailSendException e) {
+            // Only sent links count against the address
+            rateLimiter.refund(normalizedEmail);
             LoggerUtil.error("Failed to send magic link email: " + e.getMessage());
             throw new AuthenticationException("Failed to send email. Please try again.", e);
         } catch (SQLException e) {
+            rateLimiter.refund(normalizedEmail);
             LoggerUtil.error("Database error storing magic link token: " + e.getMessage());
             throw new AuthenticationException("An error occurred. Please try again.", e);
         }
@@ -193,11 +221,12 @@ public class EmailAuthService {
     public int cleanupExpiredTokens() {
         String sql = "DELETE FROM magic_link_tokens WHERE expires_at < ?";
         
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, LocalDateTime.now().format(DB_DATETIME_FORMAT));
-            int deleted = stmt.executeUpdate();
+        try {
+            int deleted = databaseManager.write(session -> {
+                PreparedStatement stmt = session.prepare(sql);
+                stmt.setString(1, LocalDateTime.now().format(DB_DATETIME_FORMAT));
+                return stmt.executeUpdate();
+            });
             
             if (deleted > 0) {
                 LoggerUtil.info("Cleaned up " + deleted + " expired magic link tokens");
@@ -228,40 +257,16 @@ public class EmailAuthService {
                email.length() <= 254;
     }
     
-    private boolean isRateLimited(String email) {
-        java.util.List<Long> requests = rateLimitMap.get(email);
-        if (requests == null) {
-            return false;
-        }
-        
-        long oneHourAgo = System.currentTimeMillis() - (60 * 60 * 1000);
-        
-        // Remove old requests
-        requests.removeIf(timestamp -> timestamp < oneHourAgo);
-        
-        return requests.size() >= rateLimitPerHour;
-    }
-    
-    private void recordRateLimitRequest(String email) {
-        rateLimitMap.computeIfAbsent(email, k -> new java.util.concurrent.CopyOnWriteArrayList<>())
-                    .add(System.currentTimeMillis());
-    }
-    
     private Integer findUserIdByEmail(String email) throws SQLException {
         String sql = "SELECT id FROM users WHERE email = ? AND is_active = 1";
         
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        return databaseManager.read(session -> {
+            PreparedStatement stmt = session.prepare(sql);
             stmt.setString(1, email);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt("id");
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("id") : null;
             }
-            
-            return null;
-        }
+        });
     }
     
     private void storeMagicLinkToken(String email, String token, Integer userId, 
@@ -271,9 +276,8 @@ public class EmailAuthService {
             VALUES (?, ?, ?, ?, ?)
         """;
         
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        databaseManager.write(session -> {
+            PreparedStatement stmt = session.prepare(sql);
             stmt.setString(1, email);
             stmt.setString(2, token);
             if (userId != null) {
@@ -284,44 +288,41 @@ public class EmailAuthService {
             stmt.setString(4, expiresAt.format(DB_DATETIME_FORMAT));
             stmt.setString(5, ipAddress);
             
-            stmt.executeUpdate();
-        }
+            return stmt.executeUpdate();
+        });
     }
     
     private MagicLinkToken findMagicLinkToken(String token) throws SQLException {
         String sql = "SELECT id, email, token, user_id, expires_at, used_at FROM magic_link_tokens WHERE token = ?";
         
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        return databaseManager.read(session -> {
+            PreparedStatement stmt = session.prepare(sql);
             stmt.setString(1, token);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return new MagicLinkToken(
-                    rs.getInt("id"),
-                    rs.getString("email"),
-                    rs.getString("token"),
-                    rs.getObject("user_id") != null ? rs.getInt("user_id") : null,
-                    LocalDateTime.parse(rs.getString("expires_at"), DB_DATETIME_FORMAT),
-                    rs.getString("used_at") != null ? LocalDateTime.parse(rs.getString("used_at"), DB_DATETIME_FORMAT) : null
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new MagicLinkToken(
+                        rs.getInt("id"),
+                        rs.getString("email"),
+                        rs.getString("token"),
+                        rs.getObject("user_id") != null ? rs.getInt("user_id") : null,
+                        LocalDateTime.parse(rs.getString("expires_at"), DB_DATETIME_FORMAT),
+                        rs.getString("used_at") != null ? LocalDateTime.parse(rs.getString("used_at"), DB_DATETIME_FORMAT) : null
+                    );
+                }
+                return null;
             }
-            
-            return null;
-        }
+        });
     }
     
     private void markTokenAsUsed(String token) throws SQLException {
         String sql = "UPDATE magic_link_tokens SET used_at = ? WHERE token = ?";
         
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        databaseManager.write(session -> {
+            PreparedStatement stmt = session.prepare(sql);
             stmt.setString(1, LocalDateTime.now().format(DB_DATETIME_FORMAT));
             stmt.setString(2, token);
-            stmt.executeUpdate();
-        }
+            return stmt.executeUpdate();
+        });
     }
     
     private User findUserById(int userId) throws SQLException {
@@ -332,30 +333,28 @@ public class EmailAuthService {
             FROM users WHERE id = ?
         """;
         
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        return databaseManager.read(session -> {
+            PreparedStatement stmt = session.prepare(sql);
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return User.fromDatabase(
-                    rs.getInt("id"),
-                    rs.getString("auth_provider"),
-                    rs.getString("x_user_id"),
-                    rs.getString("x_username"),
-                    rs.getString("x_display_name"),
-                    rs.getString("discord_user_id"),
-                    rs.getString("discord_username"),
-                    rs.getString("discord_display_name"),
-                    rs.getString("email"),
-                    LocalDateTime.parse(rs.getString("created_at"), DB_DATETIME_FORMAT),
-                    rs.getBoolean("is_active")
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return User.fromDatabase(
+                        rs.getInt("id"),
+                        rs.getString("auth_provider"),
+                        rs.getString("x_user_id"),
+                        rs.getString("x_username"),
+                        rs.getString("x_display_name"),
+                        rs.getString("discord_user_id"),
+                        rs.getString("discord_username"),
+                        rs.getString("discord_display_name"),
+                        rs.getString("email"),
+                        LocalDateTime.parse(rs.getString("created_at"), DB_DATETIME_FORMAT),
+                        rs.getBoolean("is_active")
+                    );
+                }
+                return null;
             }
-            
-            return null;
-        }
+        });
     }
     
     private User createEmailUser(String email) throws SQLException {
@@ -364,9 +363,8 @@ public class EmailAuthService {
             VALUES (?, ?, 1, ?)
         """;
         
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
+        int userId = databaseManager.write(session -> {
+            PreparedStatement stmt = session.prepareReturningKeys(sql);
             stmt.setString(1, User.PROVIDER_EMAIL);
             stmt.setString(2, email);
             stmt.setString(3, LocalDateTime.now().format(DB_DATETIME_FORMAT));
@@ -379,43 +377,33 @@ public class EmailAuthService {
             // Try getGeneratedKeys first
             try (ResultSet keys = stmt.getGeneratedKeys()) {
                 if (keys.next()) {
-                    int userId = keys.getInt(1);
-                    LoggerUtil.info("Created new email user: " + maskEmail(email) + " (userId: " + userId + ")");
-                    
-                    return User.fromDatabase(
-                        userId,
-                        User.PROVIDER_EMAIL,
-                        null, null, null, // No X
-                        null, null, null, // No Discord
-                        email,
-                        LocalDateTime.now(),
-                        true
-                    );
+                    return keys.getInt(1);
                 }
             }
             
-            // Fallback: Use SQLite's last_insert_rowid()
+            // Fallback: Use SQLite's last_insert_rowid() (same connection and transaction as the insert)
             LoggerUtil.debug("getGeneratedKeys() failed, falling back to last_insert_rowid()");
-            try (Statement lastIdStmt = conn.createStatement();
+            try (Statement lastIdStmt = session.connection().createStatement();
                  ResultSet rs = lastIdStmt.executeQuery("SELECT last_insert_rowid()")) {
                 if (rs.next()) {
-                    int userId = rs.getInt(1);
-                    LoggerUtil.info("Created new email user (via fallback): " + maskEmail(email) + " (userId: " + userId + ")");
-                    
-                    return User.fromDatabase(
-                        userId,
-                        User.PROVIDER_EMAIL,
-                        null, null, null, // No X
-                        null, null, null, // No Discord
-                        email,
-                        LocalDateTime.now(),
-                        true
-                    );
+                    return rs.getInt(1);
                 }
             }
             
             throw new SQLException("Failed to get generated user ID after insert");
-        }
+        });
+        
+        LoggerUtil.info("Created new email user: " + maskEmail(email) + " (userId: " + userId + ")");
+        
+        return User.fromDatabase(
+            userId,
+            User.PROVIDER_EMAIL,
+            null, null, null, // No X
+            null, null, null, // No Discord
+            email,
+            LocalDateTime.now(),
+            true
+        );
     }
     
     private String maskEmail(String email) {
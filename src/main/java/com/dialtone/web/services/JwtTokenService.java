@@ -6,22 +6,33 @@ package com.dialtone.web.services;
 
 import com.dialtone.db.models.User;
 import com.dialtone.utils.LoggerUtil;
+import com.dialtone.web.security.TokenDenylist;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for JWT token management in the Dialtone web interface.
  *
  * Provides secure token generation, validation, and blacklisting for
  * web session management. Uses JJWT library with proper security practices.
+ *
+ * Verified tokens are cached (keyed by a hash of the token, until the token's own
+ * expiry), so repeat requests with the same token skip parsing and HMAC verification.
  */
 public class JwtTokenService {
 
@@ -30,7 +41,18 @@ public class JwtTokenService {
     private final String issuer;
 
     // Token blacklist for revoked tokens (before expiration)
-    private final ConcurrentHashMap<String, Instant> blacklistedTokens = new ConcurrentHashMap<>();
+    private final TokenDenylist blacklistedTokens = new TokenDenylist();
+
+    /**
+     * A verified token: its user, when it expires, and the denylist version it was last checked against.
+     */
+    private record VerifiedToken(TokenUser tokenUser, long expiresAtMillis, long denylistVersion) {}
+
+    // LRU cache of verified tokens, keyed by token hash
+    private final int cacheMaxEntries;
+    private final Map<String, VerifiedToken> verifiedTokens;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
 
     // Cleanup interval for blacklisted tokens (every hour)
     private static final long BLACKLIST_CLEANUP_INTERVAL_MS = 60 * 60 * 1000;
@@ -59,7 +81,16 @@ public class JwtTokenService {
         // Set issuer
         this.issuer = config.getProperty("jwt.issuer", "dialtone-web-interface");
 
-        LoggerUtil.info("JWT token service initialized with " + expiryHours + "h expiry");
+        this.cacheMaxEntries = Integer.parseInt(config.getProperty("jwt.cache.max.entries", "10000"));
+        this.verifiedTokens = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > cacheMaxEntries;
+            }
+        });
+
+        LoggerUtil.info("JWT token service initialized with " + expiryHours + "h expiry, cache of " +
+                        cacheMaxEntries + " tokens");
     }
 
     /**
@@ -132,6 +163,16 @@ public class JwtTokenService {
             // Clean up expired blacklisted tokens periodically
             cleanupBlacklistIfNeeded();
 
+            // Fast path: token already verified
+            String cacheKey = cacheKey(token);
+            if (cacheKey != null) {
+                TokenValidationResult cached = validateCached(cacheKey);
+                if (cached != null) {
+                    return cached;
+                }
+                cacheMisses.incrementAndGet();
+            }
+
             // Parse and validate token
             Jws<Claims> jws = Jwts.parser()
                 .verifyWith(secretKey)
@@ -144,7 +185,8 @@ public class JwtTokenService {
 
             // Check if token is blacklisted
             String tokenId = claims.getId();
-            if (tokenId != null && blacklistedTokens.containsKey(tokenId)) {
+            long denylistVersion = blacklistedTokens.getVersion();
+            if (blacklistedTokens.isRevoked(tokenId)) {
                 return TokenValidationResult.invalid("Token has been revoked");
             }
 
@@ -181,6 +223,12 @@ public class JwtTokenService {
             TokenUser tokenUser = new TokenUser(userId, authProvider, providerUserId, providerUsername,
                                                displayName, email, xUserId, xUsername, discordUserId, discordUsername, tokenId);
 
+            // Cache until the token's own expiry (tokens without one are always verified in full)
+            Date expiration = claims.getExpiration();
+            if (cacheKey != null && expiration != null && cacheMaxEntries > 0) {
+                verifiedTokens.put(cacheKey, new VerifiedToken(tokenUser, expiration.getTime(), denylistVersion));
+            }
+
             LoggerUtil.debug("Successfully validated token for user: " + providerUsername);
             return TokenValidationResult.valid(tokenUser);
 
@@ -217,18 +265,20 @@ public class JwtTokenService {
 
             if (tokenId != null) {
                 Instant expiry = claims.getExpiration().toInstant();
-                blacklistedTokens.put(tokenId, expiry);
+                blacklistedTokens.revoke(tokenId, expiry);
                 LoggerUtil.debug("Token revoked: " + tokenId);
             }
+            evictCached(token);
 
         } catch (ExpiredJwtException e) {
             // Token is already expired, but we can still blacklist it
             String tokenId = e.getClaims().getId();
             if (tokenId != null) {
                 Instant expiry = e.getClaims().getExpiration().toInstant();
-                blacklistedTokens.put(tokenId, expiry);
+                blacklistedTokens.revoke(tokenId, expiry);
                 LoggerUtil.debug("Expired token revoked: " + tokenId);
             }
+            evictCached(token);
 
         } catch (JwtException e) {
             LoggerUtil.warn("Cannot revoke invalid token: " + e.getMessage());
@@ -245,6 +295,72 @@ public class JwtTokenService {
         return blacklistedTokens.size();
     }
 
+    /**
+     * Gets verified-token cache counters (for monitoring).
+     *
+     * @return cache size, hits and misses
+     */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", verifiedTokens.size());
+        stats.put("hits", cacheHits.get());
+        stats.put("misses", cacheMisses.get());
+        stats.put("revoked", blacklistedTokens.size());
+        return stats;
+    }
+
+    /**
+     * Looks up a previously verified token.
+     *
+     * @return the cached result, or null if the token must be verified in full
+     */
+    private TokenValidationResult validateCached(String cacheKey) {
+        VerifiedToken entry = verifiedTokens.get(cacheKey);
+        if (entry == null) {
+            return null;
+        }
+
+        if (System.currentTimeMillis() >= entry.expiresAtMillis()) {
+            verifiedTokens.remove(cacheKey);
+            return TokenValidationResult.invalid("Token has expired");
+        }
+
+        // Nothing revoked since this entry was checked: skip the denylist entirely
+        long denylistVersion = blacklistedTokens.getVersion();
+        if (entry.denylistVersion() != denylistVersion) {
+            if (blacklistedTokens.isRevoked(entry.tokenUser().tokenId())) {
+                verifiedTokens.remove(cacheKey);
+                return TokenValidationResult.invalid("Token has been revoked");
+            }
+            verifiedTokens.put(cacheKey, new VerifiedToken(entry.tokenUser(), entry.expiresAtMillis(), denylistVersion));
+        }
+
+        cacheHits.incrementAndGet();
+        return TokenValidationResult.valid(entry.tokenUser());
+    }
+
+    private void evictCached(String token) {
+        String cacheKey = cacheKey(token);
+        if (cacheKey != null) {
+            verifiedTokens.remove(cacheKey);
+        }
+    }
+
+    /**
+     * Cache key for a token: its SHA-256, so raw tokens are not kept in memory.
+     */
+    private static String cacheKey(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            return null; // Every JRE ships SHA-256; without it, just skip the cache
+        }
+    }
+
     /**
      * Cleans up expired tokens from blacklist to prevent memory leaks.
      */
@@ -254,15 +370,16 @@ public class JwtTokenService {
             synchronized (this) {
                 if (now - lastCleanup > BLACKLIST_CLEANUP_INTERVAL_MS) {
                     Instant cutoff = Instant.now();
-                    int initialSize = blacklistedTokens.size();
-
-                    blacklistedTokens.entrySet().removeIf(entry -> entry.getValue().isBefore(cutoff));
 
-                    int removedCount = initialSize - blacklistedTokens.size();
+                    int removedCount = blacklistedTokens.removeExpired(cutoff);
                     if (removedCount > 0) {
                         LoggerUtil.debug("Cleaned up " + removedCount + " expired blacklisted tokens");
                     }
 
+                    synchronized (verifiedTokens) {
+                        verifiedTokens.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+                    }
+
                     lastCleanup = now;
                 }
             }
@@ -5,12 +5,12 @@
 package com.dialtone.web.services;
 
 import com.dialtone.db.DatabaseManager;
+import com.dialtone.db.DbSession;
 import com.dialtone.db.models.Screenname;
 import com.dialtone.db.models.User;
 import com.dialtone.utils.LoggerUtil;
 import org.mindrot.jbcrypt.BCrypt;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -50,35 +50,19 @@ public class ScreennameService {
         String sql = "SELECT id, user_id, screenname, password_hash, is_primary, created_at " +
                     "FROM screennames WHERE user_id = ? ORDER BY created_at ASC";
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            List<Screenname> screennames = new ArrayList<>();
-            while (rs.next()) {
-                // SQLite stores timestamps as TEXT in ISO format
-                String createdAtStr = rs.getString("created_at");
-                LocalDateTime createdAtLocal;
-                if (createdAtStr != null && !createdAtStr.isEmpty()) {
-                    // Parse SQLite's ISO format timestamp
-                    createdAtLocal = LocalDateTime.parse(createdAtStr.replace(" ", "T"));
-                } else {
-                    createdAtLocal = LocalDateTime.now();
+        try {
+            return databaseManager.read(session -> {
+                PreparedStatement stmt = session.prepare(sql);
+                stmt.setInt(1, userId);
+
+                List<Screenname> screennames = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        screennames.add(screennameFromResultSet(rs));
+                    }
                 }
-                
-                screennames.add(Screenname.fromDatabase(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("screenname"),
-                    rs.getString("password_hash"),
-                    rs.getBoolean("is_primary"),
-                    createdAtLocal
-                ));
-            }
-
-            return screennames;
+                return screennames;
+            });
 
         } catch (SQLException e) {
             LoggerUtil.error("Failed to get screennames for user " + userId + ": " + e.getMessage());
@@ -157,6 +141,9 @@ public class ScreennameService {
             // Create screenname
             Screenname newScreenname = Screenname.createNew(userId, screenname, passwordHash, isPrimary);
             Screenname savedScreenname = insertScreenname(newScreenname);
+            if (savedScreenname == null) {
+                throw new ScreennameServiceException("Screenname '" + screenname + "' is already taken");
+            }
 
             LoggerUtil.info("Created screenname '" + screenname + "' for user " + userId +
                           " (primary: " + isPrimary + ")");
@@ -202,24 +189,29 @@ public class ScreennameService {
                 throw new ScreennameServiceException("Screenname '" + newScreenname + "' is already taken");
             }
 
-            // Update screenname
+            // Update screenname (re-checking availability in the same write, so two renames cannot race)
             String sql = "UPDATE screennames SET screenname = ? WHERE id = ? AND user_id = ?";
 
-            try (Connection conn = databaseManager.getDataSource().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+            Integer rowsUpdated = databaseManager.write(session -> {
+                if (isScreennameTaken(session, newScreenname)) {
+                    return null;
+                }
+                PreparedStatement stmt = session.prepare(sql);
                 stmt.setString(1, newScreenname);
                 stmt.setInt(2, screennameId);
                 stmt.setInt(3, userId);
+                return stmt.executeUpdate();
+            });
 
-                int rowsUpdated = stmt.executeUpdate();
-                if (rowsUpdated == 0) {
-                    throw new ScreennameServiceException("Screenname not found or access denied");
-                }
-
-                LoggerUtil.info("Updated screenname " + screennameId + " to '" + newScreenname + "'");
-                return existing.withScreenname(newScreenname);
+            if (rowsUpdated == null) {
+                throw new ScreennameServiceException("Screenname '" + newScreenname + "' is already taken");
             }
+            if (rowsUpdated == 0) {
+                throw new ScreennameServiceException("Screenname not found or access denied");
+            }
+
+            LoggerUtil.info("Updated screenname " + screennameId + " to '" + newScreenname + "'");
+            return existing.withScreenname(newScreenname);
 
         } catch (ScreennameServiceException e) {
             throw e;
@@ -255,22 +247,21 @@ public class ScreennameService {
             // Update password
             String sql = "UPDATE screennames SET password_hash = ? WHERE id = ? AND user_id = ?";
 
-            try (Connection conn = databaseManager.getDataSource().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+            int rowsUpdated = databaseManager.write(session -> {
+                PreparedStatement stmt = session.prepare(sql);
                 stmt.setString(1, newPasswordHash);
                 stmt.setInt(2, screennameId);
                 stmt.setInt(3, userId);
+                return stmt.executeUpdate();
+            });
 
-                int rowsUpdated = stmt.executeUpdate();
-                if (rowsUpdated == 0) {
-                    throw new ScreennameServiceException("Screenname not found or access denied");
-                }
-
-                LoggerUtil.info("Updated password for screenname " + screennameId);
-                return existing.withPasswordHash(newPasswordHash);
+            if (rowsUpdated == 0) {
+                throw new ScreennameServiceException("Screenname not found or access denied");
             }
 
+            LoggerUtil.info("Updated password for screenname " + screennameId);
+            return existing.withPasswordHash(newPasswordHash);
+
         } catch (ScreennameServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -288,42 +279,37 @@ public class ScreennameService {
      * @return Updated Screenname object
      */
     public Screenname setPrimary(int screennameId, int userId) throws ScreennameServiceException {
-        try (Connection conn = databaseManager.getDataSource().getConnection()) {
-            conn.setAutoCommit(false);
+        try {
+            // Verify screenname belongs to user
+            Screenname screenname = getScreennameById(screennameId, userId);
+
+            // Set the new primary first, then clear the rest, so a missing target changes nothing.
+            // Always ensure only one primary exists, even if the target is already primary.
+            String setPrimarySql = "UPDATE screennames SET is_primary = 1 WHERE id = ? AND user_id = ?";
+            String clearOthersSql = "UPDATE screennames SET is_primary = 0 WHERE user_id = ? AND id != ?";
 
-            try {
-                // Verify screenname belongs to user
-                Screenname screenname = getScreennameById(screennameId, userId);
+            int rowsUpdated = databaseManager.write(session -> {
+                PreparedStatement stmt = session.prepare(setPrimarySql);
+                stmt.setInt(1, screennameId);
+                stmt.setInt(2, userId);
+                int updated = stmt.executeUpdate();
 
-                // Always ensure only one primary exists, even if the target is already primary
-                // Clear existing primary for this user
-                String clearPrimarySql = "UPDATE screennames SET is_primary = 0 WHERE user_id = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(clearPrimarySql)) {
+                if (updated > 0) {
+                    stmt = session.prepare(clearOthersSql);
                     stmt.setInt(1, userId);
+                    stmt.setInt(2, screennameId);
                     stmt.executeUpdate();
                 }
+                return updated;
+            });
 
-                // Set new primary
-                String setPrimarySql = "UPDATE screennames SET is_primary = 1 WHERE id = ? AND user_id = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(setPrimarySql)) {
-                    stmt.setInt(1, screennameId);
-                    stmt.setInt(2, userId);
-
-                    int rowsUpdated = stmt.executeUpdate();
-                    if (rowsUpdated == 0) {
-                        throw new ScreennameServiceException("Screenname not found or access denied");
-                    }
-                }
-
-                conn.commit();
-                LoggerUtil.info("Set screenname " + screennameId + " as primary for user " + userId);
-                return screenname.withPrimary(true);
-
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
+            if (rowsUpdated == 0) {
+                throw new ScreennameServiceException("Screenname not found or access denied");
             }
 
+            LoggerUtil.info("Set screenname " + screennameId + " as primary for user " + userId);
+            return screenname.withPrimary(true);
+
         } catch (ScreennameServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -362,20 +348,19 @@ public class ScreennameService {
             // Delete screenname
             String sql = "DELETE FROM screennames WHERE id = ? AND user_id = ?";
 
-            try (Connection conn = databaseManager.getDataSource().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+            int rowsDeleted = databaseManager.write(session -> {
+                PreparedStatement stmt = session.prepare(sql);
                 stmt.setInt(1, screennameId);
                 stmt.setInt(2, userId);
+                return stmt.executeUpdate();
+            });
 
-                int rowsDeleted = stmt.executeUpdate();
-                if (rowsDeleted == 0) {
-                    throw new ScreennameServiceException("Screenname not found or access denied");
-                }
-
-                LoggerUtil.info("Deleted screenname " + screennameId + " for user " + userId);
+            if (rowsDeleted == 0) {
+                throw new ScreennameServiceException("Screenname not found or access denied");
             }
 
+            LoggerUtil.info("Deleted screenname " + screennameId + " for user " + userId);
+
         } catch (ScreennameServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -395,19 +380,18 @@ public class ScreennameService {
         try {
             String sql = "DELETE FROM screennames WHERE id = ?";
 
-            try (Connection conn = databaseManager.getDataSource().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+            int rowsDeleted = databaseManager.write(session -> {
+                PreparedStatement stmt = session.prepare(sql);
                 stmt.setInt(1, screennameId);
+                return stmt.executeUpdate();
+            });
 
-                int rowsDeleted = stmt.executeUpdate();
-                if (rowsDeleted == 0) {
-                    throw new ScreennameServiceException("Screenname not found");
-                }
-
-                LoggerUtil.info("Admin deleted screenname " + screennameId);
+            if (rowsDeleted == 0) {
+                throw new ScreennameServiceException("Screenname not found");
             }
 
+            LoggerUtil.info("Admin deleted screenname " + screennameId);
+
         } catch (ScreennameServiceException e) {
             throw e;
         } catch (Exception e) {
@@ -423,67 +407,82 @@ public class ScreennameService {
         String sql = "SELECT id, user_id, screenname, password_hash, is_primary, created_at " +
                     "FROM screennames WHERE id = ? AND user_id = ?";
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, screennameId);
-            stmt.setInt(2, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                // SQLite stores timestamps as TEXT in ISO format
-                String createdAtStr = rs.getString("created_at");
-                LocalDateTime createdAtLocal;
-                if (createdAtStr != null && !createdAtStr.isEmpty()) {
-                    // Parse SQLite's ISO format timestamp
-                    createdAtLocal = LocalDateTime.parse(createdAtStr.replace(" ", "T"));
-                } else {
-                    createdAtLocal = LocalDateTime.now();
+        Screenname screenname;
+        try {
+            screenname = databaseManager.read(session -> {
+                PreparedStatement stmt = session.prepare(sql);
+                stmt.setInt(1, screennameId);
+                stmt.setInt(2, userId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? screennameFromResultSet(rs) : null;
                 }
-                
-                return Screenname.fromDatabase(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("screenname"),
-                    rs.getString("password_hash"),
-                    rs.getBoolean("is_primary"),
-                    createdAtLocal
-                );
-            }
-
-            throw new ScreennameServiceException("Screenname not found or access denied");
-
+            });
         } catch (SQLException e) {
             LoggerUtil.error("Failed to get screenname by ID: " + e.getMessage());
             throw new ScreennameServiceException("Database error", e);
         }
+
+        if (screenname == null) {
+            throw new ScreennameServiceException("Screenname not found or access denied");
+        }
+        return screenname;
+    }
+
+    /**
+     * Maps the current row of a screennames query.
+     */
+    private static Screenname screennameFromResultSet(ResultSet rs) throws SQLException {
+        // SQLite stores timestamps as TEXT in ISO format
+        String createdAtStr = rs.getString("created_at");
+        LocalDateTime createdAtLocal;
+        if (createdAtStr != null && !createdAtStr.isEmpty()) {
+            // Parse SQLite's ISO format timestamp
+            createdAtLocal = LocalDateTime.parse(createdAtStr.replace(" ", "T"));
+        } else {
+            createdAtLocal = LocalDateTime.now();
+        }
+
+        return Screenname.fromDatabase(
+            rs.getInt("id"),
+            rs.getInt("user_id"),
+            rs.getString("screenname"),
+            rs.getString("password_hash"),
+            rs.getBoolean("is_primary"),
+            createdAtLocal
+        );
     }
 
     /**
      * Checks if a screenname is already taken (case-insensitive).
      */
     private boolean isScreennameTaken(String screenname) throws SQLException {
-        String sql = "SELECT 1 FROM screennames WHERE LOWER(screenname) = LOWER(?)";
-
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return databaseManager.read(session -> isScreennameTaken(session, screenname));
+    }
 
-            stmt.setString(1, screenname);
-            ResultSet rs = stmt.executeQuery();
+    private static boolean isScreennameTaken(DbSession session, String screenname) throws SQLException {
+        PreparedStatement stmt = session.prepare("SELECT 1 FROM screennames WHERE LOWER(screenname) = LOWER(?)");
+        stmt.setString(1, screenname);
+        try (ResultSet rs = stmt.executeQuery()) {
             return rs.next();
         }
     }
 
     /**
      * Inserts new screenname into database.
+     *
+     * @return the saved screenname, or null if the name was taken by a concurrent insert
      */
     private Screenname insertScreenname(Screenname screenname) throws SQLException {
         String sql = "INSERT INTO screennames (user_id, screenname, password_hash, is_primary, created_at) " +
                     "VALUES (?, ?, ?, ?, ?)";
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+        return databaseManager.write(session -> {
+            // Availability re-checked in the same write, so two signups cannot both claim a name
+            if (isScreennameTaken(session, screenname.screenname())) {
+                return null;
+            }
 
+            PreparedStatement stmt = session.prepareReturningKeys(sql);
             stmt.setInt(1, screenname.userId());
             stmt.setString(2, screenname.screenname());
             stmt.setString(3, screenname.passwordHash());
@@ -507,7 +506,7 @@ public class ScreennameService {
                     throw new SQLException("Creating screenname failed, no ID obtained.");
                 }
             }
-        }
+        });
     }
 
     /**
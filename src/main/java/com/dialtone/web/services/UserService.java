@@ -12,7 +12,11 @@ import com.dialtone.utils.LoggerUtil;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -25,6 +29,25 @@ public class UserService {
 
     private final DatabaseManager databaseManager;
 
+    // Short-lived user snapshots for getUserById; changes made here invalidate immediately,
+    // the TTL bounds staleness from writes elsewhere (e.g. OAuth profile refresh)
+    private static final long USER_CACHE_TTL_MS = 30_000;
+    private static final int USER_CACHE_MAX_ENTRIES = 10_000;
+
+    private record UserSnapshot(User user, long expiresAtMillis) {}
+
+    private final Map<Integer, UserSnapshot> userCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, UserSnapshot> eldest) {
+                    return size() > USER_CACHE_MAX_ENTRIES;
+                }
+            });
+
+    // Bumped per user on every invalidation, under the userCache lock; a lookup that saw an
+    // older generation must not cache what it read
+    private final Map<Integer, Long> userGenerations = new HashMap<>();
+
     public UserService(DatabaseManager databaseManager) {
         this.databaseManager = databaseManager;
     }
@@ -54,21 +77,21 @@ public class UserService {
         parameters.add(limit);
         parameters.add(offset);
 
-        List<User> users = new ArrayList<>();
-
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sqlBuilder.toString())) {
+        List<User> users = databaseManager.read(session -> {
+            PreparedStatement stmt = session.prepare(sqlBuilder.toString());
 
             for (int i = 0; i < parameters.size(); i++) {
                 stmt.setObject(i + 1, parameters.get(i));
             }
 
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                users.add(userFromResultSet(rs));
+            List<User> results = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(userFromResultSet(rs));
+                }
             }
-        }
+            return results;
+        });
 
         LoggerUtil.debug(String.format("Retrieved %d users (limit=%d, offset=%d, activeOnly=%b)",
                         users.size(), limit, offset, activeOnly));
@@ -86,12 +109,7 @@ public class UserService {
             ? "SELECT COUNT(*) FROM users WHERE is_active = 1"
             : "SELECT COUNT(*) FROM users";
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            ResultSet rs = stmt.executeQuery();
-            return rs.next() ? rs.getInt(1) : 0;
-        }
+        return countRows(sql);
     }
 
     /**
@@ -100,14 +118,15 @@ public class UserService {
      * @return Total screenname count
      */
     public int getScreennameCount() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM screennames";
-
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return countRows("SELECT COUNT(*) FROM screennames");
+    }
 
-            ResultSet rs = stmt.executeQuery();
-            return rs.next() ? rs.getInt(1) : 0;
-        }
+    private int countRows(String sql) throws SQLException {
+        return databaseManager.read(session -> {
+            try (ResultSet rs = session.prepare(sql).executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
     }
 
     /**
@@ -117,24 +136,52 @@ public class UserService {
      * @return User or null if not found
      */
     public User getUserById(int userId) throws SQLException {
+        long now = System.currentTimeMillis();
+        UserSnapshot cached;
+        long generation;
+        synchronized (userCache) {
+            cached = userCache.get(userId);
+            generation = userGenerations.getOrDefault(userId, 0L);
+        }
+        if (cached != null && now < cached.expiresAtMillis()) {
+            return cached.user();
+        }
+
         String sql = """
             SELECT id, auth_provider, x_user_id, x_username, x_display_name,
                    discord_user_id, discord_username, discord_display_name, email, created_at, is_active
             FROM users WHERE id = ?
         """;
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+        User user = databaseManager.read(session -> {
+            PreparedStatement stmt = session.prepare(sql);
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? userFromResultSet(rs) : null;
+            }
+        });
 
-            if (rs.next()) {
-                return userFromResultSet(rs);
+        if (user != null) {
+            synchronized (userCache) {
+                // Skip if the user was updated or deleted meanwhile: this row may predate it
+                if (userGenerations.getOrDefault(userId, 0L) == generation) {
+                    userCache.put(userId, new UserSnapshot(user, now + USER_CACHE_TTL_MS));
+                }
             }
         }
+        return user;
+    }
 
-        return null;
+    /**
+     * Forgets the cached snapshot of a user, so the next lookup reads the database.
+     *
+     * @param userId User ID
+     */
+    public void invalidateUser(int userId) {
+        synchronized (userCache) {
+            userGenerations.merge(userId, 1L, Long::sum);
+            userCache.remove(userId);
+        }
     }
 
     /**
@@ -172,16 +219,16 @@ public class UserService {
     public User updateUserStatus(int userId, boolean active) throws SQLException, UserServiceException {
         String sql = "UPDATE users SET is_active = ? WHERE id = ?";
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+        int rowsUpdated = databaseManager.write(session -> {
+            PreparedStatement stmt = session.prepare(sql);
             stmt.setBoolean(1, active);
             stmt.setInt(2, userId);
+            return stmt.executeUpdate();
+        });
 
-            int rowsUpdated = stmt.executeUpdate();
-            if (rowsUpdated == 0) {
-                throw new UserServiceException("User not found: " + userId);
-            }
+        invalidateUser(userId);
+        if (rowsUpdated == 0) {
+            throw new UserServiceException("User not found: " + userId);
         }
 
         // Return updated user
@@ -207,27 +254,25 @@ public class UserService {
             ORDER BY is_primary DESC, created_at ASC
         """;
 
-        List<Screenname> screennames = new ArrayList<>();
-
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+        return databaseManager.read(session -> {
+            PreparedStatement stmt = session.prepare(sql);
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                screennames.add(Screenname.fromDatabase(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("screenname"),
-                    rs.getString("password_hash"),
-                    rs.getBoolean("is_primary"),
-                    LocalDateTime.parse(rs.getString("created_at").replace(" ", "T"))
-                ));
-            }
-        }
 
-        return screennames;
+            List<Screenname> screennames = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    screennames.add(Screenname.fromDatabase(
+                        rs.getInt("id"),
+                        rs.getInt("user_id"),
+                        rs.getString("screenname"),
+                        rs.getString("password_hash"),
+                        rs.getBoolean("is_primary"),
+                        LocalDateTime.parse(rs.getString("created_at").replace(" ", "T"))
+                    ));
+                }
+            }
+            return screennames;
+        });
     }
 
     /**
@@ -242,44 +287,31 @@ public class UserService {
             throw new UserServiceException("User not found: " + userId);
         }
 
-        try (Connection conn = databaseManager.getDataSource().getConnection()) {
-            conn.setAutoCommit(false);
-
-            try {
-                // Delete screennames first (foreign key constraint)
-                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM screennames WHERE user_id = ?")) {
-                    stmt.setInt(1, userId);
-                    int screennamesDeleted = stmt.executeUpdate();
-                    LoggerUtil.debug(String.format("Deleted %d screennames for user %d", screennamesDeleted, userId));
-                }
-
-                // Delete user roles
-                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM user_roles WHERE user_id = ?")) {
-                    stmt.setInt(1, userId);
-                    int rolesDeleted = stmt.executeUpdate();
-                    LoggerUtil.debug(String.format("Deleted %d roles for user %d", rolesDeleted, userId));
-                }
-
-                // Delete user
-                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
-                    stmt.setInt(1, userId);
-                    int rowsDeleted = stmt.executeUpdate();
-
-                    if (rowsDeleted == 0) {
-                        throw new UserServiceException("Failed to delete user: " + userId);
-                    }
-                }
+        // One write unit: the writer rolls all three deletes back together on failure
+        databaseManager.write(session -> {
+            // Delete screennames first (foreign key constraint)
+            PreparedStatement stmt = session.prepare("DELETE FROM screennames WHERE user_id = ?");
+            stmt.setInt(1, userId);
+            int screennamesDeleted = stmt.executeUpdate();
+            LoggerUtil.debug(String.format("Deleted %d screennames for user %d", screennamesDeleted, userId));
 
-                conn.commit();
-                LoggerUtil.info(String.format("Deleted user %d (%s) and all associated data", userId, user.getProviderUsername()));
+            // Delete user roles
+            stmt = session.prepare("DELETE FROM user_roles WHERE user_id = ?");
+            stmt.setInt(1, userId);
+            int rolesDeleted = stmt.executeUpdate();
+            LoggerUtil.debug(String.format("Deleted %d roles for user %d", rolesDeleted, userId));
 
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
+            // Delete user
+            stmt = session.prepare("DELETE FROM users WHERE id = ?");
+            stmt.setInt(1, userId);
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("Failed to delete user: " + userId);
             }
-        }
+            return null;
+        });
+
+        invalidateUser(userId);
+        LoggerUtil.info(String.format("Deleted user %d (%s) and all associated data", userId, user.getProviderUsername()));
     }
 
     /**
@@ -311,18 +343,21 @@ public class UserService {
             VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, ?) RETURNING id
         """;
 
-        try (Connection conn = databaseManager.getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, User.PROVIDER_X); // Manual users default to X provider
-            stmt.setString(2, finalXUserId);
-            stmt.setString(3, finalUsername);
-            stmt.setString(4, finalDisplayName);
-            stmt.setBoolean(5, isActive);
+        try {
+            Integer id = databaseManager.write(session -> {
+                PreparedStatement stmt = session.prepare(sql);
+                stmt.setString(1, User.PROVIDER_X); // Manual users default to X provider
+                stmt.setString(2, finalXUserId);
+                stmt.setString(3, finalUsername);
+                stmt.setString(4, finalDisplayName);
+                stmt.setBoolean(5, isActive);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getInt("id") : null;
+                }
+            });
 
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                int id = rs.getInt("id");
+            if (id != null) {
                 LoggerUtil.info(String.format("Manually created user %d (@%s)", id, finalUsername));
                 return getUserById(id);
             }
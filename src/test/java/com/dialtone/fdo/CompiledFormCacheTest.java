@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import com.dialtone.fdo.spi.FdoCompilationException;
+import com.dialtone.fdo.spi.FdoCompilationService;
+import com.dialtone.resources.ResourceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CompiledFormCache.
+ */
+@DisplayName("CompiledFormCache")
+class CompiledFormCacheTest {
+
+    private ToyCompilationService service;
+    private CompiledFormCache cache;
+
+    @BeforeEach
+    void setUp() {
+        service = new ToyCompilationService(12);
+        cache = CompiledFormCache.getInstance();
+        cache.clear();
+    }
+
+    @Nested
+    @DisplayName("Cached forms")
+    class CachedForms {
+
+        @Test
+        @DisplayName("should generate and compile source only once per key")
+        void shouldCompileOnce() throws Exception {
+            AtomicInteger sourceCalls = new AtomicInteger();
+            CompiledFormCache.FormSource source = () -> {
+                sourceCalls.incrementAndGet();
+                return "a static form body";
+            };
+            long hitsBefore = cache.getHits();
+            long missesBefore = cache.getMisses();
+
+            cache.compileToChunks(service, "noop", "AT", 0x21, source);
+            cache.compileToChunks(service, "noop", "AT", 0x22, source);
+            cache.compileToChunks(service, "noop", "AT", 0x23, source);
+
+            assertEquals(1, sourceCalls.get());
+            assertEquals(1, service.compiles.get());
+            assertEquals(missesBefore + 1, cache.getMisses());
+            assertEquals(hitsBefore + 2, cache.getHits());
+        }
+
+        @Test
+        @DisplayName("should match a full compile for another token and Stream ID")
+        void shouldMatchFullCompile() throws Exception {
+            String body = "a form split over several frames";
+            cache.compileToChunks(service, "form", "AT", 0x21, () -> body);
+
+            assertPayloadsEqual(service.compileToChunks(body, "AT", 0x1234),
+                    cache.compileToChunks(service, "form", "AT", 0x1234, () -> body));
+            assertPayloadsEqual(service.compileToChunks(body, "at", 0x123456),
+                    cache.compileToChunks(service, "form", "at", 0x123456, () -> body));
+        }
+
+        @Test
+        @DisplayName("should leave chunks untagged for Stream ID 0")
+        void shouldLeaveStreamIdZeroUntagged() throws Exception {
+            cache.compileToChunks(service, "form", "AT", 0x21, () -> "body");
+            List<FdoChunk> chunks = cache.compileToChunks(service, "form", "AT", 0, () -> "body");
+
+            assertNull(chunks.get(0).getStreamId());
+        }
+
+        @Test
+        @DisplayName("should keep separate entries per key")
+        void shouldSeparateKeys() throws Exception {
+            cache.compileToChunks(service, List.of("f1", "32-100", false), "AT", 0x21, () -> "color");
+            cache.compileToChunks(service, List.of("f1", "32-100", true), "AT", 0x21, () -> "mono");
+
+            assertEquals(2, cache.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Failures")
+    class Failures {
+
+        @Test
+        @DisplayName("should not cache a failed compile")
+        void shouldNotCacheFailure() {
+            CompiledFormCache.FormSource failing = () -> {
+                throw new FdoCompilationException("missing", "toy");
+            };
+
+            assertThrows(FdoCompilationException.class,
+                    () -> cache.compileToChunks(service, "broken", "AT", 0x21, failing));
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Resource reloads")
+    class ResourceReloads {
+
+        @Test
+        @DisplayName("should not keep a form compiled from a snapshot replaced meanwhile")
+        void shouldDropFormCompiledAcrossReload() throws Exception {
+            CompiledFormCache.FormSource reloading = () -> {
+                // Stands in for a hot reload landing while the form is being generated
+                ResourceRepository.getInstance().reload();
+                return "stale body";
+            };
+
+            List<FdoChunk> chunks = cache.compileToChunks(service, "reloaded", "AT", 0x21, reloading);
+
+            assertFalse(chunks.isEmpty());
+            assertEquals(0, cache.size());
+        }
+    }
+
+    private static void assertPayloadsEqual(List<FdoChunk> expected, List<FdoChunk> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).getBinaryData(), actual.get(i).getBinaryData(), "chunk " + i);
+            assertEquals(expected.get(i).getStreamId(), actual.get(i).getStreamId());
+        }
+    }
+
+    /**
+     * Toy backend: the source text is the FDO data, split into frames of at most
+     * {@code maxPayload} bytes including the token and Stream ID.
+     */
+    private static final class ToyCompilationService implements FdoCompilationService {
+
+        private final int maxPayload;
+        final AtomicInteger compiles = new AtomicInteger();
+
+        ToyCompilationService(int maxPayload) {
+            this.maxPayload = maxPayload;
+        }
+
+        @Override
+        public byte[] compile(String fdoSource) {
+            return fdoSource.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public List<FdoChunk> compileToChunks(String fdoSource, String token, int streamId) {
+            compiles.incrementAndGet();
+            int headerSize = getChunkHeaderSize(token);
+            byte[] data = compile(fdoSource);
+            List<FdoChunk> chunks = new ArrayList<>();
+            for (int offset = 0, index = 0; offset < data.length; index++) {
+                int end = Math.min(data.length, offset + maxPayload - headerSize);
+                byte[] payload = new byte[headerSize + end - offset];
+                payload[0] = (byte) token.charAt(0);
+                payload[1] = (byte) token.charAt(1);
+                for (int i = 2; i < headerSize; i++) {
+                    payload[i] = (byte) (streamId >> ((i - 2) * 8));
+                }
+                System.arraycopy(Arrays.copyOfRange(data, offset, end), 0, payload, headerSize, end - offset);
+                StringBuilder hex = new StringBuilder();
+                for (byte b : payload) {
+                    hex.append(String.format("%02X", b));
+                }
+                FdoChunk chunk = new FdoChunk(index, payload.length, hex.toString());
+                if (streamId != 0) {
+                    chunk.setStreamId(streamId);
+                }
+                chunks.add(chunk);
+                offset = end;
+            }
+            return chunks;
+        }
+
+        @Override
+        public int getMaxChunkPayload() {
+            return maxPayload;
+        }
+
+        @Override
+        public int getChunkHeaderSize(String token) {
+            return "at".equals(token) ? 6 : 4;
+        }
+
+        @Override
+        public String getBackendName() {
+            return "toy";
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
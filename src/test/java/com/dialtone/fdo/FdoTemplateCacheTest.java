@@ -0,0 +1,469 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.fdo;
+
+import com.dialtone.chat.ChatRoom;
+import com.dialtone.chat.fdo.ChatRoomFdoBuilder;
+import com.dialtone.fdo.dsl.RenderingContext;
+import com.dialtone.fdo.dsl.builders.NewsStoryFdoBuilder;
+import com.dialtone.fdo.dsl.builders.ReceiveImFdoBuilder;
+import com.dialtone.fdo.dsl.builders.SendImEchoFdoBuilder;
+import com.dialtone.fdo.spi.FdoCompilationException;
+import com.dialtone.fdo.spi.FdoCompilationService;
+import com.dialtone.fdo.spi.impl.NativeFdoCompilationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for FdoTemplateCache and CompiledFdoTemplate.
+ *
+ * <p>Mostly uses a toy compilation service with the same shape as the real one
+ * (length-prefixed string atoms, minimal-width integers, frames split on atom boundaries)
+ * so the learned layout can be checked byte for byte against a full compile. The
+ * template builders are also rendered through the atomforge compiler.</p>
+ */
+@DisplayName("FdoTemplateCache")
+class FdoTemplateCacheTest {
+
+    private ToyCompilationService service;
+    private FdoTemplateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        service = new ToyCompilationService(80);
+        cache = FdoTemplateCache.getInstance();
+        cache.clear();
+    }
+
+    @Nested
+    @DisplayName("Patched rendering")
+    class PatchedRendering {
+
+        @Test
+        @DisplayName("should match a full compile for varying values")
+        void shouldMatchFullCompile() throws Exception {
+            String[][] strings = {
+                    {"Alice", "hi"},
+                    {"Bob", "a somewhat longer message that spans frames"},
+                    {"Carol Ann", "x"},
+                    {"Dave", "what's up?"},
+                    {"Eve", "last one"}
+            };
+            int[][] ints = {{5, 300}, {7, 301}, {9, 60000}, {250, 302}, {3, 400}};
+
+            for (int i = 0; i < strings.length; i++) {
+                ImSource source = new ImSource(strings[i][0], strings[i][1], ints[i][0], ints[i][1]);
+                List<FdoChunk> rendered = cache.compileToChunks(service, source, RenderingContext.DEFAULT, "AT", 0x21);
+                List<FdoChunk> compiled = service.compileToChunks(
+                        source.toSource(RenderingContext.DEFAULT, source.stringSlots(), source.intSlots()), "AT", 0x21);
+
+                assertArrayEquals(data(compiled), data(rendered), "data for render " + i);
+                for (FdoChunk chunk : rendered) {
+                    assertTrue(chunk.getBinaryData().length <= service.getMaxChunkPayload());
+                    assertEquals(Integer.valueOf(0x21), chunk.getStreamId());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("should stop compiling once the template is verified")
+        void shouldStopCompilingAfterVerification() throws Exception {
+            for (int i = 0; i < FdoTemplateCache.VERIFIED_RENDERS + 5; i++) {
+                cache.compileToChunks(service, new ImSource("User" + i, "message " + i, 4, 500 + i),
+                        RenderingContext.DEFAULT, "AT", 0x21);
+            }
+            int compilesBefore = service.compiles.get();
+            long patchedBefore = cache.getPatchedRenders();
+
+            cache.compileToChunks(service, new ImSource("Zed", "no compile", 4, 600),
+                    RenderingContext.DEFAULT, "AT", 0x21);
+
+            assertEquals(compilesBefore, service.compiles.get());
+            assertEquals(patchedBefore + 1, cache.getPatchedRenders());
+        }
+
+        @Test
+        @DisplayName("should prefix chunks with token and little-endian Stream ID")
+        void shouldPrefixTokenAndStreamId() throws Exception {
+            for (int i = 0; i < FdoTemplateCache.VERIFIED_RENDERS + 1; i++) {
+                cache.compileToChunks(service, new ImSource("A", "B", 1, 1), RenderingContext.DEFAULT, "AT", 0x1234);
+            }
+            byte[] payload = cache.compileToChunks(service, new ImSource("A", "B", 1, 1),
+                    RenderingContext.DEFAULT, "AT", 0x1234).get(0).getBinaryData();
+
+            assertEquals('A', payload[0]);
+            assertEquals('T', payload[1]);
+            assertEquals(0x34, payload[2] & 0xFF);
+            assertEquals(0x12, payload[3] & 0xFF);
+        }
+    }
+
+    @Nested
+    @DisplayName("Fallback")
+    class Fallback {
+
+        @Test
+        @DisplayName("should compile non-ASCII text normally")
+        void shouldCompileNonAscii() throws Exception {
+            warmUp();
+            long compiledBefore = cache.getCompiledRenders();
+
+            ImSource source = new ImSource("Alice", "café", 5, 300);
+            List<FdoChunk> chunks = cache.compileToChunks(service, source, RenderingContext.DEFAULT, "AT", 0x21);
+
+            assertEquals(compiledBefore + 1, cache.getCompiledRenders());
+            assertArrayEquals(data(service.compileToChunks(
+                    source.toSource(RenderingContext.DEFAULT, source.stringSlots(), source.intSlots()), "AT", 0x21)),
+                    data(chunks));
+        }
+
+        @Test
+        @DisplayName("should compile values that overflow a length byte normally")
+        void shouldCompileLongValues() throws Exception {
+            warmUp();
+            long compiledBefore = cache.getCompiledRenders();
+
+            cache.compileToChunks(service, new ImSource("Alice", "m".repeat(120), 5, 300),
+                    RenderingContext.DEFAULT, "AT", 0x21);
+
+            assertEquals(compiledBefore + 1, cache.getCompiledRenders());
+        }
+
+        @Test
+        @DisplayName("should keep separate layouts per integer width")
+        void shouldKeepLayoutsPerIntWidth() throws Exception {
+            cache.compileToChunks(service, new ImSource("A", "B", 5, 300), RenderingContext.DEFAULT, "AT", 0x21);
+            cache.compileToChunks(service, new ImSource("A", "B", 5, 70000), RenderingContext.DEFAULT, "AT", 0x21);
+
+            assertEquals(2, cache.size());
+        }
+
+        private void warmUp() throws FdoCompilationException {
+            for (int i = 0; i < FdoTemplateCache.VERIFIED_RENDERS; i++) {
+                cache.compileToChunks(service, new ImSource("Alice", "hello", 5, 300), RenderingContext.DEFAULT, "AT", 0x21);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Atomforge compiler")
+    class AtomforgeCompiler {
+
+        private final FdoCompilationService real = new NativeFdoCompilationService();
+
+        @Test
+        @DisplayName("should patch ReceiveIm like a full compile")
+        void shouldPatchReceiveIm() throws Exception {
+            assertPatchedLikeCompiler(List.of(
+                    new ReceiveImFdoBuilder(300, "Alice", "hi", 5000, null),
+                    new ReceiveImFdoBuilder(301, "Bob", "a somewhat longer message than the first", 5001, null),
+                    new ReceiveImFdoBuilder(302, "Carol Ann", "what's up?", 5002, null),
+                    new ReceiveImFdoBuilder(303, "Dave", "x", 5003, null),
+                    new ReceiveImFdoBuilder(304, "Eve", "<b>not html</b> & more", 5004, null)));
+        }
+
+        @Test
+        @DisplayName("should patch SendImEcho like a full compile")
+        void shouldPatchSendImEcho() throws Exception {
+            assertPatchedLikeCompiler(List.of(
+                    SendImEchoFdoBuilder.echo(300, "Alice", "hi"),
+                    SendImEchoFdoBuilder.echo(301, "Bob", "a somewhat longer message than the first"),
+                    SendImEchoFdoBuilder.echo(302, "Carol Ann", "what's up?"),
+                    SendImEchoFdoBuilder.echo(303, "Dave", "x"),
+                    SendImEchoFdoBuilder.echo(304, "Eve", "<b>not html</b> & more")));
+        }
+
+        @Test
+        @DisplayName("should patch ChatRoom like a full compile")
+        void shouldPatchChatRoom() throws Exception {
+            assertPatchedLikeCompiler(List.of(
+                    chatRoom("Lobby", "alice", "bob", 2, 3),
+                    chatRoom("Tech Talk", "carol", "dave", 4, 5),
+                    chatRoom("Lobby", "Eve Online", "frank", 6, 7),
+                    chatRoom("News & Views", "g", "henrietta", 8, 9),
+                    chatRoom("Lobby", "ivan", "judy", 10, 11)));
+        }
+
+        @Test
+        @DisplayName("should patch NewsStory like a full compile")
+        void shouldPatchNewsStory() throws Exception {
+            assertPatchedLikeCompiler(List.of(
+                    NewsStoryFdoBuilder.create("Tech News", "Monday", "Short story.\nSecond line."),
+                    NewsStoryFdoBuilder.create("World", "Tuesday", "Another story"),
+                    NewsStoryFdoBuilder.create("Sports News", "Wednesday", "Final score 3-2"),
+                    NewsStoryFdoBuilder.create("Weather", "Thursday", "Sunny, 72F"),
+                    NewsStoryFdoBuilder.create("Tech News", "Friday", "One more line.\nAnd another.")));
+        }
+
+        @Test
+        @DisplayName("should compile values with quotes and backslashes normally")
+        void shouldCompileQuotesAndBackslashes() throws Exception {
+            // Each pair: a plain render for the template, then the same template with escaped characters
+            List<FdoTemplateSource[]> pairs = List.of(
+                    new FdoTemplateSource[]{
+                            new ReceiveImFdoBuilder(300, "Alice", "hi", 5000, null),
+                            new ReceiveImFdoBuilder(301, "Alice", "she said \"hi\"", 5001, null)},
+                    new FdoTemplateSource[]{
+                            SendImEchoFdoBuilder.echo(300, "Alice", "hi"),
+                            SendImEchoFdoBuilder.echo(301, "Alice", "C:\\DIALTONE\\FILES")},
+                    new FdoTemplateSource[]{
+                            chatRoom("Lobby", "alice", "bob", 2, 3),
+                            chatRoom("Lobby", "al\"ice", "b\\ob", 4, 5)},
+                    new FdoTemplateSource[]{
+                            NewsStoryFdoBuilder.create("Tech News", "Monday", "plain"),
+                            NewsStoryFdoBuilder.create("\"Tech\" News", "Monday", "a \\ b")});
+
+            for (FdoTemplateSource[] pair : pairs) {
+                warmUp(pair[0]);
+                long patchedBefore = cache.getPatchedRenders();
+                long compiledBefore = cache.getCompiledRenders();
+
+                assertMatchesCompiler(pair[1]);
+
+                assertEquals(patchedBefore, cache.getPatchedRenders(), "patched " + pair[1].templateKey());
+                assertEquals(compiledBefore + 1, cache.getCompiledRenders(), "compiled " + pair[1].templateKey());
+
+                // The template stays in use for plain values
+                assertMatchesCompiler(pair[0]);
+                assertEquals(patchedBefore + 1, cache.getPatchedRenders(), "patched " + pair[0].templateKey());
+            }
+        }
+
+        /**
+         * Render every source through the cache and check each against a full compile.
+         * All but the verified renders must come from the patched template.
+         */
+        private void assertPatchedLikeCompiler(List<FdoTemplateSource> sources) throws Exception {
+            long patchedBefore = cache.getPatchedRenders();
+            for (FdoTemplateSource source : sources) {
+                assertMatchesCompiler(source);
+            }
+            assertEquals(patchedBefore + sources.size() - FdoTemplateCache.VERIFIED_RENDERS,
+                    cache.getPatchedRenders());
+        }
+
+        private void assertMatchesCompiler(FdoTemplateSource source) throws Exception {
+            List<FdoChunk> rendered = cache.compileToChunks(real, source, RenderingContext.DEFAULT, "AT", 0x21);
+            List<FdoChunk> compiled = real.compileToChunks(
+                    source.toSource(RenderingContext.DEFAULT, source.stringSlots(), source.intSlots()), "AT", 0x21);
+
+            assertArrayEquals(data(compiled), data(rendered), "data for " + Arrays.toString(source.stringSlots()));
+            for (FdoChunk chunk : rendered) {
+                assertTrue(chunk.getBinaryData().length <= real.getMaxChunkPayload());
+                assertEquals(Integer.valueOf(0x21), chunk.getStreamId());
+            }
+        }
+
+        /**
+         * Render a source until its template is past verification.
+         */
+        private void warmUp(FdoTemplateSource source) throws FdoCompilationException {
+            for (int i = 0; i < FdoTemplateCache.VERIFIED_RENDERS; i++) {
+                cache.compileToChunks(real, source, RenderingContext.DEFAULT, "AT", 0x21);
+            }
+        }
+
+        private ChatRoomFdoBuilder chatRoom(String title, String first, String second, int firstTag, int secondTag) {
+            ChatRoom room = new ChatRoom(title);
+            room.addUser(first);
+            room.addUser(second);
+            return new ChatRoomFdoBuilder(room, first, Map.of(first, firstTag, second, secondTag));
+        }
+    }
+
+    @Nested
+    @DisplayName("String encoding")
+    class StringEncoding {
+
+        @Test
+        @DisplayName("should refuse characters FDO source escapes")
+        void shouldRefuseEscapedCharacters() {
+            assertNull(CompiledFdoTemplate.encodeString("say \"hi\""));
+            assertNull(CompiledFdoTemplate.encodeString("C:\\FILES"));
+            assertArrayEquals("it's <ok> & fine".getBytes(StandardCharsets.US_ASCII),
+                    CompiledFdoTemplate.encodeString("it's <ok> & fine"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Byte widths")
+    class ByteWidths {
+
+        @Test
+        @DisplayName("should size integer slots by their minimal width")
+        void shouldSizeIntegers() {
+            assertEquals(0, CompiledFdoTemplate.byteWidth(0));
+            assertEquals(1, CompiledFdoTemplate.byteWidth(255));
+            assertEquals(2, CompiledFdoTemplate.byteWidth(256));
+            assertEquals(3, CompiledFdoTemplate.byteWidth(70000));
+            assertEquals(4, CompiledFdoTemplate.byteWidth(Integer.MAX_VALUE));
+            assertEquals(-1, CompiledFdoTemplate.byteWidth(-1));
+        }
+    }
+
+    private static byte[] data(List<FdoChunk> chunks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (FdoChunk chunk : chunks) {
+            byte[] payload = chunk.getBinaryData();
+            out.write(payload, 4, payload.length - 4);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Template shaped like a receive-IM form: title combining fixed text and a slot,
+     * a repeated slot, and integer IDs.
+     */
+    private record ImSource(String from, String message, int windowId, int responseId) implements FdoTemplateSource {
+
+        @Override
+        public Object templateKey() {
+            return "toy_im";
+        }
+
+        @Override
+        public String[] stringSlots() {
+            return new String[]{from, message};
+        }
+
+        @Override
+        public int[] intSlots() {
+            return new int[]{windowId, responseId};
+        }
+
+        @Override
+        public String toSource(RenderingContext ctx, String[] strings, int[] ints) {
+            return String.join("\n",
+                    "S Instant Message: " + strings[0],
+                    "I " + ints[0],
+                    "S " + strings[0] + ": " + strings[1] + "\u007F",
+                    "S Send",
+                    "I " + ints[1],
+                    "S " + strings[0]);
+        }
+    }
+
+    /**
+     * Toy backend: "S text" compiles to {0x01, len, bytes}, "I n" to {0x02, width, big-endian bytes}.
+     * Atoms are packed into frames of at most {@code maxPayload - 4} bytes.
+     */
+    private static final class ToyCompilationService implements FdoCompilationService {
+
+        private final int maxPayload;
+        final AtomicInteger compiles = new AtomicInteger();
+
+        ToyCompilationService(int maxPayload) {
+            this.maxPayload = maxPayload;
+        }
+
+        @Override
+        public byte[] compile(String fdoSource) throws FdoCompilationException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (byte[] atom : atoms(fdoSource)) {
+                out.write(atom, 0, atom.length);
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public List<FdoChunk> compileToChunks(String fdoSource, String token, int streamId)
+                throws FdoCompilationException {
+            compiles.incrementAndGet();
+            int maxData = maxPayload - getChunkHeaderSize(token);
+            List<ByteArrayOutputStream> frames = new ArrayList<>();
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            for (byte[] atom : atoms(fdoSource)) {
+                if (frame.size() + atom.length > maxData) {
+                    frames.add(frame);
+                    frame = new ByteArrayOutputStream();
+                }
+                frame.write(atom, 0, atom.length);
+            }
+            frames.add(frame);
+
+            List<FdoChunk> chunks = new ArrayList<>();
+            for (int i = 0; i < frames.size(); i++) {
+                byte[] fdo = frames.get(i).toByteArray();
+                byte[] payload = new byte[4 + fdo.length];
+                payload[0] = (byte) token.charAt(0);
+                payload[1] = (byte) token.charAt(1);
+                payload[2] = (byte) streamId;
+                payload[3] = (byte) (streamId >> 8);
+                System.arraycopy(fdo, 0, payload, 4, fdo.length);
+                StringBuilder hex = new StringBuilder();
+                for (byte b : payload) {
+                    hex.append(String.format("%02X", b));
+                }
+                FdoChunk chunk = new FdoChunk(i, payload.length, hex.toString());
+                chunk.setStreamId(streamId);
+                chunks.add(chunk);
+            }
+            return chunks;
+        }
+
+        private static List<byte[]> atoms(String fdoSource) throws FdoCompilationException {
+            List<byte[]> atoms = new ArrayList<>();
+            for (String line : fdoSource.split("\n")) {
+                String arg = line.substring(2);
+                ByteArrayOutputStream atom = new ByteArrayOutputStream();
+                if (line.startsWith("S ")) {
+                    byte[] text = arg.getBytes(StandardCharsets.ISO_8859_1);
+                    if (text.length > 255) {
+                        throw new FdoCompilationException("string too long", "toy");
+                    }
+                    atom.write(0x01);
+                    atom.write(text.length);
+                    atom.write(text, 0, text.length);
+                } else {
+                    int value = Integer.parseInt(arg);
+                    int width = CompiledFdoTemplate.byteWidth(value);
+                    atom.write(0x02);
+                    atom.write(width);
+                    for (int k = width - 1; k >= 0; k--) {
+                        atom.write(value >>> (k * 8));
+                    }
+                }
+                atoms.add(atom.toByteArray());
+            }
+            return atoms;
+        }
+
+        @Override
+        public int getMaxChunkPayload() {
+            return maxPayload;
+        }
+
+        @Override
+        public int getChunkHeaderSize(String token) {
+            return 4;
+        }
+
+        @Override
+        public String getBackendName() {
+            return "toy";
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.protocol.im;
+
+import com.dialtone.fdo.FdoChunk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ImMailbox.
+ *
+ * <p>Uses a manual executor standing in for the recipient's event loop, so tests decide
+ * when a scheduled drain runs.</p>
+ */
+@DisplayName("ImMailbox")
+class ImMailboxTest {
+
+    private Queue<Runnable> eventLoop;
+    private List<List<ImMailbox.Delivery>> batches;
+    private boolean held;
+    private boolean open;
+
+    @BeforeEach
+    void setUp() {
+        eventLoop = new ArrayDeque<>();
+        batches = new ArrayList<>();
+        held = false;
+        open = true;
+    }
+
+    private ImMailbox mailbox(int capacity, ImMailbox.OverflowPolicy policy) {
+        return new ImMailbox("recipient", eventLoop::add, () -> held, () -> open,
+                batches::add, capacity, policy);
+    }
+
+    private void runEventLoop() {
+        Runnable task;
+        while ((task = eventLoop.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static List<FdoChunk> im(int n) {
+        return List.of(new FdoChunk(n, 1, "00"));
+    }
+
+    @Nested
+    @DisplayName("Delivery")
+    class DeliveryTests {
+
+        @Test
+        @DisplayName("should deliver on the event loop, not the sender's thread")
+        void shouldDeliverOnEventLoop() {
+            ImMailbox mailbox = mailbox(8, ImMailbox.OverflowPolicy.REJECT_NEWEST);
+
+            assertTrue(mailbox.offer(im(1), "RECEIVE_IM"));
+            assertTrue(batches.isEmpty());
+
+            runEventLoop();
+
+            assertEquals(1, batches.size());
+            assertEquals(0, mailbox.getPendingCount());
+            assertEquals(1, mailbox.getDeliveredCount());
+        }
+
+        @Test
+        @DisplayName("should batch pending IMs into one drain in arrival order")
+        void shouldBatchInOrder() {
+            ImMailbox mailbox = mailbox(8, ImMailbox.OverflowPolicy.REJECT_NEWEST);
+
+            mailbox.offer(im(1), "RECEIVE_IM");
+            mailbox.offer(im(2), "RECEIVE_IM");
+            mailbox.offer(im(3), "ECHO_IM");
+
+            assertEquals(1, eventLoop.size());
+            runEventLoop();
+
+            assertEquals(1, batches.size());
+            List<ImMailbox.Delivery> batch = batches.get(0);
+            assertEquals(3, batch.size());
+            assertEquals(1, batch.get(0).chunks().get(0).getIndex());
+            assertEquals(3, batch.get(2).chunks().get(0).getIndex());
+            assertEquals("ECHO_IM", batch.get(2).label());
+            assertEquals(1, mailbox.getBatchCount());
+        }
+
+        @Test
+        @DisplayName("should discard pending IMs when the connection is closed")
+        void shouldDiscardWhenClosed() {
+            ImMailbox mailbox = mailbox(8, ImMailbox.OverflowPolicy.REJECT_NEWEST);
+            mailbox.offer(im(1), "RECEIVE_IM");
+            open = false;
+
+            runEventLoop();
+
+            assertTrue(batches.isEmpty());
+            assertEquals(0, mailbox.getPendingCount());
+        }
+
+        @Test
+        @DisplayName("should not lose IMs offered concurrently")
+        void shouldNotLoseConcurrentOffers() throws Exception {
+            ExecutorService loop = Executors.newSingleThreadExecutor();
+            List<ImMailbox.Delivery> received = new ArrayList<>();
+            ImMailbox mailbox = new ImMailbox("recipient", loop, () -> false, () -> true,
+                    received::addAll, 10_000, ImMailbox.OverflowPolicy.REJECT_NEWEST);
+
+            int senders = 4;
+            int perSender = 500;
+            CountDownLatch done = new CountDownLatch(senders);
+            for (int s = 0; s < senders; s++) {
+                new Thread(() -> {
+                    for (int i = 0; i < perSender; i++) {
+                        mailbox.offer(im(i), "RECEIVE_IM");
+                    }
+                    done.countDown();
+                }).start();
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            loop.submit(() -> { }).get(10, TimeUnit.SECONDS);
+            loop.shutdown();
+
+            assertEquals(senders * perSender, received.size());
+            assertEquals(0, mailbox.getPendingCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("DOD exclusivity")
+    class DodExclusivityTests {
+
+        @Test
+        @DisplayName("should hold IMs until exclusivity ends")
+        void shouldHoldUntilExclusivityEnds() {
+            ImMailbox mailbox = mailbox(8, ImMailbox.OverflowPolicy.REJECT_NEWEST);
+            held = true;
+
+            mailbox.offer(im(1), "RECEIVE_IM");
+            mailbox.offer(im(2), "RECEIVE_IM");
+            runEventLoop();
+
+            assertTrue(batches.isEmpty());
+            assertEquals(2, mailbox.getPendingCount());
+
+            held = false;
+            mailbox.schedule();
+            runEventLoop();
+
+            assertEquals(1, batches.size());
+            assertEquals(2, batches.get(0).size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Overflow")
+    class OverflowTests {
+
+        @Test
+        @DisplayName("should refuse new IMs when full with REJECT_NEWEST")
+        void shouldRejectNewest() {
+            ImMailbox mailbox = mailbox(2, ImMailbox.OverflowPolicy.REJECT_NEWEST);
+
+            assertTrue(mailbox.offer(im(1), "RECEIVE_IM"));
+            assertTrue(mailbox.offer(im(2), "RECEIVE_IM"));
+            assertFalse(mailbox.offer(im(3), "RECEIVE_IM"));
+            runEventLoop();
+
+            assertEquals(1, mailbox.getOverflowCount());
+            assertEquals(List.of(1, 2), chunkNumbers(batches.get(0)));
+        }
+
+        @Test
+        @DisplayName("should drop the oldest IM when full with DROP_OLDEST")
+        void shouldDropOldest() {
+            ImMailbox mailbox = mailbox(2, ImMailbox.OverflowPolicy.DROP_OLDEST);
+
+            mailbox.offer(im(1), "RECEIVE_IM");
+            mailbox.offer(im(2), "RECEIVE_IM");
+            assertTrue(mailbox.offer(im(3), "RECEIVE_IM"));
+            runEventLoop();
+
+            assertEquals(1, mailbox.getOverflowCount());
+            assertEquals(List.of(2, 3), chunkNumbers(batches.get(0)));
+        }
+
+        private List<Integer> chunkNumbers(List<ImMailbox.Delivery> batch) {
+            List<Integer> numbers = new ArrayList<>();
+            for (ImMailbox.Delivery delivery : batch) {
+                numbers.add(delivery.chunks().get(0).getIndex());
+            }
+            return numbers;
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("should count offers, batches and overflows across mailboxes")
+        void shouldReportTotals() {
+            Map<String, Object> before = ImMailbox.getMetrics();
+            ImMailbox first = mailbox(1, ImMailbox.OverflowPolicy.REJECT_NEWEST);
+            ImMailbox second = mailbox(8, ImMailbox.OverflowPolicy.REJECT_NEWEST);
+
+            first.offer(im(1), "RECEIVE_IM");
+            first.offer(im(2), "RECEIVE_IM");
+            second.offer(im(3), "RECEIVE_IM");
+            second.offer(im(4), "RECEIVE_IM");
+            held = true;
+            runEventLoop();
+            held = false;
+            first.schedule();
+            second.schedule();
+            runEventLoop();
+
+            Map<String, Object> after = ImMailbox.getMetrics();
+            assertEquals(4, delta(before, after, "offered"));
+            assertEquals(3, delta(before, after, "delivered"));
+            assertEquals(2, delta(before, after, "batches"));
+            assertEquals(1, delta(before, after, "overflowed"));
+            assertEquals(2, delta(before, after, "held"));
+        }
+
+        private long delta(Map<String, Object> before, Map<String, Object> after, String key) {
+            return (Long) after.get(key) - (Long) before.get(key);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.tools;
+
+import com.dialtone.auth.DatabaseUserAuthenticator;
+import com.dialtone.db.DatabaseManager;
+import com.dialtone.db.SchemaInitializer;
+import com.dialtone.db.models.User;
+import com.dialtone.web.services.AdminSecurityService;
+import com.dialtone.web.services.ScreennameService;
+import com.dialtone.web.services.UserService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Manual benchmark for concurrent signups and logins against a scratch SQLite database.
+ *
+ * Runs signups (user + screenname) from many threads at once, then logins for every
+ * created screenname, and prints throughput, latency percentiles and writer counters.
+ * BCrypt hashing is part of both paths, as in production.
+ *
+ * Usage: DatabaseConcurrencyBenchmark [threads] [signupsPerThread]
+ */
+public class DatabaseConcurrencyBenchmark {
+
+    private static final String PASSWORD = "bench123";
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 25;
+
+        Path dir = Files.createTempDirectory("dialtone-bench");
+        DatabaseManager databaseManager = DatabaseManager.getInstance(dir.resolve("bench.db").toString());
+        SchemaInitializer.initializeSchema(databaseManager);
+
+        UserService userService = new UserService(databaseManager);
+        AdminSecurityService adminSecurityService = new AdminSecurityService(new Properties(), databaseManager);
+        ScreennameService screennameService = new ScreennameService(databaseManager, adminSecurityService, userService);
+        DatabaseUserAuthenticator authenticator = new DatabaseUserAuthenticator(databaseManager);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            System.out.printf("Signups: %d threads x %d%n", threads, perThread);
+            run(pool, threads, perThread, (t, i) -> {
+                User user = userService.createManualUser(null, "bench" + t + "_" + i, null, true);
+                screennameService.createScreenname(user.id(), screenname(t, i), PASSWORD);
+                return true;
+            });
+
+            System.out.printf("Logins: %d threads x %d%n", threads, perThread);
+            run(pool, threads, perThread, (t, i) -> authenticator.authenticate(screenname(t, i), PASSWORD));
+
+            System.out.println("Writer: " + databaseManager.getWriter().getMetrics());
+            System.out.println(databaseManager.getStats());
+        } finally {
+            pool.shutdownNow();
+            databaseManager.close();
+        }
+    }
+
+    private interface Operation {
+        boolean run(int thread, int index) throws Exception;
+    }
+
+    private static String screenname(int thread, int index) {
+        return "B" + thread + "x" + index;
+    }
+
+    private static void run(ExecutorService pool, int threads, int perThread, Operation operation) throws Exception {
+        List<Future<long[]>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Callable<long[]> worker = () -> {
+                long[] latencies = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    long opStart = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = operation.run(thread, i);
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    // Failures are recorded as negative latencies
+                    long elapsed = System.nanoTime() - opStart;
+                    latencies[i] = ok ? elapsed : -elapsed;
+                }
+                return latencies;
+            };
+            futures.add(pool.submit(worker));
+        }
+
+        long[] all = new long[threads * perThread];
+        int n = 0;
+        int failures = 0;
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                if (latency < 0) {
+                    failures++;
+                }
+                all[n++] = Math.abs(latency);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        Arrays.sort(all);
+        System.out.printf("  %d ops in %dms (%.1f ops/s), %d failed, p50 %.1fms, p99 %.1fms, max %.1fms%n",
+                all.length, elapsedNanos / 1_000_000, all.length * 1e9 / elapsedNanos, failures,
+                percentile(all, 0.50), percentile(all, 0.99), all[all.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.tools;
+
+import com.dialtone.server.NettyTransport;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manual benchmark comparing the NIO and epoll transports of the P3 listener on loopback.
+ *
+ * For each transport available, binds an echo server through {@link NettyTransport} with the
+ * same tuning and acceptor count as the real listener (default properties), then opens many
+ * client connections at once and has each bounce P3-sized frames off it. Prints connect rate,
+ * round-trip throughput and latency percentiles.
+ *
+ * Usage: P3TransportBenchmark [connections] [roundTripsPerConnection] [frameBytes]
+ */
+public class P3TransportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int roundTrips = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int frameBytes = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        List<NettyTransport> transports = Epoll.isAvailable()
+                ? List.of(NettyTransport.NIO, NettyTransport.EPOLL)
+                : List.of(NettyTransport.NIO);
+        if (!Epoll.isAvailable()) {
+            System.out.println("Epoll unavailable (" + Epoll.unavailabilityCause() + "), NIO only");
+        }
+
+        for (NettyTransport transport : transports) {
+            run(transport, connections, roundTrips, frameBytes);
+        }
+    }
+
+    private static void run(NettyTransport transport, int connections, int roundTrips, int frameBytes)
+            throws Exception {
+        int acceptors = transport.acceptorCount(0);
+        EventLoopGroup boss = transport.newEventLoopGroup(acceptors, "bench-accept");
+        EventLoopGroup workers = transport.newEventLoopGroup(0, "bench-io");
+        EventLoopGroup clients = transport.newEventLoopGroup(0, "bench-client");
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(boss, workers)
+                    .channel(transport.serverChannelType())
+                    .option(ChannelOption.SO_BACKLOG, connections)
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childHandler(new Echo());
+            transport.applyTuning(sb, new Properties());
+            // Every listener must share one port, so pick it up front
+            int port;
+            try (ServerSocket probe = new ServerSocket(0)) {
+                port = probe.getLocalPort();
+            }
+            List<Channel> listeners = transport.bind(sb, "127.0.0.1", port, acceptors);
+
+            byte[] frame = new byte[frameBytes];
+            Arrays.fill(frame, (byte) 0x20);
+            frame[0] = 0x5A;
+            CompletableFuture<Void> go = new CompletableFuture<>();
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(clients)
+                    .channel(transport.socketChannelType())
+                    .option(ChannelOption.TCP_NODELAY, true);
+
+            long connectStart = System.nanoTime();
+            List<Pinger> pingers = new ArrayList<>();
+            List<ChannelFuture> connects = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                Pinger pinger = new Pinger(frame, roundTrips, go);
+                pingers.add(pinger);
+                connects.add(bootstrap.clone().handler(pinger).connect("127.0.0.1", port));
+            }
+            for (ChannelFuture connect : connects) {
+                connect.sync();
+            }
+            long connectNanos = System.nanoTime() - connectStart;
+
+            long start = System.nanoTime();
+            go.complete(null);
+            long[] all = new long[connections * roundTrips];
+            int n = 0;
+            for (Pinger pinger : pingers) {
+                for (long latency : pinger.finished.get(5, TimeUnit.MINUTES)) {
+                    all[n++] = latency;
+                }
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            Arrays.sort(all);
+            System.out.printf("%s (%d acceptor%s):%n", transport, acceptors, acceptors == 1 ? "" : "s");
+            System.out.printf("  %d connects in %dms (%.0f/s)%n",
+                    connections, connectNanos / 1_000_000, connections * 1e9 / connectNanos);
+            System.out.printf("  %d round trips of %d bytes in %dms (%.0f/s), p50 %.3fms, p99 %.3fms, max %.3fms%n",
+                    all.length, frameBytes, elapsedNanos / 1_000_000, all.length * 1e9 / elapsedNanos,
+                    percentile(all, 0.50), percentile(all, 0.99), all[all.length - 1] / 1e6);
+
+            for (ChannelFuture connect : connects) {
+                connect.channel().close();
+            }
+            listeners.forEach(Channel::close);
+        } finally {
+            clients.shutdownGracefully().sync();
+            workers.shutdownGracefully().sync();
+            boss.shutdownGracefully().sync();
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    @ChannelHandler.Sharable
+    private static final class Echo extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ctx.writeAndFlush(msg);
+        }
+    }
+
+    /**
+     * Sends one frame, waits for all of it to come back, records the round trip, repeats.
+     */
+    private static final class Pinger extends ChannelInboundHandlerAdapter {
+        private final byte[] frame;
+        private final long[] latencies;
+        private final CompletableFuture<Void> go;
+        final CompletableFuture<long[]> finished = new CompletableFuture<>();
+        private int done;
+        private int received;
+        private volatile long sentAt;
+
+        Pinger(byte[] frame, int roundTrips, CompletableFuture<Void> go) {
+            this.frame = frame;
+            this.latencies = new long[roundTrips];
+            this.go = go;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            go.thenRun(() -> send(ctx));
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            received += buf.readableBytes();
+            buf.release();
+            if (received < frame.length) {
+                return;
+            }
+            received -= frame.length;
+            latencies[done++] = System.nanoTime() - sentAt;
+            if (done == latencies.length) {
+                finished.complete(latencies);
+            } else {
+                send(ctx);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            finished.completeExceptionally(cause);
+            ctx.close();
+        }
+
+        private void send(ChannelHandlerContext ctx) {
+            sentAt = System.nanoTime();
+            ctx.writeAndFlush(Unpooled.wrappedBuffer(frame));
+        }
+    }
+}
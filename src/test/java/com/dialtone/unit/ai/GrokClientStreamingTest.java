@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.ai;
+
+import com.dialtone.ai.GrokChatRequest;
+import com.dialtone.ai.GrokClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests GrokClient streaming against a local SSE stub server.
+ */
+class GrokClientStreamingTest {
+
+    private HttpServer server;
+    private GrokClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/responses", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            if (exchange.getRequestHeaders().getFirst("Authorization") == null) {
+                exchange.sendResponseHeaders(401, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String delta : List.of("Hello", " there.", " Bye!")) {
+                    String event = "event: response.output_text.delta\n" +
+                            "data: {\"type\":\"response.output_text.delta\",\"delta\":\"" + delta + "\"}\n\n";
+                    out.write(event.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                out.write("data: {\"type\":\"response.completed\"}\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/v1/broken/responses", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = "{\"error\":\"overloaded\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(503, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        client = new GrokClient("http://127.0.0.1:" + server.getAddress().getPort() + "/v1",
+                "test-key", "grok-test", 5000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldDeliverDeltasAndReturnFullText() throws Exception {
+        List<String> deltas = new CopyOnWriteArrayList<>();
+
+        String text = client.streamChatCompletion(request(), deltas::add).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("Hello", " there.", " Bye!"), deltas);
+        assertEquals("Hello there. Bye!", text);
+    }
+
+    @Test
+    void shouldLeaveCallersRequestUnchanged() throws Exception {
+        GrokChatRequest request = request();
+
+        client.streamChatCompletion(request, delta -> { }).get(5, TimeUnit.SECONDS);
+
+        assertNull(request.getStream());
+    }
+
+    @Test
+    void shouldFailOnErrorStatus() throws Exception {
+        GrokClient broken = new GrokClient("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/broken",
+                "test-key", "grok-test", 5000);
+        try {
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                    () -> broken.streamChatCompletion(request(), delta -> { }).get(5, TimeUnit.SECONDS));
+            assertTrue(ex.getCause().getMessage().contains("503"), ex.getCause().getMessage());
+        } finally {
+            broken.close();
+        }
+    }
+
+    private static GrokChatRequest request() {
+        return new GrokChatRequest("grok-test", List.of(new GrokChatRequest.Message("user", "hi")));
+    }
+}
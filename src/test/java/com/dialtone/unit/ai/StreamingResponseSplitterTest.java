@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.ai;
+
+import com.dialtone.ai.StreamingResponseSplitter;
+import com.dialtone.utils.SseEventParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StreamingResponseSplitter and SseEventParser.
+ */
+class StreamingResponseSplitterTest {
+
+    @Test
+    void shouldEmitEachSentenceAsSoonAsItCompletes() {
+        List<String> sent = new ArrayList<>();
+        StreamingResponseSplitter splitter = new StreamingResponseSplitter(68, 5, sent::add);
+
+        splitter.append("Hello the");
+        assertTrue(sent.isEmpty(), "Incomplete sentence should be buffered");
+
+        splitter.append("re! How are");
+        assertEquals(List.of("Hello there!"), sent);
+
+        splitter.append(" you today?");
+        List<String> all = splitter.finish();
+
+        assertEquals(List.of("Hello there!", "How are you today?"), sent);
+        assertEquals(sent, all);
+        assertEquals("Hello there! How are you today?", splitter.getFullText());
+    }
+
+    @Test
+    void shouldSplitLongSentencesWithinLimit() {
+        List<String> sent = new ArrayList<>();
+        StreamingResponseSplitter splitter = new StreamingResponseSplitter(20, 10, sent::add);
+
+        splitter.append("this sentence keeps going well past the twenty character limit.");
+        splitter.finish();
+
+        assertTrue(sent.size() > 1);
+        for (String part : sent) {
+            assertTrue(part.length() <= 20, "Part exceeds limit: " + part);
+        }
+    }
+
+    @Test
+    void shouldStopAtMaxMessages() {
+        List<String> sent = new ArrayList<>();
+        StreamingResponseSplitter splitter = new StreamingResponseSplitter(68, 2, sent::add);
+
+        splitter.append("One. Two. Three. Four. ");
+        splitter.finish();
+
+        assertEquals(List.of("One.", "Two."), sent);
+        assertTrue(splitter.wasTruncated());
+    }
+
+    @Test
+    void shouldStripCitationsAndIgnoreDeltasAfterCancel() {
+        List<String> sent = new ArrayList<>();
+        StreamingResponseSplitter splitter = new StreamingResponseSplitter(68, 5, sent::add);
+
+        splitter.append("Sky is blue [[1]](https://example.com).\n");
+        splitter.cancel();
+        splitter.append("Ignored. ");
+        splitter.finish();
+
+        assertEquals(List.of("Sky is blue ."), sent);
+    }
+
+    @Test
+    void sseParserShouldHandleFragmentedEvents() {
+        List<String> events = new ArrayList<>();
+        SseEventParser parser = new SseEventParser((event, data) -> events.add(event + "|" + data));
+
+        parser.feed(": keepalive\r\n");
+        parser.feed("event: delta\r\nda");
+        parser.feed("ta: {\"a\":1}\r\n\r\n");
+        parser.feed("data: line1\ndata: line2\n\n");
+        parser.feed("data: [DONE]");
+        parser.finish();
+
+        assertEquals(List.of("delta|{\"a\":1}", "null|line1\nline2", "null|[DONE]"), events);
+    }
+}
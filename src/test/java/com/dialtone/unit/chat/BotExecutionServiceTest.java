@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.chat;
+
+import com.dialtone.chat.bot.BotExecutionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotExecutionServiceTest {
+
+    private BotExecutionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BotExecutionService(1, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void shouldRunTaskOffCommonPool() {
+        CompletableFuture<String> future = service.submit("Grok", null,
+                () -> Thread.currentThread().isVirtual() ? "virtual" : "platform", "fallback", 5000);
+
+        assertEquals("virtual", future.join());
+        BotExecutionService.BotLaneStats stats = service.getStats().get(0);
+        assertEquals(1, stats.completed());
+    }
+
+    @Test
+    void shouldCapConcurrentRequestsPerBot() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        CompletableFuture<String> first = service.submit("Grok", "a", () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            release.await();
+            running.decrementAndGet();
+            return "first";
+        }, "", 5000);
+        CompletableFuture<String> second = service.submit("Grok", "b", () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            running.decrementAndGet();
+            return "second";
+        }, "", 5000);
+
+        assertEquals(1, service.getStats().get(0).queued());
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void shouldCoalesceQueuedPromptsWithSameKey() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        service.submit("Grok", "busy", () -> {
+            release.await();
+            return "busy";
+        }, "", 5000);
+
+        CompletableFuture<String> older = service.submit("Grok", "chat:lobby:alice", () -> "older", "superseded", 5000);
+        CompletableFuture<String> newer = service.submit("Grok", "chat:lobby:alice", () -> "newer", "superseded", 5000);
+
+        assertEquals("superseded", older.get(1, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals("newer", newer.get(5, TimeUnit.SECONDS));
+        assertEquals(1, service.getStats().get(0).coalesced());
+    }
+
+    @Test
+    void shouldDropOldestWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        service.submit("Grok", null, () -> {
+            release.await();
+            return "busy";
+        }, "", 5000);
+
+        CompletableFuture<String> a = service.submit("Grok", null, () -> "a", "dropped", 5000);
+        CompletableFuture<String> b = service.submit("Grok", null, () -> "b", "dropped", 5000);
+        CompletableFuture<String> c = service.submit("Grok", null, () -> "c", "dropped", 5000);
+
+        assertEquals("dropped", a.get(1, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals("b", b.get(5, TimeUnit.SECONDS));
+        assertEquals("c", c.get(5, TimeUnit.SECONDS));
+        assertEquals(1, service.getStats().get(0).dropped());
+    }
+
+    @Test
+    void shouldDiscardAnswersAfterDeadline() throws Exception {
+        CompletableFuture<String> future = service.submit("Grok", null, () -> {
+            Thread.sleep(2000);
+            return "late";
+        }, "timeout", 100);
+
+        assertEquals("timeout", future.get(5, TimeUnit.SECONDS));
+        assertEquals(1, service.getStats().get(0).timedOut());
+
+        // The lane slot is released once the interrupted task unwinds
+        CompletableFuture<String> next = service.submit("Grok", null, () -> "next", "", 5000);
+        assertEquals("next", next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldKeepLaneCapacityWhenPromptsExpireBeforeStarting() throws Exception {
+        // A zero deadline races the launch, so some prompts expire before their thread runs
+        for (int i = 0; i < 200; i++) {
+            service.submit("Grok", null, () -> "late", "timeout", 0).get(5, TimeUnit.SECONDS);
+        }
+
+        CompletableFuture<String> next = service.submit("Grok", null, () -> "next", "", 5000);
+        assertEquals("next", next.get(5, TimeUnit.SECONDS));
+        assertEquals(0, service.getStats().get(0).queued());
+    }
+
+    @Test
+    void shouldReturnFallbackWhenTaskFails() {
+        CompletableFuture<String> future = service.submit("Grok", null, () -> {
+            throw new IllegalStateException("boom");
+        }, "fallback", 5000);
+
+        assertEquals("fallback", future.join());
+        assertEquals(1, service.getStats().get(0).failed());
+    }
+}
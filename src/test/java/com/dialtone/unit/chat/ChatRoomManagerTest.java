@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.chat;
+
+import com.dialtone.auth.UserRegistry.UserConnection;
+import com.dialtone.chat.ActiveChatRoom;
+import com.dialtone.chat.ChatRoomManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ChatRoomManager and ActiveChatRoom.
+ */
+@DisplayName("ChatRoomManager")
+class ChatRoomManagerTest {
+
+    private ChatRoomManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = ChatRoomManager.getInstance();
+        manager.clear();
+        manager.configure(new Properties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.clear();
+    }
+
+    private static UserConnection connection(String username) {
+        UserConnection connection = mock(UserConnection.class);
+        when(connection.getUsername()).thenReturn(username);
+        return connection;
+    }
+
+    @Nested
+    @DisplayName("Rooms")
+    class RoomTests {
+
+        @Test
+        @DisplayName("should use the default room when no name is given")
+        void shouldUseDefaultRoom() {
+            ActiveChatRoom room = manager.enter("alice", null);
+
+            assertEquals(ChatRoomManager.DEFAULT_ROOM_NAME, room.getName());
+            assertSame(room, manager.roomOf("ALICE"));
+        }
+
+        @Test
+        @DisplayName("should share a room between case-insensitive names")
+        void shouldMatchRoomNamesCaseInsensitively() {
+            ActiveChatRoom first = manager.enter("alice", "Retro");
+            ActiveChatRoom second = manager.enter("bob", "retro");
+
+            assertSame(first, second);
+        }
+
+        @Test
+        @DisplayName("should remove a named room when its last user leaves")
+        void shouldRemoveEmptyRoom() {
+            manager.enter("alice", "Retro");
+
+            ChatRoomManager.Departure departure = manager.leave("alice");
+
+            assertEquals("Retro", departure.room().getName());
+            assertNull(manager.getRoom("Retro"));
+            assertNull(manager.roomOf("alice"));
+        }
+
+        @Test
+        @DisplayName("should keep the default room when empty")
+        void shouldKeepDefaultRoom() {
+            manager.enter("alice", null);
+            manager.leave("alice");
+
+            assertNotNull(manager.getRoom(ChatRoomManager.DEFAULT_ROOM_NAME));
+        }
+
+        @Test
+        @DisplayName("should send users to the default room once the room limit is reached")
+        void shouldFallBackToDefaultRoomAtLimit() {
+            Properties props = new Properties();
+            props.setProperty("chat.max.rooms", "2");
+            manager.configure(props);
+
+            manager.enter("alice", "One");
+            manager.enter("bob", "Two");
+            ActiveChatRoom room = manager.enter("carol", "Three");
+
+            assertEquals(ChatRoomManager.DEFAULT_ROOM_NAME, room.getName());
+            assertNull(manager.getRoom("Three"));
+        }
+
+        @Test
+        @DisplayName("should take a user out of their previous room when entering another")
+        void shouldLeavePreviousRoomOnEnter() {
+            ActiveChatRoom retro = manager.enter("alice", "Retro");
+
+            ActiveChatRoom lobby = manager.enter("alice", null);
+
+            assertSame(lobby, manager.roomOf("alice"));
+            assertEquals(ActiveChatRoom.NO_TAG, retro.getTag("alice"));
+            assertNull(manager.getRoom("Retro"));
+        }
+
+        @Test
+        @DisplayName("should resolve a missing room name to the default room")
+        void shouldResolveDefaultRoomName() {
+            assertEquals(ChatRoomManager.DEFAULT_ROOM_NAME, manager.resolveRoomName(null));
+            assertEquals(ChatRoomManager.DEFAULT_ROOM_NAME, manager.resolveRoomName("  "));
+            assertEquals("Retro", manager.resolveRoomName(" Retro "));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tags")
+    class TagTests {
+
+        @Test
+        @DisplayName("should scope tags to each room")
+        void shouldScopeTagsPerRoom() {
+            ActiveChatRoom lobby = manager.enter("alice", null);
+            ActiveChatRoom retro = manager.enter("bob", "Retro");
+
+            assertEquals(ActiveChatRoom.MIN_TAG, lobby.getTag("alice"));
+            assertEquals(ActiveChatRoom.MIN_TAG, retro.getTag("bob"));
+            assertEquals(ActiveChatRoom.NO_TAG, lobby.getTag("bob"));
+        }
+
+        @Test
+        @DisplayName("should return the same tag to a user who rejoins")
+        void shouldReuseTagOnRejoin() {
+            ActiveChatRoom room = manager.enter("alice", null);
+            manager.enter("bob", null);
+            int bobTag = room.getTag("bob");
+
+            manager.leave("bob");
+            manager.enter("carol", null);
+            manager.leave("carol");
+            manager.enter("bob", null);
+
+            assertEquals(bobTag, room.getTag("bob"));
+        }
+
+        @Test
+        @DisplayName("should release the tag of a user who never completed joining")
+        void shouldReleasePendingTag() {
+            ActiveChatRoom room = manager.enter("alice", null);
+
+            assertEquals(ActiveChatRoom.MIN_TAG, manager.leave("alice").tag());
+            assertEquals(ActiveChatRoom.NO_TAG, room.getTag("alice"));
+        }
+
+        @Test
+        @DisplayName("should report exhaustion when all tags are in use")
+        void shouldReportExhaustion() {
+            ActiveChatRoom room = null;
+            for (int tag = ActiveChatRoom.MIN_TAG; tag <= ActiveChatRoom.MAX_TAG; tag++) {
+                room = manager.enter("user" + tag, null);
+            }
+
+            assertEquals(ActiveChatRoom.NO_TAG, room.assignTag("one-too-many"));
+        }
+
+        @Test
+        @DisplayName("should refuse entry to a full room")
+        void shouldRefuseFullRoom() {
+            for (int tag = ActiveChatRoom.MIN_TAG; tag <= ActiveChatRoom.MAX_TAG; tag++) {
+                manager.enter("user" + tag, null);
+            }
+
+            assertNull(manager.enter("late", null));
+            assertNull(manager.roomOf("late"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Members")
+    class MemberTests {
+
+        @Test
+        @DisplayName("should list members in join order")
+        void shouldListMembersInJoinOrder() {
+            ActiveChatRoom room = manager.enter("alice", null);
+            manager.enter("bob", null);
+            room.join(connection("bob"));
+            room.join(connection("alice"));
+
+            List<ActiveChatRoom.Member> members = room.getMembers();
+
+            assertEquals(List.of("bob", "alice"), members.stream().map(ActiveChatRoom.Member::username).toList());
+        }
+
+        @Test
+        @DisplayName("should not admit a user without a tag")
+        void shouldRequireTagToJoin() {
+            ActiveChatRoom room = manager.enter("alice", null);
+
+            assertNull(room.join(connection("mallory")));
+            assertEquals(0, room.getMemberCount());
+        }
+
+        @Test
+        @DisplayName("should keep earlier snapshots unchanged after a leave")
+        void shouldKeepSnapshotsImmutable() {
+            ActiveChatRoom room = manager.enter("alice", null);
+            manager.enter("bob", null);
+            room.join(connection("alice"));
+            room.join(connection("bob"));
+            List<ActiveChatRoom.Member> before = room.getMembers();
+
+            manager.leave("alice");
+
+            assertEquals(2, before.size());
+            assertEquals(1, room.getMemberCount());
+            assertFalse(room.isMember("alice"));
+        }
+
+        @Test
+        @DisplayName("should keep bots out of the member list")
+        void shouldKeepBotsOutOfMembers() {
+            ActiveChatRoom room = manager.enter("alice", "Retro");
+            int botTag = manager.assignBotTag("grok", room);
+
+            assertTrue(botTag >= ActiveChatRoom.MIN_TAG);
+            assertEquals(0, room.getMemberCount());
+
+            // The room closes once its only human leaves, despite the bot's tag
+            manager.leave("alice");
+            assertNull(manager.getRoom("Retro"));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.chat;
+
+import com.dialtone.chat.ChatTagAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChatTagAllocator.
+ */
+@DisplayName("ChatTagAllocator")
+class ChatTagAllocatorTest {
+
+    private ChatTagAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new ChatTagAllocator(2, 255);
+    }
+
+    @Nested
+    @DisplayName("Allocation")
+    class AllocationTests {
+
+        @Test
+        @DisplayName("should hand out tags from the bottom of the range")
+        void shouldStartAtMinTag() {
+            assertEquals(2, allocator.allocate(ChatTagAllocator.NO_TAG));
+            assertEquals(3, allocator.allocate(ChatTagAllocator.NO_TAG));
+        }
+
+        @Test
+        @DisplayName("should prefer the requested tag when it is free")
+        void shouldPreferRequestedTag() {
+            assertEquals(200, allocator.allocate(200));
+            assertEquals(1, allocator.getStickyReuseCount());
+        }
+
+        @Test
+        @DisplayName("should not hand a freed tag to the next caller")
+        void shouldLeaveFreedTagForPreviousOwner() {
+            int first = allocator.allocate(ChatTagAllocator.NO_TAG);
+            allocator.allocate(ChatTagAllocator.NO_TAG);
+            allocator.release(first);
+
+            assertNotEquals(first, allocator.allocate(ChatTagAllocator.NO_TAG));
+            assertEquals(first, allocator.allocate(first));
+        }
+
+        @Test
+        @DisplayName("should wrap around to freed tags at the end of the range")
+        void shouldWrapAround() {
+            for (int i = 2; i <= 255; i++) {
+                allocator.allocate(ChatTagAllocator.NO_TAG);
+            }
+            allocator.release(70);
+
+            assertEquals(70, allocator.allocate(ChatTagAllocator.NO_TAG));
+        }
+
+        @Test
+        @DisplayName("should count exhaustion events")
+        void shouldCountExhaustion() {
+            for (int i = 2; i <= 255; i++) {
+                assertNotEquals(ChatTagAllocator.NO_TAG, allocator.allocate(ChatTagAllocator.NO_TAG));
+            }
+
+            assertEquals(ChatTagAllocator.NO_TAG, allocator.allocate(ChatTagAllocator.NO_TAG));
+            assertEquals(1, allocator.getExhaustionCount());
+            assertEquals(1.0, allocator.getUtilization());
+        }
+    }
+
+    @Nested
+    @DisplayName("Release")
+    class ReleaseTests {
+
+        @Test
+        @DisplayName("should release only allocated tags")
+        void shouldReleaseOnlyAllocatedTags() {
+            int tag = allocator.allocate(ChatTagAllocator.NO_TAG);
+
+            assertTrue(allocator.release(tag));
+            assertFalse(allocator.release(tag));
+            assertFalse(allocator.release(1));
+            assertEquals(0, allocator.getAllocatedCount());
+        }
+
+        @Test
+        @DisplayName("should track peak usage across releases")
+        void shouldTrackPeak() {
+            int a = allocator.allocate(ChatTagAllocator.NO_TAG);
+            int b = allocator.allocate(ChatTagAllocator.NO_TAG);
+            allocator.release(a);
+            allocator.release(b);
+
+            assertEquals(2, allocator.getPeakAllocatedCount());
+            assertEquals(0, allocator.getAllocatedCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("should never give one tag to two holders during churn")
+        void shouldNotDuplicateTagsUnderChurn() throws Exception {
+            int threads = 8;
+            ConcurrentHashMap<Integer, Boolean> held = new ConcurrentHashMap<>();
+            AtomicBoolean duplicate = new AtomicBoolean();
+            CountDownLatch done = new CountDownLatch(threads);
+
+            for (int t = 0; t < threads; t++) {
+                new Thread(() -> {
+                    List<Integer> mine = new ArrayList<>();
+                    for (int i = 0; i < 5_000; i++) {
+                        int tag = allocator.allocate(ChatTagAllocator.NO_TAG);
+                        if (tag != ChatTagAllocator.NO_TAG) {
+                            if (held.putIfAbsent(tag, Boolean.TRUE) != null) {
+                                duplicate.set(true);
+                            }
+                            mine.add(tag);
+                        }
+                        if (mine.size() > 20) {
+                            int released = mine.remove(0);
+                            held.remove(released);
+                            allocator.release(released);
+                        }
+                    }
+                    for (int tag : mine) {
+                        held.remove(tag);
+                        allocator.release(tag);
+                    }
+                    done.countDown();
+                }).start();
+            }
+
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            assertFalse(duplicate.get());
+            assertEquals(0, allocator.getAllocatedCount());
+        }
+    }
+}
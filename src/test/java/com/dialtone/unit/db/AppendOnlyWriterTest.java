@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.db;
+
+import com.dialtone.db.AppendOnlyWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link AppendOnlyWriter}, against a {@link RecordingDatabase}.
+ */
+class AppendOnlyWriterTest {
+
+    private final RecordingDatabase db = new RecordingDatabase();
+    private AppendOnlyWriter<String> writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void shouldWriteAppendedRecordsInBatches() {
+        writer = newWriter(1000, 64, 50);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(writer.append("r" + i));
+        }
+
+        assertTrue(writer.flush(5000));
+        assertEquals(100, db.committed.size());
+        assertEquals("r0", db.committed.get(0));
+        assertEquals("r99", db.committed.get(99));
+        assertTrue(db.commits.get() < 100, "records should share commits");
+        assertEquals(100, writer.getWrittenCount());
+    }
+
+    @Test
+    void shouldNotExceedBatchSize() {
+        writer = newWriter(1000, 10, 200);
+
+        for (int i = 0; i < 35; i++) {
+            writer.append("r" + i);
+        }
+
+        assertTrue(writer.flush(5000));
+        assertEquals(35, db.committed.size());
+        assertTrue(db.commits.get() >= 4);
+    }
+
+    @Test
+    void shouldDrainQueuedRecordsOnClose() {
+        // Long flush interval: records are still waiting for their batch when close() is called
+        writer = newWriter(1000, 1000, 60_000);
+
+        for (int i = 0; i < 20; i++) {
+            writer.append("r" + i);
+        }
+        writer.close();
+
+        assertEquals(20, db.committed.size());
+        assertEquals(0, writer.getQueueSize());
+    }
+
+    @Test
+    void shouldRejectRecordsAfterClose() {
+        writer = newWriter(1000, 64, 10);
+        writer.close();
+
+        assertFalse(writer.append("late"));
+        assertEquals(1, writer.getDroppedCount());
+    }
+
+    @Test
+    void shouldRollBackAndRetryFailedBatch() {
+        db.failNextBatches.set(1);
+        writer = newWriter(1000, 64, 10);
+
+        writer.append("a");
+        writer.append("b");
+
+        assertTrue(writer.flush(5000));
+        assertEquals(List.of("a", "b"), db.committed);
+        assertEquals(1, db.rollbacks.get());
+        assertEquals(0, writer.getDroppedCount());
+    }
+
+    @Test
+    void shouldDropBatchAfterRepeatedFailures() {
+        db.failNextBatches.set(Integer.MAX_VALUE);
+        writer = newWriter(1000, 64, 10);
+
+        writer.append("a");
+
+        assertTrue(writer.flush(5000));
+        assertTrue(db.committed.isEmpty());
+        assertEquals(1, writer.getDroppedCount());
+        assertEquals(1L, writer.getMetrics().get("failedBatches"));
+    }
+
+    @Test
+    void shouldRunMaintenanceOnWriterThread() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(2);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        writer = new AppendOnlyWriter<>("test", db.dataSource(), "INSERT", (stmt, r) -> stmt.setString(1, r),
+                100, 10, 10, (conn, deadline) -> {
+                    threads.add(Thread.currentThread().getName());
+                    assertTrue(deadline > System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+                    ran.countDown();
+                }, 20, 5);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertEquals("test-writer", threads.get(0));
+    }
+
+    private AppendOnlyWriter<String> newWriter(int capacity, int batchSize, long flushIntervalMs) {
+        return new AppendOnlyWriter<>("test", db.dataSource(), "INSERT", (stmt, r) -> stmt.setString(1, r),
+                capacity, batchSize, flushIntervalMs, null, 1000, 10);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.db;
+
+import com.dialtone.db.DatabaseWriter;
+import com.dialtone.db.DbSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DatabaseWriter}, against a {@link RecordingDatabase}.
+ */
+class DatabaseWriterTest {
+
+    private final RecordingDatabase db = new RecordingDatabase();
+    private DatabaseWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void shouldCommitQueuedWritesTogether() throws Exception {
+        writer = new DatabaseWriter(db.dataSource(), 100);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> blocker = writer.submit(waitFor(release));
+
+        List<CompletableFuture<Integer>> writes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            writes.add(writer.submit(insert("r" + i)));
+        }
+        release.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Integer> write : writes) {
+            assertEquals(1, (int) write.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(20, db.committed.size());
+        assertTrue(db.commits.get() <= 2, "queued writes should share one commit");
+    }
+
+    @Test
+    void shouldRollBackOnlyTheFailingWork() throws Exception {
+        writer = new DatabaseWriter(db.dataSource(), 100);
+        CountDownLatch release = new CountDownLatch(1);
+        writer.submit(waitFor(release));
+
+        CompletableFuture<Integer> first = writer.submit(insert("a"));
+        CompletableFuture<Integer> failing = writer.submit(session -> {
+            insert("b").run(session);
+            throw new SQLException("constraint failed");
+        });
+        CompletableFuture<Integer> last = writer.submit(insert("c"));
+        release.countDown();
+
+        assertEquals(1, (int) first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, (int) last.get(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SQLException);
+        assertEquals(List.of("a", "c"), db.committed);
+        assertEquals(1L, writer.getMetrics().get("failedWrites"));
+    }
+
+    @Test
+    void shouldRunNestedWriteInline() throws SQLException {
+        writer = new DatabaseWriter(db.dataSource(), 100);
+
+        int rows = writer.execute(session -> insert("outer").run(session) + writer.execute(insert("inner")));
+
+        assertEquals(2, rows);
+        assertEquals(List.of("outer", "inner"), db.committed);
+    }
+
+    @Test
+    void shouldFailEveryCallerWhenCommitFails() {
+        db.failCommits.set(true);
+        writer = new DatabaseWriter(db.dataSource(), 100);
+
+        SQLException e = assertThrows(SQLException.class, () -> writer.execute(insert("lost")));
+
+        assertEquals("disk I/O error", e.getMessage());
+        assertTrue(db.committed.isEmpty());
+        assertEquals(1L, writer.getMetrics().get("failedCommits"));
+    }
+
+    @Test
+    void shouldRejectWritesAfterClose() {
+        writer = new DatabaseWriter(db.dataSource(), 100);
+        writer.close();
+
+        assertThrows(SQLException.class, () -> writer.execute(insert("late")));
+    }
+
+    /** Holds the writer thread, so the writes queued meanwhile land in one batch */
+    private static DbSession.Work<Integer> waitFor(CountDownLatch latch) {
+        return session -> {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        };
+    }
+
+    private static DbSession.Work<Integer> insert(String value) {
+        return session -> {
+            PreparedStatement stmt = session.prepare("INSERT");
+            stmt.setString(1, value);
+            return stmt.executeUpdate();
+        };
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.db;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Mocked transactional JDBC stand-in for the writer tests: each connection keeps the rows
+ * its statements wrote and they become visible in {@link #committed} on commit.
+ */
+final class RecordingDatabase {
+
+    final List<String> committed = Collections.synchronizedList(new ArrayList<>());
+    final AtomicInteger commits = new AtomicInteger();
+    final AtomicInteger rollbacks = new AtomicInteger();
+    /** Number of upcoming {@code executeBatch} calls that fail as if the database were locked */
+    final AtomicInteger failNextBatches = new AtomicInteger();
+    /** Makes every commit fail as if the disk had gone away */
+    final AtomicBoolean failCommits = new AtomicBoolean();
+
+    DataSource dataSource() {
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            when(dataSource.getConnection()).thenAnswer(invocation -> connection());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+
+    private Connection connection() throws SQLException {
+        List<String> pending = new ArrayList<>();
+        Connection conn = mock(Connection.class);
+        when(conn.prepareStatement(anyString())).thenAnswer(invocation -> statement(pending));
+        // A savepoint remembers how many rows were pending when it was set
+        when(conn.setSavepoint()).thenAnswer(invocation -> savepoint(pending.size()));
+        doAnswer(invocation -> {
+            Savepoint savepoint = invocation.getArgument(0);
+            pending.subList(savepoint.getSavepointId(), pending.size()).clear();
+            return null;
+        }).when(conn).rollback(any(Savepoint.class));
+        doAnswer(invocation -> {
+            if (failCommits.get()) {
+                throw new SQLException("disk I/O error");
+            }
+            committed.addAll(pending);
+            pending.clear();
+            commits.incrementAndGet();
+            return null;
+        }).when(conn).commit();
+        doAnswer(invocation -> {
+            pending.clear();
+            rollbacks.incrementAndGet();
+            return null;
+        }).when(conn).rollback();
+        return conn;
+    }
+
+    private PreparedStatement statement(List<String> pending) throws SQLException {
+        String[] param = new String[1];
+        List<String> batch = new ArrayList<>();
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        doAnswer(invocation -> {
+            param[0] = invocation.getArgument(1);
+            return null;
+        }).when(stmt).setString(anyInt(), any());
+        doAnswer(invocation -> {
+            batch.add(param[0]);
+            return null;
+        }).when(stmt).addBatch();
+        when(stmt.executeBatch()).thenAnswer(invocation -> {
+            if (failNextBatches.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+                throw new SQLException("database is locked");
+            }
+            pending.addAll(batch);
+            int[] counts = new int[batch.size()];
+            batch.clear();
+            return counts;
+        });
+        when(stmt.executeUpdate()).thenAnswer(invocation -> {
+            pending.add(param[0]);
+            return 1;
+        });
+        return stmt;
+    }
+
+    private static Savepoint savepoint(int mark) throws SQLException {
+        Savepoint savepoint = mock(Savepoint.class);
+        when(savepoint.getSavepointId()).thenReturn(mark);
+        return savepoint;
+    }
+}
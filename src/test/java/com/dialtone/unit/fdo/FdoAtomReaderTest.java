@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.fdo;
+
+import com.atomforge.fdo.FdoCompiler;
+import com.atomforge.fdo.model.FdoAtom;
+import com.atomforge.fdo.model.FdoStream;
+import com.dialtone.fdo.FdoAtomReader;
+import com.dialtone.fdo.FdoStreamExtractor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FdoAtomReader.
+ */
+@DisplayName("FdoAtomReader")
+class FdoAtomReaderTest {
+
+    private static final String SOURCE = """
+            uni_start_stream <00x>
+              man_set_response_id <2097320>
+              de_data <"alice">
+              de_data <"secret">
+            uni_end_stream
+            """;
+
+    private static byte[] compile(String source) throws Exception {
+        return FdoCompiler.create().compile(source);
+    }
+
+    @Nested
+    @DisplayName("Cursor")
+    class CursorTests {
+
+        @Test
+        @DisplayName("should step over atoms by their length")
+        void shouldSkipByLength() {
+            byte[] data = {0x01, 0x10, 0x02, 'a', 'b', 0x02, 0x20, 0x00};
+            FdoAtomReader reader = new FdoAtomReader(data, 0, data.length);
+
+            assertTrue(reader.next());
+            assertEquals(0x0110, reader.getKey());
+            assertEquals(3, reader.getDataOffset());
+            assertEquals(2, reader.getDataLength());
+
+            assertTrue(reader.next());
+            assertEquals(0x0220, reader.getKey());
+            assertEquals(0, reader.getDataLength());
+
+            assertFalse(reader.next());
+            assertFalse(reader.isUnsupported());
+        }
+
+        @Test
+        @DisplayName("should read only the given range")
+        void shouldHonourRange() {
+            byte[] data = {(byte) 0xFF, 0x01, 0x10, 0x00, (byte) 0xFF};
+            FdoAtomReader reader = new FdoAtomReader(data, 1, 3);
+
+            assertTrue(reader.next());
+            assertEquals(0x0110, reader.getKey());
+            assertFalse(reader.next());
+            assertFalse(reader.isUnsupported());
+        }
+
+        @Test
+        @DisplayName("should stop on compact atom styles")
+        void shouldRejectCompactStyles() {
+            FdoAtomReader reader = new FdoAtomReader(new byte[]{0x21, 0x01, 'x'}, 0, 3);
+
+            assertFalse(reader.next());
+            assertTrue(reader.isUnsupported());
+        }
+
+        @Test
+        @DisplayName("should stop on UNI large atoms")
+        void shouldRejectLargeAtoms() {
+            FdoAtomReader reader = new FdoAtomReader(new byte[]{0x00, 0x04, 0x00}, 0, 3);
+
+            assertFalse(reader.next());
+            assertTrue(reader.isUnsupported());
+        }
+
+        @Test
+        @DisplayName("should stop when an atom's length runs past the range")
+        void shouldRejectOverrun() {
+            FdoAtomReader reader = new FdoAtomReader(new byte[]{0x01, 0x01, 0x05, 'a'}, 0, 4);
+
+            assertFalse(reader.next());
+            assertTrue(reader.isUnsupported());
+        }
+    }
+
+    @Nested
+    @DisplayName("Scan")
+    class ScanTests {
+
+        @Test
+        @DisplayName("should visit the same atoms as a full decode")
+        void shouldMatchFullDecode() throws Exception {
+            byte[] fdo = compile(SOURCE);
+            List<String> expected = FdoStream.decode(fdo).findAll("de_data").stream()
+                    .map(FdoAtom::getString)
+                    .toList();
+
+            List<String> visited = new ArrayList<>();
+            FdoAtomReader.scan(fdo, 0, fdo.length, (name, atom) -> visited.add(atom.getString()), "de_data");
+
+            assertEquals(List.of("alice", "secret"), expected);
+            assertEquals(expected, visited);
+        }
+
+        @Test
+        @DisplayName("should stop when the visitor returns false")
+        void shouldStopEarly() throws Exception {
+            byte[] fdo = compile(SOURCE);
+            int[] visits = new int[1];
+
+            FdoAtomReader.scan(fdo, 0, fdo.length, (name, atom) -> {
+                visits[0]++;
+                return false;
+            }, "de_data");
+
+            assertEquals(1, visits[0]);
+        }
+    }
+
+    @Nested
+    @DisplayName("Extractors")
+    class ExtractorTests {
+
+        @Test
+        @DisplayName("should extract de_data values and end of stream")
+        void shouldExtractFromPayload() throws Exception {
+            byte[] fdo = compile(SOURCE);
+
+            assertEquals(List.of("alice", "secret"), FdoStreamExtractor.extractDeData(fdo));
+            assertEquals("alice", FdoStreamExtractor.extractFirstDeData(fdo));
+            assertTrue(FdoStreamExtractor.hasUniEndStream(fdo));
+        }
+
+        @Test
+        @DisplayName("should read login credentials from a frame in place")
+        void shouldExtractCredentialsFromFrame() throws Exception {
+            byte[] fdo = compile(SOURCE);
+            byte[] frame = new byte[12 + fdo.length + 1];
+            System.arraycopy(fdo, 0, frame, 12, fdo.length);
+            frame[frame.length - 1] = 0x0D;
+
+            var credentials = FdoStreamExtractor.extractLoginCredentials(frame);
+
+            assertEquals("alice", credentials.username());
+            assertEquals("secret", credentials.password());
+        }
+    }
+}
@@ -4,6 +4,8 @@
 
 package com.dialtone.unit.fdo;
 
+import com.dialtone.fdo.CompiledFrames;
+import com.dialtone.fdo.FdoChunk;
 import com.dialtone.fdo.FdoCompiler;
 import com.dialtone.fdo.FdoProcessor;
 import com.dialtone.fdo.dsl.FdoBuilder;
@@ -13,6 +15,7 @@ import com.dialtone.fdo.dsl.builders.ConfigureActiveUsernameFdoBuilder;
 import com.dialtone.protocol.ClientPlatform;
 import com.dialtone.protocol.Pacer;
 import com.dialtone.protocol.SessionContext;
+import com.dialtone.protocol.TrafficClass;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
@@ -22,6 +25,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.List;
 import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -68,7 +72,8 @@ class FdoProcessorDslResolutionTest {
             ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "TEST_NOOP");
 
         // Verify pacer was called (indicates compilation succeeded)
-        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("TEST_NOOP")));
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("TEST_NOOP")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
     }
 
     @Test
@@ -80,7 +85,8 @@ class FdoProcessorDslResolutionTest {
         processor.compileAndSend(ctx, builder, session, "At", -1, "TEST_CONFIG");
 
         // Verify pacer was called
-        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("TEST_CONFIG")));
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("TEST_CONFIG")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
     }
 
     @Test
@@ -119,4 +125,32 @@ class FdoProcessorDslResolutionTest {
         String gid2 = FdoCompiler.extractGidFromPath("fdo/post_login/username_config.fdo.txt");
         assertEquals("post_login/username_config", gid2);
     }
+
+    @Test
+    @DisplayName("Precompiled frames should match an inline compile for any stream ID")
+    void precompiledFramesShouldMatchInlineCompile() throws Exception {
+        RenderingContext renderingCtx = new RenderingContext(ClientPlatform.WINDOWS, false);
+        FdoBuilder builder = ConfigureActiveUsernameFdoBuilder.forUser("SomeUser");
+
+        CompiledFrames frames = compiler.precompileBuilder(builder, renderingCtx, "AT");
+        List<FdoChunk> expected = compiler.compileFdoScriptToP3Chunks(builder.toSource(renderingCtx), "AT", 0x1234);
+        List<FdoChunk> actual = frames.toChunks(0x1234);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).getBinaryData(), actual.get(i).getBinaryData());
+        }
+    }
+
+    @Test
+    @DisplayName("Should send precompiled frames without compiling")
+    void shouldSendPrecompiledFrames() throws Exception {
+        CompiledFrames frames = compiler.precompileBuilder(
+            NoopFdoBuilder.INSTANCE, RenderingContext.DEFAULT, "AT");
+
+        processor.send(ctx, frames, -1, "TEST_PRECOMPILED", "TestUser");
+
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("TEST_PRECOMPILED")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
+    }
 }
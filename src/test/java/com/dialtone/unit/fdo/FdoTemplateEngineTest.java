@@ -300,4 +300,72 @@ class FdoTemplateEngineTest {
         // Then: Empty byte array should produce "00x" placeholder
         assertEquals("test <00x>", result.toLowerCase());
     }
+
+    @Test
+    void testMissingVariable_placeholderLeftInPlace() {
+        // Given: A template referencing a variable that is not supplied
+        Map<String, Object> varsMap = vars("NAME", "Alice");
+
+        // When: Substituting variables
+        String result = FdoTemplateEngine.substituteVariables("{{NAME}} {{OTHER}} {{NAME}}", varsMap);
+
+        // Then: Known placeholders are replaced everywhere, unknown ones are untouched
+        assertEquals("Alice {{OTHER}} Alice", result);
+    }
+
+    @Test
+    void testValueContainingPlaceholder_notSubstitutedAgain() {
+        // Given: A value that looks like another placeholder
+        Map<String, Object> varsMap = new HashMap<>();
+        varsMap.put("FIRST", "{{SECOND}}");
+        varsMap.put("SECOND", "x");
+
+        // When: Substituting variables
+        String result = FdoTemplateEngine.substituteVariables("[{{FIRST}}][{{SECOND}}]", varsMap);
+
+        // Then: Substitution is a single pass over the template
+        assertEquals("[{{SECOND}}][x]", result);
+    }
+
+    @Test
+    void testExtraBraces_keptAsText() {
+        Map<String, Object> varsMap = vars("NAME", "Bob");
+
+        String result = FdoTemplateEngine.substituteVariables("{{{NAME}}}", varsMap);
+
+        assertEquals("{Bob}", result);
+    }
+
+    @Test
+    void testRawFdoVariable_copiedUnchanged() {
+        Map<String, Object> varsMap = vars("INNER_FDO", "man_set_context_title \"Hi\"\nuni_end_stream");
+
+        String result = FdoTemplateEngine.substituteVariables("{{INNER_FDO}}", varsMap);
+
+        assertEquals("man_set_context_title \"Hi\"\nuni_end_stream", result);
+    }
+
+    @Test
+    void testConvertNewlinesToAolFormat_leadingCrLfAndLoneCr() {
+        assertEquals("\u007Fa\rb\u007F\u007Fc",
+            FdoTemplateEngine.convertNewlinesToAolFormat("\r\na\rb\r\n\nc"));
+    }
+
+    @Test
+    void testFindTemplateSource_cachedAndReusedForSubstitution() throws IOException {
+        // Given: A resource template loaded twice
+        String first = FdoTemplateEngine.findTemplateSource("fdo/test/quote_escape_test.fdo.txt").orElseThrow();
+        String second = FdoTemplateEngine.findTemplateSource("fdo/test/quote_escape_test.fdo.txt").orElseThrow();
+
+        // Then: The same cached text is returned and renders like processTemplate
+        assertSame(first, second);
+        assertEquals(
+            FdoTemplateEngine.processTemplate("fdo/test/quote_escape_test.fdo.txt", vars("MESSAGE", "hi")),
+            FdoTemplateEngine.substituteVariables(first, vars("MESSAGE", "hi")));
+    }
+
+    @Test
+    void testFindTemplateSource_missingResource() throws IOException {
+        assertTrue(FdoTemplateEngine.findTemplateSource("fdo/test/does_not_exist.fdo.txt").isEmpty());
+    }
 }
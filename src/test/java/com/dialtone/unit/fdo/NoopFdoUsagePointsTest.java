@@ -10,6 +10,7 @@ import com.dialtone.fdo.dsl.builders.NoopFdoBuilder;
 import com.dialtone.protocol.ClientPlatform;
 import com.dialtone.protocol.Pacer;
 import com.dialtone.protocol.SessionContext;
+import com.dialtone.protocol.TrafficClass;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
@@ -64,7 +65,8 @@ class NoopFdoUsagePointsTest {
             ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "CO_ACK");
 
         // P3ChunkEnqueuer calls enqueue with label like "CO_ACK_00"
-        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("CO_ACK")));
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("CO_ACK")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
     }
 
     @Test
@@ -73,7 +75,8 @@ class NoopFdoUsagePointsTest {
         processor.compileAndSend(
             ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "CL_ACK");
 
-        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("CL_ACK")));
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("CL_ACK")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
     }
 
     @Test
@@ -82,7 +85,8 @@ class NoopFdoUsagePointsTest {
         processor.compileAndSend(
             ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "MP_ACK");
 
-        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("MP_ACK")));
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("MP_ACK")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
     }
 
     @Test
@@ -91,7 +95,8 @@ class NoopFdoUsagePointsTest {
         processor.compileAndSend(
             ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "KK_UNKNOWN_ACK");
 
-        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("KK_UNKNOWN_ACK")));
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("KK_UNKNOWN_ACK")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
     }
 
     @Test
@@ -100,7 +105,8 @@ class NoopFdoUsagePointsTest {
         processor.compileAndSend(
             ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "TOS_ACK");
 
-        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("TOS_ACK")));
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("TOS_ACK")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
     }
 
     @Test
@@ -109,7 +115,8 @@ class NoopFdoUsagePointsTest {
         processor.compileAndSend(
             ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "ACK");
 
-        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("ACK")));
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("ACK")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
     }
 
     @Test
@@ -118,7 +125,8 @@ class NoopFdoUsagePointsTest {
         processor.compileAndSend(
             ctx, NoopFdoBuilder.INSTANCE, session, "At", -1, "XG_NO_TRANSFER");
 
-        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("XG_NO_TRANSFER")));
+        verify(pacer, atLeastOnce()).enqueue(any(), argThat(s -> s.startsWith("XG_NO_TRANSFER")),
+                eq(TrafficClass.INTERACTIVE), anyBoolean());
     }
 
     @Test
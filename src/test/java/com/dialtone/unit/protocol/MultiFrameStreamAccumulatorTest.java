@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.protocol;
+
+import com.dialtone.protocol.MultiFrameStreamAccumulator;
+import com.dialtone.protocol.MultiFrameStreamAccumulator.CompletedStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MultiFrameStreamAccumulator.
+ *
+ * <p>Fragments use UNI_LARGE_ATOM_SEGMENT payloads (0x00 0x05 ...) and final frames end
+ * with a bare uni_end_stream ([0x00][0x03][0x00]), so end-of-stream detection never needs
+ * the native decoder.</p>
+ */
+@DisplayName("MultiFrameStreamAccumulator")
+class MultiFrameStreamAccumulatorTest {
+
+    private static final byte[] END_STREAM = {0x00, 0x03, 0x00};
+
+    private MultiFrameStreamAccumulator accumulator;
+
+    @BeforeEach
+    void setUp() {
+        accumulator = new MultiFrameStreamAccumulator("Aa", 2, 64, 30000);
+    }
+
+    private static byte[] frame(int streamId, byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{0x5A, 0x00, 0x00, 0x00, 0x00, 0x10, 0x7F, 0x20, 'A', 'a',
+                (byte) (streamId >> 8), (byte) streamId});
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        out.write(0x0D);
+        return out.toByteArray();
+    }
+
+    private static byte[] segment(String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0x00);
+        out.write(0x05);
+        out.writeBytes(text.getBytes());
+        return out.toByteArray();
+    }
+
+    @Nested
+    @DisplayName("Reassembly")
+    class ReassemblyTests {
+
+        @Test
+        @DisplayName("should complete a single frame with uni_end_stream immediately")
+        void shouldCompleteSingleFrame() {
+            try (CompletedStream stream = accumulator.append(1, frame(1, segment("hi"), END_STREAM))) {
+                assertNotNull(stream);
+                assertEquals(1, stream.getFrameCount());
+                assertArrayEquals(new byte[]{0x00, 0x05, 'h', 'i', 0x00, 0x03, 0x00}, stream.toByteArray());
+            }
+            assertTrue(accumulator.isEmpty());
+        }
+
+        @Test
+        @DisplayName("should join payloads in arrival order without headers or terminators")
+        void shouldJoinPayloadsInOrder() {
+            assertNull(accumulator.append(7, frame(7, segment("one"))));
+            assertNull(accumulator.append(7, frame(7, segment("two"))));
+            assertEquals(1, accumulator.size());
+
+            try (CompletedStream stream = accumulator.append(7, frame(7, END_STREAM))) {
+                assertNotNull(stream);
+                assertEquals(3, stream.getFrameCount());
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                expected.writeBytes(segment("one"));
+                expected.writeBytes(segment("two"));
+                expected.writeBytes(END_STREAM);
+                assertArrayEquals(expected.toByteArray(), stream.toByteArray());
+            }
+            assertTrue(accumulator.isEmpty());
+        }
+
+        @Test
+        @DisplayName("should keep streams with different IDs apart")
+        void shouldSeparateStreams() {
+            assertNull(accumulator.append(1, frame(1, segment("a"))));
+            assertNull(accumulator.append(2, frame(2, segment("b"))));
+
+            try (CompletedStream stream = accumulator.append(2, frame(2, END_STREAM))) {
+                assertEquals(2, stream.getFrameCount());
+                assertEquals('b', stream.toByteArray()[2]);
+            }
+            assertEquals(1, accumulator.size());
+        }
+
+        @Test
+        @DisplayName("should detect uni_end_stream split across two frames")
+        void shouldDetectSplitMarker() {
+            assertNull(accumulator.append(3, frame(3, segment("xy"), new byte[]{0x00, 0x03})));
+
+            try (CompletedStream stream = accumulator.append(3, frame(3, new byte[]{0x00}))) {
+                assertNotNull(stream);
+                assertEquals(2, stream.getFrameCount());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Limits")
+    class LimitTests {
+
+        @Test
+        @DisplayName("should drop a stream that exceeds the byte limit and swallow its tail")
+        void shouldDropOversizedStream() {
+            assertNull(accumulator.append(4, frame(4, segment("a".repeat(40)))));
+            assertNull(accumulator.append(4, frame(4, segment("b".repeat(40)))));
+
+            assertEquals(1, accumulator.getDroppedStreamCount());
+            assertEquals(0, accumulator.size());
+
+            // The final frame of the dropped stream is not treated as a new message
+            assertNull(accumulator.append(4, frame(4, END_STREAM)));
+
+            // The Stream ID is usable again afterwards
+            try (CompletedStream stream = accumulator.append(4, frame(4, END_STREAM))) {
+                assertNotNull(stream);
+            }
+        }
+
+        @Test
+        @DisplayName("should refuse new streams beyond the stream limit")
+        void shouldCapPendingStreams() {
+            assertNull(accumulator.append(1, frame(1, segment("a"))));
+            assertNull(accumulator.append(2, frame(2, segment("b"))));
+            assertNull(accumulator.append(3, frame(3, segment("c"))));
+
+            assertEquals(2, accumulator.size());
+            assertEquals(1, accumulator.getDroppedStreamCount());
+            assertNull(accumulator.append(3, frame(3, END_STREAM)));
+        }
+
+        @Test
+        @DisplayName("should swallow the tail of every stream refused at the limit")
+        void shouldRememberEveryRefusedStream() {
+            assertNull(accumulator.append(1, frame(1, segment("a"))));
+            assertNull(accumulator.append(2, frame(2, segment("b"))));
+            for (int id = 3; id <= 12; id++) {
+                assertNull(accumulator.append(id, frame(id, segment("c"))));
+            }
+
+            for (int id = 3; id <= 12; id++) {
+                assertNull(accumulator.append(id, frame(id, segment("d"))), "stream " + id);
+                assertNull(accumulator.append(id, frame(id, END_STREAM)), "stream " + id);
+            }
+            assertEquals(10, accumulator.getDroppedStreamCount());
+            assertEquals(2, accumulator.size());
+        }
+
+        @Test
+        @DisplayName("should expire streams that do not finish in time")
+        void shouldExpireStaleStreams() throws InterruptedException {
+            MultiFrameStreamAccumulator shortLived = new MultiFrameStreamAccumulator("Aa", 2, 64, 1);
+            assertNull(shortLived.append(5, frame(5, segment("old"))));
+
+            Thread.sleep(10);
+            try (CompletedStream stream = shortLived.append(6, frame(6, END_STREAM))) {
+                assertNotNull(stream);
+            }
+
+            assertEquals(1, shortLived.getExpiredStreamCount());
+            assertTrue(shortLived.isEmpty());
+        }
+    }
+}
@@ -7,6 +7,7 @@ package com.dialtone.unit.protocol;
 import com.dialtone.aol.core.ProtocolConstants;
 import com.dialtone.protocol.Pacer;
 import com.dialtone.protocol.PacketType;
+import com.dialtone.protocol.TrafficClass;
 import com.dialtone.state.SequenceManager;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -30,6 +31,7 @@ import static org.mockito.Mockito.*;
  * - Deferred drain pattern
  * - Channel backpressure handling
  * - Priority queueing
+ * - Traffic class scheduling (DRR)
  * - Buffer management
  */
 @DisplayName("Pacer Flow Control Tests")
@@ -433,6 +435,124 @@ class PacerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Traffic Classes")
+    class TrafficClasses {
+
+        @BeforeEach
+        void useFrameSizedQuanta() {
+            // One 20-byte test frame per round for each class
+            pacer.setInterFrameDelayMs(0);
+            pacer.setQuantum(TrafficClass.INTERACTIVE, 20);
+            pacer.setQuantum(TrafficClass.BULK, 20);
+        }
+
+        @Test
+        @DisplayName("Should send an interactive frame ahead of a queued bulk transfer")
+        void shouldSendInteractiveAheadOfBulk() {
+            for (int i = 1; i <= 4; i++) {
+                pacer.enqueueSafe(ctx, buildTestDataFrame("B" + i), "BULK", TrafficClass.BULK);
+            }
+            pacer.drainLimited(ctx, 2);
+            assertEquals("B1", readOutboundToken());
+            assertEquals("B2", readOutboundToken());
+
+            pacer.enqueueSafe(ctx, buildTestDataFrame("IM"), "IM");
+            pacer.drainLimited(ctx, 2);
+
+            assertEquals("IM", readOutboundToken());
+            assertEquals("B3", readOutboundToken());
+            assertEquals(1, pacer.getPendingCount(TrafficClass.BULK));
+        }
+
+        @Test
+        @DisplayName("Should share the window in proportion to the quanta")
+        void shouldShareWindowByQuantum() {
+            pacer.setQuantum(TrafficClass.INTERACTIVE, 40);
+            for (int i = 1; i <= 4; i++) {
+                pacer.enqueueSafe(ctx, buildTestDataFrame("B" + i), "BULK", TrafficClass.BULK);
+                pacer.enqueueSafe(ctx, buildTestDataFrame("I" + i), "INTERACTIVE");
+            }
+
+            pacer.drainLimited(ctx, 8);
+
+            String[] expected = {"I1", "I2", "B1", "I3", "I4", "B2", "B3", "B4"};
+            for (String token : expected) {
+                assertEquals(token, readOutboundToken());
+            }
+            assertFalse(pacer.hasPending());
+        }
+
+        @Test
+        @DisplayName("Should keep a stream contiguous except for control frames")
+        void shouldKeepStreamContiguous() {
+            enqueueStreamFrame("S1");
+            enqueueStreamFrame("S2");
+            enqueueStreamFrame("S3");
+            pacer.endStream(TrafficClass.BULK);
+
+            pacer.drainLimited(ctx, 1);
+            assertEquals("S1", readOutboundToken());
+
+            pacer.enqueueSafe(ctx, buildTestDataFrame("IM"), "IM");
+            pacer.enqueuePrioritySafe(ctx, buildTestControlFrame(), "CONTROL");
+            pacer.drainLimited(ctx, 4);
+
+            assertEquals("CONTROL", readOutboundToken());
+            assertEquals("S2", readOutboundToken());
+            assertEquals("S3", readOutboundToken());
+            assertEquals("IM", readOutboundToken());
+        }
+
+        @Test
+        @DisplayName("Should hold other frames until an open stream is ended")
+        void shouldHoldUntilStreamEnds() {
+            enqueueStreamFrame("S1");
+            pacer.drainLimited(ctx, 1);
+            assertEquals("S1", readOutboundToken());
+
+            pacer.enqueueSafe(ctx, buildTestDataFrame("IM"), "IM");
+            pacer.drainLimited(ctx, 4);
+            assertNull(channel.readOutbound());
+
+            pacer.endStream(TrafficClass.BULK);
+            pacer.drainLimited(ctx, 4);
+            assertEquals("IM", readOutboundToken());
+        }
+
+        @Test
+        @DisplayName("Should reject a quantum for the control class")
+        void shouldRejectControlQuantum() {
+            assertThrows(IllegalArgumentException.class, () -> pacer.setQuantum(TrafficClass.CONTROL, 100));
+        }
+
+        private void enqueueStreamFrame(String token) {
+            ByteBuf buf = ByteBufAllocator.DEFAULT.buffer().writeBytes(buildTestDataFrame(token));
+            try {
+                pacer.enqueue(buf, token, TrafficClass.BULK, true);
+            } finally {
+                buf.release();
+            }
+        }
+
+        /**
+         * @return token of the next written DATA frame, or "CONTROL" for a control frame
+         */
+        private String readOutboundToken() {
+            ByteBuf buf = channel.readOutbound();
+            assertNotNull(buf);
+            try {
+                if (buf.getByte(ProtocolConstants.IDX_TYPE) != (byte) PacketType.DATA.getValue()) {
+                    return "CONTROL";
+                }
+                return "" + (char) buf.getByte(ProtocolConstants.IDX_TOKEN)
+                        + (char) buf.getByte(ProtocolConstants.IDX_TOKEN + 1);
+            } finally {
+                buf.release();
+            }
+        }
+    }
+
     // ========= Helper Methods =========
 
     /**
@@ -7,11 +7,19 @@ package com.dialtone.unit.protocol;
 import com.dialtone.aol.core.ProtocolConstants;
 import com.dialtone.protocol.PacketType;
 import com.dialtone.state.SequenceManager;
+import com.dialtone.state.StallMonitor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -582,6 +590,77 @@ class SequenceManagerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Stall Detection")
+    class StallDetection {
+
+        @BeforeEach
+        void shortenTimeout() {
+            configureStallTimeout("100");
+        }
+
+        @AfterEach
+        void restoreTimeout() {
+            configureStallTimeout(String.valueOf(StallMonitor.DEFAULT_TIMEOUT_MS));
+        }
+
+        @Test
+        @DisplayName("Should report a full window to the stall handler until it reopens")
+        void shouldReportStallUntilWindowOpens() throws Exception {
+            long detectedBefore = stallMetric("stallsDetected");
+            CountDownLatch reports = new CountDownLatch(2);
+            AtomicInteger lastCheck = new AtomicInteger();
+            manager.setStallHandler((stalledMs, checks) -> {
+                lastCheck.set(checks);
+                reports.countDown();
+            });
+
+            fillWindow();
+            assertTrue(reports.await(5, TimeUnit.SECONDS));
+            assertTrue(lastCheck.get() >= 2);
+            assertEquals(detectedBefore + 1, stallMetric("stallsDetected"));
+
+            // ACK everything: the window opens and the stall ends
+            manager.updateAckFromIncoming(buildClientFrameWithRx(0x20, 0x20));
+            assertEquals(0, manager.getOutstandingWindowFill());
+            int checksAtOpen = lastCheck.get();
+
+            Thread.sleep(400);
+            assertEquals(checksAtOpen, lastCheck.get());
+        }
+
+        @Test
+        @DisplayName("Should not report a window that reopens before the timeout")
+        void shouldIgnoreShortFullWindow() throws Exception {
+            AtomicInteger reports = new AtomicInteger();
+            manager.setStallHandler((stalledMs, checks) -> reports.incrementAndGet());
+
+            fillWindow();
+            manager.updateAckFromIncoming(buildClientFrameWithRx(0x20, 0x20));
+            manager.getOutstandingWindowFill();
+
+            Thread.sleep(400);
+            assertEquals(0, reports.get());
+        }
+
+        private void fillWindow() {
+            manager.setLastSentDataTx(0x20);
+            manager.updateAckFromIncoming(buildClientFrameWithRx(0x20, 0x10));
+            assertEquals(16, manager.getOutstandingWindowFill());
+        }
+
+        private void configureStallTimeout(String timeoutMs) {
+            Properties properties = new Properties();
+            properties.setProperty("stall.timeout.ms", timeoutMs);
+            StallMonitor.getInstance().configure(properties);
+        }
+
+        private long stallMetric(String name) {
+            Map<String, Object> metrics = StallMonitor.getInstance().getMetrics();
+            return ((Number) metrics.get(name)).longValue();
+        }
+    }
+
     @Nested
     @DisplayName("Cleanup and Resource Management")
     class CleanupAndResourceManagement {
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.protocol.xfer;
+
+import com.dialtone.protocol.Pacer;
+import com.dialtone.protocol.TrafficClass;
+import com.dialtone.protocol.xfer.XferTransferEngine;
+import com.dialtone.protocol.xfer.XferTransferRegistry;
+import com.dialtone.protocol.xfer.XferTransferState;
+import com.dialtone.protocol.xfer.XferTransferState.Phase;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link XferTransferEngine}, driven tick by tick on a simulated clock.
+ */
+class XferTransferEngineTest {
+
+    /** Encoded bytes per F7/F9 frame */
+    private static final int CHUNK = 950;
+    private static final long TICK_NANOS = 20_000_000L;
+
+    private XferTransferEngine engine;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        engine = XferTransferEngine.createManuallyTicked();
+        now = System.nanoTime();
+    }
+
+    @Test
+    void shouldHoldAggregateRateToConfiguredLimit() {
+        configureRate(9_500);
+        XferTransferState state = sendingState(100);
+        engine.start(activeContext(), idlePacer(), state, done -> { });
+
+        runFor(10_000);
+
+        // 10 chunks a second, give or take the one the initial burst allows
+        int chunks = state.getEncodedBytesSent() / CHUNK;
+        assertTrue(chunks >= 99 && chunks <= 101, "sent " + chunks + " chunks");
+    }
+
+    @Test
+    void shouldKeepSendingBelowOneChunkPerSecond() {
+        configureRate(100);
+        XferTransferState state = sendingState(10);
+        engine.start(activeContext(), idlePacer(), state, done -> { });
+
+        runFor(20_000);
+
+        // 2000 bytes earned in 20s: two whole chunks
+        assertEquals(2 * CHUNK, state.getEncodedBytesSent());
+    }
+
+    @Test
+    void shouldAccrueRatesBelowOneBytePerTick() {
+        configureRate(40);
+        XferTransferState state = sendingState(10);
+        engine.start(activeContext(), idlePacer(), state, done -> { });
+
+        runFor(30_000);
+
+        assertEquals(CHUNK, state.getEncodedBytesSent());
+    }
+
+    @Test
+    void shouldNotOverflowRefillAfterLongIdle() {
+        // Hours without a tick: rate * elapsed would overflow a long unless the gap is clamped
+        now += TimeUnit.HOURS.toNanos(3);
+        configureRate(1_000_000);
+        XferTransferState state = sendingState(100);
+        engine.start(activeContext(), idlePacer(), state, done -> { });
+
+        runFor(1_000);
+
+        assertTrue(state.isDataComplete(), "sent " + state.getEncodedBytesSent() / CHUNK + " chunks");
+    }
+
+    @Test
+    void shouldShareBandwidthEquallyBetweenTransfers() {
+        configureRate(19_000);
+        List<XferTransferState> states = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            XferTransferState state = sendingState(1_000);
+            states.add(state);
+            engine.start(activeContext(), idlePacer(), state, done -> { });
+        }
+
+        runFor(5_000);
+
+        int first = states.get(0).getEncodedBytesSent() / CHUNK;
+        int second = states.get(1).getEncodedBytesSent() / CHUNK;
+        assertTrue(first + second >= 99 && first + second <= 101, "sent " + (first + second) + " chunks");
+        assertTrue(Math.abs(first - second) <= 1, first + " vs " + second + " chunks");
+    }
+
+    @Test
+    void shouldFeedOnlyTransfersBelowLowWater() {
+        configureRate(0);
+        Pacer backedUp = mock(Pacer.class);
+        when(backedUp.getPendingCount(TrafficClass.BULK)).thenReturn(8);
+        XferTransferState stalled = sendingState(10);
+        XferTransferState flowing = sendingState(10);
+        engine.start(activeContext(), backedUp, stalled, done -> { });
+        engine.start(activeContext(), idlePacer(), flowing, done -> { });
+
+        runFor(100);
+
+        assertEquals(0, stalled.getEncodedBytesSent());
+        assertTrue(flowing.isDataComplete());
+    }
+
+    @Test
+    void shouldStartQueuedTransferWhenActiveOneCompletes() {
+        configureRate(0);
+        ChannelHandlerContext ctx = activeContext();
+        Pacer pacer = idlePacer();
+        XferTransferRegistry registry = new XferTransferRegistry("TestUser");
+        XferTransferState first = sendingState(3);
+        XferTransferState second = sendingState(3);
+        registry.registerOrQueue(first);
+        registry.registerOrQueue(second);
+        first.setPhase(Phase.SENDING_DATA);
+        List<Boolean> outcomes = new ArrayList<>();
+
+        engine.start(ctx, pacer, first, success -> {
+            outcomes.add(success);
+            registry.markCompleted();
+            XferTransferState next = registry.activateNextQueued();
+            next.setPhase(Phase.SENDING_DATA);
+            engine.start(ctx, pacer, next, outcomes::add);
+        });
+
+        runFor(100);
+
+        assertEquals(List.of(true, true), outcomes);
+        assertEquals(Phase.COMPLETED, first.getPhase());
+        assertTrue(second.isDataComplete());
+        assertSame(second, registry.getActiveTransfer());
+        assertEquals(0, registry.getQueuedCount());
+        assertEquals(2L, engine.getMetrics().get("transfersCompleted"));
+    }
+
+    @Test
+    void shouldStopTransferWhenConnectionCloses() {
+        configureRate(0);
+        ChannelHandlerContext ctx = activeContext();
+        XferTransferState state = sendingState(10);
+        List<Boolean> outcomes = new ArrayList<>();
+        engine.start(ctx, idlePacer(), state, outcomes::add);
+        when(ctx.channel().isActive()).thenReturn(false);
+
+        runFor(100);
+
+        assertEquals(List.of(false), outcomes);
+        assertEquals(0, state.getEncodedBytesSent());
+        assertTrue(engine.getActiveTransfers().isEmpty());
+    }
+
+    private void configureRate(long bytesPerSecond) {
+        Properties props = new Properties();
+        props.setProperty("xfer.bandwidth.bytes.per.sec", String.valueOf(bytesPerSecond));
+        engine.configure(props);
+        // First tick only sets the refill clock; the bucket starts empty
+        engine.tick(now);
+    }
+
+    private void runFor(long millis) {
+        for (long elapsed = 0; elapsed < millis * 1_000_000L; elapsed += TICK_NANOS) {
+            now += TICK_NANOS;
+            engine.tick(now);
+        }
+    }
+
+    private static ChannelHandlerContext activeContext() {
+        ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
+        Channel channel = mock(Channel.class);
+        when(channel.isActive()).thenReturn(true);
+        when(ctx.channel()).thenReturn(channel);
+        when(ctx.executor()).thenReturn(ImmediateEventExecutor.INSTANCE);
+        return ctx;
+    }
+
+    /**
+     * A pacer that drains instantly, so every feed has the full low-water room.
+     */
+    private static Pacer idlePacer() {
+        Pacer pacer = mock(Pacer.class);
+        when(pacer.getPendingCount(TrafficClass.BULK)).thenReturn(0);
+        return pacer;
+    }
+
+    private static XferTransferState sendingState(int chunks) {
+        XferTransferState state = new XferTransferState(
+            "xfer_test_" + System.nanoTime(),
+            "big.bin",
+            chunks * CHUNK,
+            new byte[]{0x01, 0x02, 0x03},
+            new byte[chunks * CHUNK],
+            (int) (System.currentTimeMillis() / 1000),
+            "TestUser"
+        );
+        state.setPhase(Phase.SENDING_DATA);
+        return state;
+    }
+}
@@ -4,12 +4,14 @@
 
 package com.dialtone.unit.protocol.xfer;
 
+import com.dialtone.protocol.xfer.XferTransferEngine;
 import com.dialtone.protocol.xfer.XferTransferRegistry;
 import com.dialtone.protocol.xfer.XferTransferState;
 import com.dialtone.protocol.xfer.XferTransferState.Phase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -171,6 +173,89 @@ class XferTransferRegistryTest {
         assertSame(state, newRegistry.getActiveTransfer());
     }
 
+    @Test
+    void shouldQueueTransferWhileAnotherIsActive() {
+        XferTransferState first = createTestState();
+        XferTransferState second = createTestState();
+
+        assertTrue(registry.registerOrQueue(first));
+        assertFalse(registry.registerOrQueue(second));
+
+        assertSame(first, registry.getActiveTransfer());
+        assertEquals(Phase.QUEUED, second.getPhase());
+        assertEquals(1, registry.getQueuedCount());
+        assertEquals(List.of(first, second), registry.listTransfers());
+    }
+
+    @Test
+    void shouldNotActivateQueuedTransferWhileBusy() {
+        registry.registerOrQueue(createTestState());
+        registry.registerOrQueue(createTestState());
+
+        assertNull(registry.activateNextQueued());
+        assertEquals(1, registry.getQueuedCount());
+    }
+
+    @Test
+    void shouldActivateQueuedTransfersInOrder() {
+        XferTransferState first = createTestState();
+        XferTransferState second = createTestState();
+        XferTransferState third = createTestState();
+        registry.registerOrQueue(first);
+        registry.registerOrQueue(second);
+        registry.registerOrQueue(third);
+
+        registry.markCompleted();
+        XferTransferState next = registry.activateNextQueued();
+
+        assertSame(second, next);
+        assertSame(second, registry.getActiveTransfer());
+        assertEquals(Phase.AWAITING_XG, second.getPhase());
+        assertTrue(registry.hasTransferAwaitingXg());
+        assertEquals(List.of(second, third), registry.listTransfers());
+    }
+
+    @Test
+    void shouldRejectTransferWhenQueueIsFull() {
+        registry.registerOrQueue(createTestState());
+        int maxQueued = XferTransferEngine.getInstance().getMaxQueuedPerSession();
+        for (int i = 0; i < maxQueued; i++) {
+            registry.registerOrQueue(createTestState());
+        }
+
+        assertTrue(registry.isQueueFull());
+        assertThrows(IllegalStateException.class, () ->
+            registry.registerOrQueue(createTestState()));
+    }
+
+    @Test
+    void shouldCancelQueuedAndActiveTransfersOnClose() {
+        XferTransferState active = createTestState();
+        XferTransferState queued = createTestState();
+        registry.registerOrQueue(active);
+        registry.registerOrQueue(queued);
+        active.setPhase(Phase.SENDING_DATA);
+
+        registry.close();
+
+        assertEquals(Phase.CANCELLED, active.getPhase());
+        assertEquals(Phase.CANCELLED, queued.getPhase());
+        assertEquals(0, registry.getQueuedCount());
+        assertTrue(registry.listTransfers().isEmpty());
+    }
+
+    @Test
+    void shouldCarryQueueToRegistryWithUpdatedUsername() {
+        registry.registerOrQueue(createTestState());
+        XferTransferState queued = createTestState();
+        registry.registerOrQueue(queued);
+
+        XferTransferRegistry newRegistry = registry.withUsername("NewUser");
+
+        assertEquals(1, newRegistry.getQueuedCount());
+        assertSame(queued, newRegistry.listTransfers().get(1));
+    }
+
     private XferTransferState createTestState() {
         return new XferTransferState(
             "xfer_test_" + System.nanoTime(),
@@ -118,6 +118,55 @@ class XferTransferStateTest {
         assertTrue(str.contains("AWAITING_XG"));
     }
 
+    @Test
+    void shouldTrackEncodedBytesSent() {
+        XferTransferState state = createTestState();
+
+        state.addEncodedBytesSent(3);
+        assertEquals(3, state.getEncodedBytesSent());
+        assertFalse(state.isDataComplete());
+
+        state.addEncodedBytesSent(2);
+        assertTrue(state.isDataComplete());
+    }
+
+    @Test
+    void shouldReportProgressWhileSending() {
+        XferTransferState state = createTestState();
+        state.setPhase(Phase.SENDING_DATA);
+        state.markDataStarted();
+        state.addEncodedBytesSent(2);
+
+        XferTransferState.Progress progress = state.getProgress();
+
+        assertEquals(state.getTransferId(), progress.transferId());
+        assertEquals("TestUser", progress.screenname());
+        assertEquals("SENDING_DATA", progress.phase());
+        assertEquals(40.0, progress.percent());
+        assertTrue(progress.bytesPerSecond() > 0);
+        assertTrue(progress.etaSeconds() >= 0);
+    }
+
+    @Test
+    void shouldReportNoRateBeforeDataPhase() {
+        XferTransferState state = createTestState();
+
+        XferTransferState.Progress progress = state.getProgress();
+
+        assertEquals("AWAITING_XG", progress.phase());
+        assertEquals(0.0, progress.percent());
+        assertEquals(0, progress.bytesPerSecond());
+        assertEquals(-1, progress.etaSeconds());
+    }
+
+    @Test
+    void shouldReportFullProgressWhenCompleted() {
+        XferTransferState state = createTestState();
+        state.setPhase(Phase.COMPLETED);
+
+        assertEquals(100.0, state.getProgress().percent());
+    }
+
     private XferTransferState createTestState() {
         return new XferTransferState(
             "xfer_test_" + System.currentTimeMillis(),
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.ratelimit;
+
+import com.dialtone.ratelimit.RateLimitPolicy;
+import com.dialtone.ratelimit.RateLimiter;
+import com.dialtone.ratelimit.TokenBucket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucket, RateLimiter and RateLimitPolicy.
+ */
+@DisplayName("RateLimiter")
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    @Nested
+    @DisplayName("TokenBucket")
+    class TokenBucketTests {
+
+        @Test
+        @DisplayName("should allow a full burst and then refuse")
+        void shouldAllowBurst() {
+            TokenBucket bucket = new TokenBucket(RateLimitPolicy.perMinute(3), 0);
+
+            assertTrue(bucket.tryAcquire(0));
+            assertTrue(bucket.tryAcquire(0));
+            assertTrue(bucket.tryAcquire(0));
+            assertFalse(bucket.tryAcquire(0));
+        }
+
+        @Test
+        @DisplayName("should refill evenly over the period")
+        void shouldRefillEvenly() {
+            TokenBucket bucket = new TokenBucket(RateLimitPolicy.perMinute(3), 0);
+            for (int i = 0; i < 3; i++) {
+                bucket.tryAcquire(0);
+            }
+
+            assertFalse(bucket.tryAcquire(19_999));
+            assertTrue(bucket.tryAcquire(20_000));
+            assertFalse(bucket.tryAcquire(20_000));
+            assertEquals(3, bucket.availableTokens(80_000));
+        }
+
+        @Test
+        @DisplayName("should keep fractional refill across frequent checks")
+        void shouldAccumulateFractions() {
+            TokenBucket bucket = new TokenBucket(RateLimitPolicy.perMinute(3), 0);
+            for (int i = 0; i < 3; i++) {
+                bucket.tryAcquire(0);
+            }
+
+            for (long t = 1_000; t < 20_000; t += 1_000) {
+                assertFalse(bucket.tryAcquire(t));
+            }
+            assertTrue(bucket.tryAcquire(20_000));
+        }
+
+        @Test
+        @DisplayName("should never hand out more tokens than capacity under contention")
+        void shouldNotOverGrantConcurrently() throws Exception {
+            TokenBucket bucket = new TokenBucket(new RateLimitPolicy(1_000, 3_600_000), 0);
+            AtomicInteger granted = new AtomicInteger();
+            int threads = 8;
+            CountDownLatch done = new CountDownLatch(threads);
+
+            for (int t = 0; t < threads; t++) {
+                new Thread(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (bucket.tryAcquire(0)) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }).start();
+            }
+
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            assertEquals(1_000, granted.get());
+        }
+    }
+
+    @Nested
+    @DisplayName("Keys")
+    class KeyTests {
+
+        private RateLimiter limiter;
+
+        @BeforeEach
+        void setUp() {
+            limiter = new RateLimiter("test", RateLimitPolicy.perMinute(2), 1_000, clock::get);
+        }
+
+        @Test
+        @DisplayName("should limit each key independently")
+        void shouldSeparateKeys() {
+            assertTrue(limiter.tryAcquire("10.0.0.1"));
+            assertTrue(limiter.tryAcquire("10.0.0.1"));
+            assertFalse(limiter.tryAcquire("10.0.0.1"));
+
+            assertTrue(limiter.tryAcquire("10.0.0.2"));
+            assertEquals(1, limiter.getRejectedCount());
+            assertEquals(2, limiter.size());
+        }
+
+        @Test
+        @DisplayName("should give a refunded token back, but never beyond capacity")
+        void shouldRefundToken() {
+            assertTrue(limiter.tryAcquire("alice"));
+            assertTrue(limiter.tryAcquire("alice"));
+            limiter.refund("alice");
+            assertTrue(limiter.tryAcquire("alice"));
+            assertFalse(limiter.tryAcquire("alice"));
+
+            limiter.refund("bob");
+            limiter.tryAcquire("bob");
+            limiter.refund("bob");
+            limiter.refund("bob");
+            assertTrue(limiter.tryAcquire("bob"));
+            assertTrue(limiter.tryAcquire("bob"));
+            assertFalse(limiter.tryAcquire("bob"));
+        }
+
+        @Test
+        @DisplayName("should expire keys once their bucket has refilled")
+        void shouldExpireIdleKeys() {
+            limiter.tryAcquire("alice");
+            limiter.tryAcquire("bob");
+
+            // Checks on any key turn every shard's wheel within a few calls
+            clock.addAndGet(61_000);
+            for (int i = 0; i < 32; i++) {
+                limiter.tryAcquire("carol");
+            }
+
+            assertEquals(2, limiter.getExpiredCount());
+            assertEquals(1, limiter.size());
+        }
+
+        @Test
+        @DisplayName("should keep keys that are still in use")
+        void shouldKeepBusyKeys() {
+            for (int i = 0; i < 10; i++) {
+                limiter.tryAcquire("busy");
+                clock.addAndGet(20_000);
+            }
+
+            assertEquals(1, limiter.size());
+            assertEquals(0, limiter.getExpiredCount());
+        }
+
+        @Test
+        @DisplayName("should bound memory by sending new keys to the overflow bucket")
+        void shouldBoundKeys() {
+            RateLimiter small = new RateLimiter("small", RateLimitPolicy.perMinute(5), 16, clock::get);
+
+            int allowed = 0;
+            for (int i = 0; i < 10_000; i++) {
+                if (small.tryAcquire("203.0.113." + i)) {
+                    allowed++;
+                }
+            }
+
+            assertTrue(small.size() <= 16);
+            assertTrue(small.getOverflowCount() > 0);
+            // Tracked keys plus one overflow bucket per shard, each with 5 tokens
+            assertTrue(allowed <= 16 * 5 + 16 * 5);
+        }
+    }
+
+    @Nested
+    @DisplayName("Policy")
+    class PolicyTests {
+
+        @Test
+        @DisplayName("should parse capacity and period with units")
+        void shouldParse() {
+            assertEquals(new RateLimitPolicy(30, 60_000), RateLimitPolicy.parse("30/1m"));
+            assertEquals(new RateLimitPolicy(3, 3_600_000), RateLimitPolicy.parse(" 3 / 1h "));
+            assertEquals(new RateLimitPolicy(5, 10_000), RateLimitPolicy.parse("5/10"));
+        }
+
+        @Test
+        @DisplayName("should reject malformed or out-of-range specs")
+        void shouldRejectInvalid() {
+            assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("30"));
+            assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("x/1m"));
+            assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("0/1m"));
+            assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("99999/1m"));
+        }
+
+        @Test
+        @DisplayName("should fall back to the default for invalid properties")
+        void shouldFallBackToDefault() {
+            Properties properties = new Properties();
+            properties.setProperty("ratelimit.test", "bogus");
+
+            RateLimitPolicy fallback = RateLimitPolicy.perMinute(7);
+            assertEquals(fallback, RateLimitPolicy.fromProperties(properties, "ratelimit.test", fallback));
+            assertEquals(fallback, RateLimitPolicy.fromProperties(properties, "ratelimit.missing", fallback));
+        }
+    }
+}
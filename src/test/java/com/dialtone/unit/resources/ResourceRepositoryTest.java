@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.resources;
+
+import com.dialtone.resources.ResourceRepository;
+import com.dialtone.resources.ResourceSnapshot;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResourceRepository and ResourceSnapshot.
+ */
+@DisplayName("ResourceRepository")
+class ResourceRepositoryTest {
+
+    private static final String TEMPLATE = "fdo/test/quote_escape_test.fdo.txt";
+
+    @TempDir
+    Path tempDir;
+
+    private ResourceRepository repository;
+    private Runnable reloadListener;
+
+    @BeforeEach
+    void setUp() {
+        repository = ResourceRepository.getInstance();
+        repository.configure(new Properties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (reloadListener != null) {
+            repository.removeReloadListener(reloadListener);
+        }
+        repository.configure(new Properties());
+    }
+
+    @Nested
+    @DisplayName("Snapshot")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("should hold classpath templates")
+        void shouldHoldClasspathTemplates() throws IOException {
+            assertTrue(repository.exists(TEMPLATE));
+            assertTrue(repository.findText(TEMPLATE).isPresent());
+        }
+
+        @Test
+        @DisplayName("should ignore a leading slash")
+        void shouldIgnoreLeadingSlash() {
+            assertTrue(repository.snapshot().contains("/" + TEMPLATE));
+        }
+
+        @Test
+        @DisplayName("should report missing managed resources as absent")
+        void shouldReportMissingResources() throws IOException {
+            assertFalse(repository.exists("fdo/test/missing.fdo.txt"));
+            assertTrue(repository.findBytes("art/missing.gif").isEmpty());
+        }
+
+        @Test
+        @DisplayName("should decode a resource once per snapshot")
+        void shouldDecodeOncePerSnapshot() throws IOException {
+            AtomicInteger decodes = new AtomicInteger();
+            ResourceSnapshot snapshot = repository.snapshot();
+
+            snapshot.decode(TEMPLATE, data -> decodes.incrementAndGet());
+            snapshot.decode(TEMPLATE, data -> decodes.incrementAndGet());
+
+            assertEquals(1, decodes.get());
+        }
+
+        @Test
+        @DisplayName("should convert static text to AOL line endings")
+        void shouldConvertToAolLineEndings() {
+            assertEquals("a\rb\r\r\rc", ResourceSnapshot.toAolLineEndings("a\nb\n\nc"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Overlay")
+    class OverlayTests {
+
+        @Test
+        @DisplayName("should prefer overlay files over bundled ones")
+        void shouldPreferOverlayFiles() throws IOException {
+            write("fdo/test/quote_escape_test.fdo.txt", "overridden");
+            write("static/notes.txt", "line one\nline two");
+
+            repository.configure(overlayProperties());
+
+            assertEquals("overridden", repository.findText(TEMPLATE).orElseThrow());
+            assertEquals("line one\rline two", repository.snapshot().aolText("static/notes.txt").orElseThrow());
+        }
+
+        @Test
+        @DisplayName("should not load unmanaged overlay files")
+        void shouldSkipUnmanagedFiles() throws IOException {
+            write("static/app.js", "console.log(1)");
+
+            repository.configure(overlayProperties());
+
+            assertFalse(repository.snapshot().contains("static/app.js"));
+        }
+
+        @Test
+        @DisplayName("should swap snapshots and notify listeners on reload")
+        void shouldSwapSnapshotOnReload() throws IOException {
+            repository.configure(overlayProperties());
+            ResourceSnapshot before = repository.snapshot();
+            AtomicInteger reloads = new AtomicInteger();
+            reloadListener = reloads::incrementAndGet;
+            repository.addReloadListener(reloadListener);
+
+            write("replace_client_fdo/99-1.fdo.txt", "new form");
+            repository.reload();
+
+            assertFalse(before.contains("replace_client_fdo/99-1.fdo.txt"));
+            assertEquals("new form", repository.findText("replace_client_fdo/99-1.fdo.txt").orElseThrow());
+            assertTrue(repository.snapshot().getGeneration() > before.getGeneration());
+            assertTrue(reloads.get() >= 1);
+        }
+    }
+
+    private Properties overlayProperties() {
+        Properties props = new Properties();
+        props.setProperty("resources.overlay.dir", tempDir.toString());
+        return props;
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+}
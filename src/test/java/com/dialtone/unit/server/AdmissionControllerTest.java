@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.server;
+
+import com.dialtone.ratelimit.RateLimiters;
+import com.dialtone.server.AdmissionController;
+import com.dialtone.server.AdmissionController.Rejection;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link AdmissionController}.
+ */
+class AdmissionControllerTest {
+
+    private AdmissionController admission;
+
+    @BeforeEach
+    void setUp() {
+        Properties props = new Properties();
+        props.setProperty("admission.max.sessions", "3");
+        props.setProperty("admission.max.per.ip", "2");
+        props.setProperty("admission.lag.threshold.ms", "100");
+        props.setProperty("admission.pending.tasks.threshold", "1000");
+        admission = new AdmissionController();
+        admission.configure(props);
+        RateLimiters.getInstance().configure(new Properties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RateLimiters.getInstance().configure(new Properties());
+    }
+
+    @Test
+    void shouldRefuseBeyondMaxSessionsUntilOneCloses() {
+        assertNull(admission.tryAdmit("10.0.0.1"));
+        assertNull(admission.tryAdmit("10.0.0.2"));
+        assertNull(admission.tryAdmit("10.0.0.3"));
+
+        assertEquals(Rejection.MAX_SESSIONS, admission.tryAdmit("10.0.0.4"));
+
+        admission.release("10.0.0.1");
+        assertNull(admission.tryAdmit("10.0.0.4"));
+        assertEquals(3, admission.getSessionCount());
+    }
+
+    @Test
+    void shouldCapConnectionsPerIp() {
+        assertNull(admission.tryAdmit("10.0.0.1"));
+        assertNull(admission.tryAdmit("10.0.0.1"));
+
+        assertEquals(Rejection.IP_CONNECTIONS, admission.tryAdmit("10.0.0.1"));
+        assertNull(admission.tryAdmit("10.0.0.2"));
+        assertEquals(3, admission.getSessionCount());
+
+        admission.release("10.0.0.1");
+        assertNull(admission.tryAdmit("10.0.0.1"));
+    }
+
+    @Test
+    void shouldRefuseReconnectsBeyondConnectRate() {
+        Properties limits = new Properties();
+        limits.setProperty("ratelimit.connect.ip", "2/1m");
+        RateLimiters.getInstance().configure(limits);
+
+        for (int i = 0; i < 2; i++) {
+            assertNull(admission.tryAdmit("10.0.0.1"));
+            admission.release("10.0.0.1");
+        }
+
+        assertEquals(Rejection.CONNECT_RATE, admission.tryAdmit("10.0.0.1"));
+        assertEquals(0, admission.getSessionCount());
+        Map<?, ?> rejected = (Map<?, ?>) admission.getMetrics().get("rejected");
+        assertEquals(1L, rejected.get("CONNECT_RATE"));
+    }
+
+    @Test
+    void shouldEnterOverloadOnLagAndLeaveBelowHalfThreshold() {
+        admission.updateLoad(20, 0);
+        assertFalse(admission.isOverloaded());
+
+        admission.updateLoad(150, 0);
+        assertTrue(admission.isOverloaded());
+        assertFalse(admission.tryAdmitLogin());
+
+        admission.updateLoad(80, 0);
+        assertTrue(admission.isOverloaded(), "should stay overloaded until well under the threshold");
+
+        admission.updateLoad(40, 0);
+        assertFalse(admission.isOverloaded());
+        assertTrue(admission.tryAdmitLogin());
+        assertEquals(1L, admission.getMetrics().get("busyLogins"));
+    }
+
+    @Test
+    void shouldEnterOverloadOnPendingTasks() {
+        admission.updateLoad(0, 1500);
+
+        assertTrue(admission.isOverloaded());
+    }
+
+    @Test
+    void shouldHoldNewConnectionsWhileOverloadedAndResumeAfter() {
+        admission.updateLoad(150, 0);
+
+        EmbeddedChannel held = new EmbeddedChannel(admission);
+        assertFalse(held.config().isAutoRead());
+        assertEquals(1, admission.getWaitingCount());
+
+        admission.updateLoad(0, 0);
+
+        assertTrue(held.config().isAutoRead());
+        assertEquals(0, admission.getWaitingCount());
+        held.finishAndReleaseAll();
+    }
+
+    @Test
+    void shouldLeaveConnectionsAloneWhenNotOverloaded() {
+        EmbeddedChannel channel = new EmbeddedChannel(admission);
+
+        assertTrue(channel.config().isAutoRead());
+        assertEquals(0, admission.getWaitingCount());
+        channel.finishAndReleaseAll();
+    }
+}
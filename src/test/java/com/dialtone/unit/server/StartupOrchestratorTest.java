@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.server;
+
+import com.dialtone.server.StartupOrchestrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link StartupOrchestrator}.
+ */
+class StartupOrchestratorTest {
+
+    private final StartupOrchestrator startup = new StartupOrchestrator();
+
+    @AfterEach
+    void tearDown() {
+        startup.close();
+    }
+
+    @Test
+    void shouldRunStepAfterItsDependencies() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> a = startup.step("a", () -> order.add("a"));
+        CompletableFuture<Void> b = startup.step("b", () -> order.add("b"));
+        startup.step("c", () -> order.add("c"), a, b);
+
+        startup.awaitAll(5000);
+
+        assertEquals(3, order.size());
+        assertEquals("c", order.get(2));
+    }
+
+    @Test
+    void shouldRunIndependentStepsAtTheSameTime() throws Exception {
+        // Each step waits for the other to start: only completes if they run concurrently
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        StartupOrchestrator.Step step = () -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+        };
+        startup.step("first", step);
+        startup.step("second", step);
+
+        startup.awaitAll(10_000);
+
+        assertEquals(2, startup.getDurationsMs().size());
+    }
+
+    @Test
+    void shouldFailDependentsAndRethrowCause() {
+        AtomicBoolean dependentRan = new AtomicBoolean();
+        CompletableFuture<Void> failing = startup.step("failing", () -> {
+            throw new IOException("port in use");
+        });
+        startup.step("dependent", () -> dependentRan.set(true), failing);
+
+        IOException e = assertThrows(IOException.class, () -> startup.awaitAll(5000));
+
+        assertEquals("port in use", e.getMessage());
+        assertFalse(dependentRan.get());
+    }
+}
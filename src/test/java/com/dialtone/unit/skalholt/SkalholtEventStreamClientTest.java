@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.skalholt;
+
+import com.dialtone.skalholt.SkalholtAuthToken;
+import com.dialtone.skalholt.SkalholtEventStreamClient;
+import com.dialtone.skalholt.SkalholtSseEvent;
+import com.skalholt.events.SkalholtEventType;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SkalholtEventStreamClient")
+class SkalholtEventStreamClientTest {
+
+    private static final String EVENT_JSON =
+            "{\"uuid\":\"evt-%d\",\"skalholtEventType\":\"GOSSIP\",\"payload\":\"{}\",\"playerId\":\"p1\"}";
+
+    private NioEventLoopGroup group;
+    private HttpServer server;
+    private SkalholtEventStreamClient client;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final BlockingQueue<String> authHeaders = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        group = new NioEventLoopGroup(1);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/events", exchange -> {
+            int n = requests.incrementAndGet();
+            authHeaders.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                String json = String.format(EVENT_JSON, n);
+                // Split one event across writes, including mid-line
+                byte[] bytes = ("data: " + json + "\n\ndata: EOM\n\n").getBytes(StandardCharsets.UTF_8);
+                out.write(bytes, 0, 10);
+                out.flush();
+                out.write(bytes, 10, bytes.length - 10);
+                out.flush();
+            }
+            // Response ends here, so the client has to reconnect for the next event
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+
+    @Test
+    @DisplayName("Should deliver events and reconnect after the stream ends")
+    void shouldDeliverEventsAndReconnect() throws Exception {
+        String token = Base64.getEncoder().encodeToString("player:secret".getBytes(StandardCharsets.UTF_8));
+        BlockingQueue<SkalholtSseEvent> events = new LinkedBlockingQueue<>();
+        client = new SkalholtEventStreamClient(group, "127.0.0.1", server.getAddress().getPort(),
+                new SkalholtAuthToken(token), events::add, null, 2000);
+
+        client.connect();
+
+        SkalholtSseEvent first = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals("evt-1", first.getUuid());
+        assertEquals(SkalholtEventType.GOSSIP, first.getSkalholtEventType());
+        assertEquals("Basic " + token, authHeaders.poll(1, TimeUnit.SECONDS));
+
+        // Reconnect backoff starts at about one second
+        SkalholtSseEvent second = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(second, "Client should reconnect after the server ends the stream");
+        assertEquals("evt-2", second.getUuid());
+    }
+
+    @Test
+    @DisplayName("Should stop reconnecting after disconnect")
+    void shouldStopAfterDisconnect() throws Exception {
+        String token = Base64.getEncoder().encodeToString("player:secret".getBytes(StandardCharsets.UTF_8));
+        BlockingQueue<SkalholtSseEvent> events = new LinkedBlockingQueue<>();
+        client = new SkalholtEventStreamClient(group, "127.0.0.1", server.getAddress().getPort(),
+                new SkalholtAuthToken(token), events::add, null, 2000);
+
+        client.connect();
+        assertNotNull(events.poll(5, TimeUnit.SECONDS));
+        client.disconnect();
+
+        int seen = requests.get();
+        Thread.sleep(2500);
+        assertEquals(seen, requests.get());
+        assertFalse(client.isConnected());
+    }
+}
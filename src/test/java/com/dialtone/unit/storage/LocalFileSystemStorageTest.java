@@ -187,6 +187,45 @@ class LocalFileSystemStorageTest {
             assertEquals("text/plain", metadata.get().contentType());
             assertEquals("test", metadata.get().getCustom("source"));
         }
+
+        @Test
+        @DisplayName("should migrate sidecar into directory index")
+        void shouldMigrateSidecarIntoDirectoryIndex() throws IOException {
+            Path userDir = tempDir.resolve("user").resolve("testuser");
+            Files.createDirectories(userDir);
+            Files.writeString(userDir.resolve("test.txt"), "hello");
+            Files.writeString(userDir.resolve("test.txt.meta.json"),
+                    "{\"filename\":\"test.txt\",\"sizeBytes\":5,\"contentType\":\"text/plain\"}");
+
+            storage.getMetadata(FileStorage.Scope.USER, "testuser", "test.txt");
+
+            assertFalse(Files.exists(userDir.resolve("test.txt.meta.json")));
+            assertTrue(Files.readString(userDir.resolve(".meta-index.json")).contains("text/plain"));
+
+            // A fresh instance reads it back from the index
+            LocalFileSystemStorage other = new LocalFileSystemStorage(tempDir, 100 * 1024 * 1024);
+            Optional<FileMetadata> metadata = other.getMetadata(
+                    FileStorage.Scope.USER, "testuser", "test.txt");
+            assertTrue(metadata.isPresent());
+            assertEquals("text/plain", metadata.get().contentType());
+        }
+
+        @Test
+        @DisplayName("should pick up index changed on disk")
+        void shouldPickUpIndexChangedOnDisk() throws IOException {
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "test.txt",
+                    "hello".getBytes(StandardCharsets.UTF_8));
+            assertNull(storage.getMetadata(FileStorage.Scope.USER, "testuser", "test.txt")
+                    .orElseThrow().contentType());
+
+            Path indexFile = tempDir.resolve("user").resolve("testuser").resolve(".meta-index.json");
+            Files.writeString(indexFile,
+                    "{\"version\":1,\"files\":{\"test.txt\":{\"filename\":\"test.txt\"," +
+                    "\"sizeBytes\":5,\"contentType\":\"text/x-edited\"}}}");
+
+            assertEquals("text/x-edited", storage.getMetadata(FileStorage.Scope.USER, "testuser", "test.txt")
+                    .orElseThrow().contentType());
+        }
     }
 
     @Nested
@@ -298,6 +337,71 @@ class LocalFileSystemStorageTest {
             assertEquals("file.txt", files.get(0).filename());
         }
 
+        @Test
+        @DisplayName("should exclude metadata index file")
+        void shouldExcludeMetadataIndexFile() throws IOException {
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "file.txt",
+                    "content".getBytes(StandardCharsets.UTF_8));
+
+            List<FileMetadata> files = storage.list(FileStorage.Scope.USER, "testuser");
+
+            assertTrue(Files.exists(tempDir.resolve("user").resolve("testuser").resolve(".meta-index.json")));
+            assertEquals(1, files.size());
+            assertEquals("file.txt", files.get(0).filename());
+        }
+
+        @Test
+        @DisplayName("should read sidecars without changing the index")
+        void shouldReadSidecarsWithoutChangingIndex() throws IOException {
+            Path userDir = tempDir.resolve("user").resolve("testuser");
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "gone.txt",
+                    "bye".getBytes(StandardCharsets.UTF_8));
+            Files.delete(userDir.resolve("gone.txt"));
+            Files.writeString(userDir.resolve("legacy.txt"), "old");
+            Files.writeString(userDir.resolve("legacy.txt.meta.json"),
+                    "{\"filename\":\"legacy.txt\",\"sizeBytes\":3,\"custom\":{\"source\":\"legacy\"}}");
+            String before = Files.readString(userDir.resolve(".meta-index.json"));
+
+            List<FileMetadata> files = storage.list(FileStorage.Scope.USER, "testuser");
+
+            assertEquals(1, files.size());
+            assertEquals("legacy", files.get(0).getCustom("source"));
+            assertTrue(Files.exists(userDir.resolve("legacy.txt.meta.json")));
+            assertEquals(before, Files.readString(userDir.resolve(".meta-index.json")));
+        }
+
+        @Test
+        @DisplayName("should not lose metadata written while listing")
+        void shouldNotLoseMetadataWrittenWhileListing() throws Exception {
+            int writes = 50;
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                executor.submit(() -> {
+                    for (int i = 0; i < writes * 4; i++) {
+                        storage.list(FileStorage.Scope.USER, "testuser");
+                    }
+                    return null;
+                });
+                executor.submit(() -> {
+                    for (int i = 0; i < writes; i++) {
+                        storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "f" + i + ".txt",
+                                "x".getBytes(StandardCharsets.UTF_8));
+                        storage.setMetadata(FileStorage.Scope.USER, "testuser", "f" + i + ".txt", "n", "" + i);
+                    }
+                    return null;
+                }).get(30, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            }
+
+            LocalFileSystemStorage other = new LocalFileSystemStorage(tempDir, 100 * 1024 * 1024);
+            for (int i = 0; i < writes; i++) {
+                assertEquals(String.valueOf(i), other.getMetadata(FileStorage.Scope.USER, "testuser",
+                        "f" + i + ".txt").orElseThrow().getCustom("n"));
+            }
+        }
+
         @Test
         @DisplayName("should exclude subdirectories")
         void shouldExcludeSubdirectories() throws IOException {
@@ -371,16 +475,38 @@ class LocalFileSystemStorageTest {
         }
 
         @Test
-        @DisplayName("should create metadata sidecar file")
-        void shouldCreateMetadataSidecarFile() throws IOException {
+        @DisplayName("should record metadata in directory index")
+        void shouldRecordMetadataInDirectoryIndex() throws IOException {
             byte[] content = "hello".getBytes(StandardCharsets.UTF_8);
 
             FileMetadata metadata = storage.writeAllBytes(
                     FileStorage.Scope.USER, "testuser", "test.txt", content);
 
-            Path metaPath = tempDir.resolve("user").resolve("testuser")
-                    .resolve(metadata.filename() + ".meta.json");
-            assertTrue(Files.exists(metaPath));
+            Path userDir = tempDir.resolve("user").resolve("testuser");
+            assertFalse(Files.exists(userDir.resolve(metadata.filename() + ".meta.json")));
+            Path indexPath = userDir.resolve(".meta-index.json");
+            assertTrue(Files.exists(indexPath));
+            assertTrue(Files.readString(indexPath).contains("\"" + metadata.filename() + "\""));
+        }
+
+        @Test
+        @DisplayName("should drop entries for files removed outside the API")
+        void shouldDropEntriesForRemovedFiles() throws IOException {
+            Path userDir = tempDir.resolve("user").resolve("testuser");
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "gone.txt",
+                    "bye".getBytes(StandardCharsets.UTF_8));
+            Files.delete(userDir.resolve("gone.txt"));
+
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "new.txt",
+                    "hi".getBytes(StandardCharsets.UTF_8));
+
+            // Writes leave other entries alone; the background reconcile pass prunes them
+            assertTrue(Files.readString(userDir.resolve(".meta-index.json")).contains("gone.txt"));
+            storage.getUsageLedger().reconcile();
+
+            String index = Files.readString(userDir.resolve(".meta-index.json"));
+            assertTrue(index.contains("new.txt"));
+            assertFalse(index.contains("gone.txt"));
         }
 
         @Test
@@ -515,6 +641,62 @@ class LocalFileSystemStorageTest {
             long used = storage.getStorageUsed(FileStorage.Scope.USER, "nonexistent");
             assertEquals(0, used);
         }
+
+        @Test
+        @DisplayName("should track writes and deletes without rescanning")
+        void shouldTrackWritesAndDeletes() throws IOException {
+            assertEquals(0, storage.getStorageUsed(FileStorage.Scope.USER, "testuser"));
+
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "a.txt", new byte[100]);
+            WriteHandle handle = storage.write(FileStorage.Scope.USER, "testuser", "b.bin");
+            try (OutputStream out = handle.outputStream()) {
+                out.write(new byte[50]);
+            }
+            assertEquals(150, storage.getStorageUsed(FileStorage.Scope.USER, "testuser"));
+
+            // A file added behind the storage API is not seen until reconciliation
+            Files.write(tempDir.resolve("user").resolve("testuser").resolve("manual.bin"), new byte[7]);
+            assertEquals(150, storage.getStorageUsed(FileStorage.Scope.USER, "testuser"));
+
+            assertTrue(storage.delete(FileStorage.Scope.USER, "testuser", "a.txt"));
+            assertEquals(50, storage.getStorageUsed(FileStorage.Scope.USER, "testuser"));
+        }
+
+        @Test
+        @DisplayName("should repair drift on reconcile")
+        void shouldRepairDriftOnReconcile() throws IOException {
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "a.txt", new byte[10]);
+            assertEquals(10, storage.getStorageUsed(FileStorage.Scope.USER, "testuser"));
+
+            Files.write(tempDir.resolve("user").resolve("testuser").resolve("manual.bin"), new byte[5]);
+            assertEquals(1, storage.getUsageLedger().reconcile());
+            assertEquals(15, storage.getStorageUsed(FileStorage.Scope.USER, "testuser"));
+            assertEquals(0, storage.getUsageLedger().reconcile());
+        }
+
+        @Test
+        @DisplayName("should share totals between instances on the same directory")
+        void shouldShareTotalsBetweenInstances() throws IOException {
+            LocalFileSystemStorage other = new LocalFileSystemStorage(tempDir, 100 * 1024 * 1024);
+            assertEquals(0, other.getStorageUsed(FileStorage.Scope.USER, "testuser"));
+
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "a.txt", new byte[42]);
+
+            assertEquals(42, other.getStorageUsed(FileStorage.Scope.USER, "testuser"));
+        }
+
+        @Test
+        @DisplayName("should persist totals to the ledger file")
+        void shouldPersistLedgerFile() throws IOException {
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "a.txt", new byte[12]);
+            storage.getStorageUsed(FileStorage.Scope.USER, "testuser");
+            storage.writeAllBytes(FileStorage.Scope.USER, "testuser", "b.txt", new byte[8]);
+
+            storage.getUsageLedger().flush();
+
+            List<String> lines = Files.readAllLines(tempDir.resolve(".usage-ledger"));
+            assertTrue(lines.contains("user/testuser\t20"), "Ledger lines: " + lines);
+        }
     }
 
     @Nested
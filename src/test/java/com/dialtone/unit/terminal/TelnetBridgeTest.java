@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.terminal;
+
+import com.dialtone.terminal.TelnetBridge;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TelnetBridge")
+class TelnetBridgeTest {
+
+    private NioEventLoopGroup group;
+    private ServerSocket server;
+    private TelnetBridge bridge;
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        group = new NioEventLoopGroup(1);
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (bridge != null) {
+            bridge.close();
+        }
+        server.close();
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+
+    private TelnetBridge newBridge() {
+        return new TelnetBridge(group, "127.0.0.1", server.getLocalPort(), 2000, lines::add,
+                line -> line.startsWith("AUTH") ? null : line);
+    }
+
+    @Test
+    @DisplayName("Should decode, strip ANSI and filter lines on the event loop")
+    void shouldDecodeLines() throws Exception {
+        bridge = newBridge();
+        assertTrue(bridge.connect().get(5, TimeUnit.SECONDS));
+
+        try (Socket peer = server.accept()) {
+            OutputStream out = peer.getOutputStream();
+            // IAC WILL ECHO, colored line, filtered line, blank line, then an unterminated prompt
+            out.write(new byte[]{(byte) 0xFF, (byte) 0xFB, 0x01});
+            out.write("\u001B[31mWelcome\u001B[0m\r\nAUTH OK\r\n\r\nName: ".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            assertEquals("Welcome", lines.poll(5, TimeUnit.SECONDS));
+            assertEquals("", lines.poll(5, TimeUnit.SECONDS));
+            assertEquals("Name: ", lines.poll(5, TimeUnit.SECONDS), "Prompt should be flushed after a quiet period");
+
+            // Terminator for the flushed prompt must not show up as an extra blank line
+            out.write("\r\nNext\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            assertEquals("Next", lines.poll(5, TimeUnit.SECONDS));
+            assertNull(lines.poll(300, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("Should send commands terminated with newline")
+    void shouldSendCommands() throws Exception {
+        bridge = newBridge();
+        assertTrue(bridge.connect().get(5, TimeUnit.SECONDS));
+
+        try (Socket peer = server.accept()) {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(peer.getInputStream(), StandardCharsets.US_ASCII));
+            assertTrue(bridge.sendCommand("look"));
+            assertTrue(bridge.sendCommand("north"));
+            assertEquals(List.of("look", "north"), List.of(reader.readLine(), reader.readLine()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should report failure when server is unreachable")
+    void shouldFailWhenUnreachable() throws Exception {
+        int port = server.getLocalPort();
+        server.close();
+        bridge = new TelnetBridge(group, "127.0.0.1", port, 2000, lines::add, null);
+
+        assertFalse(bridge.connect().get(5, TimeUnit.SECONDS));
+        assertFalse(bridge.isConnected());
+        assertFalse(bridge.sendCommand("look"));
+    }
+
+    @Test
+    @DisplayName("Should notice when the server closes the connection")
+    void shouldDetectRemoteClose() throws Exception {
+        bridge = newBridge();
+        assertTrue(bridge.connect().get(5, TimeUnit.SECONDS));
+
+        try (Socket peer = server.accept()) {
+            peer.getOutputStream().write("Bye\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        assertEquals("Bye", lines.poll(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bridge.isConnected() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(bridge.isConnected());
+    }
+}
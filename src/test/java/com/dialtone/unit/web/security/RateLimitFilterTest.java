@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.web.security;
+
+import com.dialtone.web.security.RateLimitFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimitFilter.
+ * Tests which address a request is charged to.
+ */
+class RateLimitFilterTest {
+
+    private static final Set<String> PROXIES = Set.of("10.0.0.1", "10.0.0.2");
+
+    @Nested
+    @DisplayName("Client Address Tests")
+    class ClientAddressTests {
+
+        @Test
+        @DisplayName("Should ignore X-Forwarded-For from an untrusted peer")
+        void shouldIgnoreForwardedForFromUntrustedPeer() {
+            assertEquals("203.0.113.9", RateLimitFilter.resolveClientIp("203.0.113.9", "1.2.3.4", PROXIES));
+            assertEquals("203.0.113.9", RateLimitFilter.resolveClientIp("203.0.113.9", "1.2.3.4", Set.of()));
+        }
+
+        @Test
+        @DisplayName("Should use the right-most untrusted hop behind trusted proxies")
+        void shouldUseRightMostUntrustedHop() {
+            // The left-most value is whatever the client sent
+            assertEquals("198.51.100.7",
+                    RateLimitFilter.resolveClientIp("10.0.0.1", "1.2.3.4, 198.51.100.7, 10.0.0.2", PROXIES));
+        }
+
+        @Test
+        @DisplayName("Should use the peer when a trusted proxy sends no X-Forwarded-For")
+        void shouldUsePeerWithoutForwardedFor() {
+            assertEquals("10.0.0.1", RateLimitFilter.resolveClientIp("10.0.0.1", null, PROXIES));
+            assertEquals("10.0.0.1", RateLimitFilter.resolveClientIp("10.0.0.1", " ", PROXIES));
+        }
+    }
+
+    @Nested
+    @DisplayName("Configuration Tests")
+    class ConfigurationTests {
+
+        @Test
+        @DisplayName("Should parse the trusted proxy list")
+        void shouldParseTrustedProxies() {
+            Properties props = new Properties();
+            props.setProperty("web.trusted.proxies", " 10.0.0.1, ,10.0.0.2 ");
+
+            assertEquals(PROXIES, RateLimitFilter.trustedProxies(props));
+            assertTrue(RateLimitFilter.trustedProxies(new Properties()).isEmpty());
+        }
+    }
+}
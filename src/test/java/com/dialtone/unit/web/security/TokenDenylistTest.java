@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2025 iconidentify. MIT License. See LICENSE file.
+ */
+
+package com.dialtone.unit.web.security;
+
+import com.dialtone.web.security.TokenDenylist;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenDenylist.
+ * Tests revocation lookups, versioning, and expiry cleanup.
+ */
+class TokenDenylistTest {
+
+    private TokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        denylist = new TokenDenylist();
+    }
+
+    @Nested
+    @DisplayName("Revocation Tests")
+    class RevocationTests {
+
+        @Test
+        @DisplayName("Should report revoked token IDs")
+        void shouldReportRevokedTokenIds() {
+            denylist.revoke("token-1", Instant.now().plusSeconds(3600));
+
+            assertTrue(denylist.isRevoked("token-1"));
+            assertFalse(denylist.isRevoked("token-2"));
+            assertFalse(denylist.isRevoked(null));
+        }
+
+        @Test
+        @DisplayName("Should never miss a revoked token among many")
+        void shouldNeverMissRevokedTokenAmongMany() {
+            String[] ids = new String[5000];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = UUID.randomUUID().toString();
+                denylist.revoke(ids[i], Instant.now().plusSeconds(3600));
+            }
+
+            for (String id : ids) {
+                assertTrue(denylist.isRevoked(id));
+            }
+            assertEquals(ids.length, denylist.size());
+        }
+
+        @Test
+        @DisplayName("Should advance version on every revocation")
+        void shouldAdvanceVersionOnEveryRevocation() {
+            long initial = denylist.getVersion();
+
+            denylist.revoke("a", Instant.now().plusSeconds(60));
+            denylist.revoke("b", Instant.now().plusSeconds(60));
+
+            assertEquals(initial + 2, denylist.getVersion());
+        }
+    }
+
+    @Nested
+    @DisplayName("Cleanup Tests")
+    class CleanupTests {
+
+        @Test
+        @DisplayName("Should drop expired entries and keep live ones")
+        void shouldDropExpiredEntriesAndKeepLiveOnes() {
+            Instant now = Instant.now();
+            denylist.revoke("expired", now.minusSeconds(10));
+            denylist.revoke("live", now.plusSeconds(3600));
+
+            assertEquals(1, denylist.removeExpired(now));
+
+            assertFalse(denylist.isRevoked("expired"));
+            assertTrue(denylist.isRevoked("live"));
+            assertEquals(1, denylist.size());
+        }
+    }
+}
@@ -348,6 +348,51 @@ class JwtTokenServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Verified Token Cache Tests")
+    class VerifiedTokenCacheTests {
+
+        @Test
+        @DisplayName("Should serve repeat validations from cache")
+        void shouldServeRepeatValidationsFromCache() {
+            String token = jwtTokenService.generateToken(testUser);
+
+            JwtTokenService.TokenValidationResult first = jwtTokenService.validateToken(token);
+            JwtTokenService.TokenValidationResult second = jwtTokenService.validateToken(token);
+
+            assertTrue(first.isValid());
+            assertTrue(second.isValid());
+            assertEquals(first.getTokenUser(), second.getTokenUser());
+            assertEquals(1L, jwtTokenService.getCacheStats().get("hits"));
+            assertEquals(1L, jwtTokenService.getCacheStats().get("misses"));
+        }
+
+        @Test
+        @DisplayName("Should reject cached token after revocation")
+        void shouldRejectCachedTokenAfterRevocation() {
+            String token = jwtTokenService.generateToken(testUser);
+            assertTrue(jwtTokenService.validateToken(token).isValid());
+
+            jwtTokenService.revokeToken(token);
+
+            JwtTokenService.TokenValidationResult result = jwtTokenService.validateToken(token);
+            assertFalse(result.isValid());
+            assertEquals("Token has been revoked", result.getErrorMessage());
+        }
+
+        @Test
+        @DisplayName("Should not serve tampered token from cache")
+        void shouldNotServeTamperedTokenFromCache() {
+            String token = jwtTokenService.generateToken(testUser);
+            assertTrue(jwtTokenService.validateToken(token).isValid());
+
+            String[] segments = token.split("\\.");
+            String tamperedToken = segments[0] + "." + segments[1] + "." + mutateBase64Segment(segments[2]);
+
+            assertFalse(jwtTokenService.validateToken(tamperedToken).isValid());
+        }
+    }
+
     /**
      * Mutates a Base64URL segment while keeping it syntactically valid.
      */